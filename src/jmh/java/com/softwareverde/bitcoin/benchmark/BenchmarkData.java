@@ -0,0 +1,118 @@
+package com.softwareverde.bitcoin.benchmark;
+
+import com.softwareverde.bitcoin.block.Block;
+import com.softwareverde.bitcoin.block.BlockInflater;
+import com.softwareverde.bitcoin.transaction.Transaction;
+import com.softwareverde.bitcoin.transaction.TransactionInflater;
+import com.softwareverde.bitcoin.transaction.input.TransactionInput;
+import com.softwareverde.bitcoin.transaction.output.TransactionOutput;
+import com.softwareverde.bitcoin.transaction.output.TransactionOutputInflater;
+import com.softwareverde.bitcoin.transaction.script.runner.context.MutableTransactionContext;
+import com.softwareverde.bitcoin.util.IoUtil;
+import com.softwareverde.constable.bytearray.ByteArray;
+import com.softwareverde.constable.list.List;
+import com.softwareverde.constable.list.mutable.MutableList;
+
+import java.io.File;
+import java.net.URL;
+import java.util.Arrays;
+
+/**
+ * Loads the fixtures shared by the benchmarks.
+ *  Blocks are read from the "blocks" resource directory, which is shared with the unit tests (src/test/resources/blocks).
+ *  Signature fixtures are shared with the unit tests via SignatureTestUtil.
+ */
+public class BenchmarkData {
+    public static final String BLOCKS_RESOURCE_DIRECTORY = "/blocks";
+
+    /**
+     * Transaction 0C054B865E4CB44746E46BBEF579BF5AD00577F84ED9DAF0733A0E1523006D32, one of the first Schnorr signatures after the 20190515 HF.
+     *  Its first (and only) input spends a P2PKH output.
+     */
+    public static final String SCHNORR_TRANSACTION_BYTES = "01000000018ED4963D2710FBAE533097342DE5BEFFA69B4A0F76C8C2FD984F53B9A85F85A8000000006441BD49BBF18F6EFD604AD8EE21A7C361561618E54B0C59B8F1C442FBBB8255CE9FF36160C0551DD6E1CC6A95BE43D628E6A186A7B8C391F32A57CE27E3AF5A3A9D41210214EE3C4F99BDAF019B03A87E655B63DCD2A1664C6387E2AFB9B5275695ACBB25FEFFFFFF0200000000000000002C6A04010101010F6263685F7363686E6F72725F706C7315017F9FA1E2C8E6C6C7E41AD36868D76310CA6ECB04A3910100000000001976A914D59A2521310F0AAB3C40E399A6D7859CAE3408DA88AC17E40800";
+    public static final String SCHNORR_TRANSACTION_OUTPUT_BEING_SPENT_BYTES = "91920100000000001976A914B075848D9130E9948C79B7FF363B5FC7378B755F88AC";
+    public static final Long SCHNORR_TRANSACTION_BLOCK_HEIGHT = 582680L;
+
+    protected BenchmarkData() { }
+
+    public static List<ByteArray> loadBlockBytes() {
+        final File[] blockFiles;
+        try {
+            final URL blocksDirectoryUrl = BenchmarkData.class.getResource(BLOCKS_RESOURCE_DIRECTORY);
+            if (blocksDirectoryUrl == null) { throw new RuntimeException("Unable to find resource directory: " + BLOCKS_RESOURCE_DIRECTORY); }
+
+            final File blocksDirectory = new File(blocksDirectoryUrl.toURI());
+            blockFiles = blocksDirectory.listFiles();
+            if (blockFiles == null) { throw new RuntimeException("Unable to list resource directory: " + BLOCKS_RESOURCE_DIRECTORY); }
+        }
+        catch (final Exception exception) {
+            throw new RuntimeException(exception);
+        }
+
+        Arrays.sort(blockFiles); // Ensure the blocks are loaded in a consistent order between runs.
+
+        final MutableList<ByteArray> blocksBytes = new MutableList<ByteArray>(blockFiles.length);
+        for (final File blockFile : blockFiles) {
+            final String blockHexString = IoUtil.getResource(BLOCKS_RESOURCE_DIRECTORY + "/" + blockFile.getName());
+            final ByteArray blockBytes = ByteArray.fromHexString(blockHexString.trim());
+            if (blockBytes == null) { continue; }
+
+            blocksBytes.add(blockBytes);
+        }
+        return blocksBytes;
+    }
+
+    public static List<Block> loadBlocks() {
+        final BlockInflater blockInflater = new BlockInflater();
+
+        final List<ByteArray> blocksBytes = BenchmarkData.loadBlockBytes();
+        final MutableList<Block> blocks = new MutableList<Block>(blocksBytes.getCount());
+        for (final ByteArray blockBytes : blocksBytes) {
+            final Block block = blockInflater.fromBytes(blockBytes);
+            if (block == null) { continue; }
+
+            blocks.add(block);
+        }
+        return blocks;
+    }
+
+    /**
+     * Returns the Block with the most Transactions.
+     */
+    public static Block loadLargestBlock() {
+        Block largestBlock = null;
+        for (final Block block : BenchmarkData.loadBlocks()) {
+            if ( (largestBlock == null) || (block.getTransactionCount() > largestBlock.getTransactionCount()) ) {
+                largestBlock = block;
+            }
+        }
+        return largestBlock;
+    }
+
+    public static Transaction getSchnorrTransaction() {
+        final TransactionInflater transactionInflater = new TransactionInflater();
+        return transactionInflater.fromBytes(ByteArray.fromHexString(SCHNORR_TRANSACTION_BYTES));
+    }
+
+    public static TransactionOutput getSchnorrTransactionOutputBeingSpent() {
+        final TransactionOutputInflater transactionOutputInflater = new TransactionOutputInflater();
+        return transactionOutputInflater.fromBytes(0, ByteArray.fromHexString(SCHNORR_TRANSACTION_OUTPUT_BEING_SPENT_BYTES).getBytes());
+    }
+
+    /**
+     * Returns the TransactionContext for validating the first input of the Schnorr Transaction.
+     */
+    public static MutableTransactionContext createSchnorrTransactionContext() {
+        final Transaction transaction = BenchmarkData.getSchnorrTransaction();
+        final TransactionInput transactionInput = transaction.getTransactionInputs().get(0);
+        final TransactionOutput transactionOutput = BenchmarkData.getSchnorrTransactionOutputBeingSpent();
+
+        final MutableTransactionContext transactionContext = new MutableTransactionContext();
+        transactionContext.setBlockHeight(SCHNORR_TRANSACTION_BLOCK_HEIGHT);
+        transactionContext.setTransaction(transaction);
+        transactionContext.setTransactionInput(transactionInput);
+        transactionContext.setTransactionOutputBeingSpent(transactionOutput);
+        transactionContext.setTransactionInputIndex(0);
+        return transactionContext;
+    }
+}
@@ -0,0 +1,56 @@
+package com.softwareverde.bitcoin.benchmark;
+
+import com.softwareverde.bitcoin.block.Block;
+import com.softwareverde.bitcoin.block.merkleroot.MerkleTreeNode;
+import com.softwareverde.bitcoin.merkleroot.MerkleRoot;
+import com.softwareverde.bitcoin.transaction.Transaction;
+import com.softwareverde.constable.list.List;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures building the MerkleTree of the test-resource Block with the most Transactions and calculating its MerkleRoot.
+ *  The Transactions' hashes are calculated during setup so that only the tree's hashing is measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MerkleTreeBenchmark {
+    protected List<Transaction> _transactions;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        final Block block = BenchmarkData.loadLargestBlock();
+        _transactions = block.getTransactions();
+
+        for (final Transaction transaction : _transactions) {
+            transaction.getHash();
+        }
+
+        final MerkleRoot merkleRoot = this.calculateMerkleRoot();
+        if (! merkleRoot.equals(block.getMerkleRoot())) { throw new RuntimeException("Benchmark MerkleRoot mismatch."); }
+    }
+
+    @Benchmark
+    public MerkleRoot calculateMerkleRoot() {
+        final MerkleTreeNode<Transaction> merkleTree = new MerkleTreeNode<Transaction>();
+        for (final Transaction transaction : _transactions) {
+            merkleTree.addItem(transaction);
+        }
+        return merkleTree.getMerkleRoot();
+    }
+}
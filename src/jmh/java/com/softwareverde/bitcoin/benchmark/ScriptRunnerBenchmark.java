@@ -0,0 +1,56 @@
+package com.softwareverde.bitcoin.benchmark;
+
+import com.softwareverde.bitcoin.transaction.script.locking.LockingScript;
+import com.softwareverde.bitcoin.transaction.script.runner.ScriptRunner;
+import com.softwareverde.bitcoin.transaction.script.runner.context.MutableTransactionContext;
+import com.softwareverde.bitcoin.transaction.script.unlocking.UnlockingScript;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures unlocking a (Schnorr-signed) P2PKH input, including the signature verification.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ScriptRunnerBenchmark {
+    @Param({ "true", "false" })
+    public boolean standardScriptEvaluationIsEnabled;
+
+    protected final ScriptRunner _scriptRunner = new ScriptRunner();
+    protected MutableTransactionContext _transactionContext;
+    protected LockingScript _lockingScript;
+    protected UnlockingScript _unlockingScript;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        _scriptRunner.setStandardScriptEvaluationIsEnabled(standardScriptEvaluationIsEnabled);
+
+        _transactionContext = BenchmarkData.createSchnorrTransactionContext();
+        _lockingScript = _transactionContext.getTransactionOutput().getLockingScript();
+        _unlockingScript = _transactionContext.getTransactionInput().getUnlockingScript();
+
+        final Boolean inputIsUnlocked = _scriptRunner.runScript(_lockingScript, _unlockingScript, _transactionContext);
+        if (! inputIsUnlocked) { throw new RuntimeException("Benchmark script failed to unlock."); }
+    }
+
+    @Benchmark
+    public Boolean runScript() {
+        return _scriptRunner.runScript(_lockingScript, _unlockingScript, _transactionContext);
+    }
+}
@@ -0,0 +1,105 @@
+package com.softwareverde.bitcoin.benchmark;
+
+import com.softwareverde.bitcoin.secp256k1.SchnorrBatchVerifier;
+import com.softwareverde.bitcoin.secp256k1.Secp256k1;
+import com.softwareverde.bitcoin.test.util.SignatureTestUtil;
+import com.softwareverde.constable.list.List;
+import com.softwareverde.cryptography.secp256k1.Schnorr;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures signature verification: ECDSA (via libsecp256k1 when available, otherwise BouncyCastle),
+ *  a single Schnorr signature, and a batch of Schnorr signatures (reported per signature).
+ *  verifySchnorrSignature is the path used when BlockValidator's Schnorr batching is disabled; since the libsecp256k1 JNI binding
+ *  only provides ECDSA, it uses BouncyCastle even when NativeSecp256k1 is loaded.  Batching is only worthwhile while
+ *  verifySchnorrSignatureBatch remains faster per signature.
+ *  The ECDSA signatures are the real signatures of Block 300000's P2PKH inputs, verified against their signature hashes.
+ *  Since no stored Block has a Schnorr spend with its output being spent, the Schnorr signatures sign those same historic messages
+ *  with distinct keys (see SignatureTestUtil::createSchnorrSignatures).  Each invocation verifies the next signature, so no signature is repeatedly verified back-to-back.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class Secp256k1Benchmark {
+    public static final int SCHNORR_BATCH_SIZE = 64;
+
+    protected static SignatureTestUtil.SignedMessage[] _toArray(final List<SignatureTestUtil.SignedMessage> signedMessages) {
+        final SignatureTestUtil.SignedMessage[] array = new SignatureTestUtil.SignedMessage[signedMessages.getCount()];
+        for (int i = 0; i < array.length; ++i) {
+            array[i] = signedMessages.get(i);
+        }
+        return array;
+    }
+
+    protected SignatureTestUtil.SignedMessage[] _ecdsaSignatures;
+    protected SignatureTestUtil.SignedMessage[] _schnorrSignatures;
+    protected SchnorrBatchVerifier[] _schnorrBatchVerifiers;
+
+    protected int _ecdsaIndex = 0;
+    protected int _schnorrIndex = 0;
+    protected int _schnorrBatchIndex = 0;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        final List<SignatureTestUtil.SignedMessage> historicSignatures = SignatureTestUtil.loadHistoricBlockSignatures();
+        _ecdsaSignatures = Secp256k1Benchmark._toArray(historicSignatures);
+        _schnorrSignatures = Secp256k1Benchmark._toArray(SignatureTestUtil.createSchnorrSignatures(historicSignatures));
+
+        for (final SignatureTestUtil.SignedMessage signedMessage : _ecdsaSignatures) {
+            if (! Secp256k1.verifySignature(signedMessage.signature, signedMessage.publicKey, signedMessage.message)) { throw new RuntimeException("Benchmark ECDSA signature is invalid."); }
+        }
+
+        final int batchCount = (_schnorrSignatures.length / SCHNORR_BATCH_SIZE);
+        if (batchCount < 1) { throw new RuntimeException("Insufficient benchmark Schnorr signatures."); }
+
+        _schnorrBatchVerifiers = new SchnorrBatchVerifier[batchCount];
+        for (int i = 0; i < batchCount; ++i) {
+            final SchnorrBatchVerifier schnorrBatchVerifier = new SchnorrBatchVerifier(SCHNORR_BATCH_SIZE);
+            for (int j = 0; j < SCHNORR_BATCH_SIZE; ++j) {
+                final SignatureTestUtil.SignedMessage signedMessage = _schnorrSignatures[(i * SCHNORR_BATCH_SIZE) + j];
+                schnorrBatchVerifier.add(signedMessage.signature, signedMessage.publicKey, signedMessage.message);
+            }
+
+            if (! schnorrBatchVerifier.verifySignatures()) { throw new RuntimeException("Benchmark Schnorr batch is invalid."); }
+            _schnorrBatchVerifiers[i] = schnorrBatchVerifier;
+        }
+    }
+
+    @Benchmark
+    public Boolean verifyEcdsaSignature() {
+        final SignatureTestUtil.SignedMessage signedMessage = _ecdsaSignatures[_ecdsaIndex];
+        _ecdsaIndex = ((_ecdsaIndex + 1) % _ecdsaSignatures.length);
+        return Secp256k1.verifySignature(signedMessage.signature, signedMessage.publicKey, signedMessage.message);
+    }
+
+    @Benchmark
+    public Boolean verifySchnorrSignature() {
+        final SignatureTestUtil.SignedMessage signedMessage = _schnorrSignatures[_schnorrIndex];
+        _schnorrIndex = ((_schnorrIndex + 1) % _schnorrSignatures.length);
+        return Schnorr.verifySignature(signedMessage.signature, signedMessage.publicKey, signedMessage.message.getBytes());
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SCHNORR_BATCH_SIZE)
+    public Boolean verifySchnorrSignatureBatch() {
+        final SchnorrBatchVerifier schnorrBatchVerifier = _schnorrBatchVerifiers[_schnorrBatchIndex];
+        _schnorrBatchIndex = ((_schnorrBatchIndex + 1) % _schnorrBatchVerifiers.length);
+        return schnorrBatchVerifier.verifySignatures();
+    }
+}
@@ -0,0 +1,74 @@
+package com.softwareverde.bitcoin.benchmark;
+
+import com.softwareverde.bitcoin.block.Block;
+import com.softwareverde.bitcoin.block.BlockDeflater;
+import com.softwareverde.bitcoin.block.BlockInflater;
+import com.softwareverde.bitcoin.transaction.Transaction;
+import com.softwareverde.bitcoin.transaction.TransactionDeflater;
+import com.softwareverde.bitcoin.transaction.TransactionInflater;
+import com.softwareverde.constable.bytearray.ByteArray;
+import com.softwareverde.constable.list.List;
+import com.softwareverde.constable.list.mutable.MutableList;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures deserializing every Block (and, separately, every Transaction) within the test-resource Blocks.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TransactionInflaterBenchmark {
+    protected List<ByteArray> _blocksBytes;
+    protected List<ByteArray> _transactionsBytes;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        final BlockDeflater blockDeflater = new BlockDeflater();
+        final TransactionDeflater transactionDeflater = new TransactionDeflater();
+
+        final MutableList<ByteArray> blocksBytes = new MutableList<ByteArray>();
+        final MutableList<ByteArray> transactionsBytes = new MutableList<ByteArray>();
+        for (final Block block : BenchmarkData.loadBlocks()) {
+            blocksBytes.add(blockDeflater.toBytes(block));
+
+            for (final Transaction transaction : block.getTransactions()) {
+                transactionsBytes.add(transactionDeflater.toBytes(transaction));
+            }
+        }
+
+        _blocksBytes = blocksBytes;
+        _transactionsBytes = transactionsBytes;
+    }
+
+    @Benchmark
+    public void inflateTransactions(final Blackhole blackhole) {
+        final TransactionInflater transactionInflater = new TransactionInflater();
+        for (final ByteArray transactionBytes : _transactionsBytes) {
+            blackhole.consume(transactionInflater.fromBytes(transactionBytes));
+        }
+    }
+
+    @Benchmark
+    public void inflateBlocks(final Blackhole blackhole) {
+        final BlockInflater blockInflater = new BlockInflater();
+        for (final ByteArray blockBytes : _blocksBytes) {
+            blackhole.consume(blockInflater.fromBytes(blockBytes));
+        }
+    }
+}
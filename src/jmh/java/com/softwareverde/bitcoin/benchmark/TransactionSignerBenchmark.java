@@ -0,0 +1,94 @@
+package com.softwareverde.bitcoin.benchmark;
+
+import com.softwareverde.bitcoin.block.Block;
+import com.softwareverde.bitcoin.transaction.Transaction;
+import com.softwareverde.bitcoin.transaction.output.TransactionOutput;
+import com.softwareverde.bitcoin.transaction.script.signature.hashtype.HashType;
+import com.softwareverde.bitcoin.transaction.signer.SignatureContext;
+import com.softwareverde.bitcoin.transaction.signer.TransactionSigner;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures calculating the Bitcoin Cash (BIP143-style) preimage for signing.
+ *  TransactionSigner::_getBitcoinCashBytesForSigning is measured via TransactionSigner::getBytesForSigning.
+ *  The wide Transaction is the test-resource Transaction with the most inputs; since its previous outputs are not available,
+ *  every input is assumed to spend the (P2PKH) output spent by the Schnorr Transaction.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TransactionSignerBenchmark {
+    protected static SignatureContext[] _createSignatureContexts(final Transaction transaction, final TransactionOutput transactionOutputBeingSpent, final Long blockHeight) {
+        final HashType hashType = new HashType(com.softwareverde.bitcoin.transaction.script.signature.hashtype.Mode.SIGNATURE_HASH_ALL, true, true);
+
+        final int transactionInputCount = transaction.getTransactionInputs().getCount();
+        final SignatureContext[] signatureContexts = new SignatureContext[transactionInputCount];
+        for (int i = 0; i < transactionInputCount; ++i) {
+            final SignatureContext signatureContext = new SignatureContext(transaction, hashType, blockHeight);
+            for (int j = 0; j < transactionInputCount; ++j) {
+                signatureContext.setShouldSignInputScript(j, (i == j), transactionOutputBeingSpent);
+            }
+            signatureContext.setInputIndexBeingSigned(i);
+            signatureContexts[i] = signatureContext;
+        }
+        return signatureContexts;
+    }
+
+    protected final TransactionSigner _transactionSigner = new TransactionSigner();
+    protected SignatureContext[] _schnorrTransactionSignatureContexts;
+    protected SignatureContext[] _wideTransactionSignatureContexts;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        final TransactionOutput transactionOutputBeingSpent = BenchmarkData.getSchnorrTransactionOutputBeingSpent();
+
+        final Transaction schnorrTransaction = BenchmarkData.getSchnorrTransaction();
+        _schnorrTransactionSignatureContexts = TransactionSignerBenchmark._createSignatureContexts(schnorrTransaction, transactionOutputBeingSpent, BenchmarkData.SCHNORR_TRANSACTION_BLOCK_HEIGHT);
+
+        Transaction wideTransaction = schnorrTransaction;
+        for (final Block block : BenchmarkData.loadBlocks()) {
+            boolean isCoinbase = true;
+            for (final Transaction transaction : block.getTransactions()) {
+                if (isCoinbase) {
+                    isCoinbase = false;
+                    continue;
+                }
+
+                if (transaction.getTransactionInputs().getCount() > wideTransaction.getTransactionInputs().getCount()) {
+                    wideTransaction = transaction;
+                }
+            }
+        }
+        _wideTransactionSignatureContexts = TransactionSignerBenchmark._createSignatureContexts(wideTransaction, transactionOutputBeingSpent, BenchmarkData.SCHNORR_TRANSACTION_BLOCK_HEIGHT);
+    }
+
+    @Benchmark
+    public void getBytesForSigningSingleInput(final Blackhole blackhole) {
+        for (final SignatureContext signatureContext : _schnorrTransactionSignatureContexts) {
+            blackhole.consume(_transactionSigner.getBytesForSigning(signatureContext));
+        }
+    }
+
+    @Benchmark
+    public void getBytesForSigningAllInputs(final Blackhole blackhole) {
+        for (final SignatureContext signatureContext : _wideTransactionSignatureContexts) {
+            blackhole.consume(_transactionSigner.getBytesForSigning(signatureContext));
+        }
+    }
+}
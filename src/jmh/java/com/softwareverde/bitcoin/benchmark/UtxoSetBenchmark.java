@@ -0,0 +1,119 @@
+package com.softwareverde.bitcoin.benchmark;
+
+import com.softwareverde.bitcoin.server.module.node.database.transaction.fullnode.utxo.UnspentTransactionOutputJvmManager;
+import com.softwareverde.bitcoin.server.module.node.database.transaction.fullnode.utxo.jvm.JvmSpentState;
+import com.softwareverde.bitcoin.server.module.node.database.transaction.fullnode.utxo.jvm.UtxoKey;
+import com.softwareverde.bitcoin.server.module.node.database.transaction.fullnode.utxo.jvm.UtxoValue;
+import com.softwareverde.bitcoin.util.ByteUtil;
+import com.softwareverde.cryptography.util.HashUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures UnspentTransactionOutputJvmManager's in-memory UTXO lookups (UnspentTransactionOutputJvmManager::_getCachedSpentState).
+ *  The lookups acquire the UTXO read-mutex and check the UTXO set and then the double-buffer, as the manager does before querying disk.
+ *  Lookups are reported per UtxoKey, for both present ("hit") and absent ("miss") outputs; misses stop before the committed set on disk is queried.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = { "-Xmx4g" })
+public class UtxoSetBenchmark {
+    public static final int LOOKUP_COUNT = 1024;
+
+    /**
+     * Exposes the manager's cache lookup and populates its (static) UTXO set; no database connection is used.
+     */
+    protected static class BenchmarkUtxoManager extends UnspentTransactionOutputJvmManager {
+        public BenchmarkUtxoManager(final Long maxUtxoCount) {
+            super(maxUtxoCount, 0.5F, null, null, null);
+        }
+
+        public void putUtxo(final UtxoKey utxoKey, final UtxoValue utxoValue) {
+            UTXO_WRITE_MUTEX.lock();
+            try {
+                UTXO_SET.put(utxoKey, utxoValue);
+            }
+            finally {
+                UTXO_WRITE_MUTEX.unlock();
+            }
+        }
+
+        public JvmSpentState getCachedSpentState(final UtxoKey utxoKey) {
+            UTXO_READ_MUTEX.lock();
+            try {
+                return UnspentTransactionOutputJvmManager._getCachedSpentState(utxoKey);
+            }
+            finally {
+                UTXO_READ_MUTEX.unlock();
+            }
+        }
+    }
+
+    protected static UtxoKey _createUtxoKey(final int index) {
+        final byte[] transactionHash = HashUtil.sha256(ByteUtil.integerToBytes(index));
+        return new UtxoKey(transactionHash, (index % 3));
+    }
+
+    @Param({ "100000", "1000000" })
+    public int utxoCount;
+
+    protected BenchmarkUtxoManager _utxoManager;
+    protected final UtxoKey[] _presentUtxoKeys = new UtxoKey[LOOKUP_COUNT];
+    protected final UtxoKey[] _absentUtxoKeys = new UtxoKey[LOOKUP_COUNT];
+
+    @Setup(Level.Trial)
+    public void setup() {
+        final JvmSpentState spentState = new JvmSpentState();
+        spentState.setIsSpent(false);
+        spentState.setIsFlushedToDisk(true);
+        spentState.setIsFlushMandatory(false);
+
+        _utxoManager = new BenchmarkUtxoManager((long) utxoCount);
+        _utxoManager.clearUncommittedUtxoSet();
+        for (int i = 0; i < utxoCount; ++i) {
+            final UtxoKey utxoKey = UtxoSetBenchmark._createUtxoKey(i);
+            _utxoManager.putUtxo(utxoKey, new UtxoValue(spentState, i));
+        }
+
+        final int stride = Math.max(1, (utxoCount / LOOKUP_COUNT));
+        for (int i = 0; i < LOOKUP_COUNT; ++i) {
+            _presentUtxoKeys[i] = UtxoSetBenchmark._createUtxoKey((i * stride) % utxoCount);
+            _absentUtxoKeys[i] = UtxoSetBenchmark._createUtxoKey(utxoCount + i);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        _utxoManager.clearUncommittedUtxoSet();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LOOKUP_COUNT)
+    public void getPresentUtxos(final Blackhole blackhole) {
+        for (final UtxoKey utxoKey : _presentUtxoKeys) {
+            blackhole.consume(_utxoManager.getCachedSpentState(utxoKey));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LOOKUP_COUNT)
+    public void getAbsentUtxos(final Blackhole blackhole) {
+        for (final UtxoKey utxoKey : _absentUtxoKeys) {
+            blackhole.consume(_utxoManager.getCachedSpentState(utxoKey));
+        }
+    }
+}
@@ -5,30 +5,33 @@ import com.softwareverde.bitcoin.block.header.BlockHeaderInflater;
 import com.softwareverde.bitcoin.transaction.Transaction;
 import com.softwareverde.bitcoin.transaction.TransactionDeflater;
 import com.softwareverde.bitcoin.util.ByteUtil;
+import com.softwareverde.bitcoin.util.bytearray.ByteArrayWriter;
 import com.softwareverde.constable.bytearray.ByteArray;
+import com.softwareverde.constable.bytearray.MutableByteArray;
 import com.softwareverde.constable.list.List;
 import com.softwareverde.json.Json;
-import com.softwareverde.util.bytearray.ByteArrayBuilder;
-import com.softwareverde.util.bytearray.Endian;
 
 public class BlockDeflater {
     protected final BlockHeaderDeflater _blockHeaderDeflater = new BlockHeaderDeflater();
     protected final TransactionDeflater _transactionDeflater = new TransactionDeflater();
 
+    /**
+     * Serializes the Block into a single array sized via BlockDeflater::getByteCount; each Transaction is written directly into that array.
+     */
     public ByteArray toBytes(final Block block) {
         final List<Transaction> transactions = block.getTransactions();
-
         final int transactionCount = transactions.getCount();
-        final ByteArrayBuilder byteArrayBuilder = _blockHeaderDeflater.toByteArrayBuilder(block);
-        byteArrayBuilder.appendBytes(ByteUtil.variableLengthIntegerToBytes(transactionCount), Endian.BIG);
+
+        final ByteArrayWriter byteArrayWriter = new ByteArrayWriter(this.getByteCount(block));
+        _blockHeaderDeflater.writeBytes(block, byteArrayWriter);
+        byteArrayWriter.writeVariableSizedInteger(transactionCount);
 
         for (int i = 0; i < transactionCount; ++i) {
             final Transaction transaction = transactions.get(i);
-            final ByteArray transactionBytes = _transactionDeflater.toBytes(transaction);
-            byteArrayBuilder.appendBytes(transactionBytes, Endian.BIG);
+            _transactionDeflater.writeBytes(transaction, byteArrayWriter);
         }
 
-        return byteArrayBuilder;
+        return MutableByteArray.wrap(byteArrayWriter.unwrap());
     }
 
     public Integer getByteCount(final Block block) {
@@ -37,7 +40,7 @@ public class BlockDeflater {
         Integer byteCount = BlockHeaderInflater.BLOCK_HEADER_BYTE_COUNT;
 
         final int transactionCount = transactions.getCount();
-        byteCount += ByteUtil.variableLengthIntegerToBytes(transactionCount).length;
+        byteCount += ByteUtil.getVariableLengthIntegerByteCount(transactionCount);
 
         for (int i = 0; i < transactionCount; ++i) {
             final Transaction transaction = transactions.get(i);
@@ -0,0 +1,66 @@
+package com.softwareverde.bitcoin.block.filter;
+
+import com.softwareverde.bitcoin.util.ByteUtil;
+import com.softwareverde.constable.bytearray.ByteArray;
+import com.softwareverde.constable.bytearray.MutableByteArray;
+import com.softwareverde.cryptography.hash.sha256.Sha256Hash;
+import com.softwareverde.cryptography.util.HashUtil;
+
+/**
+ * A BIP-158 compact Block filter: the serialized GolombCodedSet of a Block's filter elements.
+ *  Filters are chained by their filter headers (BIP-157), so a client may verify a filter against the header chain served by multiple peers.
+ */
+public class BlockFilter {
+    public static final Sha256Hash GENESIS_PREVIOUS_FILTER_HEADER = Sha256Hash.EMPTY_HASH;
+
+    /**
+     * Returns the SipHash key for the Block's filter: the first 16 bytes of the Block's hash, in little-endian (i.e. serialized) byte order.
+     */
+    public static ByteArray getKey(final Sha256Hash blockHash) {
+        return blockHash.toReversedEndian();
+    }
+
+    /**
+     * Returns the filter header, which commits to the filter's hash and the previous Block's filter header.
+     *  The filter header of the genesis Block uses GENESIS_PREVIOUS_FILTER_HEADER as its previous filter header.
+     */
+    public static Sha256Hash calculateFilterHeader(final Sha256Hash filterHash, final Sha256Hash previousFilterHeader) {
+        final MutableByteArray preImage = new MutableByteArray(Sha256Hash.BYTE_COUNT * 2);
+        ByteUtil.setBytes(preImage.unwrap(), filterHash.toReversedEndian().getBytes());
+        ByteUtil.setBytes(preImage.unwrap(), previousFilterHeader.toReversedEndian().getBytes(), Sha256Hash.BYTE_COUNT);
+        return HashUtil.doubleSha256(preImage).toReversedEndian();
+    }
+
+    protected final BlockFilterType _blockFilterType;
+    protected final ByteArray _bytes;
+    protected Sha256Hash _cachedHash = null;
+
+    public BlockFilter(final BlockFilterType blockFilterType, final ByteArray bytes) {
+        _blockFilterType = blockFilterType;
+        _bytes = bytes.asConst();
+    }
+
+    public BlockFilterType getBlockFilterType() {
+        return _blockFilterType;
+    }
+
+    public ByteArray getBytes() {
+        return _bytes;
+    }
+
+    public Sha256Hash getHash() {
+        final Sha256Hash cachedHash = _cachedHash;
+        if (cachedHash != null) { return cachedHash; }
+
+        final Sha256Hash hash = HashUtil.doubleSha256(_bytes).toReversedEndian();
+        _cachedHash = hash;
+        return hash;
+    }
+
+    /**
+     * Returns the filter's GolombCodedSet, used to match items against the filter, or null if the filter is malformed.
+     */
+    public GolombCodedSet getGolombCodedSet(final Sha256Hash blockHash) {
+        return GolombCodedSet.fromBytes(BlockFilter.getKey(blockHash), _bytes, _blockFilterType.p, _blockFilterType.m);
+    }
+}
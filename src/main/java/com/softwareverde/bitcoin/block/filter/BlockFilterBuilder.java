@@ -0,0 +1,44 @@
+package com.softwareverde.bitcoin.block.filter;
+
+import com.softwareverde.bitcoin.block.Block;
+import com.softwareverde.bitcoin.transaction.Transaction;
+import com.softwareverde.bitcoin.transaction.output.TransactionOutput;
+import com.softwareverde.bitcoin.transaction.script.locking.LockingScript;
+import com.softwareverde.bitcoin.transaction.script.opcode.Opcode;
+import com.softwareverde.constable.bytearray.ByteArray;
+import com.softwareverde.constable.list.List;
+
+import java.util.HashSet;
+
+public class BlockFilterBuilder {
+    /**
+     * Builds the BIP-158 basic filter for the Block.
+     *  The filter contains each output's LockingScript (excluding empty and OP_RETURN scripts) and the LockingScript spent by each
+     *  non-coinbase input (excluding empty scripts); spentLockingScripts must therefore contain the LockingScript of every TransactionOutput
+     *  spent by the Block, in any order.
+     */
+    public BlockFilter buildBasicBlockFilter(final Block block, final List<LockingScript> spentLockingScripts) {
+        final HashSet<ByteArray> items = new HashSet<ByteArray>();
+
+        for (final Transaction transaction : block.getTransactions()) {
+            for (final TransactionOutput transactionOutput : transaction.getTransactionOutputs()) {
+                final ByteArray lockingScriptBytes = transactionOutput.getLockingScript().getBytes();
+                if (lockingScriptBytes.isEmpty()) { continue; }
+                if (lockingScriptBytes.getByte(0) == Opcode.RETURN.getValue()) { continue; }
+
+                items.add(lockingScriptBytes.asConst());
+            }
+        }
+
+        for (final LockingScript lockingScript : spentLockingScripts) {
+            final ByteArray lockingScriptBytes = lockingScript.getBytes();
+            if (lockingScriptBytes.isEmpty()) { continue; }
+
+            items.add(lockingScriptBytes.asConst());
+        }
+
+        final BlockFilterType blockFilterType = BlockFilterType.BASIC;
+        final GolombCodedSet golombCodedSet = GolombCodedSet.build(BlockFilter.getKey(block.getHash()), items, blockFilterType.p, blockFilterType.m);
+        return new BlockFilter(blockFilterType, golombCodedSet.getBytes());
+    }
+}
@@ -0,0 +1,25 @@
+package com.softwareverde.bitcoin.block.filter;
+
+public enum BlockFilterType {
+    BASIC((byte) 0x00, 19, 784931L); // BIP-158
+
+    public static BlockFilterType fromByte(final byte value) {
+        for (final BlockFilterType blockFilterType : BlockFilterType.values()) {
+            if (blockFilterType.value == value) {
+                return blockFilterType;
+            }
+        }
+
+        return null;
+    }
+
+    public final byte value;
+    public final Integer p; // The Golomb-Rice coding parameter.
+    public final Long m; // The inverse of the target false-positive rate.
+
+    BlockFilterType(final byte value, final Integer p, final Long m) {
+        this.value = value;
+        this.p = p;
+        this.m = m;
+    }
+}
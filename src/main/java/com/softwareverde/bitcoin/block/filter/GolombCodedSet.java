@@ -0,0 +1,247 @@
+package com.softwareverde.bitcoin.block.filter;
+
+import com.softwareverde.bitcoin.util.ByteUtil;
+import com.softwareverde.bitcoin.util.bytearray.ByteArrayReader;
+import com.softwareverde.constable.bytearray.ByteArray;
+import com.softwareverde.constable.bytearray.MutableByteArray;
+import com.softwareverde.siphash.SipHashUtil;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+
+/**
+ * A BIP-158 Golomb-coded set (GCS).
+ *  Each item is hashed (SipHash-2-4, keyed by the first 16 bytes of the key) into the range [0, N*M),
+ *  and the sorted hashed values are stored as Golomb-Rice coded deltas with parameter P.
+ *  The serialized set is the item count (N) as a variable-length integer followed by the bit stream.
+ */
+public class GolombCodedSet {
+    protected static class BitWriter {
+        protected byte[] _bytes;
+        protected long _bitCount = 0L;
+
+        public BitWriter(final int initialByteCount) {
+            _bytes = new byte[Math.max(1, initialByteCount)];
+        }
+
+        public void writeBit(final boolean bit) {
+            final int byteIndex = (int) (_bitCount >>> 3);
+            if (byteIndex >= _bytes.length) {
+                _bytes = Arrays.copyOf(_bytes, (_bytes.length * 2));
+            }
+
+            if (bit) {
+                _bytes[byteIndex] |= (byte) (0x80 >>> (_bitCount & 0x07));
+            }
+            _bitCount += 1L;
+        }
+
+        /**
+         * Writes the lowest bitCount bits of value, most significant bit first.
+         */
+        public void writeBits(final long value, final int bitCount) {
+            for (int i = (bitCount - 1); i >= 0; --i) {
+                writeBit(((value >>> i) & 0x01L) != 0L);
+            }
+        }
+
+        public ByteArray toByteArray() {
+            final int byteCount = (int) ((_bitCount + 7L) >>> 3);
+            return MutableByteArray.wrap(Arrays.copyOf(_bytes, byteCount));
+        }
+    }
+
+    protected static class BitReader {
+        protected final ByteArray _bytes;
+        protected long _bitIndex;
+
+        public BitReader(final ByteArray bytes, final int byteOffset) {
+            _bytes = bytes;
+            _bitIndex = (byteOffset * 8L);
+        }
+
+        public boolean didOverflow() {
+            return (_bitIndex > (_bytes.getByteCount() * 8L));
+        }
+
+        public boolean readBit() {
+            final int byteIndex = (int) (_bitIndex >>> 3);
+            final boolean bit = ( (byteIndex < _bytes.getByteCount()) && ((_bytes.getByte(byteIndex) & (0x80 >>> (_bitIndex & 0x07))) != 0) );
+            _bitIndex += 1L;
+            return bit;
+        }
+
+        public long readBits(final int bitCount) {
+            long value = 0L;
+            for (int i = 0; i < bitCount; ++i) {
+                value = ( (value << 1) | (readBit() ? 1L : 0L) );
+            }
+            return value;
+        }
+
+        public long readUnary() {
+            long value = 0L;
+            while (readBit()) {
+                value += 1L;
+            }
+            return value;
+        }
+    }
+
+    /**
+     * Returns the high 64 bits of the unsigned 128-bit product of x and y.
+     */
+    protected static long _multiplyHigh(final long x, final long y) {
+        final long x0 = (x & 0xFFFFFFFFL);
+        final long x1 = (x >>> 32);
+        final long y0 = (y & 0xFFFFFFFFL);
+        final long y1 = (y >>> 32);
+
+        final long x0y0 = (x0 * y0);
+        final long x0y1 = (x0 * y1);
+        final long x1y0 = (x1 * y0);
+        final long x1y1 = (x1 * y1);
+
+        final long middle = (x1y0 + (x0y0 >>> 32) + (x0y1 & 0xFFFFFFFFL));
+        return (x1y1 + (middle >>> 32) + (x0y1 >>> 32));
+    }
+
+    protected static long _readKeyWord(final ByteArray key, final int offset) {
+        long value = 0L;
+        for (int i = 0; i < 8; ++i) {
+            value |= ( (key.getByte(offset + i) & 0xFFL) << (8 * i) );
+        }
+        return value;
+    }
+
+    protected static long[] _hashItems(final long key0, final long key1, final Collection<ByteArray> items, final long range) {
+        final long[] values = new long[items.size()];
+        int i = 0;
+        for (final ByteArray item : items) {
+            final long hash = SipHashUtil.sipHash24(key0, key1, item);
+            values[i] = _multiplyHigh(hash, range);
+            i += 1;
+        }
+        Arrays.sort(values);
+        return values;
+    }
+
+    /**
+     * Builds the set from the items; items should not contain duplicates.
+     *  The key must be at least 16 bytes; only the first 16 bytes are used.
+     */
+    public static GolombCodedSet build(final ByteArray key, final Collection<ByteArray> items, final Integer p, final Long m) {
+        final long key0 = _readKeyWord(key, 0);
+        final long key1 = _readKeyWord(key, 8);
+
+        final long itemCount = items.size();
+        final long[] values = _hashItems(key0, key1, items, (itemCount * m));
+
+        final byte[] itemCountBytes = ByteUtil.variableLengthIntegerToBytes(itemCount);
+        final BitWriter bitWriter = new BitWriter((int) (itemCountBytes.length + ((itemCount * (p + 2)) / 8L)));
+        for (final byte b : itemCountBytes) {
+            bitWriter.writeBits(b, 8);
+        }
+
+        long previousValue = 0L;
+        for (final long value : values) {
+            final long delta = (value - previousValue);
+            final long quotient = (delta >>> p);
+            for (long i = 0L; i < quotient; ++i) {
+                bitWriter.writeBit(true);
+            }
+            bitWriter.writeBit(false);
+            bitWriter.writeBits(delta, p);
+
+            previousValue = value;
+        }
+
+        return new GolombCodedSet(key0, key1, p, m, itemCount, itemCountBytes.length, bitWriter.toByteArray());
+    }
+
+    /**
+     * Inflates a serialized set (i.e. the item count followed by the bit stream).
+     *  Returns null if the serialized set is malformed.
+     */
+    public static GolombCodedSet fromBytes(final ByteArray key, final ByteArray bytes, final Integer p, final Long m) {
+        final ByteArrayReader byteArrayReader = new ByteArrayReader(bytes);
+        final ByteArrayReader.VariableSizedInteger itemCount = byteArrayReader.peakVariableSizedInteger();
+        if (itemCount == null) { return null; }
+        if ( (itemCount.value < 0L) || (itemCount.bytesConsumedCount > bytes.getByteCount()) ) { return null; }
+        if ( (itemCount.value > 0L) && (m > (Long.MAX_VALUE / itemCount.value)) ) { return null; }
+
+        final long key0 = _readKeyWord(key, 0);
+        final long key1 = _readKeyWord(key, 8);
+        return new GolombCodedSet(key0, key1, p, m, itemCount.value, itemCount.bytesConsumedCount, bytes.asConst());
+    }
+
+    protected final long _key0;
+    protected final long _key1;
+    protected final Integer _p;
+    protected final Long _m;
+    protected final Long _itemCount;
+    protected final Integer _dataByteOffset;
+    protected final ByteArray _bytes;
+
+    protected GolombCodedSet(final long key0, final long key1, final Integer p, final Long m, final Long itemCount, final Integer dataByteOffset, final ByteArray bytes) {
+        _key0 = key0;
+        _key1 = key1;
+        _p = p;
+        _m = m;
+        _itemCount = itemCount;
+        _dataByteOffset = dataByteOffset;
+        _bytes = bytes;
+    }
+
+    public Long getItemCount() {
+        return _itemCount;
+    }
+
+    /**
+     * Returns the serialized set: the item count as a variable-length integer followed by the bit stream.
+     */
+    public ByteArray getBytes() {
+        return _bytes;
+    }
+
+    /**
+     * Returns true if the item is (probably) within the set; false-positives occur at a rate of approximately 1/M.
+     */
+    public Boolean matches(final ByteArray item) {
+        return _matchesAny(Collections.singletonList(item));
+    }
+
+    /**
+     * Returns true if any of the items are (probably) within the set.
+     *  The set is decoded once regardless of the number of items.
+     */
+    public Boolean matchesAny(final Collection<ByteArray> items) {
+        return _matchesAny(items);
+    }
+
+    protected Boolean _matchesAny(final Collection<ByteArray> items) {
+        if ( (_itemCount < 1L) || items.isEmpty() ) { return false; }
+
+        final long[] queryValues = _hashItems(_key0, _key1, items, (_itemCount * _m));
+
+        final BitReader bitReader = new BitReader(_bytes, _dataByteOffset);
+        int queryIndex = 0;
+        long value = 0L;
+        for (long i = 0L; i < _itemCount; ++i) {
+            final long quotient = bitReader.readUnary();
+            final long remainder = bitReader.readBits(_p);
+            if (bitReader.didOverflow()) { return false; }
+
+            value += ((quotient << _p) + remainder);
+
+            while (queryValues[queryIndex] < value) {
+                queryIndex += 1;
+                if (queryIndex >= queryValues.length) { return false; }
+            }
+            if (queryValues[queryIndex] == value) { return true; }
+        }
+
+        return false;
+    }
+}
@@ -3,6 +3,7 @@ package com.softwareverde.bitcoin.block.header;
 import com.softwareverde.bitcoin.block.header.difficulty.Difficulty;
 import com.softwareverde.bitcoin.merkleroot.MerkleRoot;
 import com.softwareverde.bitcoin.util.ByteUtil;
+import com.softwareverde.bitcoin.util.bytearray.ByteArrayWriter;
 import com.softwareverde.constable.bytearray.ByteArray;
 import com.softwareverde.constable.bytearray.MutableByteArray;
 import com.softwareverde.cryptography.hash.sha256.Sha256Hash;
@@ -69,6 +70,19 @@ public class BlockHeaderDeflater {
         return _serializeByteData(blockHeaderByteData);
     }
 
+    /**
+     * Writes the serialized BlockHeader into byteArrayWriter, which must have at least BlockHeaderInflater.BLOCK_HEADER_BYTE_COUNT bytes remaining.
+     */
+    public void writeBytes(final BlockHeader blockHeader, final ByteArrayWriter byteArrayWriter) {
+        final BlockHeaderByteData byteData = _createByteData(blockHeader);
+        byteArrayWriter.writeBytes(byteData.version, Endian.LITTLE);
+        byteArrayWriter.writeBytes(byteData.previousBlockHash, Endian.LITTLE);
+        byteArrayWriter.writeBytes(byteData.merkleRoot, Endian.LITTLE);
+        byteArrayWriter.writeBytes(byteData.timestamp, Endian.LITTLE);
+        byteArrayWriter.writeBytes(byteData.difficulty, Endian.LITTLE);
+        byteArrayWriter.writeBytes(byteData.nonce, Endian.LITTLE);
+    }
+
     public Json toJson(final BlockHeader blockHeader) {
         final Json json = new Json();
 
@@ -16,6 +16,7 @@ import com.softwareverde.bitcoin.block.validator.thread.TotalExpenditureTaskHand
 import com.softwareverde.bitcoin.block.validator.thread.TransactionValidationTaskHandler;
 import com.softwareverde.bitcoin.chain.time.MedianBlockTime;
 import com.softwareverde.bitcoin.context.TransactionValidatorFactory;
+import com.softwareverde.bitcoin.server.metrics.Metrics;
 import com.softwareverde.bitcoin.transaction.Transaction;
 import com.softwareverde.bitcoin.transaction.coinbase.CoinbaseTransaction;
 import com.softwareverde.bitcoin.transaction.input.TransactionInput;
@@ -51,6 +52,7 @@ public class BlockValidator {
     protected Boolean _shouldLogValidBlocks = true;
     protected Integer _maxThreadCount = 4;
     protected Long _trustedBlockHeight = DO_NOT_TRUST_BLOCKS;
+    protected Boolean _shouldBatchSchnorrSignatures = true;
 
     protected BlockValidationResult _validateTransactions(final Block block, final Long blockHeight) {
         final Thread currentThread = Thread.currentThread();
@@ -110,7 +112,7 @@ public class BlockValidator {
         transactionValidationTaskSpawner.setTaskHandlerFactory(new TaskHandlerFactory<Transaction, TransactionValidationTaskHandler.TransactionValidationTaskResult>() {
             @Override
             public TaskHandler<Transaction, TransactionValidationTaskHandler.TransactionValidationTaskResult> newInstance() {
-                return new TransactionValidationTaskHandler(blockHeight, transactionValidator);
+                return new TransactionValidationTaskHandler(blockHeight, transactionValidator, _shouldBatchSchnorrSignatures);
             }
         });
 
@@ -298,6 +300,8 @@ public class BlockValidator {
             if (! transactionsValidationResult.isValid) { return transactionsValidationResult; }
 
             validateBlockTimer.stop();
+            Metrics.VALIDATE_BLOCK_TRANSACTIONS_DURATION.observeMilliseconds(validateBlockTimer.getMillisecondsElapsed());
+
             if (_shouldLogValidBlocks) {
                 final List<Transaction> transactions = block.getTransactions();
                 Logger.info("Validated " + transactions.getCount() + " transactions in " + (validateBlockTimer.getMillisecondsElapsed()) + "ms (" + ((int) ((transactions.getCount() / validateBlockTimer.getMillisecondsElapsed()) * 1000)) + " tps). " + block.getHash());
@@ -325,6 +329,16 @@ public class BlockValidator {
         _trustedBlockHeight = trustedBlockHeight;
     }
 
+    /**
+     * When enabled, Schnorr signatures are verified in batches by each validation thread instead of individually.
+     *  Inputs with invalid signatures are identified by re-verifying failed batches individually.
+     *  NOTE: The libsecp256k1 JNI binding only provides ECDSA verification, so individually verified Schnorr signatures use BouncyCastle
+     *  regardless of whether NativeSecp256k1 is loaded; Secp256k1Benchmark compares both paths.
+     */
+    public void setShouldBatchSchnorrSignatures(final Boolean shouldBatchSchnorrSignatures) {
+        _shouldBatchSchnorrSignatures = shouldBatchSchnorrSignatures;
+    }
+
     public BlockValidationResult validateBlock(final Block block, final Long blockHeight) {
         return _validateBlock(block, blockHeight);
     }
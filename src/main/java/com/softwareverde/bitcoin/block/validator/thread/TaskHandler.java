@@ -10,5 +10,19 @@ public interface TaskHandler<T, S> {
      *  invoked only a single time (once all tasks have been executed).
      */
     void executeTask(T item);
+
+    /**
+     * TaskHandler.complete() is invoked once by the executing thread after its final call to TaskHandler.executeTask().
+     *  Work that is more efficient to perform in aggregate (e.g. batched signature verification) should be finalized here,
+     *  so that it is performed in parallel rather than by the thread that invokes TaskHandler.getResult().
+     */
+    void complete();
+
+    /**
+     * TaskHandler.abort() is invoked once by the executing thread instead of TaskHandler.complete() when the task is aborted,
+     *  or fails, before it completes.  Any resources acquired by TaskHandler.init() and any deferred state should be released here.
+     */
+    default void abort() { }
+
     S getResult();
 }
@@ -127,6 +127,9 @@ public class TotalExpenditureTaskHandler implements TaskHandler<Transaction, Tot
         _totalFees += (totalInputValue - totalOutputValue);
     }
 
+    @Override
+    public void complete() { }
+
     @Override
     public ExpenditureResult getResult() {
         if (! _invalidTransactions.isEmpty()) {
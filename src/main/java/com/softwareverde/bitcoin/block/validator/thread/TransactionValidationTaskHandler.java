@@ -1,6 +1,8 @@
 package com.softwareverde.bitcoin.block.validator.thread;
 
+import com.softwareverde.bitcoin.secp256k1.SchnorrBatchVerifier;
 import com.softwareverde.bitcoin.transaction.Transaction;
+import com.softwareverde.bitcoin.transaction.script.signature.DeferredSchnorrSignatures;
 import com.softwareverde.bitcoin.transaction.validator.TransactionValidationResult;
 import com.softwareverde.bitcoin.transaction.validator.TransactionValidator;
 import com.softwareverde.constable.list.List;
@@ -65,10 +67,37 @@ public class TransactionValidationTaskHandler implements TaskHandler<Transaction
     protected final AtomicInteger _signatureOperationCount = new AtomicInteger(0);
 
     protected final TransactionValidator _transactionValidator;
+    protected final DeferredSchnorrSignatures _deferredSchnorrSignatures;
+
+    /**
+     * Batch-verifies the deferred Schnorr signatures, and marks the Transactions containing invalid signatures as invalid.
+     */
+    protected void _verifyDeferredSchnorrSignatures() {
+        if (_deferredSchnorrSignatures == null) { return; }
+        if (_deferredSchnorrSignatures.getCount() < 1) { return; }
+
+        final List<DeferredSchnorrSignatures.InvalidSignature> invalidSignatures = _deferredSchnorrSignatures.verifySignatures();
+        for (final DeferredSchnorrSignatures.InvalidSignature invalidSignature : invalidSignatures) {
+            final Transaction transaction = invalidSignature.transaction;
+            if (_invalidTransactions.containsKey(transaction)) { continue; }
+
+            final TransactionValidationResult transactionValidationResult = TransactionValidationResult.invalid("Transaction failed to unlock inputs. Invalid Schnorr signature for input: " + invalidSignature.transactionInputIndex);
+            _invalidTransactions.put(transaction, transactionValidationResult);
+        }
+    }
 
     public TransactionValidationTaskHandler(final Long blockHeight, final TransactionValidator transactionValidator) {
+        this(blockHeight, transactionValidator, false);
+    }
+
+    /**
+     * When shouldBatchSchnorrSignatures is true, Schnorr signatures are collected during script execution and verified in batches
+     *  of DEFAULT_BATCH_SIZE by the validating thread, rather than being verified individually.
+     */
+    public TransactionValidationTaskHandler(final Long blockHeight, final TransactionValidator transactionValidator, final Boolean shouldBatchSchnorrSignatures) {
         _blockHeight = blockHeight;
         _transactionValidator = transactionValidator;
+        _deferredSchnorrSignatures = (shouldBatchSchnorrSignatures ? new DeferredSchnorrSignatures() : null);
     }
 
     @Override
@@ -82,7 +111,7 @@ public class TransactionValidationTaskHandler implements TaskHandler<Transaction
         {
             TransactionValidationResult validationResult;
             try {
-                validationResult = _transactionValidator.validateTransaction(_blockHeight, transaction);
+                validationResult = _transactionValidator.validateTransaction(_blockHeight, transaction, _deferredSchnorrSignatures);
             }
             catch (final Exception exception) {
                 validationResult = TransactionValidationResult.invalid("An internal error occurred.");
@@ -98,6 +127,23 @@ public class TransactionValidationTaskHandler implements TaskHandler<Transaction
         else {
             _invalidTransactions.put(transaction, transactionValidationResult);
         }
+
+        if ( (_deferredSchnorrSignatures != null) && (_deferredSchnorrSignatures.getCount() >= SchnorrBatchVerifier.DEFAULT_BATCH_SIZE) ) {
+            _verifyDeferredSchnorrSignatures();
+        }
+    }
+
+    @Override
+    public void complete() {
+        _verifyDeferredSchnorrSignatures();
+    }
+
+    @Override
+    public void abort() {
+        // The aborted task's result is discarded, so its deferred signatures are not verified...
+        if (_deferredSchnorrSignatures != null) {
+            _deferredSchnorrSignatures.clear();
+        }
     }
 
     @Override
@@ -50,6 +50,7 @@ class ValidationTask<T, S> implements Runnable {
 
         final MilliTimer batchTimer = new MilliTimer();
         batchTimer.start();
+        boolean isComplete = false;
         try {
             _taskHandler.init();
 
@@ -59,12 +60,24 @@ class ValidationTask<T, S> implements Runnable {
                 final T item = _list.get(_startIndex + j);
                 _taskHandler.executeTask(item);
             }
+
+            _taskHandler.complete();
+            isComplete = true;
         }
         catch (final Exception exception) {
             Logger.debug(exception);
             _didEncounterError.value = true;
         }
         finally {
+            if (! isComplete) {
+                try {
+                    _taskHandler.abort();
+                }
+                catch (final Exception exception) {
+                    Logger.debug(exception);
+                }
+            }
+
             synchronized (_isFinished) {
                 _isFinished.value = true;
                 _isFinished.notifyAll();
@@ -0,0 +1,234 @@
+package com.softwareverde.bitcoin.bloomfilter;
+
+import com.softwareverde.bitcoin.address.Address;
+import com.softwareverde.bitcoin.address.AddressInflater;
+import com.softwareverde.bitcoin.block.Block;
+import com.softwareverde.bitcoin.block.merkleroot.MerkleTree;
+import com.softwareverde.bitcoin.block.merkleroot.PartialMerkleTree;
+import com.softwareverde.bitcoin.transaction.Transaction;
+import com.softwareverde.bitcoin.transaction.input.TransactionInput;
+import com.softwareverde.bitcoin.transaction.output.TransactionOutput;
+import com.softwareverde.bitcoin.transaction.output.identifier.TransactionOutputIdentifier;
+import com.softwareverde.bitcoin.transaction.script.ScriptType;
+import com.softwareverde.bitcoin.transaction.script.locking.LockingScript;
+import com.softwareverde.bitcoin.transaction.script.opcode.Operation;
+import com.softwareverde.bitcoin.transaction.script.opcode.PushOperation;
+import com.softwareverde.bitcoin.transaction.script.stack.Value;
+import com.softwareverde.bitcoin.transaction.script.unlocking.UnlockingScript;
+import com.softwareverde.bloomfilter.BloomFilter;
+import com.softwareverde.bloomfilter.MutableBloomFilter;
+import com.softwareverde.constable.bytearray.ByteArray;
+import com.softwareverde.constable.list.List;
+import com.softwareverde.cryptography.hash.sha256.Sha256Hash;
+import com.softwareverde.cryptography.secp256k1.key.PublicKey;
+import com.softwareverde.util.Util;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The BIP37 filter elements of a Block's Transactions, extracted once so that the Block may be matched against many BloomFilters.
+ *  Matching a BloomFilter only probes the precomputed elements; scripts are not re-parsed per BloomFilter.
+ *  The matching semantics are identical to TransactionBloomFilterMatcher.
+ *  PartialMerkleTrees are cached by their set of matched Transactions, since many BloomFilters match the same (often empty) set.
+ */
+public class BlockBloomFilterElements {
+    protected static final Integer MAX_CACHED_PARTIAL_MERKLE_TREE_COUNT = 64;
+
+    protected static class OutputElements {
+        public final ByteArray[] pushedValues;
+        public final ByteArray outpoint;
+        public final Boolean isPayToPublicKeyHashOrScriptHash;
+
+        public OutputElements(final ByteArray[] pushedValues, final ByteArray outpoint, final Boolean isPayToPublicKeyHashOrScriptHash) {
+            this.pushedValues = pushedValues;
+            this.outpoint = outpoint;
+            this.isPayToPublicKeyHashOrScriptHash = isPayToPublicKeyHashOrScriptHash;
+        }
+    }
+
+    protected static class TransactionElements {
+        public final Sha256Hash transactionHash;
+        public final OutputElements[] outputElements;
+        public final ByteArray[] inputElements; // The spent outpoints and the data elements of each UnlockingScript...
+
+        public TransactionElements(final Sha256Hash transactionHash, final OutputElements[] outputElements, final ByteArray[] inputElements) {
+            this.transactionHash = transactionHash;
+            this.outputElements = outputElements;
+            this.inputElements = inputElements;
+        }
+    }
+
+    protected static TransactionElements _extractElements(final Transaction transaction, final AddressInflater addressInflater) {
+        final Sha256Hash transactionHash = transaction.getHash();
+
+        final List<TransactionOutput> transactionOutputs = transaction.getTransactionOutputs();
+        final OutputElements[] outputElements = new OutputElements[transactionOutputs.getCount()];
+        for (int outputIndex = 0; outputIndex < outputElements.length; ++outputIndex) {
+            final TransactionOutput transactionOutput = transactionOutputs.get(outputIndex);
+            final LockingScript lockingScript = transactionOutput.getLockingScript();
+
+            final ArrayList<ByteArray> pushedValues = new ArrayList<ByteArray>();
+            for (final Operation operation : lockingScript.getOperations()) {
+                if (operation.getType() != PushOperation.TYPE) { continue; }
+                pushedValues.add(((PushOperation) operation).getValue());
+            }
+
+            final ScriptType scriptType = lockingScript.getScriptType();
+            final Boolean isPayToPublicKeyHashOrScriptHash = ( (scriptType == ScriptType.PAY_TO_PUBLIC_KEY_HASH) || (scriptType == ScriptType.PAY_TO_SCRIPT_HASH) );
+            final TransactionOutputIdentifier transactionOutputIdentifier = new TransactionOutputIdentifier(transactionHash, outputIndex);
+
+            outputElements[outputIndex] = new OutputElements(pushedValues.toArray(new ByteArray[0]), transactionOutputIdentifier.toBytes(), isPayToPublicKeyHashOrScriptHash);
+        }
+
+        final ArrayList<ByteArray> inputElements = new ArrayList<ByteArray>();
+        for (final TransactionInput transactionInput : transaction.getTransactionInputs()) {
+            final TransactionOutputIdentifier transactionOutputIdentifier = new TransactionOutputIdentifier(transactionInput.getPreviousOutputTransactionHash(), transactionInput.getPreviousOutputIndex());
+            inputElements.add(transactionOutputIdentifier.toBytes());
+
+            final UnlockingScript unlockingScript = transactionInput.getUnlockingScript();
+            for (final Operation operation : unlockingScript.getOperations()) {
+                if (operation.getType() != PushOperation.TYPE) { continue; }
+
+                final Value value = ((PushOperation) operation).getValue();
+                inputElements.add(value);
+
+                if (addressInflater != null) { // (Verde-Specific Behavior; see TransactionBloomFilterMatcher)
+                    final PublicKey publicKey = value.asPublicKey();
+                    if (publicKey == null) { continue; }
+                    if (! publicKey.isValid()) { continue; }
+
+                    final Address address = addressInflater.fromPublicKey(publicKey);
+                    if ( (address != null) && (! Util.areEqual(value, publicKey)) ) {
+                        inputElements.add(publicKey);
+                    }
+                }
+            }
+        }
+
+        return new TransactionElements(transactionHash, outputElements, inputElements.toArray(new ByteArray[0]));
+    }
+
+    public static BlockBloomFilterElements fromBlock(final Block block, final AddressInflater addressInflater) {
+        final List<Transaction> transactions = block.getTransactions();
+        final TransactionElements[] transactionElements = new TransactionElements[transactions.getCount()];
+        for (int i = 0; i < transactionElements.length; ++i) {
+            final Transaction transaction = transactions.get(i);
+            transactionElements[i] = BlockBloomFilterElements._extractElements(transaction, addressInflater);
+        }
+
+        return new BlockBloomFilterElements(block, transactionElements);
+    }
+
+    protected final Block _block;
+    protected final TransactionElements[] _transactionElements;
+    protected final LinkedHashMap<BitSet, PartialMerkleTree> _partialMerkleTrees = new LinkedHashMap<BitSet, PartialMerkleTree>(16, 0.75F, true) {
+        @Override
+        protected boolean removeEldestEntry(final Map.Entry<BitSet, PartialMerkleTree> eldest) {
+            return (this.size() > MAX_CACHED_PARTIAL_MERKLE_TREE_COUNT);
+        }
+    };
+
+    /**
+     * Returns true if the Transaction matches the BloomFilter.
+     *  If updateBloomFilterMode is not READ_ONLY, the outpoints of matched outputs are added to the (mutable) BloomFilter.
+     */
+    protected Boolean _matches(final TransactionElements transactionElements, final BloomFilter bloomFilter, final UpdateBloomFilterMode updateBloomFilterMode) {
+        // 1. Test the hash of the transaction itself.
+        if (bloomFilter.containsItem(transactionElements.transactionHash)) { return true; }
+
+        boolean didMatch = false;
+
+        // 2. For each output, test each data element of the output script.
+        for (final OutputElements outputElements : transactionElements.outputElements) {
+            for (final ByteArray pushedValue : outputElements.pushedValues) {
+                if (! bloomFilter.containsItem(pushedValue)) { continue; }
+
+                final boolean shouldUpdateBloomFilter;
+                if (updateBloomFilterMode == UpdateBloomFilterMode.UPDATE_ALL) {
+                    shouldUpdateBloomFilter = true;
+                }
+                else if (updateBloomFilterMode == UpdateBloomFilterMode.P2PK_P2MS) {
+                    shouldUpdateBloomFilter = outputElements.isPayToPublicKeyHashOrScriptHash;
+                }
+                else {
+                    shouldUpdateBloomFilter = false;
+                }
+
+                if (shouldUpdateBloomFilter) {
+                    ((MutableBloomFilter) bloomFilter).addItem(outputElements.outpoint);
+                }
+
+                didMatch = true;
+            }
+        }
+        if (didMatch) { return true; }
+
+        // 3. For each input, test the serialized COutPoint structure.
+        // 4. For each input, test each data element of the input script.
+        for (final ByteArray inputElement : transactionElements.inputElements) {
+            if (bloomFilter.containsItem(inputElement)) { return true; }
+        }
+
+        return false;
+    }
+
+    protected BlockBloomFilterElements(final Block block, final TransactionElements[] transactionElements) {
+        _block = block;
+        _transactionElements = transactionElements;
+    }
+
+    public Block getBlock() {
+        return _block;
+    }
+
+    public Sha256Hash getBlockHash() {
+        return _block.getHash();
+    }
+
+    /**
+     * Returns the indexes of the Block's Transactions that match the BloomFilter.
+     *  If updateBloomFilterMode is not READ_ONLY then bloomFilter must be a MutableBloomFilter,
+     *  and it is updated as Transactions are matched (so that later Transactions spending matched outputs are also matched).
+     */
+    public BitSet getMatchedTransactionIndexes(final BloomFilter bloomFilter, final UpdateBloomFilterMode updateBloomFilterMode) {
+        final BitSet matchedTransactionIndexes = new BitSet(_transactionElements.length);
+        for (int i = 0; i < _transactionElements.length; ++i) {
+            if (_matches(_transactionElements[i], bloomFilter, updateBloomFilterMode)) {
+                matchedTransactionIndexes.set(i);
+            }
+        }
+        return matchedTransactionIndexes;
+    }
+
+    /**
+     * Returns the PartialMerkleTree including the Transactions at matchedTransactionIndexes.
+     *  PartialMerkleTrees are cached, so BloomFilters that match the same Transactions share the same PartialMerkleTree.
+     */
+    public PartialMerkleTree getPartialMerkleTree(final BitSet matchedTransactionIndexes) {
+        // NOTE: The construction is synchronized since the Block's MerkleTree lazily caches its intermediary hashes...
+        synchronized (_partialMerkleTrees) {
+            final PartialMerkleTree cachedPartialMerkleTree = _partialMerkleTrees.get(matchedTransactionIndexes);
+            if (cachedPartialMerkleTree != null) { return cachedPartialMerkleTree; }
+
+            final HashSet<Sha256Hash> matchedTransactionHashes = new HashSet<Sha256Hash>(matchedTransactionIndexes.cardinality());
+            for (int i = matchedTransactionIndexes.nextSetBit(0); i >= 0; i = matchedTransactionIndexes.nextSetBit(i + 1)) {
+                matchedTransactionHashes.add(_transactionElements[i].transactionHash);
+            }
+
+            final MerkleTree<Transaction> merkleTree = _block.getMerkleTree();
+            final PartialMerkleTree partialMerkleTree = merkleTree.getPartialTree(new MerkleTree.Filter<Transaction>() {
+                @Override
+                public boolean shouldInclude(final Transaction transaction) {
+                    return matchedTransactionHashes.contains(transaction.getHash());
+                }
+            });
+
+            _partialMerkleTrees.put((BitSet) matchedTransactionIndexes.clone(), partialMerkleTree);
+            return partialMerkleTree;
+        }
+    }
+}
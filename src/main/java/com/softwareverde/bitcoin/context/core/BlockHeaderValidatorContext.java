@@ -30,10 +30,20 @@ public class BlockHeaderValidatorContext extends CachingMedianBlockTimeContext i
     protected final HashMap<Long, ChainWork> _chainWorks = new HashMap<Long, ChainWork>();
 
     protected final AsertReferenceBlockLoader _asertReferenceBlockLoader;
+    protected final BlockHeaderWindow _blockHeaderWindow;
 
     public BlockHeaderValidatorContext(final BlockchainSegmentId blockchainSegmentId, final DatabaseManager databaseManager, final VolatileNetworkTime networkTime) {
+        this(blockchainSegmentId, databaseManager, networkTime, null);
+    }
+
+    /**
+     * If provided, values are read from the blockHeaderWindow before the database, and values loaded from the database are cached within it.
+     *  The blockHeaderWindow's head must be aligned to the parent of the BlockHeader being validated (via BlockHeaderWindow::setHead).
+     */
+    public BlockHeaderValidatorContext(final BlockchainSegmentId blockchainSegmentId, final DatabaseManager databaseManager, final VolatileNetworkTime networkTime, final BlockHeaderWindow blockHeaderWindow) {
         super(blockchainSegmentId, databaseManager);
         _networkTime = networkTime;
+        _blockHeaderWindow = blockHeaderWindow;
 
         final LazyReferenceBlockLoaderContext referenceBlockLoaderContext = new LazyReferenceBlockLoaderContext(databaseManager);
         _asertReferenceBlockLoader = new AsertReferenceBlockLoader(referenceBlockLoaderContext);
@@ -48,6 +58,13 @@ public class BlockHeaderValidatorContext extends CachingMedianBlockTimeContext i
             }
         }
 
+        if (_blockHeaderWindow != null) {
+            final BlockHeader blockHeader = _blockHeaderWindow.getBlockHeader(blockHeight);
+            if (blockHeader != null) {
+                return blockHeader;
+            }
+        }
+
         try {
             final BlockHeaderDatabaseManager blockHeaderDatabaseManager = _databaseManager.getBlockHeaderDatabaseManager();
             final BlockId blockId = _getBlockId(blockHeight);
@@ -55,6 +72,9 @@ public class BlockHeaderValidatorContext extends CachingMedianBlockTimeContext i
 
             final BlockHeader blockHeader = blockHeaderDatabaseManager.getBlockHeader(blockId);
             _blockHeaders.put(blockHeight, blockHeader);
+            if (_blockHeaderWindow != null) {
+                _blockHeaderWindow.cacheBlockHeader(blockHeight, blockHeader);
+            }
             return blockHeader;
         }
         catch (final DatabaseException exception) {
@@ -72,6 +92,13 @@ public class BlockHeaderValidatorContext extends CachingMedianBlockTimeContext i
             }
         }
 
+        if (_blockHeaderWindow != null) {
+            final ChainWork chainWork = _blockHeaderWindow.getChainWork(blockHeight);
+            if (chainWork != null) {
+                return chainWork;
+            }
+        }
+
         try {
             final BlockHeaderDatabaseManager blockHeaderDatabaseManager = _databaseManager.getBlockHeaderDatabaseManager();
             final BlockId blockId = _getBlockId(blockHeight);
@@ -79,6 +106,9 @@ public class BlockHeaderValidatorContext extends CachingMedianBlockTimeContext i
 
             final ChainWork chainWork = blockHeaderDatabaseManager.getChainWork(blockId);
             _chainWorks.put(blockHeight, chainWork);
+            if (_blockHeaderWindow != null) {
+                _blockHeaderWindow.cacheChainWork(blockHeight, chainWork);
+            }
             return chainWork;
         }
         catch (final DatabaseException exception) {
@@ -87,6 +117,24 @@ public class BlockHeaderValidatorContext extends CachingMedianBlockTimeContext i
         }
     }
 
+    @Override
+    public MedianBlockTime getMedianBlockTime(final Long blockHeight) {
+        if (_blockHeaderWindow == null) {
+            return super.getMedianBlockTime(blockHeight);
+        }
+
+        { // Check for a cached value...
+            final MedianBlockTime medianBlockTime = _blockHeaderWindow.getMedianBlockTime(blockHeight);
+            if (medianBlockTime != null) {
+                return medianBlockTime;
+            }
+        }
+
+        final MedianBlockTime medianBlockTime = super.getMedianBlockTime(blockHeight);
+        _blockHeaderWindow.cacheMedianBlockTime(blockHeight, medianBlockTime);
+        return medianBlockTime;
+    }
+
     @Override
     public VolatileNetworkTime getNetworkTime() {
         return _networkTime;
@@ -140,8 +188,19 @@ public class BlockHeaderValidatorContext extends CachingMedianBlockTimeContext i
 
     @Override
     public AsertReferenceBlock getAsertReferenceBlock() {
+        if (_blockHeaderWindow != null) {
+            final AsertReferenceBlock asertReferenceBlock = _blockHeaderWindow.getAsertReferenceBlock();
+            if (asertReferenceBlock != null) {
+                return asertReferenceBlock;
+            }
+        }
+
         try {
-            return _asertReferenceBlockLoader.getAsertReferenceBlock(_blockchainSegmentId);
+            final AsertReferenceBlock asertReferenceBlock = _asertReferenceBlockLoader.getAsertReferenceBlock(_blockchainSegmentId);
+            if ( (_blockHeaderWindow != null) && (asertReferenceBlock != null) ) {
+                _blockHeaderWindow.cacheAsertReferenceBlock(asertReferenceBlock);
+            }
+            return asertReferenceBlock;
         }
         catch (final ContextException exception) {
             Logger.debug(exception);
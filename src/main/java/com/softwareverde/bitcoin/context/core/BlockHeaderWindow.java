@@ -0,0 +1,218 @@
+package com.softwareverde.bitcoin.context.core;
+
+import com.softwareverde.bitcoin.block.header.BlockHeader;
+import com.softwareverde.bitcoin.block.header.difficulty.Difficulty;
+import com.softwareverde.bitcoin.block.header.difficulty.work.BlockWork;
+import com.softwareverde.bitcoin.block.header.difficulty.work.ChainWork;
+import com.softwareverde.bitcoin.block.validator.difficulty.AsertReferenceBlock;
+import com.softwareverde.bitcoin.chain.time.MedianBlockTime;
+import com.softwareverde.bitcoin.chain.time.MutableMedianBlockTime;
+import com.softwareverde.cryptography.hash.sha256.Sha256Hash;
+import com.softwareverde.util.Util;
+
+import java.util.HashMap;
+
+/**
+ * A rolling window of the BlockHeaders, MedianBlockTimes, and ChainWorks of the most recent Blocks of a single chain.
+ *  The window is advanced as each BlockHeader is validated, so the ancestors required by the DifficultyCalculator
+ *  and MedianBlockTime calculations are served from memory instead of being loaded from the database per Block.
+ *  Before validating a BlockHeader, the window must be aligned to its parent via BlockHeaderWindow::setHead;
+ *  if the parent is within the window (i.e. a fork within the window), the window is truncated to the parent,
+ *  otherwise the window is cleared and values are (re)populated as they are loaded from the database.
+ *  Values are keyed by hash-derived data only (not BlockIds), so the window remains valid across database connections.
+ */
+public class BlockHeaderWindow {
+    public static final Long DEFAULT_BLOCK_COUNT = (2016L + MedianBlockTime.BLOCK_COUNT); // Sufficient for the legacy 2016-block retarget...
+
+    protected static class Entry {
+        public BlockHeader blockHeader;
+        public Sha256Hash blockHash;
+        public MedianBlockTime medianBlockTime;
+        public ChainWork chainWork;
+    }
+
+    protected final Long _blockCount;
+    protected final HashMap<Long, Entry> _entries = new HashMap<Long, Entry>();
+
+    protected Sha256Hash _headBlockHash = null;
+    protected Long _headBlockHeight = null;
+    protected AsertReferenceBlock _asertReferenceBlock = null;
+
+    protected Boolean _isWithinWindow(final Long blockHeight) {
+        if (_headBlockHeight == null) { return false; }
+        if (blockHeight > _headBlockHeight) { return false; }
+        return (blockHeight > (_headBlockHeight - _blockCount));
+    }
+
+    protected Entry _getOrCreateEntry(final Long blockHeight) {
+        Entry entry = _entries.get(blockHeight);
+        if (entry == null) {
+            entry = new Entry();
+            _entries.put(blockHeight, entry);
+        }
+        return entry;
+    }
+
+    protected void _clear() {
+        _entries.clear();
+        _headBlockHash = null;
+        _headBlockHeight = null;
+        _asertReferenceBlock = null;
+    }
+
+    protected MedianBlockTime _calculateMedianBlockTime(final Long blockHeight) {
+        final int blockCount = MedianBlockTime.BLOCK_COUNT;
+        final MutableMedianBlockTime medianBlockTime = new MutableMedianBlockTime();
+        for (int i = (blockCount - 1); i >= 0; --i) {
+            final long ancestorBlockHeight = (blockHeight - i);
+            if (ancestorBlockHeight < 0L) { continue; } // Blocks near genesis have fewer ancestors...
+
+            final Entry entry = _entries.get(ancestorBlockHeight);
+            if ( (entry == null) || (entry.blockHeader == null) ) { return null; }
+
+            medianBlockTime.addBlock(entry.blockHeader);
+        }
+        return medianBlockTime.asConst();
+    }
+
+    public BlockHeaderWindow() {
+        this(DEFAULT_BLOCK_COUNT);
+    }
+
+    public BlockHeaderWindow(final Long blockCount) {
+        _blockCount = blockCount;
+    }
+
+    /**
+     * Aligns the window so that its head is the Block with the provided hash and height.
+     *  This should be invoked with the parent of the next BlockHeader to be validated.
+     *  Returns true if the window's contents were retained (possibly truncated), or false if the window was cleared.
+     */
+    public synchronized Boolean setHead(final Sha256Hash blockHash, final Long blockHeight) {
+        if ( Util.areEqual(_headBlockHash, blockHash) && Util.areEqual(_headBlockHeight, blockHeight) ) { return true; }
+
+        final Entry entry = (_isWithinWindow(blockHeight) ? _entries.get(blockHeight) : null);
+        if ( (entry != null) && Util.areEqual(blockHash, entry.blockHash) ) {
+            for (long i = (blockHeight + 1L); i <= _headBlockHeight; ++i) {
+                _entries.remove(i);
+            }
+            _headBlockHash = blockHash;
+            _headBlockHeight = blockHeight;
+            _asertReferenceBlock = null; // The anchor may have been within the truncated Blocks...
+            return true;
+        }
+
+        _clear();
+        _headBlockHash = blockHash;
+        _headBlockHeight = blockHeight;
+        return false;
+    }
+
+    /**
+     * Advances the window by the validated BlockHeader.
+     *  The BlockHeader's MedianBlockTime and ChainWork are derived from the window when its ancestors are available.
+     *  If the BlockHeader does not extend the window's head then the window is restarted at the BlockHeader.
+     */
+    public synchronized void addBlockHeader(final BlockHeader blockHeader, final Long blockHeight) {
+        final Sha256Hash blockHash = blockHeader.getHash();
+
+        final Boolean extendsHead = ( Util.areEqual(_headBlockHash, blockHeader.getPreviousBlockHash()) && Util.areEqual(_headBlockHeight, (blockHeight - 1L)) );
+        if (! extendsHead) {
+            _clear();
+        }
+
+        final Entry previousEntry = (extendsHead ? _entries.get(blockHeight - 1L) : null);
+
+        final Entry entry = _getOrCreateEntry(blockHeight);
+        entry.blockHeader = blockHeader;
+        entry.blockHash = blockHash;
+        entry.medianBlockTime = null;
+        entry.chainWork = null;
+
+        _headBlockHash = blockHash;
+        _headBlockHeight = blockHeight;
+
+        entry.medianBlockTime = _calculateMedianBlockTime(blockHeight);
+
+        if ( (previousEntry != null) && (previousEntry.chainWork != null) ) {
+            final Difficulty difficulty = blockHeader.getDifficulty();
+            final BlockWork blockWork = difficulty.calculateWork();
+            entry.chainWork = ChainWork.add(previousEntry.chainWork, blockWork);
+        }
+
+        _entries.remove(blockHeight - _blockCount);
+    }
+
+    public synchronized BlockHeader getBlockHeader(final Long blockHeight) {
+        if (! _isWithinWindow(blockHeight)) { return null; }
+
+        final Entry entry = _entries.get(blockHeight);
+        if (entry == null) { return null; }
+
+        return entry.blockHeader;
+    }
+
+    public synchronized MedianBlockTime getMedianBlockTime(final Long blockHeight) {
+        if (! _isWithinWindow(blockHeight)) { return null; }
+
+        final Entry entry = _entries.get(blockHeight);
+        if (entry == null) { return null; }
+
+        return entry.medianBlockTime;
+    }
+
+    public synchronized ChainWork getChainWork(final Long blockHeight) {
+        if (! _isWithinWindow(blockHeight)) { return null; }
+
+        final Entry entry = _entries.get(blockHeight);
+        if (entry == null) { return null; }
+
+        return entry.chainWork;
+    }
+
+    public synchronized AsertReferenceBlock getAsertReferenceBlock() {
+        return _asertReferenceBlock;
+    }
+
+    /**
+     * Stores a value loaded from the database for the chain ending at the window's head.
+     *  Values outside of the window are ignored.
+     */
+    public synchronized void cacheBlockHeader(final Long blockHeight, final BlockHeader blockHeader) {
+        if (! _isWithinWindow(blockHeight)) { return; }
+        if (blockHeader == null) { return; }
+
+        final Entry entry = _getOrCreateEntry(blockHeight);
+        entry.blockHeader = blockHeader;
+        entry.blockHash = blockHeader.getHash();
+    }
+
+    public synchronized void cacheMedianBlockTime(final Long blockHeight, final MedianBlockTime medianBlockTime) {
+        if (! _isWithinWindow(blockHeight)) { return; }
+        if (medianBlockTime == null) { return; }
+
+        final Entry entry = _getOrCreateEntry(blockHeight);
+        entry.medianBlockTime = medianBlockTime.asConst();
+    }
+
+    public synchronized void cacheChainWork(final Long blockHeight, final ChainWork chainWork) {
+        if (! _isWithinWindow(blockHeight)) { return; }
+        if (chainWork == null) { return; }
+
+        final Entry entry = _getOrCreateEntry(blockHeight);
+        entry.chainWork = chainWork;
+    }
+
+    /**
+     * Caches the Aserti3-2d anchor Block.
+     *  The anchor is retained while the window is advanced, and is discarded when the window is truncated or cleared.
+     */
+    public synchronized void cacheAsertReferenceBlock(final AsertReferenceBlock asertReferenceBlock) {
+        if (_headBlockHeight == null) { return; }
+        _asertReferenceBlock = asertReferenceBlock;
+    }
+
+    public synchronized void clear() {
+        _clear();
+    }
+}
@@ -10,6 +10,7 @@ import com.softwareverde.bitcoin.server.module.node.database.block.header.BlockH
 import com.softwareverde.bitcoin.server.module.node.database.blockchain.BlockchainDatabaseManager;
 import com.softwareverde.bitcoin.server.module.node.database.fullnode.FullNodeDatabaseManager;
 import com.softwareverde.bitcoin.server.module.node.database.transaction.fullnode.FullNodeTransactionDatabaseManager;
+import com.softwareverde.bitcoin.server.module.node.database.transaction.fullnode.utxo.UtxoSnapshotDatabaseManager;
 import com.softwareverde.bitcoin.transaction.Transaction;
 import com.softwareverde.bitcoin.transaction.input.TransactionInput;
 import com.softwareverde.bitcoin.transaction.output.TransactionOutput;
@@ -32,6 +33,7 @@ public class MutableUnspentTransactionOutputSet implements UnspentTransactionOut
     protected final HashMap<Sha256Hash, Long> _transactionBlockHeights = new HashMap<Sha256Hash, Long>();
     protected final HashMap<Long, Sha256Hash> _coinbaseTransactionHashesByBlockHeight = new HashMap<Long, Sha256Hash>();
     protected final HashMap<Long, Sha256Hash> _blockHashesByBlockHeight = new HashMap<Long, Sha256Hash>();
+    protected final HashMap<Sha256Hash, Boolean> _snapshotCoinbaseTransactionFlags = new HashMap<Sha256Hash, Boolean>(); // The coinbase flags of Transactions mined before the Block of an imported UTXO snapshot.
 
     public MutableUnspentTransactionOutputSet() { }
 
@@ -205,6 +207,14 @@ public class MutableUnspentTransactionOutputSet implements UnspentTransactionOut
                 final Long transactionBlockHeight = blockHeights.get(transactionBlockId);
                 _transactionBlockHeights.put(transactionHash, transactionBlockHeight);
             }
+
+            final HashSet<Sha256Hash> snapshotTransactionHashes = new HashSet<Sha256Hash>(transactionsWithUnknownBlockHeights);
+            snapshotTransactionHashes.removeAll(transactionBlockIds.keySet());
+            if (! snapshotTransactionHashes.isEmpty()) { // The Transactions may have been mined before the Block of an imported UTXO snapshot...
+                final UtxoSnapshotDatabaseManager utxoSnapshotDatabaseManager = databaseManager.getUtxoSnapshotDatabaseManager();
+                _transactionBlockHeights.putAll(utxoSnapshotDatabaseManager.getTransactionBlockHeights(snapshotTransactionHashes));
+                _snapshotCoinbaseTransactionFlags.putAll(utxoSnapshotDatabaseManager.getCoinbaseTransactionFlags(snapshotTransactionHashes));
+            }
         }
 
         boolean allTransactionOutputsWereLoaded = true;
@@ -249,6 +259,10 @@ public class MutableUnspentTransactionOutputSet implements UnspentTransactionOut
     @Override
     public Boolean isCoinbaseTransactionOutput(final TransactionOutputIdentifier transactionOutputIdentifier) {
         final Sha256Hash transactionHash = transactionOutputIdentifier.getTransactionHash();
+
+        final Boolean isSnapshotCoinbaseTransaction = _snapshotCoinbaseTransactionFlags.get(transactionHash);
+        if (isSnapshotCoinbaseTransaction != null) { return isSnapshotCoinbaseTransaction; }
+
         final Long blockHeight = _transactionBlockHeights.get(transactionHash);
         if (blockHeight == null) { return null; }
 
@@ -307,5 +321,6 @@ public class MutableUnspentTransactionOutputSet implements UnspentTransactionOut
         _transactionOutputs.clear();
         _transactionBlockHeights.clear();
         _coinbaseTransactionHashesByBlockHeight.clear();
+        _snapshotCoinbaseTransactionFlags.clear();
     }
 }
@@ -9,6 +9,7 @@ import com.softwareverde.bitcoin.server.module.node.database.fullnode.FullNodeDa
 import com.softwareverde.bitcoin.server.module.node.database.transaction.fullnode.FullNodeTransactionDatabaseManager;
 import com.softwareverde.bitcoin.server.module.node.database.transaction.fullnode.output.UnconfirmedTransactionOutputDatabaseManager;
 import com.softwareverde.bitcoin.server.module.node.database.transaction.fullnode.utxo.UnspentTransactionOutputDatabaseManager;
+import com.softwareverde.bitcoin.server.module.node.database.transaction.fullnode.utxo.UtxoSnapshotDatabaseManager;
 import com.softwareverde.bitcoin.transaction.TransactionId;
 import com.softwareverde.bitcoin.transaction.output.TransactionOutput;
 import com.softwareverde.bitcoin.transaction.output.UnconfirmedTransactionOutputId;
@@ -69,7 +70,10 @@ public class LazyUnconfirmedTransactionUtxoSet implements UnspentTransactionOutp
             final FullNodeTransactionDatabaseManager transactionDatabaseManager = _databaseManager.getTransactionDatabaseManager();
 
             final TransactionId transactionId = transactionDatabaseManager.getTransactionId(transactionHash);
-            if (transactionId == null) { return null; }
+            if (transactionId == null) { // The Transaction may have been mined before the Block of an imported UTXO snapshot...
+                final UtxoSnapshotDatabaseManager utxoSnapshotDatabaseManager = _databaseManager.getUtxoSnapshotDatabaseManager();
+                return utxoSnapshotDatabaseManager.getTransactionBlockHeight(transactionHash);
+            }
 
             // final Boolean isUnconfirmedTransaction = transactionDatabaseManager.isUnconfirmedTransaction(transactionId);
             // if (isUnconfirmedTransaction) {
@@ -99,7 +103,17 @@ public class LazyUnconfirmedTransactionUtxoSet implements UnspentTransactionOutp
             final FullNodeTransactionDatabaseManager transactionDatabaseManager = _databaseManager.getTransactionDatabaseManager();
 
             final TransactionId transactionId = transactionDatabaseManager.getTransactionId(transactionHash);
-            if (transactionId == null) { return null; }
+            if (transactionId == null) { // The Transaction may have been mined before the Block of an imported UTXO snapshot...
+                final UtxoSnapshotDatabaseManager utxoSnapshotDatabaseManager = _databaseManager.getUtxoSnapshotDatabaseManager();
+                final Long blockHeight = utxoSnapshotDatabaseManager.getTransactionBlockHeight(transactionHash);
+                if (blockHeight == null) { return null; }
+
+                final BlockchainSegmentId blockchainSegmentId = blockchainDatabaseManager.getHeadBlockchainSegmentId();
+                final BlockId blockId = blockHeaderDatabaseManager.getBlockIdAtHeight(blockchainSegmentId, blockHeight);
+                if (blockId == null) { return null; }
+
+                return blockHeaderDatabaseManager.getBlockHash(blockId);
+            }
 
             // final Boolean isUnconfirmedTransaction = transactionDatabaseManager.isUnconfirmedTransaction(transactionId);
             // if (isUnconfirmedTransaction) { return null; }
@@ -123,7 +137,10 @@ public class LazyUnconfirmedTransactionUtxoSet implements UnspentTransactionOutp
             final FullNodeTransactionDatabaseManager transactionDatabaseManager = _databaseManager.getTransactionDatabaseManager();
 
             final TransactionId transactionId = transactionDatabaseManager.getTransactionId(transactionHash);
-            if (transactionId == null) { return null; }
+            if (transactionId == null) { // The Transaction may have been mined before the Block of an imported UTXO snapshot...
+                final UtxoSnapshotDatabaseManager utxoSnapshotDatabaseManager = _databaseManager.getUtxoSnapshotDatabaseManager();
+                return utxoSnapshotDatabaseManager.isCoinbaseTransaction(transactionHash);
+            }
 
             return transactionDatabaseManager.isCoinbaseTransaction(transactionHash);
         }
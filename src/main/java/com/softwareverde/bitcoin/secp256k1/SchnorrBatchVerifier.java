@@ -0,0 +1,216 @@
+package com.softwareverde.bitcoin.secp256k1;
+
+import com.softwareverde.constable.bytearray.ByteArray;
+import com.softwareverde.constable.bytearray.MutableByteArray;
+import com.softwareverde.constable.list.List;
+import com.softwareverde.constable.list.immutable.ImmutableListBuilder;
+import com.softwareverde.constable.list.mutable.MutableList;
+import com.softwareverde.cryptography.secp256k1.Schnorr;
+import com.softwareverde.cryptography.secp256k1.key.PublicKey;
+import com.softwareverde.cryptography.secp256k1.signature.Signature;
+import com.softwareverde.cryptography.util.HashUtil;
+import com.softwareverde.logging.Logger;
+import org.bouncycastle.asn1.x9.X9ECParameters;
+import org.bouncycastle.crypto.ec.CustomNamedCurves;
+import org.bouncycastle.math.ec.ECAlgorithms;
+import org.bouncycastle.math.ec.ECCurve;
+import org.bouncycastle.math.ec.ECPoint;
+
+import java.math.BigInteger;
+import java.security.SecureRandom;
+
+/**
+ * SchnorrBatchVerifier verifies many BCH Schnorr signatures with a single multi-scalar multiplication.
+ *  https://github.com/bitcoincashorg/bitcoincash.org/blob/master/spec/2019-05-15-schnorr.md#batch-verification
+ *
+ * For signatures (r_i, s_i), public keys P_i, and messages m_i, the batch is valid iff:
+ *      (a_1 * s_1 + ... + a_u * s_u) * G == (a_1 * R_1 + ... + a_u * R_u) + (a_1 * e_1 * P_1 + ... + a_u * e_u * P_u)
+ *  Where R_i is the point with x-coordinate r_i and a quadratic-residue y-coordinate, e_i = sha256(r_i || compressed(P_i) || m_i),
+ *  a_1 = 1, and a_2 ... a_u are random 256-bit scalars.
+ *
+ * A failed batch only indicates that at least one signature is invalid; SchnorrBatchVerifier::getInvalidSignatureIndexes
+ *  verifies failed batches individually via Schnorr::verifySignature to identify which signatures are invalid.
+ *  Any signature that cannot be represented within the batch equation (e.g. a malformed PublicKey) fails its batch, and is therefore
+ *  always evaluated individually.  This class is not thread-safe.
+ */
+public class SchnorrBatchVerifier {
+    public static final Integer DEFAULT_BATCH_SIZE = 64;
+
+    protected static final X9ECParameters CURVE_PARAMETERS = CustomNamedCurves.getByName("secp256k1");
+    protected static final ECCurve CURVE = CURVE_PARAMETERS.getCurve();
+    protected static final ECPoint GENERATOR = CURVE_PARAMETERS.getG();
+    protected static final BigInteger CURVE_ORDER = CURVE_PARAMETERS.getN();
+    protected static final BigInteger FIELD_SIZE = CURVE.getField().getCharacteristic();
+    protected static final BigInteger SQUARE_ROOT_EXPONENT = FIELD_SIZE.add(BigInteger.ONE).shiftRight(2); // (p + 1) / 4
+    protected static final BigInteger SEVEN = BigInteger.valueOf(7L);
+
+    /**
+     * Returns the point with x-coordinate x and a quadratic-residue y-coordinate, or null if no such point exists.
+     *  Since p = 3 mod 4, y = c^((p + 1) / 4) is the square root of c that is itself a quadratic residue.
+     */
+    protected static ECPoint _liftX(final BigInteger x) {
+        if (x.compareTo(FIELD_SIZE) >= 0) { return null; }
+
+        final BigInteger c = x.modPow(BigInteger.valueOf(3L), FIELD_SIZE).add(SEVEN).mod(FIELD_SIZE);
+        final BigInteger y = c.modPow(SQUARE_ROOT_EXPONENT, FIELD_SIZE);
+        if (! y.multiply(y).mod(FIELD_SIZE).equals(c)) { return null; }
+
+        return CURVE.createPoint(x, y);
+    }
+
+    protected final Integer _batchSize;
+    protected final SecureRandom _secureRandom = new SecureRandom();
+    protected final MutableList<Signature> _signatures = new MutableList<Signature>();
+    protected final MutableList<PublicKey> _publicKeys = new MutableList<PublicKey>();
+    protected final MutableList<ByteArray> _messages = new MutableList<ByteArray>();
+
+    protected BigInteger _getRandomScalar() {
+        while (true) {
+            final BigInteger scalar = new BigInteger(256, _secureRandom);
+            if ( (scalar.signum() > 0) && (scalar.compareTo(CURVE_ORDER) < 0) ) {
+                return scalar;
+            }
+        }
+    }
+
+    /**
+     * Returns true iff every signature within [beginIndex, endIndex) is valid.
+     *  A false result does not guarantee any particular signature is invalid if the signature could not be represented within the batch.
+     */
+    protected Boolean _verifyBatch(final int beginIndex, final int endIndex) {
+        final int signatureCount = (endIndex - beginIndex);
+        if (signatureCount < 1) { return true; }
+
+        final ECPoint[] points = new ECPoint[(signatureCount * 2) + 1];
+        final BigInteger[] scalars = new BigInteger[(signatureCount * 2) + 1];
+
+        try {
+            BigInteger generatorScalar = BigInteger.ZERO;
+            for (int i = 0; i < signatureCount; ++i) {
+                final Signature signature = _signatures.get(beginIndex + i);
+                final PublicKey publicKey = _publicKeys.get(beginIndex + i);
+                final ByteArray message = _messages.get(beginIndex + i);
+
+                if (signature.getType() != Signature.Type.SCHNORR) { return false; }
+                if (! (publicKey.isCompressed() || publicKey.isDecompressed())) { return false; }
+
+                final ByteArray rBytes = signature.getR();
+                final ByteArray sBytes = signature.getS();
+                final BigInteger r = new BigInteger(1, rBytes.getBytes());
+                final BigInteger s = new BigInteger(1, sBytes.getBytes());
+                if (s.compareTo(CURVE_ORDER) >= 0) { return false; }
+
+                final ECPoint R = _liftX(r);
+                if (R == null) { return false; }
+
+                final ECPoint P = CURVE.decodePoint(publicKey.getBytes());
+                if (P.isInfinity()) { return false; }
+
+                final BigInteger e;
+                {
+                    final byte[] compressedPublicKeyBytes = publicKey.compress().getBytes();
+                    final MutableByteArray preImage = new MutableByteArray(rBytes.getByteCount() + compressedPublicKeyBytes.length + message.getByteCount());
+                    preImage.setBytes(0, rBytes.getBytes());
+                    preImage.setBytes(rBytes.getByteCount(), compressedPublicKeyBytes);
+                    preImage.setBytes(rBytes.getByteCount() + compressedPublicKeyBytes.length, message.getBytes());
+                    e = new BigInteger(1, HashUtil.sha256(preImage).getBytes()).mod(CURVE_ORDER);
+                }
+
+                final BigInteger a = ((i == 0) ? BigInteger.ONE : _getRandomScalar());
+
+                points[i * 2] = R;
+                scalars[i * 2] = a;
+
+                points[(i * 2) + 1] = P;
+                scalars[(i * 2) + 1] = a.multiply(e).mod(CURVE_ORDER);
+
+                generatorScalar = generatorScalar.add(a.multiply(s)).mod(CURVE_ORDER);
+            }
+
+            // (a_1 * R_1 + a_1 * e_1 * P_1 + ...) - (sum(a_i * s_i) * G) must be the point at infinity...
+            points[signatureCount * 2] = GENERATOR;
+            scalars[signatureCount * 2] = CURVE_ORDER.subtract(generatorScalar).mod(CURVE_ORDER);
+
+            final ECPoint sum = ECAlgorithms.sumOfMultiplies(points, scalars);
+            return sum.isInfinity();
+        }
+        catch (final Exception exception) {
+            Logger.debug(exception);
+            return false;
+        }
+    }
+
+    protected Boolean _verifySignature(final int index) {
+        final Signature signature = _signatures.get(index);
+        final PublicKey publicKey = _publicKeys.get(index);
+        final ByteArray message = _messages.get(index);
+        return Schnorr.verifySignature(signature, publicKey, message.getBytes());
+    }
+
+    public SchnorrBatchVerifier() {
+        this(DEFAULT_BATCH_SIZE);
+    }
+
+    public SchnorrBatchVerifier(final Integer batchSize) {
+        _batchSize = Math.max(1, batchSize);
+    }
+
+    /**
+     * Queues the signature for verification.  The message is the 32-byte hash that was signed.
+     */
+    public void add(final Signature signature, final PublicKey publicKey, final ByteArray message) {
+        _signatures.add(signature);
+        _publicKeys.add(publicKey);
+        _messages.add(message);
+    }
+
+    public Integer getCount() {
+        return _signatures.getCount();
+    }
+
+    /**
+     * Returns true iff all queued signatures are valid.
+     */
+    public Boolean verifySignatures() {
+        final int signatureCount = _signatures.getCount();
+        for (int beginIndex = 0; beginIndex < signatureCount; beginIndex += _batchSize) {
+            final int endIndex = Math.min(signatureCount, (beginIndex + _batchSize));
+            final Boolean batchIsValid = _verifyBatch(beginIndex, endIndex);
+            if (! batchIsValid) {
+                for (int i = beginIndex; i < endIndex; ++i) {
+                    if (! _verifySignature(i)) { return false; }
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the indexes (in the order they were added) of every invalid queued signature.
+     *  Signatures are verified in batches; batches that fail are re-verified individually.
+     */
+    public List<Integer> getInvalidSignatureIndexes() {
+        final ImmutableListBuilder<Integer> invalidSignatureIndexes = new ImmutableListBuilder<Integer>(0);
+
+        final int signatureCount = _signatures.getCount();
+        for (int beginIndex = 0; beginIndex < signatureCount; beginIndex += _batchSize) {
+            final int endIndex = Math.min(signatureCount, (beginIndex + _batchSize));
+            final Boolean batchIsValid = _verifyBatch(beginIndex, endIndex);
+            if (batchIsValid) { continue; }
+
+            for (int i = beginIndex; i < endIndex; ++i) {
+                if (! _verifySignature(i)) {
+                    invalidSignatureIndexes.add(i);
+                }
+            }
+        }
+
+        return invalidSignatureIndexes.build();
+    }
+
+    public void clear() {
+        _signatures.clear();
+        _publicKeys.clear();
+        _messages.clear();
+    }
+}
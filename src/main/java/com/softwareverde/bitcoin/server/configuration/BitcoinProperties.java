@@ -1,6 +1,7 @@
 package com.softwareverde.bitcoin.server.configuration;
 
 import com.softwareverde.bitcoin.server.module.node.database.transaction.fullnode.utxo.UnspentTransactionOutputDatabaseManager;
+import com.softwareverde.bitcoin.server.module.node.rpc.NodeRpcHandler;
 import com.softwareverde.constable.list.List;
 import com.softwareverde.logging.LogLevel;
 
@@ -11,6 +12,9 @@ public class BitcoinProperties {
 
     protected Integer _bitcoinPort;
     protected Integer _bitcoinRpcPort;
+    protected Integer _maxQueuedRpcHookEventCount;
+    protected NodeRpcHandler.SlowHookListenerPolicy _slowRpcHookListenerPolicy;
+    protected Integer _metricsPort;
     protected List<SeedNodeProperties> _seedNodeProperties;
     protected List<String> _dnsSeeds;
     protected List<String> _userAgentBlacklist;
@@ -31,11 +35,18 @@ public class BitcoinProperties {
     protected String _dataDirectory;
     protected Boolean _shouldRelayInvalidSlpTransactions;
     protected Boolean _deletePendingBlocksIsEnabled;
+    protected Boolean _pruningModeIsEnabled;
+    protected Long _prunedBlockRetentionCount;
+    protected Boolean _blockFilterIndexIsEnabled;
+    protected Boolean _memoryPoolSnapshotIsEnabled;
     protected String _logDirectory;
     protected LogLevel _logLevel;
 
     public Integer getBitcoinPort() { return _bitcoinPort; }
     public Integer getBitcoinRpcPort() { return _bitcoinRpcPort; }
+    public Integer getMaxQueuedRpcHookEventCount() { return _maxQueuedRpcHookEventCount; }
+    public NodeRpcHandler.SlowHookListenerPolicy getSlowRpcHookListenerPolicy() { return _slowRpcHookListenerPolicy; }
+    public Integer getMetricsPort() { return _metricsPort; } // Zero if the Prometheus metrics endpoint is disabled.
     public List<SeedNodeProperties> getSeedNodeProperties() { return _seedNodeProperties; }
     public List<String> getDnsSeeds() { return _dnsSeeds; }
     public List<String> getUserAgentBlacklist() { return _userAgentBlacklist; }
@@ -47,6 +58,10 @@ public class BitcoinProperties {
     public Long getTrustedBlockHeight() { return _trustedBlockHeight; }
     public Boolean skipNetworking() { return _shouldSkipNetworking; }
     public Boolean isDeletePendingBlocksEnabled() { return _deletePendingBlocksIsEnabled; }
+    public Boolean isPruningModeEnabled() { return _pruningModeIsEnabled; }
+    public Long getPrunedBlockRetentionCount() { return _prunedBlockRetentionCount; } // The number of recent Blocks kept when pruning is enabled.
+    public Boolean isBlockFilterIndexEnabled() { return _blockFilterIndexIsEnabled; } // BIP-157/158 compact Block filters.
+    public Boolean isMemoryPoolSnapshotEnabled() { return _memoryPoolSnapshotIsEnabled; }
     public String getLogDirectory() { return _logDirectory; }
     public LogLevel getLogLevel() { return _logLevel; }
 
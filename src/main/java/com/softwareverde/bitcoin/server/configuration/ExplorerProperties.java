@@ -17,6 +17,8 @@ public class ExplorerProperties {
     protected String _tlsKeyFile;
     protected String _tlsCertificateFile;
 
+    protected Long _cacheByteCount;
+
     public Integer getPort() { return _port; }
     public String getRootDirectory() { return _rootDirectory; }
 
@@ -29,4 +31,6 @@ public class ExplorerProperties {
     public Integer getTlsPort() { return _tlsPort; }
     public String getTlsKeyFile() { return _tlsKeyFile; }
     public String getTlsCertificateFile() { return _tlsCertificateFile; }
+
+    public Long getCacheByteCount() { return _cacheByteCount; }
 }
\ No newline at end of file
@@ -1,60 +1,270 @@
 package com.softwareverde.bitcoin.server.database;
 
-import com.softwareverde.concurrent.Pin;
-import com.softwareverde.concurrent.pool.MainThreadPool;
 import com.softwareverde.constable.list.List;
 import com.softwareverde.constable.list.mutable.MutableList;
 import com.softwareverde.database.DatabaseException;
-import com.softwareverde.util.Container;
 import com.softwareverde.util.Util;
+import com.softwareverde.util.timer.MilliTimer;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 public class BatchRunner<T> {
     public interface Batch<T> {
         void run(List<T> batchItems) throws Exception;
     }
 
+    /**
+     * Executes a single batch of a nested run as a ForkJoinPool.ManagedBlocker.
+     *  The enclosing batch is blocked until the nested run completes, so the shared pool may activate a spare thread for each
+     *  nested batch; otherwise a batch running a nested asynchronous BatchRunner could starve the pool.
+     */
+    protected static class BatchBlocker<T> implements ForkJoinPool.ManagedBlocker {
+        protected final Batch<T> _batch;
+        protected final List<T> _batchItems;
+        protected Exception _exception = null;
+        protected boolean _isComplete = false;
+
+        public BatchBlocker(final Batch<T> batch, final List<T> batchItems) {
+            _batch = batch;
+            _batchItems = batchItems;
+        }
+
+        @Override
+        public boolean block() {
+            _exception = BatchRunner._runBatch(_batch, _batchItems);
+            _isComplete = true;
+            return true;
+        }
+
+        @Override
+        public boolean isReleasable() {
+            return _isComplete;
+        }
+
+        public Exception getException() {
+            return _exception;
+        }
+    }
+
+    /**
+     * Asynchronous batches are shared across all BatchRunners on a single work-stealing pool, so that threads are not created and
+     *  destroyed for each run.  Each top-level batch must acquire one of the shared batch permits, which bounds the total concurrency
+     *  to the shared thread count.  Batches of a nested run (i.e. an asynchronous BatchRunner started from within a batch) execute
+     *  under their enclosing batch's permit as ManagedBlockers, so that the nested run cannot exhaust the pool.
+     */
+    protected static final Object SHARED_EXECUTOR_MUTEX = new Object();
+    protected static Integer _sharedThreadCount = Runtime.getRuntime().availableProcessors();
+    protected static ForkJoinPool _sharedExecutor = null;
+    protected static Semaphore _sharedBatchPermits = new Semaphore(_sharedThreadCount);
+
+    protected static final ThreadLocal<Boolean> IS_EXECUTING_BATCH = new ThreadLocal<Boolean>() {
+        @Override
+        protected Boolean initialValue() {
+            return false;
+        }
+    };
+
+    public static final Long DEFAULT_TARGET_BATCH_DURATION_MS = 1000L;
+
+    protected static ForkJoinPool _getSharedExecutor() {
+        synchronized (SHARED_EXECUTOR_MUTEX) {
+            if (_sharedExecutor == null) {
+                final AtomicInteger nextThreadId = new AtomicInteger(0);
+                _sharedExecutor = new ForkJoinPool(_sharedThreadCount, new ForkJoinPool.ForkJoinWorkerThreadFactory() {
+                    @Override
+                    public ForkJoinWorkerThread newThread(final ForkJoinPool forkJoinPool) {
+                        final ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(forkJoinPool);
+                        thread.setName("BatchRunner - " + nextThreadId.incrementAndGet());
+                        return thread;
+                    }
+                }, null, false);
+            }
+            return _sharedExecutor;
+        }
+    }
+
+    protected static Semaphore _getSharedBatchPermits() {
+        synchronized (SHARED_EXECUTOR_MUTEX) {
+            return _sharedBatchPermits;
+        }
+    }
+
+    /**
+     * Runs the batch while marking the current thread as executing a batch, so that any asynchronous BatchRunner started by the
+     *  batch is run as a nested run.  Returns the exception thrown by the batch, or null if the batch completed successfully.
+     */
+    protected static <T> Exception _runBatch(final Batch<T> batch, final List<T> batchItems) {
+        final Boolean wasExecutingBatch = IS_EXECUTING_BATCH.get();
+        IS_EXECUTING_BATCH.set(true);
+        try {
+            batch.run(batchItems);
+            return null;
+        }
+        catch (final Exception exception) {
+            return exception;
+        }
+        finally {
+            IS_EXECUTING_BATCH.set(wasExecutingBatch);
+        }
+    }
+
+    /**
+     * Sets the number of threads used to execute asynchronous batches across all BatchRunners.
+     *  Batches already executing on the previous pool (and holding the previous permits) are allowed to complete.
+     */
+    public static void setSharedThreadCount(final Integer threadCount) {
+        synchronized (SHARED_EXECUTOR_MUTEX) {
+            final int newThreadCount = Math.max(1, threadCount);
+            if (Util.areEqual(_sharedThreadCount, newThreadCount)) { return; }
+
+            _sharedThreadCount = newThreadCount;
+            _sharedBatchPermits = new Semaphore(newThreadCount);
+            if (_sharedExecutor != null) {
+                _sharedExecutor.shutdown();
+                _sharedExecutor = null;
+            }
+        }
+    }
+
+    public static Integer getSharedThreadCount() {
+        synchronized (SHARED_EXECUTOR_MUTEX) {
+            return _sharedThreadCount;
+        }
+    }
+
     protected final Boolean _asynchronousExecutionIsEnabled;
     protected final Integer _maxItemCountPerBatch;
     protected final Integer _maxConcurrentThreadCount;
+    protected final AtomicBoolean _isCancelled = new AtomicBoolean(false);
+    protected Long _targetBatchDurationMs = DEFAULT_TARGET_BATCH_DURATION_MS;
 
-    protected void _executeAsynchronously(final Runnable[] runnables, final Container<Exception> exceptionContainer) throws DatabaseException {
-        final int batchCount = runnables.length;
-        final int threadCount = Math.min(runnables.length, _maxConcurrentThreadCount);
-        final MainThreadPool threadPool = new MainThreadPool(threadCount, 0L);
+    protected static <T> MutableList<T> _getBatchedItems(final List<T> totalCollection, final int startIndex, final int itemCount) {
+        final int endIndex = Math.min((startIndex + itemCount), totalCollection.getCount());
+        final MutableList<T> batchedItems = new MutableList<T>(endIndex - startIndex);
+        for (int i = startIndex; i < endIndex; ++i) {
+            final T item = totalCollection.get(i);
+            batchedItems.add(item);
+        }
+        return batchedItems;
+    }
 
-        try {
-            final Pin[] pins = new Pin[batchCount];
-            for (int i = 0; i < batchCount; ++i) {
-                final Runnable runnable = runnables[i];
-                final Pin pin = new Pin();
-                pins[i] = pin;
+    /**
+     * Returns the item count of the next batch after a batch of itemCount items took batchDurationMs to execute.
+     *  Slow batches are split so that the remaining work is distributed across the executing threads, and fast batches are grown back
+     *  towards the maximum batch size.
+     */
+    protected Integer _getAdaptedItemCountPerBatch(final int itemCount, final long batchDurationMs) {
+        final int minItemCountPerBatch = Math.max(1, (_maxItemCountPerBatch / 8));
 
-                threadPool.execute(new Runnable() {
-                    @Override
-                    public void run() {
-                        try {
-                            runnable.run();
-                        }
-                        catch (final Exception exception) {
-                            exceptionContainer.value = exception;
+        if (batchDurationMs > (_targetBatchDurationMs * 2L)) {
+            return Math.max(minItemCountPerBatch, (itemCount / 2));
+        }
+
+        if (batchDurationMs < (_targetBatchDurationMs / 2L)) {
+            return Math.min(_maxItemCountPerBatch, (itemCount * 2));
+        }
+
+        return itemCount;
+    }
+
+    protected void _executeAsynchronously(final List<T> totalCollection, final Batch<T> batch, final AtomicReference<Exception> exceptionReference) {
+        final int totalItemCount = totalCollection.getCount();
+        final int batchCount = (int) Math.ceil(totalItemCount / (double) _maxItemCountPerBatch);
+        final int threadCount = Math.min(batchCount, _maxConcurrentThreadCount);
+
+        final AtomicInteger nextItemIndex = new AtomicInteger(0);
+        final AtomicInteger itemCountPerBatch = new AtomicInteger(_maxItemCountPerBatch);
+
+        final Boolean isNestedRun = IS_EXECUTING_BATCH.get();
+        final Semaphore batchPermits = BatchRunner._getSharedBatchPermits();
+
+        final Runnable workerRunnable = new Runnable() {
+            @Override
+            public void run() {
+                final MilliTimer batchTimer = new MilliTimer();
+
+                while ( (! _isCancelled.get()) && (exceptionReference.get() == null) ) {
+                    final int batchItemCount = itemCountPerBatch.get();
+                    final int startIndex = nextItemIndex.getAndAdd(batchItemCount);
+                    if (startIndex >= totalItemCount) { break; }
+
+                    final MutableList<T> batchedItems = BatchRunner._getBatchedItems(totalCollection, startIndex, batchItemCount);
+
+                    batchTimer.start();
+                    final Exception batchException;
+                    try {
+                        if (isNestedRun) {
+                            final BatchBlocker<T> batchBlocker = new BatchBlocker<T>(batch, batchedItems);
+                            ForkJoinPool.managedBlock(batchBlocker);
+                            batchException = batchBlocker.getException();
                         }
-                        finally {
-                            pin.release();
+                        else {
+                            batchPermits.acquire();
+                            try {
+                                batchException = BatchRunner._runBatch(batch, batchedItems);
+                            }
+                            finally {
+                                batchPermits.release();
+                            }
                         }
                     }
-                });
+                    catch (final InterruptedException exception) {
+                        exceptionReference.compareAndSet(null, exception);
+                        break;
+                    }
+                    batchTimer.stop();
+
+                    if (batchException != null) {
+                        exceptionReference.compareAndSet(null, batchException);
+                        break;
+                    }
+
+                    itemCountPerBatch.set(_getAdaptedItemCountPerBatch(batchItemCount, batchTimer.getMillisecondsElapsed()));
+                }
             }
+        };
+
+        final ForkJoinPool executor = BatchRunner._getSharedExecutor();
+        final ForkJoinTask<?>[] tasks = new ForkJoinTask<?>[threadCount];
+        for (int i = 0; i < threadCount; ++i) {
+            tasks[i] = executor.submit(workerRunnable);
+        }
 
-            for (int i = 0; i < batchCount; ++i) {
-                final Pin pin = pins[i];
-                pin.waitForRelease(Long.MAX_VALUE);
+        try {
+            for (final ForkJoinTask<?> task : tasks) {
+                task.get();
             }
         }
         catch (final InterruptedException exception) {
-            throw new DatabaseException(exception);
+            // Prevent the workers from starting additional batches...
+            exceptionReference.compareAndSet(null, exception);
+            Thread.currentThread().interrupt();
         }
-        finally {
-            threadPool.stop();
+        catch (final ExecutionException exception) {
+            exceptionReference.compareAndSet(null, exception);
+        }
+    }
+
+    protected void _executeSynchronously(final List<T> totalCollection, final Batch<T> batch, final AtomicReference<Exception> exceptionReference) {
+        final int totalItemCount = totalCollection.getCount();
+        for (int startIndex = 0; startIndex < totalItemCount; startIndex += _maxItemCountPerBatch) {
+            if (_isCancelled.get()) { break; }
+
+            final MutableList<T> batchedItems = BatchRunner._getBatchedItems(totalCollection, startIndex, _maxItemCountPerBatch);
+            try {
+                batch.run(batchedItems);
+            }
+            catch (final Exception exception) {
+                exceptionReference.set(exception);
+                break;
+            }
         }
     }
 
@@ -65,72 +275,62 @@ public class BatchRunner<T> {
     public BatchRunner(final Integer maxItemCountPerBatch, final Boolean executeAsynchronously) {
         this(maxItemCountPerBatch, executeAsynchronously, null);
     }
+
+    /**
+     * maxConcurrentThreadCount limits the number of this BatchRunner's batches that may execute at once on the shared pool;
+     *  top-level batches are additionally limited by the shared thread count across all BatchRunners.
+     */
     public BatchRunner(final Integer maxItemCountPerBatch, final Boolean executeAsynchronously, final Integer maxConcurrentThreadCount) {
-        _maxItemCountPerBatch = maxItemCountPerBatch;
+        _maxItemCountPerBatch = Math.max(1, maxItemCountPerBatch);
         _asynchronousExecutionIsEnabled = executeAsynchronously;
-        _maxConcurrentThreadCount = Util.coalesce(maxConcurrentThreadCount, Integer.MAX_VALUE);
+        _maxConcurrentThreadCount = Math.max(1, Util.coalesce(maxConcurrentThreadCount, Integer.MAX_VALUE));
     }
 
-    public void run(final List<T> totalCollection, final Batch<T> batch) throws DatabaseException {
-        final int totalItemCount = totalCollection.getCount();
-
-        final int itemCountPerBatch;
-        final int batchCount;
-        if (totalItemCount <= _maxItemCountPerBatch) {
-            itemCountPerBatch = totalItemCount;
-            batchCount = 1;
-        }
-        else {
-            itemCountPerBatch = _maxItemCountPerBatch;
-            batchCount = (int) Math.ceil(totalItemCount / (double) itemCountPerBatch);
-        }
-
-        final Runnable[] runnables = new Runnable[batchCount];
-        final Container<Exception> exceptionContainer = new Container<Exception>();
-        for (int i = 0; i < batchCount; ++i) {
-            final int batchId = i;
-            final Runnable runnable = new Runnable() {
-                @Override
-                public void run() {
-                    final MutableList<T> bathedItems = new MutableList<T>(itemCountPerBatch);
-                    for (int j = 0; j < itemCountPerBatch; ++j) {
-                        final int index = ((batchId * itemCountPerBatch) + j);
-                        if (index >= totalItemCount) { break; }
-                        final T item = totalCollection.get(index);
-                        bathedItems.add(item);
-                    }
-                    if (bathedItems.isEmpty()) { return; }
+    /**
+     * Sets the duration an asynchronous batch is expected to take; the size of subsequent batches is adapted towards this duration.
+     */
+    public void setTargetBatchDuration(final Long targetBatchDurationMs) {
+        _targetBatchDurationMs = targetBatchDurationMs;
+    }
 
-                    try {
-                        batch.run(bathedItems);
-                    }
-                    catch (final Exception exception) {
-                        exceptionContainer.value = exception;
-                    }
-                }
-            };
-            runnables[i] = runnable;
-        }
+    public void run(final List<T> totalCollection, final Batch<T> batch) throws DatabaseException {
+        final AtomicReference<Exception> exceptionReference = new AtomicReference<Exception>(null);
 
         if (_asynchronousExecutionIsEnabled) {
-            _executeAsynchronously(runnables, exceptionContainer);
+            _executeAsynchronously(totalCollection, batch, exceptionReference);
         }
         else {
-            for (final Runnable runnable : runnables) {
-                if (exceptionContainer.value != null) { break; }
-
-                runnable.run();
-            }
+            _executeSynchronously(totalCollection, batch, exceptionReference);
         }
 
-        if (exceptionContainer.value != null) {
-            if (exceptionContainer.value instanceof DatabaseException) {
-                throw ((DatabaseException) exceptionContainer.value);
+        // Reset the cancellation so that the BatchRunner may be reused...
+        final boolean wasCancelled = _isCancelled.getAndSet(false);
+
+        final Exception exception = exceptionReference.get();
+        if (exception != null) {
+            if (exception instanceof DatabaseException) {
+                throw ((DatabaseException) exception);
             }
             else {
-                throw new DatabaseException(exceptionContainer.value);
+                throw new DatabaseException(exception);
             }
         }
+
+        if (wasCancelled) {
+            throw new DatabaseException("BatchRunner cancelled.");
+        }
+    }
+
+    /**
+     * Prevents any further batches of the in-progress run (or, if none is in progress, the next run) from being started;
+     *  batches already executing are allowed to complete.  The cancelled run throws a DatabaseException, and subsequent runs execute normally.
+     */
+    public void cancel() {
+        _isCancelled.set(true);
+    }
+
+    public Boolean isCancelled() {
+        return _isCancelled.get();
     }
 
     public Integer getItemCountPerBatch() {
@@ -3,7 +3,8 @@ package com.softwareverde.bitcoin.server.main;
 import com.softwareverde.util.Util;
 
 public class BitcoinConstants {
-    protected static final Integer DATABASE_VERSION = 3;
+    protected static final Integer DATABASE_VERSION = 4;
+    protected static final Integer STRATUM_DATABASE_VERSION = 2;
 
     private static final String LOCKED_ERROR_MESSAGE = "Attempting to set SystemProperty after initialization.";
     private static Boolean LOCKED = false;
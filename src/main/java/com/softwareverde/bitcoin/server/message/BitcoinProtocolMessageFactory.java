@@ -43,12 +43,24 @@ import com.softwareverde.bitcoin.server.message.type.query.response.block.merkle
 import com.softwareverde.bitcoin.server.message.type.query.response.block.merkle.MerkleBlockMessageInflater;
 import com.softwareverde.bitcoin.server.message.type.query.response.error.NotFoundResponseMessage;
 import com.softwareverde.bitcoin.server.message.type.query.response.error.NotFoundResponseMessageInflater;
+import com.softwareverde.bitcoin.server.message.type.query.response.filter.BlockFilterCheckpointMessage;
+import com.softwareverde.bitcoin.server.message.type.query.response.filter.BlockFilterCheckpointMessageInflater;
+import com.softwareverde.bitcoin.server.message.type.query.response.filter.BlockFilterHeadersMessage;
+import com.softwareverde.bitcoin.server.message.type.query.response.filter.BlockFilterHeadersMessageInflater;
+import com.softwareverde.bitcoin.server.message.type.query.response.filter.BlockFilterMessage;
+import com.softwareverde.bitcoin.server.message.type.query.response.filter.BlockFilterMessageInflater;
 import com.softwareverde.bitcoin.server.message.type.query.response.transaction.TransactionMessage;
 import com.softwareverde.bitcoin.server.message.type.query.response.transaction.TransactionMessageInflater;
 import com.softwareverde.bitcoin.server.message.type.query.slp.QuerySlpStatusMessage;
 import com.softwareverde.bitcoin.server.message.type.query.slp.QuerySlpStatusMessageInflater;
 import com.softwareverde.bitcoin.server.message.type.request.RequestDataMessage;
 import com.softwareverde.bitcoin.server.message.type.request.RequestDataMessageInflater;
+import com.softwareverde.bitcoin.server.message.type.request.filter.RequestBlockFilterCheckpointMessage;
+import com.softwareverde.bitcoin.server.message.type.request.filter.RequestBlockFilterCheckpointMessageInflater;
+import com.softwareverde.bitcoin.server.message.type.request.filter.RequestBlockFilterHeadersMessage;
+import com.softwareverde.bitcoin.server.message.type.request.filter.RequestBlockFilterHeadersMessageInflater;
+import com.softwareverde.bitcoin.server.message.type.request.filter.RequestBlockFiltersMessage;
+import com.softwareverde.bitcoin.server.message.type.request.filter.RequestBlockFiltersMessageInflater;
 import com.softwareverde.bitcoin.server.message.type.request.header.RequestBlockHeadersMessage;
 import com.softwareverde.bitcoin.server.message.type.request.header.RequestBlockHeadersMessageInflater;
 import com.softwareverde.bitcoin.server.message.type.slp.EnableSlpTransactionsMessageInflater;
@@ -106,6 +118,12 @@ public class BitcoinProtocolMessageFactory implements ProtocolMessageFactory {
         _commandInflaterMap.put(MessageType.SET_TRANSACTION_BLOOM_FILTER, new SetTransactionBloomFilterMessageInflater(_masterInflater));
         _commandInflaterMap.put(MessageType.UPDATE_TRANSACTION_BLOOM_FILTER, new UpdateTransactionBloomFilterMessageInflater());
         _commandInflaterMap.put(MessageType.CLEAR_TRANSACTION_BLOOM_FILTER, new ClearTransactionBloomFilterMessageInflater());
+        _commandInflaterMap.put(MessageType.REQUEST_BLOCK_FILTERS, new RequestBlockFiltersMessageInflater());
+        _commandInflaterMap.put(MessageType.BLOCK_FILTER, new BlockFilterMessageInflater());
+        _commandInflaterMap.put(MessageType.REQUEST_BLOCK_FILTER_HEADERS, new RequestBlockFilterHeadersMessageInflater());
+        _commandInflaterMap.put(MessageType.BLOCK_FILTER_HEADERS, new BlockFilterHeadersMessageInflater());
+        _commandInflaterMap.put(MessageType.REQUEST_BLOCK_FILTER_CHECKPOINT, new RequestBlockFilterCheckpointMessageInflater());
+        _commandInflaterMap.put(MessageType.BLOCK_FILTER_CHECKPOINT, new BlockFilterCheckpointMessageInflater());
         // Bitcoin Verde Messages
         _commandInflaterMap.put(MessageType.QUERY_ADDRESS_BLOCKS, new QueryAddressBlocksMessageInflater(_masterInflater));
         _commandInflaterMap.put(MessageType.ENABLE_SLP_TRANSACTIONS, new EnableSlpTransactionsMessageInflater());
@@ -248,6 +266,30 @@ public class BitcoinProtocolMessageFactory implements ProtocolMessageFactory {
         return new ClearTransactionBloomFilterMessage();
     }
 
+    public RequestBlockFiltersMessage newRequestBlockFiltersMessage() {
+        return new RequestBlockFiltersMessage();
+    }
+
+    public BlockFilterMessage newBlockFilterMessage() {
+        return new BlockFilterMessage();
+    }
+
+    public RequestBlockFilterHeadersMessage newRequestBlockFilterHeadersMessage() {
+        return new RequestBlockFilterHeadersMessage();
+    }
+
+    public BlockFilterHeadersMessage newBlockFilterHeadersMessage() {
+        return new BlockFilterHeadersMessage();
+    }
+
+    public RequestBlockFilterCheckpointMessage newRequestBlockFilterCheckpointMessage() {
+        return new RequestBlockFilterCheckpointMessage();
+    }
+
+    public BlockFilterCheckpointMessage newBlockFilterCheckpointMessage() {
+        return new BlockFilterCheckpointMessage();
+    }
+
     public QueryAddressBlocksMessage newQueryAddressBlocksMessage() {
         return new QueryAddressBlocksMessage();
     }
@@ -46,6 +46,13 @@ public class MessageType {
     public static final MessageType UPDATE_TRANSACTION_BLOOM_FILTER = new MessageType("filteradd");
     public static final MessageType CLEAR_TRANSACTION_BLOOM_FILTER = new MessageType("filterclear");
 
+    public static final MessageType REQUEST_BLOCK_FILTERS = new MessageType("getcfilters");
+    public static final MessageType BLOCK_FILTER = new MessageType("cfilter", true);
+    public static final MessageType REQUEST_BLOCK_FILTER_HEADERS = new MessageType("getcfheaders");
+    public static final MessageType BLOCK_FILTER_HEADERS = new MessageType("cfheaders");
+    public static final MessageType REQUEST_BLOCK_FILTER_CHECKPOINT = new MessageType("getcfcheckpt");
+    public static final MessageType BLOCK_FILTER_CHECKPOINT = new MessageType("cfcheckpt");
+
     // BitcoinVerde Messages
     public static final MessageType QUERY_ADDRESS_BLOCKS = new MessageType("addrblocks", true);
     public static final MessageType ENABLE_SLP_TRANSACTIONS = new MessageType("sendslp", true);
@@ -11,8 +11,10 @@ public class NodeFeatures {
         UNUSED                                          ((long) (0x01 << 0x03)),
         XTHIN_PROTOCOL_ENABLED                          ((long) (0x01 << 0x04)),
         BITCOIN_CASH_ENABLED                            ((long) (0x01 << 0x05)),
+        COMPACT_FILTERS_ENABLED                         ((long) (0x01 << 0x06)), // BIP-157
         BLOCKCHAIN_INDEX_ENABLED                        ((long) (0x01 << 0x07)), // BitcoinVerde 2019-05-20
-        SLP_INDEX_ENABLED                               ((long) (0x01 << 0x08)); // BitcoinVerde 2019-10-24
+        SLP_INDEX_ENABLED                               ((long) (0x01 << 0x08)), // BitcoinVerde 2019-10-24
+        BLOCKCHAIN_LIMITED_ENABLED                      ((long) (0x01 << 0x0A)); // BIP-159: Only the most recent 288 Blocks are served.
 
         public final Long value;
 
@@ -0,0 +1,64 @@
+package com.softwareverde.bitcoin.server.message.type.query.response.filter;
+
+import com.softwareverde.bitcoin.block.filter.BlockFilterType;
+import com.softwareverde.bitcoin.server.message.BitcoinProtocolMessage;
+import com.softwareverde.bitcoin.server.message.type.MessageType;
+import com.softwareverde.bitcoin.util.ByteUtil;
+import com.softwareverde.constable.bytearray.ByteArray;
+import com.softwareverde.constable.list.List;
+import com.softwareverde.constable.list.mutable.MutableList;
+import com.softwareverde.cryptography.hash.sha256.Sha256Hash;
+import com.softwareverde.util.bytearray.ByteArrayBuilder;
+import com.softwareverde.util.bytearray.Endian;
+
+/**
+ * BIP-157 "cfcheckpt": the filter headers at every CHECKPOINT_INTERVAL Blocks up to the stop Block, sent in response to "getcfcheckpt".
+ */
+public class BlockFilterCheckpointMessage extends BitcoinProtocolMessage {
+    public static final Long CHECKPOINT_INTERVAL = 1000L;
+    public static final Integer MAX_FILTER_HEADER_COUNT = 100000; // NOTE: This value is a "not-to-exceed"...
+
+    protected BlockFilterType _blockFilterType = BlockFilterType.BASIC;
+    protected Sha256Hash _stopBlockHash = Sha256Hash.EMPTY_HASH;
+    protected final MutableList<Sha256Hash> _filterHeaders = new MutableList<Sha256Hash>();
+
+    public BlockFilterCheckpointMessage() {
+        super(MessageType.BLOCK_FILTER_CHECKPOINT);
+    }
+
+    public BlockFilterType getBlockFilterType() { return _blockFilterType; }
+    public Sha256Hash getStopBlockHash() { return _stopBlockHash; }
+    public List<Sha256Hash> getFilterHeaders() { return _filterHeaders; }
+
+    public void setBlockFilterType(final BlockFilterType blockFilterType) {
+        _blockFilterType = blockFilterType;
+    }
+
+    public void setStopBlockHash(final Sha256Hash stopBlockHash) {
+        _stopBlockHash = stopBlockHash.asConst();
+    }
+
+    public void addFilterHeader(final Sha256Hash filterHeader) {
+        if (_filterHeaders.getCount() >= MAX_FILTER_HEADER_COUNT) { return; }
+        _filterHeaders.add(filterHeader.asConst());
+    }
+
+    @Override
+    protected ByteArray _getPayload() {
+        final ByteArrayBuilder byteArrayBuilder = new ByteArrayBuilder();
+        byteArrayBuilder.appendBytes(new byte[]{ _blockFilterType.value }, Endian.BIG);
+        byteArrayBuilder.appendBytes(_stopBlockHash, Endian.LITTLE);
+        byteArrayBuilder.appendBytes(ByteUtil.variableLengthIntegerToBytes(_filterHeaders.getCount()), Endian.BIG);
+        for (final Sha256Hash filterHeader : _filterHeaders) {
+            byteArrayBuilder.appendBytes(filterHeader, Endian.LITTLE);
+        }
+        return byteArrayBuilder;
+    }
+
+    @Override
+    protected Integer _getPayloadByteCount() {
+        final int filterHeaderCount = _filterHeaders.getCount();
+        final byte[] filterHeaderCountBytes = ByteUtil.variableLengthIntegerToBytes(filterHeaderCount);
+        return (1 + Sha256Hash.BYTE_COUNT + filterHeaderCountBytes.length + (Sha256Hash.BYTE_COUNT * filterHeaderCount));
+    }
+}
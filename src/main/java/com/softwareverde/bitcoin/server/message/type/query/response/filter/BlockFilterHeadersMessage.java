@@ -0,0 +1,70 @@
+package com.softwareverde.bitcoin.server.message.type.query.response.filter;
+
+import com.softwareverde.bitcoin.block.filter.BlockFilterType;
+import com.softwareverde.bitcoin.server.message.BitcoinProtocolMessage;
+import com.softwareverde.bitcoin.server.message.type.MessageType;
+import com.softwareverde.bitcoin.server.message.type.request.filter.RequestBlockFilterHeadersMessage;
+import com.softwareverde.bitcoin.util.ByteUtil;
+import com.softwareverde.constable.bytearray.ByteArray;
+import com.softwareverde.constable.list.List;
+import com.softwareverde.constable.list.mutable.MutableList;
+import com.softwareverde.cryptography.hash.sha256.Sha256Hash;
+import com.softwareverde.util.bytearray.ByteArrayBuilder;
+import com.softwareverde.util.bytearray.Endian;
+
+/**
+ * BIP-157 "cfheaders": the filter hashes of a range of Blocks and the filter header preceding the range, sent in response to "getcfheaders".
+ *  The filter headers of the range are derived by the recipient from the previous filter header and the filter hashes.
+ */
+public class BlockFilterHeadersMessage extends BitcoinProtocolMessage {
+    protected BlockFilterType _blockFilterType = BlockFilterType.BASIC;
+    protected Sha256Hash _stopBlockHash = Sha256Hash.EMPTY_HASH;
+    protected Sha256Hash _previousFilterHeader = Sha256Hash.EMPTY_HASH;
+    protected final MutableList<Sha256Hash> _filterHashes = new MutableList<Sha256Hash>();
+
+    public BlockFilterHeadersMessage() {
+        super(MessageType.BLOCK_FILTER_HEADERS);
+    }
+
+    public BlockFilterType getBlockFilterType() { return _blockFilterType; }
+    public Sha256Hash getStopBlockHash() { return _stopBlockHash; }
+    public Sha256Hash getPreviousFilterHeader() { return _previousFilterHeader; }
+    public List<Sha256Hash> getFilterHashes() { return _filterHashes; }
+
+    public void setBlockFilterType(final BlockFilterType blockFilterType) {
+        _blockFilterType = blockFilterType;
+    }
+
+    public void setStopBlockHash(final Sha256Hash stopBlockHash) {
+        _stopBlockHash = stopBlockHash.asConst();
+    }
+
+    public void setPreviousFilterHeader(final Sha256Hash previousFilterHeader) {
+        _previousFilterHeader = previousFilterHeader.asConst();
+    }
+
+    public void addFilterHash(final Sha256Hash filterHash) {
+        if (_filterHashes.getCount() >= RequestBlockFilterHeadersMessage.MAX_BLOCK_COUNT) { return; }
+        _filterHashes.add(filterHash.asConst());
+    }
+
+    @Override
+    protected ByteArray _getPayload() {
+        final ByteArrayBuilder byteArrayBuilder = new ByteArrayBuilder();
+        byteArrayBuilder.appendBytes(new byte[]{ _blockFilterType.value }, Endian.BIG);
+        byteArrayBuilder.appendBytes(_stopBlockHash, Endian.LITTLE);
+        byteArrayBuilder.appendBytes(_previousFilterHeader, Endian.LITTLE);
+        byteArrayBuilder.appendBytes(ByteUtil.variableLengthIntegerToBytes(_filterHashes.getCount()), Endian.BIG);
+        for (final Sha256Hash filterHash : _filterHashes) {
+            byteArrayBuilder.appendBytes(filterHash, Endian.LITTLE);
+        }
+        return byteArrayBuilder;
+    }
+
+    @Override
+    protected Integer _getPayloadByteCount() {
+        final int filterHashCount = _filterHashes.getCount();
+        final byte[] filterHashCountBytes = ByteUtil.variableLengthIntegerToBytes(filterHashCount);
+        return (1 + (Sha256Hash.BYTE_COUNT * 2) + filterHashCountBytes.length + (Sha256Hash.BYTE_COUNT * filterHashCount));
+    }
+}
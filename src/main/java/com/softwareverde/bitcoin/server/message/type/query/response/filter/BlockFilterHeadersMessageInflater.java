@@ -0,0 +1,44 @@
+package com.softwareverde.bitcoin.server.message.type.query.response.filter;
+
+import com.softwareverde.bitcoin.block.filter.BlockFilterType;
+import com.softwareverde.bitcoin.server.message.BitcoinProtocolMessageInflater;
+import com.softwareverde.bitcoin.server.message.header.BitcoinProtocolMessageHeader;
+import com.softwareverde.bitcoin.server.message.type.MessageType;
+import com.softwareverde.bitcoin.server.message.type.request.filter.RequestBlockFilterHeadersMessage;
+import com.softwareverde.bitcoin.util.bytearray.ByteArrayReader;
+import com.softwareverde.cryptography.hash.sha256.Sha256Hash;
+import com.softwareverde.util.bytearray.Endian;
+
+public class BlockFilterHeadersMessageInflater extends BitcoinProtocolMessageInflater {
+
+    @Override
+    public BlockFilterHeadersMessage fromBytes(final byte[] bytes) {
+        final BlockFilterHeadersMessage blockFilterHeadersMessage = new BlockFilterHeadersMessage();
+        final ByteArrayReader byteArrayReader = new ByteArrayReader(bytes);
+
+        final BitcoinProtocolMessageHeader protocolMessageHeader = _parseHeader(byteArrayReader, MessageType.BLOCK_FILTER_HEADERS);
+        if (protocolMessageHeader == null) { return null; }
+
+        final BlockFilterType blockFilterType = BlockFilterType.fromByte(byteArrayReader.readByte());
+        if (blockFilterType == null) { return null; }
+
+        blockFilterHeadersMessage._blockFilterType = blockFilterType;
+        blockFilterHeadersMessage._stopBlockHash = Sha256Hash.wrap(byteArrayReader.readBytes(Sha256Hash.BYTE_COUNT, Endian.LITTLE));
+        blockFilterHeadersMessage._previousFilterHeader = Sha256Hash.wrap(byteArrayReader.readBytes(Sha256Hash.BYTE_COUNT, Endian.LITTLE));
+
+        final int filterHashCount = byteArrayReader.readVariableSizedInteger().intValue();
+        if ( (filterHashCount < 0) || (filterHashCount > RequestBlockFilterHeadersMessage.MAX_BLOCK_COUNT) ) { return null; }
+
+        final Integer bytesRequired = (Sha256Hash.BYTE_COUNT * filterHashCount);
+        if (byteArrayReader.remainingByteCount() < bytesRequired) { return null; }
+
+        for (int i = 0; i < filterHashCount; ++i) {
+            final Sha256Hash filterHash = Sha256Hash.wrap(byteArrayReader.readBytes(Sha256Hash.BYTE_COUNT, Endian.LITTLE));
+            blockFilterHeadersMessage.addFilterHash(filterHash);
+        }
+
+        if (byteArrayReader.didOverflow()) { return null; }
+
+        return blockFilterHeadersMessage;
+    }
+}
@@ -0,0 +1,51 @@
+package com.softwareverde.bitcoin.server.message.type.query.response.filter;
+
+import com.softwareverde.bitcoin.block.filter.BlockFilter;
+import com.softwareverde.bitcoin.block.filter.BlockFilterType;
+import com.softwareverde.bitcoin.server.message.BitcoinProtocolMessage;
+import com.softwareverde.bitcoin.server.message.type.MessageType;
+import com.softwareverde.bitcoin.util.ByteUtil;
+import com.softwareverde.constable.bytearray.ByteArray;
+import com.softwareverde.cryptography.hash.sha256.Sha256Hash;
+import com.softwareverde.util.bytearray.ByteArrayBuilder;
+import com.softwareverde.util.bytearray.Endian;
+
+/**
+ * BIP-157 "cfilter": the filter of a single Block, sent in response to "getcfilters".
+ */
+public class BlockFilterMessage extends BitcoinProtocolMessage {
+    protected Sha256Hash _blockHash = Sha256Hash.EMPTY_HASH;
+    protected BlockFilter _blockFilter = null;
+
+    public BlockFilterMessage() {
+        super(MessageType.BLOCK_FILTER);
+    }
+
+    public Sha256Hash getBlockHash() { return _blockHash; }
+    public BlockFilter getBlockFilter() { return _blockFilter; }
+
+    public void setBlockFilter(final Sha256Hash blockHash, final BlockFilter blockFilter) {
+        _blockHash = blockHash.asConst();
+        _blockFilter = blockFilter;
+    }
+
+    @Override
+    protected ByteArray _getPayload() {
+        final BlockFilterType blockFilterType = _blockFilter.getBlockFilterType();
+        final ByteArray filterBytes = _blockFilter.getBytes();
+
+        final ByteArrayBuilder byteArrayBuilder = new ByteArrayBuilder();
+        byteArrayBuilder.appendBytes(new byte[]{ blockFilterType.value }, Endian.BIG);
+        byteArrayBuilder.appendBytes(_blockHash, Endian.LITTLE);
+        byteArrayBuilder.appendBytes(ByteUtil.variableLengthIntegerToBytes(filterBytes.getByteCount()), Endian.BIG);
+        byteArrayBuilder.appendBytes(filterBytes, Endian.BIG);
+        return byteArrayBuilder;
+    }
+
+    @Override
+    protected Integer _getPayloadByteCount() {
+        final int filterByteCount = _blockFilter.getBytes().getByteCount();
+        final byte[] filterByteCountBytes = ByteUtil.variableLengthIntegerToBytes(filterByteCount);
+        return (1 + Sha256Hash.BYTE_COUNT + filterByteCountBytes.length + filterByteCount);
+    }
+}
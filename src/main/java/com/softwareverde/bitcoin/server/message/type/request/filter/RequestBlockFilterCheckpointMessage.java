@@ -0,0 +1,45 @@
+package com.softwareverde.bitcoin.server.message.type.request.filter;
+
+import com.softwareverde.bitcoin.block.filter.BlockFilterType;
+import com.softwareverde.bitcoin.server.message.BitcoinProtocolMessage;
+import com.softwareverde.bitcoin.server.message.type.MessageType;
+import com.softwareverde.constable.bytearray.ByteArray;
+import com.softwareverde.cryptography.hash.sha256.Sha256Hash;
+import com.softwareverde.util.bytearray.ByteArrayBuilder;
+import com.softwareverde.util.bytearray.Endian;
+
+/**
+ * BIP-157 "getcfcheckpt": requests the filter headers at each checkpoint interval up to stopBlockHash.
+ */
+public class RequestBlockFilterCheckpointMessage extends BitcoinProtocolMessage {
+    protected BlockFilterType _blockFilterType = BlockFilterType.BASIC;
+    protected Sha256Hash _stopBlockHash = Sha256Hash.EMPTY_HASH;
+
+    public RequestBlockFilterCheckpointMessage() {
+        super(MessageType.REQUEST_BLOCK_FILTER_CHECKPOINT);
+    }
+
+    public BlockFilterType getBlockFilterType() { return _blockFilterType; }
+    public Sha256Hash getStopBlockHash() { return _stopBlockHash; }
+
+    public void setBlockFilterType(final BlockFilterType blockFilterType) {
+        _blockFilterType = blockFilterType;
+    }
+
+    public void setStopBlockHash(final Sha256Hash stopBlockHash) {
+        _stopBlockHash = stopBlockHash.asConst();
+    }
+
+    @Override
+    protected ByteArray _getPayload() {
+        final ByteArrayBuilder byteArrayBuilder = new ByteArrayBuilder();
+        byteArrayBuilder.appendBytes(new byte[]{ _blockFilterType.value }, Endian.BIG);
+        byteArrayBuilder.appendBytes(_stopBlockHash, Endian.LITTLE);
+        return byteArrayBuilder;
+    }
+
+    @Override
+    protected Integer _getPayloadByteCount() {
+        return (1 + Sha256Hash.BYTE_COUNT);
+    }
+}
@@ -0,0 +1,31 @@
+package com.softwareverde.bitcoin.server.message.type.request.filter;
+
+import com.softwareverde.bitcoin.block.filter.BlockFilterType;
+import com.softwareverde.bitcoin.server.message.BitcoinProtocolMessageInflater;
+import com.softwareverde.bitcoin.server.message.header.BitcoinProtocolMessageHeader;
+import com.softwareverde.bitcoin.server.message.type.MessageType;
+import com.softwareverde.bitcoin.util.bytearray.ByteArrayReader;
+import com.softwareverde.cryptography.hash.sha256.Sha256Hash;
+import com.softwareverde.util.bytearray.Endian;
+
+public class RequestBlockFilterCheckpointMessageInflater extends BitcoinProtocolMessageInflater {
+
+    @Override
+    public RequestBlockFilterCheckpointMessage fromBytes(final byte[] bytes) {
+        final RequestBlockFilterCheckpointMessage requestBlockFilterCheckpointMessage = new RequestBlockFilterCheckpointMessage();
+        final ByteArrayReader byteArrayReader = new ByteArrayReader(bytes);
+
+        final BitcoinProtocolMessageHeader protocolMessageHeader = _parseHeader(byteArrayReader, MessageType.REQUEST_BLOCK_FILTER_CHECKPOINT);
+        if (protocolMessageHeader == null) { return null; }
+
+        final BlockFilterType blockFilterType = BlockFilterType.fromByte(byteArrayReader.readByte());
+        if (blockFilterType == null) { return null; }
+
+        requestBlockFilterCheckpointMessage._blockFilterType = blockFilterType;
+        requestBlockFilterCheckpointMessage._stopBlockHash = Sha256Hash.wrap(byteArrayReader.readBytes(Sha256Hash.BYTE_COUNT, Endian.LITTLE));
+
+        if (byteArrayReader.didOverflow()) { return null; }
+
+        return requestBlockFilterCheckpointMessage;
+    }
+}
@@ -0,0 +1,55 @@
+package com.softwareverde.bitcoin.server.message.type.request.filter;
+
+import com.softwareverde.bitcoin.block.filter.BlockFilterType;
+import com.softwareverde.bitcoin.server.message.BitcoinProtocolMessage;
+import com.softwareverde.bitcoin.server.message.type.MessageType;
+import com.softwareverde.bitcoin.util.ByteUtil;
+import com.softwareverde.constable.bytearray.ByteArray;
+import com.softwareverde.cryptography.hash.sha256.Sha256Hash;
+import com.softwareverde.util.bytearray.ByteArrayBuilder;
+import com.softwareverde.util.bytearray.Endian;
+
+/**
+ * BIP-157 "getcfilters": requests the filters of the Blocks from startBlockHeight through stopBlockHash.
+ */
+public class RequestBlockFiltersMessage extends BitcoinProtocolMessage {
+    public static final Integer MAX_BLOCK_COUNT = 1000;
+
+    protected BlockFilterType _blockFilterType = BlockFilterType.BASIC;
+    protected Long _startBlockHeight = 0L;
+    protected Sha256Hash _stopBlockHash = Sha256Hash.EMPTY_HASH;
+
+    public RequestBlockFiltersMessage() {
+        super(MessageType.REQUEST_BLOCK_FILTERS);
+    }
+
+    public BlockFilterType getBlockFilterType() { return _blockFilterType; }
+    public Long getStartBlockHeight() { return _startBlockHeight; }
+    public Sha256Hash getStopBlockHash() { return _stopBlockHash; }
+
+    public void setBlockFilterType(final BlockFilterType blockFilterType) {
+        _blockFilterType = blockFilterType;
+    }
+
+    public void setStartBlockHeight(final Long startBlockHeight) {
+        _startBlockHeight = startBlockHeight;
+    }
+
+    public void setStopBlockHash(final Sha256Hash stopBlockHash) {
+        _stopBlockHash = stopBlockHash.asConst();
+    }
+
+    @Override
+    protected ByteArray _getPayload() {
+        final ByteArrayBuilder byteArrayBuilder = new ByteArrayBuilder();
+        byteArrayBuilder.appendBytes(new byte[]{ _blockFilterType.value }, Endian.BIG);
+        byteArrayBuilder.appendBytes(ByteUtil.integerToBytes(_startBlockHeight), Endian.LITTLE);
+        byteArrayBuilder.appendBytes(_stopBlockHash, Endian.LITTLE);
+        return byteArrayBuilder;
+    }
+
+    @Override
+    protected Integer _getPayloadByteCount() {
+        return (1 + 4 + Sha256Hash.BYTE_COUNT);
+    }
+}
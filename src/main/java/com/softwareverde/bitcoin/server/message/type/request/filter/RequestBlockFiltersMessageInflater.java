@@ -0,0 +1,32 @@
+package com.softwareverde.bitcoin.server.message.type.request.filter;
+
+import com.softwareverde.bitcoin.block.filter.BlockFilterType;
+import com.softwareverde.bitcoin.server.message.BitcoinProtocolMessageInflater;
+import com.softwareverde.bitcoin.server.message.header.BitcoinProtocolMessageHeader;
+import com.softwareverde.bitcoin.server.message.type.MessageType;
+import com.softwareverde.bitcoin.util.bytearray.ByteArrayReader;
+import com.softwareverde.cryptography.hash.sha256.Sha256Hash;
+import com.softwareverde.util.bytearray.Endian;
+
+public class RequestBlockFiltersMessageInflater extends BitcoinProtocolMessageInflater {
+
+    @Override
+    public RequestBlockFiltersMessage fromBytes(final byte[] bytes) {
+        final RequestBlockFiltersMessage requestBlockFiltersMessage = new RequestBlockFiltersMessage();
+        final ByteArrayReader byteArrayReader = new ByteArrayReader(bytes);
+
+        final BitcoinProtocolMessageHeader protocolMessageHeader = _parseHeader(byteArrayReader, MessageType.REQUEST_BLOCK_FILTERS);
+        if (protocolMessageHeader == null) { return null; }
+
+        final BlockFilterType blockFilterType = BlockFilterType.fromByte(byteArrayReader.readByte());
+        if (blockFilterType == null) { return null; }
+
+        requestBlockFiltersMessage._blockFilterType = blockFilterType;
+        requestBlockFiltersMessage._startBlockHeight = byteArrayReader.readLong(4, Endian.LITTLE);
+        requestBlockFiltersMessage._stopBlockHash = Sha256Hash.wrap(byteArrayReader.readBytes(Sha256Hash.BYTE_COUNT, Endian.LITTLE));
+
+        if (byteArrayReader.didOverflow()) { return null; }
+
+        return requestBlockFiltersMessage;
+    }
+}
@@ -0,0 +1,40 @@
+package com.softwareverde.bitcoin.server.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A monotonically increasing count.
+ *  Increments are striped across cells (LongAdder) so that concurrent recording does not contend on a single value.
+ */
+public class Counter extends Metric {
+    protected final LongAdder _value = new LongAdder();
+
+    @Override
+    protected String _getType() {
+        return "counter";
+    }
+
+    @Override
+    protected void _appendSamples(final StringBuilder stringBuilder) {
+        stringBuilder.append(_name);
+        stringBuilder.append(' ');
+        stringBuilder.append(_value.sum());
+        stringBuilder.append('\n');
+    }
+
+    public Counter(final String name, final String help) {
+        super(name, help);
+    }
+
+    public void increment() {
+        _value.increment();
+    }
+
+    public void add(final long value) {
+        _value.add(value);
+    }
+
+    public Long get() {
+        return _value.sum();
+    }
+}
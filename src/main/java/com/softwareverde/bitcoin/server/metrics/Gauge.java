@@ -0,0 +1,47 @@
+package com.softwareverde.bitcoin.server.metrics;
+
+/**
+ * A value that may increase or decrease, (e.g. the number of connected peers).
+ *  The value is read from its Source only when the metric is exported, so recording is free.
+ */
+public class Gauge extends Metric {
+    public interface Source {
+        /**
+         * Returns the current value, or null if the value is currently unavailable.
+         */
+        Number getValue();
+    }
+
+    protected final Source _source;
+
+    @Override
+    protected String _getType() {
+        return "gauge";
+    }
+
+    @Override
+    protected void _appendSamples(final StringBuilder stringBuilder) {
+        final Number value;
+        try {
+            value = _source.getValue();
+        }
+        catch (final Exception exception) {
+            return;
+        }
+        if (value == null) { return; }
+
+        stringBuilder.append(_name);
+        stringBuilder.append(' ');
+        stringBuilder.append(_formatValue(value.doubleValue()));
+        stringBuilder.append('\n');
+    }
+
+    public Gauge(final String name, final String help, final Source source) {
+        super(name, help);
+        _source = source;
+    }
+
+    public Number getValue() {
+        return _source.getValue();
+    }
+}
@@ -0,0 +1,93 @@
+package com.softwareverde.bitcoin.server.metrics;
+
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts observed values within fixed, cumulative buckets.
+ *  Each bucket (and the sum) is striped across cells so that concurrent recording does not contend on a single value;
+ *  consequently an export taken during recording may be very slightly inconsistent between buckets, which Prometheus tolerates.
+ */
+public class Histogram extends Metric {
+    /**
+     * Bucket upper bounds (in seconds) suitable for durations ranging from sub-millisecond operations to multi-minute commits.
+     */
+    public static final double[] DURATION_BUCKETS = { 0.0005D, 0.001D, 0.0025D, 0.005D, 0.01D, 0.025D, 0.05D, 0.1D, 0.25D, 0.5D, 1D, 2.5D, 5D, 10D, 30D, 60D, 300D };
+
+    protected final double[] _upperBounds;
+    protected final LongAdder[] _bucketCounts; // The final bucket counts values greater than every upper bound (i.e. "+Inf").
+    protected final DoubleAdder _sum = new DoubleAdder();
+
+    @Override
+    protected String _getType() {
+        return "histogram";
+    }
+
+    @Override
+    protected void _appendSamples(final StringBuilder stringBuilder) {
+        long cumulativeCount = 0L;
+        for (int i = 0; i < _bucketCounts.length; ++i) {
+            cumulativeCount += _bucketCounts[i].sum();
+
+            final boolean isInfinityBucket = (i == _upperBounds.length);
+            stringBuilder.append(_name);
+            stringBuilder.append("_bucket{le=\"");
+            stringBuilder.append(isInfinityBucket ? "+Inf" : _formatValue(_upperBounds[i]));
+            stringBuilder.append("\"} ");
+            stringBuilder.append(cumulativeCount);
+            stringBuilder.append('\n');
+        }
+
+        stringBuilder.append(_name);
+        stringBuilder.append("_sum ");
+        stringBuilder.append(_formatValue(_sum.sum()));
+        stringBuilder.append('\n');
+
+        stringBuilder.append(_name);
+        stringBuilder.append("_count ");
+        stringBuilder.append(cumulativeCount);
+        stringBuilder.append('\n');
+    }
+
+    /**
+     * The upperBounds must be sorted in ascending order.
+     */
+    public Histogram(final String name, final String help, final double[] upperBounds) {
+        super(name, help);
+        _upperBounds = upperBounds.clone();
+        _bucketCounts = new LongAdder[_upperBounds.length + 1];
+        for (int i = 0; i < _bucketCounts.length; ++i) {
+            _bucketCounts[i] = new LongAdder();
+        }
+    }
+
+    public void observe(final double value) {
+        int bucketIndex = 0;
+        while ( (bucketIndex < _upperBounds.length) && (value > _upperBounds[bucketIndex]) ) {
+            bucketIndex += 1;
+        }
+
+        _bucketCounts[bucketIndex].increment();
+        _sum.add(value);
+    }
+
+    /**
+     * Records a duration measured in milliseconds (e.g. from a NanoTimer or MilliTimer); durations are exported in seconds.
+     */
+    public void observeMilliseconds(final Number milliseconds) {
+        if (milliseconds == null) { return; }
+        this.observe(milliseconds.doubleValue() / 1000D);
+    }
+
+    public Long getCount() {
+        long count = 0L;
+        for (final LongAdder bucketCount : _bucketCounts) {
+            count += bucketCount.sum();
+        }
+        return count;
+    }
+
+    public Double getSum() {
+        return _sum.sum();
+    }
+}
@@ -0,0 +1,61 @@
+package com.softwareverde.bitcoin.server.metrics;
+
+/**
+ * A named measurement that may be exported in the Prometheus text exposition format.
+ *  Recording a value must never block; exporting may be comparatively expensive.
+ */
+public abstract class Metric {
+    protected static String _formatValue(final double value) {
+        if (Double.isNaN(value)) { return "NaN"; }
+        if (value == Double.POSITIVE_INFINITY) { return "+Inf"; }
+        if (value == Double.NEGATIVE_INFINITY) { return "-Inf"; }
+        if ( (value == Math.rint(value)) && (Math.abs(value) < 1E15D) ) { return String.valueOf((long) value); }
+        return String.valueOf(value);
+    }
+
+    protected static String _escapeHelp(final String help) {
+        return help.replace("\\", "\\\\").replace("\n", "\\n");
+    }
+
+    protected final String _name;
+    protected final String _help;
+
+    protected Metric(final String name, final String help) {
+        _name = name;
+        _help = help;
+    }
+
+    /**
+     * Returns the Prometheus metric type, i.e. "counter", "gauge", or "histogram".
+     */
+    protected abstract String _getType();
+
+    /**
+     * Appends the metric's samples (excluding the HELP and TYPE comments).
+     */
+    protected abstract void _appendSamples(StringBuilder stringBuilder);
+
+    public String getName() {
+        return _name;
+    }
+
+    public String getHelp() {
+        return _help;
+    }
+
+    public void appendPrometheusText(final StringBuilder stringBuilder) {
+        stringBuilder.append("# HELP ");
+        stringBuilder.append(_name);
+        stringBuilder.append(' ');
+        stringBuilder.append(_escapeHelp(_help));
+        stringBuilder.append('\n');
+
+        stringBuilder.append("# TYPE ");
+        stringBuilder.append(_name);
+        stringBuilder.append(' ');
+        stringBuilder.append(_getType());
+        stringBuilder.append('\n');
+
+        _appendSamples(stringBuilder);
+    }
+}
@@ -0,0 +1,43 @@
+package com.softwareverde.bitcoin.server.metrics;
+
+/**
+ * The node's process-wide MetricsRegistry and the Metrics recorded by its core components.
+ *  Counters are suffixed with "_total" and durations are recorded in seconds, per Prometheus naming conventions.
+ *  Gauges are registered by the component that owns the measured value, (e.g. BitcoinNodeManager registers its peer counts).
+ */
+public class Metrics {
+    public static final MetricsRegistry REGISTRY = new MetricsRegistry();
+
+    // BlockProcessor
+    public static final Counter PROCESSED_BLOCK_COUNT = REGISTRY.newCounter("bitcoin_block_processed_total", "Number of valid Blocks processed.");
+    public static final Counter PROCESSED_BLOCK_TRANSACTION_COUNT = REGISTRY.newCounter("bitcoin_block_processed_transactions_total", "Number of Transactions within valid processed Blocks.");
+    public static final Counter INVALID_BLOCK_COUNT = REGISTRY.newCounter("bitcoin_block_invalid_total", "Number of Blocks that failed processing.");
+    public static final Histogram PROCESS_BLOCK_DURATION = REGISTRY.newHistogram("bitcoin_block_process_duration_seconds", "Time to process a valid Block, from its header through its database commit.", Histogram.DURATION_BUCKETS);
+    public static final Histogram PROCESS_BLOCK_HEADER_DURATION = REGISTRY.newHistogram("bitcoin_block_process_header_duration_seconds", "Time to process a valid Block's header.", Histogram.DURATION_BUCKETS);
+    public static final Histogram LOAD_BLOCK_UNSPENT_TRANSACTION_OUTPUTS_DURATION = REGISTRY.newHistogram("bitcoin_block_load_utxo_duration_seconds", "Time to load the UTXOs spent by a valid Block.", Histogram.DURATION_BUCKETS);
+    public static final Histogram STORE_BLOCK_DURATION = REGISTRY.newHistogram("bitcoin_block_store_duration_seconds", "Time to store a valid Block's Transactions and apply it to the UTXO set.", Histogram.DURATION_BUCKETS);
+    public static final Histogram COMMIT_BLOCK_DURATION = REGISTRY.newHistogram("bitcoin_block_commit_duration_seconds", "Time to update the mempool/head Block and commit a valid Block's database transaction.", Histogram.DURATION_BUCKETS);
+
+    // BlockValidator
+    public static final Histogram VALIDATE_BLOCK_TRANSACTIONS_DURATION = REGISTRY.newHistogram("bitcoin_block_validation_duration_seconds", "Time to validate the Transactions of a valid, untrusted Block.", Histogram.DURATION_BUCKETS);
+
+    // UnspentTransactionOutputJvmManager
+    public static final Counter UNSPENT_TRANSACTION_OUTPUT_CACHE_HIT_COUNT = REGISTRY.newCounter("bitcoin_utxo_cache_hit_total", "Number of UTXO lookups served by the in-memory UTXO set.");
+    public static final Counter UNSPENT_TRANSACTION_OUTPUT_CACHE_MISS_COUNT = REGISTRY.newCounter("bitcoin_utxo_cache_miss_total", "Number of UTXO lookups that required the database.");
+    public static final Histogram COMMIT_UNSPENT_TRANSACTION_OUTPUTS_DURATION = REGISTRY.newHistogram("bitcoin_utxo_commit_duration_seconds", "Time to commit the in-memory UTXO set to the database.", Histogram.DURATION_BUCKETS);
+
+    // TransactionProcessor
+    public static final Counter ACCEPTED_TRANSACTION_COUNT = REGISTRY.newCounter("bitcoin_mempool_accepted_transactions_total", "Number of Transactions accepted into the mempool.");
+    public static final Counter INVALID_TRANSACTION_COUNT = REGISTRY.newCounter("bitcoin_mempool_invalid_transactions_total", "Number of Transactions rejected from the mempool as invalid.");
+    public static final Histogram PROCESS_TRANSACTIONS_DURATION = REGISTRY.newHistogram("bitcoin_mempool_process_duration_seconds", "Time to validate and store a batch of pending Transactions.", Histogram.DURATION_BUCKETS);
+
+    // BitcoinNodeManager
+    public static final Counter PEER_HANDSHAKE_COUNT = REGISTRY.newCounter("bitcoin_peer_handshakes_total", "Number of peers that completed the handshake.");
+    public static final Counter PEER_DISCONNECT_COUNT = REGISTRY.newCounter("bitcoin_peer_disconnects_total", "Number of peers disconnected.");
+    public static final Counter PEER_FAILED_REQUEST_COUNT = REGISTRY.newCounter("bitcoin_peer_failed_requests_total", "Number of requests to peers that failed or timed out.");
+    public static final Counter PEER_RECEIVED_BYTE_COUNT = REGISTRY.newCounter("bitcoin_peer_received_bytes_total", "Number of bytes received from peers.");
+    public static final Counter PEER_SENT_BYTE_COUNT = REGISTRY.newCounter("bitcoin_peer_sent_bytes_total", "Number of bytes sent to peers.");
+    public static final Histogram PEER_PING_DURATION = REGISTRY.newHistogram("bitcoin_peer_ping_duration_seconds", "Round-trip time of pings to peers.", Histogram.DURATION_BUCKETS);
+
+    protected Metrics() { }
+}
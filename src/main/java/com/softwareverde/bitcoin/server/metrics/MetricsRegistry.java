@@ -0,0 +1,58 @@
+package com.softwareverde.bitcoin.server.metrics;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * A collection of uniquely-named Metrics that may be exported together in the Prometheus text exposition format.
+ *  Counters and Histograms are created once and shared; registering a Gauge with an existing name replaces the previous Gauge,
+ *  so that a restarted component may re-register its Source.
+ */
+public class MetricsRegistry {
+    protected final ConcurrentSkipListMap<String, Metric> _metrics = new ConcurrentSkipListMap<String, Metric>();
+
+    protected <T extends Metric> T _getOrAdd(final T metric, final Class<T> metricClass) {
+        final Metric existingMetric = _metrics.putIfAbsent(metric.getName(), metric);
+        if (existingMetric == null) { return metric; }
+
+        if (! metricClass.isInstance(existingMetric)) {
+            throw new IllegalArgumentException("Metric already registered with a different type: " + metric.getName());
+        }
+
+        return metricClass.cast(existingMetric);
+    }
+
+    public Counter newCounter(final String name, final String help) {
+        return _getOrAdd(new Counter(name, help), Counter.class);
+    }
+
+    public Histogram newHistogram(final String name, final String help, final double[] upperBounds) {
+        return _getOrAdd(new Histogram(name, help, upperBounds), Histogram.class);
+    }
+
+    public Gauge registerGauge(final String name, final String help, final Gauge.Source source) {
+        final Gauge gauge = new Gauge(name, help, source);
+        _metrics.put(name, gauge);
+        return gauge;
+    }
+
+    public void unregister(final String name) {
+        _metrics.remove(name);
+    }
+
+    public Metric getMetric(final String name) {
+        return _metrics.get(name);
+    }
+
+    /**
+     * Returns every registered Metric, ordered by name, in the Prometheus text exposition format (version 0.0.4).
+     */
+    public String toPrometheusText() {
+        final StringBuilder stringBuilder = new StringBuilder();
+        for (final Map.Entry<String, Metric> entry : _metrics.entrySet()) {
+            final Metric metric = entry.getValue();
+            metric.appendPrometheusText(stringBuilder);
+        }
+        return stringBuilder.toString();
+    }
+}
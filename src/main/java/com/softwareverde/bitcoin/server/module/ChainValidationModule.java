@@ -4,10 +4,12 @@ import com.softwareverde.bitcoin.CoreInflater;
 import com.softwareverde.bitcoin.block.Block;
 import com.softwareverde.bitcoin.block.BlockId;
 import com.softwareverde.bitcoin.block.header.BlockHeader;
+import com.softwareverde.bitcoin.block.header.ImmutableBlockHeader;
 import com.softwareverde.bitcoin.block.validator.BlockValidationResult;
 import com.softwareverde.bitcoin.block.validator.BlockValidator;
 import com.softwareverde.bitcoin.chain.segment.BlockchainSegmentId;
 import com.softwareverde.bitcoin.context.TransactionValidatorFactory;
+import com.softwareverde.bitcoin.context.UnspentTransactionOutputContext;
 import com.softwareverde.bitcoin.context.lazy.LazyBlockValidatorContext;
 import com.softwareverde.bitcoin.context.lazy.LazyMutableUnspentTransactionOutputSet;
 import com.softwareverde.bitcoin.inflater.BlockHeaderInflaters;
@@ -17,6 +19,7 @@ import com.softwareverde.bitcoin.inflater.TransactionInflaters;
 import com.softwareverde.bitcoin.server.Environment;
 import com.softwareverde.bitcoin.server.configuration.BitcoinProperties;
 import com.softwareverde.bitcoin.server.configuration.CheckpointConfiguration;
+import com.softwareverde.bitcoin.server.database.BatchRunner;
 import com.softwareverde.bitcoin.server.database.Database;
 import com.softwareverde.bitcoin.server.database.DatabaseConnection;
 import com.softwareverde.bitcoin.server.database.DatabaseConnectionFactory;
@@ -27,13 +30,25 @@ import com.softwareverde.bitcoin.server.module.node.database.block.header.BlockH
 import com.softwareverde.bitcoin.server.module.node.database.blockchain.BlockchainDatabaseManager;
 import com.softwareverde.bitcoin.server.module.node.database.fullnode.FullNodeDatabaseManager;
 import com.softwareverde.bitcoin.server.module.node.database.fullnode.FullNodeDatabaseManagerFactory;
+import com.softwareverde.bitcoin.server.module.node.database.transaction.fullnode.utxo.jvm.UtxoKey;
+import com.softwareverde.bitcoin.server.module.node.database.transaction.fullnode.utxo.snapshot.UtxoSnapshotEntry;
+import com.softwareverde.bitcoin.server.module.node.database.transaction.fullnode.utxo.snapshot.UtxoSnapshotReader;
+import com.softwareverde.bitcoin.server.module.node.database.transaction.fullnode.utxo.snapshot.UtxoSnapshotWriter;
 import com.softwareverde.bitcoin.server.module.node.store.PendingBlockStore;
 import com.softwareverde.bitcoin.server.module.node.store.PendingBlockStoreCore;
+import com.softwareverde.bitcoin.transaction.Transaction;
+import com.softwareverde.bitcoin.transaction.input.TransactionInput;
+import com.softwareverde.bitcoin.transaction.output.TransactionOutput;
+import com.softwareverde.bitcoin.transaction.output.identifier.TransactionOutputIdentifier;
 import com.softwareverde.bitcoin.transaction.validator.BlockOutputs;
 import com.softwareverde.bitcoin.transaction.validator.TransactionValidator;
 import com.softwareverde.bitcoin.transaction.validator.TransactionValidatorCore;
 import com.softwareverde.bitcoin.util.BitcoinUtil;
 import com.softwareverde.bitcoin.util.StringUtil;
+import com.softwareverde.concurrent.Pin;
+import com.softwareverde.concurrent.pool.MainThreadPool;
+import com.softwareverde.constable.list.List;
+import com.softwareverde.constable.list.mutable.MutableList;
 import com.softwareverde.cryptography.hash.sha256.Sha256Hash;
 import com.softwareverde.database.DatabaseException;
 import com.softwareverde.logging.Logger;
@@ -43,13 +58,348 @@ import com.softwareverde.util.Util;
 import com.softwareverde.util.timer.MilliTimer;
 import com.softwareverde.util.type.time.SystemTime;
 
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+
 public class ChainValidationModule {
+    protected static final Long CHECKPOINT_BLOCK_INTERVAL = 10000L;
+    protected static final String CHECKPOINT_FILE_NAME = "chain-validation.checkpoint";
+
+    /**
+     * Provides the outputs spent by a single Block, captured from the UTXO view immediately before the Block was applied.
+     *  Since each Block's spent outputs are captured independently, Blocks may be validated concurrently and out of order.
+     */
+    protected static class SpentTransactionOutputs implements UnspentTransactionOutputContext {
+        protected final HashMap<TransactionOutputIdentifier, UtxoSnapshotEntry> _spentTransactionOutputs;
+
+        public SpentTransactionOutputs(final HashMap<TransactionOutputIdentifier, UtxoSnapshotEntry> spentTransactionOutputs) {
+            _spentTransactionOutputs = spentTransactionOutputs;
+        }
+
+        @Override
+        public TransactionOutput getTransactionOutput(final TransactionOutputIdentifier transactionOutputIdentifier) {
+            final UtxoSnapshotEntry utxoSnapshotEntry = _spentTransactionOutputs.get(transactionOutputIdentifier);
+            if (utxoSnapshotEntry == null) { return null; }
+            return utxoSnapshotEntry.getTransactionOutput();
+        }
+
+        @Override
+        public Long getBlockHeight(final TransactionOutputIdentifier transactionOutputIdentifier) {
+            final UtxoSnapshotEntry utxoSnapshotEntry = _spentTransactionOutputs.get(transactionOutputIdentifier);
+            if (utxoSnapshotEntry == null) { return null; }
+            return utxoSnapshotEntry.getBlockHeight();
+        }
+
+        @Override
+        public Sha256Hash getBlockHash(final TransactionOutputIdentifier transactionOutputIdentifier) {
+            return null;
+        }
+
+        @Override
+        public Boolean isCoinbaseTransactionOutput(final TransactionOutputIdentifier transactionOutputIdentifier) {
+            final UtxoSnapshotEntry utxoSnapshotEntry = _spentTransactionOutputs.get(transactionOutputIdentifier);
+            if (utxoSnapshotEntry == null) { return null; }
+            return utxoSnapshotEntry.isCoinbase();
+        }
+    }
+
+    protected static class PendingBlock {
+        public final BlockId blockId;
+        public final Sha256Hash blockHash;
+        public final Long blockHeight;
+        public Block block;
+        public SpentTransactionOutputs spentTransactionOutputs;
+        public BlockValidationResult blockValidationResult;
+
+        public PendingBlock(final BlockId blockId, final Sha256Hash blockHash, final Long blockHeight) {
+            this.blockId = blockId;
+            this.blockHash = blockHash;
+            this.blockHeight = blockHeight;
+        }
+    }
+
+    /**
+     * A contiguous range of Blocks whose data is loaded asynchronously; loadPin is released once every Block has been loaded (or failed to load).
+     */
+    protected static class BlockWindow {
+        public final MutableList<PendingBlock> pendingBlocks = new MutableList<PendingBlock>();
+        public final Pin loadPin = new Pin();
+        public volatile Exception loadException;
+    }
+
+    /**
+     * Pairs a UtxoSnapshotEntry with its UtxoKey so that sorting the UTXO view does not re-derive the key on every comparison.
+     */
+    protected static class SortableUtxoSnapshotEntry {
+        public static final Comparator<SortableUtxoSnapshotEntry> COMPARATOR = new Comparator<SortableUtxoSnapshotEntry>() {
+            @Override
+            public int compare(final SortableUtxoSnapshotEntry sortableUtxoSnapshotEntry0, final SortableUtxoSnapshotEntry sortableUtxoSnapshotEntry1) {
+                return UtxoKey.COMPARATOR.compare(sortableUtxoSnapshotEntry0.utxoKey, sortableUtxoSnapshotEntry1.utxoKey);
+            }
+        };
+
+        public final UtxoKey utxoKey;
+        public final UtxoSnapshotEntry utxoSnapshotEntry;
+
+        public SortableUtxoSnapshotEntry(final UtxoSnapshotEntry utxoSnapshotEntry) {
+            this.utxoKey = new UtxoKey(utxoSnapshotEntry.getTransactionOutputIdentifier());
+            this.utxoSnapshotEntry = utxoSnapshotEntry;
+        }
+    }
+
     protected final BitcoinProperties _bitcoinProperties;
     protected final Environment _environment;
     protected final Sha256Hash _startingBlockHash;
     protected final PendingBlockStore _blockStore;
     protected final CheckpointConfiguration _checkpointConfiguration;
 
+    protected File _getCheckpointFile() {
+        return new File(_bitcoinProperties.getDataDirectory() + "/" + BitcoinProperties.DATA_DIRECTORY_NAME + "/" + CHECKPOINT_FILE_NAME);
+    }
+
+    protected FullNodeDatabaseManagerFactory _newDatabaseManagerFactory() {
+        final Database database = _environment.getDatabase();
+        final MasterInflater masterInflater = new CoreInflater();
+        final DatabaseConnectionFactory databaseConnectionFactory = _environment.getDatabaseConnectionFactory();
+        return new FullNodeDatabaseManagerFactory(databaseConnectionFactory, database.getMaxQueryBatchSize(), _blockStore, masterInflater, _checkpointConfiguration);
+    }
+
+    /**
+     * Removes the checkpoint (and any partially-written checkpoint) so that the next parallel validation starts from the genesis Block.
+     */
+    protected void _deleteCheckpoint() {
+        final File checkpointFile = _getCheckpointFile();
+        final File partialFile = new File(checkpointFile.getPath() + ".partial");
+
+        for (final File file : new File[]{ checkpointFile, partialFile }) {
+            if (file.exists() && (! file.delete())) {
+                Logger.warn("Unable to delete " + file.getPath() + ".");
+            }
+        }
+    }
+
+    /**
+     * Loads the UTXO view and BlockHeaders of the checkpoint written by a previous parallel validation.
+     *  Returns the Block height of the checkpoint, or null if there is no usable checkpoint.
+     */
+    protected Long _loadCheckpoint(final HashMap<TransactionOutputIdentifier, UtxoSnapshotEntry> unspentTransactionOutputs, final MutableList<BlockHeader> blockHeaders, final BlockHeaderDatabaseManager blockHeaderDatabaseManager, final BlockchainSegmentId blockchainSegmentId) {
+        final File checkpointFile = _getCheckpointFile();
+        if (! checkpointFile.exists()) { return null; }
+
+        try (final UtxoSnapshotReader utxoSnapshotReader = new UtxoSnapshotReader(new FileInputStream(checkpointFile))) {
+            final Sha256Hash blockHash = utxoSnapshotReader.getBlockHash();
+            final Long blockHeight = utxoSnapshotReader.getBlockHeight();
+
+            final BlockId blockId = blockHeaderDatabaseManager.getBlockIdAtHeight(blockchainSegmentId, blockHeight);
+            final Sha256Hash headBlockHash = (blockId != null ? blockHeaderDatabaseManager.getBlockHash(blockId) : null);
+            if (! Util.areEqual(blockHash, headBlockHash)) {
+                Logger.warn("Validation checkpoint " + blockHash + " is not on the head Blockchain; restarting validation.");
+                return null;
+            }
+
+            while (true) {
+                final BlockHeader blockHeader = utxoSnapshotReader.readBlockHeader();
+                if (blockHeader == null) { break; }
+
+                blockHeaders.add(blockHeader);
+            }
+
+            while (true) {
+                final UtxoSnapshotEntry utxoSnapshotEntry = utxoSnapshotReader.readEntry();
+                if (utxoSnapshotEntry == null) { break; }
+
+                unspentTransactionOutputs.put(utxoSnapshotEntry.getTransactionOutputIdentifier(), utxoSnapshotEntry);
+            }
+
+            if (! utxoSnapshotReader.isComplete()) {
+                throw new IOException("Incomplete validation checkpoint.");
+            }
+
+            Logger.info("Resuming validation from checkpoint " + blockHash + " (height " + blockHeight + ") with " + unspentTransactionOutputs.size() + " UTXOs.");
+            return blockHeight;
+        }
+        catch (final Exception exception) {
+            Logger.warn("Unable to load validation checkpoint; restarting validation.", exception);
+            unspentTransactionOutputs.clear();
+            blockHeaders.clear();
+            return null;
+        }
+    }
+
+    /**
+     * Writes the UTXO view as a UTXO snapshot so that an interrupted validation may be resumed after the last BlockHeader.
+     */
+    protected void _writeCheckpoint(final HashMap<TransactionOutputIdentifier, UtxoSnapshotEntry> unspentTransactionOutputs, final List<BlockHeader> blockHeaders) throws IOException {
+        final File checkpointFile = _getCheckpointFile();
+        final File partialFile = new File(checkpointFile.getPath() + ".partial");
+
+        final Long blockHeight = (blockHeaders.getCount() - 1L);
+        final BlockHeader lastBlockHeader = blockHeaders.get(blockHeaders.getCount() - 1);
+
+        final ArrayList<SortableUtxoSnapshotEntry> sortableUtxoSnapshotEntries = new ArrayList<SortableUtxoSnapshotEntry>(unspentTransactionOutputs.size());
+        for (final UtxoSnapshotEntry utxoSnapshotEntry : unspentTransactionOutputs.values()) {
+            sortableUtxoSnapshotEntries.add(new SortableUtxoSnapshotEntry(utxoSnapshotEntry));
+        }
+        sortableUtxoSnapshotEntries.sort(SortableUtxoSnapshotEntry.COMPARATOR);
+
+        try (final UtxoSnapshotWriter utxoSnapshotWriter = new UtxoSnapshotWriter(new FileOutputStream(partialFile), lastBlockHeader.getHash(), blockHeight)) {
+            for (final BlockHeader blockHeader : blockHeaders) {
+                utxoSnapshotWriter.writeBlockHeader(blockHeader);
+            }
+
+            for (final SortableUtxoSnapshotEntry sortableUtxoSnapshotEntry : sortableUtxoSnapshotEntries) {
+                utxoSnapshotWriter.write(sortableUtxoSnapshotEntry.utxoSnapshotEntry);
+            }
+        }
+
+        if (! partialFile.renameTo(checkpointFile)) {
+            throw new IOException("Unable to move " + partialFile.getPath() + " to " + checkpointFile.getPath() + ".");
+        }
+    }
+
+    /**
+     * Returns the next (up to) blockCount Blocks on the Blockchain, starting at firstBlockHeight.
+     *  The Blocks' data is loaded in parallel on the loaderThreadPool.
+     */
+    protected BlockWindow _loadBlockWindow(final FullNodeDatabaseManagerFactory databaseManagerFactory, final BlockHeaderDatabaseManager blockHeaderDatabaseManager, final BlockchainSegmentId blockchainSegmentId, final Long firstBlockHeight, final Long maxBlockHeight, final Integer blockCount, final MainThreadPool loaderThreadPool) throws DatabaseException {
+        final BlockWindow blockWindow = new BlockWindow();
+
+        final long lastBlockHeight = Math.min(maxBlockHeight, (firstBlockHeight + blockCount - 1L));
+        for (long blockHeight = firstBlockHeight; blockHeight <= lastBlockHeight; ++blockHeight) {
+            final BlockId blockId = blockHeaderDatabaseManager.getBlockIdAtHeight(blockchainSegmentId, blockHeight);
+            if (blockId == null) { break; }
+
+            final Sha256Hash blockHash = blockHeaderDatabaseManager.getBlockHash(blockId);
+            blockWindow.pendingBlocks.add(new PendingBlock(blockId, blockHash, blockHeight));
+        }
+
+        if (blockWindow.pendingBlocks.isEmpty()) {
+            blockWindow.loadPin.release();
+            return blockWindow;
+        }
+
+        final Integer threadCount = Runtime.getRuntime().availableProcessors();
+        loaderThreadPool.execute(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    final BatchRunner<PendingBlock> batchRunner = new BatchRunner<PendingBlock>(1, true, threadCount);
+                    batchRunner.run(blockWindow.pendingBlocks, new BatchRunner.Batch<PendingBlock>() {
+                        @Override
+                        public void run(final List<PendingBlock> pendingBlocks) throws Exception {
+                            for (final PendingBlock pendingBlock : pendingBlocks) {
+                                Block block = _blockStore.getBlock(pendingBlock.blockHash, pendingBlock.blockHeight);
+                                if (block == null) {
+                                    try (final FullNodeDatabaseManager databaseManager = databaseManagerFactory.newDatabaseManager()) {
+                                        final FullNodeBlockDatabaseManager blockDatabaseManager = databaseManager.getBlockDatabaseManager();
+                                        block = blockDatabaseManager.getBlock(pendingBlock.blockId);
+                                    }
+                                }
+
+                                if (block == null) {
+                                    throw new DatabaseException("Unable to load Block: " + pendingBlock.blockHash);
+                                }
+                                pendingBlock.block = block;
+                            }
+                        }
+                    });
+                }
+                catch (final Exception exception) {
+                    blockWindow.loadException = exception;
+                }
+                finally {
+                    blockWindow.loadPin.release();
+                }
+            }
+        });
+
+        return blockWindow;
+    }
+
+    /**
+     * Applies the Block to the UTXO view and captures the outputs the Block spends.
+     *  Outputs are added before inputs are removed since, with canonical transaction ordering, a Transaction may spend the output of a
+     *  Transaction that appears after it within the same Block.  Outputs missing from the view are left for the BlockValidator to reject.
+     */
+    protected void _applyBlock(final HashMap<TransactionOutputIdentifier, UtxoSnapshotEntry> unspentTransactionOutputs, final PendingBlock pendingBlock) {
+        final List<Transaction> transactions = pendingBlock.block.getTransactions();
+
+        boolean isCoinbase = true;
+        for (final Transaction transaction : transactions) {
+            final Sha256Hash transactionHash = transaction.getHash();
+            final List<TransactionOutput> transactionOutputs = transaction.getTransactionOutputs();
+            for (int outputIndex = 0; outputIndex < transactionOutputs.getCount(); ++outputIndex) {
+                final TransactionOutputIdentifier transactionOutputIdentifier = new TransactionOutputIdentifier(transactionHash, outputIndex);
+                final TransactionOutput transactionOutput = transactionOutputs.get(outputIndex);
+                unspentTransactionOutputs.put(transactionOutputIdentifier, new UtxoSnapshotEntry(transactionOutputIdentifier, pendingBlock.blockHeight, isCoinbase, transactionOutput));
+            }
+            isCoinbase = false;
+        }
+
+        final HashMap<TransactionOutputIdentifier, UtxoSnapshotEntry> spentTransactionOutputs = new HashMap<TransactionOutputIdentifier, UtxoSnapshotEntry>();
+        isCoinbase = true;
+        for (final Transaction transaction : transactions) {
+            if (isCoinbase) {
+                isCoinbase = false;
+                continue;
+            }
+
+            for (final TransactionInput transactionInput : transaction.getTransactionInputs()) {
+                final TransactionOutputIdentifier transactionOutputIdentifier = TransactionOutputIdentifier.fromTransactionInput(transactionInput);
+                final UtxoSnapshotEntry utxoSnapshotEntry = unspentTransactionOutputs.remove(transactionOutputIdentifier);
+                if (utxoSnapshotEntry != null) {
+                    spentTransactionOutputs.put(transactionOutputIdentifier, utxoSnapshotEntry);
+                }
+            }
+        }
+
+        pendingBlock.spentTransactionOutputs = new SpentTransactionOutputs(spentTransactionOutputs);
+    }
+
+    /**
+     * Validates the applied Blocks of the BlockWindow in parallel.
+     *  Returns the lowest invalid PendingBlock, or null if every Block is valid.
+     */
+    protected PendingBlock _validateBlockWindow(final BlockWindow blockWindow, final FullNodeDatabaseManagerFactory databaseManagerFactory, final BlockchainSegmentId blockchainSegmentId, final VolatileNetworkTime networkTime) throws DatabaseException {
+        final TransactionInflaters transactionInflaters = new CoreInflater();
+        final TransactionValidatorFactory transactionValidatorFactory = new TransactionValidatorFactory() {
+            @Override
+            public TransactionValidator getTransactionValidator(final BlockOutputs blockOutputs, final TransactionValidator.Context transactionValidatorContext) {
+                return new TransactionValidatorCore(blockOutputs, transactionValidatorContext);
+            }
+        };
+
+        final Integer threadCount = Runtime.getRuntime().availableProcessors();
+        final BatchRunner<PendingBlock> batchRunner = new BatchRunner<PendingBlock>(1, true, threadCount);
+        batchRunner.run(blockWindow.pendingBlocks, new BatchRunner.Batch<PendingBlock>() {
+            @Override
+            public void run(final List<PendingBlock> pendingBlocks) throws Exception {
+                try (final FullNodeDatabaseManager databaseManager = databaseManagerFactory.newDatabaseManager()) {
+                    for (final PendingBlock pendingBlock : pendingBlocks) {
+                        final LazyBlockValidatorContext blockValidatorContext = new LazyBlockValidatorContext(transactionInflaters, blockchainSegmentId, pendingBlock.spentTransactionOutputs, transactionValidatorFactory, databaseManager, networkTime);
+                        final BlockValidator blockValidator = new BlockValidator(blockValidatorContext);
+                        blockValidator.setMaxThreadCount(1); // Blocks are validated concurrently instead...
+                        blockValidator.setTrustedBlockHeight(BlockValidator.DO_NOT_TRUST_BLOCKS);
+
+                        pendingBlock.blockValidationResult = blockValidator.validateBlock(pendingBlock.block, pendingBlock.blockHeight);
+                    }
+                }
+            }
+        });
+
+        for (final PendingBlock pendingBlock : blockWindow.pendingBlocks) {
+            if (! pendingBlock.blockValidationResult.isValid) {
+                return pendingBlock;
+            }
+        }
+        return null;
+    }
+
     public ChainValidationModule(final BitcoinProperties bitcoinProperties, final Environment environment, final String startingBlockHash) {
         _bitcoinProperties = bitcoinProperties;
         _environment = environment;
@@ -220,4 +570,129 @@ public class ChainValidationModule {
 
         System.exit(0);
     }
+
+    /**
+     * Revalidates the head Blockchain from the genesis Block (or from the last checkpoint) against a UTXO view that is built in-memory by
+     *  applying each Block in order.  Block reads, Block application, and Block validation are pipelined: while one window of Blocks is
+     *  validated in parallel, the next window is loaded.  The UTXO view is checkpointed every CHECKPOINT_BLOCK_INTERVAL Blocks so that an
+     *  interrupted run resumes from the last checkpoint; the checkpoint is deleted once the head Block has been validated.
+     *  The entire UTXO set is held in memory (and is sorted in memory while checkpointing), so the JVM's max heap must be sized to
+     *  the size of the UTXO set at the head Block; the UTXO count is logged with each checkpoint to help size subsequent runs.
+     *  Returns true if every Block was valid, or false if an invalid Block was found; the checkpoint is retained if an invalid Block was found.
+     */
+    protected Boolean _validateParallel(final FullNodeDatabaseManagerFactory databaseManagerFactory) throws DatabaseException {
+        final SystemTime systemTime = new SystemTime();
+        final VolatileNetworkTime networkTime = NetworkTime.fromSystemTime(systemTime);
+
+        final Integer blockWindowSize = Math.max(8, (Runtime.getRuntime().availableProcessors() * 2));
+        final MainThreadPool loaderThreadPool = new MainThreadPool(1, 0L);
+
+        final HashMap<TransactionOutputIdentifier, UtxoSnapshotEntry> unspentTransactionOutputs = new HashMap<TransactionOutputIdentifier, UtxoSnapshotEntry>();
+        final MutableList<BlockHeader> blockHeaders = new MutableList<BlockHeader>();
+
+        Long lastValidatedBlockHeight = 0L;
+        try (final FullNodeDatabaseManager databaseManager = databaseManagerFactory.newDatabaseManager()) {
+            final BlockchainDatabaseManager blockchainDatabaseManager = databaseManager.getBlockchainDatabaseManager();
+            final BlockHeaderDatabaseManager blockHeaderDatabaseManager = databaseManager.getBlockHeaderDatabaseManager();
+            final FullNodeBlockDatabaseManager blockDatabaseManager = databaseManager.getBlockDatabaseManager();
+
+            final BlockchainSegmentId blockchainSegmentId = blockchainDatabaseManager.getHeadBlockchainSegmentId();
+            final BlockId headBlockId = blockDatabaseManager.getHeadBlockId();
+            final Long maxBlockHeight = blockHeaderDatabaseManager.getBlockHeight(headBlockId);
+
+            { // Load the checkpoint, or start from the genesis Block, whose outputs are not spendable...
+                final Long checkpointBlockHeight = _loadCheckpoint(unspentTransactionOutputs, blockHeaders, blockHeaderDatabaseManager, blockchainSegmentId);
+                if (checkpointBlockHeight != null) {
+                    lastValidatedBlockHeight = checkpointBlockHeight;
+                }
+                else {
+                    final BlockId genesisBlockId = blockHeaderDatabaseManager.getBlockIdAtHeight(blockchainSegmentId, 0L);
+                    blockHeaders.add(blockHeaderDatabaseManager.getBlockHeader(genesisBlockId));
+                }
+            }
+            Long lastCheckpointBlockHeight = lastValidatedBlockHeight;
+
+            long validatedTransactionCount = 0L;
+            long validatedBlockCount = 0L;
+            final Long startTime = System.currentTimeMillis();
+
+            BlockWindow blockWindow = _loadBlockWindow(databaseManagerFactory, blockHeaderDatabaseManager, blockchainSegmentId, (lastValidatedBlockHeight + 1L), maxBlockHeight, blockWindowSize, loaderThreadPool);
+            while (! blockWindow.pendingBlocks.isEmpty()) {
+                blockWindow.loadPin.waitForRelease();
+                if (blockWindow.loadException != null) {
+                    throw new DatabaseException(blockWindow.loadException);
+                }
+
+                for (final PendingBlock pendingBlock : blockWindow.pendingBlocks) {
+                    _applyBlock(unspentTransactionOutputs, pendingBlock);
+                    blockHeaders.add(new ImmutableBlockHeader(pendingBlock.block));
+                }
+
+                final PendingBlock lastPendingBlock = blockWindow.pendingBlocks.get(blockWindow.pendingBlocks.getCount() - 1);
+                final BlockWindow nextBlockWindow = _loadBlockWindow(databaseManagerFactory, blockHeaderDatabaseManager, blockchainSegmentId, (lastPendingBlock.blockHeight + 1L), maxBlockHeight, blockWindowSize, loaderThreadPool);
+
+                final PendingBlock invalidPendingBlock = _validateBlockWindow(blockWindow, databaseManagerFactory, blockchainSegmentId, networkTime);
+                if (invalidPendingBlock != null) {
+                    Logger.error("Invalid block found: " + invalidPendingBlock.blockHash + " (" + invalidPendingBlock.blockValidationResult.errorMessage + ")");
+                    nextBlockWindow.loadPin.waitForRelease();
+                    return false;
+                }
+
+                for (final PendingBlock pendingBlock : blockWindow.pendingBlocks) {
+                    validatedTransactionCount += pendingBlock.block.getTransactionCount();
+                }
+                validatedBlockCount += blockWindow.pendingBlocks.getCount();
+                lastValidatedBlockHeight = lastPendingBlock.blockHeight;
+
+                { // Log the progress...
+                    final long secondsElapsed = ((System.currentTimeMillis() - startTime) / 1000L);
+                    final float blocksPerSecond = (validatedBlockCount / (secondsElapsed + 1F));
+                    final float transactionsPerSecond = (validatedTransactionCount / (secondsElapsed + 1F));
+                    final int percentComplete = (int) ((lastValidatedBlockHeight * 100) / maxBlockHeight.floatValue());
+                    Logger.info(percentComplete + "% complete. " + lastValidatedBlockHeight + " of " + maxBlockHeight + " - " + lastPendingBlock.blockHash + " (" + String.format("%.2f", blocksPerSecond) + " bps) (" + String.format("%.2f", transactionsPerSecond) + " tps) (" + StringUtil.formatNumberString(secondsElapsed) + " seconds)");
+                }
+
+                if ( (lastValidatedBlockHeight - lastCheckpointBlockHeight) >= CHECKPOINT_BLOCK_INTERVAL ) {
+                    final MilliTimer checkpointTimer = new MilliTimer();
+                    checkpointTimer.start();
+                    _writeCheckpoint(unspentTransactionOutputs, blockHeaders);
+                    checkpointTimer.stop();
+
+                    lastCheckpointBlockHeight = lastValidatedBlockHeight;
+                    Logger.info("Wrote validation checkpoint at height " + lastValidatedBlockHeight + " with " + unspentTransactionOutputs.size() + " UTXOs in " + checkpointTimer.getMillisecondsElapsed() + "ms.");
+                }
+
+                blockWindow = nextBlockWindow;
+            }
+        }
+        catch (final Exception exception) {
+            Logger.error("Last validated block height: " + lastValidatedBlockHeight);
+            throw new DatabaseException(exception);
+        }
+        finally {
+            loaderThreadPool.stop();
+        }
+
+        _deleteCheckpoint();
+        return true;
+    }
+
+    /**
+     * Revalidates the head Blockchain in parallel; see ChainValidationModule::_validateParallel.
+     */
+    public void runParallel() {
+        final FullNodeDatabaseManagerFactory databaseManagerFactory = _newDatabaseManagerFactory();
+        try {
+            final Boolean isValid = _validateParallel(databaseManagerFactory);
+            if (! isValid) {
+                BitcoinUtil.exitFailure();
+            }
+        }
+        catch (final DatabaseException exception) {
+            Logger.error(exception);
+            BitcoinUtil.exitFailure();
+        }
+
+        System.exit(0);
+    }
 }
@@ -0,0 +1,367 @@
+package com.softwareverde.bitcoin.server.module;
+
+import com.softwareverde.bitcoin.CoreInflater;
+import com.softwareverde.bitcoin.block.BlockId;
+import com.softwareverde.bitcoin.block.header.BlockHeader;
+import com.softwareverde.bitcoin.chain.segment.BlockchainSegmentId;
+import com.softwareverde.bitcoin.inflater.BlockHeaderInflaters;
+import com.softwareverde.bitcoin.inflater.BlockInflaters;
+import com.softwareverde.bitcoin.inflater.MasterInflater;
+import com.softwareverde.bitcoin.server.Environment;
+import com.softwareverde.bitcoin.server.configuration.BitcoinProperties;
+import com.softwareverde.bitcoin.server.configuration.CheckpointConfiguration;
+import com.softwareverde.bitcoin.server.database.Database;
+import com.softwareverde.bitcoin.server.database.DatabaseConnection;
+import com.softwareverde.bitcoin.server.database.DatabaseConnectionFactory;
+import com.softwareverde.bitcoin.server.module.node.database.block.fullnode.FullNodeBlockDatabaseManager;
+import com.softwareverde.bitcoin.server.module.node.database.block.header.BlockHeaderDatabaseManager;
+import com.softwareverde.bitcoin.server.module.node.database.blockchain.BlockchainDatabaseManager;
+import com.softwareverde.bitcoin.server.module.node.database.fullnode.FullNodeDatabaseManager;
+import com.softwareverde.bitcoin.server.module.node.database.fullnode.FullNodeDatabaseManagerFactory;
+import com.softwareverde.bitcoin.server.module.node.database.transaction.fullnode.utxo.UnspentTransactionOutputDatabaseManager;
+import com.softwareverde.bitcoin.server.module.node.database.transaction.fullnode.utxo.UtxoSnapshotDatabaseManager;
+import com.softwareverde.bitcoin.server.module.node.database.transaction.fullnode.utxo.snapshot.UtxoSnapshotEntry;
+import com.softwareverde.bitcoin.server.module.node.database.transaction.fullnode.utxo.snapshot.UtxoSnapshotReader;
+import com.softwareverde.bitcoin.server.module.node.database.transaction.fullnode.utxo.snapshot.UtxoSnapshotWriter;
+import com.softwareverde.bitcoin.server.module.node.store.PendingBlockStore;
+import com.softwareverde.bitcoin.server.module.node.store.PendingBlockStoreCore;
+import com.softwareverde.bitcoin.transaction.output.identifier.TransactionOutputIdentifier;
+import com.softwareverde.bitcoin.util.BitcoinUtil;
+import com.softwareverde.constable.list.List;
+import com.softwareverde.constable.list.mutable.MutableList;
+import com.softwareverde.cryptography.hash.sha256.Sha256Hash;
+import com.softwareverde.database.DatabaseException;
+import com.softwareverde.database.util.TransactionUtil;
+import com.softwareverde.logging.Logger;
+import com.softwareverde.util.Util;
+import com.softwareverde.util.timer.MilliTimer;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+/**
+ * Exports the committed UTXO set to a snapshot file, or bootstraps an empty node from a snapshot file.
+ *  Exporting reads only the committed UTXO set, so the node must be shut down (which commits its UTXO set) beforehand.
+ *  Importing trusts the snapshot's UTXOs; only the BlockHeaders' proof-of-work/linkage and the file's checksum are validated.
+ */
+public class UtxoSnapshotModule {
+    protected static final Integer EXPORT_BATCH_SIZE = 4096;
+    protected static final Integer IMPORT_BATCH_SIZE = 1024;
+    protected static final Integer BLOCK_HEADER_BATCH_SIZE = 4096;
+    protected static final Integer IMPORT_COMMIT_BATCH_COUNT = 64;
+
+    protected final BitcoinProperties _bitcoinProperties;
+    protected final Environment _environment;
+    protected final PendingBlockStore _blockStore;
+    protected final CheckpointConfiguration _checkpointConfiguration;
+    protected final MasterInflater _masterInflater;
+
+    protected FullNodeDatabaseManagerFactory _newDatabaseManagerFactory() {
+        final Database database = _environment.getDatabase();
+        final DatabaseConnectionFactory databaseConnectionFactory = _environment.getDatabaseConnectionFactory();
+        return new FullNodeDatabaseManagerFactory(databaseConnectionFactory, database.getMaxQueryBatchSize(), _blockStore, _masterInflater, _checkpointConfiguration);
+    }
+
+    protected void _storeBlockHeaders(final FullNodeDatabaseManager databaseManager, final List<BlockHeader> blockHeaders) throws DatabaseException {
+        final DatabaseConnection databaseConnection = databaseManager.getDatabaseConnection();
+        final BlockHeaderDatabaseManager blockHeaderDatabaseManager = databaseManager.getBlockHeaderDatabaseManager();
+
+        final MutableList<BlockHeader> newBlockHeaders = new MutableList<BlockHeader>(blockHeaders.getCount());
+        for (final BlockHeader blockHeader : blockHeaders) {
+            final BlockId blockId = blockHeaderDatabaseManager.getBlockHeaderId(blockHeader.getHash());
+            if (blockId == null) {
+                newBlockHeaders.add(blockHeader);
+            }
+        }
+        if (newBlockHeaders.isEmpty()) { return; }
+
+        TransactionUtil.startTransaction(databaseConnection);
+        final List<BlockId> blockIds = blockHeaderDatabaseManager.insertBlockHeaders(newBlockHeaders);
+        TransactionUtil.commitTransaction(databaseConnection);
+
+        if ( (blockIds == null) || (blockIds.getCount() != newBlockHeaders.getCount()) ) {
+            throw new DatabaseException("Unable to store UTXO snapshot BlockHeaders.");
+        }
+    }
+
+    /**
+     * Stores and validates every BlockHeader within the snapshot, returning the hash of the last BlockHeader.
+     */
+    protected Sha256Hash _importBlockHeaders(final FullNodeDatabaseManager databaseManager, final UtxoSnapshotReader utxoSnapshotReader) throws IOException, DatabaseException {
+        final MutableList<BlockHeader> batchedBlockHeaders = new MutableList<BlockHeader>(BLOCK_HEADER_BATCH_SIZE);
+
+        Sha256Hash previousBlockHash = null;
+        synchronized (BlockHeaderDatabaseManager.MUTEX) {
+            while (true) {
+                final BlockHeader blockHeader = utxoSnapshotReader.readBlockHeader();
+                if (blockHeader == null) { break; }
+
+                final Sha256Hash blockHash = blockHeader.getHash();
+                if (previousBlockHash == null) {
+                    if (! Util.areEqual(BlockHeader.GENESIS_BLOCK_HASH, blockHash)) {
+                        throw new IOException("UTXO snapshot does not begin with the genesis Block: " + blockHash);
+                    }
+                }
+                else {
+                    if (! Util.areEqual(previousBlockHash, blockHeader.getPreviousBlockHash())) {
+                        throw new IOException("UTXO snapshot BlockHeader does not extend its predecessor: " + blockHash);
+                    }
+                    if (! blockHeader.isValid()) {
+                        throw new IOException("Invalid UTXO snapshot BlockHeader: " + blockHash);
+                    }
+                }
+
+                batchedBlockHeaders.add(blockHeader);
+                if (batchedBlockHeaders.getCount() >= BLOCK_HEADER_BATCH_SIZE) {
+                    _storeBlockHeaders(databaseManager, batchedBlockHeaders);
+                    batchedBlockHeaders.clear();
+                }
+
+                previousBlockHash = blockHash;
+            }
+
+            if (! batchedBlockHeaders.isEmpty()) {
+                _storeBlockHeaders(databaseManager, batchedBlockHeaders);
+                batchedBlockHeaders.clear();
+            }
+        }
+
+        return previousBlockHash;
+    }
+
+    public UtxoSnapshotModule(final BitcoinProperties bitcoinProperties, final Environment environment) {
+        _bitcoinProperties = bitcoinProperties;
+        _environment = environment;
+        _masterInflater = new CoreInflater();
+
+        { // Initialize the BlockCache...
+            final String blockCacheDirectory = (bitcoinProperties.getDataDirectory() + "/" + BitcoinProperties.DATA_DIRECTORY_NAME + "/blocks");
+            final String pendingBlockCacheDirectory = (bitcoinProperties.getDataDirectory() + "/" + BitcoinProperties.DATA_DIRECTORY_NAME + "/pending-blocks");
+
+            final BlockHeaderInflaters blockHeaderInflaters = _masterInflater;
+            final BlockInflaters blockInflaters = _masterInflater;
+            _blockStore = new PendingBlockStoreCore(blockCacheDirectory, pendingBlockCacheDirectory, blockHeaderInflaters, blockInflaters) {
+                @Override
+                protected void _deletePendingBlockData(final String blockPath) {
+                    if (bitcoinProperties.isDeletePendingBlocksEnabled()) {
+                        super._deletePendingBlockData(blockPath);
+                    }
+                }
+            };
+        }
+
+        _checkpointConfiguration = new CheckpointConfiguration();
+    }
+
+    /**
+     * Writes the committed UTXO set to the provided file.
+     *  If expectedBlockHash is provided, the export fails unless the committed UTXO set is at that Block.
+     */
+    public Boolean exportSnapshot(final String filename, final String expectedBlockHash) {
+        final File file = new File(filename);
+        final File partialFile = new File(filename + ".partial");
+
+        final FullNodeDatabaseManagerFactory databaseManagerFactory = _newDatabaseManagerFactory();
+        try (final FullNodeDatabaseManager databaseManager = databaseManagerFactory.newDatabaseManager()) {
+            final BlockchainDatabaseManager blockchainDatabaseManager = databaseManager.getBlockchainDatabaseManager();
+            final BlockHeaderDatabaseManager blockHeaderDatabaseManager = databaseManager.getBlockHeaderDatabaseManager();
+            final UnspentTransactionOutputDatabaseManager unspentTransactionOutputDatabaseManager = databaseManager.getUnspentTransactionOutputDatabaseManager();
+            final UtxoSnapshotDatabaseManager utxoSnapshotDatabaseManager = databaseManager.getUtxoSnapshotDatabaseManager();
+
+            if (utxoSnapshotDatabaseManager.isCommitIncomplete()) {
+                Logger.error("The committed UTXO set is incomplete; restart and cleanly shut down the node before exporting.");
+                return false;
+            }
+
+            final Long blockHeight = unspentTransactionOutputDatabaseManager.getCommittedUnspentTransactionOutputBlockHeight();
+            if (blockHeight < 1L) {
+                Logger.error("The UTXO set has not been committed; run and cleanly shut down the node before exporting.");
+                return false;
+            }
+
+            final BlockchainSegmentId blockchainSegmentId = blockchainDatabaseManager.getHeadBlockchainSegmentId();
+            final BlockId blockId = blockHeaderDatabaseManager.getBlockIdAtHeight(blockchainSegmentId, blockHeight);
+            if (blockId == null) {
+                Logger.error("Unable to find the committed UTXO set's Block at height " + blockHeight + ".");
+                return false;
+            }
+
+            final Sha256Hash blockHash = blockHeaderDatabaseManager.getBlockHash(blockId);
+            final Sha256Hash requiredBlockHash = Sha256Hash.fromHexString(expectedBlockHash);
+            if ( (requiredBlockHash != null) && (! Util.areEqual(requiredBlockHash, blockHash)) ) {
+                Logger.error("The committed UTXO set is at " + blockHash + " (height " + blockHeight + "), not " + requiredBlockHash + ".");
+                return false;
+            }
+
+            Logger.info("Exporting UTXO snapshot at " + blockHash + " (height " + blockHeight + ") to " + file.getPath() + ".");
+            final MilliTimer exportTimer = new MilliTimer();
+            exportTimer.start();
+
+            final Long entryCount;
+            try (final UtxoSnapshotWriter utxoSnapshotWriter = new UtxoSnapshotWriter(new FileOutputStream(partialFile), blockHash, blockHeight)) {
+                for (long height = 0L; height <= blockHeight; ++height) {
+                    final BlockId headerBlockId = blockHeaderDatabaseManager.getBlockIdAtHeight(blockchainSegmentId, height);
+                    final BlockHeader blockHeader = (headerBlockId != null ? blockHeaderDatabaseManager.getBlockHeader(headerBlockId) : null);
+                    if (blockHeader == null) {
+                        throw new DatabaseException("Unable to load BlockHeader at height " + height + ".");
+                    }
+                    utxoSnapshotWriter.writeBlockHeader(blockHeader);
+                }
+
+                TransactionOutputIdentifier previousTransactionOutputIdentifier = null;
+                while (true) {
+                    final List<UtxoSnapshotEntry> utxoSnapshotEntries = utxoSnapshotDatabaseManager.getCommittedUnspentTransactionOutputs(previousTransactionOutputIdentifier, EXPORT_BATCH_SIZE);
+                    if (utxoSnapshotEntries.isEmpty()) { break; }
+
+                    for (final UtxoSnapshotEntry utxoSnapshotEntry : utxoSnapshotEntries) {
+                        utxoSnapshotWriter.write(utxoSnapshotEntry);
+                        previousTransactionOutputIdentifier = utxoSnapshotEntry.getTransactionOutputIdentifier();
+                    }
+
+                    Logger.debug("Exported " + utxoSnapshotWriter.getEntryCount() + " UTXOs.");
+                }
+
+                entryCount = utxoSnapshotWriter.getEntryCount();
+            }
+
+            if (! partialFile.renameTo(file)) {
+                Logger.error("Unable to move " + partialFile.getPath() + " to " + file.getPath() + ".");
+                return false;
+            }
+
+            exportTimer.stop();
+            Logger.info("Exported " + entryCount + " UTXOs in " + exportTimer.getMillisecondsElapsed() + "ms.");
+            return true;
+        }
+        catch (final Exception exception) {
+            Logger.error("Unable to export UTXO snapshot.", exception);
+            partialFile.delete();
+            return false;
+        }
+    }
+
+    /**
+     * Loads the BlockHeaders and UTXOs from the provided snapshot into an empty node.
+     *  The node then synchronizes the Blocks after the snapshot's Block as usual.
+     */
+    public Boolean importSnapshot(final String filename) {
+        final File file = new File(filename);
+
+        try (final UtxoSnapshotReader utxoSnapshotReader = new UtxoSnapshotReader(new FileInputStream(file))) {
+            // Verify the entire snapshot before modifying the database...
+            Logger.info("Verifying UTXO snapshot " + file.getPath() + ".");
+            while (utxoSnapshotReader.readEntry() != null) { }
+        }
+        catch (final Exception exception) {
+            Logger.error("Invalid UTXO snapshot: " + file.getPath(), exception);
+            return false;
+        }
+
+        final FullNodeDatabaseManagerFactory databaseManagerFactory = _newDatabaseManagerFactory();
+        try (final FullNodeDatabaseManager databaseManager = databaseManagerFactory.newDatabaseManager()) {
+            final DatabaseConnection databaseConnection = databaseManager.getDatabaseConnection();
+            final BlockHeaderDatabaseManager blockHeaderDatabaseManager = databaseManager.getBlockHeaderDatabaseManager();
+            final FullNodeBlockDatabaseManager blockDatabaseManager = databaseManager.getBlockDatabaseManager();
+            final UtxoSnapshotDatabaseManager utxoSnapshotDatabaseManager = databaseManager.getUtxoSnapshotDatabaseManager();
+
+            if (utxoSnapshotDatabaseManager.hasSnapshot()) {
+                Logger.error("A UTXO snapshot has already been imported.");
+                return false;
+            }
+
+            final BlockId headBlockId = blockDatabaseManager.getHeadBlockId();
+            final Long headBlockHeight = (headBlockId != null ? blockHeaderDatabaseManager.getBlockHeight(headBlockId) : 0L);
+            if (headBlockHeight > 0L) {
+                Logger.error("A UTXO snapshot may only be imported into an empty node; the node has already synchronized to height " + headBlockHeight + ".");
+                return false;
+            }
+
+            try (final UtxoSnapshotReader utxoSnapshotReader = new UtxoSnapshotReader(new FileInputStream(file))) {
+                final Sha256Hash blockHash = utxoSnapshotReader.getBlockHash();
+                final Long blockHeight = utxoSnapshotReader.getBlockHeight();
+                Logger.info("Importing UTXO snapshot at " + blockHash + " (height " + blockHeight + ").");
+
+                final MilliTimer importTimer = new MilliTimer();
+                importTimer.start();
+
+                final Sha256Hash lastBlockHash = _importBlockHeaders(databaseManager, utxoSnapshotReader);
+                if (! Util.areEqual(blockHash, lastBlockHash)) {
+                    Logger.error("UTXO snapshot BlockHeaders do not end with the snapshot's Block: " + lastBlockHash);
+                    return false;
+                }
+
+                final BlockId blockId = blockHeaderDatabaseManager.getBlockHeaderId(blockHash);
+                if (blockId == null) {
+                    Logger.error("Unable to find the snapshot's Block: " + blockHash);
+                    return false;
+                }
+                Logger.info("Imported " + (blockHeight + 1L) + " BlockHeaders.");
+
+                TransactionUtil.startTransaction(databaseConnection);
+                utxoSnapshotDatabaseManager.clearSnapshot();
+                utxoSnapshotDatabaseManager.clearCommittedUnspentTransactionOutputs();
+                TransactionUtil.commitTransaction(databaseConnection);
+
+                final MutableList<UtxoSnapshotEntry> batchedEntries = new MutableList<UtxoSnapshotEntry>(IMPORT_BATCH_SIZE);
+                int uncommittedBatchCount = 0;
+                TransactionUtil.startTransaction(databaseConnection);
+                while (true) {
+                    final UtxoSnapshotEntry utxoSnapshotEntry = utxoSnapshotReader.readEntry();
+                    if (utxoSnapshotEntry != null) {
+                        batchedEntries.add(utxoSnapshotEntry);
+                    }
+
+                    final boolean isComplete = (utxoSnapshotEntry == null);
+                    if ( (batchedEntries.getCount() >= IMPORT_BATCH_SIZE) || (isComplete) ) {
+                        utxoSnapshotDatabaseManager.storeSnapshotEntries(batchedEntries);
+                        batchedEntries.clear();
+                        uncommittedBatchCount += 1;
+                    }
+
+                    if ( (uncommittedBatchCount >= IMPORT_COMMIT_BATCH_COUNT) || (isComplete) ) {
+                        TransactionUtil.commitTransaction(databaseConnection);
+                        uncommittedBatchCount = 0;
+                        Logger.debug("Imported " + utxoSnapshotReader.getEntryCount() + " UTXOs.");
+
+                        if (isComplete) { break; }
+                        TransactionUtil.startTransaction(databaseConnection);
+                    }
+                }
+
+                // The snapshot is only considered imported once its Block height is set, so an interrupted import may be rerun...
+                TransactionUtil.startTransaction(databaseConnection);
+                utxoSnapshotDatabaseManager.markSnapshotBlock(blockId);
+                utxoSnapshotDatabaseManager.setSnapshotBlockHeight(blockHeight);
+                TransactionUtil.commitTransaction(databaseConnection);
+
+                importTimer.stop();
+                Logger.info("Imported " + utxoSnapshotReader.getEntryCount() + " UTXOs in " + importTimer.getMillisecondsElapsed() + "ms.");
+                return true;
+            }
+        }
+        catch (final Exception exception) {
+            Logger.error("Unable to import UTXO snapshot.", exception);
+            return false;
+        }
+    }
+
+    public void run(final String action, final String filename, final String blockHash) {
+        final Boolean wasSuccessful;
+        if (Util.areEqual("EXPORT", action.toUpperCase())) {
+            wasSuccessful = this.exportSnapshot(filename, blockHash);
+        }
+        else if (Util.areEqual("IMPORT", action.toUpperCase())) {
+            wasSuccessful = this.importSnapshot(filename);
+        }
+        else {
+            Logger.error("Unknown UTXO snapshot action: " + action);
+            wasSuccessful = false;
+        }
+
+        if (! wasSuccessful) {
+            BitcoinUtil.exitFailure();
+        }
+    }
+}
@@ -15,6 +15,7 @@ import com.softwareverde.bitcoin.context.SynchronizationStatusContext;
 import com.softwareverde.bitcoin.context.TransactionValidatorFactory;
 import com.softwareverde.bitcoin.context.UnspentTransactionOutputContext;
 import com.softwareverde.bitcoin.context.core.BlockHeaderValidatorContext;
+import com.softwareverde.bitcoin.context.core.BlockHeaderWindow;
 import com.softwareverde.bitcoin.context.core.MutableUnspentTransactionOutputSet;
 import com.softwareverde.bitcoin.context.core.TransactionValidatorContext;
 import com.softwareverde.bitcoin.context.lazy.CachingMedianBlockTimeContext;
@@ -24,6 +25,7 @@ import com.softwareverde.bitcoin.inflater.TransactionInflaters;
 import com.softwareverde.bitcoin.server.SynchronizationStatus;
 import com.softwareverde.bitcoin.server.database.DatabaseConnection;
 import com.softwareverde.bitcoin.server.database.DatabaseConnectionFactory;
+import com.softwareverde.bitcoin.server.metrics.Metrics;
 import com.softwareverde.bitcoin.server.module.node.database.DatabaseManagerFactory;
 import com.softwareverde.bitcoin.server.module.node.database.block.BlockDatabaseManager;
 import com.softwareverde.bitcoin.server.module.node.database.block.BlockRelationship;
@@ -90,6 +92,8 @@ public class BlockProcessor {
     protected final RotatingQueue<Long> _blocksPerSecond = new RotatingQueue<Long>(100);
     protected final RotatingQueue<Integer> _transactionsPerBlock = new RotatingQueue<Integer>(100);
     protected final Container<Float> _averageTransactionsPerSecond = new Container<Float>(0F);
+    protected final BlockProcessorTimings _timings = new BlockProcessorTimings();
+    protected final BlockHeaderWindow _blockHeaderWindow = new BlockHeaderWindow(); // Only accessed while synchronized on BlockHeaderDatabaseManager.MUTEX...
 
     protected Long _utxoCommitFrequency = 2016L;
     protected Integer _maxThreadCount = 4;
@@ -182,7 +186,8 @@ public class BlockProcessor {
                 blockHeight = blockHeaderDatabaseManager.getBlockHeight(blockId);
 
                 final BlockchainSegmentId blockchainSegmentId = blockHeaderDatabaseManager.getBlockchainSegmentId(blockId);
-                final BlockHeaderValidatorContext blockHeaderValidatorContext = new BlockHeaderValidatorContext(blockchainSegmentId, databaseManager, networkTime);
+                _blockHeaderWindow.setHead(blockHeader.getPreviousBlockHash(), (blockHeight - 1L));
+                final BlockHeaderValidatorContext blockHeaderValidatorContext = new BlockHeaderValidatorContext(blockchainSegmentId, databaseManager, networkTime, _blockHeaderWindow);
                 final BlockHeaderValidator blockHeaderValidator = new BlockHeaderValidator(blockHeaderValidatorContext);
                 final BlockHeaderValidator.BlockHeaderValidationResult blockHeaderValidationResult = blockHeaderValidator.validateBlockHeader(blockHeader, blockHeight);
                 if (! blockHeaderValidationResult.isValid) {
@@ -192,6 +197,7 @@ public class BlockProcessor {
                 }
             }
             TransactionUtil.commitTransaction(databaseConnection);
+            _blockHeaderWindow.addBlockHeader(blockHeader, blockHeight);
             return new ProcessBlockHeaderResult(blockId, blockHeight, false);
         }
     }
@@ -336,8 +342,11 @@ public class BlockProcessor {
         final VolatileNetworkTime networkTime = _context.getNetworkTime();
 
         final NanoTimer processBlockTimer = new NanoTimer();
+        final NanoTimer processBlockHeaderTimer = new NanoTimer();
+        final NanoTimer loadUnspentTransactionOutputsTimer = new NanoTimer();
         final NanoTimer storeBlockTimer = new NanoTimer();
         final NanoTimer blockValidationTimer = new NanoTimer();
+        final NanoTimer commitTimer = new NanoTimer();
         processBlockTimer.start();
 
         final DatabaseConnection databaseConnection = databaseManager.getDatabaseConnection();
@@ -357,7 +366,9 @@ public class BlockProcessor {
         final BlockId blockId;
         final Long blockHeight;
         { // Process the BlockHeader.
+            processBlockHeaderTimer.start();
             final ProcessBlockHeaderResult blockHeaderResult = _processBlockHeader(block, databaseManager);
+            processBlockHeaderTimer.stop();
             if (blockHeaderResult == null ) { return ProcessBlockResult.invalid(block, null, "Unable to process block header."); }
 
             // if the full Block has already been processed then abort processing it...
@@ -386,6 +397,7 @@ public class BlockProcessor {
         {
             final UnspentTransactionOutputContext unspentTransactionOutputContext;
             {
+                loadUnspentTransactionOutputsTimer.start();
                 if ( blockIsConnectedToUtxoSet && (preLoadedUnspentTransactionOutputContext != null) ) {
                     unspentTransactionOutputContext = preLoadedUnspentTransactionOutputContext;
                     Logger.debug("Using preLoadedUnspentTransactionOutputs for blockHeight: " + blockHeight);
@@ -401,6 +413,7 @@ public class BlockProcessor {
                     unspentTransactionOutputContext = mutableUnspentTransactionOutputSet;
                     Logger.debug("Using liveLoadedUnspentTransactionOutputs for blockHeight: " + blockHeight);
                 }
+                loadUnspentTransactionOutputsTimer.stop();
             }
 
             final BlockValidationResult blockValidationResult;
@@ -479,6 +492,8 @@ public class BlockProcessor {
             }
         }
 
+        commitTimer.start();
+
         final Integer byteCount = block.getByteCount();
         blockHeaderDatabaseManager.setBlockByteCount(blockId, byteCount);
 
@@ -535,6 +550,9 @@ public class BlockProcessor {
         }
 
         TransactionUtil.commitTransaction(databaseConnection);
+        commitTimer.stop();
+
+        _timings._add(transactionCount, processBlockHeaderTimer.getMillisecondsElapsed(), loadUnspentTransactionOutputsTimer.getMillisecondsElapsed(), blockValidationTimer.getMillisecondsElapsed(), storeBlockTimer.getMillisecondsElapsed(), commitTimer.getMillisecondsElapsed());
 
         final float averageTransactionsPerSecond;
         synchronized (_statisticsMutex) {
@@ -565,6 +583,15 @@ public class BlockProcessor {
         _averageTransactionsPerSecond.value = averageTransactionsPerSecond;
 
         processBlockTimer.stop();
+
+        Metrics.PROCESSED_BLOCK_COUNT.increment();
+        Metrics.PROCESSED_BLOCK_TRANSACTION_COUNT.add(transactionCount);
+        Metrics.PROCESS_BLOCK_DURATION.observeMilliseconds(processBlockTimer.getMillisecondsElapsed());
+        Metrics.PROCESS_BLOCK_HEADER_DURATION.observeMilliseconds(processBlockHeaderTimer.getMillisecondsElapsed());
+        Metrics.LOAD_BLOCK_UNSPENT_TRANSACTION_OUTPUTS_DURATION.observeMilliseconds(loadUnspentTransactionOutputsTimer.getMillisecondsElapsed());
+        Metrics.STORE_BLOCK_DURATION.observeMilliseconds(storeBlockTimer.getMillisecondsElapsed());
+        Metrics.COMMIT_BLOCK_DURATION.observeMilliseconds(commitTimer.getMillisecondsElapsed());
+
         Logger.info("Processed Block with " + transactionCount + " transactions in " + (String.format("%.2f", processBlockTimer.getMillisecondsElapsed())) + "ms (" + String.format("%.2f", ((((double) transactionCount) / processBlockTimer.getMillisecondsElapsed()) * 1000)) + " tps). " + block.getHash());
         Logger.debug("Block Height: " + blockHeight);
         return ProcessBlockResult.valid(block, blockHeight, bestBlockchainHasChanged);
@@ -581,9 +608,15 @@ public class BlockProcessor {
         final FullNodeDatabaseManagerFactory databaseManagerFactory = _context.getDatabaseManagerFactory();
 
         try (final FullNodeDatabaseManager databaseManager = databaseManagerFactory.newDatabaseManager()) {
-            return _processBlock(block, preLoadedUnspentTransactionOutputContext, databaseManager);
+            final ProcessBlockResult processBlockResult = _processBlock(block, preLoadedUnspentTransactionOutputContext, databaseManager);
+            if (! processBlockResult.isValid) {
+                Metrics.INVALID_BLOCK_COUNT.increment();
+            }
+            return processBlockResult;
         }
         catch (final Exception exception) {
+            Metrics.INVALID_BLOCK_COUNT.increment();
+
             final Sha256Hash blockHash = block.getHash();
             Logger.info("Error validating Block: " + blockHash, exception);
             UnspentTransactionOutputManager.invalidateUncommittedUtxoSet(); // Mark the UTXO set as broken/invalid.
@@ -627,4 +660,11 @@ public class BlockProcessor {
     public Container<Float> getAverageTransactionsPerSecondContainer() {
         return _averageTransactionsPerSecond;
     }
+
+    /**
+     * Returns the cumulative time spent within each phase of processing the Blocks that were successfully processed by this BlockProcessor.
+     */
+    public BlockProcessorTimings getTimings() {
+        return _timings;
+    }
 }
@@ -0,0 +1,65 @@
+package com.softwareverde.bitcoin.server.module.node;
+
+/**
+ * The cumulative time spent by a BlockProcessor within each phase of processing valid Blocks.
+ *  Storing includes updating the in-memory UTXO set, and any UTXO commit triggered by the Block.
+ *  Committing includes maintaining the head Block's chain state (i.e. the mempool or a reorg) and committing the database transaction.
+ *  Durations are in milliseconds.
+ */
+public class BlockProcessorTimings {
+    protected long _blockCount = 0L;
+    protected long _transactionCount = 0L;
+    protected double _processBlockHeaderDuration = 0D;
+    protected double _loadUnspentTransactionOutputsDuration = 0D;
+    protected double _validationDuration = 0D;
+    protected double _storeDuration = 0D;
+    protected double _commitDuration = 0D;
+
+    protected synchronized void _add(final Integer transactionCount, final Double processBlockHeaderDuration, final Double loadUnspentTransactionOutputsDuration, final Double validationDuration, final Double storeDuration, final Double commitDuration) {
+        _blockCount += 1L;
+        _transactionCount += transactionCount;
+        _processBlockHeaderDuration += processBlockHeaderDuration;
+        _loadUnspentTransactionOutputsDuration += loadUnspentTransactionOutputsDuration;
+        _validationDuration += validationDuration;
+        _storeDuration += storeDuration;
+        _commitDuration += commitDuration;
+    }
+
+    public synchronized Long getBlockCount() {
+        return _blockCount;
+    }
+
+    public synchronized Long getTransactionCount() {
+        return _transactionCount;
+    }
+
+    public synchronized Double getProcessBlockHeaderDuration() {
+        return _processBlockHeaderDuration;
+    }
+
+    public synchronized Double getLoadUnspentTransactionOutputsDuration() {
+        return _loadUnspentTransactionOutputsDuration;
+    }
+
+    public synchronized Double getValidationDuration() {
+        return _validationDuration;
+    }
+
+    public synchronized Double getStoreDuration() {
+        return _storeDuration;
+    }
+
+    public synchronized Double getCommitDuration() {
+        return _commitDuration;
+    }
+
+    public synchronized void reset() {
+        _blockCount = 0L;
+        _transactionCount = 0L;
+        _processBlockHeaderDuration = 0D;
+        _loadUnspentTransactionOutputsDuration = 0D;
+        _validationDuration = 0D;
+        _storeDuration = 0D;
+        _commitDuration = 0D;
+    }
+}
@@ -22,6 +22,7 @@ import com.softwareverde.bitcoin.server.State;
 import com.softwareverde.bitcoin.server.configuration.BitcoinProperties;
 import com.softwareverde.bitcoin.server.configuration.CheckpointConfiguration;
 import com.softwareverde.bitcoin.server.configuration.SeedNodeProperties;
+import com.softwareverde.bitcoin.server.database.BatchRunner;
 import com.softwareverde.bitcoin.server.database.Database;
 import com.softwareverde.bitcoin.server.database.DatabaseConnection;
 import com.softwareverde.bitcoin.server.database.DatabaseConnectionFactory;
@@ -50,6 +51,7 @@ import com.softwareverde.bitcoin.server.module.node.handler.MemoryPoolEnquirerHa
 import com.softwareverde.bitcoin.server.module.node.handler.RequestDataHandler;
 import com.softwareverde.bitcoin.server.module.node.handler.SpvUnconfirmedTransactionsHandler;
 import com.softwareverde.bitcoin.server.module.node.handler.SynchronizationStatusHandler;
+import com.softwareverde.bitcoin.server.module.node.handler.block.RequestBlockFiltersHandler;
 import com.softwareverde.bitcoin.server.module.node.handler.block.RequestBlockHashesHandler;
 import com.softwareverde.bitcoin.server.module.node.handler.block.RequestBlockHeadersHandler;
 import com.softwareverde.bitcoin.server.module.node.handler.block.RequestSpvBlocksHandler;
@@ -60,6 +62,7 @@ import com.softwareverde.bitcoin.server.module.node.manager.BitcoinNodeManager;
 import com.softwareverde.bitcoin.server.module.node.manager.FilterType;
 import com.softwareverde.bitcoin.server.module.node.manager.NodeInitializer;
 import com.softwareverde.bitcoin.server.module.node.manager.RequestDataHandlerMonitor;
+import com.softwareverde.bitcoin.server.module.node.manager.TransactionInventoryTracker;
 import com.softwareverde.bitcoin.server.module.node.manager.TransactionRelay;
 import com.softwareverde.bitcoin.server.module.node.manager.banfilter.BanFilter;
 import com.softwareverde.bitcoin.server.module.node.manager.banfilter.BanFilterCore;
@@ -74,7 +77,9 @@ import com.softwareverde.bitcoin.server.module.node.rpc.handler.ServiceInquisito
 import com.softwareverde.bitcoin.server.module.node.rpc.handler.ShutdownHandler;
 import com.softwareverde.bitcoin.server.module.node.rpc.handler.ThreadPoolInquisitor;
 import com.softwareverde.bitcoin.server.module.node.rpc.handler.UtxoCacheHandler;
+import com.softwareverde.bitcoin.server.module.node.store.BlockPruner;
 import com.softwareverde.bitcoin.server.module.node.store.PendingBlockStoreCore;
+import com.softwareverde.bitcoin.server.module.node.sync.BlockFilterIndexer;
 import com.softwareverde.bitcoin.server.module.node.sync.BlockDownloadRequester;
 import com.softwareverde.bitcoin.server.module.node.sync.BlockDownloadRequesterCore;
 import com.softwareverde.bitcoin.server.module.node.sync.BlockHeaderDownloader;
@@ -90,6 +95,7 @@ import com.softwareverde.bitcoin.server.module.node.sync.bootstrap.HeadersBootst
 import com.softwareverde.bitcoin.server.module.node.sync.inventory.BitcoinNodeHeadBlockFinder;
 import com.softwareverde.bitcoin.server.module.node.sync.transaction.TransactionDownloader;
 import com.softwareverde.bitcoin.server.module.node.sync.transaction.TransactionProcessor;
+import com.softwareverde.bitcoin.server.module.node.sync.transaction.snapshot.MemoryPoolSnapshotManager;
 import com.softwareverde.bitcoin.server.node.BitcoinNode;
 import com.softwareverde.bitcoin.server.node.BitcoinNodeFactory;
 import com.softwareverde.bitcoin.transaction.Transaction;
@@ -149,10 +155,13 @@ public class NodeModule {
     protected final BlockDownloader _blockDownloader;
     protected final TransactionDownloader _transactionDownloader;
     protected final TransactionProcessor _transactionProcessor;
+    protected final MemoryPoolSnapshotManager _memoryPoolSnapshotManager;
     protected final TransactionRelay _transactionRelay;
     protected final BlockchainBuilder _blockchainBuilder;
     protected final BlockchainIndexer _blockchainIndexer;
     protected final SlpTransactionProcessor _slpTransactionProcessor;
+    protected final BlockPruner _blockPruner;
+    protected final BlockFilterIndexer _blockFilterIndexer;
     protected final RequestDataHandler _requestDataHandler;
     protected final RequestDataHandlerMonitor _transactionWhitelist;
     protected final List<SleepyService> _allServices;
@@ -165,9 +174,11 @@ public class NodeModule {
 
     protected final MainThreadPool _mainThreadPool;
     protected final MainThreadPool _rpcThreadPool;
+    protected final MainThreadPool _rpcHookThreadPool;
 
     protected final MilliTimer _uptimeTimer = new MilliTimer();
     protected final Thread _databaseMaintenanceThread;
+    protected final Thread _memoryPoolSnapshotThread;
     protected final Thread _loggerFlushThread;
 
     protected final LowMemoryMonitor _lowMemoryMonitor;
@@ -263,6 +274,12 @@ public class NodeModule {
         Logger.info("[Stopping Database Maintenance Thread]");
         _databaseMaintenanceThread.interrupt();
 
+        if (_memoryPoolSnapshotThread != null) {
+            Logger.info("[Stopping MemoryPool Snapshot Thread]");
+            _memoryPoolSnapshotThread.interrupt();
+            try { _memoryPoolSnapshotThread.join(30000L); } catch (final InterruptedException exception) { }
+        }
+
         if (_slpTransactionProcessor != null) {
             Logger.info("[Stopping SlpTransaction Processor]");
             _slpTransactionProcessor.stop();
@@ -273,6 +290,16 @@ public class NodeModule {
             _blockchainIndexer.stop();
         }
 
+        if (_blockPruner != null) {
+            Logger.info("[Stopping Block Pruner]");
+            _blockPruner.stop();
+        }
+
+        if (_blockFilterIndexer != null) {
+            Logger.info("[Stopping Block Filter Indexer]");
+            _blockFilterIndexer.stop();
+        }
+
         Logger.info("[Stopping Transaction Processor]");
         _transactionProcessor.stop();
 
@@ -297,6 +324,17 @@ public class NodeModule {
         Logger.info("[Stopping Socket Server]");
         _socketServer.stop();
 
+        if (_memoryPoolSnapshotManager != null) {
+            Logger.info("[Writing MemoryPool Snapshot]");
+            _memoryPoolSnapshotManager.writeSnapshot();
+        }
+
+        if (_banFilter instanceof BanFilterCore) {
+            Logger.info("[Writing Ban States]");
+            final BanFilterCore banFilterCore = (BanFilterCore) _banFilter;
+            banFilterCore.persistBanStates();
+        }
+
         Logger.info("[Committing UTXO Set]");
         {
             final Database database = _environment.getDatabase();
@@ -319,6 +357,7 @@ public class NodeModule {
         Logger.info("[Shutting Down Thread Server]");
         _mainThreadPool.stop();
         _rpcThreadPool.stop();
+        _rpcHookThreadPool.stop();
 
         if (_jsonRpcSocketServer != null) {
             Logger.info("[Shutting Down RPC Server]");
@@ -376,6 +415,8 @@ public class NodeModule {
         final int maxPeerCount = (bitcoinProperties.skipNetworking() ? 0 : bitcoinProperties.getMaxPeerCount());
         _mainThreadPool = new MainThreadPool(Math.max(32 + (maxPeerCount * 8), 256), 5000L);
         _rpcThreadPool = new MainThreadPool(32, 15000L);
+        _rpcHookThreadPool = new MainThreadPool(32, 15000L);
+        BatchRunner.setSharedThreadCount(bitcoinProperties.getMaxThreadCount());
 
         _mainThreadPool.setShutdownCallback(new Runnable() {
             @Override
@@ -410,7 +451,7 @@ public class NodeModule {
             _bitcoinProperties.getUtxoCachePurgePercent()
         );
 
-        _banFilter = (bitcoinProperties.isBanFilterEnabled() ? new BanFilterCore(databaseManagerFactory) : new DisabledBanFilter());
+        _banFilter = (bitcoinProperties.isBanFilterEnabled() ? new BanFilterCore(databaseManagerFactory, _mainThreadPool) : new DisabledBanFilter());
 
         { // Ensure the data/cache directory exists...
             final String dataCacheDirectory = bitcoinProperties.getDataDirectory() + "/" + BitcoinProperties.DATA_DIRECTORY_NAME;
@@ -442,18 +483,26 @@ public class NodeModule {
             public NodeFeatures getNodeFeatures() {
                 final NodeFeatures nodeFeatures = new NodeFeatures();
                 nodeFeatures.enableFeature(NodeFeatures.Feature.BITCOIN_CASH_ENABLED);
-                nodeFeatures.enableFeature(NodeFeatures.Feature.BLOCKCHAIN_ENABLED);
+                if (bitcoinProperties.isPruningModeEnabled()) {
+                    nodeFeatures.enableFeature(NodeFeatures.Feature.BLOCKCHAIN_LIMITED_ENABLED);
+                }
+                else {
+                    nodeFeatures.enableFeature(NodeFeatures.Feature.BLOCKCHAIN_ENABLED);
+                }
                 nodeFeatures.enableFeature(NodeFeatures.Feature.XTHIN_PROTOCOL_ENABLED);
                 nodeFeatures.enableFeature(NodeFeatures.Feature.BLOOM_CONNECTIONS_ENABLED);
                 nodeFeatures.enableFeature(NodeFeatures.Feature.BLOCKCHAIN_INDEX_ENABLED); // BitcoinVerde 2019-04-22
                 nodeFeatures.enableFeature(NodeFeatures.Feature.SLP_INDEX_ENABLED); // BitcoinVerde 2019-10-24
+                if (bitcoinProperties.isBlockFilterIndexEnabled()) {
+                    nodeFeatures.enableFeature(NodeFeatures.Feature.COMPACT_FILTERS_ENABLED);
+                }
                 return nodeFeatures;
             }
         };
 
         _requestDataHandler = new RequestDataHandler(databaseManagerFactory, _blockStore);
         _transactionWhitelist = RequestDataHandlerMonitor.wrap(_requestDataHandler);
-        { // Initialize the monitor with transactions from the memory pool...
+        if (! bitcoinProperties.isMemoryPoolSnapshotEnabled()) { // Initialize the monitor with transactions from the memory pool; otherwise the monitor is initialized when the MemoryPool snapshot is restored...
             Logger.info("[Loading RequestDataHandlerMonitor]");
             try (final FullNodeDatabaseManager databaseManager = databaseManagerFactory.newDatabaseManager()) {
                 final FullNodeTransactionDatabaseManager transactionDatabaseManager = databaseManager.getTransactionDatabaseManager();
@@ -468,6 +517,8 @@ public class NodeModule {
             }
         }
 
+        final TransactionInventoryTracker transactionInventoryTracker = new TransactionInventoryTracker();
+
         final NodeInitializer nodeInitializer;
         { // Initialize NodeInitializer...
             final SpvUnconfirmedTransactionsHandler spvUnconfirmedTransactionsHandler = new SpvUnconfirmedTransactionsHandler(databaseManagerFactory);
@@ -485,13 +536,14 @@ public class NodeModule {
             nodeInitializerContext.blockInventoryMessageHandler = blockInventoryMessageHandler;
             nodeInitializerContext.threadPoolFactory = nodeThreadPoolFactory;
             nodeInitializerContext.localNodeFeatures = localNodeFeatures;
-            nodeInitializerContext._transactionsAnnouncementHandlerFactory = new TransactionInventoryMessageHandlerFactory(databaseManagerFactory, synchronizationStatusHandler, newInventoryCallback);
+            nodeInitializerContext._transactionsAnnouncementHandlerFactory = new TransactionInventoryMessageHandlerFactory(databaseManagerFactory, transactionInventoryTracker, synchronizationStatusHandler, newInventoryCallback);
             nodeInitializerContext.requestBlockHashesHandler = new RequestBlockHashesHandler(databaseManagerFactory);
             nodeInitializerContext.requestBlockHeadersHandler = new RequestBlockHeadersHandler(databaseManagerFactory);
             nodeInitializerContext.requestDataHandler = _transactionWhitelist;
             nodeInitializerContext.requestSpvBlocksHandler = new RequestSpvBlocksHandler(databaseManagerFactory, spvUnconfirmedTransactionsHandler);
             nodeInitializerContext.requestSlpTransactionsHandler = new RequestSlpTransactionsHandler(databaseManagerFactory);
             nodeInitializerContext.requestUnconfirmedTransactionsHandler = new QueryUnconfirmedTransactionsHandler(databaseManagerFactory);
+            nodeInitializerContext.requestBlockFiltersHandler = (bitcoinProperties.isBlockFilterIndexEnabled() ? new RequestBlockFiltersHandler(databaseManagerFactory) : null);
 
             nodeInitializerContext.requestPeersHandler = new BitcoinNode.RequestPeersHandler() {
                 @Override
@@ -534,6 +586,7 @@ public class NodeModule {
                 context.memoryPoolEnquirer = memoryPoolEnquirer;
                 context.synchronizationStatusHandler = synchronizationStatusHandler;
                 context.threadPool = _mainThreadPool;
+                context.transactionInventoryTracker = transactionInventoryTracker;
             }
 
             _bitcoinNodeManager = new BitcoinNodeManager(context);
@@ -574,6 +627,14 @@ public class NodeModule {
         { // Initialize the TransactionProcessor...
             final TransactionProcessorContext transactionProcessorContext = new TransactionProcessorContext(_masterInflater, databaseManagerFactory, _mutableNetworkTime, _systemTime, transactionValidatorFactory);
             _transactionProcessor = new TransactionProcessor(transactionProcessorContext);
+
+            if (bitcoinProperties.isMemoryPoolSnapshotEnabled()) {
+                final String dataDirectory = (bitcoinProperties.getDataDirectory() + "/" + BitcoinProperties.DATA_DIRECTORY_NAME);
+                _memoryPoolSnapshotManager = new MemoryPoolSnapshotManager(dataDirectory, transactionProcessorContext, _transactionWhitelist);
+            }
+            else {
+                _memoryPoolSnapshotManager = null;
+            }
         }
 
         final BlockProcessor blockProcessor;
@@ -623,6 +684,20 @@ public class NodeModule {
             });
         }
 
+        if (bitcoinProperties.isPruningModeEnabled()) {
+            _blockPruner = new BlockPruner(databaseManagerFactory, _blockStore, bitcoinProperties.getPrunedBlockRetentionCount());
+        }
+        else {
+            _blockPruner = null;
+        }
+
+        if (bitcoinProperties.isBlockFilterIndexEnabled()) {
+            _blockFilterIndexer = new BlockFilterIndexer(databaseManagerFactory, _blockStore);
+        }
+        else {
+            _blockFilterIndexer = null;
+        }
+
         { // Set the synchronization elements to cascade to each component...
             _blockchainBuilder.setSynchronousNewBlockProcessedCallback(new BlockchainBuilder.NewBlockProcessedCallback() {
                 @Override
@@ -645,6 +720,14 @@ public class NodeModule {
 
                     _blockchainIndexer.wakeUp();
 
+                    if (_blockPruner != null) {
+                        _blockPruner.wakeUp();
+                    }
+
+                    if (_blockFilterIndexer != null) {
+                        _blockFilterIndexer.wakeUp();
+                    }
+
                     final Long blockHeaderDownloaderBlockHeight = _blockHeaderDownloader.getBlockHeight();
                     if (blockHeaderDownloaderBlockHeight <= blockHeight) {
                         _blockHeaderDownloader.wakeUp();
@@ -814,6 +897,8 @@ public class NodeModule {
         _allServices = new ImmutableList<SleepyService>(
             _blockchainIndexer,
             _slpTransactionProcessor,
+            _blockPruner,
+            _blockFilterIndexer,
             _transactionProcessor,
             _transactionDownloader,
             _blockchainBuilder,
@@ -830,7 +915,8 @@ public class NodeModule {
                 statisticsContainer.averageTransactionsPerSecond = blockProcessor.getAverageTransactionsPerSecondContainer();
             }
 
-            final NodeRpcHandler rpcSocketServerHandler = new NodeRpcHandler(statisticsContainer, _rpcThreadPool, _masterInflater);
+            final NodeRpcHandler rpcSocketServerHandler = new NodeRpcHandler(statisticsContainer, _rpcThreadPool, _rpcHookThreadPool, _masterInflater);
+            rpcSocketServerHandler.setHookListenerQueueProperties(_bitcoinProperties.getMaxQueuedRpcHookEventCount(), _bitcoinProperties.getSlowRpcHookListenerPolicy());
             {
                 final ShutdownHandler shutdownHandler = new ShutdownHandler(mainThread, synchronizationStatusHandler);
                 final UtxoCacheHandler utxoCacheHandler = new UtxoCacheHandler(databaseManagerFactory);
@@ -941,6 +1027,34 @@ public class NodeModule {
             });
         }
 
+        if (_memoryPoolSnapshotManager != null) { // Initialize the MemoryPool Snapshot Thread...
+            _memoryPoolSnapshotThread = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    //                                 MM    SS      MS
+                    final long snapshotEveryMilliseconds = (10L * 60L * 1000L); // 10 Minutes
+                    while (! _memoryPoolSnapshotThread.isInterrupted()) {
+                        try {
+                            Thread.sleep(snapshotEveryMilliseconds);
+                            _memoryPoolSnapshotManager.writeSnapshot();
+                        }
+                        catch (final InterruptedException exception) { break; }
+                    }
+                }
+            });
+            _memoryPoolSnapshotThread.setName("MemoryPool Snapshot Thread");
+            _memoryPoolSnapshotThread.setDaemon(false);
+            _memoryPoolSnapshotThread.setUncaughtExceptionHandler(new Thread.UncaughtExceptionHandler() {
+                @Override
+                public void uncaughtException(final Thread thread, final Throwable exception) {
+                    Logger.error("Uncaught exception in MemoryPool Snapshot Thread", exception);
+                }
+            });
+        }
+        else {
+            _memoryPoolSnapshotThread = null;
+        }
+
         _lowMemoryMonitor = new LowMemoryMonitor(0.9F, new Runnable() {
             @Override
             public void run() {
@@ -1094,6 +1208,11 @@ public class NodeModule {
             }
         }
 
+        if (_memoryPoolSnapshotManager != null) {
+            Logger.info("[Restoring MemoryPool Snapshot]");
+            _memoryPoolSnapshotManager.loadSnapshot(_mainThreadPool, _bitcoinProperties.getMaxThreadCount());
+        }
+
         if (! _bitcoinProperties.skipNetworking()) {
             Logger.info("[Starting Node Manager]");
             _bitcoinNodeManager.start();
@@ -1197,6 +1316,16 @@ public class NodeModule {
             _slpTransactionProcessor.start();
         }
 
+        if (_blockPruner != null) {
+            Logger.info("[Starting Block Pruner]");
+            _blockPruner.start();
+        }
+
+        if (_blockFilterIndexer != null) {
+            Logger.info("[Starting Block Filter Indexer]");
+            _blockFilterIndexer.start();
+        }
+
         if (! _bitcoinProperties.skipNetworking()) {
             Logger.info("[Connecting To Peers]");
             _connectToAdditionalNodes();
@@ -1204,6 +1333,9 @@ public class NodeModule {
 
         _uptimeTimer.start();
         _databaseMaintenanceThread.start();
+        if (_memoryPoolSnapshotThread != null) {
+            _memoryPoolSnapshotThread.start();
+        }
 
         final Runtime runtime = Runtime.getRuntime();
         int sleepCount = 1;
@@ -0,0 +1,153 @@
+package com.softwareverde.bitcoin.server.module.node.database.block.filter;
+
+import com.softwareverde.bitcoin.block.BlockId;
+import com.softwareverde.bitcoin.block.filter.BlockFilter;
+import com.softwareverde.bitcoin.block.filter.BlockFilterType;
+import com.softwareverde.bitcoin.chain.segment.BlockchainSegmentId;
+import com.softwareverde.bitcoin.server.database.DatabaseConnection;
+import com.softwareverde.bitcoin.server.database.query.Query;
+import com.softwareverde.bitcoin.server.module.node.database.block.BlockRelationship;
+import com.softwareverde.bitcoin.server.module.node.database.block.header.BlockHeaderDatabaseManager;
+import com.softwareverde.bitcoin.server.module.node.database.blockchain.BlockchainDatabaseManager;
+import com.softwareverde.bitcoin.server.module.node.database.fullnode.FullNodeDatabaseManager;
+import com.softwareverde.constable.bytearray.MutableByteArray;
+import com.softwareverde.constable.list.List;
+import com.softwareverde.constable.list.mutable.MutableList;
+import com.softwareverde.cryptography.hash.sha256.Sha256Hash;
+import com.softwareverde.database.DatabaseException;
+import com.softwareverde.database.row.Row;
+import com.softwareverde.util.Util;
+
+import java.util.HashSet;
+import java.util.Map;
+
+/**
+ * Manages the BIP-158 compact Block filters and BIP-157 filter headers within the block_filters table.
+ *  Filters are stored per BlockId, so the filters of Blocks on forks are retained alongside those of the head Blockchain.
+ */
+public class BlockFilterDatabaseManager {
+    protected final FullNodeDatabaseManager _databaseManager;
+
+    public BlockFilterDatabaseManager(final FullNodeDatabaseManager databaseManager) {
+        _databaseManager = databaseManager;
+    }
+
+    public void storeBlockFilter(final BlockId blockId, final BlockFilter blockFilter, final Sha256Hash filterHeader) throws DatabaseException {
+        final DatabaseConnection databaseConnection = _databaseManager.getDatabaseConnection();
+        final BlockFilterType blockFilterType = blockFilter.getBlockFilterType();
+
+        databaseConnection.executeSql(
+            new Query("INSERT INTO block_filters (block_id, filter_type, filter_hash, filter_header, filter) VALUES (?, ?, ?, ?, ?) ON DUPLICATE KEY UPDATE filter_hash = VALUES (filter_hash), filter_header = VALUES (filter_header), filter = VALUES (filter)")
+                .setParameter(blockId)
+                .setParameter(blockFilterType.value & 0xFF)
+                .setParameter(blockFilter.getHash())
+                .setParameter(filterHeader)
+                .setParameter(blockFilter.getBytes())
+        );
+    }
+
+    public Boolean hasBlockFilter(final BlockId blockId, final BlockFilterType blockFilterType) throws DatabaseException {
+        final DatabaseConnection databaseConnection = _databaseManager.getDatabaseConnection();
+        final java.util.List<Row> rows = databaseConnection.query(
+            new Query("SELECT block_id FROM block_filters WHERE block_id = ? AND filter_type = ?")
+                .setParameter(blockId)
+                .setParameter(blockFilterType.value & 0xFF)
+        );
+        return (! rows.isEmpty());
+    }
+
+    public Sha256Hash getBlockFilterHeader(final BlockId blockId, final BlockFilterType blockFilterType) throws DatabaseException {
+        final DatabaseConnection databaseConnection = _databaseManager.getDatabaseConnection();
+        final java.util.List<Row> rows = databaseConnection.query(
+            new Query("SELECT filter_header FROM block_filters WHERE block_id = ? AND filter_type = ?")
+                .setParameter(blockId)
+                .setParameter(blockFilterType.value & 0xFF)
+        );
+        if (rows.isEmpty()) { return null; }
+
+        final Row row = rows.get(0);
+        return Sha256Hash.wrap(row.getBytes("filter_header"));
+    }
+
+    public BlockFilter getBlockFilter(final BlockId blockId, final BlockFilterType blockFilterType) throws DatabaseException {
+        final DatabaseConnection databaseConnection = _databaseManager.getDatabaseConnection();
+        final java.util.List<Row> rows = databaseConnection.query(
+            new Query("SELECT filter FROM block_filters WHERE block_id = ? AND filter_type = ?")
+                .setParameter(blockId)
+                .setParameter(blockFilterType.value & 0xFF)
+        );
+        if (rows.isEmpty()) { return null; }
+
+        final Row row = rows.get(0);
+        return new BlockFilter(blockFilterType, MutableByteArray.wrap(row.getBytes("filter")));
+    }
+
+    /**
+     * Returns the greatest height of any indexed Block, regardless of its Blockchain, or null if no Blocks have been indexed.
+     */
+    public Long getMaxIndexedBlockHeight(final BlockFilterType blockFilterType) throws DatabaseException {
+        final DatabaseConnection databaseConnection = _databaseManager.getDatabaseConnection();
+        final java.util.List<Row> rows = databaseConnection.query(
+            new Query("SELECT MAX(blocks.block_height) AS block_height FROM block_filters INNER JOIN blocks ON blocks.id = block_filters.block_id WHERE block_filters.filter_type = ?")
+                .setParameter(blockFilterType.value & 0xFF)
+        );
+        if (rows.isEmpty()) { return null; }
+
+        final Row row = rows.get(0);
+        return row.getLong("block_height");
+    }
+
+    /**
+     * Returns the filter entries of the Blocks from startBlockHeight through stopBlockId (inclusive), in ascending order,
+     *  on the Blockchain containing stopBlockId.  The filters themselves are only loaded if includeFilters is true.
+     *  Returns null if any Block within the range has not been indexed.
+     */
+    public List<BlockFilterEntry> getBlockFilterEntries(final BlockFilterType blockFilterType, final Long startBlockHeight, final BlockId stopBlockId, final Boolean includeFilters) throws DatabaseException {
+        final DatabaseConnection databaseConnection = _databaseManager.getDatabaseConnection();
+        final BlockHeaderDatabaseManager blockHeaderDatabaseManager = _databaseManager.getBlockHeaderDatabaseManager();
+        final BlockchainDatabaseManager blockchainDatabaseManager = _databaseManager.getBlockchainDatabaseManager();
+
+        final Long stopBlockHeight = blockHeaderDatabaseManager.getBlockHeight(stopBlockId);
+        final BlockchainSegmentId stopBlockchainSegmentId = blockHeaderDatabaseManager.getBlockchainSegmentId(stopBlockId);
+        if ( (stopBlockHeight == null) || (stopBlockchainSegmentId == null) ) { return null; }
+        if (startBlockHeight > stopBlockHeight) { return null; }
+
+        // Includes the Blocks of every Blockchain within the range; the Blocks not connected to stopBlockId's Blockchain are excluded below...
+        final java.util.List<Row> rows = databaseConnection.query(
+            new Query("SELECT blocks.hash, blocks.block_height, blocks.blockchain_segment_id, block_filters.filter_hash, block_filters.filter_header" + (includeFilters ? ", block_filters.filter" : "") + " FROM blocks INNER JOIN block_filters ON block_filters.block_id = blocks.id WHERE blocks.block_height >= ? AND blocks.block_height <= ? AND block_filters.filter_type = ?")
+                .setParameter(startBlockHeight)
+                .setParameter(stopBlockHeight)
+                .setParameter(blockFilterType.value & 0xFF)
+        );
+
+        final HashSet<BlockchainSegmentId> blockchainSegmentIds = new HashSet<BlockchainSegmentId>();
+        for (final Row row : rows) {
+            blockchainSegmentIds.add(BlockchainSegmentId.wrap(row.getLong("blockchain_segment_id")));
+        }
+        // NOTE: Blocks within the range are never descendants of stopBlockId's segment, so any connected segment is an ancestor (or is the segment itself).
+        final Map<BlockchainSegmentId, Boolean> connectedBlockchainSegments = blockchainDatabaseManager.areBlockchainSegmentsConnected(stopBlockchainSegmentId, new MutableList<BlockchainSegmentId>(blockchainSegmentIds), BlockRelationship.ANY);
+
+        final int blockCount = (int) ((stopBlockHeight - startBlockHeight) + 1L);
+        final BlockFilterEntry[] blockFilterEntries = new BlockFilterEntry[blockCount];
+        for (final Row row : rows) {
+            final BlockchainSegmentId blockchainSegmentId = BlockchainSegmentId.wrap(row.getLong("blockchain_segment_id"));
+            final Boolean isConnected = ( Util.areEqual(stopBlockchainSegmentId, blockchainSegmentId) || Util.coalesce(connectedBlockchainSegments.get(blockchainSegmentId), false) );
+            if (! isConnected) { continue; }
+
+            final Sha256Hash blockHash = Sha256Hash.wrap(row.getBytes("hash"));
+            final Long blockHeight = row.getLong("block_height");
+            final Sha256Hash filterHash = Sha256Hash.wrap(row.getBytes("filter_hash"));
+            final Sha256Hash filterHeader = Sha256Hash.wrap(row.getBytes("filter_header"));
+            final BlockFilter blockFilter = (includeFilters ? new BlockFilter(blockFilterType, MutableByteArray.wrap(row.getBytes("filter"))) : null);
+
+            blockFilterEntries[(int) (blockHeight - startBlockHeight)] = new BlockFilterEntry(blockHash, blockHeight, filterHash, filterHeader, blockFilter);
+        }
+
+        final MutableList<BlockFilterEntry> orderedBlockFilterEntries = new MutableList<BlockFilterEntry>(blockCount);
+        for (final BlockFilterEntry blockFilterEntry : blockFilterEntries) {
+            if (blockFilterEntry == null) { return null; }
+            orderedBlockFilterEntries.add(blockFilterEntry);
+        }
+        return orderedBlockFilterEntries;
+    }
+}
@@ -0,0 +1,33 @@
+package com.softwareverde.bitcoin.server.module.node.database.block.filter;
+
+import com.softwareverde.bitcoin.block.filter.BlockFilter;
+import com.softwareverde.cryptography.hash.sha256.Sha256Hash;
+
+public class BlockFilterEntry {
+    protected final Sha256Hash _blockHash;
+    protected final Long _blockHeight;
+    protected final Sha256Hash _filterHash;
+    protected final Sha256Hash _filterHeader;
+    protected final BlockFilter _blockFilter;
+
+    /**
+     * The blockFilter may be null if only the filter's hash and header were loaded.
+     */
+    public BlockFilterEntry(final Sha256Hash blockHash, final Long blockHeight, final Sha256Hash filterHash, final Sha256Hash filterHeader, final BlockFilter blockFilter) {
+        _blockHash = blockHash;
+        _blockHeight = blockHeight;
+        _filterHash = filterHash;
+        _filterHeader = filterHeader;
+        _blockFilter = blockFilter;
+    }
+
+    public Sha256Hash getBlockHash() { return _blockHash; }
+
+    public Long getBlockHeight() { return _blockHeight; }
+
+    public Sha256Hash getFilterHash() { return _filterHash; }
+
+    public Sha256Hash getFilterHeader() { return _filterHeader; }
+
+    public BlockFilter getBlockFilter() { return _blockFilter; }
+}
@@ -27,10 +27,14 @@ import com.softwareverde.cryptography.hash.sha256.Sha256Hash;
 import com.softwareverde.database.DatabaseException;
 import com.softwareverde.database.row.Row;
 import com.softwareverde.logging.Logger;
+import com.softwareverde.util.Container;
 import com.softwareverde.util.Util;
 import com.softwareverde.util.timer.MilliTimer;
 
 public class FullNodeBlockDatabaseManager implements BlockDatabaseManager {
+    protected static final String PRUNED_BLOCK_HEIGHT_KEY = "pruned_block_height";
+    protected static final Container<Long> PRUNED_BLOCK_HEIGHT = new Container<Long>(null); // null indicates not yet loaded; zero indicates no Blocks have been pruned.
+
     protected final FullNodeDatabaseManager _databaseManager;
     protected final BlockStore _blockStore;
 
@@ -212,6 +216,29 @@ public class FullNodeBlockDatabaseManager implements BlockDatabaseManager {
         return block;
     }
 
+    protected Long _getPrunedBlockHeight() throws DatabaseException {
+        final Long cachedPrunedBlockHeight = PRUNED_BLOCK_HEIGHT.value;
+        if (cachedPrunedBlockHeight != null) { return cachedPrunedBlockHeight; }
+
+        final DatabaseConnection databaseConnection = _databaseManager.getDatabaseConnection();
+        final java.util.List<Row> rows = databaseConnection.query(
+            new Query("SELECT value FROM properties WHERE `key` = ?")
+                .setParameter(PRUNED_BLOCK_HEIGHT_KEY)
+        );
+
+        final Long prunedBlockHeight;
+        if (rows.isEmpty()) {
+            prunedBlockHeight = 0L;
+        }
+        else {
+            final Row row = rows.get(0);
+            prunedBlockHeight = Util.coalesce(row.getLong("value"), 0L);
+        }
+
+        PRUNED_BLOCK_HEIGHT.value = prunedBlockHeight;
+        return prunedBlockHeight;
+    }
+
     public FullNodeBlockDatabaseManager(final FullNodeDatabaseManager databaseManager) {
         _databaseManager = databaseManager;
         _blockStore = null;
@@ -377,4 +404,29 @@ public class FullNodeBlockDatabaseManager implements BlockDatabaseManager {
     public Integer getTransactionCount(final BlockId blockId) throws DatabaseException {
         return _getTransactionCount(blockId);
     }
+
+    /**
+     * Returns the height of the highest Block whose data has been pruned from the BlockStore, or zero if pruning has never run.
+     *  The Transactions of Blocks at or below this height remain indexed, but their data is no longer available.
+     */
+    public Long getPrunedBlockHeight() throws DatabaseException {
+        return _getPrunedBlockHeight();
+    }
+
+    public Boolean isBlockPruned(final Long blockHeight) throws DatabaseException {
+        final Long prunedBlockHeight = _getPrunedBlockHeight();
+        if (prunedBlockHeight < 1L) { return false; }
+
+        return (blockHeight <= prunedBlockHeight);
+    }
+
+    public void setPrunedBlockHeight(final Long blockHeight) throws DatabaseException {
+        final DatabaseConnection databaseConnection = _databaseManager.getDatabaseConnection();
+        databaseConnection.executeSql(
+            new Query("INSERT INTO properties (`key`, value) VALUES (?, ?) ON DUPLICATE KEY UPDATE value = VALUES (value)")
+                .setParameter(PRUNED_BLOCK_HEIGHT_KEY)
+                .setParameter(blockHeight)
+        );
+        PRUNED_BLOCK_HEIGHT.value = blockHeight;
+    }
 }
@@ -5,6 +5,7 @@ import com.softwareverde.bitcoin.inflater.MasterInflater;
 import com.softwareverde.bitcoin.server.configuration.CheckpointConfiguration;
 import com.softwareverde.bitcoin.server.database.DatabaseConnection;
 import com.softwareverde.bitcoin.server.module.node.database.DatabaseManager;
+import com.softwareverde.bitcoin.server.module.node.database.block.filter.BlockFilterDatabaseManager;
 import com.softwareverde.bitcoin.server.module.node.database.block.fullnode.FullNodeBlockDatabaseManager;
 import com.softwareverde.bitcoin.server.module.node.database.block.header.fullnode.FullNodeBlockHeaderDatabaseManager;
 import com.softwareverde.bitcoin.server.module.node.database.block.pending.fullnode.FullNodePendingBlockDatabaseManager;
@@ -19,6 +20,7 @@ import com.softwareverde.bitcoin.server.module.node.database.transaction.fullnod
 import com.softwareverde.bitcoin.server.module.node.database.transaction.fullnode.output.UnconfirmedTransactionOutputDatabaseManager;
 import com.softwareverde.bitcoin.server.module.node.database.transaction.fullnode.utxo.UnspentTransactionOutputDatabaseManager;
 import com.softwareverde.bitcoin.server.module.node.database.transaction.fullnode.utxo.UnspentTransactionOutputJvmManager;
+import com.softwareverde.bitcoin.server.module.node.database.transaction.fullnode.utxo.UtxoSnapshotDatabaseManager;
 import com.softwareverde.bitcoin.server.module.node.database.transaction.pending.PendingTransactionDatabaseManager;
 import com.softwareverde.bitcoin.server.module.node.database.transaction.slp.SlpTransactionDatabaseManager;
 import com.softwareverde.bitcoin.server.module.node.database.transaction.slp.SlpTransactionDatabaseManagerCore;
@@ -46,6 +48,8 @@ public class FullNodeDatabaseManager implements DatabaseManager {
     protected PendingTransactionDatabaseManager _pendingTransactionDatabaseManager;
     protected SlpTransactionDatabaseManager _slpTransactionDatabaseManager;
     protected UnspentTransactionOutputDatabaseManager _unspentTransactionOutputDatabaseManager;
+    protected UtxoSnapshotDatabaseManager _utxoSnapshotDatabaseManager;
+    protected BlockFilterDatabaseManager _blockFilterDatabaseManager;
 
     public FullNodeDatabaseManager(final DatabaseConnection databaseConnection, final Integer maxQueryBatchSize, final PendingBlockStore blockStore, final MasterInflater masterInflater, final CheckpointConfiguration checkpointConfiguration) {
         this(databaseConnection, maxQueryBatchSize, blockStore, masterInflater, checkpointConfiguration, UnspentTransactionOutputDatabaseManager.DEFAULT_MAX_UTXO_CACHE_COUNT, UnspentTransactionOutputDatabaseManager.DEFAULT_PURGE_PERCENT);
@@ -173,6 +177,22 @@ public class FullNodeDatabaseManager implements DatabaseManager {
         return _unspentTransactionOutputDatabaseManager;
     }
 
+    public UtxoSnapshotDatabaseManager getUtxoSnapshotDatabaseManager() {
+        if (_utxoSnapshotDatabaseManager == null) {
+            _utxoSnapshotDatabaseManager = new UtxoSnapshotDatabaseManager(this, _blockStore, _masterInflater);
+        }
+
+        return _utxoSnapshotDatabaseManager;
+    }
+
+    public BlockFilterDatabaseManager getBlockFilterDatabaseManager() {
+        if (_blockFilterDatabaseManager == null) {
+            _blockFilterDatabaseManager = new BlockFilterDatabaseManager(this);
+        }
+
+        return _blockFilterDatabaseManager;
+    }
+
     @Override
     public void close() throws DatabaseException {
         _databaseConnection.close();
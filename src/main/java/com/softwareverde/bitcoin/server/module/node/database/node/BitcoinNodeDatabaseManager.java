@@ -9,6 +9,8 @@ import com.softwareverde.network.ip.Ip;
 import com.softwareverde.network.p2p.node.NodeId;
 import com.softwareverde.network.p2p.node.address.NodeIpAddress;
 
+import java.util.Map;
+
 public interface BitcoinNodeDatabaseManager {
     Object MUTEX = new Object();
 
@@ -25,4 +27,5 @@ public interface BitcoinNodeDatabaseManager {
     void setIsBanned(Ip ip, Boolean isBanned) throws DatabaseException;
     Boolean isBanned(Ip ip) throws DatabaseException;
     Boolean isBanned(Ip ip, final Long sinceTimestamp) throws DatabaseException;
+    Map<Ip, Long> getBannedIps(Long sinceTimestamp) throws DatabaseException;
 }
@@ -18,6 +18,9 @@ import com.softwareverde.network.p2p.node.NodeId;
 import com.softwareverde.network.p2p.node.address.NodeIpAddress;
 import com.softwareverde.util.type.time.SystemTime;
 
+import java.util.HashMap;
+import java.util.Map;
+
 public class BitcoinNodeDatabaseManagerCore implements BitcoinNodeDatabaseManager {
 
     protected final DatabaseManager _databaseManager;
@@ -395,4 +398,24 @@ public class BitcoinNodeDatabaseManagerCore implements BitcoinNodeDatabaseManage
 
         return isBanned;
     }
+
+    @Override
+    public Map<Ip, Long> getBannedIps(final Long sinceTimestamp) throws DatabaseException {
+        final DatabaseConnection databaseConnection = _databaseManager.getDatabaseConnection();
+
+        final java.util.List<Row> rows = databaseConnection.query(
+            new Query("SELECT host, banned_timestamp FROM hosts WHERE is_banned = 1 AND banned_timestamp >= ?")
+                .setParameter(sinceTimestamp)
+        );
+
+        final HashMap<Ip, Long> bannedIps = new HashMap<Ip, Long>(rows.size());
+        for (final Row row : rows) {
+            final Ip ip = Ip.fromString(row.getString("host"));
+            if (ip == null) { continue; }
+
+            final Long bannedTimestamp = row.getLong("banned_timestamp");
+            bannedIps.put(ip, bannedTimestamp);
+        }
+        return bannedIps;
+    }
 }
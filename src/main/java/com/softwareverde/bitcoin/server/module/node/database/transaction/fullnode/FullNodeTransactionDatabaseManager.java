@@ -11,6 +11,8 @@ import com.softwareverde.constable.list.List;
 import com.softwareverde.cryptography.hash.sha256.Sha256Hash;
 import com.softwareverde.database.DatabaseException;
 
+import java.util.Map;
+
 public interface FullNodeTransactionDatabaseManager extends TransactionDatabaseManager {
     Boolean isCoinbaseTransaction(Sha256Hash transactionHash) throws DatabaseException;
 
@@ -20,12 +22,30 @@ public interface FullNodeTransactionDatabaseManager extends TransactionDatabaseM
     Boolean previousOutputsExist(Transaction transaction) throws DatabaseException;
 
     TransactionId storeUnconfirmedTransaction(Transaction transaction) throws DatabaseException;
+
+    /**
+     * Stores the Transaction as unconfirmed with the provided timestamp (in seconds) as its time of arrival,
+     *  instead of the current time.  Used when restoring the MemoryPool from a snapshot.
+     */
+    TransactionId storeUnconfirmedTransaction(Transaction transaction, Long timestamp) throws DatabaseException;
     List<TransactionId> storeUnconfirmedTransactions(List<Transaction> transactions) throws DatabaseException;
     void addToUnconfirmedTransactions(TransactionId transactionId) throws DatabaseException;
     void addToUnconfirmedTransactions(List<TransactionId> transactionIds) throws DatabaseException;
     void removeFromUnconfirmedTransactions(TransactionId transactionId) throws DatabaseException;
     void removeFromUnconfirmedTransactions(List<TransactionId> transactionIds) throws DatabaseException;
     Boolean isUnconfirmedTransaction(TransactionId transactionId) throws DatabaseException;
+
+    /**
+     * Returns the unconfirmed Transactions for the provided TransactionIds, loaded in batches.
+     *  TransactionIds that are no longer unconfirmed (i.e. mined since they were selected) are omitted from the returned Map.
+     */
+    Map<TransactionId, Transaction> getUnconfirmedTransactions(List<TransactionId> transactionIds) throws DatabaseException;
+
+    /**
+     * Returns the time of arrival (in seconds) of the provided unconfirmed TransactionIds, loaded in batches.
+     *  TransactionIds that are no longer unconfirmed are omitted from the returned Map.
+     */
+    Map<TransactionId, Long> getUnconfirmedTransactionTimestamps(List<TransactionId> transactionIds) throws DatabaseException;
     List<TransactionId> getUnconfirmedTransactionIds() throws DatabaseException;
 
     // "Select transactions that are unconfirmed that spend an output spent by any of these transactionIds..."
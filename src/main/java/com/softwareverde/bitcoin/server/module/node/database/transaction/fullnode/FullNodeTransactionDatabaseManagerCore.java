@@ -18,20 +18,27 @@ import com.softwareverde.bitcoin.server.module.node.database.transaction.Transac
 import com.softwareverde.bitcoin.server.module.node.database.transaction.fullnode.input.UnconfirmedTransactionInputDatabaseManager;
 import com.softwareverde.bitcoin.server.module.node.database.transaction.fullnode.output.UnconfirmedTransactionOutputDatabaseManager;
 import com.softwareverde.bitcoin.server.module.node.database.transaction.fullnode.utxo.UnspentTransactionOutputDatabaseManager;
+import com.softwareverde.bitcoin.server.module.node.database.transaction.fullnode.utxo.UtxoSnapshotDatabaseManager;
 import com.softwareverde.bitcoin.server.module.node.store.BlockStore;
 import com.softwareverde.bitcoin.slp.SlpTokenId;
 import com.softwareverde.bitcoin.transaction.MutableTransaction;
 import com.softwareverde.bitcoin.transaction.Transaction;
 import com.softwareverde.bitcoin.transaction.TransactionId;
 import com.softwareverde.bitcoin.transaction.TransactionInflater;
+import com.softwareverde.bitcoin.transaction.input.MutableTransactionInput;
 import com.softwareverde.bitcoin.transaction.input.TransactionInput;
 import com.softwareverde.bitcoin.transaction.input.UnconfirmedTransactionInputId;
 import com.softwareverde.bitcoin.transaction.locktime.ImmutableLockTime;
+import com.softwareverde.bitcoin.transaction.locktime.ImmutableSequenceNumber;
 import com.softwareverde.bitcoin.transaction.locktime.LockTime;
+import com.softwareverde.bitcoin.transaction.output.MutableTransactionOutput;
 import com.softwareverde.bitcoin.transaction.output.TransactionOutput;
 import com.softwareverde.bitcoin.transaction.output.UnconfirmedTransactionOutputId;
 import com.softwareverde.bitcoin.transaction.output.identifier.TransactionOutputIdentifier;
+import com.softwareverde.bitcoin.transaction.script.locking.ImmutableLockingScript;
+import com.softwareverde.bitcoin.transaction.script.unlocking.ImmutableUnlockingScript;
 import com.softwareverde.constable.bytearray.ByteArray;
+import com.softwareverde.constable.bytearray.MutableByteArray;
 import com.softwareverde.constable.list.JavaListWrapper;
 import com.softwareverde.constable.list.List;
 import com.softwareverde.constable.list.immutable.ImmutableListBuilder;
@@ -130,7 +137,7 @@ public class FullNodeTransactionDatabaseManagerCore implements FullNodeTransacti
         );
     }
 
-    protected void _storeUnconfirmedTransaction(final TransactionId transactionId, final Transaction transaction) throws DatabaseException {
+    protected void _storeUnconfirmedTransaction(final TransactionId transactionId, final Transaction transaction, final Long timestamp) throws DatabaseException {
         final DatabaseConnection databaseConnection = _databaseManager.getDatabaseConnection();
 
         final java.util.List<Row> rows = databaseConnection.query(
@@ -141,7 +148,6 @@ public class FullNodeTransactionDatabaseManagerCore implements FullNodeTransacti
 
         final Long version = transaction.getVersion();
         final LockTime lockTime = transaction.getLockTime();
-        final Long timestamp = _systemTime.getCurrentTimeInSeconds();
 
         final Long unconfirmedTransactionId = databaseConnection.executeSql(
             new Query("INSERT INTO unconfirmed_transactions (transaction_id, version, lock_time, timestamp) VALUES (?, ?, ?, ?)")
@@ -166,22 +172,25 @@ public class FullNodeTransactionDatabaseManagerCore implements FullNodeTransacti
         final DatabaseConnection databaseConnection = _databaseManager.getDatabaseConnection();
 
         { // Attempt to load the Transaction from a Block on disk...
+            // NOTE: A Transaction may be associated with multiple Blocks (i.e. across forks); if the Block data has been pruned, a higher Block may still be available.
             final java.util.List<Row> rows = databaseConnection.query(
-                new Query("SELECT blocks.hash AS block_hash, blocks.block_height, block_transactions.disk_offset, transactions.byte_count FROM transactions INNER JOIN block_transactions ON transactions.id = block_transactions.transaction_id INNER JOIN blocks ON blocks.id = block_transactions.block_id WHERE transactions.id = ? LIMIT 1")
+                new Query("SELECT blocks.hash AS block_hash, blocks.block_height, block_transactions.disk_offset, transactions.byte_count FROM transactions INNER JOIN block_transactions ON transactions.id = block_transactions.transaction_id INNER JOIN blocks ON blocks.id = block_transactions.block_id WHERE transactions.id = ? ORDER BY blocks.block_height DESC")
                     .setParameter(transactionId)
             );
             if (! rows.isEmpty()) {
-                final Row row = rows.get(0);
-                final Sha256Hash blockHash = Sha256Hash.copyOf(row.getBytes("block_hash"));
-                final Long blockHeight = row.getLong("block_height");
-                final Long diskOffset = row.getLong("disk_offset");
-                final Integer byteCount = row.getInteger("byte_count");
+                for (final Row row : rows) {
+                    final Sha256Hash blockHash = Sha256Hash.copyOf(row.getBytes("block_hash"));
+                    final Long blockHeight = row.getLong("block_height");
+                    final Long diskOffset = row.getLong("disk_offset");
+                    final Integer byteCount = row.getInteger("byte_count");
 
-                final ByteArray transactionData = _blockStore.readFromBlock(blockHash, blockHeight, diskOffset, byteCount);
-                if (transactionData == null) { return null; }
+                    final ByteArray transactionData = _blockStore.readFromBlock(blockHash, blockHeight, diskOffset, byteCount);
+                    if (transactionData == null) { continue; }
 
-                final TransactionInflater transactionInflater = _masterInflater.getTransactionInflater();
-                return transactionInflater.fromBytes(transactionData);
+                    final TransactionInflater transactionInflater = _masterInflater.getTransactionInflater();
+                    return transactionInflater.fromBytes(transactionData);
+                }
+                return null;
             }
         }
 
@@ -406,7 +415,21 @@ public class FullNodeTransactionDatabaseManagerCore implements FullNodeTransacti
 
         TransactionDatabaseManager.UNCONFIRMED_TRANSACTIONS_WRITE_LOCK.lock();
         try {
-            _storeUnconfirmedTransaction(transactionId, transaction);
+            _storeUnconfirmedTransaction(transactionId, transaction, _systemTime.getCurrentTimeInSeconds());
+        }
+        finally {
+            TransactionDatabaseManager.UNCONFIRMED_TRANSACTIONS_WRITE_LOCK.unlock();
+        }
+        return transactionId;
+    }
+
+    @Override
+    public TransactionId storeUnconfirmedTransaction(final Transaction transaction, final Long timestamp) throws DatabaseException {
+        final TransactionId transactionId = _storeTransactionHash(transaction);
+
+        TransactionDatabaseManager.UNCONFIRMED_TRANSACTIONS_WRITE_LOCK.lock();
+        try {
+            _storeUnconfirmedTransaction(transactionId, transaction, timestamp);
         }
         finally {
             TransactionDatabaseManager.UNCONFIRMED_TRANSACTIONS_WRITE_LOCK.unlock();
@@ -422,7 +445,7 @@ public class FullNodeTransactionDatabaseManagerCore implements FullNodeTransacti
         try {
             for (final Transaction transaction : transactions) {
                 final TransactionId transactionId = _storeTransactionHash(transaction);
-                _storeUnconfirmedTransaction(transactionId, transaction);
+                _storeUnconfirmedTransaction(transactionId, transaction, _systemTime.getCurrentTimeInSeconds());
                 transactionIds.add(transactionId);
             }
         }
@@ -441,7 +464,7 @@ public class FullNodeTransactionDatabaseManagerCore implements FullNodeTransacti
 
         TransactionDatabaseManager.UNCONFIRMED_TRANSACTIONS_WRITE_LOCK.lock();
         try {
-            _storeUnconfirmedTransaction(transactionId, transaction);
+            _storeUnconfirmedTransaction(transactionId, transaction, _systemTime.getCurrentTimeInSeconds());
         }
         finally {
             TransactionDatabaseManager.UNCONFIRMED_TRANSACTIONS_WRITE_LOCK.unlock();
@@ -467,7 +490,7 @@ public class FullNodeTransactionDatabaseManagerCore implements FullNodeTransacti
                 final TransactionId transactionId = transactionIds.get(i);
                 final Transaction transaction = transactions.get(i);
 
-                _storeUnconfirmedTransaction(transactionId, transaction);
+                _storeUnconfirmedTransaction(transactionId, transaction, _systemTime.getCurrentTimeInSeconds());
             }
         }
         finally {
@@ -515,6 +538,124 @@ public class FullNodeTransactionDatabaseManagerCore implements FullNodeTransacti
         }
     }
 
+    @Override
+    public Map<TransactionId, Transaction> getUnconfirmedTransactions(final List<TransactionId> transactionIds) throws DatabaseException {
+        if (transactionIds.isEmpty()) { return new HashMap<TransactionId, Transaction>(0); }
+
+        final DatabaseConnection databaseConnection = _databaseManager.getDatabaseConnection();
+
+        final java.util.List<Row> transactionRows = new ArrayList<Row>(transactionIds.getCount());
+        final java.util.List<Row> transactionInputRows = new ArrayList<Row>();
+        final java.util.List<Row> transactionOutputRows = new ArrayList<Row>();
+
+        TransactionDatabaseManager.UNCONFIRMED_TRANSACTIONS_READ_LOCK.lock();
+        try {
+            final int batchSize = Math.min(1024, _databaseManager.getMaxQueryBatchSize());
+            final BatchRunner<TransactionId> batchRunner = new BatchRunner<TransactionId>(batchSize, false);
+            batchRunner.run(transactionIds, new BatchRunner.Batch<TransactionId>() {
+                @Override
+                public void run(final List<TransactionId> batchItems) throws Exception {
+                    transactionRows.addAll(databaseConnection.query(
+                        new Query("SELECT transactions.id, transactions.hash, unconfirmed_transactions.version, unconfirmed_transactions.lock_time FROM unconfirmed_transactions INNER JOIN transactions ON transactions.id = unconfirmed_transactions.transaction_id WHERE unconfirmed_transactions.transaction_id IN (?)")
+                            .setInClauseParameters(batchItems, ValueExtractor.IDENTIFIER)
+                    ));
+
+                    transactionInputRows.addAll(databaseConnection.query(
+                        new Query("SELECT transaction_id, previous_transaction_hash, previous_transaction_output_index, sequence_number, unlocking_script FROM unconfirmed_transaction_inputs WHERE transaction_id IN (?) ORDER BY transaction_id ASC, `index` ASC")
+                            .setInClauseParameters(batchItems, ValueExtractor.IDENTIFIER)
+                    ));
+
+                    transactionOutputRows.addAll(databaseConnection.query(
+                        new Query("SELECT transaction_id, `index`, amount, locking_script FROM unconfirmed_transaction_outputs WHERE transaction_id IN (?) ORDER BY transaction_id ASC, `index` ASC")
+                            .setInClauseParameters(batchItems, ValueExtractor.IDENTIFIER)
+                    ));
+                }
+            });
+        }
+        finally {
+            TransactionDatabaseManager.UNCONFIRMED_TRANSACTIONS_READ_LOCK.unlock();
+        }
+
+        final HashMap<Long, MutableTransaction> mutableTransactions = new HashMap<Long, MutableTransaction>(transactionRows.size());
+        final HashMap<Long, Sha256Hash> transactionHashes = new HashMap<Long, Sha256Hash>(transactionRows.size());
+        for (final Row row : transactionRows) {
+            final Long transactionId = row.getLong("id");
+
+            final MutableTransaction transaction = new MutableTransaction();
+            transaction.setVersion(row.getLong("version"));
+            transaction.setLockTime(new ImmutableLockTime(row.getLong("lock_time")));
+
+            mutableTransactions.put(transactionId, transaction);
+            transactionHashes.put(transactionId, Sha256Hash.copyOf(row.getBytes("hash")));
+        }
+
+        for (final Row row : transactionInputRows) {
+            final MutableTransaction transaction = mutableTransactions.get(row.getLong("transaction_id"));
+            if (transaction == null) { continue; }
+
+            final MutableTransactionInput transactionInput = new MutableTransactionInput();
+            transactionInput.setPreviousOutputTransactionHash(Sha256Hash.copyOf(row.getBytes("previous_transaction_hash")));
+            transactionInput.setPreviousOutputIndex(row.getInteger("previous_transaction_output_index"));
+            transactionInput.setSequenceNumber(new ImmutableSequenceNumber(row.getLong("sequence_number")));
+            transactionInput.setUnlockingScript(new ImmutableUnlockingScript(MutableByteArray.wrap(row.getBytes("unlocking_script"))));
+            transaction.addTransactionInput(transactionInput);
+        }
+
+        for (final Row row : transactionOutputRows) {
+            final MutableTransaction transaction = mutableTransactions.get(row.getLong("transaction_id"));
+            if (transaction == null) { continue; }
+
+            final MutableTransactionOutput transactionOutput = new MutableTransactionOutput();
+            transactionOutput.setIndex(row.getInteger("index"));
+            transactionOutput.setAmount(row.getLong("amount"));
+            transactionOutput.setLockingScript(new ImmutableLockingScript(MutableByteArray.wrap(row.getBytes("locking_script"))));
+            transaction.addTransactionOutput(transactionOutput);
+        }
+
+        final HashMap<TransactionId, Transaction> transactions = new HashMap<TransactionId, Transaction>(mutableTransactions.size());
+        for (final Long transactionId : mutableTransactions.keySet()) {
+            final MutableTransaction transaction = mutableTransactions.get(transactionId);
+            final Sha256Hash expectedTransactionHash = transactionHashes.get(transactionId);
+            if (! Util.areEqual(expectedTransactionHash, transaction.getHash())) { continue; } // The Transaction was modified between queries...
+
+            transactions.put(TransactionId.wrap(transactionId), transaction);
+        }
+        return transactions;
+    }
+
+    @Override
+    public Map<TransactionId, Long> getUnconfirmedTransactionTimestamps(final List<TransactionId> transactionIds) throws DatabaseException {
+        if (transactionIds.isEmpty()) { return new HashMap<TransactionId, Long>(0); }
+
+        final DatabaseConnection databaseConnection = _databaseManager.getDatabaseConnection();
+
+        final java.util.List<Row> rows = new ArrayList<Row>(transactionIds.getCount());
+        TransactionDatabaseManager.UNCONFIRMED_TRANSACTIONS_READ_LOCK.lock();
+        try {
+            final int batchSize = Math.min(1024, _databaseManager.getMaxQueryBatchSize());
+            final BatchRunner<TransactionId> batchRunner = new BatchRunner<TransactionId>(batchSize, false);
+            batchRunner.run(transactionIds, new BatchRunner.Batch<TransactionId>() {
+                @Override
+                public void run(final List<TransactionId> batchItems) throws Exception {
+                    rows.addAll(databaseConnection.query(
+                        new Query("SELECT transaction_id, timestamp FROM unconfirmed_transactions WHERE transaction_id IN (?)")
+                            .setInClauseParameters(batchItems, ValueExtractor.IDENTIFIER)
+                    ));
+                }
+            });
+        }
+        finally {
+            TransactionDatabaseManager.UNCONFIRMED_TRANSACTIONS_READ_LOCK.unlock();
+        }
+
+        final HashMap<TransactionId, Long> timestamps = new HashMap<TransactionId, Long>(rows.size());
+        for (final Row row : rows) {
+            final TransactionId transactionId = TransactionId.wrap(row.getLong("transaction_id"));
+            timestamps.put(transactionId, row.getLong("timestamp"));
+        }
+        return timestamps;
+    }
+
     @Override
     public List<TransactionId> getUnconfirmedTransactionIds() throws DatabaseException {
         final DatabaseConnection databaseConnection = _databaseManager.getDatabaseConnection();
@@ -630,13 +771,23 @@ public class FullNodeTransactionDatabaseManagerCore implements FullNodeTransacti
                         if (previousTransactionId == null) { return null; }
 
                         previousTransaction = _getTransaction(previousTransactionId, true);
-                        if (previousTransaction == null) { return null; }
-                        cachedTransactions.put(previousTransactionHash, previousTransaction);
+                        if (previousTransaction != null) {
+                            cachedTransactions.put(previousTransactionHash, previousTransaction);
+                        }
                     }
                 }
 
-                final List<TransactionOutput> previousTransactionOutputs = previousTransaction.getTransactionOutputs();
                 final Integer previousTransactionOutputIndex = transactionInput.getPreviousOutputIndex();
+                if (previousTransaction == null) { // The previous Transaction's Block may have been pruned...
+                    final UtxoSnapshotDatabaseManager utxoSnapshotDatabaseManager = _databaseManager.getUtxoSnapshotDatabaseManager();
+                    final TransactionOutput previousTransactionOutput = utxoSnapshotDatabaseManager.getTransactionOutput(new TransactionOutputIdentifier(previousTransactionHash, previousTransactionOutputIndex));
+                    if (previousTransactionOutput == null) { return null; }
+
+                    totalInputAmount += previousTransactionOutput.getAmount();
+                    continue;
+                }
+
+                final List<TransactionOutput> previousTransactionOutputs = previousTransaction.getTransactionOutputs();
                 if (previousTransactionOutputIndex >= previousTransactionOutputs.getCount()) { return null; }
 
                 final TransactionOutput previousTransactionOutput = previousTransactionOutputs.get(previousTransactionOutputIndex);
@@ -798,10 +949,11 @@ public class FullNodeTransactionDatabaseManagerCore implements FullNodeTransacti
         final Integer outputIndex = transactionOutputIdentifier.getOutputIndex();
 
         final TransactionId transactionId = _getTransactionId(transactionHash);
-        if (transactionId == null) { return null; }
-
-        final Transaction transaction = _getTransaction(transactionId, true);
-        if (transaction == null) { return null; }
+        final Transaction transaction = (transactionId != null ? _getTransaction(transactionId, true) : null);
+        if (transaction == null) { // The Transaction may have been mined before the Block of an imported UTXO snapshot, or within a pruned Block...
+            final UtxoSnapshotDatabaseManager utxoSnapshotDatabaseManager = _databaseManager.getUtxoSnapshotDatabaseManager();
+            return utxoSnapshotDatabaseManager.getTransactionOutput(transactionOutputIdentifier);
+        }
 
         final List<TransactionOutput> transactionOutputs = transaction.getTransactionOutputs();
         if (outputIndex >= transactionOutputs.getCount()) { return null; }
@@ -7,12 +7,16 @@ import com.softwareverde.bitcoin.server.database.DatabaseConnection;
 import com.softwareverde.bitcoin.server.database.query.BatchedInsertQuery;
 import com.softwareverde.bitcoin.server.database.query.Query;
 import com.softwareverde.bitcoin.server.database.query.ValueExtractor;
+import com.softwareverde.bitcoin.server.metrics.Gauge;
+import com.softwareverde.bitcoin.server.metrics.Metrics;
 import com.softwareverde.bitcoin.server.module.node.database.DatabaseManager;
 import com.softwareverde.bitcoin.server.module.node.database.DatabaseManagerFactory;
+import com.softwareverde.bitcoin.server.module.node.database.block.fullnode.FullNodeBlockDatabaseManager;
 import com.softwareverde.bitcoin.server.module.node.database.fullnode.FullNodeDatabaseManager;
 import com.softwareverde.bitcoin.server.module.node.database.transaction.fullnode.FullNodeTransactionDatabaseManager;
 import com.softwareverde.bitcoin.server.module.node.database.transaction.fullnode.utxo.jvm.JvmSpentState;
 import com.softwareverde.bitcoin.server.module.node.database.transaction.fullnode.utxo.jvm.UnspentTransactionOutput;
+import com.softwareverde.bitcoin.server.module.node.database.transaction.fullnode.utxo.jvm.UtxoCommitPartition;
 import com.softwareverde.bitcoin.server.module.node.database.transaction.fullnode.utxo.jvm.UtxoKey;
 import com.softwareverde.bitcoin.server.module.node.database.transaction.fullnode.utxo.jvm.UtxoValue;
 import com.softwareverde.bitcoin.server.module.node.store.BlockStore;
@@ -35,21 +39,25 @@ import com.softwareverde.database.util.TransactionUtil;
 import com.softwareverde.logging.Logger;
 import com.softwareverde.util.Container;
 import com.softwareverde.util.timer.MilliTimer;
-import com.softwareverde.util.timer.NanoTimer;
 
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.Map;
+import java.util.NavigableMap;
 import java.util.TreeMap;
-import java.util.concurrent.atomic.AtomicInteger;
-import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 public class UnspentTransactionOutputJvmManager implements UnspentTransactionOutputDatabaseManager {
     protected static final Container<Long> UNCOMMITTED_UTXO_BLOCK_HEIGHT = new Container<Long>(null); // null indicates uninitialized; -1 represents an invalidated set, and must first be cleared (via _clearUncommittedUtxoSet) before any other operations are performed.
     protected static final String COMMITTED_UTXO_BLOCK_HEIGHT_KEY = "committed_utxo_block_height";
+    protected static final String COMMIT_RECOVERY_BLOCK_HEIGHT_KEY = "utxo_commit_recovery_block_height";
+    protected static final Container<Long> COMMIT_RECOVERY_BLOCK_HEIGHT = new Container<Long>(null); // null indicates not yet loaded; zero indicates the last commit completed.
+
+    protected static final Integer COMMIT_PARTITION_COUNT = 4;
+    protected static final Integer COMMIT_CHECKPOINT_ITEM_COUNT = 32768;
+    protected static final Integer MAX_COMMIT_PARTITION_ATTEMPT_COUNT = 3;
 
     protected static Long getUtxoBlockHeight() {
         return Util.coalesce(UNCOMMITTED_UTXO_BLOCK_HEIGHT.value, 0L);
@@ -63,6 +71,22 @@ public class UnspentTransactionOutputJvmManager implements UnspentTransactionOut
         return (UNCOMMITTED_UTXO_BLOCK_HEIGHT.value == null);
     }
 
+    /**
+     * Returns the number of UTXO lookups that were resolved without querying the committed set on disk.
+     *  The count is cumulative for the lifetime of the process.
+     */
+    public static Long getCacheHitCount() {
+        return Metrics.UNSPENT_TRANSACTION_OUTPUT_CACHE_HIT_COUNT.get();
+    }
+
+    /**
+     * Returns the number of UTXO lookups that required querying the committed set on disk.
+     *  The count is cumulative for the lifetime of the process.
+     */
+    public static Long getCacheMissCount() {
+        return Metrics.UNSPENT_TRANSACTION_OUTPUT_CACHE_MISS_COUNT.get();
+    }
+
     protected static Boolean isUtxoCacheReady() {
         final Long uncommittedUtxoBlockHeight = UNCOMMITTED_UTXO_BLOCK_HEIGHT.value;
         return ( (uncommittedUtxoBlockHeight != null) && (uncommittedUtxoBlockHeight >= 0) );
@@ -113,6 +137,14 @@ public class UnspentTransactionOutputJvmManager implements UnspentTransactionOut
     protected static final TreeMap<UtxoKey, UtxoValue> UTXO_SET = new TreeMap<UtxoKey, UtxoValue>(UtxoKey.COMPARATOR);
     protected static final TreeMap<UtxoKey, UtxoValue> DOUBLE_BUFFER = new TreeMap<UtxoKey, UtxoValue>(UtxoKey.COMPARATOR);
     protected static Thread DOUBLE_BUFFER_THREAD = null;
+    static {
+        Metrics.REGISTRY.registerGauge("bitcoin_utxo_cache_size", "Number of UTXOs held by the in-memory UTXO set.", new Gauge.Source() {
+            @Override
+            public Number getValue() {
+                return UTXO_SET.size(); // NOTE: Read without the mutex; the value is only approximate while the set is being modified.
+            }
+        });
+    }
 
     protected final Long _maxUtxoCount;
     protected final MasterInflater _masterInflater;
@@ -125,6 +157,7 @@ public class UnspentTransactionOutputJvmManager implements UnspentTransactionOut
 
     protected void _clearUncommittedUtxoSet() {
         UNCOMMITTED_UTXO_BLOCK_HEIGHT.value = null;
+        COMMIT_RECOVERY_BLOCK_HEIGHT.value = null;
         UTXO_SET.clear();
     }
 
@@ -159,6 +192,51 @@ public class UnspentTransactionOutputJvmManager implements UnspentTransactionOut
         return Util.coalesce(row.getLong("value"), 0L);
     }
 
+    /**
+     * Returns the target block height of a commit that was interrupted before completing, or zero if the last commit completed.
+     */
+    protected Long _getCommitRecoveryBlockHeight() throws DatabaseException {
+        final Long cachedCommitRecoveryBlockHeight = COMMIT_RECOVERY_BLOCK_HEIGHT.value;
+        if (cachedCommitRecoveryBlockHeight != null) { return cachedCommitRecoveryBlockHeight; }
+
+        final DatabaseConnection databaseConnection = _databaseManager.getDatabaseConnection();
+        final java.util.List<Row> rows = databaseConnection.query(
+            new Query("SELECT value FROM properties WHERE `key` = ?")
+                .setParameter(COMMIT_RECOVERY_BLOCK_HEIGHT_KEY)
+        );
+
+        final Long commitRecoveryBlockHeight;
+        if (rows.isEmpty()) {
+            commitRecoveryBlockHeight = 0L;
+        }
+        else {
+            final Row row = rows.get(0);
+            commitRecoveryBlockHeight = Util.coalesce(row.getLong("value"), 0L);
+            Logger.info("Recovering from an interrupted UTXO commit to block height " + commitRecoveryBlockHeight + ".");
+        }
+
+        COMMIT_RECOVERY_BLOCK_HEIGHT.value = commitRecoveryBlockHeight;
+        return commitRecoveryBlockHeight;
+    }
+
+    /**
+     * Returns the in-memory JvmSpentState of the UTXO, checking the UTXO_SET before the DOUBLE_BUFFER.
+     *  Returns null if the UTXO is not cached and must be looked up within the committed set on disk.
+     *  UTXO_READ_MUTEX (or UTXO_WRITE_MUTEX) must be held by the caller.
+     */
+    protected static JvmSpentState _getCachedSpentState(final UtxoKey utxoKey) {
+        final UtxoValue utxoValue = UTXO_SET.get(utxoKey);
+        if (utxoValue != null) { return utxoValue.getSpentState(); }
+
+        final UtxoValue doubleBufferedUtxoValue;
+        synchronized (DOUBLE_BUFFER) {
+            doubleBufferedUtxoValue = DOUBLE_BUFFER.get(utxoKey);
+        }
+        if (doubleBufferedUtxoValue == null) { return null; }
+
+        return doubleBufferedUtxoValue.getSpentState();
+    }
+
     protected void _markTransactionOutputsAsSpent(final List<TransactionOutputIdentifier> spentTransactionOutputIdentifiers) {
         final TreeMap<UtxoKey, UtxoValue> queuedUpdates = new TreeMap<UtxoKey, UtxoValue>(UtxoKey.COMPARATOR);
         for (final TransactionOutputIdentifier transactionOutputIdentifier : spentTransactionOutputIdentifiers) {
@@ -191,13 +269,17 @@ public class UnspentTransactionOutputJvmManager implements UnspentTransactionOut
         UTXO_SET.putAll(queuedUpdates);
     }
 
-    protected void _insertUnspentTransactionOutputs(final List<TransactionOutputIdentifier> unspentTransactionOutputIdentifiers, final Long blockHeight) {
+    protected void _insertUnspentTransactionOutputs(final List<TransactionOutputIdentifier> unspentTransactionOutputIdentifiers, final Long blockHeight) throws DatabaseException {
+        // UTXOs re-created while replaying blocks of an interrupted commit may have been partially written to disk, so they must be flushed regardless of their final state.
+        final Long commitRecoveryBlockHeight = _getCommitRecoveryBlockHeight();
+        final boolean isFlushMandatory = ( (commitRecoveryBlockHeight > 0L) && (blockHeight <= commitRecoveryBlockHeight) );
+
         final UtxoValue utxoValue;
         { // Share the same value reference for batched UTXOs when applicable to conserve memory.
             final JvmSpentState spentState = new JvmSpentState();
             spentState.setIsSpent(false);
             spentState.setIsFlushedToDisk(false);
-            spentState.setIsFlushMandatory(false);
+            spentState.setIsFlushMandatory(isFlushMandatory);
             utxoValue = new UtxoValue(spentState, blockHeight);
         }
 
@@ -284,159 +366,227 @@ public class UnspentTransactionOutputJvmManager implements UnspentTransactionOut
         UTXO_SET.putAll(queuedUpdates);
     }
 
-    protected static void commitDoubleBufferedUnspentTransactionOutputs(final Long newCommittedBlockHeight, final DatabaseManager databaseManager) throws Exception {
-        final DatabaseConnection databaseConnection = databaseManager.getDatabaseConnection();
-
-        final int maxUtxoPerBatch = Math.min(1024, databaseManager.getMaxQueryBatchSize());
-
-        final AtomicLong onDiskDeleteExecutionTime = new AtomicLong(0L);
-        final AtomicInteger onDiskDeleteItemCount = new AtomicInteger(0);
-        final AtomicInteger onDiskDeleteBatchCount = new AtomicInteger(0);
-        final BatchRunner.Batch<UtxoKey> onDiskUtxoDeleteBatch = new BatchRunner.Batch<UtxoKey>() {
+    protected static void _markUnspentTransactionOutputsAsSpentOnDisk(final List<UtxoKey> unspentTransactionOutputs, final DatabaseConnection databaseConnection) throws DatabaseException {
+        final Query query = new Query("UPDATE committed_unspent_transaction_outputs SET is_spent = 1 WHERE (transaction_hash, `index`) IN (?)");
+        query.setInClauseParameters(unspentTransactionOutputs, new ValueExtractor<UtxoKey>() {
             @Override
-            public void run(final List<UtxoKey> unspentTransactionOutputs) throws Exception {
-                onDiskDeleteBatchCount.incrementAndGet();
-
-                final Query query = new Query("UPDATE committed_unspent_transaction_outputs SET is_spent = 1 WHERE (transaction_hash, `index`) IN (?)");
-                query.setInClauseParameters(unspentTransactionOutputs, new ValueExtractor<UtxoKey>() {
-                    @Override
-                    public InClauseParameter extractValues(final UtxoKey value) {
-                        onDiskDeleteItemCount.incrementAndGet();
-
-                        final TypedParameter transactionHash = new TypedParameter(value.transactionHash);
-                        final TypedParameter outputIndex = new TypedParameter(value.outputIndex);
-                        return new InClauseParameter(transactionHash, outputIndex);
-                    }
-                });
-
-                final NanoTimer nanoTimer = new NanoTimer();
-                nanoTimer.start();
-                databaseConnection.executeSql(query);
-                nanoTimer.stop();
-                onDiskDeleteExecutionTime.addAndGet(nanoTimer.getMillisecondsElapsed().longValue());
+            public InClauseParameter extractValues(final UtxoKey value) {
+                final TypedParameter transactionHash = new TypedParameter(value.transactionHash);
+                final TypedParameter outputIndex = new TypedParameter(value.outputIndex);
+                return new InClauseParameter(transactionHash, outputIndex);
             }
-        };
+        });
 
-        final AtomicLong onDiskInsertExecutionTime = new AtomicLong(0L);
-        final AtomicInteger onDiskInsertItemCount = new AtomicInteger(0);
-        final AtomicInteger onDiskInsertBatchCount = new AtomicInteger(0);
-        final BatchRunner.Batch<UnspentTransactionOutput> onDiskUtxoInsertBatch = new BatchRunner.Batch<UnspentTransactionOutput>() {
-            @Override
-            public void run(final List<UnspentTransactionOutput> batchItems) throws Exception {
-                onDiskInsertBatchCount.incrementAndGet();
+        databaseConnection.executeSql(query);
+    }
 
-                // NOTE: block_height is currently unused, however the field could become useful during re-loading UTXOs
-                //  into the cache based on recency, to facilitate UTXO commitments, and to facilitate more intelligent reorgs.
+    protected static void _insertUnspentTransactionOutputsOnDisk(final List<UnspentTransactionOutput> unspentTransactionOutputs, final DatabaseConnection databaseConnection) throws DatabaseException {
+        // NOTE: block_height is currently unused, however the field could become useful during re-loading UTXOs
+        //  into the cache based on recency, to facilitate UTXO commitments, and to facilitate more intelligent reorgs.
+
+        // NOTE: updating is_spent to zero on a duplicate key is required in order to undo a block that has been committed to disk.
+        final Query batchedInsertQuery = new BatchedInsertQuery("INSERT INTO committed_unspent_transaction_outputs (transaction_hash, `index`, block_height) VALUES (?, ?, ?) ON DUPLICATE KEY UPDATE is_spent = 0");
+        for (final UnspentTransactionOutput unspentTransactionOutput : unspentTransactionOutputs) {
+            final long blockHeight = unspentTransactionOutput.getBlockHeight();
+            batchedInsertQuery.setParameter(unspentTransactionOutput.getTransactionHash());
+            batchedInsertQuery.setParameter(unspentTransactionOutput.getOutputIndex());
+            batchedInsertQuery.setParameter(Math.max(blockHeight, 0L)); // block_height is an UNSIGNED INT; in the case of a reorg UTXO, the UTXO height can be set to -1, so 0 is used as a compatible placeholder.
+        }
 
-                // NOTE: updating is_spent to zero on a duplicate key is required in order to undo a block that has been committed to disk.
-                final Query batchedInsertQuery = new BatchedInsertQuery("INSERT INTO committed_unspent_transaction_outputs (transaction_hash, `index`, block_height) VALUES (?, ?, ?) ON DUPLICATE KEY UPDATE is_spent = 0");
-                for (final UnspentTransactionOutput transactionOutputIdentifier : batchItems) {
-                    onDiskInsertItemCount.incrementAndGet();
+        databaseConnection.executeSql(batchedInsertQuery);
+    }
 
-                    final long blockHeight = transactionOutputIdentifier.getBlockHeight();
-                    batchedInsertQuery.setParameter(transactionOutputIdentifier.getTransactionHash());
-                    batchedInsertQuery.setParameter(transactionOutputIdentifier.getOutputIndex());
-                    batchedInsertQuery.setParameter(Math.max(blockHeight, 0L)); // block_height is an UNSIGNED INT; in the case of a reorg UTXO, the UTXO height can be set to -1, so 0 is used as a compatible placeholder.
-                }
-                final NanoTimer nanoTimer = new NanoTimer();
-                nanoTimer.start();
-                databaseConnection.executeSql(batchedInsertQuery);
-                nanoTimer.stop();
-                onDiskInsertExecutionTime.addAndGet(nanoTimer.getMillisecondsElapsed().longValue());
-            }
-        };
+    /**
+     * Writes the partition's uncommitted unspent UTXOs to disk in primary-key order; spent UTXOs are skipped (see _commitSpentUnspentTransactionOutputs).
+     *  Every COMMIT_CHECKPOINT_ITEM_COUNT UTXOs the sql-transaction is committed and the partition's checkpoint is advanced,
+     *  so that a failed attempt may be resumed from the last checkpoint.
+     */
+    protected static void _commitPartition(final UtxoCommitPartition partition, final DatabaseManager databaseManager) throws DatabaseException {
+        final DatabaseConnection databaseConnection = databaseManager.getDatabaseConnection();
+        final int maxUtxoPerBatch = Math.min(1024, databaseManager.getMaxQueryBatchSize());
 
-        long totalTimeWaited = 0L;
-        final MilliTimer iterationTimer = new MilliTimer();
-        iterationTimer.start();
+        final MutableList<UnspentTransactionOutput> nextInsertBatch = new MutableList<UnspentTransactionOutput>(maxUtxoPerBatch);
 
-        final int startSize = DOUBLE_BUFFER.size();
-        int i = 0;
         final JvmSpentState transientSpentState = new JvmSpentState(); // Re-initialize the same instance instead of creating many objects.
-        final Iterator<Map.Entry<UtxoKey, UtxoValue>> iterator = DOUBLE_BUFFER.entrySet().iterator();
+        int uncheckpointedItemCount = 0;
 
-        final MutableList<UtxoKey> nextDeleteBatch = new MutableList<UtxoKey>(maxUtxoPerBatch);
-        final MutableList<UnspentTransactionOutput> nextInsertBatch = new MutableList<UnspentTransactionOutput>(maxUtxoPerBatch);
-
-        while (iterator.hasNext()) {
-            final Map.Entry<UtxoKey, UtxoValue> entry = iterator.next();
+        TransactionUtil.startTransaction(databaseConnection);
+        for (final Map.Entry<UtxoKey, UtxoValue> entry : partition.getUncommittedUtxos().entrySet()) {
             final UtxoKey utxoKey = entry.getKey();
             final UtxoValue utxoValue = entry.getValue();
 
             transientSpentState.initialize(utxoValue.spentStateCode);
 
-            // All items in the double-buffer are scheduled for flushing, either delete or insert...
-            if (transientSpentState.isSpent()) {
-                nextDeleteBatch.add(utxoKey);
-            }
-            else {
-                // Insert the unspent UTXO to disk.
+            // All unspent items in the double-buffer are scheduled for insertion...
+            if (! transientSpentState.isSpent()) {
                 final UnspentTransactionOutput unspentTransactionOutput = new UnspentTransactionOutput(utxoKey, utxoValue);
                 nextInsertBatch.add(unspentTransactionOutput);
             }
-
-            if (nextDeleteBatch.getCount() >= maxUtxoPerBatch) {
-                final NanoTimer nanoTimer = new NanoTimer();
-                nanoTimer.start();
-
-                onDiskUtxoDeleteBatch.run(nextDeleteBatch);
-                nextDeleteBatch.clear();
-
-                nanoTimer.stop();
-                totalTimeWaited += nanoTimer.getMillisecondsElapsed();
-            }
+            uncheckpointedItemCount += 1;
 
             if (nextInsertBatch.getCount() >= maxUtxoPerBatch) {
-                final NanoTimer nanoTimer = new NanoTimer();
-                nanoTimer.start();
-
-                onDiskUtxoInsertBatch.run(nextInsertBatch);
+                _insertUnspentTransactionOutputsOnDisk(nextInsertBatch, databaseConnection);
                 nextInsertBatch.clear();
-
-                nanoTimer.stop();
-                totalTimeWaited += nanoTimer.getMillisecondsElapsed();
             }
 
-            i += 1;
-
-            if (startSize >= 10) {
-                if ((i % (startSize / 10)) == 0) {
-                    Logger.trace("Flushing thread " + ((10 * i) / (startSize / 10)) + "% done. " + (startSize - i) + " remaining.");
+            if (uncheckpointedItemCount >= COMMIT_CHECKPOINT_ITEM_COUNT) {
+                if (! nextInsertBatch.isEmpty()) {
+                    _insertUnspentTransactionOutputsOnDisk(nextInsertBatch, databaseConnection);
+                    nextInsertBatch.clear();
                 }
+
+                TransactionUtil.commitTransaction(databaseConnection);
+                partition.setCheckpoint(utxoKey, uncheckpointedItemCount);
+                uncheckpointedItemCount = 0;
+
+                TransactionUtil.startTransaction(databaseConnection);
             }
         }
 
-        if (! nextDeleteBatch.isEmpty()) {
-            onDiskUtxoDeleteBatch.run(nextDeleteBatch);
-            nextDeleteBatch.clear();
+        if (! nextInsertBatch.isEmpty()) {
+            _insertUnspentTransactionOutputsOnDisk(nextInsertBatch, databaseConnection);
         }
 
-        if (! nextInsertBatch.isEmpty()) {
-            onDiskUtxoInsertBatch.run(nextInsertBatch);
-            nextInsertBatch.clear();
+        TransactionUtil.commitTransaction(databaseConnection);
+
+        final NavigableMap<UtxoKey, UtxoValue> uncommittedUtxos = partition.getUncommittedUtxos();
+        if (! uncommittedUtxos.isEmpty()) {
+            partition.setCheckpoint(uncommittedUtxos.lastKey(), uncheckpointedItemCount);
         }
+    }
 
-        iterationTimer.stop();
+    /**
+     * Marks the spent UTXOs as spent on disk and records the new committed block height, within a single sql-transaction.
+     *  Since spent UTXOs are only ever marked alongside the committed block height, an interrupted commit never leaves
+     *  UTXOs that are unspent as of the committed height marked as spent.
+     */
+    protected static void _commitSpentUnspentTransactionOutputs(final NavigableMap<UtxoKey, UtxoValue> utxos, final Long newCommittedBlockHeight, final DatabaseManager databaseManager) throws DatabaseException {
+        final DatabaseConnection databaseConnection = databaseManager.getDatabaseConnection();
+        final int maxUtxoPerBatch = Math.min(1024, databaseManager.getMaxQueryBatchSize());
 
-        Logger.trace(
-            "iterationTimer=" + iterationTimer.getMillisecondsElapsed() +
-            ", onDiskDeleteExecutionTime=" + onDiskDeleteExecutionTime +
-            ", onDiskDeleteItemCount=" + onDiskDeleteItemCount +
-            ", onDiskDeleteBatchCount=" + onDiskDeleteBatchCount +
-            ", onDiskInsertExecutionTime=" + onDiskInsertExecutionTime +
-            ", onDiskInsertItemCount=" + onDiskInsertItemCount +
-            ", onDiskInsertBatchCount=" + onDiskInsertBatchCount +
-            ", totalTimeWaited=" + totalTimeWaited
-        );
+        final MutableList<UtxoKey> nextDeleteBatch = new MutableList<UtxoKey>(maxUtxoPerBatch);
+        final JvmSpentState transientSpentState = new JvmSpentState(); // Re-initialize the same instance instead of creating many objects.
+
+        TransactionUtil.startTransaction(databaseConnection);
+        try {
+            for (final Map.Entry<UtxoKey, UtxoValue> entry : utxos.entrySet()) {
+                final UtxoKey utxoKey = entry.getKey();
+                final UtxoValue utxoValue = entry.getValue();
 
-        { // Save the committed set's block height...
+                transientSpentState.initialize(utxoValue.spentStateCode);
+                if (! transientSpentState.isSpent()) { continue; }
+
+                nextDeleteBatch.add(utxoKey);
+                if (nextDeleteBatch.getCount() >= maxUtxoPerBatch) {
+                    _markUnspentTransactionOutputsAsSpentOnDisk(nextDeleteBatch, databaseConnection);
+                    nextDeleteBatch.clear();
+                }
+            }
+
+            if (! nextDeleteBatch.isEmpty()) {
+                _markUnspentTransactionOutputsAsSpentOnDisk(nextDeleteBatch, databaseConnection);
+            }
+
+            // Save the committed set's block height...
             databaseConnection.executeSql(
                 new Query("INSERT INTO properties (`key`, value) VALUES (?, ?) ON DUPLICATE KEY UPDATE value = VALUES (value)")
                     .setParameter(COMMITTED_UTXO_BLOCK_HEIGHT_KEY)
                     .setParameter(newCommittedBlockHeight)
             );
+            databaseConnection.executeSql(
+                new Query("DELETE FROM properties WHERE `key` = ?")
+                    .setParameter(COMMIT_RECOVERY_BLOCK_HEIGHT_KEY)
+            );
+            TransactionUtil.commitTransaction(databaseConnection);
+        }
+        catch (final DatabaseException exception) {
+            TransactionUtil.rollbackTransaction(databaseConnection);
+            throw exception;
+        }
+    }
+
+    /**
+     * Commits the double-buffer to disk.
+     *  The double-buffer's unspent UTXOs are split into COMMIT_PARTITION_COUNT primary-key ranges that are inserted concurrently, each over its own connection.
+     *  The partitions are executed on BatchRunner's shared pool, so no threads are created for each commit.
+     *  A partition that fails is retried from its last checkpoint, up to MAX_COMMIT_PARTITION_ATTEMPT_COUNT times.
+     *  Once every partition completes, the spent UTXOs and the new committed block height are written atomically.
+     *  The partitioned inserts are not atomic, so the commit's target block height is recorded (as the recovery block height) before any
+     *  partition is written; if the node is terminated mid-commit, the UTXOs re-created while replaying up to the recovery height are flushed
+     *  mandatorily, which overwrites any rows inserted by the interrupted commit.
+     */
+    protected static void commitDoubleBufferedUnspentTransactionOutputs(final Long newCommittedBlockHeight, final DatabaseManagerFactory databaseManagerFactory) throws Exception {
+        final MilliTimer commitTimer = new MilliTimer();
+        commitTimer.start();
+
+        try (final DatabaseManager databaseManager = databaseManagerFactory.newDatabaseManager()) {
+            final DatabaseConnection databaseConnection = databaseManager.getDatabaseConnection();
+            databaseConnection.executeSql(
+                new Query("INSERT INTO properties (`key`, value) VALUES (?, ?) ON DUPLICATE KEY UPDATE value = VALUES (value)")
+                    .setParameter(COMMIT_RECOVERY_BLOCK_HEIGHT_KEY)
+                    .setParameter(newCommittedBlockHeight)
+            );
+        }
+
+        final UtxoCommitPartition[] partitions = UtxoCommitPartition.createPartitions(DOUBLE_BUFFER, COMMIT_PARTITION_COUNT);
+        final MutableList<UtxoCommitPartition> partitionList = new MutableList<UtxoCommitPartition>(partitions.length);
+        for (final UtxoCommitPartition partition : partitions) {
+            partitionList.add(partition);
+        }
+
+        final BatchRunner<UtxoCommitPartition> batchRunner = new BatchRunner<UtxoCommitPartition>(1, true, partitions.length);
+        batchRunner.run(partitionList, new BatchRunner.Batch<UtxoCommitPartition>() {
+            @Override
+            public void run(final List<UtxoCommitPartition> batchItems) throws Exception {
+                final UtxoCommitPartition partition = batchItems.get(0);
+
+                int attemptCount = 0;
+                while (true) {
+                    attemptCount += 1;
+                    try (final DatabaseManager databaseManager = databaseManagerFactory.newDatabaseManager()) {
+                        _commitPartition(partition, databaseManager);
+                        break;
+                    }
+                    catch (final Exception exception) {
+                        if (attemptCount >= MAX_COMMIT_PARTITION_ATTEMPT_COUNT) {
+                            throw exception;
+                        }
+
+                        Logger.debug("UTXO commit partition " + partition.getPartitionIndex() + " failed; resuming from checkpoint after " + partition.getCommittedItemCount() + " UTXOs.", exception);
+                    }
+                }
+
+                Logger.trace("UTXO commit partition " + partition.getPartitionIndex() + " committed " + partition.getCommittedItemCount() + " UTXOs after " + attemptCount + " attempt(s).");
+            }
+        });
+
+        int attemptCount = 0;
+        while (true) {
+            attemptCount += 1;
+            try (final DatabaseManager databaseManager = databaseManagerFactory.newDatabaseManager()) {
+                _commitSpentUnspentTransactionOutputs(DOUBLE_BUFFER, newCommittedBlockHeight, databaseManager);
+                break;
+            }
+            catch (final Exception exception) {
+                if (attemptCount >= MAX_COMMIT_PARTITION_ATTEMPT_COUNT) {
+                    throw exception;
+                }
+
+                Logger.debug("Committing spent UTXOs failed; retrying.", exception);
+            }
         }
 
+        { // Once a commit succeeds beyond the recovery height, all partially-committed UTXOs have been overwritten...
+            final Long commitRecoveryBlockHeight = COMMIT_RECOVERY_BLOCK_HEIGHT.value;
+            if ( (commitRecoveryBlockHeight != null) && (commitRecoveryBlockHeight <= newCommittedBlockHeight) ) {
+                COMMIT_RECOVERY_BLOCK_HEIGHT.value = 0L;
+            }
+        }
+
+        commitTimer.stop();
+        Metrics.COMMIT_UNSPENT_TRANSACTION_OUTPUTS_DURATION.observeMilliseconds(commitTimer.getMillisecondsElapsed());
+        Logger.debug("Committed " + DOUBLE_BUFFER.size() + " UTXOs across " + partitions.length + " partitions in " + commitTimer.getMillisecondsElapsed() + "ms.");
+
         synchronized (DOUBLE_BUFFER) {
             DOUBLE_BUFFER.clear();
         }
@@ -471,11 +621,8 @@ public class UnspentTransactionOutputJvmManager implements UnspentTransactionOut
                         final MilliTimer milliTimer = new MilliTimer();
                         milliTimer.start();
 
-                        try (final DatabaseManager databaseManager = databaseManagerFactory.newDatabaseManager()) {
-                            final DatabaseConnection databaseConnection = databaseManager.getDatabaseConnection();
-                            TransactionUtil.startTransaction(databaseConnection);
-                            UnspentTransactionOutputJvmManager.commitDoubleBufferedUnspentTransactionOutputs(newCommittedBlockHeight, databaseManager);
-                            TransactionUtil.commitTransaction(databaseConnection);
+                        try {
+                            UnspentTransactionOutputJvmManager.commitDoubleBufferedUnspentTransactionOutputs(newCommittedBlockHeight, databaseManagerFactory);
                         }
                         catch (final Exception exception) {
                             _invalidateUncommittedUtxoSet();
@@ -678,36 +825,26 @@ public class UnspentTransactionOutputJvmManager implements UnspentTransactionOut
         UTXO_READ_MUTEX.lock();
         try {
             final UtxoKey utxoKey = new UtxoKey(transactionOutputIdentifier);
-            final UtxoValue utxoValue = UTXO_SET.get(utxoKey);
-            if (utxoValue != null) {
-                final JvmSpentState spentState = utxoValue.getSpentState();
-                if (spentState.isSpent()) { return null; }
+            final JvmSpentState cachedSpentState = UnspentTransactionOutputJvmManager._getCachedSpentState(utxoKey);
+            if (cachedSpentState != null) {
+                Metrics.UNSPENT_TRANSACTION_OUTPUT_CACHE_HIT_COUNT.increment();
+                if (cachedSpentState.isSpent()) { return null; }
             }
-            else { // Possible cache miss
-                // Check the double-buffer before checking disk...
-                final UtxoValue doubleBufferedUtxoValue;
-                synchronized (DOUBLE_BUFFER) {
-                    doubleBufferedUtxoValue = DOUBLE_BUFFER.get(utxoKey);
-                }
-                if (doubleBufferedUtxoValue != null) {
-                    final JvmSpentState spentState = doubleBufferedUtxoValue.getSpentState();
-                    if (spentState.isSpent()) { return null; }
-                }
-                else {
-                    // check the committed set for the UTXO.
-                    final DatabaseConnection databaseConnection = _databaseManager.getDatabaseConnection();
-                    final java.util.List<Row> rows = databaseConnection.query(
-                        new Query("SELECT is_spent FROM committed_unspent_transaction_outputs WHERE transaction_hash = ? AND `index` = ? LIMIT 1")
-                            .setParameter(transactionHash)
-                            .setParameter(outputIndex)
-                    );
-
-                    if (rows.isEmpty()) { return null; }
-
-                    final Row row = rows.get(0);
-                    final Integer isSpent = row.getInteger("is_spent");
-                    if (isSpent > 0) { return null; }
-                }
+            else { // Cache miss; check the committed set for the UTXO.
+                Metrics.UNSPENT_TRANSACTION_OUTPUT_CACHE_MISS_COUNT.increment();
+
+                final DatabaseConnection databaseConnection = _databaseManager.getDatabaseConnection();
+                final java.util.List<Row> rows = databaseConnection.query(
+                    new Query("SELECT is_spent FROM committed_unspent_transaction_outputs WHERE transaction_hash = ? AND `index` = ? LIMIT 1")
+                        .setParameter(transactionHash)
+                        .setParameter(outputIndex)
+                );
+
+                if (rows.isEmpty()) { return null; }
+
+                final Row row = rows.get(0);
+                final Integer isSpent = row.getInteger("is_spent");
+                if (isSpent > 0) { return null; }
             }
         }
         catch (final Exception exception) {
@@ -719,10 +856,16 @@ public class UnspentTransactionOutputJvmManager implements UnspentTransactionOut
 
         final FullNodeTransactionDatabaseManager transactionDatabaseManager = _databaseManager.getTransactionDatabaseManager();
         final TransactionId transactionId = transactionDatabaseManager.getTransactionId(transactionHash);
-        if (transactionId == null) { return null; }
+        if (transactionId == null) { // The Transaction may have been mined before the Block of an imported UTXO snapshot...
+            final UtxoSnapshotDatabaseManager utxoSnapshotDatabaseManager = _databaseManager.getUtxoSnapshotDatabaseManager();
+            return utxoSnapshotDatabaseManager.getTransactionOutput(transactionOutputIdentifier);
+        }
 
         final Transaction transaction = transactionDatabaseManager.getTransaction(transactionId);
-        if (transaction == null) { return null; }
+        if (transaction == null) { // The Transaction's Block may have been pruned...
+            final UtxoSnapshotDatabaseManager utxoSnapshotDatabaseManager = _databaseManager.getUtxoSnapshotDatabaseManager();
+            return utxoSnapshotDatabaseManager.getTransactionOutput(transactionOutputIdentifier);
+        }
 
         final List<TransactionOutput> transactionOutputs = transaction.getTransactionOutputs();
         if (outputIndex >= transactionOutputs.getCount()) { return null; }
@@ -746,33 +889,22 @@ public class UnspentTransactionOutputJvmManager implements UnspentTransactionOut
             { // Only return outputs that are in the UTXO set...
                 for (TransactionOutputIdentifier transactionOutputIdentifier : transactionOutputIdentifiers) {
                     final UtxoKey utxoKey = new UtxoKey(transactionOutputIdentifier);
-                    final UtxoValue utxoValue = UTXO_SET.get(utxoKey);
-                    if (utxoValue != null) {
-                        final JvmSpentState spentState = utxoValue.getSpentState();
-                        if (! spentState.isSpent()) {
+                    final JvmSpentState cachedSpentState = UnspentTransactionOutputJvmManager._getCachedSpentState(utxoKey);
+                    if (cachedSpentState != null) {
+                        if (! cachedSpentState.isSpent()) {
                             unspentTransactionOutputIdentifiers.add(transactionOutputIdentifier);
                         }
                     }
-                    else { // Possible cache miss...
-                        // Check the double buffer first before queuing for disk-lookup...
-                        final UtxoValue doubleBufferedUtxoValue;
-                        synchronized (DOUBLE_BUFFER) {
-                            doubleBufferedUtxoValue = DOUBLE_BUFFER.get(utxoKey);
-                        }
-                        if (doubleBufferedUtxoValue != null) {
-                            final JvmSpentState spentState = doubleBufferedUtxoValue.getSpentState();
-                            if (! spentState.isSpent()) {
-                                unspentTransactionOutputIdentifiers.add(transactionOutputIdentifier);
-                            }
-                        }
-                        else { // Queue for disk lookup.
-                            cacheMissIdentifiers.add(transactionOutputIdentifier);
-                        }
+                    else { // Queue for disk lookup.
+                        cacheMissIdentifiers.add(transactionOutputIdentifier);
                     }
                 }
             }
             { // Load UTXOs that weren't in the memory-cache but are in the greater UTXO set on disk...
                 final int cacheMissCount = cacheMissIdentifiers.getCount();
+                Metrics.UNSPENT_TRANSACTION_OUTPUT_CACHE_HIT_COUNT.add(transactionOutputIdentifierCount - cacheMissCount);
+                Metrics.UNSPENT_TRANSACTION_OUTPUT_CACHE_MISS_COUNT.add(cacheMissCount);
+
                 if (cacheMissCount > 0) {
                     final Integer batchSize = Math.min(512, _databaseManager.getMaxQueryBatchSize());
                     final BatchRunner<TransactionOutputIdentifier> batchRunner = new BatchRunner<TransactionOutputIdentifier>(batchSize, false);
@@ -813,6 +945,7 @@ public class UnspentTransactionOutputJvmManager implements UnspentTransactionOut
                 )
         );
 
+        final FullNodeBlockDatabaseManager blockDatabaseManager = _databaseManager.getBlockDatabaseManager();
         final HashMap<Sha256Hash, Transaction> transactions = new HashMap<Sha256Hash, Transaction>(rows.size());
         for (final Row row : rows) {
             final Sha256Hash blockHash = Sha256Hash.copyOf(row.getBytes("block_hash"));
@@ -821,7 +954,10 @@ public class UnspentTransactionOutputJvmManager implements UnspentTransactionOut
             final Integer byteCount = row.getInteger("byte_count");
 
             final ByteArray transactionData = _blockStore.readFromBlock(blockHash, blockHeight, diskOffset, byteCount);
-            if (transactionData == null) { return null; }
+            if (transactionData == null) {
+                if (blockDatabaseManager.isBlockPruned(blockHeight)) { continue; } // The outputs are loaded from snapshot_transaction_outputs...
+                return null;
+            }
 
             final TransactionInflater transactionInflater = _masterInflater.getTransactionInflater();
             final Transaction transaction = ConstUtil.asConstOrNull(transactionInflater.fromBytes(transactionData)); // To ensure Transaction::getHash is constant-time...
@@ -830,6 +966,19 @@ public class UnspentTransactionOutputJvmManager implements UnspentTransactionOut
             transactions.put(transaction.getHash(), transaction);
         }
 
+        final Map<TransactionOutputIdentifier, TransactionOutput> snapshotTransactionOutputs;
+        { // Load the outputs of Transactions mined before the Block of an imported UTXO snapshot, or within a pruned Block...
+            final MutableList<TransactionOutputIdentifier> snapshotTransactionOutputIdentifiers = new MutableList<TransactionOutputIdentifier>();
+            for (final TransactionOutputIdentifier transactionOutputIdentifier : unspentTransactionOutputIdentifiers) {
+                if (! transactions.containsKey(transactionOutputIdentifier.getTransactionHash())) {
+                    snapshotTransactionOutputIdentifiers.add(transactionOutputIdentifier);
+                }
+            }
+
+            final UtxoSnapshotDatabaseManager utxoSnapshotDatabaseManager = _databaseManager.getUtxoSnapshotDatabaseManager();
+            snapshotTransactionOutputs = utxoSnapshotDatabaseManager.getTransactionOutputs(snapshotTransactionOutputIdentifiers);
+        }
+
         final ImmutableListBuilder<TransactionOutput> transactionOutputsBuilder = new ImmutableListBuilder<TransactionOutput>(transactionOutputIdentifierCount);
         for (final TransactionOutputIdentifier transactionOutputIdentifier : transactionOutputIdentifiers) {
             if (! unspentTransactionOutputIdentifiers.contains(transactionOutputIdentifier)) {
@@ -841,7 +990,7 @@ public class UnspentTransactionOutputJvmManager implements UnspentTransactionOut
 
             final Transaction transaction = transactions.get(transactionOutputIdentifier.getTransactionHash());
             if (transaction == null) {
-                transactionOutputsBuilder.add(null);
+                transactionOutputsBuilder.add(snapshotTransactionOutputs.get(transactionOutputIdentifier));
                 continue;
             }
 
@@ -0,0 +1,515 @@
+package com.softwareverde.bitcoin.server.module.node.database.transaction.fullnode.utxo;
+
+import com.softwareverde.bitcoin.block.BlockId;
+import com.softwareverde.bitcoin.constable.util.ConstUtil;
+import com.softwareverde.bitcoin.inflater.MasterInflater;
+import com.softwareverde.bitcoin.server.database.BatchRunner;
+import com.softwareverde.bitcoin.server.database.DatabaseConnection;
+import com.softwareverde.bitcoin.server.database.query.BatchedInsertQuery;
+import com.softwareverde.bitcoin.server.database.query.Query;
+import com.softwareverde.bitcoin.server.database.query.ValueExtractor;
+import com.softwareverde.bitcoin.server.module.node.database.block.fullnode.FullNodeBlockDatabaseManager;
+import com.softwareverde.bitcoin.server.module.node.database.fullnode.FullNodeDatabaseManager;
+import com.softwareverde.bitcoin.server.module.node.database.transaction.fullnode.utxo.snapshot.UtxoSnapshotEntry;
+import com.softwareverde.bitcoin.server.module.node.store.BlockStore;
+import com.softwareverde.bitcoin.transaction.Transaction;
+import com.softwareverde.bitcoin.transaction.TransactionInflater;
+import com.softwareverde.bitcoin.transaction.output.MutableTransactionOutput;
+import com.softwareverde.bitcoin.transaction.output.TransactionOutput;
+import com.softwareverde.bitcoin.transaction.output.identifier.TransactionOutputIdentifier;
+import com.softwareverde.bitcoin.util.Util;
+import com.softwareverde.constable.bytearray.ByteArray;
+import com.softwareverde.constable.bytearray.MutableByteArray;
+import com.softwareverde.constable.list.List;
+import com.softwareverde.constable.list.mutable.MutableList;
+import com.softwareverde.cryptography.hash.sha256.Sha256Hash;
+import com.softwareverde.database.DatabaseException;
+import com.softwareverde.database.row.Row;
+import com.softwareverde.util.Container;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Manages the UTXOs loaded from a UTXO set snapshot (see UtxoSnapshotWriter).
+ *  A node bootstrapped from a snapshot does not have the Transactions mined at or below the snapshot's Block, so the body of each
+ *  snapshot UTXO (and whether its Transaction was a coinbase) is retained within the snapshot_transaction_outputs table.
+ *  Similarly, the unspent outputs of pruned Blocks are retained within snapshot_transaction_outputs before their Block data is deleted.
+ *  Rows are never removed from snapshot_transaction_outputs once imported; whether the UTXO is spent is determined by the UTXO set.
+ */
+public class UtxoSnapshotDatabaseManager {
+    protected static final String SNAPSHOT_BLOCK_HEIGHT_KEY = "utxo_snapshot_block_height";
+    protected static final Container<Long> SNAPSHOT_BLOCK_HEIGHT = new Container<Long>(null); // null indicates not yet loaded; zero indicates no snapshot was imported.
+
+    protected static TransactionOutput _inflateTransactionOutput(final Row row) {
+        final MutableTransactionOutput transactionOutput = new MutableTransactionOutput();
+        transactionOutput.setIndex(row.getInteger("index"));
+        transactionOutput.setAmount(row.getLong("amount"));
+        transactionOutput.setLockingScript(MutableByteArray.wrap(row.getBytes("locking_script")));
+        return transactionOutput;
+    }
+
+    protected final FullNodeDatabaseManager _databaseManager;
+    protected final BlockStore _blockStore;
+    protected final MasterInflater _masterInflater;
+
+    protected Long _getSnapshotBlockHeight() throws DatabaseException {
+        final Long cachedSnapshotBlockHeight = SNAPSHOT_BLOCK_HEIGHT.value;
+        if (cachedSnapshotBlockHeight != null) { return cachedSnapshotBlockHeight; }
+
+        final DatabaseConnection databaseConnection = _databaseManager.getDatabaseConnection();
+        final java.util.List<Row> rows = databaseConnection.query(
+            new Query("SELECT value FROM properties WHERE `key` = ?")
+                .setParameter(SNAPSHOT_BLOCK_HEIGHT_KEY)
+        );
+
+        final Long snapshotBlockHeight;
+        if (rows.isEmpty()) {
+            snapshotBlockHeight = 0L;
+        }
+        else {
+            final Row row = rows.get(0);
+            snapshotBlockHeight = Util.coalesce(row.getLong("value"), 0L);
+        }
+
+        SNAPSHOT_BLOCK_HEIGHT.value = snapshotBlockHeight;
+        return snapshotBlockHeight;
+    }
+
+    protected Boolean _hasSnapshot() throws DatabaseException {
+        return (_getSnapshotBlockHeight() > 0L);
+    }
+
+    /**
+     * Returns true if snapshot_transaction_outputs may contain rows, either from an imported snapshot or from pruned Blocks.
+     */
+    protected Boolean _hasRetainedTransactionOutputs() throws DatabaseException {
+        if (_hasSnapshot()) { return true; }
+
+        final FullNodeBlockDatabaseManager blockDatabaseManager = _databaseManager.getBlockDatabaseManager();
+        return (blockDatabaseManager.getPrunedBlockHeight() > 0L);
+    }
+
+    protected java.util.List<Row> _getSnapshotTransactionRows(final Collection<Sha256Hash> transactionHashes) throws DatabaseException {
+        final DatabaseConnection databaseConnection = _databaseManager.getDatabaseConnection();
+        final java.util.List<Row> rows = new ArrayList<Row>(0);
+
+        final Integer batchSize = Math.min(512, _databaseManager.getMaxQueryBatchSize());
+        final BatchRunner<Sha256Hash> batchRunner = new BatchRunner<Sha256Hash>(batchSize, false);
+        batchRunner.run(new MutableList<Sha256Hash>(transactionHashes), new BatchRunner.Batch<Sha256Hash>() {
+            @Override
+            public void run(final List<Sha256Hash> transactionHashes) throws Exception {
+                rows.addAll(databaseConnection.query(
+                    new Query("SELECT DISTINCT transaction_hash, block_height, is_coinbase FROM snapshot_transaction_outputs WHERE transaction_hash IN (?)")
+                        .setInClauseParameters(transactionHashes, ValueExtractor.SHA256_HASH)
+                ));
+            }
+        });
+
+        return rows;
+    }
+
+    public UtxoSnapshotDatabaseManager(final FullNodeDatabaseManager databaseManager, final BlockStore blockStore, final MasterInflater masterInflater) {
+        _databaseManager = databaseManager;
+        _blockStore = blockStore;
+        _masterInflater = masterInflater;
+    }
+
+    /**
+     * Returns the height of the Block the node was bootstrapped from via a UTXO snapshot, or zero if no snapshot was imported.
+     */
+    public Long getSnapshotBlockHeight() throws DatabaseException {
+        return _getSnapshotBlockHeight();
+    }
+
+    public Boolean hasSnapshot() throws DatabaseException {
+        return _hasSnapshot();
+    }
+
+    /**
+     * Returns true if a UTXO commit was interrupted before completing, in which case the committed UTXO set is not consistent
+     *  until the node is restarted and the commit is recovered.
+     */
+    public Boolean isCommitIncomplete() throws DatabaseException {
+        final DatabaseConnection databaseConnection = _databaseManager.getDatabaseConnection();
+        final java.util.List<Row> rows = databaseConnection.query(
+            new Query("SELECT value FROM properties WHERE `key` = ?")
+                .setParameter(UnspentTransactionOutputJvmManager.COMMIT_RECOVERY_BLOCK_HEIGHT_KEY)
+        );
+        if (rows.isEmpty()) { return false; }
+
+        final Row row = rows.get(0);
+        return (Util.coalesce(row.getLong("value"), 0L) > 0L);
+    }
+
+    /**
+     * Returns the body of the snapshot UTXO, or null if the output was neither included within the imported snapshot nor retained from a pruned Block.
+     *  The returned output may have since been spent.
+     */
+    public TransactionOutput getTransactionOutput(final TransactionOutputIdentifier transactionOutputIdentifier) throws DatabaseException {
+        if (! _hasRetainedTransactionOutputs()) { return null; }
+
+        final DatabaseConnection databaseConnection = _databaseManager.getDatabaseConnection();
+        final java.util.List<Row> rows = databaseConnection.query(
+            new Query("SELECT `index`, amount, locking_script FROM snapshot_transaction_outputs WHERE transaction_hash = ? AND `index` = ?")
+                .setParameter(transactionOutputIdentifier.getTransactionHash())
+                .setParameter(transactionOutputIdentifier.getOutputIndex())
+        );
+        if (rows.isEmpty()) { return null; }
+
+        final Row row = rows.get(0);
+        return _inflateTransactionOutput(row);
+    }
+
+    /**
+     * Returns the bodies of the snapshot UTXOs that were included within the imported snapshot.
+     *  Identifiers not included within the snapshot are excluded from the returned map.
+     */
+    public Map<TransactionOutputIdentifier, TransactionOutput> getTransactionOutputs(final List<TransactionOutputIdentifier> transactionOutputIdentifiers) throws DatabaseException {
+        final HashMap<TransactionOutputIdentifier, TransactionOutput> transactionOutputs = new HashMap<TransactionOutputIdentifier, TransactionOutput>(transactionOutputIdentifiers.getCount());
+        if ( transactionOutputIdentifiers.isEmpty() || (! _hasRetainedTransactionOutputs()) ) { return transactionOutputs; }
+
+        final DatabaseConnection databaseConnection = _databaseManager.getDatabaseConnection();
+        final Integer batchSize = Math.min(512, _databaseManager.getMaxQueryBatchSize());
+        final BatchRunner<TransactionOutputIdentifier> batchRunner = new BatchRunner<TransactionOutputIdentifier>(batchSize, false);
+        batchRunner.run(transactionOutputIdentifiers, new BatchRunner.Batch<TransactionOutputIdentifier>() {
+            @Override
+            public void run(final List<TransactionOutputIdentifier> transactionOutputIdentifiers) throws Exception {
+                final java.util.List<Row> rows = databaseConnection.query(
+                    new Query("SELECT transaction_hash, `index`, amount, locking_script FROM snapshot_transaction_outputs WHERE (transaction_hash, `index`) IN (?)")
+                        .setExpandedInClauseParameters(transactionOutputIdentifiers, ValueExtractor.TRANSACTION_OUTPUT_IDENTIFIER)
+                );
+                for (final Row row : rows) {
+                    final Sha256Hash transactionHash = Sha256Hash.copyOf(row.getBytes("transaction_hash"));
+                    final Integer outputIndex = row.getInteger("index");
+                    transactionOutputs.put(new TransactionOutputIdentifier(transactionHash, outputIndex), _inflateTransactionOutput(row));
+                }
+            }
+        });
+
+        return transactionOutputs;
+    }
+
+    /**
+     * Returns the height of the Block that mined the Transaction, or null if the Transaction was not included within the imported snapshot.
+     */
+    public Long getTransactionBlockHeight(final Sha256Hash transactionHash) throws DatabaseException {
+        final Map<Sha256Hash, Long> transactionBlockHeights = this.getTransactionBlockHeights(Collections.singleton(transactionHash));
+        return transactionBlockHeights.get(transactionHash);
+    }
+
+    /**
+     * Returns the height of the Block that mined each provided Transaction included within the imported snapshot.
+     *  Transactions not included within the snapshot are excluded from the returned map.
+     */
+    public Map<Sha256Hash, Long> getTransactionBlockHeights(final Collection<Sha256Hash> transactionHashes) throws DatabaseException {
+        final HashMap<Sha256Hash, Long> transactionBlockHeights = new HashMap<Sha256Hash, Long>(transactionHashes.size());
+        if ( transactionHashes.isEmpty() || (! _hasRetainedTransactionOutputs()) ) { return transactionBlockHeights; }
+
+        for (final Row row : _getSnapshotTransactionRows(transactionHashes)) {
+            final Sha256Hash transactionHash = Sha256Hash.copyOf(row.getBytes("transaction_hash"));
+            transactionBlockHeights.put(transactionHash, row.getLong("block_height"));
+        }
+        return transactionBlockHeights;
+    }
+
+    /**
+     * Returns whether the Transaction was a coinbase Transaction, or null if the Transaction was not included within the imported snapshot.
+     */
+    public Boolean isCoinbaseTransaction(final Sha256Hash transactionHash) throws DatabaseException {
+        final Map<Sha256Hash, Boolean> coinbaseTransactionFlags = this.getCoinbaseTransactionFlags(Collections.singleton(transactionHash));
+        return coinbaseTransactionFlags.get(transactionHash);
+    }
+
+    /**
+     * Returns whether each provided Transaction included within the imported snapshot was a coinbase Transaction.
+     *  Transactions not included within the snapshot are excluded from the returned map.
+     */
+    public Map<Sha256Hash, Boolean> getCoinbaseTransactionFlags(final Collection<Sha256Hash> transactionHashes) throws DatabaseException {
+        final HashMap<Sha256Hash, Boolean> coinbaseTransactionFlags = new HashMap<Sha256Hash, Boolean>(transactionHashes.size());
+        if ( transactionHashes.isEmpty() || (! _hasRetainedTransactionOutputs()) ) { return coinbaseTransactionFlags; }
+
+        for (final Row row : _getSnapshotTransactionRows(transactionHashes)) {
+            final Sha256Hash transactionHash = Sha256Hash.copyOf(row.getBytes("transaction_hash"));
+            coinbaseTransactionFlags.put(transactionHash, (row.getInteger("is_coinbase") > 0));
+        }
+        return coinbaseTransactionFlags;
+    }
+
+    /**
+     * Returns up to maxCount of the committed UTXOs, in primary-key order, following the provided identifier (exclusive).
+     *  If previousTransactionOutputIdentifier is null, the first UTXOs are returned; an empty list indicates the end of the set.
+     *  The UTXO bodies are loaded from the BlockStore, or from snapshot_transaction_outputs if this node was itself bootstrapped from a snapshot
+     *  or the UTXO's Block has been pruned.
+     *  Only the committed UTXO set is read; the in-memory UTXO set must have been committed (i.e. the node shut down cleanly) beforehand.
+     */
+    public List<UtxoSnapshotEntry> getCommittedUnspentTransactionOutputs(final TransactionOutputIdentifier previousTransactionOutputIdentifier, final Integer maxCount) throws DatabaseException {
+        final DatabaseConnection databaseConnection = _databaseManager.getDatabaseConnection();
+
+        final java.util.List<Row> utxoRows;
+        if (previousTransactionOutputIdentifier == null) {
+            utxoRows = databaseConnection.query(
+                new Query("SELECT transaction_hash, `index`, block_height FROM committed_unspent_transaction_outputs WHERE is_spent = 0 ORDER BY transaction_hash ASC, `index` ASC LIMIT ?")
+                    .setParameter(maxCount)
+            );
+        }
+        else {
+            final Sha256Hash previousTransactionHash = previousTransactionOutputIdentifier.getTransactionHash();
+            utxoRows = databaseConnection.query(
+                new Query("SELECT transaction_hash, `index`, block_height FROM committed_unspent_transaction_outputs WHERE (transaction_hash > ? OR (transaction_hash = ? AND `index` > ?)) AND is_spent = 0 ORDER BY transaction_hash ASC, `index` ASC LIMIT ?")
+                    .setParameter(previousTransactionHash)
+                    .setParameter(previousTransactionHash)
+                    .setParameter(previousTransactionOutputIdentifier.getOutputIndex())
+                    .setParameter(maxCount)
+            );
+        }
+        if (utxoRows.isEmpty()) { return new MutableList<UtxoSnapshotEntry>(0); }
+
+        final LinkedHashSet<Sha256Hash> transactionHashes = new LinkedHashSet<Sha256Hash>();
+        final MutableList<TransactionOutputIdentifier> transactionOutputIdentifiers = new MutableList<TransactionOutputIdentifier>(utxoRows.size());
+        final HashMap<TransactionOutputIdentifier, Long> blockHeights = new HashMap<TransactionOutputIdentifier, Long>(utxoRows.size());
+        for (final Row row : utxoRows) {
+            final Sha256Hash transactionHash = Sha256Hash.copyOf(row.getBytes("transaction_hash"));
+            final TransactionOutputIdentifier transactionOutputIdentifier = new TransactionOutputIdentifier(transactionHash, row.getInteger("index"));
+
+            transactionHashes.add(transactionHash);
+            transactionOutputIdentifiers.add(transactionOutputIdentifier);
+            blockHeights.put(transactionOutputIdentifier, row.getLong("block_height"));
+        }
+
+        final HashMap<Sha256Hash, Transaction> transactions = new HashMap<Sha256Hash, Transaction>(transactionHashes.size());
+        final HashSet<Sha256Hash> coinbaseTransactionHashes = new HashSet<Sha256Hash>();
+        { // Load the Transactions stored by this node...
+            final TransactionInflater transactionInflater = _masterInflater.getTransactionInflater();
+
+            // NOTE: A Transaction may be associated with multiple Blocks (i.e. across forks); its bytes are identical within each, so the first is used.
+            final java.util.List<Row> rows = databaseConnection.query(
+                new Query("SELECT transactions.hash, transactions.byte_count, blocks.hash AS block_hash, blocks.block_height, block_transactions.disk_offset, block_transactions.`index` FROM transactions INNER JOIN block_transactions ON transactions.id = block_transactions.transaction_id INNER JOIN blocks ON blocks.id = block_transactions.block_id WHERE transactions.hash IN (?)")
+                    .setInClauseParameters(transactionHashes, ValueExtractor.SHA256_HASH)
+            );
+            for (final Row row : rows) {
+                final Sha256Hash transactionHash = Sha256Hash.copyOf(row.getBytes("hash"));
+                if (transactions.containsKey(transactionHash)) { continue; }
+
+                final Sha256Hash blockHash = Sha256Hash.copyOf(row.getBytes("block_hash"));
+                final Long blockHeight = row.getLong("block_height");
+                final Long diskOffset = row.getLong("disk_offset");
+                final Integer byteCount = row.getInteger("byte_count");
+
+                final ByteArray transactionData = _blockStore.readFromBlock(blockHash, blockHeight, diskOffset, byteCount);
+                if (transactionData == null) { continue; } // The Block may have been pruned; its unspent outputs are loaded from snapshot_transaction_outputs...
+
+                final Transaction transaction = ConstUtil.asConstOrNull(transactionInflater.fromBytes(transactionData));
+                if (transaction == null) { throw new DatabaseException("Unable to inflate Transaction: " + transactionHash); }
+
+                transactions.put(transactionHash, transaction);
+                if (row.getInteger("index") == 0) {
+                    coinbaseTransactionHashes.add(transactionHash);
+                }
+            }
+        }
+
+        final MutableList<TransactionOutputIdentifier> snapshotTransactionOutputIdentifiers = new MutableList<TransactionOutputIdentifier>();
+        for (final TransactionOutputIdentifier transactionOutputIdentifier : transactionOutputIdentifiers) {
+            if (! transactions.containsKey(transactionOutputIdentifier.getTransactionHash())) {
+                snapshotTransactionOutputIdentifiers.add(transactionOutputIdentifier);
+            }
+        }
+        final Map<TransactionOutputIdentifier, TransactionOutput> snapshotTransactionOutputs = this.getTransactionOutputs(snapshotTransactionOutputIdentifiers);
+        final HashSet<Sha256Hash> snapshotTransactionHashes = new HashSet<Sha256Hash>();
+        for (final TransactionOutputIdentifier transactionOutputIdentifier : snapshotTransactionOutputIdentifiers) {
+            snapshotTransactionHashes.add(transactionOutputIdentifier.getTransactionHash());
+        }
+        final Map<Sha256Hash, Boolean> snapshotCoinbaseTransactionFlags = this.getCoinbaseTransactionFlags(snapshotTransactionHashes);
+
+        final MutableList<UtxoSnapshotEntry> utxoSnapshotEntries = new MutableList<UtxoSnapshotEntry>(transactionOutputIdentifiers.getCount());
+        for (final TransactionOutputIdentifier transactionOutputIdentifier : transactionOutputIdentifiers) {
+            final Sha256Hash transactionHash = transactionOutputIdentifier.getTransactionHash();
+            final Integer outputIndex = transactionOutputIdentifier.getOutputIndex();
+            final Long blockHeight = blockHeights.get(transactionOutputIdentifier);
+
+            final Transaction transaction = transactions.get(transactionHash);
+            if (transaction != null) {
+                final List<TransactionOutput> transactionOutputs = transaction.getTransactionOutputs();
+                if (outputIndex >= transactionOutputs.getCount()) { throw new DatabaseException("Invalid UTXO: " + transactionOutputIdentifier); }
+
+                final Boolean isCoinbase = coinbaseTransactionHashes.contains(transactionHash);
+                utxoSnapshotEntries.add(new UtxoSnapshotEntry(transactionOutputIdentifier, blockHeight, isCoinbase, transactionOutputs.get(outputIndex)));
+            }
+            else {
+                final TransactionOutput transactionOutput = snapshotTransactionOutputs.get(transactionOutputIdentifier);
+                if (transactionOutput == null) { throw new DatabaseException("Unable to load UTXO: " + transactionOutputIdentifier); }
+
+                final Boolean isCoinbase = Util.coalesce(snapshotCoinbaseTransactionFlags.get(transactionHash), false);
+                utxoSnapshotEntries.add(new UtxoSnapshotEntry(transactionOutputIdentifier, blockHeight, isCoinbase, transactionOutput));
+            }
+        }
+
+        return utxoSnapshotEntries;
+    }
+
+    /**
+     * Removes all snapshot UTXOs and clears the snapshot Block height.
+     *  The committed UTXO set is not modified.
+     */
+    public void clearSnapshot() throws DatabaseException {
+        final DatabaseConnection databaseConnection = _databaseManager.getDatabaseConnection();
+        databaseConnection.executeSql(
+            new Query("DELETE FROM snapshot_transaction_outputs")
+        );
+        databaseConnection.executeSql(
+            new Query("DELETE FROM properties WHERE `key` = ?")
+                .setParameter(SNAPSHOT_BLOCK_HEIGHT_KEY)
+        );
+        SNAPSHOT_BLOCK_HEIGHT.value = 0L;
+    }
+
+    /**
+     * Removes every committed UTXO, in preparation for importing a snapshot (e.g. after a previous import was interrupted).
+     */
+    public void clearCommittedUnspentTransactionOutputs() throws DatabaseException {
+        final DatabaseConnection databaseConnection = _databaseManager.getDatabaseConnection();
+        databaseConnection.executeSql(
+            new Query("DELETE FROM committed_unspent_transaction_outputs")
+        );
+    }
+
+    /**
+     * Inserts the provided snapshot entries into both snapshot_transaction_outputs and the committed UTXO set.
+     */
+    public void storeSnapshotEntries(final List<UtxoSnapshotEntry> utxoSnapshotEntries) throws DatabaseException {
+        if (utxoSnapshotEntries.isEmpty()) { return; }
+
+        final DatabaseConnection databaseConnection = _databaseManager.getDatabaseConnection();
+
+        final BatchedInsertQuery snapshotInsertQuery = new BatchedInsertQuery("INSERT INTO snapshot_transaction_outputs (transaction_hash, `index`, block_height, is_coinbase, amount, locking_script) VALUES (?, ?, ?, ?, ?, ?)");
+        final BatchedInsertQuery utxoInsertQuery = new BatchedInsertQuery("INSERT INTO committed_unspent_transaction_outputs (transaction_hash, `index`, block_height) VALUES (?, ?, ?)");
+        for (final UtxoSnapshotEntry utxoSnapshotEntry : utxoSnapshotEntries) {
+            final TransactionOutputIdentifier transactionOutputIdentifier = utxoSnapshotEntry.getTransactionOutputIdentifier();
+            final TransactionOutput transactionOutput = utxoSnapshotEntry.getTransactionOutput();
+
+            snapshotInsertQuery.setParameter(transactionOutputIdentifier.getTransactionHash());
+            snapshotInsertQuery.setParameter(transactionOutputIdentifier.getOutputIndex());
+            snapshotInsertQuery.setParameter(utxoSnapshotEntry.getBlockHeight());
+            snapshotInsertQuery.setParameter(utxoSnapshotEntry.isCoinbase());
+            snapshotInsertQuery.setParameter(transactionOutput.getAmount());
+            snapshotInsertQuery.setParameter(transactionOutput.getLockingScript().getBytes());
+
+            utxoInsertQuery.setParameter(transactionOutputIdentifier.getTransactionHash());
+            utxoInsertQuery.setParameter(transactionOutputIdentifier.getOutputIndex());
+            utxoInsertQuery.setParameter(utxoSnapshotEntry.getBlockHeight());
+        }
+
+        databaseConnection.executeSql(snapshotInsertQuery);
+        databaseConnection.executeSql(utxoInsertQuery);
+    }
+
+    /**
+     * Flags the snapshot's Block as having Transactions so that it may become the head Block and its children may be processed,
+     *  despite its Transactions never being stored.
+     */
+    public void markSnapshotBlock(final BlockId blockId) throws DatabaseException {
+        final DatabaseConnection databaseConnection = _databaseManager.getDatabaseConnection();
+        databaseConnection.executeSql(
+            new Query("UPDATE blocks SET has_transactions = 1 WHERE id = ?")
+                .setParameter(blockId)
+        );
+    }
+
+    /**
+     * Returns the identifiers of the provided Transactions' outputs that are unspent within the committed UTXO set.
+     *  Outputs mined after the committed UTXO set's Block height are not included.
+     */
+    public Set<TransactionOutputIdentifier> getCommittedUnspentTransactionOutputIdentifiers(final Collection<Sha256Hash> transactionHashes) throws DatabaseException {
+        final HashSet<TransactionOutputIdentifier> transactionOutputIdentifiers = new HashSet<TransactionOutputIdentifier>();
+        if (transactionHashes.isEmpty()) { return transactionOutputIdentifiers; }
+
+        final DatabaseConnection databaseConnection = _databaseManager.getDatabaseConnection();
+        final Integer batchSize = Math.min(512, _databaseManager.getMaxQueryBatchSize());
+        final BatchRunner<Sha256Hash> batchRunner = new BatchRunner<Sha256Hash>(batchSize, false);
+        batchRunner.run(new MutableList<Sha256Hash>(transactionHashes), new BatchRunner.Batch<Sha256Hash>() {
+            @Override
+            public void run(final List<Sha256Hash> transactionHashes) throws Exception {
+                final java.util.List<Row> rows = databaseConnection.query(
+                    new Query("SELECT transaction_hash, `index` FROM committed_unspent_transaction_outputs WHERE transaction_hash IN (?) AND is_spent = 0")
+                        .setInClauseParameters(transactionHashes, ValueExtractor.SHA256_HASH)
+                );
+                for (final Row row : rows) {
+                    final Sha256Hash transactionHash = Sha256Hash.copyOf(row.getBytes("transaction_hash"));
+                    transactionOutputIdentifiers.add(new TransactionOutputIdentifier(transactionHash, row.getInteger("index")));
+                }
+            }
+        });
+
+        return transactionOutputIdentifiers;
+    }
+
+    /**
+     * Retains the bodies of the provided outputs within snapshot_transaction_outputs so that their Block's data may be pruned.
+     *  Unlike UtxoSnapshotDatabaseManager::storeSnapshotEntries, the UTXO set is not modified.
+     */
+    public void storeRetainedTransactionOutputs(final List<UtxoSnapshotEntry> utxoSnapshotEntries) throws DatabaseException {
+        if (utxoSnapshotEntries.isEmpty()) { return; }
+
+        final DatabaseConnection databaseConnection = _databaseManager.getDatabaseConnection();
+
+        final BatchedInsertQuery batchedInsertQuery = new BatchedInsertQuery("INSERT IGNORE INTO snapshot_transaction_outputs (transaction_hash, `index`, block_height, is_coinbase, amount, locking_script) VALUES (?, ?, ?, ?, ?, ?)");
+        for (final UtxoSnapshotEntry utxoSnapshotEntry : utxoSnapshotEntries) {
+            final TransactionOutputIdentifier transactionOutputIdentifier = utxoSnapshotEntry.getTransactionOutputIdentifier();
+            final TransactionOutput transactionOutput = utxoSnapshotEntry.getTransactionOutput();
+
+            batchedInsertQuery.setParameter(transactionOutputIdentifier.getTransactionHash());
+            batchedInsertQuery.setParameter(transactionOutputIdentifier.getOutputIndex());
+            batchedInsertQuery.setParameter(utxoSnapshotEntry.getBlockHeight());
+            batchedInsertQuery.setParameter(utxoSnapshotEntry.isCoinbase());
+            batchedInsertQuery.setParameter(transactionOutput.getAmount());
+            batchedInsertQuery.setParameter(transactionOutput.getLockingScript().getBytes());
+        }
+
+        databaseConnection.executeSql(batchedInsertQuery);
+    }
+
+    /**
+     * Removes the retained bodies of the provided outputs, once the Block that spent them has been pruned and can no longer be undone by a reorg.
+     */
+    public void removeRetainedTransactionOutputs(final List<TransactionOutputIdentifier> transactionOutputIdentifiers) throws DatabaseException {
+        if (transactionOutputIdentifiers.isEmpty()) { return; }
+
+        final DatabaseConnection databaseConnection = _databaseManager.getDatabaseConnection();
+        final Integer batchSize = Math.min(512, _databaseManager.getMaxQueryBatchSize());
+        final BatchRunner<TransactionOutputIdentifier> batchRunner = new BatchRunner<TransactionOutputIdentifier>(batchSize, false);
+        batchRunner.run(transactionOutputIdentifiers, new BatchRunner.Batch<TransactionOutputIdentifier>() {
+            @Override
+            public void run(final List<TransactionOutputIdentifier> transactionOutputIdentifiers) throws Exception {
+                databaseConnection.executeSql(
+                    new Query("DELETE FROM snapshot_transaction_outputs WHERE (transaction_hash, `index`) IN (?)")
+                        .setExpandedInClauseParameters(transactionOutputIdentifiers, ValueExtractor.TRANSACTION_OUTPUT_IDENTIFIER)
+                );
+            }
+        });
+    }
+
+    /**
+     * Marks the snapshot as completely imported at the provided Block height, which also becomes the committed UTXO set's Block height.
+     */
+    public void setSnapshotBlockHeight(final Long blockHeight) throws DatabaseException {
+        final DatabaseConnection databaseConnection = _databaseManager.getDatabaseConnection();
+        databaseConnection.executeSql(
+            new Query("INSERT INTO properties (`key`, value) VALUES (?, ?) ON DUPLICATE KEY UPDATE value = VALUES (value)")
+                .setParameter(UnspentTransactionOutputJvmManager.COMMITTED_UTXO_BLOCK_HEIGHT_KEY)
+                .setParameter(blockHeight)
+        );
+        databaseConnection.executeSql(
+            new Query("INSERT INTO properties (`key`, value) VALUES (?, ?) ON DUPLICATE KEY UPDATE value = VALUES (value)")
+                .setParameter(SNAPSHOT_BLOCK_HEIGHT_KEY)
+                .setParameter(blockHeight)
+        );
+        SNAPSHOT_BLOCK_HEIGHT.value = blockHeight;
+    }
+}
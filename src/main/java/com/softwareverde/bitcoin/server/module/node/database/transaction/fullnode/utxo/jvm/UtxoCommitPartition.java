@@ -0,0 +1,93 @@
+package com.softwareverde.bitcoin.server.module.node.database.transaction.fullnode.utxo.jvm;
+
+import com.softwareverde.cryptography.hash.sha256.Sha256Hash;
+
+import java.util.NavigableMap;
+
+/**
+ * A contiguous primary-key range of the UTXO double-buffer that is committed to disk independently of the other ranges.
+ *  The checkpoint is the last UtxoKey, in primary-key order, whose state (and the state of all preceding keys within the partition)
+ *  has been durably committed; an interrupted partition resumes from its checkpoint instead of from the start of its range.
+ */
+public class UtxoCommitPartition {
+    /**
+     * Splits the (primary-key ordered) utxos into partitionCount ranges by the first byte of the transaction hash.
+     *  Since transaction hashes are uniformly distributed, the ranges are of roughly equal size.
+     */
+    public static UtxoCommitPartition[] createPartitions(final NavigableMap<UtxoKey, UtxoValue> utxos, final Integer partitionCount) {
+        final UtxoCommitPartition[] partitions = new UtxoCommitPartition[partitionCount];
+
+        UtxoKey fromKey = null;
+        for (int i = 0; i < partitionCount; ++i) {
+            final boolean isLastPartition = (i == (partitionCount - 1));
+            final UtxoKey toKey;
+            if (isLastPartition) {
+                toKey = null;
+            }
+            else {
+                final byte[] boundaryTransactionHash = new byte[Sha256Hash.BYTE_COUNT];
+                boundaryTransactionHash[0] = (byte) (((i + 1) * 256) / partitionCount);
+                toKey = new UtxoKey(boundaryTransactionHash, 0);
+            }
+
+            final NavigableMap<UtxoKey, UtxoValue> partitionUtxos;
+            if (fromKey == null) {
+                partitionUtxos = ((toKey == null) ? utxos : utxos.headMap(toKey, false));
+            }
+            else {
+                partitionUtxos = ((toKey == null) ? utxos.tailMap(fromKey, true) : utxos.subMap(fromKey, true, toKey, false));
+            }
+
+            partitions[i] = new UtxoCommitPartition(i, partitionUtxos);
+            fromKey = toKey;
+        }
+
+        return partitions;
+    }
+
+    protected final Integer _partitionIndex;
+    protected final NavigableMap<UtxoKey, UtxoValue> _utxos;
+
+    protected volatile UtxoKey _checkpoint = null;
+    protected volatile int _committedItemCount = 0;
+
+    public UtxoCommitPartition(final Integer partitionIndex, final NavigableMap<UtxoKey, UtxoValue> utxos) {
+        _partitionIndex = partitionIndex;
+        _utxos = utxos;
+    }
+
+    public Integer getPartitionIndex() {
+        return _partitionIndex;
+    }
+
+    /**
+     * Returns the UTXOs within the partition that have not yet been committed, in primary-key order.
+     */
+    public NavigableMap<UtxoKey, UtxoValue> getUncommittedUtxos() {
+        final UtxoKey checkpoint = _checkpoint;
+        if (checkpoint == null) { return _utxos; }
+
+        return _utxos.tailMap(checkpoint, false);
+    }
+
+    /**
+     * Records that all UTXOs up to and including the provided UtxoKey have been durably committed.
+     */
+    public void setCheckpoint(final UtxoKey utxoKey, final Integer newlyCommittedItemCount) {
+        _checkpoint = utxoKey;
+        _committedItemCount += newlyCommittedItemCount;
+    }
+
+    public UtxoKey getCheckpoint() {
+        return _checkpoint;
+    }
+
+    public Integer getCommittedItemCount() {
+        return _committedItemCount;
+    }
+
+    public Boolean isComplete() {
+        final NavigableMap<UtxoKey, UtxoValue> uncommittedUtxos = this.getUncommittedUtxos();
+        return uncommittedUtxos.isEmpty();
+    }
+}
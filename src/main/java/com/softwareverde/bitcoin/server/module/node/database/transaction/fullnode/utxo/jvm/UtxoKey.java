@@ -8,15 +8,19 @@ import com.softwareverde.cryptography.hash.sha256.Sha256Hash;
 import java.util.Comparator;
 
 public class UtxoKey implements Comparable<UtxoKey> {
+    /**
+     * Orders UtxoKeys identically to the committed_unspent_transaction_outputs primary key (i.e. unsigned bytes, then output index),
+     *  so that iterating a sorted UTXO set writes to disk in primary-key order.
+     */
     public static final Comparator<UtxoKey> COMPARATOR = new Comparator<UtxoKey>() {
         @Override
         public int compare(final UtxoKey utxo0, final UtxoKey utxo1) {
             if (utxo0.transactionHash != utxo1.transactionHash) {
                 for (int i = 0; i < Sha256Hash.BYTE_COUNT; ++i) {
-                    final byte b0 = utxo0.transactionHash[i];
-                    final byte b1 = utxo1.transactionHash[i];
+                    final int b0 = (utxo0.transactionHash[i] & 0xFF);
+                    final int b1 = (utxo1.transactionHash[i] & 0xFF);
 
-                    final int compare = Byte.compare(b0, b1);
+                    final int compare = Integer.compare(b0, b1);
                     if (compare != 0) { return compare; }
                 }
             }
@@ -0,0 +1,30 @@
+package com.softwareverde.bitcoin.server.module.node.database.transaction.fullnode.utxo.snapshot;
+
+import com.softwareverde.bitcoin.transaction.output.TransactionOutput;
+import com.softwareverde.bitcoin.transaction.output.identifier.TransactionOutputIdentifier;
+
+public class UtxoSnapshotEntry {
+    protected final TransactionOutputIdentifier _transactionOutputIdentifier;
+    protected final Long _blockHeight;
+    protected final Boolean _isCoinbase;
+    protected final TransactionOutput _transactionOutput;
+
+    /**
+     * The blockHeight is the height of the Block that mined the TransactionOutput.
+     *  isCoinbase indicates the TransactionOutput was created by the Block's coinbase Transaction, which is required to enforce coinbase maturity.
+     */
+    public UtxoSnapshotEntry(final TransactionOutputIdentifier transactionOutputIdentifier, final Long blockHeight, final Boolean isCoinbase, final TransactionOutput transactionOutput) {
+        _transactionOutputIdentifier = transactionOutputIdentifier;
+        _blockHeight = blockHeight;
+        _isCoinbase = isCoinbase;
+        _transactionOutput = transactionOutput.asConst();
+    }
+
+    public TransactionOutputIdentifier getTransactionOutputIdentifier() { return _transactionOutputIdentifier; }
+
+    public Long getBlockHeight() { return _blockHeight; }
+
+    public Boolean isCoinbase() { return _isCoinbase; }
+
+    public TransactionOutput getTransactionOutput() { return _transactionOutput; }
+}
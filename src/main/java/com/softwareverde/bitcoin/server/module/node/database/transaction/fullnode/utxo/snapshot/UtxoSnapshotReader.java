@@ -0,0 +1,171 @@
+package com.softwareverde.bitcoin.server.module.node.database.transaction.fullnode.utxo.snapshot;
+
+import com.softwareverde.bitcoin.block.header.BlockHeader;
+import com.softwareverde.bitcoin.block.header.BlockHeaderInflater;
+import com.softwareverde.bitcoin.server.module.node.database.transaction.fullnode.utxo.jvm.UtxoKey;
+import com.softwareverde.bitcoin.transaction.TransactionInflater;
+import com.softwareverde.bitcoin.transaction.output.MutableTransactionOutput;
+import com.softwareverde.bitcoin.transaction.output.identifier.TransactionOutputIdentifier;
+import com.softwareverde.constable.bytearray.ByteArray;
+import com.softwareverde.constable.bytearray.MutableByteArray;
+import com.softwareverde.cryptography.hash.sha256.Sha256Hash;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.util.Arrays;
+
+/**
+ * Streams the BlockHeaders and UTXOs from an InputStream written by a UtxoSnapshotWriter.
+ *  UtxoSnapshotReader::readBlockHeader returns null once every BlockHeader has been read.
+ *  UtxoSnapshotReader::readEntry returns null once the trailer has been read and its entry count and checksum have been verified;
+ *  any remaining BlockHeaders are skipped if UtxoSnapshotReader::readEntry is invoked before they have been read.
+ *  An IOException is thrown if the snapshot is malformed, truncated, out of order, or fails its checksum.
+ */
+public class UtxoSnapshotReader implements AutoCloseable {
+    protected final BlockHeaderInflater _blockHeaderInflater = new BlockHeaderInflater();
+    protected final DigestInputStream _digestInputStream;
+    protected final DataInputStream _inputStream;
+    protected final Sha256Hash _blockHash;
+    protected final Long _blockHeight;
+    protected long _blockHeaderCount = 0L;
+    protected long _entryCount = 0L;
+    protected UtxoKey _previousUtxoKey = null;
+    protected Boolean _isComplete = false;
+
+    public UtxoSnapshotReader(final InputStream inputStream) throws IOException {
+        _digestInputStream = new DigestInputStream(new BufferedInputStream(inputStream), UtxoSnapshotWriter.newMessageDigest());
+        _inputStream = new DataInputStream(_digestInputStream);
+
+        final int magicNumber = _inputStream.readInt();
+        if (magicNumber != UtxoSnapshotWriter.MAGIC_NUMBER) {
+            throw new IOException("Invalid UTXO snapshot.");
+        }
+
+        final int version = _inputStream.readInt();
+        if (version != UtxoSnapshotWriter.VERSION) {
+            throw new IOException("Unsupported UTXO snapshot version: " + version);
+        }
+
+        final byte[] blockHashBytes = new byte[Sha256Hash.BYTE_COUNT];
+        _inputStream.readFully(blockHashBytes);
+        _blockHash = Sha256Hash.wrap(blockHashBytes);
+
+        _blockHeight = _inputStream.readLong();
+        if (_blockHeight < 0L) {
+            throw new IOException("Invalid UTXO snapshot Block height: " + _blockHeight);
+        }
+    }
+
+    public Sha256Hash getBlockHash() {
+        return _blockHash;
+    }
+
+    public Long getBlockHeight() {
+        return _blockHeight;
+    }
+
+    /**
+     * Returns the next BlockHeader within the snapshot, starting with the genesis Block, or null if every BlockHeader has been read.
+     */
+    public BlockHeader readBlockHeader() throws IOException {
+        if (_blockHeaderCount > _blockHeight) { return null; }
+
+        final MutableByteArray buffer = new MutableByteArray(BlockHeaderInflater.BLOCK_HEADER_BYTE_COUNT);
+        _inputStream.readFully(buffer.unwrap());
+        _blockHeaderCount += 1L;
+
+        final BlockHeader blockHeader = _blockHeaderInflater.fromBytes(buffer);
+        if (blockHeader == null) {
+            throw new IOException("Invalid UTXO snapshot BlockHeader at height " + (_blockHeaderCount - 1L) + ".");
+        }
+        return blockHeader;
+    }
+
+    /**
+     * Returns the next entry within the snapshot, or null if the end of the snapshot has been reached.
+     *  An EOFException is thrown if the snapshot was truncated.
+     */
+    public UtxoSnapshotEntry readEntry() throws IOException {
+        if (_isComplete) { return null; }
+
+        while (_blockHeaderCount <= _blockHeight) {
+            _inputStream.readFully(new byte[BlockHeaderInflater.BLOCK_HEADER_BYTE_COUNT]);
+            _blockHeaderCount += 1L;
+        }
+
+        final int marker = _inputStream.readUnsignedByte();
+        if (marker == 0) {
+            final long entryCount = _inputStream.readLong();
+            if (entryCount != _entryCount) {
+                throw new IOException("UTXO snapshot entry count mismatch. Expected " + entryCount + ", found " + _entryCount + ".");
+            }
+
+            final MessageDigest messageDigest = _digestInputStream.getMessageDigest();
+            final byte[] calculatedChecksum = messageDigest.digest();
+            _digestInputStream.on(false);
+
+            final byte[] checksum = new byte[calculatedChecksum.length];
+            _inputStream.readFully(checksum);
+            if (! Arrays.equals(checksum, calculatedChecksum)) {
+                throw new IOException("UTXO snapshot checksum mismatch. Expected " + ByteArray.wrap(checksum) + ", found " + ByteArray.wrap(calculatedChecksum) + ".");
+            }
+
+            _isComplete = true;
+            return null;
+        }
+
+        if (marker != UtxoSnapshotWriter.ENTRY_MARKER) {
+            throw new IOException("Invalid UTXO snapshot entry marker: " + marker);
+        }
+
+        final byte[] transactionHashBytes = new byte[Sha256Hash.BYTE_COUNT];
+        _inputStream.readFully(transactionHashBytes);
+        final int outputIndex = _inputStream.readInt();
+        final Long blockHeight = _inputStream.readLong();
+        final Boolean isCoinbase = _inputStream.readBoolean();
+        final Long amount = _inputStream.readLong();
+
+        final int lockingScriptByteCount = _inputStream.readInt();
+        if ( (lockingScriptByteCount < 0) || (lockingScriptByteCount > TransactionInflater.MAX_BYTE_COUNT) ) {
+            throw new IOException("Invalid UTXO snapshot LockingScript byte count: " + lockingScriptByteCount);
+        }
+        final byte[] lockingScriptBytes = new byte[lockingScriptByteCount];
+        _inputStream.readFully(lockingScriptBytes);
+
+        if ( (blockHeight < 0L) || (blockHeight > _blockHeight) ) {
+            throw new IOException("Invalid UTXO snapshot entry Block height: " + blockHeight);
+        }
+
+        final UtxoKey utxoKey = new UtxoKey(transactionHashBytes, outputIndex);
+        if ( (_previousUtxoKey != null) && (UtxoKey.COMPARATOR.compare(_previousUtxoKey, utxoKey) >= 0) ) {
+            throw new IOException("UTXO snapshot entries are not in ascending order.");
+        }
+        _previousUtxoKey = utxoKey;
+        _entryCount += 1L;
+
+        final MutableTransactionOutput transactionOutput = new MutableTransactionOutput();
+        transactionOutput.setIndex(outputIndex);
+        transactionOutput.setAmount(amount);
+        transactionOutput.setLockingScript(ByteArray.wrap(lockingScriptBytes));
+
+        final TransactionOutputIdentifier transactionOutputIdentifier = new TransactionOutputIdentifier(Sha256Hash.wrap(transactionHashBytes), outputIndex);
+        return new UtxoSnapshotEntry(transactionOutputIdentifier, blockHeight, isCoinbase, transactionOutput);
+    }
+
+    public Long getEntryCount() {
+        return _entryCount;
+    }
+
+    public Boolean isComplete() {
+        return _isComplete;
+    }
+
+    @Override
+    public void close() throws IOException {
+        _inputStream.close();
+    }
+}
@@ -0,0 +1,125 @@
+package com.softwareverde.bitcoin.server.module.node.database.transaction.fullnode.utxo.snapshot;
+
+import com.softwareverde.bitcoin.block.header.BlockHeader;
+import com.softwareverde.bitcoin.block.header.BlockHeaderDeflater;
+import com.softwareverde.bitcoin.server.module.node.database.transaction.fullnode.utxo.jvm.UtxoKey;
+import com.softwareverde.bitcoin.transaction.output.TransactionOutput;
+import com.softwareverde.bitcoin.transaction.output.identifier.TransactionOutputIdentifier;
+import com.softwareverde.bitcoin.transaction.script.locking.LockingScript;
+import com.softwareverde.constable.bytearray.ByteArray;
+import com.softwareverde.cryptography.hash.sha256.Sha256Hash;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Streams the BlockHeaders and UTXOs of a UTXO set snapshot to an OutputStream.
+ *  Format (big-endian):
+ *      Header:         [4 bytes: MAGIC_NUMBER] [4 bytes: VERSION] [32 bytes: Block hash] [8 bytes: Block height]
+ *      BlockHeaders:   [80 bytes: BlockHeader] for each Block from the genesis Block through the snapshot's Block, inclusive
+ *      Entry:          [1 byte: ENTRY_MARKER] [32 bytes: Transaction hash] [4 bytes: output index] [8 bytes: Block height] [1 byte: is coinbase]
+ *                      [8 bytes: amount] [4 bytes: LockingScript byte count] [LockingScript bytes]
+ *      Trailer:        [1 byte: zero] [8 bytes: entry count] [32 bytes: SHA-256 checksum of all preceding bytes]
+ *  Entries must be written in ascending order by UtxoKey::COMPARATOR (i.e. the committed UTXO table's primary-key order), without duplicates.
+ *  The trailer is written when the writer is closed; a snapshot without a trailer was not completely written.
+ */
+public class UtxoSnapshotWriter implements AutoCloseable {
+    public static final Integer MAGIC_NUMBER = 0x56555458; // "VUTX"
+    public static final Integer VERSION = 1;
+    public static final Integer ENTRY_MARKER = 1;
+    public static final String CHECKSUM_ALGORITHM = "SHA-256";
+
+    protected static MessageDigest newMessageDigest() throws IOException {
+        try {
+            return MessageDigest.getInstance(CHECKSUM_ALGORITHM);
+        }
+        catch (final NoSuchAlgorithmException exception) {
+            throw new IOException(exception);
+        }
+    }
+
+    protected final BlockHeaderDeflater _blockHeaderDeflater = new BlockHeaderDeflater();
+    protected final DigestOutputStream _digestOutputStream;
+    protected final DataOutputStream _outputStream;
+    protected final Long _blockHeight;
+    protected long _blockHeaderCount = 0L;
+    protected long _entryCount = 0L;
+    protected UtxoKey _previousUtxoKey = null;
+
+    public UtxoSnapshotWriter(final OutputStream outputStream, final Sha256Hash blockHash, final Long blockHeight) throws IOException {
+        _digestOutputStream = new DigestOutputStream(new BufferedOutputStream(outputStream), UtxoSnapshotWriter.newMessageDigest());
+        _outputStream = new DataOutputStream(_digestOutputStream);
+        _blockHeight = blockHeight;
+
+        _outputStream.writeInt(MAGIC_NUMBER);
+        _outputStream.writeInt(VERSION);
+        _outputStream.write(blockHash.getBytes());
+        _outputStream.writeLong(blockHeight);
+    }
+
+    /**
+     * Writes the next BlockHeader, starting with the genesis Block.
+     *  Every BlockHeader must be written before the first entry.
+     */
+    public void writeBlockHeader(final BlockHeader blockHeader) throws IOException {
+        if (_blockHeaderCount > _blockHeight) { throw new IOException("Too many BlockHeaders written to UTXO snapshot."); }
+
+        final ByteArray blockHeaderBytes = _blockHeaderDeflater.toBytes(blockHeader);
+        _outputStream.write(blockHeaderBytes.getBytes());
+
+        _blockHeaderCount += 1L;
+    }
+
+    public void write(final UtxoSnapshotEntry utxoSnapshotEntry) throws IOException {
+        if (_blockHeaderCount != (_blockHeight + 1L)) { throw new IOException("UTXO snapshot BlockHeaders must be written before its entries. Expected " + (_blockHeight + 1L) + ", found " + _blockHeaderCount + "."); }
+
+        final TransactionOutputIdentifier transactionOutputIdentifier = utxoSnapshotEntry.getTransactionOutputIdentifier();
+        final UtxoKey utxoKey = new UtxoKey(transactionOutputIdentifier);
+        if ( (_previousUtxoKey != null) && (UtxoKey.COMPARATOR.compare(_previousUtxoKey, utxoKey) >= 0) ) {
+            throw new IOException("UTXO snapshot entries must be written in ascending order: " + transactionOutputIdentifier);
+        }
+
+        final TransactionOutput transactionOutput = utxoSnapshotEntry.getTransactionOutput();
+        final LockingScript lockingScript = transactionOutput.getLockingScript();
+        final ByteArray lockingScriptBytes = lockingScript.getBytes();
+
+        _outputStream.writeByte(ENTRY_MARKER);
+        _outputStream.write(utxoKey.transactionHash);
+        _outputStream.writeInt(utxoKey.outputIndex);
+        _outputStream.writeLong(utxoSnapshotEntry.getBlockHeight());
+        _outputStream.writeBoolean(utxoSnapshotEntry.isCoinbase());
+        _outputStream.writeLong(transactionOutput.getAmount());
+        _outputStream.writeInt(lockingScriptBytes.getByteCount());
+        _outputStream.write(lockingScriptBytes.getBytes());
+
+        _previousUtxoKey = utxoKey;
+        _entryCount += 1L;
+    }
+
+    public Long getEntryCount() {
+        return _entryCount;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            _outputStream.writeByte(0);
+            _outputStream.writeLong(_entryCount);
+            _outputStream.flush();
+
+            final MessageDigest messageDigest = _digestOutputStream.getMessageDigest();
+            final byte[] checksum = messageDigest.digest();
+            _digestOutputStream.on(false);
+            _outputStream.write(checksum);
+            _outputStream.flush();
+        }
+        finally {
+            _outputStream.close();
+        }
+    }
+}
@@ -1,7 +1,9 @@
 package com.softwareverde.bitcoin.server.module.node.handler;
 
+import com.softwareverde.bitcoin.address.AddressInflater;
 import com.softwareverde.bitcoin.block.Block;
 import com.softwareverde.bitcoin.block.BlockId;
+import com.softwareverde.bitcoin.bloomfilter.BlockBloomFilterElements;
 import com.softwareverde.bitcoin.server.message.type.query.response.error.NotFoundResponseMessage;
 import com.softwareverde.bitcoin.server.message.type.query.response.hash.InventoryItem;
 import com.softwareverde.bitcoin.server.message.type.query.response.hash.InventoryItemType;
@@ -23,9 +25,17 @@ import com.softwareverde.util.Util;
 import com.softwareverde.util.timer.NanoTimer;
 
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.concurrent.atomic.AtomicBoolean;
 
+/**
+ * Serves Block, MerkleBlock, and Transaction requests from peers.
+ *  The BloomFilter elements of recently requested MerkleBlocks are cached, since many SPV peers typically (re)scan the same recent Blocks.
+ */
 public class RequestDataHandler implements BitcoinNode.RequestDataHandler {
+    protected static final Integer MAX_CACHED_BLOCK_BLOOM_FILTER_ELEMENTS_COUNT = 16;
+
     public static final BitcoinNode.RequestDataHandler IGNORE_REQUESTS_HANDLER = new BitcoinNode.RequestDataHandler() {
         @Override
         public void run(final BitcoinNode bitcoinNode, final List<InventoryItem> dataHashes) { }
@@ -35,6 +45,37 @@ public class RequestDataHandler implements BitcoinNode.RequestDataHandler {
     protected final FullNodeDatabaseManagerFactory _databaseManagerFactory;
     protected final BlockStore _blockStore;
 
+    protected final AddressInflater _addressInflater = new AddressInflater();
+    protected final LinkedHashMap<Sha256Hash, BlockBloomFilterElements> _blockBloomFilterElements = new LinkedHashMap<Sha256Hash, BlockBloomFilterElements>(MAX_CACHED_BLOCK_BLOOM_FILTER_ELEMENTS_COUNT, 0.75F, true) {
+        @Override
+        protected boolean removeEldestEntry(final Map.Entry<Sha256Hash, BlockBloomFilterElements> eldest) {
+            return (this.size() > MAX_CACHED_BLOCK_BLOOM_FILTER_ELEMENTS_COUNT);
+        }
+    };
+
+    protected BlockBloomFilterElements _getCachedBlockBloomFilterElements(final Sha256Hash blockHash) {
+        synchronized (_blockBloomFilterElements) {
+            return _blockBloomFilterElements.get(blockHash);
+        }
+    }
+
+    protected void _cacheBlockBloomFilterElements(final BlockBloomFilterElements blockBloomFilterElements) {
+        synchronized (_blockBloomFilterElements) {
+            _blockBloomFilterElements.put(blockBloomFilterElements.getBlockHash(), blockBloomFilterElements);
+        }
+    }
+
+    protected void _onBlockDataTransmitted(final BitcoinNode bitcoinNode, final Sha256Hash blockHash, final NanoTimer getBlockDataTimer, final BlockHeaderDatabaseManager blockHeaderDatabaseManager) throws DatabaseException {
+        getBlockDataTimer.stop();
+        Logger.debug("GetBlockData: " + blockHash + " "  + bitcoinNode.getRemoteNodeIpAddress() + " " + getBlockDataTimer.getMillisecondsElapsed() + "ms");
+
+        final Sha256Hash batchContinueHash = bitcoinNode.getBatchContinueHash();
+        if (Util.areEqual(batchContinueHash, blockHash)) {
+            final Sha256Hash headBlockHash = blockHeaderDatabaseManager.getHeadBlockHeaderHash();
+            bitcoinNode.transmitBatchContinueHash(headBlockHash);
+        }
+    }
+
     public RequestDataHandler(final FullNodeDatabaseManagerFactory databaseManagerFactory, final BlockStore blockStore) {
         _databaseManagerFactory = databaseManagerFactory;
         _blockStore = blockStore;
@@ -75,10 +116,25 @@ public class RequestDataHandler implements BitcoinNode.RequestDataHandler {
                             continue;
                         }
 
+                        final Long blockHeight = blockHeaderDatabaseManager.getBlockHeight(blockId);
+                        if (blockDatabaseManager.isBlockPruned(blockHeight)) {
+                            notFoundDataHashes.add(inventoryItem);
+                            continue;
+                        }
+
+                        final Boolean isMerkleBlockRequest = (inventoryItem.getItemType() == InventoryItemType.MERKLE_BLOCK);
+                        if (isMerkleBlockRequest) { // Serve recently requested Blocks from their precomputed BloomFilter elements without reloading them...
+                            final BlockBloomFilterElements blockBloomFilterElements = _getCachedBlockBloomFilterElements(blockHash);
+                            if (blockBloomFilterElements != null) {
+                                bitcoinNode.transmitMerkleBlock(blockBloomFilterElements);
+                                _onBlockDataTransmitted(bitcoinNode, blockHash, getBlockDataTimer, blockHeaderDatabaseManager);
+                                continue;
+                            }
+                        }
+
                         final Block block;
                         {
                             if (_blockStore != null) {
-                                final Long blockHeight = blockHeaderDatabaseManager.getBlockHeight(blockId);
                                 final Block cachedBlock = _blockStore.getBlock(blockHash, blockHeight);
 
                                 if (cachedBlock != null) {
@@ -100,21 +156,16 @@ public class RequestDataHandler implements BitcoinNode.RequestDataHandler {
                             continue;
                         }
 
-                        if (inventoryItem.getItemType() == InventoryItemType.MERKLE_BLOCK) {
-                            bitcoinNode.transmitMerkleBlock(block);
+                        if (isMerkleBlockRequest) {
+                            final BlockBloomFilterElements blockBloomFilterElements = BlockBloomFilterElements.fromBlock(block, _addressInflater);
+                            _cacheBlockBloomFilterElements(blockBloomFilterElements);
+                            bitcoinNode.transmitMerkleBlock(blockBloomFilterElements);
                         }
                         else {
                             bitcoinNode.transmitBlock(block);
                         }
 
-                        getBlockDataTimer.stop();
-                        Logger.debug("GetBlockData: " + blockHash + " "  + bitcoinNode.getRemoteNodeIpAddress() + " " + getBlockDataTimer.getMillisecondsElapsed() + "ms");
-
-                        final Sha256Hash batchContinueHash = bitcoinNode.getBatchContinueHash();
-                        if (Util.areEqual(batchContinueHash, blockHash)) {
-                            final Sha256Hash headBlockHash = blockHeaderDatabaseManager.getHeadBlockHeaderHash();
-                            bitcoinNode.transmitBatchContinueHash(headBlockHash);
-                        }
+                        _onBlockDataTransmitted(bitcoinNode, blockHash, getBlockDataTimer, blockHeaderDatabaseManager);
                     } break;
 
                     case TRANSACTION: {
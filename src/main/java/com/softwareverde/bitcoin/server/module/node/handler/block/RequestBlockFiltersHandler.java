@@ -0,0 +1,135 @@
+package com.softwareverde.bitcoin.server.module.node.handler.block;
+
+import com.softwareverde.bitcoin.block.BlockId;
+import com.softwareverde.bitcoin.block.filter.BlockFilter;
+import com.softwareverde.bitcoin.block.filter.BlockFilterType;
+import com.softwareverde.bitcoin.chain.segment.BlockchainSegmentId;
+import com.softwareverde.bitcoin.server.message.type.query.response.filter.BlockFilterCheckpointMessage;
+import com.softwareverde.bitcoin.server.message.type.request.filter.RequestBlockFilterHeadersMessage;
+import com.softwareverde.bitcoin.server.message.type.request.filter.RequestBlockFiltersMessage;
+import com.softwareverde.bitcoin.server.module.node.database.block.filter.BlockFilterDatabaseManager;
+import com.softwareverde.bitcoin.server.module.node.database.block.filter.BlockFilterEntry;
+import com.softwareverde.bitcoin.server.module.node.database.block.header.BlockHeaderDatabaseManager;
+import com.softwareverde.bitcoin.server.module.node.database.fullnode.FullNodeDatabaseManager;
+import com.softwareverde.bitcoin.server.module.node.database.fullnode.FullNodeDatabaseManagerFactory;
+import com.softwareverde.bitcoin.server.node.BitcoinNode;
+import com.softwareverde.constable.list.List;
+import com.softwareverde.constable.list.mutable.MutableList;
+import com.softwareverde.cryptography.hash.sha256.Sha256Hash;
+import com.softwareverde.database.DatabaseException;
+import com.softwareverde.logging.Logger;
+
+/**
+ * Serves BIP-157 requests (getcfilters, getcfheaders, getcfcheckpt) from the filters stored by the BlockFilterIndexer.
+ *  Requests for Blocks that have not yet been indexed (or that exceed the BIP-157 limits) are ignored.
+ */
+public class RequestBlockFiltersHandler implements BitcoinNode.RequestBlockFiltersHandler {
+    protected final FullNodeDatabaseManagerFactory _databaseManagerFactory;
+
+    /**
+     * Returns the filter entries from startBlockHeight through stopBlockHash, or null if the request is invalid or the range has not been indexed.
+     */
+    protected List<BlockFilterEntry> _getBlockFilterEntries(final FullNodeDatabaseManager databaseManager, final BlockFilterType blockFilterType, final Long startBlockHeight, final Sha256Hash stopBlockHash, final Integer maxBlockCount, final Boolean includeFilters) throws DatabaseException {
+        final BlockHeaderDatabaseManager blockHeaderDatabaseManager = databaseManager.getBlockHeaderDatabaseManager();
+        final BlockFilterDatabaseManager blockFilterDatabaseManager = databaseManager.getBlockFilterDatabaseManager();
+
+        if ( (blockFilterType == null) || (startBlockHeight == null) || (stopBlockHash == null) ) { return null; }
+
+        final BlockId stopBlockId = blockHeaderDatabaseManager.getBlockHeaderId(stopBlockHash);
+        if (stopBlockId == null) { return null; }
+
+        final Long stopBlockHeight = blockHeaderDatabaseManager.getBlockHeight(stopBlockId);
+        if ( (startBlockHeight > stopBlockHeight) || ((stopBlockHeight - startBlockHeight) >= maxBlockCount) ) { return null; }
+
+        return blockFilterDatabaseManager.getBlockFilterEntries(blockFilterType, startBlockHeight, stopBlockId, includeFilters);
+    }
+
+    public RequestBlockFiltersHandler(final FullNodeDatabaseManagerFactory databaseManagerFactory) {
+        _databaseManagerFactory = databaseManagerFactory;
+    }
+
+    @Override
+    public void requestBlockFilters(final BitcoinNode bitcoinNode, final BlockFilterType blockFilterType, final Long startBlockHeight, final Sha256Hash stopBlockHash) {
+        try (final FullNodeDatabaseManager databaseManager = _databaseManagerFactory.newDatabaseManager()) {
+            final List<BlockFilterEntry> blockFilterEntries = _getBlockFilterEntries(databaseManager, blockFilterType, startBlockHeight, stopBlockHash, RequestBlockFiltersMessage.MAX_BLOCK_COUNT, true);
+            if (blockFilterEntries == null) {
+                Logger.debug("Unable to serve Block filters " + startBlockHeight + " through " + stopBlockHash + " to " + bitcoinNode + ".");
+                return;
+            }
+
+            final MutableList<Sha256Hash> blockHashes = new MutableList<Sha256Hash>(blockFilterEntries.getCount());
+            final MutableList<BlockFilter> blockFilters = new MutableList<BlockFilter>(blockFilterEntries.getCount());
+            for (final BlockFilterEntry blockFilterEntry : blockFilterEntries) {
+                blockHashes.add(blockFilterEntry.getBlockHash());
+                blockFilters.add(blockFilterEntry.getBlockFilter());
+            }
+
+            bitcoinNode.transmitBlockFilters(blockHashes, blockFilters);
+        }
+        catch (final DatabaseException exception) {
+            Logger.warn(exception);
+        }
+    }
+
+    @Override
+    public void requestBlockFilterHeaders(final BitcoinNode bitcoinNode, final BlockFilterType blockFilterType, final Long startBlockHeight, final Sha256Hash stopBlockHash) {
+        try (final FullNodeDatabaseManager databaseManager = _databaseManagerFactory.newDatabaseManager()) {
+            // The response includes the filter header of the Block preceding startBlockHeight, so its entry is loaded alongside the requested range...
+            final Boolean includesGenesisBlock = ( (startBlockHeight != null) && (startBlockHeight == 0L) );
+            final Long firstBlockHeight = (includesGenesisBlock ? startBlockHeight : ((startBlockHeight != null) ? (startBlockHeight - 1L) : null));
+            final Integer maxBlockCount = (RequestBlockFilterHeadersMessage.MAX_BLOCK_COUNT + (includesGenesisBlock ? 0 : 1));
+
+            final List<BlockFilterEntry> blockFilterEntries = _getBlockFilterEntries(databaseManager, blockFilterType, firstBlockHeight, stopBlockHash, maxBlockCount, false);
+            final int firstFilterIndex = (includesGenesisBlock ? 0 : 1);
+            if ( (blockFilterEntries == null) || (blockFilterEntries.getCount() <= firstFilterIndex) ) {
+                Logger.debug("Unable to serve Block filter headers " + startBlockHeight + " through " + stopBlockHash + " to " + bitcoinNode + ".");
+                return;
+            }
+
+            final Sha256Hash previousFilterHeader = (includesGenesisBlock ? BlockFilter.GENESIS_PREVIOUS_FILTER_HEADER : blockFilterEntries.get(0).getFilterHeader());
+            final MutableList<Sha256Hash> filterHashes = new MutableList<Sha256Hash>(blockFilterEntries.getCount());
+            for (int i = firstFilterIndex; i < blockFilterEntries.getCount(); ++i) {
+                final BlockFilterEntry blockFilterEntry = blockFilterEntries.get(i);
+                filterHashes.add(blockFilterEntry.getFilterHash());
+            }
+
+            bitcoinNode.transmitBlockFilterHeaders(blockFilterType, stopBlockHash, previousFilterHeader, filterHashes);
+        }
+        catch (final DatabaseException exception) {
+            Logger.warn(exception);
+        }
+    }
+
+    @Override
+    public void requestBlockFilterCheckpoint(final BitcoinNode bitcoinNode, final BlockFilterType blockFilterType, final Sha256Hash stopBlockHash) {
+        if ( (blockFilterType == null) || (stopBlockHash == null) ) { return; }
+
+        try (final FullNodeDatabaseManager databaseManager = _databaseManagerFactory.newDatabaseManager()) {
+            final BlockHeaderDatabaseManager blockHeaderDatabaseManager = databaseManager.getBlockHeaderDatabaseManager();
+            final BlockFilterDatabaseManager blockFilterDatabaseManager = databaseManager.getBlockFilterDatabaseManager();
+
+            final BlockId stopBlockId = blockHeaderDatabaseManager.getBlockHeaderId(stopBlockHash);
+            if (stopBlockId == null) { return; }
+
+            final Long stopBlockHeight = blockHeaderDatabaseManager.getBlockHeight(stopBlockId);
+            final BlockchainSegmentId blockchainSegmentId = blockHeaderDatabaseManager.getBlockchainSegmentId(stopBlockId);
+
+            final MutableList<Sha256Hash> filterHeaders = new MutableList<Sha256Hash>();
+            for (long blockHeight = BlockFilterCheckpointMessage.CHECKPOINT_INTERVAL; blockHeight <= stopBlockHeight; blockHeight += BlockFilterCheckpointMessage.CHECKPOINT_INTERVAL) {
+                final BlockId blockId = blockHeaderDatabaseManager.getBlockIdAtHeight(blockchainSegmentId, blockHeight);
+                final Sha256Hash filterHeader = ((blockId != null) ? blockFilterDatabaseManager.getBlockFilterHeader(blockId, blockFilterType) : null);
+                if (filterHeader == null) {
+                    Logger.debug("Unable to serve Block filter checkpoint " + stopBlockHash + " to " + bitcoinNode + ".");
+                    return;
+                }
+
+                filterHeaders.add(filterHeader);
+            }
+
+            bitcoinNode.transmitBlockFilterCheckpoint(blockFilterType, stopBlockHash, filterHeaders);
+        }
+        catch (final DatabaseException exception) {
+            Logger.warn(exception);
+        }
+    }
+}
@@ -3,9 +3,9 @@ package com.softwareverde.bitcoin.server.module.node.handler.transaction;
 import com.softwareverde.bitcoin.server.SynchronizationStatus;
 import com.softwareverde.bitcoin.server.module.node.database.fullnode.FullNodeDatabaseManager;
 import com.softwareverde.bitcoin.server.module.node.database.fullnode.FullNodeDatabaseManagerFactory;
-import com.softwareverde.bitcoin.server.module.node.database.node.fullnode.FullNodeBitcoinNodeDatabaseManager;
 import com.softwareverde.bitcoin.server.module.node.database.transaction.TransactionDatabaseManager;
 import com.softwareverde.bitcoin.server.module.node.database.transaction.pending.PendingTransactionDatabaseManager;
+import com.softwareverde.bitcoin.server.module.node.manager.TransactionInventoryTracker;
 import com.softwareverde.bitcoin.server.node.BitcoinNode;
 import com.softwareverde.bitcoin.transaction.TransactionId;
 import com.softwareverde.constable.list.List;
@@ -22,18 +22,24 @@ public class TransactionInventoryAnnouncementHandler implements BitcoinNode.Tran
 
     protected final BitcoinNode _bitcoinNode;
     protected final FullNodeDatabaseManagerFactory _databaseManagerFactory;
+    protected final TransactionInventoryTracker _transactionInventoryTracker;
     protected final Runnable _newInventoryCallback;
     protected final SynchronizationStatus _synchronizationStatus;
 
-    public TransactionInventoryAnnouncementHandler(final BitcoinNode bitcoinNode, final FullNodeDatabaseManagerFactory databaseManagerFactory, final SynchronizationStatus synchronizationStatus, final Runnable newInventoryCallback) {
+    public TransactionInventoryAnnouncementHandler(final BitcoinNode bitcoinNode, final FullNodeDatabaseManagerFactory databaseManagerFactory, final TransactionInventoryTracker transactionInventoryTracker, final SynchronizationStatus synchronizationStatus, final Runnable newInventoryCallback) {
         _bitcoinNode = bitcoinNode;
         _databaseManagerFactory = databaseManagerFactory;
+        _transactionInventoryTracker = transactionInventoryTracker;
         _newInventoryCallback = newInventoryCallback;
         _synchronizationStatus = synchronizationStatus;
     }
 
     @Override
     public void onResult(final BitcoinNode bitcoinNode, final List<Sha256Hash> transactionHashes) {
+        if (_transactionInventoryTracker != null) {
+            _transactionInventoryTracker.markTransactionsKnown(_bitcoinNode.getId(), transactionHashes);
+        }
+
         if (_synchronizationStatus != null) {
             final Boolean isReadyForTransactions = _synchronizationStatus.isReadyForTransactions();
             if (! isReadyForTransactions) { return; }
@@ -42,7 +48,6 @@ public class TransactionInventoryAnnouncementHandler implements BitcoinNode.Tran
         try (final FullNodeDatabaseManager databaseManager = _databaseManagerFactory.newDatabaseManager()) {
             final TransactionDatabaseManager transactionDatabaseManager = databaseManager.getTransactionDatabaseManager();
             final PendingTransactionDatabaseManager pendingTransactionDatabaseManager = databaseManager.getPendingTransactionDatabaseManager();
-            final FullNodeBitcoinNodeDatabaseManager nodeDatabaseManager = databaseManager.getNodeDatabaseManager();
 
             final List<Sha256Hash> unseenTransactionHashes;
             {
@@ -58,7 +63,6 @@ public class TransactionInventoryAnnouncementHandler implements BitcoinNode.Tran
 
             if (! unseenTransactionHashes.isEmpty()) {
                 pendingTransactionDatabaseManager.storeTransactionHashes(unseenTransactionHashes);
-                nodeDatabaseManager.updateTransactionInventory(_bitcoinNode, unseenTransactionHashes);
 
                 if (_newInventoryCallback != null) {
                     _newInventoryCallback.run();
@@ -6,6 +6,8 @@ import com.softwareverde.bitcoin.server.configuration.BitcoinProperties;
 import com.softwareverde.bitcoin.server.message.type.MessageType;
 import com.softwareverde.bitcoin.server.message.type.node.address.BitcoinNodeIpAddress;
 import com.softwareverde.bitcoin.server.message.type.node.feature.NodeFeatures;
+import com.softwareverde.bitcoin.server.metrics.Gauge;
+import com.softwareverde.bitcoin.server.metrics.Metrics;
 import com.softwareverde.bitcoin.server.module.node.MemoryPoolEnquirer;
 import com.softwareverde.bitcoin.server.module.node.database.DatabaseManager;
 import com.softwareverde.bitcoin.server.module.node.database.DatabaseManagerFactory;
@@ -82,6 +84,7 @@ public class BitcoinNodeManager {
         public SynchronizationStatus synchronizationStatusHandler;
         public ThreadPool threadPool;
         public SystemTime systemTime;
+        public TransactionInventoryTracker transactionInventoryTracker;
     }
 
     protected static class NodePerformance {
@@ -127,6 +130,7 @@ public class BitcoinNodeManager {
     protected final MemoryPoolEnquirer _memoryPoolEnquirer;
     protected final SynchronizationStatus _synchronizationStatusHandler;
     protected final BitcoinNodeHeadBlockFinder _bitcoinNodeHeadBlockFinder;
+    protected final TransactionInventoryTracker _transactionInventoryTracker;
     protected final MutableList<String> _dnsSeeds = new MutableList<String>(0);
 
     protected final Object _threadMutex = new Object();
@@ -557,6 +561,7 @@ public class BitcoinNodeManager {
         if (nodeIpAddress != null) {
             _connectedNodeAddresses.remove(nodeIpAddress);
         }
+        _transactionInventoryTracker.removeNode(nodeId);
 
         bitcoinNode.setDisconnectedCallback(null);
         bitcoinNode.setHandshakeCompleteCallback(null);
@@ -573,10 +578,10 @@ public class BitcoinNodeManager {
 
     protected void _onNodeDisconnected(final BitcoinNode bitcoinNode) {
         Logger.debug("Node Disconnected: " + bitcoinNode.getConnectionString());
+        Metrics.PEER_DISCONNECT_COUNT.increment();
         _removeNode(bitcoinNode);
 
-        final Ip ip = bitcoinNode.getIp();
-        _banFilter.onNodeDisconnected(ip);
+        _banFilter.onNodeDisconnected(bitcoinNode);
     }
 
     /**
@@ -745,6 +750,7 @@ public class BitcoinNodeManager {
                 @Override
                 public void onResult(final Long pingInMilliseconds) {
                     Logger.debug("Node Pong: " + pingInMilliseconds);
+                    Metrics.PEER_PING_DURATION.observeMilliseconds(pingInMilliseconds);
                 }
             });
         }
@@ -849,6 +855,8 @@ public class BitcoinNodeManager {
     }
 
     protected void _onNodeHandshakeComplete(final BitcoinNode bitcoinNode) {
+        Metrics.PEER_HANDSHAKE_COUNT.increment();
+
         try (final DatabaseManager databaseManager = _databaseManagerFactory.newDatabaseManager()) {
             final BitcoinNodeDatabaseManager nodeDatabaseManager = databaseManager.getNodeDatabaseManager();
 
@@ -986,6 +994,10 @@ public class BitcoinNodeManager {
         return _filterNodes(allNodes, nodeFilter);
     }
 
+    public TransactionInventoryTracker getTransactionInventoryTracker() {
+        return _transactionInventoryTracker;
+    }
+
     /**
      * Returns true if the NodeManager is connected, or is connecting, to a node at the provided Ip and port.
      */
@@ -1079,18 +1091,21 @@ public class BitcoinNodeManager {
                 final NodePerformance nodePerformance = _getNodePerformance(bitcoinNode);
                 nodePerformance.requestsFilledCount.incrementAndGet();
                 nodePerformance.byteCountReceived.addAndGet(byteCount);
+                Metrics.PEER_RECEIVED_BYTE_COUNT.add(byteCount);
             }
 
             @Override
             public void onDataSent(final BitcoinNode bitcoinNode, final MessageType messageType, final Integer byteCount) {
                 final NodePerformance nodePerformance = _getNodePerformance(bitcoinNode);
                 nodePerformance.byteCountSent.addAndGet(byteCount);
+                Metrics.PEER_SENT_BYTE_COUNT.add(byteCount);
             }
 
             @Override
             public void onFailedRequest(final BitcoinNode bitcoinNode, final MessageType expectedResponseType) {
                 final NodePerformance nodePerformance = _getNodePerformance(bitcoinNode);
                 nodePerformance.failedRequestCount.incrementAndGet();
+                Metrics.PEER_FAILED_REQUEST_COUNT.increment();
             }
         };
 
@@ -1099,8 +1114,28 @@ public class BitcoinNodeManager {
         _banFilter = context.banFilter;
         _memoryPoolEnquirer = context.memoryPoolEnquirer;
         _synchronizationStatusHandler = context.synchronizationStatusHandler;
+        _transactionInventoryTracker = ((context.transactionInventoryTracker != null) ? context.transactionInventoryTracker : new TransactionInventoryTracker());
 
         _bitcoinNodeHeadBlockFinder = new BitcoinNodeHeadBlockFinder(_databaseManagerFactory, _threadPool, _banFilter);
+
+        Metrics.REGISTRY.registerGauge("bitcoin_peers_connected", "Number of peers that have completed the handshake.", new Gauge.Source() {
+            @Override
+            public Number getValue() {
+                return _getAllHandshakedNodes().size();
+            }
+        });
+        Metrics.REGISTRY.registerGauge("bitcoin_peers_preferred", "Number of connected preferred peers.", new Gauge.Source() {
+            @Override
+            public Number getValue() {
+                return _preferredNodes.size();
+            }
+        });
+        Metrics.REGISTRY.registerGauge("bitcoin_peers_pending", "Number of peers that have not yet completed the handshake.", new Gauge.Source() {
+            @Override
+            public Number getValue() {
+                return _pendingNodes.size();
+            }
+        });
     }
 
     public Boolean hasBloomFilter() {
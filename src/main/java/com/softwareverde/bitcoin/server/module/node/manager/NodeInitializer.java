@@ -20,6 +20,7 @@ public class NodeInitializer {
         public BitcoinNode.RequestDataHandler requestDataHandler;
         public BitcoinNode.RequestSpvBlocksHandler requestSpvBlocksHandler;
         public BitcoinNode.RequestSlpTransactionsHandler requestSlpTransactionsHandler;
+        public BitcoinNode.RequestBlockFiltersHandler requestBlockFiltersHandler;
         public ThreadPoolFactory threadPoolFactory;
         public LocalNodeFeatures localNodeFeatures;
         public BitcoinNode.RequestPeersHandler requestPeersHandler;
@@ -37,6 +38,7 @@ public class NodeInitializer {
     protected final BitcoinNode.RequestDataHandler _requestDataHandler;
     protected final BitcoinNode.RequestSpvBlocksHandler _requestSpvBlocksHandler;
     protected final BitcoinNode.RequestSlpTransactionsHandler _requestSlpTransactionsHandler;
+    protected final BitcoinNode.RequestBlockFiltersHandler _requestBlockFiltersHandler;
     protected final ThreadPoolFactory _threadPoolFactory;
     protected final LocalNodeFeatures _localNodeFeatures;
     protected final BitcoinNode.RequestPeersHandler _requestPeersHandler;
@@ -53,6 +55,7 @@ public class NodeInitializer {
         bitcoinNode.setRequestDataHandler(_requestDataHandler);
         bitcoinNode.setRequestSpvBlocksHandler(_requestSpvBlocksHandler);
         bitcoinNode.setRequestSlpTransactionsHandler(_requestSlpTransactionsHandler);
+        bitcoinNode.setRequestBlockFiltersHandler(_requestBlockFiltersHandler);
         bitcoinNode.setSpvBlockInventoryAnnouncementHandler(_spvBlockInventoryAnnouncementHandler);
 
         bitcoinNode.setBlockInventoryMessageHandler(blockInventoryAnnouncementHandler);
@@ -77,6 +80,7 @@ public class NodeInitializer {
         _requestDataHandler = properties.requestDataHandler;
         _requestSpvBlocksHandler = properties.requestSpvBlocksHandler;
         _requestSlpTransactionsHandler = properties.requestSlpTransactionsHandler;
+        _requestBlockFiltersHandler = properties.requestBlockFiltersHandler;
         _threadPoolFactory = properties.threadPoolFactory;
         _localNodeFeatures = properties.localNodeFeatures;
         _requestPeersHandler = properties.requestPeersHandler;
@@ -0,0 +1,102 @@
+package com.softwareverde.bitcoin.server.module.node.manager;
+
+import com.softwareverde.constable.list.List;
+import com.softwareverde.constable.list.immutable.ImmutableListBuilder;
+import com.softwareverde.cryptography.hash.sha256.Sha256Hash;
+import com.softwareverde.network.p2p.node.NodeId;
+import com.softwareverde.util.Util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tracks which Transaction hashes each connected peer is known to have, either because the peer announced the
+ *  Transaction or because the Transaction was announced to the peer.
+ *  Each peer's inventory is bounded to the most recently used hashes; the oldest hashes are evicted first.
+ *  Peers are identified by BitcoinNode::getId, and their inventory is discarded via TransactionInventoryTracker::removeNode once disconnected.
+ */
+public class TransactionInventoryTracker {
+    public static final Integer DEFAULT_MAX_HASH_COUNT_PER_NODE = 16384;
+
+    protected static class NodeInventory extends LinkedHashMap<Sha256Hash, Boolean> {
+        protected final Integer _maxHashCount;
+
+        public NodeInventory(final Integer maxHashCount) {
+            super(16, 0.75F, true);
+            _maxHashCount = maxHashCount;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(final Map.Entry<Sha256Hash, Boolean> eldestEntry) {
+            return (this.size() > _maxHashCount);
+        }
+    }
+
+    protected final Integer _maxHashCountPerNode;
+    protected final ConcurrentHashMap<NodeId, NodeInventory> _nodeInventories = new ConcurrentHashMap<NodeId, NodeInventory>();
+
+    protected NodeInventory _getOrCreateNodeInventory(final NodeId nodeId) {
+        final NodeInventory nodeInventory = _nodeInventories.get(nodeId);
+        if (nodeInventory != null) { return nodeInventory; }
+
+        final NodeInventory newNodeInventory = new NodeInventory(_maxHashCountPerNode);
+        final NodeInventory existingNodeInventory = _nodeInventories.putIfAbsent(nodeId, newNodeInventory);
+        return ((existingNodeInventory != null) ? existingNodeInventory : newNodeInventory);
+    }
+
+    protected Boolean _hasTransaction(final NodeId nodeId, final Sha256Hash transactionHash) {
+        final NodeInventory nodeInventory = _nodeInventories.get(nodeId);
+        if (nodeInventory == null) { return false; }
+
+        synchronized (nodeInventory) {
+            return nodeInventory.containsKey(transactionHash);
+        }
+    }
+
+    public TransactionInventoryTracker() {
+        this(DEFAULT_MAX_HASH_COUNT_PER_NODE);
+    }
+
+    public TransactionInventoryTracker(final Integer maxHashCountPerNode) {
+        _maxHashCountPerNode = maxHashCountPerNode;
+    }
+
+    public void markTransactionsKnown(final NodeId nodeId, final List<Sha256Hash> transactionHashes) {
+        if (nodeId == null) { return; }
+        if (transactionHashes.isEmpty()) { return; }
+
+        final NodeInventory nodeInventory = _getOrCreateNodeInventory(nodeId);
+        synchronized (nodeInventory) {
+            for (final Sha256Hash transactionHash : transactionHashes) {
+                nodeInventory.put(transactionHash.asConst(), true);
+            }
+        }
+    }
+
+    public Boolean hasTransaction(final NodeId nodeId, final Sha256Hash transactionHash) {
+        return _hasTransaction(nodeId, transactionHash);
+    }
+
+    public List<NodeId> filterNodes(final List<NodeId> nodeIds, final Sha256Hash transactionHash, final FilterType filterType) {
+        final Boolean shouldKeepNodesWithInventory = (filterType == FilterType.KEEP_NODES_WITH_INVENTORY);
+
+        final ImmutableListBuilder<NodeId> filteredNodeIds = new ImmutableListBuilder<NodeId>(nodeIds.getCount());
+        for (final NodeId nodeId : nodeIds) {
+            final Boolean nodeHasTransaction = _hasTransaction(nodeId, transactionHash);
+            if (Util.areEqual(nodeHasTransaction, shouldKeepNodesWithInventory)) {
+                filteredNodeIds.add(nodeId);
+            }
+        }
+        return filteredNodeIds.build();
+    }
+
+    public void removeNode(final NodeId nodeId) {
+        if (nodeId == null) { return; }
+        _nodeInventories.remove(nodeId);
+    }
+
+    public Integer getNodeCount() {
+        return _nodeInventories.size();
+    }
+}
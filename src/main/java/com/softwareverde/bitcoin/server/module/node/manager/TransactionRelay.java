@@ -2,7 +2,6 @@ package com.softwareverde.bitcoin.server.module.node.manager;
 
 import com.softwareverde.bitcoin.server.module.node.database.fullnode.FullNodeDatabaseManager;
 import com.softwareverde.bitcoin.server.module.node.database.fullnode.FullNodeDatabaseManagerFactory;
-import com.softwareverde.bitcoin.server.module.node.database.node.fullnode.FullNodeBitcoinNodeDatabaseManager;
 import com.softwareverde.bitcoin.server.module.node.database.transaction.fullnode.FullNodeTransactionDatabaseManager;
 import com.softwareverde.bitcoin.server.module.node.rpc.NodeRpcHandler;
 import com.softwareverde.bitcoin.server.module.node.sync.SlpTransactionProcessor;
@@ -35,8 +34,9 @@ public class TransactionRelay {
     protected final ConcurrentLinkedDeque<Transaction> _queuedTransactions = new ConcurrentLinkedDeque<Transaction>();
 
     protected void _relayTransactions(final List<Transaction> transactions) {
+        final TransactionInventoryTracker transactionInventoryTracker = _bitcoinNodeManager.getTransactionInventoryTracker();
+
         try (final FullNodeDatabaseManager databaseManager = _databaseManagerFactory.newDatabaseManager()) {
-            final FullNodeBitcoinNodeDatabaseManager nodeDatabaseManager = databaseManager.getNodeDatabaseManager();
             final FullNodeTransactionDatabaseManager transactionDatabaseManager = databaseManager.getTransactionDatabaseManager();
 
             final TransactionAccumulator transactionAccumulator = SlpTransactionProcessor.createTransactionAccumulator(databaseManager, null);
@@ -75,7 +75,7 @@ public class TransactionRelay {
                     transactionsToAnnounceViaRpc.add(new TransactionWithFee(transaction, transactionFee));
                 }
 
-                final List<NodeId> nodesWithoutTransaction = nodeDatabaseManager.filterNodesViaTransactionInventory(connectedNodes, transactionHash, FilterType.KEEP_NODES_WITHOUT_INVENTORY);
+                final List<NodeId> nodesWithoutTransaction = transactionInventoryTracker.filterNodes(connectedNodes, transactionHash, FilterType.KEEP_NODES_WITHOUT_INVENTORY);
                 for (final NodeId nodeId : nodesWithoutTransaction) {
                     final BitcoinNode bitcoinNode = _bitcoinNodeManager.getNode(nodeId);
                     if (bitcoinNode == null) { continue; }
@@ -99,8 +99,8 @@ public class TransactionRelay {
                 final List<Sha256Hash> newTransactionHashes = nodeUnseenTransactionHashes.get(nodeId);
                 bitcoinNode.transmitTransactionHashes(newTransactionHashes);
 
-                // NOTE: It could be beneficial to update the available Node inventory, although is unnecessary unless the same Transaction is attempted to be broadcast multiple times (should never happen).
-                // nodeDatabaseManager.updateTransactionInventory(bitcoinNode, newTransactionHashes);
+                // Record the announcement so the same Transactions are not re-announced to this node.
+                transactionInventoryTracker.markTransactionsKnown(nodeId, newTransactionHashes);
             }
 
             if (_nodeRpcHandler != null) {
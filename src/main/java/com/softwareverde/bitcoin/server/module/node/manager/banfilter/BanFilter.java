@@ -22,7 +22,7 @@ public interface BanFilter {
 
     void onNodeConnected(Ip ip);
     void onNodeHandshakeComplete(BitcoinNode bitcoinNode);
-    void onNodeDisconnected(Ip ip);
+    void onNodeDisconnected(BitcoinNode bitcoinNode);
 
     /**
      * Returns false if bad inventory was received and marks the node as banned.
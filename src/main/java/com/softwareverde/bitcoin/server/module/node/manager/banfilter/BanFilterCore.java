@@ -5,6 +5,7 @@ import com.softwareverde.bitcoin.server.module.node.database.DatabaseManager;
 import com.softwareverde.bitcoin.server.module.node.database.DatabaseManagerFactory;
 import com.softwareverde.bitcoin.server.module.node.database.node.BitcoinNodeDatabaseManager;
 import com.softwareverde.bitcoin.server.node.BitcoinNode;
+import com.softwareverde.concurrent.pool.ThreadPool;
 import com.softwareverde.constable.list.List;
 import com.softwareverde.constable.list.immutable.ImmutableList;
 import com.softwareverde.cryptography.hash.sha256.Sha256Hash;
@@ -13,10 +14,22 @@ import com.softwareverde.logging.Logger;
 import com.softwareverde.network.ip.Ip;
 import com.softwareverde.util.type.time.SystemTime;
 
-import java.util.HashSet;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
+/**
+ * Ban state, failed-connection history, and the whitelist/blacklist are held in memory so that checking an ip does not access the database.
+ *  Changes to ban state are persisted to the database by the ThreadPool after they occur (write-behind); failed writes are retried with an
+ *  increasing delay, and BanFilterCore::persistBanStates should be called during shutdown to write any states still pending.
+ *  Bans that have not yet expired are loaded from the database the first time an ip is checked.
+ */
 public class BanFilterCore implements BanFilter {
     public static class BanCriteria {
         public static final Integer FAILED_CONNECTION_ATTEMPT_COUNT = 10;
@@ -28,31 +41,268 @@ public class BanFilterCore implements BanFilter {
         );
     }
 
+    /**
+     * The connection history of a single node (ip and port).
+     *  Only the timestamps of the node's most recent FAILED_CONNECTION_ATTEMPT_COUNT failed connections are retained,
+     *  where a failed connection is one that disconnected without completing its handshake.
+     */
+    protected static class NodeConnectionHistory {
+        protected final long[] _failedConnectionTimestamps = new long[BanCriteria.FAILED_CONNECTION_ATTEMPT_COUNT];
+        protected int _failedConnectionCount = 0;
+        protected Boolean _hasCompletedHandshake = false;
+        protected long _lastSeenTimestamp = 0L;
+
+        public void onDisconnected(final Long timestamp) {
+            _lastSeenTimestamp = timestamp;
+            if (_hasCompletedHandshake) { return; }
+
+            _failedConnectionTimestamps[_failedConnectionCount % _failedConnectionTimestamps.length] = timestamp;
+            _failedConnectionCount += 1;
+        }
+
+        public void onHandshakeComplete(final Long timestamp) {
+            _lastSeenTimestamp = timestamp;
+            _hasCompletedHandshake = true;
+        }
+
+        /**
+         * Returns the number of failed connections since sinceTimestamp, or zero if the node has completed a handshake.
+         */
+        public Integer getFailedConnectionCount(final Long sinceTimestamp) {
+            if (_hasCompletedHandshake) { return 0; }
+
+            int failedConnectionCount = 0;
+            for (int i = 0; i < Math.min(_failedConnectionCount, _failedConnectionTimestamps.length); ++i) {
+                if (_failedConnectionTimestamps[i] >= sinceTimestamp) {
+                    failedConnectionCount += 1;
+                }
+            }
+            return failedConnectionCount;
+        }
+
+        public Long getLastSeenTimestamp() {
+            return _lastSeenTimestamp;
+        }
+    }
+
+    /**
+     * The connection histories of each node (port) at an ip.
+     *  Like the nodes table, an ip's failed connection count is the sum of the failed connections of its nodes that were seen within the window
+     *  and have never completed a handshake; nodes not seen within the window are removed.
+     */
+    protected static class ConnectionHistory {
+        protected final HashMap<Integer, NodeConnectionHistory> _nodeConnectionHistories = new HashMap<Integer, NodeConnectionHistory>();
+        protected long _lastSeenTimestamp = 0L;
+
+        protected NodeConnectionHistory _getNodeConnectionHistory(final Integer port) {
+            NodeConnectionHistory nodeConnectionHistory = _nodeConnectionHistories.get(port);
+            if (nodeConnectionHistory == null) {
+                nodeConnectionHistory = new NodeConnectionHistory();
+                _nodeConnectionHistories.put(port, nodeConnectionHistory);
+            }
+            return nodeConnectionHistory;
+        }
+
+        /**
+         * Records the node's disconnect and returns the ip's number of failed connections since sinceTimestamp.
+         */
+        public synchronized Integer onDisconnected(final Integer port, final Long timestamp, final Long sinceTimestamp) {
+            _lastSeenTimestamp = timestamp;
+
+            final NodeConnectionHistory nodeConnectionHistory = _getNodeConnectionHistory(port);
+            nodeConnectionHistory.onDisconnected(timestamp);
+
+            int failedConnectionCount = 0;
+            final Iterator<NodeConnectionHistory> iterator = _nodeConnectionHistories.values().iterator();
+            while (iterator.hasNext()) {
+                final NodeConnectionHistory history = iterator.next();
+                if (history.getLastSeenTimestamp() < sinceTimestamp) {
+                    iterator.remove();
+                    continue;
+                }
+
+                failedConnectionCount += history.getFailedConnectionCount(sinceTimestamp);
+            }
+            return failedConnectionCount;
+        }
+
+        public synchronized void onHandshakeComplete(final Integer port, final Long timestamp) {
+            _lastSeenTimestamp = timestamp;
+
+            final NodeConnectionHistory nodeConnectionHistory = _getNodeConnectionHistory(port);
+            nodeConnectionHistory.onHandshakeComplete(timestamp);
+        }
+
+        public synchronized Long getLastSeenTimestamp() {
+            return _lastSeenTimestamp;
+        }
+    }
+
     protected static final Long DEFAULT_BAN_DURATION = (60L * 60L); // 1 Hour (in seconds)...
+    protected static final Integer MAX_CONNECTION_HISTORY_COUNT = 16384;
+    protected static final Long INITIAL_WRITE_RETRY_DELAY_MS = 1000L;
+    protected static final Long MAX_WRITE_RETRY_DELAY_MS = 60000L;
 
     protected final SystemTime _systemTime = new SystemTime();
     protected final DatabaseManagerFactory _databaseManagerFactory;
-    protected final HashSet<Ip> _whitelist = new HashSet<>();
-    protected final HashSet<Pattern> _blacklist = new HashSet<>();
+    protected final ThreadPool _threadPool;
+    protected final Set<Ip> _whitelist = ConcurrentHashMap.newKeySet();
+    protected final Set<Pattern> _blacklist = ConcurrentHashMap.newKeySet();
     protected Long _banDurationInSeconds = DEFAULT_BAN_DURATION;
+    protected Long _initialWriteRetryDelayMs = INITIAL_WRITE_RETRY_DELAY_MS;
+
+    protected final ConcurrentHashMap<Ip, Long> _bannedIps = new ConcurrentHashMap<Ip, Long>(); // The timestamp (in seconds) of each ip's ban...
+    protected final ConcurrentHashMap<Ip, ConnectionHistory> _connectionHistories = new ConcurrentHashMap<Ip, ConnectionHistory>();
+    protected final ConcurrentHashMap<Ip, Boolean> _pendingBanStates = new ConcurrentHashMap<Ip, Boolean>(); // Ban state changes not yet persisted to the database...
+    protected final AtomicBoolean _writeIsScheduled = new AtomicBoolean(false);
+    protected volatile Boolean _bannedIpsAreLoaded = false;
+
+    protected void _loadBannedIps() {
+        if (_bannedIpsAreLoaded) { return; }
+
+        synchronized (_bannedIps) {
+            if (_bannedIpsAreLoaded) { return; }
+
+            try (final DatabaseManager databaseManager = _databaseManagerFactory.newDatabaseManager()) {
+                final BitcoinNodeDatabaseManager nodeDatabaseManager = databaseManager.getNodeDatabaseManager();
+
+                final Long sinceTimestamp = (_systemTime.getCurrentTimeInSeconds() - _banDurationInSeconds);
+                final Map<Ip, Long> bannedIps = nodeDatabaseManager.getBannedIps(sinceTimestamp);
+                for (final Map.Entry<Ip, Long> entry : bannedIps.entrySet()) {
+                    final Ip ip = entry.getKey();
+                    if (_pendingBanStates.containsKey(ip)) { continue; } // Newer, unpersisted state takes precedence...
+
+                    final Long bannedTimestamp = entry.getValue();
+                    _bannedIps.putIfAbsent(ip, bannedTimestamp);
+                }
+
+                Logger.debug("Loaded " + bannedIps.size() + " banned ips.");
+            }
+            catch (final DatabaseException exception) {
+                Logger.warn(exception);
+            }
+
+            _bannedIpsAreLoaded = true;
+        }
+    }
+
+    /**
+     * Writes the pending ban states to the database.
+     *  A pending state is only removed once it has been written, and only if it was not changed while being written;
+     *  states that fail to be written remain pending and are written by the next write.
+     *  Returns false if the pending states could not be written.
+     */
+    protected Boolean _persistBanStates() {
+        if (_pendingBanStates.isEmpty()) { return true; }
+
+        try (final DatabaseManager databaseManager = _databaseManagerFactory.newDatabaseManager()) {
+            final BitcoinNodeDatabaseManager nodeDatabaseManager = databaseManager.getNodeDatabaseManager();
+
+            for (final Map.Entry<Ip, Boolean> entry : new ArrayList<Map.Entry<Ip, Boolean>>(_pendingBanStates.entrySet())) {
+                final Ip ip = entry.getKey();
+                final Boolean isBanned = entry.getValue();
+
+                nodeDatabaseManager.setIsBanned(ip, isBanned);
+                _pendingBanStates.remove(ip, isBanned);
+            }
+
+            return true;
+        }
+        catch (final DatabaseException exception) {
+            Logger.warn(exception);
+            return false;
+        }
+    }
+
+    /**
+     * Schedules a write of the pending ban states after retryDelayMs.
+     *  If the write fails, another write is scheduled with double the delay (up to MAX_WRITE_RETRY_DELAY_MS).
+     */
+    protected void _scheduleWrite(final Long retryDelayMs) {
+        if (! _writeIsScheduled.compareAndSet(false, true)) { return; }
+
+        _threadPool.execute(new Runnable() {
+            @Override
+            public void run() {
+                if (retryDelayMs > 0L) {
+                    try { Thread.sleep(retryDelayMs); }
+                    catch (final InterruptedException exception) {
+                        _writeIsScheduled.set(false);
+                        return;
+                    }
+                }
+
+                // Cleared before writing so that changes made during the write schedule another write...
+                _writeIsScheduled.set(false);
+                final Boolean wasSuccessful = _persistBanStates();
+                if (! wasSuccessful) {
+                    final Long nextRetryDelayMs = Math.min(MAX_WRITE_RETRY_DELAY_MS, Math.max(_initialWriteRetryDelayMs, (retryDelayMs * 2L)));
+                    Logger.debug("Unable to write ban states; retrying in " + nextRetryDelayMs + "ms.");
+                    _scheduleWrite(nextRetryDelayMs);
+                }
+            }
+        });
+    }
+
+    protected void _scheduleWrite() {
+        _scheduleWrite(0L);
+    }
+
+    protected void _unbanIp(final Ip ip) {
+        if (ip == null) { return; }
 
-    protected void _unbanIp(final Ip ip, final DatabaseManager databaseManager) throws DatabaseException {
-        final BitcoinNodeDatabaseManager nodeDatabaseManager = databaseManager.getNodeDatabaseManager();
-        nodeDatabaseManager.setIsBanned(ip, false);
+        _bannedIps.remove(ip);
+        _connectionHistories.remove(ip); // Prevent the node from immediately being re-banned...
+
+        _pendingBanStates.put(ip, false);
+        _scheduleWrite();
 
         Logger.info("Unbanned " + ip);
     }
 
-    protected void _banIp(final Ip ip, final DatabaseManager databaseManager) throws DatabaseException {
-        final BitcoinNodeDatabaseManager nodeDatabaseManager = databaseManager.getNodeDatabaseManager();
-        nodeDatabaseManager.setIsBanned(ip, true);
+    protected void _banIp(final Ip ip) {
+        if (ip == null) { return; }
+
+        _bannedIps.put(ip, _systemTime.getCurrentTimeInSeconds());
+
+        _pendingBanStates.put(ip, true);
+        _scheduleWrite();
+
         Logger.info("Banned " + ip);
     }
 
-    protected Boolean _shouldBanIp(final Ip ip, final DatabaseManager databaseManager) throws DatabaseException {
-        final BitcoinNodeDatabaseManager nodeDatabaseManager = databaseManager.getNodeDatabaseManager();
+    protected ConnectionHistory _getConnectionHistory(final Ip ip) {
+        final ConnectionHistory connectionHistory = _connectionHistories.get(ip);
+        if (connectionHistory != null) { return connectionHistory; }
+
+        if (_connectionHistories.size() >= MAX_CONNECTION_HISTORY_COUNT) {
+            _pruneConnectionHistories();
+        }
+
+        final ConnectionHistory newConnectionHistory = new ConnectionHistory();
+        final ConnectionHistory existingConnectionHistory = _connectionHistories.putIfAbsent(ip, newConnectionHistory);
+        return (existingConnectionHistory != null ? existingConnectionHistory : newConnectionHistory);
+    }
+
+    /**
+     * Removes the connection histories that have not been seen within the failed-connection window.
+     */
+    protected void _pruneConnectionHistories() {
         final Long sinceTimestamp = (_systemTime.getCurrentTimeInSeconds() - BanCriteria.FAILED_CONNECTION_ATTEMPT_SECONDS_SPAN);
-        final Integer failedConnectionCount = nodeDatabaseManager.getFailedConnectionCountForIp(ip, sinceTimestamp);
+        for (final Map.Entry<Ip, ConnectionHistory> entry : _connectionHistories.entrySet()) {
+            final ConnectionHistory connectionHistory = entry.getValue();
+            if (connectionHistory.getLastSeenTimestamp() < sinceTimestamp) {
+                _connectionHistories.remove(entry.getKey(), connectionHistory);
+            }
+        }
+    }
+
+    protected Boolean _shouldBanIp(final Ip ip, final Integer port) {
+        final Long now = _systemTime.getCurrentTimeInSeconds();
+        final Long sinceTimestamp = (now - BanCriteria.FAILED_CONNECTION_ATTEMPT_SECONDS_SPAN);
+
+        final ConnectionHistory connectionHistory = _getConnectionHistory(ip);
+        final Integer failedConnectionCount = connectionHistory.onDisconnected(port, now, sinceTimestamp);
         final boolean shouldBanIp = (failedConnectionCount >= BanCriteria.FAILED_CONNECTION_ATTEMPT_COUNT);
 
         if (shouldBanIp) {
@@ -62,8 +312,9 @@ public class BanFilterCore implements BanFilter {
         return shouldBanIp;
     }
 
-    public BanFilterCore(final DatabaseManagerFactory databaseManagerFactory) {
+    public BanFilterCore(final DatabaseManagerFactory databaseManagerFactory, final ThreadPool threadPool) {
         _databaseManagerFactory = databaseManagerFactory;
+        _threadPool = threadPool;
     }
 
     @Override
@@ -73,36 +324,28 @@ public class BanFilterCore implements BanFilter {
             return false;
         }
 
-        try (final DatabaseManager databaseManager = _databaseManagerFactory.newDatabaseManager()) {
-            final BitcoinNodeDatabaseManager nodeDatabaseManager = databaseManager.getNodeDatabaseManager();
+        _loadBannedIps();
 
-            final Long sinceTimestamp = (_systemTime.getCurrentTimeInSeconds() - _banDurationInSeconds);
-            return nodeDatabaseManager.isBanned(ip, sinceTimestamp);
-        }
-        catch (final DatabaseException exception) {
-            Logger.warn(exception);
+        final Long bannedTimestamp = _bannedIps.get(ip);
+        if (bannedTimestamp == null) { return false; }
+
+        final Long sinceTimestamp = (_systemTime.getCurrentTimeInSeconds() - _banDurationInSeconds);
+        if (bannedTimestamp < sinceTimestamp) {
+            _bannedIps.remove(ip, bannedTimestamp); // The ban has expired...
             return false;
         }
+
+        return true;
     }
 
     @Override
     public void banIp(final Ip ip) {
-        try (final DatabaseManager databaseManager = _databaseManagerFactory.newDatabaseManager()) {
-            _banIp(ip, databaseManager);
-        }
-        catch (final DatabaseException exception) {
-            Logger.warn(exception);
-        }
+        _banIp(ip);
     }
 
     @Override
     public void unbanIp(final Ip ip) {
-        try (final DatabaseManager databaseManager = _databaseManagerFactory.newDatabaseManager()) {
-            _unbanIp(ip, databaseManager);
-        }
-        catch (final DatabaseException exception) {
-            Logger.warn(exception);
-        }
+        _unbanIp(ip);
     }
 
     @Override
@@ -112,35 +355,32 @@ public class BanFilterCore implements BanFilter {
 
     @Override
     public void onNodeHandshakeComplete(final BitcoinNode bitcoinNode) {
+        final Ip ip = bitcoinNode.getIp();
+        if (ip != null) {
+            final ConnectionHistory connectionHistory = _getConnectionHistory(ip);
+            connectionHistory.onHandshakeComplete(bitcoinNode.getPort(), _systemTime.getCurrentTimeInSeconds());
+        }
+
         final String userAgent = bitcoinNode.getUserAgent();
         if (userAgent == null) { return; }
 
         for (final Pattern pattern : _blacklist) {
             final Matcher matcher = pattern.matcher(userAgent);
             if (matcher.find()) {
-
-                try (final DatabaseManager databaseManager = _databaseManagerFactory.newDatabaseManager()) {
-                    final Ip ip = bitcoinNode.getIp();
-                    _banIp(ip, databaseManager);
-                }
-                catch (final DatabaseException exception) {
-                    Logger.warn(exception);
-                }
-
+                _banIp(ip);
                 bitcoinNode.disconnect();
             }
         }
     }
 
     @Override
-    public void onNodeDisconnected(final Ip ip) {
-        try (final DatabaseManager databaseManager = _databaseManagerFactory.newDatabaseManager()) {
-            if (_shouldBanIp(ip, databaseManager)) {
-                _banIp(ip, databaseManager);
-            }
-        }
-        catch (final DatabaseException exception) {
-            Logger.warn(exception);
+    public void onNodeDisconnected(final BitcoinNode bitcoinNode) {
+        final Ip ip = bitcoinNode.getIp();
+        if (ip == null) { return; }
+        if (_whitelist.contains(ip)) { return; }
+
+        if (_shouldBanIp(ip, bitcoinNode.getPort())) {
+            _banIp(ip);
         }
     }
 
@@ -150,13 +390,7 @@ public class BanFilterCore implements BanFilter {
             final boolean containsInvalidBlock = blockInventory.contains(blockHash);
             if (containsInvalidBlock) {
                 final Ip ip = bitcoinNode.getIp();
-
-                try (final DatabaseManager databaseManager = _databaseManagerFactory.newDatabaseManager()) {
-                    _banIp(ip, databaseManager);
-                }
-                catch (final DatabaseException exception) {
-                    Logger.warn(exception);
-                }
+                _banIp(ip);
 
                 return false;
             }
@@ -172,13 +406,7 @@ public class BanFilterCore implements BanFilter {
             final boolean containsInvalidBlock = BanCriteria.INVALID_BLOCKS.contains(blockHash);
             if (containsInvalidBlock) {
                 final Ip ip = bitcoinNode.getIp();
-
-                try (final DatabaseManager databaseManager = _databaseManagerFactory.newDatabaseManager()) {
-                    _banIp(ip, databaseManager);
-                }
-                catch (final DatabaseException exception) {
-                    Logger.warn(exception);
-                }
+                _banIp(ip);
 
                 return false;
             }
@@ -190,13 +418,7 @@ public class BanFilterCore implements BanFilter {
     @Override
     public void addToWhitelist(final Ip ip) {
         _whitelist.add(ip);
-
-        try (final DatabaseManager databaseManager = _databaseManagerFactory.newDatabaseManager()) {
-            _unbanIp(ip, databaseManager);
-        }
-        catch (final DatabaseException exception) {
-            Logger.warn(exception);
-        }
+        _unbanIp(ip);
 
         Logger.debug("Added ip to Whitelist: " + ip);
     }
@@ -221,4 +443,11 @@ public class BanFilterCore implements BanFilter {
     public void setBanDuration(final Long banDurationInSeconds) {
         _banDurationInSeconds = banDurationInSeconds;
     }
+
+    /**
+     * Immediately persists any ban state changes that have not yet been written to the database.
+     */
+    public void persistBanStates() {
+        _persistBanStates();
+    }
 }
@@ -56,7 +56,7 @@ public class DisabledBanFilter implements BanFilter {
     }
 
     @Override
-    public void onNodeDisconnected(final Ip ip) {
+    public void onNodeDisconnected(final BitcoinNode bitcoinNode) {
         // Nothing.
     }
 
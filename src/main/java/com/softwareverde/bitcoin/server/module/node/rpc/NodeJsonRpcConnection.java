@@ -289,6 +289,21 @@ public class NodeJsonRpcConnection implements AutoCloseable {
         return _executeJsonRequest(rpcRequestJson);
     }
 
+    /**
+     * Returns the difficulty required for a Block at blockHeight upon the node's head Blockchain.
+     */
+    public Json getDifficulty(final Long blockHeight) {
+        final Json rpcParametersJson = new Json();
+        rpcParametersJson.put("blockHeight", blockHeight);
+
+        final Json rpcRequestJson = new Json();
+        rpcRequestJson.put("method", "GET");
+        rpcRequestJson.put("query", "DIFFICULTY");
+        rpcRequestJson.put("parameters", rpcParametersJson);
+
+        return _executeJsonRequest(rpcRequestJson);
+    }
+
     public Json getBlockReward() {
         final Json rpcRequestJson = new Json();
         rpcRequestJson.put("method", "GET");
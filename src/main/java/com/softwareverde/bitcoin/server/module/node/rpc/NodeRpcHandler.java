@@ -48,9 +48,14 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class NodeRpcHandler implements JsonSocketServer.SocketConnectedCallback {
     public static final Integer MAX_ADDRESS_FILTER_SIZE = 256;
+    public static final Integer DEFAULT_MAX_QUEUED_HOOK_EVENT_COUNT = 4096;
 
     protected static final String ERROR_MESSAGE_KEY = "errorMessage";
     protected static final String WAS_SUCCESS_KEY = "wasSuccess";
@@ -119,7 +124,7 @@ public class NodeRpcHandler implements JsonSocketServer.SocketConnectedCallback
 
         Transaction getTransaction(Sha256Hash transactionHash);
 
-        Difficulty getDifficulty();
+        Difficulty getDifficulty(Long nullableBlockHeight);
         List<Transaction> getUnconfirmedTransactions();
         List<TransactionWithFee> getUnconfirmedTransactionsWithFees();
 
@@ -168,27 +173,103 @@ public class NodeRpcHandler implements JsonSocketServer.SocketConnectedCallback
         }
     }
 
+    /**
+     * Determines how a HookListener is handled once its queue of undelivered events is full.
+     *  DROP_EVENTS discards the new event and keeps the subscription; DISCONNECT closes the subscriber's connection.
+     */
+    public enum SlowHookListenerPolicy {
+        DROP_EVENTS,
+        DISCONNECT;
+
+        public static SlowHookListenerPolicy fromString(final String string) {
+            for (final SlowHookListenerPolicy slowHookListenerPolicy : SlowHookListenerPolicy.values()) {
+                final String policyName = slowHookListenerPolicy.name();
+                if (policyName.equalsIgnoreCase(string)) {
+                    return slowHookListenerPolicy;
+                }
+            }
+
+            return null;
+        }
+    }
+
+    /**
+     * Creates the ProtocolMessage upon first use and serializes it exactly once,
+     *  so that the same bytes are shared by every HookListener receiving the event.
+     */
     protected static abstract class LazyProtocolMessage {
         private ProtocolMessage _cachedProtocolMessage;
 
         protected abstract ProtocolMessage _createProtocolMessage();
 
-        public ProtocolMessage getProtocolMessage() {
+        public synchronized ProtocolMessage getProtocolMessage() {
             if (_cachedProtocolMessage == null) {
-                _cachedProtocolMessage = _createProtocolMessage();
+                final ProtocolMessage protocolMessage = _createProtocolMessage();
+                final ByteArray bytes = protocolMessage.getBytes();
+                _cachedProtocolMessage = new ProtocolMessage() {
+                    @Override
+                    public ByteArray getBytes() {
+                        return bytes;
+                    }
+                };
             }
 
             return _cachedProtocolMessage;
         }
     }
 
+    /**
+     * A subscriber to one HookEvent.
+     *  Events are queued (up to maxQueuedEventCount) and written to the socket by at most one ThreadPool task at a time,
+     *  so a slow subscriber only delays its own events and never the thread that published them.
+     *  Since socket writes block, the ThreadPool used for writing should be dedicated to HookListeners.
+     */
     protected static class HookListener {
         public final JsonSocket socket;
         public final Boolean rawFormat;
         public final Boolean includeTransactionFees;
         public final BloomFilter addressFilter;
 
-        public HookListener(final JsonSocket socket, final Boolean rawFormat, final Boolean includeTransactionFees, final List<Address> addressesFilter) {
+        protected final Integer _maxQueuedEventCount;
+        protected final SlowHookListenerPolicy _slowHookListenerPolicy;
+        protected final ConcurrentLinkedQueue<ProtocolMessage> _queuedEvents = new ConcurrentLinkedQueue<ProtocolMessage>();
+        protected final AtomicInteger _queuedEventCount = new AtomicInteger(0);
+        protected final AtomicBoolean _isWriting = new AtomicBoolean(false);
+        protected final AtomicLong _droppedEventCount = new AtomicLong(0L);
+
+        protected void _writeQueuedEvents() {
+            while (true) {
+                final ProtocolMessage protocolMessage = _queuedEvents.poll();
+                if (protocolMessage == null) { break; }
+                _queuedEventCount.decrementAndGet();
+
+                if (! this.socket.isConnected()) { continue; }
+                this.socket.write(protocolMessage);
+            }
+        }
+
+        protected void _scheduleWrite(final ThreadPool threadPool) {
+            if (! _isWriting.compareAndSet(false, true)) { return; }
+
+            threadPool.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        _writeQueuedEvents();
+                    }
+                    finally {
+                        _isWriting.set(false);
+                    }
+
+                    // An event may have been queued after the queue was drained but before the flag was released...
+                    if (! _queuedEvents.isEmpty()) {
+                        _scheduleWrite(threadPool);
+                    }
+                }
+            });
+        }
+
+        public HookListener(final JsonSocket socket, final Boolean rawFormat, final Boolean includeTransactionFees, final List<Address> addressesFilter, final Integer maxQueuedEventCount, final SlowHookListenerPolicy slowHookListenerPolicy) {
             this.socket = socket;
             this.rawFormat = rawFormat;
             this.includeTransactionFees = includeTransactionFees;
@@ -204,16 +285,53 @@ public class NodeRpcHandler implements JsonSocketServer.SocketConnectedCallback
             else {
                 this.addressFilter = null;
             }
+
+            _maxQueuedEventCount = maxQueuedEventCount;
+            _slowHookListenerPolicy = slowHookListenerPolicy;
+        }
+
+        /**
+         * Queues the event for delivery without blocking.
+         *  Returns false if the HookListener is no longer connected (or was disconnected for being too slow) and should be uninstalled.
+         */
+        public Boolean queueEvent(final ProtocolMessage protocolMessage, final ThreadPool threadPool) {
+            if (! this.socket.isConnected()) { return false; }
+
+            final int queuedEventCount = _queuedEventCount.incrementAndGet();
+            if (queuedEventCount > _maxQueuedEventCount) {
+                _queuedEventCount.decrementAndGet();
+
+                if (_slowHookListenerPolicy == SlowHookListenerPolicy.DISCONNECT) {
+                    Logger.info("Disconnecting slow HookListener: " + this.socket);
+                    this.socket.close();
+                    return false;
+                }
+
+                final long droppedEventCount = _droppedEventCount.incrementAndGet();
+                Logger.debug("Dropped event for slow HookListener: " + this.socket + " (" + droppedEventCount + " dropped)");
+                return true;
+            }
+
+            _queuedEvents.offer(protocolMessage);
+            _scheduleWrite(threadPool);
+            return true;
+        }
+
+        public Long getDroppedEventCount() {
+            return _droppedEventCount.get();
         }
     }
 
     protected final MasterInflater _masterInflater;
     protected final ThreadPool _threadPool;
+    protected final ThreadPool _hookThreadPool;
     protected final Container<Float> _averageBlocksPerSecond;
     protected final Container<Float> _averageBlockHeadersPerSecond;
     protected final Container<Float> _averageTransactionsPerSecond;
 
     protected final HashMap<HookEvent, MutableList<HookListener>> _eventHooks = new HashMap<HookEvent, MutableList<HookListener>>();
+    protected Integer _maxQueuedHookEventCount = DEFAULT_MAX_QUEUED_HOOK_EVENT_COUNT;
+    protected SlowHookListenerPolicy _slowHookListenerPolicy = SlowHookListenerPolicy.DISCONNECT;
 
     protected SynchronizationStatus _synchronizationStatusHandler = null;
     protected ShutdownHandler _shutdownHandler = null;
@@ -232,13 +350,52 @@ public class NodeRpcHandler implements JsonSocketServer.SocketConnectedCallback
     }
 
     public NodeRpcHandler(final StatisticsContainer statisticsContainer, final ThreadPool threadPool, final MasterInflater masterInflater) {
+        this(statisticsContainer, threadPool, threadPool, masterInflater);
+    }
+
+    /**
+     * The hookThreadPool is used to write events to HookListeners; since a slow HookListener blocks its writing thread,
+     *  the hookThreadPool should be separate from the threadPool servicing RPC requests.
+     */
+    public NodeRpcHandler(final StatisticsContainer statisticsContainer, final ThreadPool threadPool, final ThreadPool hookThreadPool, final MasterInflater masterInflater) {
         _averageBlockHeadersPerSecond = statisticsContainer.averageBlockHeadersPerSecond;
         _averageBlocksPerSecond = statisticsContainer.averageBlocksPerSecond;
         _averageTransactionsPerSecond = statisticsContainer.averageTransactionsPerSecond;
         _threadPool = threadPool;
+        _hookThreadPool = hookThreadPool;
         _masterInflater = masterInflater;
     }
 
+    protected List<HookListener> _getHookListeners(final HookEvent hookEvent) {
+        synchronized (_eventHooks) {
+            final MutableList<HookListener> hookListeners = _eventHooks.get(hookEvent);
+            if (hookListeners == null) { return null; }
+
+            return new MutableList<HookListener>(hookListeners);
+        }
+    }
+
+    protected void _removeHookListeners(final HookEvent hookEvent, final List<HookListener> disconnectedHookListeners) {
+        if (disconnectedHookListeners.isEmpty()) { return; }
+
+        synchronized (_eventHooks) {
+            final MutableList<HookListener> hookListeners = _eventHooks.get(hookEvent);
+            if (hookListeners == null) { return; }
+
+            final Iterator<HookListener> mutableIterator = hookListeners.mutableIterator();
+            while (mutableIterator.hasNext()) {
+                final HookListener hookListener = mutableIterator.next();
+                for (final HookListener disconnectedHookListener : disconnectedHookListeners) {
+                    if (hookListener == disconnectedHookListener) {
+                        mutableIterator.remove();
+                        Logger.debug("Dropping HookEvent: " + hookEvent + " " + hookListener.socket);
+                        break;
+                    }
+                }
+            }
+        }
+    }
+
     // Requires GET: [blockHeight], [maxBlockCount=10], [rawFormat=0]
     protected void _getBlockHeaders(final Json parameters, final Json response) {
 
@@ -612,15 +769,20 @@ public class NodeRpcHandler implements JsonSocketServer.SocketConnectedCallback
         response.put(WAS_SUCCESS_KEY, 1);
     }
 
-    // Requires GET:
-    protected void _calculateNextDifficulty(final Json response) {
+    // Requires GET: [blockHeight]
+    protected void _calculateNextDifficulty(final Json parameters, final Json response) {
         final DataHandler dataHandler = _dataHandler;
         if (dataHandler == null) {
             response.put(ERROR_MESSAGE_KEY, "Operation not supported.");
             return;
         }
 
-        final Difficulty difficulty = dataHandler.getDifficulty();
+        final Long blockHeight = (parameters.hasKey("blockHeight") ? parameters.getLong("blockHeight") : null);
+        final Difficulty difficulty = dataHandler.getDifficulty(blockHeight);
+        if (difficulty == null) {
+            response.put(ERROR_MESSAGE_KEY, "Unable to calculate difficulty.");
+            return;
+        }
 
         response.put("difficulty", difficulty.encode());
         response.put(WAS_SUCCESS_KEY, 1);
@@ -1123,7 +1285,7 @@ public class NodeRpcHandler implements JsonSocketServer.SocketConnectedCallback
                 }
 
                 final MutableList<HookListener> nodeIpAddresses = _eventHooks.get(hookEvent);
-                nodeIpAddresses.add(new HookListener(connection, shouldReturnRawData, shouldIncludeTransactionFees, addressFilter));
+                nodeIpAddresses.add(new HookListener(connection, shouldReturnRawData, shouldIncludeTransactionFees, addressFilter, _maxQueuedHookEventCount, _slowHookListenerPolicy));
             }
         }
 
@@ -1480,6 +1642,15 @@ public class NodeRpcHandler implements JsonSocketServer.SocketConnectedCallback
         _logLevelSetter = logLevelSetter;
     }
 
+    /**
+     * Configures the delivery queue of HookListeners installed after this call.
+     *  Once a HookListener has maxQueuedEventCount undelivered events, new events are handled according to the slowHookListenerPolicy.
+     */
+    public void setHookListenerQueueProperties(final Integer maxQueuedEventCount, final SlowHookListenerPolicy slowHookListenerPolicy) {
+        _maxQueuedHookEventCount = maxQueuedEventCount;
+        _slowHookListenerPolicy = slowHookListenerPolicy;
+    }
+
     public void onNewBlock(final BlockHeader block) {
         // Ensure the provided block is only the header by copying it...
         final BlockHeader blockHeader = new ImmutableBlockHeader(block);
@@ -1521,24 +1692,19 @@ public class NodeRpcHandler implements JsonSocketServer.SocketConnectedCallback
         _threadPool.execute(new Runnable() {
             @Override
             public void run() {
-                synchronized (_eventHooks) {
-                    final MutableList<HookListener> sockets = _eventHooks.get(HookEvent.NEW_BLOCK);
-                    if (sockets == null) { return; }
-
-                    final Iterator<HookListener> iterator = sockets.mutableIterator();
-                    while (iterator.hasNext()) {
-                        final HookListener hookListener = iterator.next();
-                        final JsonSocket jsonSocket = hookListener.socket;
-
-                        final ProtocolMessage protocolMessage = (hookListener.rawFormat ? lazyRawDataProtocolMessage.getProtocolMessage() : lazyMetadataProtocolMessage.getProtocolMessage());
-                        jsonSocket.write(protocolMessage);
-
-                        if (! jsonSocket.isConnected()) {
-                            iterator.remove();
-                            Logger.debug("Dropping HookEvent: " + HookEvent.NEW_BLOCK + " " + jsonSocket.toString());
-                        }
+                final List<HookListener> hookListeners = _getHookListeners(HookEvent.NEW_BLOCK);
+                if (hookListeners == null) { return; }
+
+                final MutableList<HookListener> disconnectedHookListeners = new MutableList<HookListener>(0);
+                for (final HookListener hookListener : hookListeners) {
+                    final ProtocolMessage protocolMessage = (hookListener.rawFormat ? lazyRawDataProtocolMessage.getProtocolMessage() : lazyMetadataProtocolMessage.getProtocolMessage());
+                    final Boolean isConnected = hookListener.queueEvent(protocolMessage, _hookThreadPool);
+                    if (! isConnected) {
+                        disconnectedHookListeners.add(hookListener);
                     }
                 }
+
+                _removeHookListeners(HookEvent.NEW_BLOCK, disconnectedHookListeners);
             }
         });
     }
@@ -1609,37 +1775,33 @@ public class NodeRpcHandler implements JsonSocketServer.SocketConnectedCallback
         _threadPool.execute(new Runnable() {
             @Override
             public void run() {
-                synchronized (_eventHooks) {
-                    final MutableList<HookListener> sockets = _eventHooks.get(HookEvent.NEW_TRANSACTION);
-                    if (sockets == null) { return; }
-
-                    final Iterator<HookListener> iterator = sockets.mutableIterator();
-                    while (iterator.hasNext()) {
-                        final HookListener hookListener = iterator.next();
-                        final JsonSocket jsonSocket = hookListener.socket;
-
-                        final BloomFilter addressFilter = hookListener.addressFilter;
-                        if (addressFilter != null) {
-                            if (! transaction.matches(addressFilter)) {
-                                continue;
-                            }
+                final List<HookListener> hookListeners = _getHookListeners(HookEvent.NEW_TRANSACTION);
+                if (hookListeners == null) { return; }
+
+                final MutableList<HookListener> disconnectedHookListeners = new MutableList<HookListener>(0);
+                for (final HookListener hookListener : hookListeners) {
+                    final BloomFilter addressFilter = hookListener.addressFilter;
+                    if (addressFilter != null) {
+                        if (! transaction.matches(addressFilter)) {
+                            continue;
                         }
+                    }
 
-                        final ProtocolMessage protocolMessage;
-                        if (hookListener.rawFormat) {
-                            protocolMessage = (hookListener.includeTransactionFees ? lazyRawProtocolMessageWithFee.getProtocolMessage() : lazyRawProtocolMessage.getProtocolMessage());
-                        }
-                        else {
-                            protocolMessage = lazyMetadataProtocolMessage.getProtocolMessage();
-                        }
-                        jsonSocket.write(protocolMessage);
+                    final ProtocolMessage protocolMessage;
+                    if (hookListener.rawFormat) {
+                        protocolMessage = (hookListener.includeTransactionFees ? lazyRawProtocolMessageWithFee.getProtocolMessage() : lazyRawProtocolMessage.getProtocolMessage());
+                    }
+                    else {
+                        protocolMessage = lazyMetadataProtocolMessage.getProtocolMessage();
+                    }
 
-                        if (! jsonSocket.isConnected()) {
-                            iterator.remove();
-                            Logger.debug("Dropping HookEvent: " + HookEvent.NEW_TRANSACTION + " " + jsonSocket.toString());
-                        }
+                    final Boolean isConnected = hookListener.queueEvent(protocolMessage, _hookThreadPool);
+                    if (! isConnected) {
+                        disconnectedHookListeners.add(hookListener);
                     }
                 }
+
+                _removeHookListeners(HookEvent.NEW_TRANSACTION, disconnectedHookListeners);
             }
         });
     }
@@ -1694,7 +1856,7 @@ public class NodeRpcHandler implements JsonSocketServer.SocketConnectedCallback
                             } break;
 
                             case "DIFFICULTY": {
-                                _calculateNextDifficulty(response);
+                                _calculateNextDifficulty(parameters, response);
                             } break;
 
                             case "BLOCK_REWARD": {
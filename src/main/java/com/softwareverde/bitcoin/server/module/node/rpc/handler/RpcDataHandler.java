@@ -335,14 +335,20 @@ public class RpcDataHandler implements NodeRpcHandler.DataHandler {
     }
 
     @Override
-    public Difficulty getDifficulty() {
+    public Difficulty getDifficulty(final Long nullableBlockHeight) {
         try (final DatabaseManager databaseManager = _databaseManagerFactory.newDatabaseManager()) {
             final BlockchainDatabaseManager blockchainDatabaseManager = databaseManager.getBlockchainDatabaseManager();
             final BlockHeaderDatabaseManager blockHeaderDatabaseManager = databaseManager.getBlockHeaderDatabaseManager();
 
             final BlockchainSegmentId blockchainSegmentId = blockchainDatabaseManager.getHeadBlockchainSegmentId();
-            final BlockId headBlockId = blockHeaderDatabaseManager.getHeadBlockHeaderId();
-            final Long nextBlockHeight = (blockHeaderDatabaseManager.getBlockHeight(headBlockId) + 1L);
+            final Long nextBlockHeight;
+            if (nullableBlockHeight != null) {
+                nextBlockHeight = nullableBlockHeight;
+            }
+            else {
+                final BlockId headBlockId = blockHeaderDatabaseManager.getHeadBlockHeaderId();
+                nextBlockHeight = (blockHeaderDatabaseManager.getBlockHeight(headBlockId) + 1L);
+            }
 
             final LazyDifficultyCalculatorContext difficultyCalculatorContext = new LazyDifficultyCalculatorContext(blockchainSegmentId, databaseManager);
             final DifficultyCalculator difficultyCalculator = new DifficultyCalculator(difficultyCalculatorContext);
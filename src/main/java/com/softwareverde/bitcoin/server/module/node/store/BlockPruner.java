@@ -0,0 +1,200 @@
+package com.softwareverde.bitcoin.server.module.node.store;
+
+import com.softwareverde.bitcoin.block.Block;
+import com.softwareverde.bitcoin.block.BlockId;
+import com.softwareverde.bitcoin.chain.segment.BlockchainSegmentId;
+import com.softwareverde.bitcoin.server.database.DatabaseConnection;
+import com.softwareverde.bitcoin.server.database.query.Query;
+import com.softwareverde.bitcoin.server.module.node.database.block.fullnode.FullNodeBlockDatabaseManager;
+import com.softwareverde.bitcoin.server.module.node.database.block.header.BlockHeaderDatabaseManager;
+import com.softwareverde.bitcoin.server.module.node.database.blockchain.BlockchainDatabaseManager;
+import com.softwareverde.bitcoin.server.module.node.database.fullnode.FullNodeDatabaseManager;
+import com.softwareverde.bitcoin.server.module.node.database.fullnode.FullNodeDatabaseManagerFactory;
+import com.softwareverde.bitcoin.server.module.node.database.transaction.fullnode.utxo.UnspentTransactionOutputDatabaseManager;
+import com.softwareverde.bitcoin.server.module.node.database.transaction.fullnode.utxo.UtxoSnapshotDatabaseManager;
+import com.softwareverde.bitcoin.server.module.node.database.transaction.fullnode.utxo.snapshot.UtxoSnapshotEntry;
+import com.softwareverde.bitcoin.transaction.Transaction;
+import com.softwareverde.bitcoin.transaction.input.TransactionInput;
+import com.softwareverde.bitcoin.transaction.output.TransactionOutput;
+import com.softwareverde.bitcoin.transaction.output.identifier.TransactionOutputIdentifier;
+import com.softwareverde.bitcoin.transaction.script.ScriptPatternMatcher;
+import com.softwareverde.concurrent.service.SleepyService;
+import com.softwareverde.constable.list.List;
+import com.softwareverde.constable.list.mutable.MutableList;
+import com.softwareverde.cryptography.hash.sha256.Sha256Hash;
+import com.softwareverde.database.DatabaseException;
+import com.softwareverde.database.row.Row;
+import com.softwareverde.database.util.TransactionUtil;
+import com.softwareverde.logging.Logger;
+import com.softwareverde.util.timer.MilliTimer;
+
+import java.util.HashSet;
+
+/**
+ * Deletes the data of old Blocks from the BlockStore, keeping only the most recent Blocks.
+ *  Before a Block's data is deleted, its outputs are retained within snapshot_transaction_outputs so that they may be validated.
+ *  A retained output is only removed once the Block that spent it is pruned, so outputs spent within the retained Blocks may be restored by a reorg.
+ *  Blocks are only pruned once the committed UTXO set includes them, since the UTXO set is rebuilt from the Blocks after the committed Block height.
+ *  Reorgs deeper than the retained Block count are not supported while pruning is enabled.
+ */
+public class BlockPruner extends SleepyService {
+    public static final Long MIN_RETAINED_BLOCK_COUNT = 288L; // BIP-159
+    public static final Long DEFAULT_RETAINED_BLOCK_COUNT = 2016L;
+    protected static final Integer BATCH_SIZE = 32;
+
+    protected final FullNodeDatabaseManagerFactory _databaseManagerFactory;
+    protected final BlockStore _blockStore;
+    protected final Long _retainedBlockCount;
+    protected final ScriptPatternMatcher _scriptPatternMatcher = new ScriptPatternMatcher();
+
+    protected void _removeBlocksAtHeight(final FullNodeDatabaseManager databaseManager, final Long blockHeight) throws DatabaseException {
+        final DatabaseConnection databaseConnection = databaseManager.getDatabaseConnection();
+
+        // Includes Blocks that are not a part of the head Blockchain...
+        final java.util.List<Row> rows = databaseConnection.query(
+            new Query("SELECT hash FROM blocks WHERE block_height = ?")
+                .setParameter(blockHeight)
+        );
+        for (final Row row : rows) {
+            final Sha256Hash blockHash = Sha256Hash.wrap(row.getBytes("hash"));
+            _blockStore.removeBlock(blockHash, blockHeight);
+        }
+    }
+
+    /**
+     * Returns the outputs created by the Block that are not spent within the Block itself.
+     *  Outputs that have already been spent by a subsequent Block are included, since that Block may still be undone by a reorg.
+     */
+    protected List<UtxoSnapshotEntry> _getRetainedTransactionOutputs(final Block block, final Long blockHeight) {
+        final List<Transaction> transactions = block.getTransactions();
+        final HashSet<TransactionOutputIdentifier> spentTransactionOutputIdentifiers = new HashSet<TransactionOutputIdentifier>();
+        for (final TransactionOutputIdentifier transactionOutputIdentifier : _getSpentTransactionOutputIdentifiers(block)) {
+            spentTransactionOutputIdentifiers.add(transactionOutputIdentifier);
+        }
+
+        final MutableList<UtxoSnapshotEntry> utxoSnapshotEntries = new MutableList<UtxoSnapshotEntry>();
+        boolean isCoinbase = true;
+        for (final Transaction transaction : transactions) {
+            final Sha256Hash transactionHash = transaction.getHash();
+            final List<TransactionOutput> transactionOutputs = transaction.getTransactionOutputs();
+            for (int outputIndex = 0; outputIndex < transactionOutputs.getCount(); ++outputIndex) {
+                final TransactionOutput transactionOutput = transactionOutputs.get(outputIndex);
+                if (_scriptPatternMatcher.isProvablyUnspendable(transactionOutput.getLockingScript())) { continue; }
+
+                final TransactionOutputIdentifier transactionOutputIdentifier = new TransactionOutputIdentifier(transactionHash, outputIndex);
+                if (spentTransactionOutputIdentifiers.contains(transactionOutputIdentifier)) { continue; }
+
+                utxoSnapshotEntries.add(new UtxoSnapshotEntry(transactionOutputIdentifier, blockHeight, isCoinbase, transactionOutput));
+            }
+            isCoinbase = false;
+        }
+
+        return utxoSnapshotEntries;
+    }
+
+    protected List<TransactionOutputIdentifier> _getSpentTransactionOutputIdentifiers(final Block block) {
+        final List<Transaction> transactions = block.getTransactions();
+
+        final MutableList<TransactionOutputIdentifier> spentTransactionOutputIdentifiers = new MutableList<TransactionOutputIdentifier>();
+        boolean isCoinbase = true;
+        for (final Transaction transaction : transactions) {
+            if (! isCoinbase) {
+                for (final TransactionInput transactionInput : transaction.getTransactionInputs()) {
+                    spentTransactionOutputIdentifiers.add(TransactionOutputIdentifier.fromTransactionInput(transactionInput));
+                }
+            }
+            isCoinbase = false;
+        }
+
+        return spentTransactionOutputIdentifiers;
+    }
+
+    /**
+     * Retains the outputs of the Block at the provided height and then removes its data from the BlockStore.
+     *  The outputs spent by the Block are no longer retained, since the Block is now deeper than any supported reorg.
+     */
+    protected void _pruneBlock(final FullNodeDatabaseManager databaseManager, final BlockchainSegmentId blockchainSegmentId, final Long blockHeight) throws DatabaseException {
+        final DatabaseConnection databaseConnection = databaseManager.getDatabaseConnection();
+        final BlockHeaderDatabaseManager blockHeaderDatabaseManager = databaseManager.getBlockHeaderDatabaseManager();
+        final FullNodeBlockDatabaseManager blockDatabaseManager = databaseManager.getBlockDatabaseManager();
+        final UtxoSnapshotDatabaseManager utxoSnapshotDatabaseManager = databaseManager.getUtxoSnapshotDatabaseManager();
+
+        final BlockId blockId = blockHeaderDatabaseManager.getBlockIdAtHeight(blockchainSegmentId, blockHeight);
+        final Sha256Hash blockHash = blockHeaderDatabaseManager.getBlockHash(blockId);
+        final Block block = _blockStore.getBlock(blockHash, blockHeight);
+
+        TransactionUtil.startTransaction(databaseConnection);
+        if (block != null) {
+            final List<UtxoSnapshotEntry> utxoSnapshotEntries = _getRetainedTransactionOutputs(block, blockHeight);
+            utxoSnapshotDatabaseManager.storeRetainedTransactionOutputs(utxoSnapshotEntries);
+
+            final List<TransactionOutputIdentifier> spentTransactionOutputIdentifiers = _getSpentTransactionOutputIdentifiers(block);
+            utxoSnapshotDatabaseManager.removeRetainedTransactionOutputs(spentTransactionOutputIdentifiers);
+        }
+        else {
+            Logger.warn("Unable to load Block for pruning: " + blockHash);
+        }
+        blockDatabaseManager.setPrunedBlockHeight(blockHeight);
+        TransactionUtil.commitTransaction(databaseConnection);
+
+        _removeBlocksAtHeight(databaseManager, blockHeight);
+    }
+
+    @Override
+    protected void _onStart() {
+        Logger.trace("BlockPruner Starting.");
+    }
+
+    @Override
+    protected Boolean _run() {
+        try (final FullNodeDatabaseManager databaseManager = _databaseManagerFactory.newDatabaseManager()) {
+            final BlockchainDatabaseManager blockchainDatabaseManager = databaseManager.getBlockchainDatabaseManager();
+            final BlockHeaderDatabaseManager blockHeaderDatabaseManager = databaseManager.getBlockHeaderDatabaseManager();
+            final FullNodeBlockDatabaseManager blockDatabaseManager = databaseManager.getBlockDatabaseManager();
+            final UnspentTransactionOutputDatabaseManager unspentTransactionOutputDatabaseManager = databaseManager.getUnspentTransactionOutputDatabaseManager();
+            final UtxoSnapshotDatabaseManager utxoSnapshotDatabaseManager = databaseManager.getUtxoSnapshotDatabaseManager();
+
+            final BlockId headBlockId = blockDatabaseManager.getHeadBlockId();
+            if (headBlockId == null) { return false; }
+
+            final Long headBlockHeight = blockHeaderDatabaseManager.getBlockHeight(headBlockId);
+            final Long committedBlockHeight = unspentTransactionOutputDatabaseManager.getCommittedUnspentTransactionOutputBlockHeight();
+            final Long maxPrunableBlockHeight = Math.min((headBlockHeight - _retainedBlockCount), committedBlockHeight);
+
+            // Blocks at or below an imported UTXO snapshot's Block were never stored...
+            final Long prunedBlockHeight = Math.max(blockDatabaseManager.getPrunedBlockHeight(), utxoSnapshotDatabaseManager.getSnapshotBlockHeight());
+            if (maxPrunableBlockHeight <= prunedBlockHeight) { return false; }
+
+            final MilliTimer pruneTimer = new MilliTimer();
+            pruneTimer.start();
+
+            final BlockchainSegmentId blockchainSegmentId = blockchainDatabaseManager.getHeadBlockchainSegmentId();
+            final Long lastBlockHeight = Math.min((prunedBlockHeight + BATCH_SIZE), maxPrunableBlockHeight);
+            for (long blockHeight = (prunedBlockHeight + 1L); blockHeight <= lastBlockHeight; ++blockHeight) {
+                if (_shouldAbort()) { return false; }
+
+                _pruneBlock(databaseManager, blockchainSegmentId, blockHeight);
+            }
+
+            pruneTimer.stop();
+            Logger.debug("Pruned Blocks " + (prunedBlockHeight + 1L) + " through " + lastBlockHeight + " in " + pruneTimer.getMillisecondsElapsed() + "ms.");
+
+            return (lastBlockHeight < maxPrunableBlockHeight);
+        }
+        catch (final DatabaseException exception) {
+            Logger.warn(exception);
+            return false;
+        }
+    }
+
+    @Override
+    protected void _onSleep() {
+        Logger.trace("BlockPruner Sleeping.");
+    }
+
+    public BlockPruner(final FullNodeDatabaseManagerFactory databaseManagerFactory, final BlockStore blockStore, final Long retainedBlockCount) {
+        _databaseManagerFactory = databaseManagerFactory;
+        _blockStore = blockStore;
+        _retainedBlockCount = Math.max(MIN_RETAINED_BLOCK_COUNT, retainedBlockCount);
+    }
+}
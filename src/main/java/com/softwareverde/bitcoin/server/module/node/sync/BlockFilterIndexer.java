@@ -0,0 +1,188 @@
+package com.softwareverde.bitcoin.server.module.node.sync;
+
+import com.softwareverde.bitcoin.block.Block;
+import com.softwareverde.bitcoin.block.BlockId;
+import com.softwareverde.bitcoin.block.filter.BlockFilter;
+import com.softwareverde.bitcoin.block.filter.BlockFilterBuilder;
+import com.softwareverde.bitcoin.block.filter.BlockFilterType;
+import com.softwareverde.bitcoin.chain.segment.BlockchainSegmentId;
+import com.softwareverde.bitcoin.server.module.node.database.block.filter.BlockFilterDatabaseManager;
+import com.softwareverde.bitcoin.server.module.node.database.block.fullnode.FullNodeBlockDatabaseManager;
+import com.softwareverde.bitcoin.server.module.node.database.block.header.BlockHeaderDatabaseManager;
+import com.softwareverde.bitcoin.server.module.node.database.blockchain.BlockchainDatabaseManager;
+import com.softwareverde.bitcoin.server.module.node.database.fullnode.FullNodeDatabaseManager;
+import com.softwareverde.bitcoin.server.module.node.database.fullnode.FullNodeDatabaseManagerFactory;
+import com.softwareverde.bitcoin.server.module.node.database.transaction.fullnode.FullNodeTransactionDatabaseManager;
+import com.softwareverde.bitcoin.server.module.node.store.BlockStore;
+import com.softwareverde.bitcoin.transaction.Transaction;
+import com.softwareverde.bitcoin.transaction.input.TransactionInput;
+import com.softwareverde.bitcoin.transaction.output.TransactionOutput;
+import com.softwareverde.bitcoin.transaction.output.identifier.TransactionOutputIdentifier;
+import com.softwareverde.bitcoin.transaction.script.locking.LockingScript;
+import com.softwareverde.concurrent.service.SleepyService;
+import com.softwareverde.constable.list.List;
+import com.softwareverde.constable.list.mutable.MutableList;
+import com.softwareverde.cryptography.hash.sha256.Sha256Hash;
+import com.softwareverde.database.DatabaseException;
+import com.softwareverde.logging.Logger;
+import com.softwareverde.util.timer.MilliTimer;
+
+import java.util.HashMap;
+
+/**
+ * Builds the BIP-158 basic filter and BIP-157 filter header of each Block on the head Blockchain, storing them within block_filters.
+ *  Filters are built in ascending height since each filter header commits to the previous Block's filter header.
+ *  Upon a reorg, indexing resumes from the most recent indexed Block on the new head Blockchain.
+ *  The Blocks' full history is required, so indexing is incompatible with pruning and with nodes bootstrapped from a UTXO snapshot.
+ */
+public class BlockFilterIndexer extends SleepyService {
+    protected static final Integer BATCH_SIZE = 128;
+
+    protected final FullNodeDatabaseManagerFactory _databaseManagerFactory;
+    protected final BlockStore _blockStore;
+    protected final BlockFilterBuilder _blockFilterBuilder = new BlockFilterBuilder();
+
+    /**
+     * Returns the height of the first Block on the head Blockchain that has not been indexed.
+     */
+    protected Long _getNextBlockHeight(final FullNodeDatabaseManager databaseManager, final BlockchainSegmentId headBlockchainSegmentId, final Long headBlockHeight) throws DatabaseException {
+        final BlockHeaderDatabaseManager blockHeaderDatabaseManager = databaseManager.getBlockHeaderDatabaseManager();
+        final BlockFilterDatabaseManager blockFilterDatabaseManager = databaseManager.getBlockFilterDatabaseManager();
+
+        final Long maxIndexedBlockHeight = blockFilterDatabaseManager.getMaxIndexedBlockHeight(BlockFilterType.BASIC);
+        if (maxIndexedBlockHeight == null) { return 0L; }
+
+        // The most recently indexed Blocks may belong to a different Blockchain after a reorg...
+        for (long blockHeight = Math.min(maxIndexedBlockHeight, headBlockHeight); blockHeight >= 0L; --blockHeight) {
+            final BlockId blockId = blockHeaderDatabaseManager.getBlockIdAtHeight(headBlockchainSegmentId, blockHeight);
+            if (blockId == null) { continue; }
+
+            if (blockFilterDatabaseManager.hasBlockFilter(blockId, BlockFilterType.BASIC)) {
+                return (blockHeight + 1L);
+            }
+        }
+
+        return 0L;
+    }
+
+    /**
+     * Returns the LockingScripts of the TransactionOutputs spent by the Block, or null if any could not be loaded.
+     */
+    protected List<LockingScript> _getSpentLockingScripts(final FullNodeDatabaseManager databaseManager, final Block block) throws DatabaseException {
+        final FullNodeTransactionDatabaseManager transactionDatabaseManager = databaseManager.getTransactionDatabaseManager();
+
+        final List<Transaction> transactions = block.getTransactions();
+        final HashMap<TransactionOutputIdentifier, TransactionOutput> blockTransactionOutputs = new HashMap<TransactionOutputIdentifier, TransactionOutput>();
+        for (final Transaction transaction : transactions) {
+            final Sha256Hash transactionHash = transaction.getHash();
+            final List<TransactionOutput> transactionOutputs = transaction.getTransactionOutputs();
+            for (int outputIndex = 0; outputIndex < transactionOutputs.getCount(); ++outputIndex) {
+                blockTransactionOutputs.put(new TransactionOutputIdentifier(transactionHash, outputIndex), transactionOutputs.get(outputIndex));
+            }
+        }
+
+        final MutableList<LockingScript> spentLockingScripts = new MutableList<LockingScript>();
+        boolean isCoinbase = true;
+        for (final Transaction transaction : transactions) {
+            if (isCoinbase) {
+                isCoinbase = false;
+                continue;
+            }
+
+            for (final TransactionInput transactionInput : transaction.getTransactionInputs()) {
+                final TransactionOutputIdentifier transactionOutputIdentifier = TransactionOutputIdentifier.fromTransactionInput(transactionInput);
+
+                TransactionOutput transactionOutput = blockTransactionOutputs.get(transactionOutputIdentifier);
+                if (transactionOutput == null) {
+                    transactionOutput = transactionDatabaseManager.getTransactionOutput(transactionOutputIdentifier);
+                }
+                if (transactionOutput == null) {
+                    Logger.warn("Unable to load spent output for Block filter: " + transactionOutputIdentifier);
+                    return null;
+                }
+
+                spentLockingScripts.add(transactionOutput.getLockingScript());
+            }
+        }
+
+        return spentLockingScripts;
+    }
+
+    @Override
+    protected void _onStart() {
+        Logger.trace("BlockFilterIndexer Starting.");
+    }
+
+    @Override
+    protected Boolean _run() {
+        try (final FullNodeDatabaseManager databaseManager = _databaseManagerFactory.newDatabaseManager()) {
+            final BlockchainDatabaseManager blockchainDatabaseManager = databaseManager.getBlockchainDatabaseManager();
+            final BlockHeaderDatabaseManager blockHeaderDatabaseManager = databaseManager.getBlockHeaderDatabaseManager();
+            final FullNodeBlockDatabaseManager blockDatabaseManager = databaseManager.getBlockDatabaseManager();
+            final BlockFilterDatabaseManager blockFilterDatabaseManager = databaseManager.getBlockFilterDatabaseManager();
+
+            final BlockId headBlockId = blockDatabaseManager.getHeadBlockId();
+            if (headBlockId == null) { return false; }
+
+            final Long headBlockHeight = blockHeaderDatabaseManager.getBlockHeight(headBlockId);
+            final BlockchainSegmentId headBlockchainSegmentId = blockchainDatabaseManager.getHeadBlockchainSegmentId();
+
+            final Long nextBlockHeight = _getNextBlockHeight(databaseManager, headBlockchainSegmentId, headBlockHeight);
+            if (nextBlockHeight > headBlockHeight) { return false; }
+
+            final MilliTimer indexTimer = new MilliTimer();
+            indexTimer.start();
+
+            final Long lastBlockHeight = Math.min((nextBlockHeight + BATCH_SIZE - 1L), headBlockHeight);
+            for (long blockHeight = nextBlockHeight; blockHeight <= lastBlockHeight; ++blockHeight) {
+                if (_shouldAbort()) { return false; }
+
+                final BlockId blockId = blockHeaderDatabaseManager.getBlockIdAtHeight(headBlockchainSegmentId, blockHeight);
+                if (blockId == null) { return false; } // The head Blockchain changed...
+
+                final Sha256Hash blockHash = blockHeaderDatabaseManager.getBlockHash(blockId);
+                final Block block = _blockStore.getBlock(blockHash, blockHeight);
+                if (block == null) {
+                    Logger.warn("Unable to load Block for filter indexing: " + blockHash);
+                    return false;
+                }
+
+                final Sha256Hash previousFilterHeader;
+                if (blockHeight == 0L) {
+                    previousFilterHeader = BlockFilter.GENESIS_PREVIOUS_FILTER_HEADER;
+                }
+                else {
+                    final BlockId previousBlockId = blockHeaderDatabaseManager.getBlockHeaderId(block.getPreviousBlockHash());
+                    previousFilterHeader = blockFilterDatabaseManager.getBlockFilterHeader(previousBlockId, BlockFilterType.BASIC);
+                    if (previousFilterHeader == null) { return false; }
+                }
+
+                final List<LockingScript> spentLockingScripts = _getSpentLockingScripts(databaseManager, block);
+                if (spentLockingScripts == null) { return false; }
+
+                final BlockFilter blockFilter = _blockFilterBuilder.buildBasicBlockFilter(block, spentLockingScripts);
+                final Sha256Hash filterHeader = BlockFilter.calculateFilterHeader(blockFilter.getHash(), previousFilterHeader);
+                blockFilterDatabaseManager.storeBlockFilter(blockId, blockFilter, filterHeader);
+            }
+
+            indexTimer.stop();
+            Logger.debug("Indexed Block filters " + nextBlockHeight + " through " + lastBlockHeight + " in " + indexTimer.getMillisecondsElapsed() + "ms.");
+
+            return (lastBlockHeight < headBlockHeight);
+        }
+        catch (final DatabaseException exception) {
+            Logger.warn(exception);
+            return false;
+        }
+    }
+
+    @Override
+    protected void _onSleep() {
+        Logger.trace("BlockFilterIndexer Sleeping.");
+    }
+
+    public BlockFilterIndexer(final FullNodeDatabaseManagerFactory databaseManagerFactory, final BlockStore blockStore) {
+        _databaseManagerFactory = databaseManagerFactory;
+        _blockStore = blockStore;
+    }
+}
@@ -11,6 +11,7 @@ import com.softwareverde.bitcoin.context.NodeManagerContext;
 import com.softwareverde.bitcoin.context.SystemTimeContext;
 import com.softwareverde.bitcoin.context.ThreadPoolContext;
 import com.softwareverde.bitcoin.context.core.BlockHeaderValidatorContext;
+import com.softwareverde.bitcoin.context.core.BlockHeaderWindow;
 import com.softwareverde.bitcoin.server.database.DatabaseConnection;
 import com.softwareverde.bitcoin.server.message.type.node.feature.NodeFeatures;
 import com.softwareverde.bitcoin.server.module.node.database.DatabaseManager;
@@ -56,6 +57,7 @@ public class BlockHeaderDownloader extends SleepyService {
     protected final Object _headersDownloadedPin = new Object();
     protected final AtomicBoolean _isProcessingHeaders = new AtomicBoolean(false);
     protected final Object _genesisBlockPin = new Object();
+    protected final BlockHeaderWindow _blockHeaderWindow = new BlockHeaderWindow(); // Only accessed while synchronized on BlockHeaderDatabaseManager.MUTEX...
     protected Boolean _hasGenesisBlock = false;
 
     protected Long _headBlockHeight = 0L;
@@ -182,7 +184,8 @@ public class BlockHeaderDownloader extends SleepyService {
             }
 
             final BlockchainSegmentId blockchainSegmentId = blockHeaderDatabaseManager.getBlockchainSegmentId(blockId);
-            final BlockHeaderValidatorContext blockHeaderValidatorContext = new BlockHeaderValidatorContext(blockchainSegmentId, databaseManager, networkTime);
+            _blockHeaderWindow.setHead(blockHeader.getPreviousBlockHash(), (blockHeight - 1L));
+            final BlockHeaderValidatorContext blockHeaderValidatorContext = new BlockHeaderValidatorContext(blockchainSegmentId, databaseManager, networkTime, _blockHeaderWindow);
             final BlockHeaderValidator blockHeaderValidator = new BlockHeaderValidator(blockHeaderValidatorContext);
 
             final BlockHeaderValidator.BlockHeaderValidationResult blockHeaderValidationResult = blockHeaderValidator.validateBlockHeader(blockHeader, blockHeight);
@@ -195,6 +198,7 @@ public class BlockHeaderDownloader extends SleepyService {
             _headBlockHeight = Math.max(blockHeight, _headBlockHeight);
 
             TransactionUtil.commitTransaction(databaseConnection);
+            _blockHeaderWindow.addBlockHeader(blockHeader, blockHeight);
         }
 
         return true;
@@ -285,7 +289,11 @@ public class BlockHeaderDownloader extends SleepyService {
 
             final BlockchainSegmentId blockchainSegmentId = blockHeaderDatabaseManager.getBlockchainSegmentId(firstBlockHeaderId);
 
-            final BlockHeaderValidatorContext blockHeaderValidatorContext = new BlockHeaderValidatorContext(blockchainSegmentId, databaseManager, networkTime);
+            // NOTE: BlockHeaders are added to the window before the transaction is committed so that the batch's later BlockHeaders are validated from memory;
+            //  if the transaction is rolled back, the uncommitted BlockHeaders are truncated from the window when it is next aligned via BlockHeaderWindow::setHead.
+            final BlockHeader firstBlockHeader = blockHeaders.get(0);
+            _blockHeaderWindow.setHead(firstBlockHeader.getPreviousBlockHash(), (firstBlockHeight - 1L));
+            final BlockHeaderValidatorContext blockHeaderValidatorContext = new BlockHeaderValidatorContext(blockchainSegmentId, databaseManager, networkTime, _blockHeaderWindow);
             final BlockHeaderValidator blockHeaderValidator = new BlockHeaderValidator(blockHeaderValidatorContext);
 
             long nextBlockHeight = firstBlockHeight;
@@ -303,6 +311,7 @@ public class BlockHeaderDownloader extends SleepyService {
                     return false;
                 }
 
+                _blockHeaderWindow.addBlockHeader(blockHeader, nextBlockHeight);
                 nextBlockHeight += 1L;
             }
 
@@ -149,7 +149,7 @@ public class BlockchainIndexer extends SleepyService {
                 final Address address;
                 {
                     final LockingScript lockingScript = transactionOutput.getLockingScript();
-                    final ScriptType scriptType = _scriptPatternMatcher.getScriptType(lockingScript);
+                    final ScriptType scriptType = lockingScript.getScriptType(); // NOTE: ImmutableLockingScripts cache their ScriptType and CompiledScript.
                     address = _scriptPatternMatcher.extractAddress(scriptType, lockingScript);
                 }
 
@@ -165,7 +165,7 @@ public class BlockchainIndexer extends SleepyService {
             }
         }
 
-        final ScriptType scriptType = _scriptPatternMatcher.getScriptType(slpLockingScript);
+        final ScriptType scriptType = slpLockingScript.getScriptType();
         if (! ScriptType.isSlpScriptType(scriptType)) {
             return outputIndexData;
         }
@@ -2,16 +2,15 @@ package com.softwareverde.bitcoin.server.module.node.sync.transaction;
 
 import com.softwareverde.bitcoin.server.module.node.database.fullnode.FullNodeDatabaseManager;
 import com.softwareverde.bitcoin.server.module.node.database.fullnode.FullNodeDatabaseManagerFactory;
-import com.softwareverde.bitcoin.server.module.node.database.node.BitcoinNodeDatabaseManager;
 import com.softwareverde.bitcoin.server.module.node.database.transaction.pending.PendingTransactionDatabaseManager;
 import com.softwareverde.bitcoin.server.module.node.manager.BitcoinNodeManager;
+import com.softwareverde.bitcoin.server.module.node.manager.TransactionInventoryTracker;
 import com.softwareverde.bitcoin.server.module.node.sync.transaction.pending.PendingTransactionId;
 import com.softwareverde.bitcoin.server.node.BitcoinNode;
 import com.softwareverde.bitcoin.server.node.RequestId;
 import com.softwareverde.bitcoin.transaction.Transaction;
 import com.softwareverde.concurrent.service.SleepyService;
 import com.softwareverde.constable.list.List;
-import com.softwareverde.constable.list.immutable.ImmutableListBuilder;
 import com.softwareverde.constable.list.mutable.MutableList;
 import com.softwareverde.cryptography.hash.sha256.Sha256Hash;
 import com.softwareverde.database.DatabaseException;
@@ -20,7 +19,7 @@ import com.softwareverde.network.p2p.node.NodeId;
 import com.softwareverde.util.Tuple;
 import com.softwareverde.util.timer.MilliTimer;
 
-import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
@@ -130,48 +129,70 @@ public class TransactionDownloader extends SleepyService {
             }
         }
 
+        final List<BitcoinNode> nodes = _bitcoinNodeManager.getNodes();
+        if (nodes.isEmpty()) { return false; }
+
+        final TransactionInventoryTracker transactionInventoryTracker = _bitcoinNodeManager.getTransactionInventoryTracker();
+
         try (final FullNodeDatabaseManager databaseManager = _databaseManagerFactory.newDatabaseManager()) {
-            final BitcoinNodeDatabaseManager nodeDatabaseManager = databaseManager.getNodeDatabaseManager();
             final PendingTransactionDatabaseManager pendingTransactionDatabaseManager = databaseManager.getPendingTransactionDatabaseManager();
 
-            final List<BitcoinNode> nodes = _bitcoinNodeManager.getNodes();
-            final HashMap<NodeId, BitcoinNode> nodeMap = new HashMap<NodeId, BitcoinNode>();
-            final List<NodeId> nodeIds;
-            {
-                final ImmutableListBuilder<NodeId> listBuilder = new ImmutableListBuilder<NodeId>(nodes.getCount());
-                for (final BitcoinNode node : nodes) {
-                    final NodeId nodeId = nodeDatabaseManager.getNodeId(node);
-                    if (nodeId != null) {
-                        listBuilder.add(nodeId);
-                        nodeMap.put(nodeId, node);
+            final Map<Sha256Hash, PendingTransactionId> pendingTransactionIds = pendingTransactionDatabaseManager.selectIncompletePendingTransactions();
+            if (pendingTransactionIds.isEmpty()) { return false; }
+
+            // Assign each pending Transaction to the node, known to have it, with the fewest Transactions assigned so far.
+            //  Since the selection is limited before the nodes' inventories are consulted, Transactions that cannot be assigned are
+            //  marked as attempted so that they do not starve the Transactions beyond the selection's limit.
+            final LinkedHashMap<BitcoinNode, MutableList<Sha256Hash>> downloadPlan = new LinkedHashMap<BitcoinNode, MutableList<Sha256Hash>>();
+            final MutableList<PendingTransactionId> skippedPendingTransactionIds = new MutableList<PendingTransactionId>();
+            for (final Sha256Hash transactionHash : pendingTransactionIds.keySet()) {
+                final boolean itemIsAlreadyBeingDownloaded = _currentTransactionDownloadSet.containsKey(transactionHash);
+                if (itemIsAlreadyBeingDownloaded) {
+                    skippedPendingTransactionIds.add(pendingTransactionIds.get(transactionHash));
+                    continue;
+                }
+
+                BitcoinNode selectedNode = null;
+                int selectedNodeAssignedCount = Integer.MAX_VALUE;
+                for (final BitcoinNode bitcoinNode : nodes) {
+                    final NodeId nodeId = bitcoinNode.getId();
+                    if (! transactionInventoryTracker.hasTransaction(nodeId, transactionHash)) { continue; }
+
+                    final MutableList<Sha256Hash> assignedTransactionHashes = downloadPlan.get(bitcoinNode);
+                    final int assignedCount = ((assignedTransactionHashes != null) ? assignedTransactionHashes.getCount() : 0);
+                    if (assignedCount < selectedNodeAssignedCount) {
+                        selectedNode = bitcoinNode;
+                        selectedNodeAssignedCount = assignedCount;
                     }
                 }
-                nodeIds = listBuilder.build();
-            }
+                if (selectedNode == null) {
+                    skippedPendingTransactionIds.add(pendingTransactionIds.get(transactionHash));
+                    continue;
+                }
 
-            final Map<NodeId, ? extends List<PendingTransactionId>> downloadPlan = pendingTransactionDatabaseManager.selectIncompletePendingTransactions(nodeIds);
+                if (! downloadPlan.containsKey(selectedNode)) {
+                    downloadPlan.put(selectedNode, new MutableList<Sha256Hash>());
+                }
+
+                final MutableList<Sha256Hash> assignedTransactionHashes = downloadPlan.get(selectedNode);
+                assignedTransactionHashes.add(transactionHash);
+            }
+            pendingTransactionDatabaseManager.updateLastDownloadAttemptTimes(skippedPendingTransactionIds);
             if (downloadPlan.isEmpty()) { return false; }
 
-            for (final NodeId nodeId : downloadPlan.keySet()) {
+            for (final BitcoinNode bitcoinNode : downloadPlan.keySet()) {
                 if (_currentTransactionDownloadSet.size() >= maximumConcurrentDownloadCount) { break; }
-                final List<PendingTransactionId> pendingTransactionIds = downloadPlan.get(nodeId);
-                final MutableList<Sha256Hash> pendingTransactionHashes = new MutableList<Sha256Hash>(pendingTransactionIds.getCount());
-                for (final PendingTransactionId pendingTransactionId : pendingTransactionIds) {
-                    final Sha256Hash transactionHash = pendingTransactionDatabaseManager.getPendingTransactionHash(pendingTransactionId);
-                    if (transactionHash == null) { continue; }
-                    final boolean itemIsAlreadyBeingDownloaded = _currentTransactionDownloadSet.containsKey(transactionHash);
-                    if (itemIsAlreadyBeingDownloaded) { continue; }
-
-                    pendingTransactionHashes.add(transactionHash);
 
+                final List<Sha256Hash> pendingTransactionHashes = downloadPlan.get(bitcoinNode);
+                for (final Sha256Hash transactionHash : pendingTransactionHashes) {
                     final MilliTimer timer = new MilliTimer();
                     _currentTransactionDownloadSet.put(transactionHash, timer);
 
+                    final PendingTransactionId pendingTransactionId = pendingTransactionIds.get(transactionHash);
                     pendingTransactionDatabaseManager.updateLastDownloadAttemptTime(pendingTransactionId);
                     timer.start();
                 }
 
-                final BitcoinNode bitcoinNode = nodeMap.get(nodeId);
                 final RequestId requestId = bitcoinNode.requestTransactions(pendingTransactionHashes, _transactionDownloadedCallback);
 
                 final Tuple<RequestId, BitcoinNode> requestInformation = new Tuple<>(requestId, bitcoinNode);
@@ -13,6 +13,7 @@ import com.softwareverde.bitcoin.context.lazy.LazyMedianBlockTimeContext;
 import com.softwareverde.bitcoin.context.lazy.LazyUnconfirmedTransactionUtxoSet;
 import com.softwareverde.bitcoin.inflater.TransactionInflaters;
 import com.softwareverde.bitcoin.server.database.DatabaseConnection;
+import com.softwareverde.bitcoin.server.metrics.Metrics;
 import com.softwareverde.bitcoin.server.module.node.database.block.header.BlockHeaderDatabaseManager;
 import com.softwareverde.bitcoin.server.module.node.database.fullnode.FullNodeDatabaseManager;
 import com.softwareverde.bitcoin.server.module.node.database.fullnode.FullNodeDatabaseManagerFactory;
@@ -170,6 +171,10 @@ public class TransactionProcessor extends SleepyService {
                 }
                 storeTransactionsTimer.stop();
 
+                Metrics.ACCEPTED_TRANSACTION_COUNT.add(validTransactions.getCount());
+                Metrics.INVALID_TRANSACTION_COUNT.add(invalidTransactionCount);
+                Metrics.PROCESS_TRANSACTIONS_DURATION.observeMilliseconds(storeTransactionsTimer.getMillisecondsElapsed());
+
                 blockchainIndexerDatabaseManager.queueTransactionsForProcessing(validTransactionIds);
 
                 Logger.info("Committed " + (transactionsToStore.getCount() - invalidTransactionCount) + " transactions to the MemoryPool in " + storeTransactionsTimer.getMillisecondsElapsed() + "ms. (" + String.format("%.2f", (transactionsToStore.getCount() / storeTransactionsTimer.getMillisecondsElapsed().floatValue() * 1000F)) + "tps) (" + invalidTransactionCount + " invalid)");
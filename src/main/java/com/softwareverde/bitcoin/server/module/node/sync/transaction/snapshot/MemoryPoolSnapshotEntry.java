@@ -0,0 +1,27 @@
+package com.softwareverde.bitcoin.server.module.node.sync.transaction.snapshot;
+
+import com.softwareverde.bitcoin.transaction.Transaction;
+
+public class MemoryPoolSnapshotEntry {
+    public static final Long UNKNOWN_FEE = -1L;
+
+    protected final Transaction _transaction;
+    protected final Long _timestamp;
+    protected final Long _fee;
+
+    /**
+     * The timestamp is the time (in seconds) the Transaction first arrived within the MemoryPool.
+     *  The fee may be MemoryPoolSnapshotEntry.UNKNOWN_FEE if it could not be calculated.
+     */
+    public MemoryPoolSnapshotEntry(final Transaction transaction, final Long timestamp, final Long fee) {
+        _transaction = transaction.asConst();
+        _timestamp = timestamp;
+        _fee = fee;
+    }
+
+    public Transaction getTransaction() { return _transaction; }
+
+    public Long getTimestamp() { return _timestamp; }
+
+    public Long getFee() { return _fee; }
+}
@@ -0,0 +1,510 @@
+package com.softwareverde.bitcoin.server.module.node.sync.transaction.snapshot;
+
+import com.softwareverde.bitcoin.block.BlockId;
+import com.softwareverde.bitcoin.block.validator.thread.ParalleledTaskSpawner;
+import com.softwareverde.bitcoin.block.validator.thread.TaskHandler;
+import com.softwareverde.bitcoin.block.validator.thread.TaskHandlerFactory;
+import com.softwareverde.bitcoin.context.MedianBlockTimeContext;
+import com.softwareverde.bitcoin.context.UnspentTransactionOutputContext;
+import com.softwareverde.bitcoin.context.core.TransactionValidatorContext;
+import com.softwareverde.bitcoin.context.lazy.LazyMedianBlockTimeContext;
+import com.softwareverde.bitcoin.context.lazy.LazyUnconfirmedTransactionUtxoSet;
+import com.softwareverde.bitcoin.server.database.DatabaseConnection;
+import com.softwareverde.bitcoin.server.module.node.database.block.BlockDatabaseManager;
+import com.softwareverde.bitcoin.server.module.node.database.block.header.BlockHeaderDatabaseManager;
+import com.softwareverde.bitcoin.server.module.node.database.fullnode.FullNodeDatabaseManager;
+import com.softwareverde.bitcoin.server.module.node.database.fullnode.FullNodeDatabaseManagerFactory;
+import com.softwareverde.bitcoin.server.module.node.database.indexer.BlockchainIndexerDatabaseManager;
+import com.softwareverde.bitcoin.server.module.node.database.transaction.fullnode.FullNodeTransactionDatabaseManager;
+import com.softwareverde.bitcoin.server.module.node.manager.TransactionWhitelist;
+import com.softwareverde.bitcoin.server.module.node.sync.transaction.TransactionProcessor;
+import com.softwareverde.bitcoin.transaction.Transaction;
+import com.softwareverde.bitcoin.transaction.TransactionId;
+import com.softwareverde.bitcoin.transaction.input.TransactionInput;
+import com.softwareverde.bitcoin.transaction.output.TransactionOutput;
+import com.softwareverde.bitcoin.transaction.output.identifier.TransactionOutputIdentifier;
+import com.softwareverde.bitcoin.transaction.validator.TransactionValidationResult;
+import com.softwareverde.bitcoin.transaction.validator.TransactionValidator;
+import com.softwareverde.concurrent.pool.ThreadPool;
+import com.softwareverde.constable.list.List;
+import com.softwareverde.constable.list.mutable.MutableList;
+import com.softwareverde.cryptography.hash.sha256.Sha256Hash;
+import com.softwareverde.database.DatabaseException;
+import com.softwareverde.database.util.TransactionUtil;
+import com.softwareverde.logging.Logger;
+import com.softwareverde.util.Util;
+import com.softwareverde.util.timer.MilliTimer;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+
+/**
+ * MemoryPoolSnapshotManager writes the unconfirmed Transactions to a snapshot file, and restores them upon startup.
+ *  Since the MemoryPool is persisted within the database, only the snapshot's Transactions that the database's MemoryPool lacks
+ *  are restored (e.g. after the database has been replaced or reset).  On a normal restart every Transaction is already present,
+ *  so its validated state is restored from the snapshot instead: the Transaction is added to the TransactionWhitelist without
+ *  loading each Transaction's hash from the database individually.
+ *  Restored Transactions are revalidated against the current UTXO set before being added to the MemoryPool.
+ *  Transactions are validated in parallel, one "generation" at a time; a generation consists of the snapshot's Transactions
+ *  whose unconfirmed parents (within the snapshot) have already been restored.
+ */
+public class MemoryPoolSnapshotManager {
+    public static final String SNAPSHOT_FILE_NAME = "memory-pool-snapshot";
+
+    protected static class ValidationTaskHandler implements TaskHandler<MemoryPoolSnapshotEntry, List<MemoryPoolSnapshotEntry>> {
+        protected final TransactionProcessor.Context _context;
+        protected final Long _blockHeight;
+        protected final MutableList<MemoryPoolSnapshotEntry> _validEntries = new MutableList<MemoryPoolSnapshotEntry>();
+
+        protected FullNodeDatabaseManager _databaseManager;
+        protected TransactionValidator _transactionValidator;
+
+        public ValidationTaskHandler(final TransactionProcessor.Context context, final Long blockHeight) {
+            _context = context;
+            _blockHeight = blockHeight;
+        }
+
+        @Override
+        public void init() {
+            final FullNodeDatabaseManagerFactory databaseManagerFactory = _context.getDatabaseManagerFactory();
+            try {
+                _databaseManager = databaseManagerFactory.newDatabaseManager();
+            }
+            catch (final DatabaseException exception) {
+                Logger.warn(exception);
+                return;
+            }
+
+            final UnspentTransactionOutputContext unconfirmedTransactionUtxoSet = new LazyUnconfirmedTransactionUtxoSet(_databaseManager, true);
+            final MedianBlockTimeContext medianBlockTimeContext = new LazyMedianBlockTimeContext(_databaseManager);
+            final TransactionValidatorContext transactionValidatorContext = new TransactionValidatorContext(_context, _context.getNetworkTime(), medianBlockTimeContext, unconfirmedTransactionUtxoSet);
+            _transactionValidator = _context.getUnconfirmedTransactionValidator(transactionValidatorContext);
+        }
+
+        @Override
+        public void executeTask(final MemoryPoolSnapshotEntry memoryPoolSnapshotEntry) {
+            if (_transactionValidator == null) { return; }
+
+            final Transaction transaction = memoryPoolSnapshotEntry.getTransaction();
+            try {
+                final TransactionValidationResult transactionValidationResult = _transactionValidator.validateTransaction(_blockHeight, transaction);
+                if (transactionValidationResult.isValid) {
+                    _validEntries.add(memoryPoolSnapshotEntry);
+                }
+                else {
+                    Logger.debug("Dropping invalid snapshot Transaction: " + transaction.getHash() + " " + transactionValidationResult.errorMessage);
+                }
+            }
+            catch (final Exception exception) {
+                Logger.debug(exception);
+            }
+        }
+
+        protected void _closeDatabaseManager() {
+            if (_databaseManager == null) { return; }
+
+            try {
+                _databaseManager.close();
+            }
+            catch (final DatabaseException exception) {
+                Logger.debug(exception);
+            }
+            _databaseManager = null;
+        }
+
+        @Override
+        public void complete() {
+            _closeDatabaseManager();
+        }
+
+        @Override
+        public void abort() {
+            _closeDatabaseManager();
+        }
+
+        @Override
+        public List<MemoryPoolSnapshotEntry> getResult() {
+            return _validEntries;
+        }
+    }
+
+    protected final TransactionProcessor.Context _context;
+    protected final TransactionWhitelist _transactionWhitelist;
+    protected final File _snapshotFile;
+
+    protected List<MemoryPoolSnapshotEntry> _readSnapshot() {
+        final MutableList<MemoryPoolSnapshotEntry> memoryPoolSnapshotEntries = new MutableList<MemoryPoolSnapshotEntry>();
+        try (final MemoryPoolSnapshotReader memoryPoolSnapshotReader = new MemoryPoolSnapshotReader(new FileInputStream(_snapshotFile))) {
+            while (true) {
+                final MemoryPoolSnapshotEntry memoryPoolSnapshotEntry = memoryPoolSnapshotReader.readEntry();
+                if (memoryPoolSnapshotEntry == null) { break; }
+
+                memoryPoolSnapshotEntries.add(memoryPoolSnapshotEntry);
+            }
+        }
+        catch (final IOException exception) {
+            // NOTE: Entries read before the error are still restored, since every restored Transaction is revalidated...
+            Logger.warn("Unable to completely read MemoryPool snapshot: " + _snapshotFile.getPath(), exception);
+        }
+        return memoryPoolSnapshotEntries;
+    }
+
+    /**
+     * Returns the entries whose inputs do not spend the outputs of any Transaction within pendingTransactionHashes.
+     */
+    protected List<MemoryPoolSnapshotEntry> _getIndependentEntries(final List<MemoryPoolSnapshotEntry> memoryPoolSnapshotEntries, final HashSet<Sha256Hash> pendingTransactionHashes) {
+        final MutableList<MemoryPoolSnapshotEntry> independentEntries = new MutableList<MemoryPoolSnapshotEntry>();
+        for (final MemoryPoolSnapshotEntry memoryPoolSnapshotEntry : memoryPoolSnapshotEntries) {
+            final Transaction transaction = memoryPoolSnapshotEntry.getTransaction();
+
+            boolean isIndependent = true;
+            for (final TransactionInput transactionInput : transaction.getTransactionInputs()) {
+                final Sha256Hash previousTransactionHash = transactionInput.getPreviousOutputTransactionHash();
+                if (pendingTransactionHashes.contains(previousTransactionHash)) {
+                    isIndependent = false;
+                    break;
+                }
+            }
+
+            if (isIndependent) {
+                independentEntries.add(memoryPoolSnapshotEntry);
+            }
+        }
+        return independentEntries;
+    }
+
+    /**
+     * Stores the entries as unconfirmed Transactions within a single database transaction.
+     *  If any entry fails to be stored then the database transaction is rolled back, and spentTransactionOutputIdentifiers is left unchanged.
+     *  Once committed, the stored Transactions are added to the TransactionWhitelist.
+     */
+    protected List<TransactionId> _storeEntries(final FullNodeDatabaseManager databaseManager, final List<MemoryPoolSnapshotEntry> memoryPoolSnapshotEntries, final HashSet<TransactionOutputIdentifier> spentTransactionOutputIdentifiers) throws DatabaseException {
+        final DatabaseConnection databaseConnection = databaseManager.getDatabaseConnection();
+        final FullNodeTransactionDatabaseManager transactionDatabaseManager = databaseManager.getTransactionDatabaseManager();
+
+        final MutableList<TransactionId> transactionIds = new MutableList<TransactionId>(memoryPoolSnapshotEntries.getCount());
+        final MutableList<Sha256Hash> transactionHashes = new MutableList<Sha256Hash>(memoryPoolSnapshotEntries.getCount());
+        final HashSet<TransactionOutputIdentifier> newlySpentTransactionOutputIdentifiers = new HashSet<TransactionOutputIdentifier>();
+
+        TransactionUtil.startTransaction(databaseConnection);
+        try {
+            for (final MemoryPoolSnapshotEntry memoryPoolSnapshotEntry : memoryPoolSnapshotEntries) {
+                final Transaction transaction = memoryPoolSnapshotEntry.getTransaction();
+
+                { // Transactions within the same generation are validated independently, so ensure they do not double-spend one another...
+                    boolean isDoubleSpend = false;
+                    for (final TransactionInput transactionInput : transaction.getTransactionInputs()) {
+                        final TransactionOutputIdentifier transactionOutputIdentifier = TransactionOutputIdentifier.fromTransactionInput(transactionInput);
+                        if (spentTransactionOutputIdentifiers.contains(transactionOutputIdentifier) || newlySpentTransactionOutputIdentifiers.contains(transactionOutputIdentifier)) {
+                            isDoubleSpend = true;
+                            break;
+                        }
+                    }
+                    if (isDoubleSpend) {
+                        Logger.debug("Dropping double-spending snapshot Transaction: " + transaction.getHash());
+                        continue;
+                    }
+
+                    for (final TransactionInput transactionInput : transaction.getTransactionInputs()) {
+                        newlySpentTransactionOutputIdentifiers.add(TransactionOutputIdentifier.fromTransactionInput(transactionInput));
+                    }
+                }
+
+                final TransactionId transactionId = transactionDatabaseManager.storeUnconfirmedTransaction(transaction, memoryPoolSnapshotEntry.getTimestamp());
+                transactionIds.add(transactionId);
+                transactionHashes.add(transaction.getHash());
+            }
+            TransactionUtil.commitTransaction(databaseConnection);
+        }
+        catch (final DatabaseException exception) {
+            TransactionUtil.rollbackTransaction(databaseConnection);
+            throw exception;
+        }
+
+        spentTransactionOutputIdentifiers.addAll(newlySpentTransactionOutputIdentifiers);
+        for (final Sha256Hash transactionHash : transactionHashes) {
+            _transactionWhitelist.addTransactionHash(transactionHash);
+        }
+        return transactionIds;
+    }
+
+    /**
+     * Returns the fee of each Transaction, or UNKNOWN_FEE if any of its previous outputs could not be found.
+     *  Previous outputs are taken from the provided Transactions when possible (i.e. for chained unconfirmed Transactions);
+     *  the remainder are loaded from the UTXO set in batches.
+     */
+    protected Map<Sha256Hash, Long> _calculateFees(final FullNodeTransactionDatabaseManager transactionDatabaseManager, final Collection<Transaction> transactions) throws DatabaseException {
+        final HashMap<Sha256Hash, Transaction> transactionsByHash = new HashMap<Sha256Hash, Transaction>(transactions.size());
+        for (final Transaction transaction : transactions) {
+            transactionsByHash.put(transaction.getHash(), transaction);
+        }
+
+        final HashSet<TransactionOutputIdentifier> confirmedTransactionOutputIdentifierSet = new HashSet<TransactionOutputIdentifier>();
+        for (final Transaction transaction : transactions) {
+            for (final TransactionInput transactionInput : transaction.getTransactionInputs()) {
+                final Sha256Hash previousTransactionHash = transactionInput.getPreviousOutputTransactionHash();
+                if (transactionsByHash.containsKey(previousTransactionHash)) { continue; }
+
+                confirmedTransactionOutputIdentifierSet.add(TransactionOutputIdentifier.fromTransactionInput(transactionInput));
+            }
+        }
+
+        final HashMap<TransactionOutputIdentifier, TransactionOutput> confirmedTransactionOutputs = new HashMap<TransactionOutputIdentifier, TransactionOutput>(confirmedTransactionOutputIdentifierSet.size());
+        {
+            final List<TransactionOutputIdentifier> confirmedTransactionOutputIdentifiers = new MutableList<TransactionOutputIdentifier>(confirmedTransactionOutputIdentifierSet);
+            final List<TransactionOutput> transactionOutputs = transactionDatabaseManager.getUnspentTransactionOutputs(confirmedTransactionOutputIdentifiers);
+            if (transactionOutputs != null) {
+                for (int i = 0; i < confirmedTransactionOutputIdentifiers.getCount(); ++i) {
+                    final TransactionOutput transactionOutput = transactionOutputs.get(i);
+                    if (transactionOutput == null) { continue; }
+
+                    confirmedTransactionOutputs.put(confirmedTransactionOutputIdentifiers.get(i), transactionOutput);
+                }
+            }
+        }
+
+        final HashMap<Sha256Hash, Long> fees = new HashMap<Sha256Hash, Long>(transactions.size());
+        for (final Transaction transaction : transactions) {
+            long totalInputAmount = 0L;
+            boolean isFeeKnown = true;
+            for (final TransactionInput transactionInput : transaction.getTransactionInputs()) {
+                final Sha256Hash previousTransactionHash = transactionInput.getPreviousOutputTransactionHash();
+                final Integer previousTransactionOutputIndex = transactionInput.getPreviousOutputIndex();
+
+                final TransactionOutput previousTransactionOutput;
+                final Transaction previousTransaction = transactionsByHash.get(previousTransactionHash);
+                if (previousTransaction != null) {
+                    final List<TransactionOutput> previousTransactionOutputs = previousTransaction.getTransactionOutputs();
+                    previousTransactionOutput = ((previousTransactionOutputIndex < previousTransactionOutputs.getCount()) ? previousTransactionOutputs.get(previousTransactionOutputIndex) : null);
+                }
+                else {
+                    previousTransactionOutput = confirmedTransactionOutputs.get(TransactionOutputIdentifier.fromTransactionInput(transactionInput));
+                }
+
+                if (previousTransactionOutput == null) {
+                    isFeeKnown = false;
+                    break;
+                }
+
+                totalInputAmount += previousTransactionOutput.getAmount();
+            }
+
+            fees.put(transaction.getHash(), (isFeeKnown ? (totalInputAmount - transaction.getTotalOutputValue()) : MemoryPoolSnapshotEntry.UNKNOWN_FEE));
+        }
+        return fees;
+    }
+
+    /**
+     * Returns the hashes (and ids) of the Transactions within unconfirmedTransactionIds, out of the provided Transaction hashes.
+     */
+    protected HashMap<Sha256Hash, TransactionId> _getUnconfirmedTransactionIds(final FullNodeTransactionDatabaseManager transactionDatabaseManager, final HashSet<TransactionId> unconfirmedTransactionIds, final List<Sha256Hash> transactionHashes) throws DatabaseException {
+        final HashMap<Sha256Hash, TransactionId> unconfirmedTransactionHashes = new HashMap<Sha256Hash, TransactionId>();
+        if (unconfirmedTransactionIds.isEmpty()) { return unconfirmedTransactionHashes; }
+
+        final int batchSize = 1024;
+        for (int beginIndex = 0; beginIndex < transactionHashes.getCount(); beginIndex += batchSize) {
+            final int endIndex = Math.min(transactionHashes.getCount(), (beginIndex + batchSize));
+            final MutableList<Sha256Hash> batchTransactionHashes = new MutableList<Sha256Hash>(endIndex - beginIndex);
+            for (int i = beginIndex; i < endIndex; ++i) {
+                batchTransactionHashes.add(transactionHashes.get(i));
+            }
+
+            final Map<Sha256Hash, TransactionId> transactionIds = transactionDatabaseManager.getTransactionIds(batchTransactionHashes);
+            for (final Sha256Hash transactionHash : transactionIds.keySet()) {
+                final TransactionId transactionId = transactionIds.get(transactionHash);
+                if (unconfirmedTransactionIds.contains(transactionId)) {
+                    unconfirmedTransactionHashes.put(transactionHash, transactionId);
+                }
+            }
+        }
+        return unconfirmedTransactionHashes;
+    }
+
+    public MemoryPoolSnapshotManager(final String dataDirectory, final TransactionProcessor.Context context, final TransactionWhitelist transactionWhitelist) {
+        _context = context;
+        _transactionWhitelist = transactionWhitelist;
+        _snapshotFile = new File(dataDirectory, SNAPSHOT_FILE_NAME);
+    }
+
+    /**
+     * Writes the current MemoryPool to the snapshot file, replacing the previous snapshot only once the new snapshot is complete.
+     *  Returns the number of Transactions written, or null if the snapshot could not be written.
+     */
+    public synchronized Integer writeSnapshot() {
+        final FullNodeDatabaseManagerFactory databaseManagerFactory = _context.getDatabaseManagerFactory();
+
+        final MilliTimer milliTimer = new MilliTimer();
+        milliTimer.start();
+
+        final File temporaryFile = new File(_snapshotFile.getPath() + ".tmp");
+        final Integer entryCount;
+        try (final FullNodeDatabaseManager databaseManager = databaseManagerFactory.newDatabaseManager()) {
+            final FullNodeTransactionDatabaseManager transactionDatabaseManager = databaseManager.getTransactionDatabaseManager();
+            final List<TransactionId> transactionIds = transactionDatabaseManager.getUnconfirmedTransactionIds();
+
+            // NOTE: Transactions mined since their ids were selected are omitted by the batched loads...
+            final Map<TransactionId, Transaction> transactions = transactionDatabaseManager.getUnconfirmedTransactions(transactionIds);
+            final Map<TransactionId, Long> timestamps = transactionDatabaseManager.getUnconfirmedTransactionTimestamps(transactionIds);
+            final Map<Sha256Hash, Long> fees = _calculateFees(transactionDatabaseManager, transactions.values());
+
+            try (final MemoryPoolSnapshotWriter memoryPoolSnapshotWriter = new MemoryPoolSnapshotWriter(new FileOutputStream(temporaryFile))) {
+                for (final TransactionId transactionId : transactionIds) {
+                    final Transaction transaction = transactions.get(transactionId);
+                    if (transaction == null) { continue; }
+
+                    final Long timestamp = timestamps.get(transactionId);
+                    if (timestamp == null) { continue; }
+
+                    final Long fee = fees.get(transaction.getHash());
+
+                    memoryPoolSnapshotWriter.write(new MemoryPoolSnapshotEntry(transaction, timestamp, Util.coalesce(fee, MemoryPoolSnapshotEntry.UNKNOWN_FEE)));
+                }
+
+                entryCount = memoryPoolSnapshotWriter.getEntryCount();
+            }
+
+            Files.move(temporaryFile.toPath(), _snapshotFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+        catch (final Exception exception) {
+            Logger.warn("Unable to write MemoryPool snapshot.", exception);
+            temporaryFile.delete();
+            return null;
+        }
+
+        milliTimer.stop();
+        Logger.info("Wrote " + entryCount + " MemoryPool Transactions to snapshot in " + milliTimer.getMillisecondsElapsed() + "ms.");
+        return entryCount;
+    }
+
+    /**
+     * Restores the Transactions within the snapshot file to the MemoryPool.
+     *  Transactions already within the MemoryPool are not revalidated, and Transactions that are no longer valid
+     *  (i.e. mined or double-spent while the node was offline) are dropped.
+     *  Every Transaction within the MemoryPool afterwards, restored or not, is added to the TransactionWhitelist; if there is no
+     *  snapshot (or the snapshot is stale) then the hashes of the MemoryPool Transactions it lacks are loaded from the database.
+     *  Returns the number of Transactions restored.
+     */
+    public synchronized Integer loadSnapshot(final ThreadPool threadPool, final Integer maxThreadCount) {
+        final FullNodeDatabaseManagerFactory databaseManagerFactory = _context.getDatabaseManagerFactory();
+
+        final MilliTimer milliTimer = new MilliTimer();
+        milliTimer.start();
+
+        final List<MemoryPoolSnapshotEntry> snapshotEntries = (_snapshotFile.exists() ? _readSnapshot() : new MutableList<MemoryPoolSnapshotEntry>(0));
+
+        int restoredTransactionCount = 0;
+        try (final FullNodeDatabaseManager databaseManager = databaseManagerFactory.newDatabaseManager()) {
+            final FullNodeTransactionDatabaseManager transactionDatabaseManager = databaseManager.getTransactionDatabaseManager();
+            final BlockHeaderDatabaseManager blockHeaderDatabaseManager = databaseManager.getBlockHeaderDatabaseManager();
+            final BlockDatabaseManager blockDatabaseManager = databaseManager.getBlockDatabaseManager();
+            final BlockchainIndexerDatabaseManager blockchainIndexerDatabaseManager = databaseManager.getBlockchainIndexerDatabaseManager();
+
+            final BlockId headBlockId = blockDatabaseManager.getHeadBlockId();
+            final Long headBlockHeight = Util.coalesce(blockHeaderDatabaseManager.getBlockHeight(headBlockId));
+
+            final Map<Sha256Hash, TransactionId> unconfirmedTransactionHashes;
+            {
+                final HashSet<TransactionId> unconfirmedTransactionIds = new HashSet<TransactionId>();
+                for (final TransactionId transactionId : transactionDatabaseManager.getUnconfirmedTransactionIds()) {
+                    unconfirmedTransactionIds.add(transactionId);
+                }
+
+                final MutableList<Sha256Hash> snapshotTransactionHashes = new MutableList<Sha256Hash>(snapshotEntries.getCount());
+                for (final MemoryPoolSnapshotEntry memoryPoolSnapshotEntry : snapshotEntries) {
+                    final Transaction transaction = memoryPoolSnapshotEntry.getTransaction();
+                    snapshotTransactionHashes.add(transaction.getHash());
+                }
+                unconfirmedTransactionHashes = _getUnconfirmedTransactionIds(transactionDatabaseManager, unconfirmedTransactionIds, snapshotTransactionHashes);
+
+                // The snapshot's Transactions that are still within the MemoryPool were validated before shutdown...
+                for (final Sha256Hash transactionHash : unconfirmedTransactionHashes.keySet()) {
+                    _transactionWhitelist.addTransactionHash(transactionHash);
+                }
+
+                // Transactions accepted after the snapshot was written are not within the snapshot, so their hashes are loaded individually...
+                unconfirmedTransactionIds.removeAll(unconfirmedTransactionHashes.values());
+                for (final TransactionId transactionId : unconfirmedTransactionIds) {
+                    final Sha256Hash transactionHash = transactionDatabaseManager.getTransactionHash(transactionId);
+                    if (transactionHash == null) { continue; }
+
+                    _transactionWhitelist.addTransactionHash(transactionHash);
+                }
+            }
+
+            MutableList<MemoryPoolSnapshotEntry> remainingEntries = new MutableList<MemoryPoolSnapshotEntry>(snapshotEntries.getCount());
+            final HashSet<Sha256Hash> remainingTransactionHashes = new HashSet<Sha256Hash>(snapshotEntries.getCount());
+            for (final MemoryPoolSnapshotEntry memoryPoolSnapshotEntry : snapshotEntries) {
+                final Transaction transaction = memoryPoolSnapshotEntry.getTransaction();
+                final Sha256Hash transactionHash = transaction.getHash();
+                if (unconfirmedTransactionHashes.containsKey(transactionHash)) { continue; }
+
+                remainingEntries.add(memoryPoolSnapshotEntry);
+                remainingTransactionHashes.add(transactionHash);
+            }
+
+            if (remainingEntries.isEmpty()) { // The common case, since the MemoryPool is persisted within the database...
+                Logger.info("MemoryPool already contains all " + snapshotEntries.getCount() + " snapshot Transactions.");
+                return 0;
+            }
+
+            final HashSet<TransactionOutputIdentifier> spentTransactionOutputIdentifiers = new HashSet<TransactionOutputIdentifier>();
+            final ParalleledTaskSpawner<MemoryPoolSnapshotEntry, List<MemoryPoolSnapshotEntry>> taskSpawner = new ParalleledTaskSpawner<MemoryPoolSnapshotEntry, List<MemoryPoolSnapshotEntry>>("MemoryPoolSnapshot", threadPool);
+            taskSpawner.setTaskHandlerFactory(new TaskHandlerFactory<MemoryPoolSnapshotEntry, List<MemoryPoolSnapshotEntry>>() {
+                @Override
+                public TaskHandler<MemoryPoolSnapshotEntry, List<MemoryPoolSnapshotEntry>> newInstance() {
+                    return new ValidationTaskHandler(_context, (headBlockHeight + 1L));
+                }
+            });
+
+            while (! remainingEntries.isEmpty()) {
+                final List<MemoryPoolSnapshotEntry> generationEntries = _getIndependentEntries(remainingEntries, remainingTransactionHashes);
+                if (generationEntries.isEmpty()) { break; } // Should not be possible, since Transactions cannot depend upon themselves...
+
+                taskSpawner.executeTasks(generationEntries, maxThreadCount);
+                final List<List<MemoryPoolSnapshotEntry>> validEntryLists = taskSpawner.waitForResults();
+                if (validEntryLists == null) { break; }
+
+                final MutableList<MemoryPoolSnapshotEntry> validEntries = new MutableList<MemoryPoolSnapshotEntry>(generationEntries.getCount());
+                for (final List<MemoryPoolSnapshotEntry> validEntryList : validEntryLists) {
+                    validEntries.addAll(validEntryList);
+                }
+
+                final List<TransactionId> transactionIds = _storeEntries(databaseManager, validEntries, spentTransactionOutputIdentifiers);
+                blockchainIndexerDatabaseManager.queueTransactionsForProcessing(transactionIds);
+                restoredTransactionCount += transactionIds.getCount();
+
+                // Entries that failed validation are also removed; their dependents will subsequently fail validation since their outputs were not restored...
+                final HashSet<Sha256Hash> generationTransactionHashes = new HashSet<Sha256Hash>(generationEntries.getCount());
+                for (final MemoryPoolSnapshotEntry memoryPoolSnapshotEntry : generationEntries) {
+                    final Transaction transaction = memoryPoolSnapshotEntry.getTransaction();
+                    generationTransactionHashes.add(transaction.getHash());
+                }
+                remainingTransactionHashes.removeAll(generationTransactionHashes);
+
+                final MutableList<MemoryPoolSnapshotEntry> nextRemainingEntries = new MutableList<MemoryPoolSnapshotEntry>(remainingEntries.getCount() - generationEntries.getCount());
+                for (final MemoryPoolSnapshotEntry memoryPoolSnapshotEntry : remainingEntries) {
+                    final Transaction transaction = memoryPoolSnapshotEntry.getTransaction();
+                    if (! generationTransactionHashes.contains(transaction.getHash())) {
+                        nextRemainingEntries.add(memoryPoolSnapshotEntry);
+                    }
+                }
+                remainingEntries = nextRemainingEntries;
+            }
+        }
+        catch (final DatabaseException exception) {
+            Logger.warn("Unable to restore MemoryPool snapshot.", exception);
+        }
+
+        milliTimer.stop();
+        Logger.info("Restored " + restoredTransactionCount + " of " + snapshotEntries.getCount() + " MemoryPool Transactions from snapshot in " + milliTimer.getMillisecondsElapsed() + "ms.");
+        return restoredTransactionCount;
+    }
+}
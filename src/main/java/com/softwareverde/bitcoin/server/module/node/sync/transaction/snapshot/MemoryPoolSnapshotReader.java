@@ -0,0 +1,81 @@
+package com.softwareverde.bitcoin.server.module.node.sync.transaction.snapshot;
+
+import com.softwareverde.bitcoin.transaction.Transaction;
+import com.softwareverde.bitcoin.transaction.TransactionInflater;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Streams MemoryPoolSnapshotEntries from an InputStream written by a MemoryPoolSnapshotWriter.
+ *  MemoryPoolSnapshotReader::readEntry returns null once the trailer has been read.
+ *  Entries containing Transactions that cannot be inflated are skipped.
+ */
+public class MemoryPoolSnapshotReader implements AutoCloseable {
+    protected final TransactionInflater _transactionInflater = new TransactionInflater();
+    protected final DataInputStream _inputStream;
+    protected int _entryCount = 0;
+    protected Boolean _isComplete = false;
+
+    public MemoryPoolSnapshotReader(final InputStream inputStream) throws IOException {
+        _inputStream = new DataInputStream(new BufferedInputStream(inputStream));
+
+        final int magicNumber = _inputStream.readInt();
+        if (magicNumber != MemoryPoolSnapshotWriter.MAGIC_NUMBER) {
+            throw new IOException("Invalid MemoryPool snapshot.");
+        }
+
+        final int version = _inputStream.readInt();
+        if (version != MemoryPoolSnapshotWriter.VERSION) {
+            throw new IOException("Unsupported MemoryPool snapshot version: " + version);
+        }
+    }
+
+    /**
+     * Returns the next entry within the snapshot, or null if the end of the snapshot has been reached.
+     *  An EOFException is thrown if the snapshot was truncated.
+     */
+    public MemoryPoolSnapshotEntry readEntry() throws IOException {
+        while (! _isComplete) {
+            final int transactionByteCount = _inputStream.readInt();
+            if (transactionByteCount == 0) {
+                final int entryCount = _inputStream.readInt();
+                if (entryCount != _entryCount) {
+                    throw new IOException("MemoryPool snapshot entry count mismatch. Expected " + entryCount + ", found " + _entryCount + ".");
+                }
+
+                _isComplete = true;
+                return null;
+            }
+
+            if ( (transactionByteCount < 0) || (transactionByteCount > TransactionInflater.MAX_BYTE_COUNT) ) {
+                throw new IOException("Invalid MemoryPool snapshot Transaction byte count: " + transactionByteCount);
+            }
+
+            final Long timestamp = _inputStream.readLong();
+            final Long fee = _inputStream.readLong();
+            final byte[] transactionBytes = new byte[transactionByteCount];
+            _inputStream.readFully(transactionBytes);
+
+            _entryCount += 1;
+
+            final Transaction transaction = _transactionInflater.fromBytes(transactionBytes);
+            if (transaction == null) { continue; }
+
+            return new MemoryPoolSnapshotEntry(transaction, timestamp, fee);
+        }
+
+        return null;
+    }
+
+    public Boolean isComplete() {
+        return _isComplete;
+    }
+
+    @Override
+    public void close() throws IOException {
+        _inputStream.close();
+    }
+}
@@ -0,0 +1,62 @@
+package com.softwareverde.bitcoin.server.module.node.sync.transaction.snapshot;
+
+import com.softwareverde.bitcoin.transaction.Transaction;
+import com.softwareverde.bitcoin.transaction.TransactionDeflater;
+import com.softwareverde.constable.bytearray.ByteArray;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Streams MemoryPoolSnapshotEntries to an OutputStream.
+ *  Format (big-endian):
+ *      Header:     [4 bytes: MAGIC_NUMBER] [4 bytes: VERSION]
+ *      Entry:      [4 bytes: Transaction byte count (greater than zero)] [8 bytes: timestamp] [8 bytes: fee] [Transaction bytes]
+ *      Trailer:    [4 bytes: zero] [4 bytes: entry count]
+ *  The trailer is written when the writer is closed; a snapshot without a trailer was not completely written.
+ */
+public class MemoryPoolSnapshotWriter implements AutoCloseable {
+    public static final Integer MAGIC_NUMBER = 0x564D5053; // "VMPS"
+    public static final Integer VERSION = 1;
+
+    protected final TransactionDeflater _transactionDeflater = new TransactionDeflater();
+    protected final DataOutputStream _outputStream;
+    protected int _entryCount = 0;
+
+    public MemoryPoolSnapshotWriter(final OutputStream outputStream) throws IOException {
+        _outputStream = new DataOutputStream(new BufferedOutputStream(outputStream));
+
+        _outputStream.writeInt(MAGIC_NUMBER);
+        _outputStream.writeInt(VERSION);
+    }
+
+    public void write(final MemoryPoolSnapshotEntry memoryPoolSnapshotEntry) throws IOException {
+        final Transaction transaction = memoryPoolSnapshotEntry.getTransaction();
+        final ByteArray transactionBytes = _transactionDeflater.toBytes(transaction);
+
+        _outputStream.writeInt(transactionBytes.getByteCount());
+        _outputStream.writeLong(memoryPoolSnapshotEntry.getTimestamp());
+        _outputStream.writeLong(memoryPoolSnapshotEntry.getFee());
+        _outputStream.write(transactionBytes.getBytes());
+
+        _entryCount += 1;
+    }
+
+    public Integer getEntryCount() {
+        return _entryCount;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            _outputStream.writeInt(0);
+            _outputStream.writeInt(_entryCount);
+            _outputStream.flush();
+        }
+        finally {
+            _outputStream.close();
+        }
+    }
+}
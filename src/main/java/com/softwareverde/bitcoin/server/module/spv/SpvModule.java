@@ -341,7 +341,7 @@ public class SpvModule {
         final Database database = _environment.getDatabase();
         _databaseConnectionFactory = database.newConnectionFactory();
         _databaseManagerFactory = new SpvDatabaseManagerFactory(_databaseConnectionFactory, database.getMaxQueryBatchSize(), _checkpointConfiguration);
-        _banFilter = new BanFilterCore(_databaseManagerFactory);
+        _banFilter = new BanFilterCore(_databaseManagerFactory, _mainThreadPool);
     }
 
     public Boolean isInitialized() {
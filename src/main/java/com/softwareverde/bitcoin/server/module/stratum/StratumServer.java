@@ -13,9 +13,11 @@ import com.softwareverde.bitcoin.inflater.MasterInflater;
 import com.softwareverde.bitcoin.server.configuration.StratumProperties;
 import com.softwareverde.bitcoin.server.main.BitcoinConstants;
 import com.softwareverde.bitcoin.server.module.node.rpc.NodeJsonRpcConnection;
+import com.softwareverde.bitcoin.server.stratum.difficulty.VariableShareDifficulty;
 import com.softwareverde.bitcoin.server.stratum.message.RequestMessage;
 import com.softwareverde.bitcoin.server.stratum.message.ResponseMessage;
 import com.softwareverde.bitcoin.server.stratum.message.server.MinerSubmitBlockResult;
+import com.softwareverde.bitcoin.server.stratum.socket.StratumConnection;
 import com.softwareverde.bitcoin.server.stratum.socket.StratumServerSocket;
 import com.softwareverde.bitcoin.server.stratum.task.ConfigurableStratumMineBlockTaskBuilder;
 import com.softwareverde.bitcoin.server.stratum.task.StratumMineBlockTask;
@@ -44,6 +46,7 @@ import com.softwareverde.util.timer.MilliTimer;
 import com.softwareverde.util.type.time.SystemTime;
 
 import java.net.Socket;
+import java.nio.ByteBuffer;
 import java.util.Iterator;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedQueue;
@@ -51,6 +54,9 @@ import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 public class StratumServer {
+    /**
+     * Invoked on the socket's thread for each accepted share; implementations must not block.
+     */
     public interface WorkerShareCallback {
         void onNewWorkerShare(String workerUsername, Integer shareDifficulty);
     }
@@ -81,8 +87,6 @@ public class StratumServer {
     protected MilliTimer _lastTransactionQueueProcessTimer = new MilliTimer();
     protected final ConcurrentLinkedQueue<TransactionWithFee> _queuedTransactions = new ConcurrentLinkedQueue<TransactionWithFee>();
 
-    protected final Integer _shareDifficulty = 2048;
-
     protected Boolean _validatePrototypeBlockBeforeMining = true;
 
     protected final Thread _rebuildTaskThread;
@@ -90,19 +94,42 @@ public class StratumServer {
     protected final Long _startTime = _systemTime.getCurrentTimeInSeconds();
     protected Long _currentBlockStartTime = _systemTime.getCurrentTimeInSeconds();
     protected final AtomicLong _shareCount = new AtomicLong(0L);
+    protected final AtomicLong _shareDifficultySum = new AtomicLong(0L);
 
-    protected final ConcurrentLinkedQueue<JsonSocket> _connections = new ConcurrentLinkedQueue<JsonSocket>();
+    protected final ConcurrentLinkedQueue<StratumConnection> _connections = new ConcurrentLinkedQueue<StratumConnection>();
+    protected final ConcurrentHashMap<StratumConnection, VariableShareDifficulty> _shareDifficulties = new ConcurrentHashMap<StratumConnection, VariableShareDifficulty>();
 
     protected WorkerShareCallback _workerShareCallback;
 
+    /**
+     * Sends the current mining task to every connection.
+     *  The mining.notify message is serialized once and its bytes are shared by every connection's write queue.
+     */
     protected void _broadcastNewTask(final Boolean abandonOldJobs) {
-        final Iterator<JsonSocket> iterator = _connections.iterator();
+        final Long mineBlockTaskId;
+        final ByteBuffer mineBlockRequest;
+        try {
+            _mineBlockTaskReadLock.lock();
+
+            final RequestMessage requestMessage = _currentMineBlockTask.createRequest(abandonOldJobs);
+            mineBlockTaskId = _currentMineBlockTask.getId();
+            mineBlockRequest = StratumConnection.serialize(new JsonProtocolMessage(requestMessage));
+        }
+        finally {
+            _mineBlockTaskReadLock.unlock();
+        }
+
+        int connectionCount = 0;
+        final Iterator<StratumConnection> iterator = _connections.iterator();
         while (iterator.hasNext()) {
-            final JsonSocket jsonSocket = iterator.next();
-            if (jsonSocket == null) { continue; }
+            final StratumConnection connection = iterator.next();
+            if (connection == null) { continue; }
 
-            _sendWork(jsonSocket, abandonOldJobs);
+            _sendWork(connection, mineBlockTaskId, mineBlockRequest);
+            connectionCount += 1;
         }
+
+        Logger.debug("Broadcast task " + mineBlockTaskId + " to " + connectionCount + " connections.");
     }
 
     protected ByteArray _createRandomBytes(final int byteCount) {
@@ -146,7 +173,11 @@ public class StratumServer {
         return mineBlockTask.assembleBlock(stratumNonce, stratumExtraNonce2, stratumTimestamp);
     }
 
-    protected void _rebuildNewMiningTask() {
+    /**
+     * Builds a new task upon the node's head block, including the node's unconfirmed transactions.
+     *  Returns true if the task was replaced.
+     */
+    protected Boolean _rebuildNewMiningTask() {
         final ConfigurableStratumMineBlockTaskBuilder stratumMineBlockTaskBuilder = _stratumMineBlockTaskBuilderFactory.newStratumMineBlockTaskBuilder(_totalExtraNonceByteCount);
 
         final String coinbaseMessage = BitcoinConstants.getCoinbaseMessage();
@@ -174,7 +205,7 @@ public class StratumServer {
         final Difficulty difficulty;
         {
             final NodeJsonRpcConnection nodeRpcConnection = _getNodeJsonRpcConnection();
-            final Json difficultyJson = nodeRpcConnection.getDifficulty();
+            final Json difficultyJson = nodeRpcConnection.getDifficulty(blockHeight);
             difficulty = Difficulty.decode(ByteArray.fromHexString(difficultyJson.getString("difficulty")));
         }
 
@@ -230,7 +261,7 @@ public class StratumServer {
                 final Boolean requestWasSuccessful = validatePrototypeBlockResponse.getBoolean("wasSuccess");
                 if (! requestWasSuccessful) {
                     Logger.warn("Error validating prototype block: " + validatePrototypeBlockResponse.getString("errorMessage"));
-                    try { Thread.sleep(1000L); } catch (final InterruptedException exception) { return; }
+                    try { Thread.sleep(1000L); } catch (final InterruptedException exception) { return false; }
                 }
                 else {
                     final Json validationResult = validatePrototypeBlockResponse.get("blockValidation");
@@ -259,13 +290,37 @@ public class StratumServer {
             } while(! prototypeBlockIsValid);
         }
 
+        return _setMiningTaskBuilder(stratumMineBlockTaskBuilder);
+    }
+
+    /**
+     * Replaces the current task with a new task built from stratumMineBlockTaskBuilder.
+     *  Tasks for a previous block height are discarded, since a newer block may have been announced while the task was being built.
+     *  Tasks mining upon the same parent block as the replaced task remain valid for share submission.
+     *  Returns true if the task was replaced; returns false if the task was discarded.
+     */
+    protected Boolean _setMiningTaskBuilder(final ConfigurableStratumMineBlockTaskBuilder stratumMineBlockTaskBuilder) {
+        final Boolean isNewPreviousBlock;
         try {
             _mineBlockTaskWriteLock.lock();
 
+            if (_stratumMineBlockTaskBuilder != null) {
+                final Long currentBlockHeight = _stratumMineBlockTaskBuilder.getBlockHeight();
+                if (currentBlockHeight > stratumMineBlockTaskBuilder.getBlockHeight()) {
+                    Logger.debug("Discarding stale mining task for height " + stratumMineBlockTaskBuilder.getBlockHeight() + ".");
+                    return false;
+                }
+            }
+
+            final StratumMineBlockTask mineBlockTask = stratumMineBlockTaskBuilder.buildMineBlockTask();
+            isNewPreviousBlock = ( (_currentMineBlockTask == null) || (! Util.areEqual(_currentMineBlockTask.getPreviousBlockHash(), mineBlockTask.getPreviousBlockHash())) );
+
             _stratumMineBlockTaskBuilder = stratumMineBlockTaskBuilder;
-            _currentMineBlockTask = stratumMineBlockTaskBuilder.buildMineBlockTask();
-            _mineBlockTasks.clear();
-            _mineBlockTasks.put(_currentMineBlockTask.getId(), _currentMineBlockTask);
+            _currentMineBlockTask = mineBlockTask;
+            if (isNewPreviousBlock) {
+                _mineBlockTasks.clear();
+            }
+            _mineBlockTasks.put(mineBlockTask.getId(), mineBlockTask);
 
             _queuedTransactions.clear();
             _lastTransactionQueueProcessTimer.reset();
@@ -274,8 +329,95 @@ public class StratumServer {
             _mineBlockTaskWriteLock.unlock();
         }
 
-        _currentBlockStartTime = _systemTime.getCurrentTimeInSeconds();
-        _shareCount.set(0L);
+        if (isNewPreviousBlock) {
+            _currentBlockStartTime = _systemTime.getCurrentTimeInSeconds();
+            _shareCount.set(0L);
+            _shareDifficultySum.set(0L);
+        }
+
+        return true;
+    }
+
+    /**
+     * Switches miners to an empty task upon the announced block (with clean_jobs), then builds the fully-populated task on the thread pool.
+     *  The fully-populated task is broadcast without clean_jobs if it mines upon the same parent as the empty task.
+     */
+    protected void _onNewBlockHeader(final BlockHeader blockHeader) {
+        Logger.info("New Block Received: " + blockHeader.getHash());
+
+        final Boolean emptyTaskWasSet = _switchToEmptyMiningTask(blockHeader);
+        if (emptyTaskWasSet) {
+            _broadcastNewTask(true);
+        }
+
+        _threadPool.execute(new Runnable() {
+            @Override
+            public void run() {
+                final Boolean taskWasSet = _rebuildNewMiningTask();
+                if (! taskWasSet) { return; }
+
+                final Sha256Hash previousBlockHash;
+                try {
+                    _mineBlockTaskReadLock.lock();
+                    previousBlockHash = _currentMineBlockTask.getPreviousBlockHash();
+                }
+                finally {
+                    _mineBlockTaskReadLock.unlock();
+                }
+
+                // The empty task's jobs remain valid if the full task mines upon the same parent block...
+                final Boolean abandonOldJobs = ( (! emptyTaskWasSet) || (! Util.areEqual(blockHeader.getHash(), previousBlockHash)) );
+                _broadcastNewTask(abandonOldJobs);
+            }
+        });
+    }
+
+    /**
+     * Builds a task without any transactions upon the newly-announced block, requiring only the new difficulty from the node.
+     *  Since the task is available before the mempool is retrieved and the prototype block is validated, miners may be switched to the new
+     *  parent block immediately.  The announced block must extend the current task's parent; otherwise its height is unknown and false is returned.
+     *  Returns true if the task was replaced.
+     */
+    protected Boolean _switchToEmptyMiningTask(final BlockHeader previousBlockHeader) {
+        final Long blockHeight;
+        try {
+            _mineBlockTaskReadLock.lock();
+
+            if (_currentMineBlockTask == null) { return false; }
+            if (! Util.areEqual(_currentMineBlockTask.getPreviousBlockHash(), previousBlockHeader.getPreviousBlockHash())) { return false; }
+
+            blockHeight = (_stratumMineBlockTaskBuilder.getBlockHeight() + 1L);
+        }
+        finally {
+            _mineBlockTaskReadLock.unlock();
+        }
+
+        final ConfigurableStratumMineBlockTaskBuilder stratumMineBlockTaskBuilder = _stratumMineBlockTaskBuilderFactory.newStratumMineBlockTaskBuilder(_totalExtraNonceByteCount);
+
+        final TransactionInflater transactionInflater = _masterInflater.getTransactionInflater();
+        final AddressInflater addressInflater = _masterInflater.getAddressInflater();
+        final Address address = addressInflater.fromPrivateKey(_privateKey, true);
+
+        final Difficulty difficulty;
+        try (final NodeJsonRpcConnection nodeRpcConnection = _getNodeJsonRpcConnection()) {
+            if (nodeRpcConnection == null) { return false; }
+
+            final Json difficultyJson = nodeRpcConnection.getDifficulty(blockHeight);
+            if (! difficultyJson.getBoolean("wasSuccess")) { return false; }
+            difficulty = Difficulty.decode(ByteArray.fromHexString(difficultyJson.getString("difficulty")));
+        }
+
+        final Long blockReward = BlockHeader.calculateBlockReward(blockHeight);
+        final Transaction coinbaseTransaction = transactionInflater.createCoinbaseTransactionWithExtraNonce(blockHeight, BitcoinConstants.getCoinbaseMessage(), _totalExtraNonceByteCount, address, blockReward);
+
+        stratumMineBlockTaskBuilder.setBlockVersion(BlockHeader.VERSION);
+        stratumMineBlockTaskBuilder.setPreviousBlockHash(previousBlockHeader.getHash());
+        stratumMineBlockTaskBuilder.setDifficulty(difficulty);
+        stratumMineBlockTaskBuilder.setCoinbaseTransaction(coinbaseTransaction);
+        stratumMineBlockTaskBuilder.setExtraNonce(_extraNonce);
+        stratumMineBlockTaskBuilder.setBlockHeight(blockHeight);
+
+        return _setMiningTaskBuilder(stratumMineBlockTaskBuilder);
     }
 
     /**
@@ -311,35 +453,57 @@ public class StratumServer {
         }
     }
 
-    protected void _sendWork(final JsonSocket socketConnection, final Boolean abandonOldJobs) {
+    protected VariableShareDifficulty _getShareDifficulty(final StratumConnection socketConnection) {
+        final VariableShareDifficulty variableShareDifficulty = _shareDifficulties.get(socketConnection);
+        if (variableShareDifficulty != null) { return variableShareDifficulty; }
+
+        final VariableShareDifficulty newVariableShareDifficulty = new VariableShareDifficulty(_systemTime.getCurrentTimeInMilliSeconds());
+        final VariableShareDifficulty existingVariableShareDifficulty = _shareDifficulties.putIfAbsent(socketConnection, newVariableShareDifficulty);
+        return Util.coalesce(existingVariableShareDifficulty, newVariableShareDifficulty);
+    }
+
+    protected void _sendWork(final StratumConnection socketConnection, final Long mineBlockTaskId, final ByteBuffer mineBlockRequest) {
+        final VariableShareDifficulty variableShareDifficulty = _getShareDifficulty(socketConnection);
+
+        // Connections that rarely (or never) find a share are retargeted once the retarget interval has elapsed...
+        variableShareDifficulty.checkRetarget(_systemTime.getCurrentTimeInMilliSeconds());
         _setDifficulty(socketConnection);
 
+        variableShareDifficulty.onJobSent(mineBlockTaskId);
+        socketConnection.write(mineBlockRequest);
+    }
+
+    protected void _sendWork(final StratumConnection socketConnection, final Boolean abandonOldJobs) {
+        final Long mineBlockTaskId;
         final RequestMessage mineBlockRequest;
         try {
             _mineBlockTaskReadLock.lock();
 
             mineBlockRequest = _currentMineBlockTask.createRequest(abandonOldJobs);
+            mineBlockTaskId = _currentMineBlockTask.getId();
         }
         finally {
             _mineBlockTaskReadLock.unlock();
         }
 
         Logger.debug("Sent: "+ mineBlockRequest.toString());
-        socketConnection.write(new JsonProtocolMessage(mineBlockRequest));
+        _sendWork(socketConnection, mineBlockTaskId, StratumConnection.serialize(new JsonProtocolMessage(mineBlockRequest)));
     }
 
-    protected void _setDifficulty(final JsonSocket socketConnection) {
+    protected void _setDifficulty(final StratumConnection socketConnection) {
         final RequestMessage mineBlockMessage = new RequestMessage(RequestMessage.ServerCommand.SET_DIFFICULTY.getValue());
 
+        final VariableShareDifficulty variableShareDifficulty = _getShareDifficulty(socketConnection);
+
         final Json parametersJson = new Json(true);
-        parametersJson.add(_shareDifficulty); // Difficulty::getDifficultyRatio
+        parametersJson.add(variableShareDifficulty.getShareDifficulty()); // Difficulty::getDifficultyRatio
         mineBlockMessage.setParameters(parametersJson);
 
         Logger.debug("Sent: "+ mineBlockMessage.toString());
         socketConnection.write(new JsonProtocolMessage(mineBlockMessage));
     }
 
-    protected void _handleSubscribeMessage(final RequestMessage requestMessage, final JsonSocket socketConnection) {
+    protected void _handleSubscribeMessage(final RequestMessage requestMessage, final StratumConnection socketConnection) {
         final String subscriptionId = HexUtil.toHexString(_createRandomBytes(8).getBytes());
 
         final Json resultJson = new Json(true); {
@@ -377,7 +541,7 @@ public class StratumServer {
         socketConnection.write(new JsonProtocolMessage(responseMessage));
     }
 
-    protected void _handleAuthorizeMessage(final RequestMessage requestMessage, final JsonSocket socketConnection) {
+    protected void _handleAuthorizeMessage(final RequestMessage requestMessage, final StratumConnection socketConnection) {
         { // Respond with successful authorization...
             final ResponseMessage responseMessage = new ResponseMessage(requestMessage.getId());
             responseMessage.setResult(ResponseMessage.RESULT_TRUE);
@@ -389,7 +553,7 @@ public class StratumServer {
         _sendWork(socketConnection, true);
     }
 
-    protected void _handleSubmitMessage(final RequestMessage requestMessage, final JsonSocket socketConnection) {
+    protected void _handleSubmitMessage(final RequestMessage requestMessage, final StratumConnection socketConnection) {
         // mining.submit("username", "job id", "ExtraNonce2", "nTime", "nOnce")
 
         final Json messageParameters = requestMessage.getParameters();
@@ -400,6 +564,7 @@ public class StratumServer {
         final String stratumTimestamp = messageParameters.getString(3);
 
         Boolean submissionWasAccepted = true;
+        Integer creditedShareDifficulty = null;
 
         final Long taskIdLong = ByteUtil.bytesToLong(taskId.getBytes());
         final StratumMineBlockTask mineBlockTask;
@@ -415,12 +580,17 @@ public class StratumServer {
             submissionWasAccepted = false;
         }
 
+        final VariableShareDifficulty variableShareDifficulty = _getShareDifficulty(socketConnection);
         if (mineBlockTask != null) {
-            final Difficulty shareDifficulty = Difficulty.BASE_DIFFICULTY.divideBy(_shareDifficulty);
+            // Shares are validated against the difficulty the job was sent with, since the miner may not have received a newer difficulty yet...
+            final Integer jobShareDifficulty = variableShareDifficulty.getJobShareDifficulty(taskIdLong);
+            final Difficulty shareDifficulty = Difficulty.BASE_DIFFICULTY.divideBy(jobShareDifficulty);
 
             final BlockHeader blockHeader = mineBlockTask.assembleBlockHeader(stratumNonce, stratumExtraNonce2, stratumTimestamp);
             final Sha256Hash hash = blockHeader.getHash();
             Logger.debug(workerUsername + ": " + hash);
+            creditedShareDifficulty = jobShareDifficulty;
+
             if (! shareDifficulty.isSatisfiedBy(hash)) {
                 submissionWasAccepted = false;
                 Logger.warn("Share Difficulty not satisfied.");
@@ -447,15 +617,11 @@ public class StratumServer {
 
         if (submissionWasAccepted) {
             _shareCount.incrementAndGet();
+            _shareDifficultySum.addAndGet(creditedShareDifficulty);
 
             final WorkerShareCallback workerShareCallback = _workerShareCallback;
             if (workerShareCallback != null) {
-                _threadPool.execute(new Runnable() {
-                    @Override
-                    public void run() {
-                        workerShareCallback.onNewWorkerShare(workerUsername, _shareDifficulty);
-                    }
-                });
+                workerShareCallback.onNewWorkerShare(workerUsername, creditedShareDifficulty);
             }
         }
 
@@ -463,6 +629,16 @@ public class StratumServer {
 
         Logger.debug("Sent: "+ blockAcceptedMessage.toString());
         socketConnection.write(new JsonProtocolMessage(blockAcceptedMessage));
+
+        if (submissionWasAccepted) {
+            final Integer newShareDifficulty = variableShareDifficulty.onShareAccepted(_systemTime.getCurrentTimeInMilliSeconds());
+            if (newShareDifficulty != null) {
+                Logger.debug("Retargeted share difficulty for " + workerUsername + ": " + newShareDifficulty);
+
+                // Outstanding jobs remain valid; their shares are still credited at the difficulty they were sent with...
+                _sendWork(socketConnection, false);
+            }
+        }
     }
 
     public StratumServer(final StratumProperties stratumProperties, final MainThreadPool mainThreadPool) {
@@ -505,7 +681,7 @@ public class StratumServer {
 
         _stratumServerSocket.setSocketEventCallback(new StratumServerSocket.SocketEventCallback() {
             @Override
-            public void onConnect(final JsonSocket socketConnection) {
+            public void onConnect(final StratumConnection socketConnection) {
                 Logger.debug("Node connected: " + socketConnection.getIp() + ":" + socketConnection.getPort());
                 _connections.add(socketConnection);
 
@@ -580,19 +756,21 @@ public class StratumServer {
             }
 
             @Override
-            public void onDisconnect(final JsonSocket disconnectedSocket) {
+            public void onDisconnect(final StratumConnection disconnectedSocket) {
                 Logger.debug("Node disconnected: " + disconnectedSocket.getIp() + ":" + disconnectedSocket.getPort());
 
-                final Iterator<JsonSocket> iterator = _connections.iterator();
+                final Iterator<StratumConnection> iterator = _connections.iterator();
                 while (iterator.hasNext()) {
-                    final JsonSocket jsonSocket = iterator.next();
-                    if (jsonSocket == null) { continue; }
+                    final StratumConnection connection = iterator.next();
+                    if (connection == null) { continue; }
 
-                    if (Util.areEqual(disconnectedSocket, jsonSocket)) {
+                    if (Util.areEqual(disconnectedSocket, connection)) {
                         iterator.remove();
                         break;
                     }
                 }
+
+                _shareDifficulties.remove(disconnectedSocket);
             }
         });
 
@@ -621,9 +799,7 @@ public class StratumServer {
         nodeAnnouncementsRpcConnection.upgradeToAnnouncementHook(new NodeJsonRpcConnection.RawAnnouncementHookCallback() {
             @Override
             public void onNewBlockHeader(final BlockHeader blockHeader) {
-                Logger.info("New Block Received: " + blockHeader.getHash());
-                _rebuildNewMiningTask();
-                _broadcastNewTask(true);
+                _onNewBlockHeader(blockHeader);
             }
 
             @Override
@@ -674,8 +850,12 @@ public class StratumServer {
         return _stratumMineBlockTaskBuilder.getBlockHeight();
     }
 
-    public Integer getShareDifficulty() {
-        return _shareDifficulty;
+    /**
+     * Returns the sum of the difficulty of each share accepted since the current Block started.
+     *  Since each connection has its own share difficulty, the share count alone no longer reflects the work performed.
+     */
+    public Long getShareDifficultySum() {
+        return _shareDifficultySum.get();
     }
 
     public Long getShareCount() {
@@ -5,10 +5,13 @@ import com.softwareverde.bitcoin.address.AddressInflater;
 import com.softwareverde.bitcoin.block.Block;
 import com.softwareverde.bitcoin.block.BlockInflater;
 import com.softwareverde.bitcoin.block.MerkleBlock;
+import com.softwareverde.bitcoin.block.filter.BlockFilter;
+import com.softwareverde.bitcoin.block.filter.BlockFilterType;
 import com.softwareverde.bitcoin.block.header.BlockHeader;
 import com.softwareverde.bitcoin.block.header.BlockHeaderWithTransactionCount;
 import com.softwareverde.bitcoin.block.header.ImmutableBlockHeaderWithTransactionCount;
 import com.softwareverde.bitcoin.block.merkleroot.PartialMerkleTree;
+import com.softwareverde.bitcoin.bloomfilter.BlockBloomFilterElements;
 import com.softwareverde.bitcoin.bloomfilter.BloomFilterDeflater;
 import com.softwareverde.bitcoin.bloomfilter.UpdateBloomFilterMode;
 import com.softwareverde.bitcoin.server.State;
@@ -39,11 +42,17 @@ import com.softwareverde.bitcoin.server.message.type.query.response.block.BlockM
 import com.softwareverde.bitcoin.server.message.type.query.response.block.header.BlockHeadersMessage;
 import com.softwareverde.bitcoin.server.message.type.query.response.block.merkle.MerkleBlockMessage;
 import com.softwareverde.bitcoin.server.message.type.query.response.error.NotFoundResponseMessage;
+import com.softwareverde.bitcoin.server.message.type.query.response.filter.BlockFilterCheckpointMessage;
+import com.softwareverde.bitcoin.server.message.type.query.response.filter.BlockFilterHeadersMessage;
+import com.softwareverde.bitcoin.server.message.type.query.response.filter.BlockFilterMessage;
 import com.softwareverde.bitcoin.server.message.type.query.response.hash.InventoryItem;
 import com.softwareverde.bitcoin.server.message.type.query.response.hash.InventoryItemType;
 import com.softwareverde.bitcoin.server.message.type.query.response.transaction.TransactionMessage;
 import com.softwareverde.bitcoin.server.message.type.query.slp.QuerySlpStatusMessage;
 import com.softwareverde.bitcoin.server.message.type.request.RequestDataMessage;
+import com.softwareverde.bitcoin.server.message.type.request.filter.RequestBlockFilterCheckpointMessage;
+import com.softwareverde.bitcoin.server.message.type.request.filter.RequestBlockFilterHeadersMessage;
+import com.softwareverde.bitcoin.server.message.type.request.filter.RequestBlockFiltersMessage;
 import com.softwareverde.bitcoin.server.message.type.request.header.RequestBlockHeadersMessage;
 import com.softwareverde.bitcoin.server.message.type.slp.EnableSlpTransactionsMessage;
 import com.softwareverde.bitcoin.server.message.type.thin.block.ExtraThinBlockMessage;
@@ -81,6 +90,7 @@ import com.softwareverde.util.ByteUtil;
 import com.softwareverde.util.HexUtil;
 import com.softwareverde.util.Util;
 
+import java.util.BitSet;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -168,6 +178,12 @@ public class BitcoinNode extends Node {
         Boolean getSlpStatus(Sha256Hash transactionHash);
     }
 
+    public interface RequestBlockFiltersHandler extends BitcoinNodeHandler {
+        void requestBlockFilters(BitcoinNode bitcoinNode, BlockFilterType blockFilterType, Long startBlockHeight, Sha256Hash stopBlockHash);
+        void requestBlockFilterHeaders(BitcoinNode bitcoinNode, BlockFilterType blockFilterType, Long startBlockHeight, Sha256Hash stopBlockHash);
+        void requestBlockFilterCheckpoint(BitcoinNode bitcoinNode, BlockFilterType blockFilterType, Sha256Hash stopBlockHash);
+    }
+
     public interface RequestExtraThinBlockHandler extends BitcoinNodeHandler {
         void run(BitcoinNode bitcoinNode, Sha256Hash blockHash, BloomFilter bloomFilter);
     }
@@ -258,6 +274,7 @@ public class BitcoinNode extends Node {
     protected RequestUnconfirmedTransactionsHandler _queryUnconfirmedTransactionsCallback = null;
     protected RequestSpvBlocksHandler _requestSpvBlocksHandler = null;
     protected RequestSlpTransactionsHandler _requestSlpTransactionsHandler = null;
+    protected RequestBlockFiltersHandler _requestBlockFiltersHandler = null;
 
     protected RequestExtraThinBlockHandler _requestExtraThinBlockCallback = null;
     protected RequestExtraThinTransactionHandler _requestExtraThinTransactionCallback = null;
@@ -645,6 +662,9 @@ public class BitcoinNode extends Node {
             _slpTransactionsIsEnabled = enableSlpTransactionsMessage.isEnabled();
         });
         _messageRouter.addRoute(MessageType.QUERY_SLP_STATUS,               (final ProtocolMessage message, final BitcoinNode bitcoinNode) -> { _onQuerySlpStatusReceived((QuerySlpStatusMessage) message); });
+        _messageRouter.addRoute(MessageType.REQUEST_BLOCK_FILTERS,          (final ProtocolMessage message, final BitcoinNode bitcoinNode) -> { _onRequestBlockFiltersReceived((RequestBlockFiltersMessage) message); });
+        _messageRouter.addRoute(MessageType.REQUEST_BLOCK_FILTER_HEADERS,   (final ProtocolMessage message, final BitcoinNode bitcoinNode) -> { _onRequestBlockFilterHeadersReceived((RequestBlockFilterHeadersMessage) message); });
+        _messageRouter.addRoute(MessageType.REQUEST_BLOCK_FILTER_CHECKPOINT,(final ProtocolMessage message, final BitcoinNode bitcoinNode) -> { _onRequestBlockFilterCheckpointReceived((RequestBlockFilterCheckpointMessage) message); });
 
         _messageRouter.setUnknownRouteHandler(new MessageRouter.UnknownRouteHandler() {
             @Override
@@ -1282,6 +1302,74 @@ public class BitcoinNode extends Node {
         }
     }
 
+    protected void _onRequestBlockFiltersReceived(final RequestBlockFiltersMessage requestBlockFiltersMessage) {
+        final RequestBlockFiltersHandler requestBlockFiltersHandler = _requestBlockFiltersHandler;
+        if (requestBlockFiltersHandler != null) {
+            final BlockFilterType blockFilterType = requestBlockFiltersMessage.getBlockFilterType();
+            final Long startBlockHeight = requestBlockFiltersMessage.getStartBlockHeight();
+            final Sha256Hash stopBlockHash = requestBlockFiltersMessage.getStopBlockHash();
+            _threadPool.execute(new Runnable() {
+                @Override
+                public void run() {
+                    requestBlockFiltersHandler.requestBlockFilters(BitcoinNode.this, blockFilterType, startBlockHeight, stopBlockHash);
+                }
+            });
+        }
+        else {
+            Logger.debug("No handler set for RequestBlockFilters message.");
+        }
+
+        final MessageType messageType = requestBlockFiltersMessage.getCommand();
+        for (final BitcoinNodeObserver observer : _observers) {
+            observer.onDataRequested(BitcoinNode.this, messageType);
+        }
+    }
+
+    protected void _onRequestBlockFilterHeadersReceived(final RequestBlockFilterHeadersMessage requestBlockFilterHeadersMessage) {
+        final RequestBlockFiltersHandler requestBlockFiltersHandler = _requestBlockFiltersHandler;
+        if (requestBlockFiltersHandler != null) {
+            final BlockFilterType blockFilterType = requestBlockFilterHeadersMessage.getBlockFilterType();
+            final Long startBlockHeight = requestBlockFilterHeadersMessage.getStartBlockHeight();
+            final Sha256Hash stopBlockHash = requestBlockFilterHeadersMessage.getStopBlockHash();
+            _threadPool.execute(new Runnable() {
+                @Override
+                public void run() {
+                    requestBlockFiltersHandler.requestBlockFilterHeaders(BitcoinNode.this, blockFilterType, startBlockHeight, stopBlockHash);
+                }
+            });
+        }
+        else {
+            Logger.debug("No handler set for RequestBlockFilterHeaders message.");
+        }
+
+        final MessageType messageType = requestBlockFilterHeadersMessage.getCommand();
+        for (final BitcoinNodeObserver observer : _observers) {
+            observer.onDataRequested(BitcoinNode.this, messageType);
+        }
+    }
+
+    protected void _onRequestBlockFilterCheckpointReceived(final RequestBlockFilterCheckpointMessage requestBlockFilterCheckpointMessage) {
+        final RequestBlockFiltersHandler requestBlockFiltersHandler = _requestBlockFiltersHandler;
+        if (requestBlockFiltersHandler != null) {
+            final BlockFilterType blockFilterType = requestBlockFilterCheckpointMessage.getBlockFilterType();
+            final Sha256Hash stopBlockHash = requestBlockFilterCheckpointMessage.getStopBlockHash();
+            _threadPool.execute(new Runnable() {
+                @Override
+                public void run() {
+                    requestBlockFiltersHandler.requestBlockFilterCheckpoint(BitcoinNode.this, blockFilterType, stopBlockHash);
+                }
+            });
+        }
+        else {
+            Logger.debug("No handler set for RequestBlockFilterCheckpoint message.");
+        }
+
+        final MessageType messageType = requestBlockFilterCheckpointMessage.getCommand();
+        for (final BitcoinNodeObserver observer : _observers) {
+            observer.onDataRequested(BitcoinNode.this, messageType);
+        }
+    }
+
     protected void _queryForBlockHashesAfter(final Sha256Hash blockHash) {
         final QueryBlocksMessage queryBlocksMessage = _protocolMessageFactory.newQueryBlocksMessage();
         queryBlocksMessage.addBlockHash(blockHash);
@@ -1735,50 +1823,105 @@ public class BitcoinNode extends Node {
         _queueMessage(blockMessage);
     }
 
+    public void transmitBlockFilters(final List<Sha256Hash> blockHashes, final List<BlockFilter> blockFilters) {
+        final MutableList<ProtocolMessage> messages = new MutableList<ProtocolMessage>(blockFilters.getCount());
+        for (int i = 0; i < blockFilters.getCount(); ++i) {
+            final BlockFilterMessage blockFilterMessage = _protocolMessageFactory.newBlockFilterMessage();
+            blockFilterMessage.setBlockFilter(blockHashes.get(i), blockFilters.get(i));
+            messages.add(blockFilterMessage);
+        }
+        _queueMessages(messages);
+    }
+
+    public void transmitBlockFilterHeaders(final BlockFilterType blockFilterType, final Sha256Hash stopBlockHash, final Sha256Hash previousFilterHeader, final List<Sha256Hash> filterHashes) {
+        final BlockFilterHeadersMessage blockFilterHeadersMessage = _protocolMessageFactory.newBlockFilterHeadersMessage();
+        blockFilterHeadersMessage.setBlockFilterType(blockFilterType);
+        blockFilterHeadersMessage.setStopBlockHash(stopBlockHash);
+        blockFilterHeadersMessage.setPreviousFilterHeader(previousFilterHeader);
+        for (final Sha256Hash filterHash : filterHashes) {
+            blockFilterHeadersMessage.addFilterHash(filterHash);
+        }
+        _queueMessage(blockFilterHeadersMessage);
+    }
+
+    public void transmitBlockFilterCheckpoint(final BlockFilterType blockFilterType, final Sha256Hash stopBlockHash, final List<Sha256Hash> filterHeaders) {
+        final BlockFilterCheckpointMessage blockFilterCheckpointMessage = _protocolMessageFactory.newBlockFilterCheckpointMessage();
+        blockFilterCheckpointMessage.setBlockFilterType(blockFilterType);
+        blockFilterCheckpointMessage.setStopBlockHash(stopBlockHash);
+        for (final Sha256Hash filterHeader : filterHeaders) {
+            blockFilterCheckpointMessage.addFilterHeader(filterHeader);
+        }
+        _queueMessage(blockFilterCheckpointMessage);
+    }
+
+    protected void _transmitMerkleBlockWithoutBloomFilter(final Block block) {
+        // NOTE: When a MerkleBlock is requested without a BloomFilter set, Bitcoin XT sends a MerkleBlock w/ BloomFilter.MATCH_ALL.
+        Logger.warn("Attempting to Transmit MerkleBlock when no BloomFilter is available.");
+        final BlockMessage blockMessage = _protocolMessageFactory.newBlockMessage();
+        blockMessage.setBlock(block);
+        _queueMessage(blockMessage);
+    }
+
+    protected void _transmitMerkleBlock(final BlockBloomFilterElements blockBloomFilterElements, final MutableBloomFilter bloomFilter) {
+        // The response to a MerkleBlock request is a combination of messages.
+        //  1. The first message should be the MerkleBlock itself.
+        //  2. Immediately following should be the any transactions that match the Node's bloomFilter.
+        //  3. Finally, since the receiving node has no way to determine if the transaction stream is complete, a ping message is sent to interrupt the flow.
+        final Block block = blockBloomFilterElements.getBlock();
+        final MutableList<ProtocolMessage> messages = new MutableList<ProtocolMessage>();
+
+        // NOTE: The BloomFilter is updated while matching (per its update mode), so the MerkleBlock and the relayed transactions are derived from the same matches...
+        final UpdateBloomFilterMode updateBloomFilterMode = Util.coalesce(UpdateBloomFilterMode.valueOf(bloomFilter.getUpdateMode()), UpdateBloomFilterMode.READ_ONLY);
+        final BitSet matchedTransactionIndexes = blockBloomFilterElements.getMatchedTransactionIndexes(bloomFilter, updateBloomFilterMode);
+
+        final MerkleBlockMessage merkleBlockMessage = _protocolMessageFactory.newMerkleBlockMessage();
+        merkleBlockMessage.setBlockHeader(block);
+        merkleBlockMessage.setPartialMerkleTree(blockBloomFilterElements.getPartialMerkleTree(matchedTransactionIndexes));
+        messages.add(merkleBlockMessage);
+
+        // BIP37 dictates that matched transactions be separately relayed...
+        //  "In addition, because a merkleblock message contains only a list of transaction hashes, transactions
+        //      matching the filter should also be sent in separate tx messages after the merkleblock is sent. This
+        //      avoids a slow roundtrip that would otherwise be required (receive hashes, didn't see some of these
+        //      transactions yet, ask for them)."
+        final List<Transaction> transactions = block.getTransactions();
+        for (int i = matchedTransactionIndexes.nextSetBit(0); i >= 0; i = matchedTransactionIndexes.nextSetBit(i + 1)) {
+            final Transaction transaction = transactions.get(i);
+            final TransactionMessage transactionMessage = _protocolMessageFactory.newTransactionMessage();
+            transactionMessage.setTransaction(transaction);
+            messages.add(transactionMessage);
+        }
+
+        // NOTE: A ping message is queued to inform the node that no more transactions follow...
+        //  This isn't directly called out in the specification, but is a logical convention.
+        messages.add(_createPingMessage());
+
+        _queueMessages(messages);
+    }
+
     public void transmitMerkleBlock(final Block block) {
         final MutableBloomFilter bloomFilter = _bloomFilter;
         if (bloomFilter == null) {
-            // NOTE: When a MerkleBlock is requested without a BloomFilter set, Bitcoin XT sends a MerkleBlock w/ BloomFilter.MATCH_ALL.
-            Logger.warn("Attempting to Transmit MerkleBlock when no BloomFilter is available.");
-            final BlockMessage blockMessage = _protocolMessageFactory.newBlockMessage();
-            blockMessage.setBlock(block);
-            _queueMessage(blockMessage);
+            _transmitMerkleBlockWithoutBloomFilter(block);
+            return;
         }
-        else {
-            // The response to a MerkleBlock request is a combination of messages.
-            //  1. The first message should be the MerkleBlock itself.
-            //  2. Immediately following should be the any transactions that match the Node's bloomFilter.
-            //  3. Finally, since the receiving node has no way to determine if the transaction stream is complete, a ping message is sent to interrupt the flow.
-            final MutableList<ProtocolMessage> messages = new MutableList<ProtocolMessage>();
-
-            final MerkleBlockMessage merkleBlockMessage = _protocolMessageFactory.newMerkleBlockMessage();
-            merkleBlockMessage.setBlockHeader(block);
-            merkleBlockMessage.setPartialMerkleTree(block.getPartialMerkleTree(bloomFilter));
-            messages.add(merkleBlockMessage);
-
-            // BIP37 dictates that matched transactions be separately relayed...
-            //  "In addition, because a merkleblock message contains only a list of transaction hashes, transactions
-            //      matching the filter should also be sent in separate tx messages after the merkleblock is sent. This
-            //      avoids a slow roundtrip that would otherwise be required (receive hashes, didn't see some of these
-            //      transactions yet, ask for them)."
-            final UpdateBloomFilterMode updateBloomFilterMode = Util.coalesce(UpdateBloomFilterMode.valueOf(bloomFilter.getUpdateMode()), UpdateBloomFilterMode.READ_ONLY);
-            final TransactionBloomFilterMatcher transactionBloomFilterMatcher = new TransactionBloomFilterMatcher(bloomFilter, updateBloomFilterMode, _addressInflater);
-            final List<Transaction> transactions = block.getTransactions();
-            for (final Transaction transaction : transactions) {
-                final boolean transactionMatches = transactionBloomFilterMatcher.shouldInclude(transaction);
-                if (transactionMatches) {
-                    final TransactionMessage transactionMessage = _protocolMessageFactory.newTransactionMessage();
-                    transactionMessage.setTransaction(transaction);
-                    messages.add(transactionMessage);
-                }
-            }
 
-            // NOTE: A ping message is queued to inform the node that no more transactions follow...
-            //  This isn't directly called out in the specification, but is a logical convention.
-            messages.add(_createPingMessage());
+        final BlockBloomFilterElements blockBloomFilterElements = BlockBloomFilterElements.fromBlock(block, _addressInflater);
+        _transmitMerkleBlock(blockBloomFilterElements, bloomFilter);
+    }
 
-            _queueMessages(messages);
+    /**
+     * Transmits the MerkleBlock using the Block's precomputed BloomFilter elements.
+     *  The same BlockBloomFilterElements may be used to serve many nodes.
+     */
+    public void transmitMerkleBlock(final BlockBloomFilterElements blockBloomFilterElements) {
+        final MutableBloomFilter bloomFilter = _bloomFilter;
+        if (bloomFilter == null) {
+            _transmitMerkleBlockWithoutBloomFilter(blockBloomFilterElements.getBlock());
+            return;
         }
+
+        _transmitMerkleBlock(blockBloomFilterElements, bloomFilter);
     }
 
     public void setSynchronizationStatusHandler(final SynchronizationStatus synchronizationStatus) {
@@ -1805,6 +1948,10 @@ public class BitcoinNode extends Node {
         _requestSlpTransactionsHandler = requestSlpTransactionsCallback;
     }
 
+    public void setRequestBlockFiltersHandler(final RequestBlockFiltersHandler requestBlockFiltersHandler) {
+        _requestBlockFiltersHandler = requestBlockFiltersHandler;
+    }
+
     public void setBlockInventoryMessageHandler(final BlockInventoryAnnouncementHandler blockInventoryMessageHandler) {
         _blockInventoryMessageHandler = blockInventoryMessageHandler;
     }
@@ -0,0 +1,102 @@
+package com.softwareverde.bitcoin.server.stratum.difficulty;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Tracks the share difficulty of a single stratum connection.
+ *  The difficulty is retargeted from the observed interval between accepted shares so that each connection submits roughly one share
+ *  per TARGET_SHARE_INTERVAL_MS, regardless of its hashrate.
+ *  The difficulty each job was sent with is retained so that shares are validated (and credited) at the difficulty they were mined against.
+ */
+public class VariableShareDifficulty {
+    public static final Integer DEFAULT_INITIAL_SHARE_DIFFICULTY = 2048;
+    public static final Integer MIN_SHARE_DIFFICULTY = 64;
+    public static final Integer MAX_SHARE_DIFFICULTY = (1 << 30);
+
+    public static final Long TARGET_SHARE_INTERVAL_MS = 10000L;
+    public static final Integer RETARGET_SHARE_COUNT = 16;
+    public static final Long RETARGET_INTERVAL_MS = 90000L;
+
+    protected static final Integer MAX_ADJUSTMENT_FACTOR = 4;
+    protected static final Double MIN_ADJUSTMENT_RATIO = 0.3D; // Changes smaller than 30% are ignored to avoid oscillating...
+    protected static final Integer MAX_TRACKED_JOB_COUNT = 32;
+
+    protected final LinkedHashMap<Long, Integer> _jobShareDifficulties = new LinkedHashMap<Long, Integer>(MAX_TRACKED_JOB_COUNT, 0.75F, false) {
+        @Override
+        protected boolean removeEldestEntry(final Map.Entry<Long, Integer> eldestEntry) {
+            return (this.size() > MAX_TRACKED_JOB_COUNT);
+        }
+    };
+
+    protected Integer _shareDifficulty;
+    protected Long _retargetStartTimeMs;
+    protected Integer _retargetShareCount = 0;
+
+    /**
+     * Returns the new share difficulty if the retarget window has completed and the observed share interval warrants a change; otherwise returns null.
+     */
+    protected Integer _retarget(final Long nowMs) {
+        final long elapsedMs = (nowMs - _retargetStartTimeMs);
+        if ( (_retargetShareCount < RETARGET_SHARE_COUNT) && (elapsedMs < RETARGET_INTERVAL_MS) ) { return null; }
+
+        final double observedShareIntervalMs = (elapsedMs / (double) Math.max(1, _retargetShareCount));
+        final double adjustmentRatio = Math.max((1D / MAX_ADJUSTMENT_FACTOR), Math.min(MAX_ADJUSTMENT_FACTOR, (TARGET_SHARE_INTERVAL_MS / observedShareIntervalMs)));
+
+        _retargetStartTimeMs = nowMs;
+        _retargetShareCount = 0;
+
+        if (Math.abs(adjustmentRatio - 1D) < MIN_ADJUSTMENT_RATIO) { return null; }
+
+        final long newShareDifficulty = Math.max(MIN_SHARE_DIFFICULTY, Math.min(MAX_SHARE_DIFFICULTY, Math.round(_shareDifficulty * adjustmentRatio)));
+        if (newShareDifficulty == _shareDifficulty) { return null; }
+
+        _shareDifficulty = (int) newShareDifficulty;
+        return _shareDifficulty;
+    }
+
+    public VariableShareDifficulty(final Long nowMs) {
+        this(DEFAULT_INITIAL_SHARE_DIFFICULTY, nowMs);
+    }
+
+    public VariableShareDifficulty(final Integer initialShareDifficulty, final Long nowMs) {
+        _shareDifficulty = initialShareDifficulty;
+        _retargetStartTimeMs = nowMs;
+    }
+
+    public synchronized Integer getShareDifficulty() {
+        return _shareDifficulty;
+    }
+
+    /**
+     * Records that the job was sent to the connection at the current share difficulty.
+     *  If the job was previously sent, it is now validated (and credited) at the difficulty it was most recently sent with.
+     */
+    public synchronized void onJobSent(final Long jobId) {
+        _jobShareDifficulties.put(jobId, _shareDifficulty);
+    }
+
+    /**
+     * Returns the difficulty the job was sent at, or the current share difficulty if the job is unknown.
+     */
+    public synchronized Integer getJobShareDifficulty(final Long jobId) {
+        final Integer jobShareDifficulty = _jobShareDifficulties.get(jobId);
+        if (jobShareDifficulty == null) { return _shareDifficulty; }
+        return jobShareDifficulty;
+    }
+
+    /**
+     * Records an accepted share and returns the new share difficulty if the connection should be retargeted, otherwise null.
+     */
+    public synchronized Integer onShareAccepted(final Long nowMs) {
+        _retargetShareCount += 1;
+        return _retarget(nowMs);
+    }
+
+    /**
+     * Returns the new share difficulty if a connection that has not submitted enough shares should be retargeted, otherwise null.
+     */
+    public synchronized Integer checkRetarget(final Long nowMs) {
+        return _retarget(nowMs);
+    }
+}
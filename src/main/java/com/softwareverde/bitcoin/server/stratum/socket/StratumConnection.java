@@ -0,0 +1,282 @@
+package com.softwareverde.bitcoin.server.stratum.socket;
+
+import com.softwareverde.concurrent.pool.ThreadPool;
+import com.softwareverde.json.Json;
+import com.softwareverde.logging.Logger;
+import com.softwareverde.network.ip.Ip;
+import com.softwareverde.network.p2p.message.ProtocolMessage;
+import com.softwareverde.network.socket.JsonProtocolMessage;
+import com.softwareverde.util.StringUtil;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A non-blocking stratum connection whose reads and writes are driven by the StratumServerSocket's selector.
+ *  Messages are newline-delimited Json.  Writes are queued and written immediately if the socket is writable,
+ *  otherwise the remainder is written by the selector thread once the socket becomes writable.
+ */
+public class StratumConnection {
+    public static final Integer MAX_MESSAGE_BYTE_COUNT = (64 * 1024);
+    public static final Long MAX_QUEUED_BYTE_COUNT = (4L * 1024L * 1024L); // Connections that fall this far behind are disconnected...
+
+    protected static final AtomicLong NEXT_ID = new AtomicLong(0L);
+
+    protected interface Callback {
+        void onListen(StratumConnection stratumConnection);
+        void onWritePending(StratumConnection stratumConnection);
+        void onClose(StratumConnection stratumConnection);
+    }
+
+    /**
+     * Serializes the message once so that it may be written to many connections via StratumConnection::write(ByteBuffer).
+     */
+    public static ByteBuffer serialize(final ProtocolMessage protocolMessage) {
+        final byte[] bytes = protocolMessage.getBytes().getBytes();
+        return ByteBuffer.wrap(bytes).asReadOnlyBuffer();
+    }
+
+    protected final Long _id;
+    protected final SocketChannel _socketChannel;
+    protected final Ip _ip;
+    protected final Integer _port;
+    protected final ThreadPool _threadPool;
+    protected final Callback _callback;
+
+    protected final ConcurrentLinkedQueue<JsonProtocolMessage> _messages = new ConcurrentLinkedQueue<JsonProtocolMessage>();
+    protected final ByteArrayOutputStream _partialMessage = new ByteArrayOutputStream(); // Only accessed by the selector thread...
+
+    protected final Object _writeMutex = new Object();
+    protected final ArrayDeque<ByteBuffer> _queuedWrites = new ArrayDeque<ByteBuffer>();
+    protected long _queuedByteCount = 0L;
+
+    protected SelectionKey _selectionKey;
+    protected volatile Runnable _messageReceivedCallback;
+    protected Boolean _isListening = false;
+    protected volatile Boolean _isClosed = false;
+
+    protected void _onMessage(final byte[] bytes) {
+        final String string = StringUtil.bytesToString(bytes).trim();
+        if (! Json.isJson(string)) { return; }
+
+        _messages.offer(new JsonProtocolMessage(Json.parse(string)));
+
+        final Runnable messageReceivedCallback = _messageReceivedCallback;
+        if (messageReceivedCallback != null) {
+            _threadPool.execute(messageReceivedCallback);
+        }
+    }
+
+    /**
+     * Writes as much of the queued data as the socket will accept without blocking.
+     *  Returns true if all queued data was written.
+     */
+    protected Boolean _flush() throws IOException {
+        synchronized (_writeMutex) {
+            while (! _queuedWrites.isEmpty()) {
+                final ByteBuffer byteBuffer = _queuedWrites.peek();
+                final int byteCount = _socketChannel.write(byteBuffer);
+                _queuedByteCount -= byteCount;
+
+                if (byteBuffer.hasRemaining()) { return false; }
+                _queuedWrites.poll();
+            }
+            return true;
+        }
+    }
+
+    protected StratumConnection(final SocketChannel socketChannel, final ThreadPool threadPool, final Callback callback) {
+        _id = NEXT_ID.getAndIncrement();
+        _socketChannel = socketChannel;
+        _ip = Ip.fromSocket(socketChannel.socket());
+        _port = socketChannel.socket().getPort();
+        _threadPool = threadPool;
+        _callback = callback;
+    }
+
+    protected void setSelectionKey(final SelectionKey selectionKey) {
+        _selectionKey = selectionKey;
+    }
+
+    /**
+     * Invoked by the selector thread when the socket is readable.
+     *  Complete messages are queued and the message-received callback is executed for each.
+     */
+    protected void onReadable(final ByteBuffer readBuffer) {
+        try {
+            readBuffer.clear();
+            final int byteCount = _socketChannel.read(readBuffer);
+            if (byteCount < 0) {
+                this.close();
+                return;
+            }
+
+            final byte[] bytes = readBuffer.array();
+            int messageStartIndex = 0;
+            for (int i = 0; i < byteCount; ++i) {
+                if (bytes[i] != '\n') { continue; }
+
+                _partialMessage.write(bytes, messageStartIndex, (i - messageStartIndex));
+                messageStartIndex = (i + 1);
+
+                _onMessage(_partialMessage.toByteArray());
+                _partialMessage.reset();
+            }
+            _partialMessage.write(bytes, messageStartIndex, (byteCount - messageStartIndex));
+
+            if (_partialMessage.size() > MAX_MESSAGE_BYTE_COUNT) {
+                Logger.debug("Stratum message exceeded max size: " + this);
+                this.close();
+            }
+        }
+        catch (final Exception exception) {
+            Logger.debug(exception);
+            this.close();
+        }
+    }
+
+    /**
+     * Invoked by the selector thread when the socket is writable.
+     *  Returns true once there is no more data to be written.
+     */
+    protected Boolean onWritable() {
+        try {
+            return _flush();
+        }
+        catch (final IOException exception) {
+            Logger.debug(exception);
+            this.close();
+            return true;
+        }
+    }
+
+    protected Boolean hasQueuedWrites() {
+        synchronized (_writeMutex) {
+            return (! _queuedWrites.isEmpty());
+        }
+    }
+
+    protected SelectionKey getSelectionKey() {
+        return _selectionKey;
+    }
+
+    public void setMessageReceivedCallback(final Runnable messageReceivedCallback) {
+        _messageReceivedCallback = messageReceivedCallback;
+    }
+
+    /**
+     * Registers the connection with the selector so that its messages are read.
+     *  The message-received callback should be set before invoking this function.
+     */
+    public synchronized void beginListening() {
+        if (_isListening) { return; }
+
+        _isListening = true;
+        _callback.onListen(this);
+    }
+
+    /**
+     * Retrieves the oldest message from the inbound queue and returns it.
+     *  Returns null if there are no pending messages.
+     */
+    public JsonProtocolMessage popMessage() {
+        return _messages.poll();
+    }
+
+    public Boolean write(final ProtocolMessage protocolMessage) {
+        return this.write(StratumConnection.serialize(protocolMessage));
+    }
+
+    /**
+     * Queues the serialized message to be written to the connection.
+     *  The provided buffer is not modified and may be shared across many connections.
+     */
+    public Boolean write(final ByteBuffer serializedMessage) {
+        if (_isClosed) { return false; }
+
+        final ByteBuffer byteBuffer = serializedMessage.duplicate();
+        final Boolean wasFlushed;
+        try {
+            synchronized (_writeMutex) {
+                if ( (_queuedByteCount + byteBuffer.remaining()) > MAX_QUEUED_BYTE_COUNT) {
+                    Logger.debug("Stratum connection write queue exceeded: " + this);
+                    throw new IOException("Write queue exceeded.");
+                }
+
+                final Boolean hadQueuedWrites = (! _queuedWrites.isEmpty());
+                _queuedWrites.add(byteBuffer);
+                _queuedByteCount += byteBuffer.remaining();
+
+                // If data is already queued, the selector thread is responsible for writing it in order...
+                if (hadQueuedWrites) { return true; }
+                wasFlushed = _flush();
+            }
+        }
+        catch (final IOException exception) {
+            this.close();
+            return false;
+        }
+
+        if (! wasFlushed) {
+            _callback.onWritePending(this);
+        }
+        return true;
+    }
+
+    public Ip getIp() {
+        return _ip;
+    }
+
+    public Integer getPort() {
+        return _port;
+    }
+
+    public Boolean isConnected() {
+        return ( (! _isClosed) && _socketChannel.isOpen() );
+    }
+
+    public void close() {
+        synchronized (_writeMutex) {
+            if (_isClosed) { return; }
+            _isClosed = true;
+
+            _queuedWrites.clear();
+            _queuedByteCount = 0L;
+        }
+
+        final SelectionKey selectionKey = _selectionKey;
+        if (selectionKey != null) {
+            selectionKey.cancel();
+        }
+
+        try { _socketChannel.close(); }
+        catch (final Exception exception) { }
+
+        _callback.onClose(this);
+    }
+
+    @Override
+    public int hashCode() {
+        return (StratumConnection.class.getSimpleName().hashCode() + _id.hashCode());
+    }
+
+    @Override
+    public boolean equals(final Object object) {
+        if (object == null) { return false; }
+        if (! (object instanceof StratumConnection)) { return false; }
+
+        final StratumConnection stratumConnection = (StratumConnection) object;
+        return _id.equals(stratumConnection._id);
+    }
+
+    @Override
+    public String toString() {
+        return (_ip + ":" + _port);
+    }
+}
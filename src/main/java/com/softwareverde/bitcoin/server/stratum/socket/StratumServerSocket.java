@@ -2,51 +2,78 @@ package com.softwareverde.bitcoin.server.stratum.socket;
 
 import com.softwareverde.concurrent.pool.ThreadPool;
 import com.softwareverde.logging.Logger;
-import com.softwareverde.network.socket.JsonSocket;
 
 import java.io.IOException;
-import java.util.ArrayList;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
 import java.util.Iterator;
-import java.util.List;
-
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Accepts stratum connections and services all of their reads and writes from a single selector thread.
+ *  Registration and write-interest changes requested by other threads are queued and applied by the selector thread,
+ *  since modifying a SelectionKey while the Selector is selecting may block.
+ */
 public class StratumServerSocket {
     public interface SocketEventCallback {
-        void onConnect(JsonSocket socketConnection);
-        void onDisconnect(JsonSocket socketConnection);
+        void onConnect(StratumConnection socketConnection);
+        void onDisconnect(StratumConnection socketConnection);
     }
 
+    protected static final Integer READ_BUFFER_BYTE_COUNT = (16 * 1024);
+
     protected final Integer _port;
-    protected java.net.ServerSocket _socket;
+    protected final ThreadPool _threadPool;
+
+    protected ServerSocketChannel _serverSocketChannel;
+    protected Selector _selector;
+    protected final ByteBuffer _readBuffer = ByteBuffer.allocate(READ_BUFFER_BYTE_COUNT); // Only accessed by the selector thread...
 
-    protected final List<JsonSocket> _connections = new ArrayList<JsonSocket>();
+    protected final Set<StratumConnection> _connections = ConcurrentHashMap.newKeySet();
+
+    protected final ConcurrentLinkedQueue<StratumConnection> _pendingRegistrations = new ConcurrentLinkedQueue<StratumConnection>();
+    protected final ConcurrentLinkedQueue<StratumConnection> _pendingWrites = new ConcurrentLinkedQueue<StratumConnection>();
 
-    protected Long _nextConnectionId = 0L;
     protected volatile Boolean _shouldContinue = true;
     protected Thread _serverThread = null;
 
     protected SocketEventCallback _socketEventCallback = null;
 
-    protected final ThreadPool _threadPool;
+    protected final StratumConnection.Callback _connectionCallback = new StratumConnection.Callback() {
+        @Override
+        public void onListen(final StratumConnection stratumConnection) {
+            _pendingRegistrations.offer(stratumConnection);
+            _wakeUpSelector();
+        }
 
-    protected static final Long _purgeEveryCount = 20L;
-    protected void _purgeDisconnectedConnections() {
-        synchronized (_connections) {
-            final Iterator<JsonSocket> iterator = _connections.iterator();
-            while (iterator.hasNext()) {
-                final JsonSocket connection = iterator.next();
-                if (connection == null) { continue; }
+        @Override
+        public void onWritePending(final StratumConnection stratumConnection) {
+            _pendingWrites.offer(stratumConnection);
+            _wakeUpSelector();
+        }
 
-                if (! connection.isConnected()) {
-                    iterator.remove();
-                    Logger.debug("Purging disconnected stratum socket: " + connection.getIp() + ":" + connection.getPort());
+        @Override
+        public void onClose(final StratumConnection stratumConnection) {
+            Logger.debug("Stratum socket disconnected: " + stratumConnection);
+            _connections.remove(stratumConnection);
+            _onDisconnect(stratumConnection);
+        }
+    };
 
-                    _onDisconnect(connection);
-                }
-            }
+    protected void _wakeUpSelector() {
+        final Selector selector = _selector;
+        if (selector != null) {
+            selector.wakeup();
         }
     }
 
-    protected void _onConnect(final JsonSocket socketConnection) {
+    protected void _onConnect(final StratumConnection socketConnection) {
         final SocketEventCallback socketEventCallback = _socketEventCallback;
         if (socketEventCallback != null) {
             _threadPool.execute(new Runnable() {
@@ -58,7 +85,7 @@ public class StratumServerSocket {
         }
     }
 
-    protected void _onDisconnect(final JsonSocket socketConnection) {
+    protected void _onDisconnect(final StratumConnection socketConnection) {
         final SocketEventCallback socketEventCallback = _socketEventCallback;
         if (socketEventCallback != null) {
             _threadPool.execute(new Runnable() {
@@ -70,6 +97,88 @@ public class StratumServerSocket {
         }
     }
 
+    protected void _acceptConnections() throws IOException {
+        while (true) {
+            final SocketChannel socketChannel = _serverSocketChannel.accept();
+            if (socketChannel == null) { break; }
+
+            socketChannel.configureBlocking(false);
+            socketChannel.socket().setTcpNoDelay(true);
+
+            final StratumConnection connection = new StratumConnection(socketChannel, _threadPool, _connectionCallback);
+            _connections.add(connection);
+            _onConnect(connection);
+        }
+    }
+
+    protected void _processPendingRequests() {
+        while (true) {
+            final StratumConnection connection = _pendingRegistrations.poll();
+            if (connection == null) { break; }
+            if (! connection.isConnected()) { continue; }
+
+            try {
+                final int interestOps = (SelectionKey.OP_READ | (connection.hasQueuedWrites() ? SelectionKey.OP_WRITE : 0));
+                final SelectionKey selectionKey = connection._socketChannel.register(_selector, interestOps, connection);
+                connection.setSelectionKey(selectionKey);
+            }
+            catch (final IOException exception) {
+                Logger.debug(exception);
+                connection.close();
+            }
+        }
+
+        while (true) {
+            final StratumConnection connection = _pendingWrites.poll();
+            if (connection == null) { break; }
+
+            final SelectionKey selectionKey = connection.getSelectionKey();
+            if ( (selectionKey == null) || (! selectionKey.isValid()) ) { continue; } // The write interest is set upon registration...
+
+            selectionKey.interestOps(selectionKey.interestOps() | SelectionKey.OP_WRITE);
+        }
+    }
+
+    protected void _run() {
+        while (_shouldContinue) {
+            try {
+                _selector.select();
+                _processPendingRequests();
+
+                final Iterator<SelectionKey> iterator = _selector.selectedKeys().iterator();
+                while (iterator.hasNext()) {
+                    final SelectionKey selectionKey = iterator.next();
+                    iterator.remove();
+
+                    if (! selectionKey.isValid()) { continue; }
+
+                    if (selectionKey.isAcceptable()) {
+                        _acceptConnections();
+                        continue;
+                    }
+
+                    final StratumConnection connection = (StratumConnection) selectionKey.attachment();
+
+                    if (selectionKey.isReadable()) {
+                        connection.onReadable(_readBuffer);
+                    }
+
+                    if (selectionKey.isValid() && selectionKey.isWritable()) {
+                        final Boolean allDataWasWritten = connection.onWritable();
+                        if (allDataWasWritten && selectionKey.isValid()) {
+                            selectionKey.interestOps(selectionKey.interestOps() & (~ SelectionKey.OP_WRITE));
+                        }
+                    }
+                }
+            }
+            catch (final Exception exception) {
+                if (_shouldContinue) {
+                    Logger.warn(exception);
+                }
+            }
+        }
+    }
+
     public StratumServerSocket(final Integer port, final ThreadPool threadPool) {
         _port = port;
         _threadPool = threadPool;
@@ -79,37 +188,28 @@ public class StratumServerSocket {
         _socketEventCallback = socketEventCallback;
     }
 
+    public Integer getConnectionCount() {
+        return _connections.size();
+    }
+
     public void start() {
         _shouldContinue = true;
 
         try {
-            _socket = new java.net.ServerSocket(_port);
+            _selector = Selector.open();
+
+            _serverSocketChannel = ServerSocketChannel.open();
+            _serverSocketChannel.configureBlocking(false);
+            _serverSocketChannel.bind(new InetSocketAddress(_port));
+            _serverSocketChannel.register(_selector, SelectionKey.OP_ACCEPT);
 
             _serverThread = new Thread(new Runnable() {
                 @Override
                 public void run() {
-                    try {
-                        while (_shouldContinue) {
-                            if (_socket == null) { return; }
-
-                            final JsonSocket connection = new JsonSocket(_socket.accept(), _threadPool);
-
-                            final Boolean shouldPurgeConnections = (_nextConnectionId % _purgeEveryCount == 0L);
-                            if (shouldPurgeConnections) {
-                                _purgeDisconnectedConnections();
-                            }
-
-                            synchronized (_connections) {
-                                _connections.add(connection);
-                                _nextConnectionId += 1L;
-                            }
-
-                            _onConnect(connection);
-                        }
-                    }
-                    catch (final IOException exception) { }
+                    _run();
                 }
             });
+            _serverThread.setName("Stratum Server Socket");
             _serverThread.start();
         }
         catch (final Exception exception) {
@@ -120,18 +220,35 @@ public class StratumServerSocket {
     public void stop() {
         _shouldContinue = false;
 
-        if (_socket != null) {
-            try { _socket.close(); }
-            catch (final IOException e) { }
+        final Selector selector = _selector;
+        if (selector != null) {
+            selector.wakeup();
         }
 
-        _socket = null;
-
         try {
             if (_serverThread != null) {
                 _serverThread.join(30000L);
             }
         }
         catch (final Exception exception) { }
+
+        // Connections that have not yet begun listening are not registered with the Selector...
+        for (final StratumConnection connection : _connections) {
+            connection.close();
+        }
+        _connections.clear();
+
+        if (selector != null) {
+            try { selector.close(); }
+            catch (final IOException exception) { }
+        }
+
+        if (_serverSocketChannel != null) {
+            try { _serverSocketChannel.close(); }
+            catch (final IOException exception) { }
+        }
+
+        _selector = null;
+        _serverSocketChannel = null;
     }
 }
@@ -145,6 +145,10 @@ public class StratumMineBlockTask {
         return _prototypeBlock.getDifficulty();
     }
 
+    public Sha256Hash getPreviousBlockHash() {
+        return _prototypeBlock.getPreviousBlockHash();
+    }
+
     public Long getTimestamp() {
         return _timestampInSeconds;
     }
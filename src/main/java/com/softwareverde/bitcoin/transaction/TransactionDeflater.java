@@ -7,6 +7,7 @@ import com.softwareverde.bitcoin.transaction.locktime.LockTime;
 import com.softwareverde.bitcoin.transaction.output.TransactionOutput;
 import com.softwareverde.bitcoin.transaction.output.TransactionOutputDeflater;
 import com.softwareverde.bitcoin.util.ByteUtil;
+import com.softwareverde.bitcoin.util.bytearray.ByteArrayWriter;
 import com.softwareverde.constable.bytearray.ByteArray;
 import com.softwareverde.constable.bytearray.MutableByteArray;
 import com.softwareverde.constable.list.List;
@@ -15,6 +16,9 @@ import com.softwareverde.util.bytearray.ByteArrayBuilder;
 import com.softwareverde.util.bytearray.Endian;
 
 public class TransactionDeflater {
+    protected final TransactionInputDeflater _transactionInputDeflater = new TransactionInputDeflater();
+    protected final TransactionOutputDeflater _transactionOutputDeflater = new TransactionOutputDeflater();
+
     protected void _toFragmentedBytes(final Transaction transaction, final ByteArrayBuilder headBytesBuilder, final ByteArrayBuilder tailBytesBuilder) {
         final byte[] versionBytes = new byte[4];
         ByteUtil.setBytes(versionBytes, ByteUtil.integerToBytes(transaction.getVersion()));
@@ -25,36 +29,56 @@ public class TransactionDeflater {
 
         headBytesBuilder.appendBytes(versionBytes, Endian.LITTLE);
 
-        final TransactionInputDeflater transactionInputDeflater = new TransactionInputDeflater();
         final List<TransactionInput> transactionInputs = transaction.getTransactionInputs();
         headBytesBuilder.appendBytes(ByteUtil.variableLengthIntegerToBytes(transactionInputs.getCount()), Endian.BIG);
         int transactionInputIndex = 0;
         for (final TransactionInput transactionInput : transactionInputs) {
             if (transactionInputIndex == 0) {
-                final FragmentedBytes fragmentedTransactionInputBytes = transactionInputDeflater.fragmentTransactionInput(transactionInput);
+                final FragmentedBytes fragmentedTransactionInputBytes = _transactionInputDeflater.fragmentTransactionInput(transactionInput);
                 headBytesBuilder.appendBytes(fragmentedTransactionInputBytes.headBytes, Endian.BIG);
                 tailBytesBuilder.appendBytes(fragmentedTransactionInputBytes.tailBytes, Endian.BIG);
             }
             else {
-                tailBytesBuilder.appendBytes(transactionInputDeflater.toBytes(transactionInput), Endian.BIG);
+                tailBytesBuilder.appendBytes(_transactionInputDeflater.toBytes(transactionInput), Endian.BIG);
             }
             transactionInputIndex += 1;
         }
 
-        final TransactionOutputDeflater transactionOutputDeflater = new TransactionOutputDeflater();
         final List<TransactionOutput> transactionOutputs = transaction.getTransactionOutputs();
         tailBytesBuilder.appendBytes(ByteUtil.variableLengthIntegerToBytes(transactionOutputs.getCount()), Endian.BIG);
         for (final TransactionOutput transactionOutput : transactionOutputs) {
-            tailBytesBuilder.appendBytes(transactionOutputDeflater.toBytes(transactionOutput), Endian.BIG);
+            tailBytesBuilder.appendBytes(_transactionOutputDeflater.toBytes(transactionOutput), Endian.BIG);
         }
 
         tailBytesBuilder.appendBytes(lockTimeBytes, Endian.LITTLE);
     }
 
+    protected void _writeBytes(final Transaction transaction, final ByteArrayWriter byteArrayWriter) {
+        byteArrayWriter.writeInteger(transaction.getVersion());
+
+        final List<TransactionInput> transactionInputs = transaction.getTransactionInputs();
+        byteArrayWriter.writeVariableSizedInteger(transactionInputs.getCount());
+        for (final TransactionInput transactionInput : transactionInputs) {
+            _transactionInputDeflater.writeBytes(transactionInput, byteArrayWriter);
+        }
+
+        final List<TransactionOutput> transactionOutputs = transaction.getTransactionOutputs();
+        byteArrayWriter.writeVariableSizedInteger(transactionOutputs.getCount());
+        for (final TransactionOutput transactionOutput : transactionOutputs) {
+            _transactionOutputDeflater.writeBytes(transactionOutput, byteArrayWriter);
+        }
+
+        final LockTime lockTime = transaction.getLockTime();
+        byteArrayWriter.writeInteger(lockTime.getValue());
+    }
+
+    /**
+     * Serializes the Transaction into a single array sized via TransactionDeflater::getByteCount.
+     */
     protected byte[] _toBytes(final Transaction transaction) {
-        final ByteArrayBuilder byteArrayBuilder = new ByteArrayBuilder();
-        _toFragmentedBytes(transaction, byteArrayBuilder, byteArrayBuilder);
-        return byteArrayBuilder.build();
+        final ByteArrayWriter byteArrayWriter = new ByteArrayWriter(this.getByteCount(transaction));
+        _writeBytes(transaction, byteArrayWriter);
+        return byteArrayWriter.unwrap();
     }
 
     public ByteArrayBuilder toByteArrayBuilder(final Transaction transaction) {
@@ -67,31 +91,34 @@ public class TransactionDeflater {
         return MutableByteArray.wrap(_toBytes(transaction));
     }
 
+    /**
+     * Writes the serialized Transaction into byteArrayWriter, which must have at least TransactionDeflater::getByteCount bytes remaining.
+     */
+    public void writeBytes(final Transaction transaction, final ByteArrayWriter byteArrayWriter) {
+        _writeBytes(transaction, byteArrayWriter);
+    }
+
     public Integer getByteCount(final Transaction transaction) {
         final Integer versionByteCount = 4;
 
         final Integer transactionInputsByteCount;
         {
-            final TransactionInputDeflater transactionInputDeflater = new TransactionInputDeflater();
-
             Integer byteCount = 0;
             final List<TransactionInput> transactionInputs = transaction.getTransactionInputs();
-            byteCount += ByteUtil.variableLengthIntegerToBytes(transactionInputs.getCount()).length;
+            byteCount += ByteUtil.getVariableLengthIntegerByteCount(transactionInputs.getCount());
             for (final TransactionInput transactionInput : transactionInputs) {
-                byteCount += transactionInputDeflater.getByteCount(transactionInput);
+                byteCount += _transactionInputDeflater.getByteCount(transactionInput);
             }
             transactionInputsByteCount = byteCount;
         }
 
         final Integer transactionOutputsByteCount;
         {
-            final TransactionOutputDeflater transactionOutputDeflater = new TransactionOutputDeflater();
-
             Integer byteCount = 0;
             final List<TransactionOutput> transactionOutputs = transaction.getTransactionOutputs();
-            byteCount += ByteUtil.variableLengthIntegerToBytes(transactionOutputs.getCount()).length;
+            byteCount += ByteUtil.getVariableLengthIntegerByteCount(transactionOutputs.getCount());
             for (final TransactionOutput transactionOutput : transactionOutputs) {
-                byteCount += transactionOutputDeflater.getByteCount(transactionOutput);
+                byteCount += _transactionOutputDeflater.getByteCount(transactionOutput);
             }
             transactionOutputsByteCount = byteCount;
         }
@@ -5,6 +5,7 @@ import com.softwareverde.bitcoin.transaction.locktime.SequenceNumber;
 import com.softwareverde.bitcoin.transaction.script.Script;
 import com.softwareverde.bitcoin.transaction.script.unlocking.UnlockingScript;
 import com.softwareverde.bitcoin.util.ByteUtil;
+import com.softwareverde.bitcoin.util.bytearray.ByteArrayWriter;
 import com.softwareverde.constable.bytearray.ByteArray;
 import com.softwareverde.constable.bytearray.MutableByteArray;
 import com.softwareverde.cryptography.hash.sha256.Sha256Hash;
@@ -32,10 +33,22 @@ public class TransactionInputDeflater {
         tailBytes.appendBytes(sequenceBytes, Endian.LITTLE);
     }
 
+    protected void _writeBytes(final TransactionInput transactionInput, final ByteArrayWriter byteArrayWriter) {
+        final Sha256Hash previousOutputTransactionHash = transactionInput.getPreviousOutputTransactionHash();
+        final ByteArray unlockingScriptBytes = transactionInput.getUnlockingScript().getBytes();
+        final SequenceNumber sequenceNumber = transactionInput.getSequenceNumber();
+
+        byteArrayWriter.writeBytes(previousOutputTransactionHash, Endian.LITTLE);
+        byteArrayWriter.writeInteger(transactionInput.getPreviousOutputIndex());
+        byteArrayWriter.writeVariableSizedInteger(unlockingScriptBytes.getByteCount());
+        byteArrayWriter.writeBytes(unlockingScriptBytes, Endian.BIG);
+        byteArrayWriter.writeInteger(sequenceNumber.getValue());
+    }
+
     protected ByteArray _toBytes(final TransactionInput transactionInput) {
-        final ByteArrayBuilder byteArrayBuilder = new ByteArrayBuilder();
-        _toFragmentedBytes(transactionInput, byteArrayBuilder, byteArrayBuilder);
-        return MutableByteArray.wrap(byteArrayBuilder.build());
+        final ByteArrayWriter byteArrayWriter = new ByteArrayWriter(this.getByteCount(transactionInput));
+        _writeBytes(transactionInput, byteArrayWriter);
+        return MutableByteArray.wrap(byteArrayWriter.unwrap());
     }
 
     public Integer getByteCount(final TransactionInput transactionInput) {
@@ -48,7 +61,7 @@ public class TransactionInputDeflater {
             final Script unlockingScript = transactionInput.getUnlockingScript();
 
             Integer byteCount = 0;
-            byteCount += ByteUtil.variableLengthIntegerToBytes(unlockingScript.getByteCount()).length;
+            byteCount += ByteUtil.getVariableLengthIntegerByteCount(unlockingScript.getByteCount());
             byteCount += unlockingScript.getByteCount();
             scriptByteCount = byteCount;
         }
@@ -62,6 +75,13 @@ public class TransactionInputDeflater {
         return _toBytes(transactionInput);
     }
 
+    /**
+     * Writes the serialized TransactionInput into byteArrayWriter, which must have at least TransactionInputDeflater::getByteCount bytes remaining.
+     */
+    public void writeBytes(final TransactionInput transactionInput, final ByteArrayWriter byteArrayWriter) {
+        _writeBytes(transactionInput, byteArrayWriter);
+    }
+
     public FragmentedBytes fragmentTransactionInput(final TransactionInput transactionInput) {
         final ByteArrayBuilder headBytesBuilder = new ByteArrayBuilder();
         final ByteArrayBuilder tailBytesBuilder = new ByteArrayBuilder();
@@ -6,25 +6,25 @@ import com.softwareverde.bitcoin.transaction.script.ScriptPatternMatcher;
 import com.softwareverde.bitcoin.transaction.script.ScriptType;
 import com.softwareverde.bitcoin.transaction.script.locking.LockingScript;
 import com.softwareverde.bitcoin.util.ByteUtil;
+import com.softwareverde.bitcoin.util.bytearray.ByteArrayWriter;
 import com.softwareverde.constable.bytearray.ByteArray;
 import com.softwareverde.constable.bytearray.MutableByteArray;
 import com.softwareverde.json.Json;
-import com.softwareverde.util.bytearray.ByteArrayBuilder;
 import com.softwareverde.util.bytearray.Endian;
 
 public class TransactionOutputDeflater {
-    protected ByteArray _toBytes(final TransactionOutput transactionOutput) {
-        final byte[] valueBytes = new byte[8];
-        ByteUtil.setBytes(valueBytes, ByteUtil.longToBytes(transactionOutput.getAmount()));
-
+    protected void _writeBytes(final TransactionOutput transactionOutput, final ByteArrayWriter byteArrayWriter) {
         final ByteArray lockingScriptBytes = transactionOutput.getLockingScript().getBytes();
 
-        final ByteArrayBuilder byteArrayBuilder = new ByteArrayBuilder();
-        byteArrayBuilder.appendBytes(valueBytes, Endian.LITTLE);
-        byteArrayBuilder.appendBytes(ByteUtil.variableLengthIntegerToBytes(lockingScriptBytes.getByteCount()), Endian.BIG);
-        byteArrayBuilder.appendBytes(lockingScriptBytes, Endian.BIG);
+        byteArrayWriter.writeLong(transactionOutput.getAmount());
+        byteArrayWriter.writeVariableSizedInteger(lockingScriptBytes.getByteCount());
+        byteArrayWriter.writeBytes(lockingScriptBytes, Endian.BIG);
+    }
 
-        return MutableByteArray.wrap(byteArrayBuilder.build());
+    protected ByteArray _toBytes(final TransactionOutput transactionOutput) {
+        final ByteArrayWriter byteArrayWriter = new ByteArrayWriter(this.getByteCount(transactionOutput));
+        _writeBytes(transactionOutput, byteArrayWriter);
+        return MutableByteArray.wrap(byteArrayWriter.unwrap());
     }
 
     public Integer getByteCount(final TransactionOutput transactionOutput) {
@@ -34,7 +34,7 @@ public class TransactionOutputDeflater {
         final Integer scriptByteCount;
         {
             Integer byteCount = 0;
-            byteCount += ByteUtil.variableLengthIntegerToBytes(lockingScript.getByteCount()).length;
+            byteCount += ByteUtil.getVariableLengthIntegerByteCount(lockingScript.getByteCount());
             byteCount += lockingScript.getByteCount();
             scriptByteCount = byteCount;
         }
@@ -46,6 +46,13 @@ public class TransactionOutputDeflater {
         return _toBytes(transactionOutput);
     }
 
+    /**
+     * Writes the serialized TransactionOutput into byteArrayWriter, which must have at least TransactionOutputDeflater::getByteCount bytes remaining.
+     */
+    public void writeBytes(final TransactionOutput transactionOutput, final ByteArrayWriter byteArrayWriter) {
+        _writeBytes(transactionOutput, byteArrayWriter);
+    }
+
     public Json toJson(final TransactionOutput transactionOutput) {
         final ScriptPatternMatcher scriptPatternMatcher = new ScriptPatternMatcher();
         final LockingScript lockingScript = transactionOutput.getLockingScript();
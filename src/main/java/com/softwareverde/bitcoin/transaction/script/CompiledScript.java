@@ -0,0 +1,220 @@
+package com.softwareverde.bitcoin.transaction.script;
+
+import com.softwareverde.bitcoin.transaction.script.opcode.Opcode;
+import com.softwareverde.bitcoin.transaction.script.opcode.Operation;
+import com.softwareverde.bitcoin.util.ByteUtil;
+import com.softwareverde.constable.Const;
+import com.softwareverde.constable.bytearray.ByteArray;
+import com.softwareverde.constable.bytearray.MutableByteArray;
+import com.softwareverde.constable.list.List;
+
+/**
+ * CompiledScript is the pre-parsed form of a Script's bytes.
+ *  The Script is parsed exactly once, and the resulting Operations are retained alongside a flat array of opcode bytes,
+ *  the byte-offset of each Operation within the original bytes, and the location of each Operation's push-data (if any).
+ *  Properties that are otherwise derived by iterating the Operations (i.e. validity, push-only, and code-separators) are
+ *  computed once during compilation so that the ScriptRunner and TransactionSigner may query them without re-parsing.
+ *  Instances are immutable and may be shared across threads.
+ */
+public class CompiledScript implements Const {
+    protected static final int NO_PUSH_DATA = -1;
+
+    protected final ByteArray _bytes;
+    protected final List<Operation> _operations;
+    protected final byte[] _opcodeBytes;
+    protected final int[] _operationByteOffsets; // NOTE: Contains operationCount + 1 elements; the last element is the Script's byte count.
+    protected final int[] _pushDataByteOffsets;
+    protected final int[] _pushDataByteCounts;
+    protected final boolean _isValid;
+    protected final boolean _containsNonPushOperations;
+    protected final boolean _containsCodeSeparators;
+    protected final boolean _isSegregatedWitnessProgram;
+
+    protected static boolean _isSegregatedWitnessProgram(final List<Operation> operations, final ByteArray bytes, final int[] pushDataByteOffsets, final int[] pushDataByteCounts) {
+        if (operations.getCount() != 1) { return false; }
+
+        final Operation operation = operations.get(0);
+        if (operation.getType() != Operation.Type.OP_PUSH) { return false; }
+
+        final int pushDataByteOffset = pushDataByteOffsets[0];
+        final int valueByteCount = pushDataByteCounts[0];
+        if (pushDataByteOffset == NO_PUSH_DATA) { return false; } // Literal pushes are never a segwit program...
+
+        // NOTE: This logic must remain consistent with ScriptPatternMatcher::matchesSegregatedWitnessProgram.
+        if ( (valueByteCount < 4 || valueByteCount > 42) ) { return false; }
+
+        final byte firstByte = bytes.getByte(pushDataByteOffset);
+        if ( (firstByte != 0x00) && (! (firstByte >= 0x51 && firstByte <= 0x60)) ) { return false; }
+
+        final byte secondByte = bytes.getByte(pushDataByteOffset + 1);
+        final int secondByteIntegerValue = ByteUtil.byteToInteger(secondByte);
+        return ((valueByteCount - 2) == secondByteIntegerValue);
+    }
+
+    protected CompiledScript(final ByteArray bytes, final List<Operation> operations, final int[] operationByteOffsets, final int[] pushDataByteOffsets, final int[] pushDataByteCounts) {
+        _bytes = bytes;
+        _operations = operations;
+        _operationByteOffsets = operationByteOffsets;
+        _pushDataByteOffsets = pushDataByteOffsets;
+        _pushDataByteCounts = pushDataByteCounts;
+
+        if (operations == null) {
+            _opcodeBytes = null;
+            _isValid = false;
+            _containsNonPushOperations = false;
+            _containsCodeSeparators = false;
+            _isSegregatedWitnessProgram = false;
+            return;
+        }
+
+        final int operationCount = operations.getCount();
+        _opcodeBytes = new byte[operationCount];
+
+        boolean isValid = true;
+        boolean containsNonPushOperations = false;
+        boolean containsCodeSeparators = false;
+        for (int i = 0; i < operationCount; ++i) {
+            final Operation operation = operations.get(i);
+            final byte opcodeByte = operation.getOpcodeByte();
+            final Operation.Type operationType = operation.getType();
+
+            _opcodeBytes[i] = opcodeByte;
+
+            if (operationType == Operation.Type.OP_INVALID) {
+                isValid = false;
+            }
+
+            if (operationType != Operation.Type.OP_PUSH) {
+                containsNonPushOperations = true;
+            }
+
+            if (Opcode.CODE_SEPARATOR.matchesByte(opcodeByte)) {
+                containsCodeSeparators = true;
+            }
+        }
+
+        _isValid = isValid;
+        _containsNonPushOperations = containsNonPushOperations;
+        _containsCodeSeparators = containsCodeSeparators;
+        _isSegregatedWitnessProgram = _isSegregatedWitnessProgram(operations, bytes, pushDataByteOffsets, pushDataByteCounts);
+    }
+
+    /**
+     * Returns false if the Script's bytes could not be parsed into Operations.
+     *  When false, CompiledScript::getOperations will return null.
+     */
+    public Boolean isCompiled() {
+        return (_operations != null);
+    }
+
+    public ByteArray getBytes() {
+        return _bytes;
+    }
+
+    public int getByteCount() {
+        return _bytes.getByteCount();
+    }
+
+    public List<Operation> getOperations() {
+        return _operations;
+    }
+
+    public int getOperationCount() {
+        if (_operations == null) { return 0; }
+        return _operations.getCount();
+    }
+
+    public byte getOpcodeByte(final int operationIndex) {
+        return _opcodeBytes[operationIndex];
+    }
+
+    /**
+     * Returns the index within CompiledScript::getBytes where the Operation at operationIndex begins.
+     *  An operationIndex equal to the number of operations is valid, and returns the Script's byte count.
+     */
+    public int getOperationByteOffset(final int operationIndex) {
+        return _operationByteOffsets[operationIndex];
+    }
+
+    /**
+     * Returns true if the Operation at operationIndex has its pushed value serialized within the Script's bytes.
+     *  Literal pushes (e.g. PUSH_ZERO, PUSH_VALUE, PUSH_NEGATIVE_ONE) do not contain push-data.
+     */
+    public Boolean hasPushData(final int operationIndex) {
+        return (_pushDataByteOffsets[operationIndex] != NO_PUSH_DATA);
+    }
+
+    public int getPushDataByteOffset(final int operationIndex) {
+        return _pushDataByteOffsets[operationIndex];
+    }
+
+    public int getPushDataByteCount(final int operationIndex) {
+        return _pushDataByteCounts[operationIndex];
+    }
+
+    /**
+     * Returns a copy of the push-data for the Operation at operationIndex, or null if the Operation does not contain push-data.
+     */
+    public ByteArray getPushData(final int operationIndex) {
+        final int pushDataByteOffset = _pushDataByteOffsets[operationIndex];
+        if (pushDataByteOffset == NO_PUSH_DATA) { return null; }
+
+        final int pushDataByteCount = _pushDataByteCounts[operationIndex];
+        return MutableByteArray.wrap(_bytes.getBytes(pushDataByteOffset, pushDataByteCount));
+    }
+
+    public Boolean isValid() {
+        return _isValid;
+    }
+
+    public Boolean containsNonPushOperations() {
+        return _containsNonPushOperations;
+    }
+
+    public Boolean containsCodeSeparators() {
+        return _containsCodeSeparators;
+    }
+
+    /**
+     * Returns true if the Script (as an UnlockingScript) matches the segwit-recovery format.
+     *  https://github.com/bitcoincashorg/bitcoincash.org/blob/master/spec/2019-05-15-segwit-recovery.md
+     */
+    public Boolean isSegregatedWitnessProgram() {
+        return _isSegregatedWitnessProgram;
+    }
+
+    /**
+     * Returns the serialized bytes of the Script beginning with the Operation at operationIndex.
+     *  This is equivalent to serializing MutableScript::subScript(operationIndex), without re-parsing or re-serializing each Operation.
+     *  If removeCodeSeparators is true, all CODE_SEPARATOR Operations are omitted from the result (the pre-BCH signing behavior).
+     */
+    public ByteArray getSubscriptBytes(final int operationIndex, final Boolean removeCodeSeparators) {
+        final int byteOffset = _operationByteOffsets[operationIndex];
+        final int byteCount = _bytes.getByteCount();
+
+        if ( (! removeCodeSeparators) || (! _containsCodeSeparators) ) {
+            if (byteOffset == 0) { return _bytes; }
+            return MutableByteArray.wrap(_bytes.getBytes(byteOffset, (byteCount - byteOffset)));
+        }
+
+        int codeSeparatorCount = 0;
+        final int operationCount = _opcodeBytes.length;
+        for (int i = operationIndex; i < operationCount; ++i) {
+            if (Opcode.CODE_SEPARATOR.matchesByte(_opcodeBytes[i])) {
+                codeSeparatorCount += 1;
+            }
+        }
+
+        final MutableByteArray subscriptBytes = new MutableByteArray(byteCount - byteOffset - codeSeparatorCount);
+        int writeIndex = 0;
+        for (int i = operationIndex; i < operationCount; ++i) {
+            if (Opcode.CODE_SEPARATOR.matchesByte(_opcodeBytes[i])) { continue; }
+
+            final int operationByteOffset = _operationByteOffsets[i];
+            final int operationByteCount = (_operationByteOffsets[i + 1] - operationByteOffset);
+            subscriptBytes.setBytes(writeIndex, _bytes.getBytes(operationByteOffset, operationByteCount));
+            writeIndex += operationByteCount;
+        }
+        return subscriptBytes;
+    }
+}
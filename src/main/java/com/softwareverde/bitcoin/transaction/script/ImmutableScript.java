@@ -1,7 +1,6 @@
 package com.softwareverde.bitcoin.transaction.script;
 
 import com.softwareverde.bitcoin.transaction.script.opcode.Operation;
-import com.softwareverde.bitcoin.transaction.script.opcode.PushOperation;
 import com.softwareverde.constable.Const;
 import com.softwareverde.constable.bytearray.ByteArray;
 import com.softwareverde.constable.bytearray.MutableByteArray;
@@ -15,14 +14,18 @@ import com.softwareverde.util.Util;
 public class ImmutableScript implements Script, Const {
     protected static final ScriptInflater SCRIPT_INFLATER = new ScriptInflater();
 
-    protected List<Operation> _cachedOperations;
     protected final ByteArray _bytes;
+    protected volatile CompiledScript _compiledScript;
 
-    protected void _requireCachedOperations() {
-        if (_cachedOperations == null) {
-            final ScriptInflater scriptInflater = ImmutableScript.SCRIPT_INFLATER;
-            _cachedOperations = scriptInflater.getOperationList(_bytes);
-        }
+    protected CompiledScript _requireCompiledScript() {
+        final CompiledScript cachedCompiledScript = _compiledScript;
+        if (cachedCompiledScript != null) { return cachedCompiledScript; }
+
+        // NOTE: Concurrent compilations are benign; the resulting CompiledScripts are equivalent.
+        final ScriptInflater scriptInflater = ImmutableScript.SCRIPT_INFLATER;
+        final CompiledScript compiledScript = scriptInflater._compile(_bytes);
+        _compiledScript = compiledScript;
+        return compiledScript;
     }
 
     protected ImmutableScript() {
@@ -39,15 +42,8 @@ public class ImmutableScript implements Script, Const {
 
     @Override
     public Boolean isValid() {
-        _requireCachedOperations();
-
-        for (final Operation operation : _cachedOperations) {
-            if (operation.getType() == Operation.Type.OP_INVALID) {
-                return false;
-            }
-        }
-
-        return true;
+        final CompiledScript compiledScript = _requireCompiledScript();
+        return compiledScript.isValid();
     }
 
     @Override
@@ -60,9 +56,16 @@ public class ImmutableScript implements Script, Const {
 
     @Override
     public List<Operation> getOperations() {
-        _requireCachedOperations();
+        final CompiledScript compiledScript = _requireCompiledScript();
+        return compiledScript.getOperations();
+    }
 
-        return _cachedOperations;
+    /**
+     * Returns the pre-parsed form of this Script.
+     *  The CompiledScript is created once and cached for the lifetime of this ImmutableScript.
+     */
+    public CompiledScript getCompiledScript() {
+        return _requireCompiledScript();
     }
 
     @Override
@@ -77,15 +80,8 @@ public class ImmutableScript implements Script, Const {
 
     @Override
     public Boolean containsNonPushOperations() {
-        _requireCachedOperations();
-
-        for (final Operation operation : _cachedOperations) {
-            if (operation.getType() != PushOperation.TYPE) {
-                return true;
-            }
-        }
-
-        return false;
+        final CompiledScript compiledScript = _requireCompiledScript();
+        return compiledScript.containsNonPushOperations();
     }
 
     @Override
@@ -1,7 +1,10 @@
 package com.softwareverde.bitcoin.transaction.script;
 
+import com.softwareverde.bitcoin.transaction.script.opcode.Opcode;
 import com.softwareverde.bitcoin.transaction.script.opcode.Operation;
 import com.softwareverde.bitcoin.transaction.script.opcode.OperationInflater;
+import com.softwareverde.bitcoin.transaction.script.opcode.PushOperation;
+import com.softwareverde.bitcoin.util.ByteUtil;
 import com.softwareverde.constable.bytearray.ByteArray;
 import com.softwareverde.constable.bytearray.MutableByteArray;
 import com.softwareverde.constable.list.List;
@@ -10,6 +13,8 @@ import com.softwareverde.logging.Logger;
 import com.softwareverde.util.HexUtil;
 import com.softwareverde.util.bytearray.ByteArrayReader;
 
+import java.util.Arrays;
+
 public class ScriptInflater {
     protected MutableList<Operation> _getOperationList(final ByteArray bytes) {
         final OperationInflater operationInflater = new OperationInflater();
@@ -39,10 +44,87 @@ public class ScriptInflater {
         return mutableScript;
     }
 
+    protected CompiledScript _compile(final ByteArray bytes) {
+        final OperationInflater operationInflater = new OperationInflater();
+        final MutableList<Operation> operations = new MutableList<Operation>();
+
+        final int byteCount = bytes.getByteCount();
+        int capacity = Math.max(1, Math.min(byteCount, 16)); // NOTE: Each Operation consumes at least one byte, so there may never be more than byteCount Operations.
+        int[] operationByteOffsets = new int[capacity + 1];
+        int[] pushDataByteOffsets = new int[capacity];
+        int[] pushDataByteCounts = new int[capacity];
+
+        final ByteArrayReader byteArrayReader = new ByteArrayReader(bytes);
+        while (byteArrayReader.hasBytes()) {
+            final int operationIndex = operations.getCount();
+            final int scriptPosition = byteArrayReader.getPosition();
+            final Operation operation = operationInflater.fromBytes(byteArrayReader);
+            if (operation == null) {
+                byteArrayReader.setPosition(scriptPosition);
+                Logger.debug("NOTICE: Unable to inflate opcode. 0x"+ HexUtil.toHexString(new byte[] { byteArrayReader.peakByte() }));
+                return new CompiledScript(bytes, null, null, null, null);
+            }
+
+            if (operationIndex >= capacity) {
+                capacity = Math.min(byteCount, (capacity * 2));
+                operationByteOffsets = Arrays.copyOf(operationByteOffsets, (capacity + 1));
+                pushDataByteOffsets = Arrays.copyOf(pushDataByteOffsets, capacity);
+                pushDataByteCounts = Arrays.copyOf(pushDataByteCounts, capacity);
+            }
+
+            operationByteOffsets[operationIndex] = scriptPosition;
+
+            final byte opcodeByte = operation.getOpcodeByte();
+            final boolean hasSerializedPushData = ( (operation.getType() == Operation.Type.OP_PUSH) && (! Opcode.PUSH_ZERO.matchesByte(opcodeByte)) && (ByteUtil.byteToInteger(opcodeByte) <= Opcode.PUSH_DATA_INTEGER.getMaxValue()) );
+            if (hasSerializedPushData) {
+                final PushOperation pushOperation = (PushOperation) operation;
+                final int pushDataByteCount = pushOperation.getValue().getByteCount();
+                pushDataByteOffsets[operationIndex] = (byteArrayReader.getPosition() - pushDataByteCount);
+                pushDataByteCounts[operationIndex] = pushDataByteCount;
+            }
+            else {
+                pushDataByteOffsets[operationIndex] = CompiledScript.NO_PUSH_DATA;
+                pushDataByteCounts[operationIndex] = 0;
+            }
+
+            operations.add(operation);
+        }
+
+        final int operationCount = operations.getCount();
+        if (operationCount != capacity) {
+            operationByteOffsets = Arrays.copyOf(operationByteOffsets, (operationCount + 1));
+            pushDataByteOffsets = Arrays.copyOf(pushDataByteOffsets, operationCount);
+            pushDataByteCounts = Arrays.copyOf(pushDataByteCounts, operationCount);
+        }
+        operationByteOffsets[operationCount] = byteCount;
+
+        return new CompiledScript(bytes, operations, operationByteOffsets, pushDataByteOffsets, pushDataByteCounts);
+    }
+
     public MutableList<Operation> getOperationList(final ByteArray byteArray) {
         return _getOperationList(byteArray);
     }
 
+    /**
+     * Parses the provided bytes into a CompiledScript.
+     *  If the bytes cannot be parsed, the returned CompiledScript's ::isCompiled will be false.
+     */
+    public CompiledScript compile(final ByteArray byteArray) {
+        return _compile(byteArray.asConst());
+    }
+
+    /**
+     * Returns the CompiledScript for the provided Script.
+     *  ImmutableScripts cache their CompiledScript, so repeated invocations for the same ImmutableScript do not re-parse the Script.
+     */
+    public CompiledScript compile(final Script script) {
+        if (script instanceof ImmutableScript) {
+            return ((ImmutableScript) script).getCompiledScript();
+        }
+
+        return _compile(script.getBytes().asConst());
+    }
+
     public Script fromBytes(final byte[] bytes) {
         final ByteArray byteArray = MutableByteArray.wrap(bytes);
         return _fromByteArray(byteArray);
@@ -7,6 +7,7 @@ import com.softwareverde.bitcoin.transaction.script.ScriptType;
 import com.softwareverde.constable.bytearray.ByteArray;
 
 public class ImmutableLockingScript extends ImmutableScript implements LockingScript {
+    protected volatile ScriptType _cachedScriptType;
 
     protected ImmutableLockingScript() {
         super();
@@ -22,8 +23,13 @@ public class ImmutableLockingScript extends ImmutableScript implements LockingSc
 
     @Override
     public ScriptType getScriptType() {
+        final ScriptType cachedScriptType = _cachedScriptType;
+        if (cachedScriptType != null) { return cachedScriptType; }
+
         final ScriptPatternMatcher scriptPatternMatcher = new ScriptPatternMatcher();
-        return scriptPatternMatcher.getScriptType(this);
+        final ScriptType scriptType = scriptPatternMatcher.getScriptType(this);
+        _cachedScriptType = scriptType;
+        return scriptType;
     }
 
     @Override
@@ -15,6 +15,7 @@ import com.softwareverde.bitcoin.transaction.script.Script;
 import com.softwareverde.bitcoin.transaction.script.runner.ControlState;
 import com.softwareverde.bitcoin.transaction.script.runner.context.MutableTransactionContext;
 import com.softwareverde.bitcoin.transaction.script.runner.context.TransactionContext;
+import com.softwareverde.bitcoin.transaction.script.signature.DeferredSchnorrSignatures;
 import com.softwareverde.bitcoin.transaction.script.signature.ScriptSignature;
 import com.softwareverde.bitcoin.transaction.script.signature.ScriptSignatureContext;
 import com.softwareverde.bitcoin.transaction.script.signature.hashtype.HashType;
@@ -69,7 +70,7 @@ public class CryptographicOperation extends SubTypedOperation {
         super(value, TYPE, opcode);
     }
 
-    protected static Boolean verifySignature(final TransactionContext transactionContext, final PublicKey publicKey, final ScriptSignature scriptSignature, final List<ByteArray> bytesToExcludeFromScript) {
+    protected static SignatureContext createSignatureContext(final TransactionContext transactionContext, final ScriptSignature scriptSignature, final List<ByteArray> bytesToExcludeFromScript) {
         final Transaction transaction = transactionContext.getTransaction();
         final Integer transactionInputIndexBeingSigned = transactionContext.getTransactionInputIndex();
         final TransactionOutput transactionOutputBeingSpent = transactionContext.getTransactionOutput();
@@ -80,16 +81,52 @@ public class CryptographicOperation extends SubTypedOperation {
 
         final Long blockHeight = transactionContext.getBlockHeight();
 
-        final TransactionSigner transactionSigner = new TransactionSigner();
         final SignatureContext signatureContext = new SignatureContext(transaction, hashType, blockHeight);
         signatureContext.setInputIndexBeingSigned(transactionInputIndexBeingSigned);
         signatureContext.setShouldSignInputScript(transactionInputIndexBeingSigned, true, transactionOutputBeingSpent);
         signatureContext.setLastCodeSeparatorIndex(transactionInputIndexBeingSigned, codeSeparatorIndex);
         signatureContext.setCurrentScript(currentScript);
         signatureContext.setBytesToExcludeFromScript(bytesToExcludeFromScript);
+        return signatureContext;
+    }
+
+    protected static Boolean verifySignature(final TransactionContext transactionContext, final PublicKey publicKey, final ScriptSignature scriptSignature, final List<ByteArray> bytesToExcludeFromScript) {
+        final TransactionSigner transactionSigner = new TransactionSigner();
+        final SignatureContext signatureContext = CryptographicOperation.createSignatureContext(transactionContext, scriptSignature, bytesToExcludeFromScript);
         return transactionSigner.isSignatureValid(signatureContext, publicKey, scriptSignature);
     }
 
+    /**
+     * Returns true if the Schnorr signature should be queued within the context's DeferredSchnorrSignatures instead of being verified immediately.
+     *  Deferral is only permitted when an invalid non-empty signature would immediately fail the script (i.e. NULLFAIL or a *VERIFY opcode),
+     *  so assuming the signature is valid cannot change the outcome of a script that is later found to contain an invalid signature.
+     */
+    protected static Boolean shouldDeferSignatureVerification(final MutableTransactionContext transactionContext, final Signature signature, final Boolean invalidSignatureFailsImmediately) {
+        if (! invalidSignatureFailsImmediately) { return false; }
+        if (transactionContext.getDeferredSchnorrSignatures() == null) { return false; }
+        if (signature == null) { return false; }
+        return (signature.getType() == Signature.Type.SCHNORR);
+    }
+
+    /**
+     * Verifies the signature, or queues it for batch verification if CryptographicOperation::shouldDeferSignatureVerification permits.
+     *  Deferred signatures are assumed to be valid.
+     */
+    protected static Boolean verifyOrDeferSignature(final MutableTransactionContext transactionContext, final PublicKey publicKey, final ScriptSignature scriptSignature, final List<ByteArray> bytesToExcludeFromScript, final Boolean invalidSignatureFailsImmediately) {
+        final Signature signature = scriptSignature.getSignature();
+        if (! CryptographicOperation.shouldDeferSignatureVerification(transactionContext, signature, invalidSignatureFailsImmediately)) {
+            return CryptographicOperation.verifySignature(transactionContext, publicKey, scriptSignature, bytesToExcludeFromScript);
+        }
+
+        final TransactionSigner transactionSigner = new TransactionSigner();
+        final SignatureContext signatureContext = CryptographicOperation.createSignatureContext(transactionContext, scriptSignature, bytesToExcludeFromScript);
+        final byte[] bytesForSigning = transactionSigner.getBytesForSigning(signatureContext);
+
+        final DeferredSchnorrSignatures deferredSchnorrSignatures = transactionContext.getDeferredSchnorrSignatures();
+        deferredSchnorrSignatures.add(transactionContext.getTransaction(), transactionContext.getTransactionInputIndex(), signature, publicKey, MutableByteArray.wrap(bytesForSigning));
+        return true;
+    }
+
     protected static Boolean validateStrictSignatureEncoding(final ScriptSignature scriptSignature, final ScriptSignatureContext scriptSignatureContext, final TransactionContext transactionContext) {
         if (scriptSignature == null) { return false; }
         if (scriptSignature.isEmpty()) { return true; }
@@ -191,7 +228,8 @@ public class CryptographicOperation extends SubTypedOperation {
                     if (! publicKeyIsStrictlyEncoded) { return false; }
                 }
 
-                signatureIsValid = CryptographicOperation.verifySignature(transactionContext, publicKey, scriptSignature, bytesToRemoveFromScript);
+                final boolean invalidSignatureFailsImmediately = ( (_opcode == Opcode.CHECK_SIGNATURE_THEN_VERIFY) || (BitcoinConstants.immediatelyFailOnNonEmptyInvalidSignatures() && HF20171113.isEnabled(blockHeight)) );
+                signatureIsValid = CryptographicOperation.verifyOrDeferSignature(transactionContext, publicKey, scriptSignature, bytesToRemoveFromScript, invalidSignatureFailsImmediately);
             }
             else {
                 // NOTE: An invalid scriptSignature is permitted, and just simply fails...
@@ -451,7 +489,7 @@ public class CryptographicOperation extends SubTypedOperation {
                             final Signature.Type signatureType = scriptSignature.getSignatureType();
                             if (signatureType != allowedSignatureType) { return false; }
 
-                            signatureIsValid = CryptographicOperation.verifySignature(transactionContext, publicKey, scriptSignature, bytesToRemoveFromScript);
+                            signatureIsValid = CryptographicOperation.verifyOrDeferSignature(transactionContext, publicKey, scriptSignature, bytesToRemoveFromScript, abortIfAnySignaturesFail);
                         }
                         else {
                             signatureIsValid = false; // NOTE: An invalid scriptSignature is permitted, and just simply fails...
@@ -544,7 +582,13 @@ public class CryptographicOperation extends SubTypedOperation {
 
             final Signature signature = scriptSignature.getSignature();
 
-            if (signature.getType() == Signature.Type.SCHNORR) {
+            final boolean invalidSignatureFailsImmediately = ( (_opcode == Opcode.CHECK_DATA_SIGNATURE_THEN_VERIFY) || BitcoinConstants.immediatelyFailOnNonEmptyInvalidSignatures() );
+            if (CryptographicOperation.shouldDeferSignatureVerification(transactionContext, signature, invalidSignatureFailsImmediately)) {
+                final DeferredSchnorrSignatures deferredSchnorrSignatures = transactionContext.getDeferredSchnorrSignatures();
+                deferredSchnorrSignatures.add(transactionContext.getTransaction(), transactionContext.getTransactionInputIndex(), signature, publicKey, messageHash);
+                signatureIsValid = true;
+            }
+            else if (signature.getType() == Signature.Type.SCHNORR) {
                 signatureIsValid = Schnorr.verifySignature(signature, publicKey, messageHash.unwrap());
             }
             else {
@@ -3,9 +3,9 @@ package com.softwareverde.bitcoin.transaction.script.runner;
 import com.softwareverde.bitcoin.bip.Bip16;
 import com.softwareverde.bitcoin.bip.HF20181115;
 import com.softwareverde.bitcoin.bip.HF20190515;
+import com.softwareverde.bitcoin.transaction.script.CompiledScript;
 import com.softwareverde.bitcoin.transaction.script.ImmutableScript;
-import com.softwareverde.bitcoin.transaction.script.Script;
-import com.softwareverde.bitcoin.transaction.script.ScriptPatternMatcher;
+import com.softwareverde.bitcoin.transaction.script.ScriptInflater;
 import com.softwareverde.bitcoin.transaction.script.ScriptType;
 import com.softwareverde.bitcoin.transaction.script.locking.LockingScript;
 import com.softwareverde.bitcoin.transaction.script.opcode.Operation;
@@ -28,9 +28,21 @@ public class ScriptRunner {
     public static final Integer MAX_SCRIPT_BYTE_COUNT = 10000;
 
     protected static final Boolean BITCOIN_ABC_QUIRK_ENABLED = true;
+    protected static final ScriptInflater SCRIPT_INFLATER = new ScriptInflater();
+    protected static final StandardScriptEvaluator STANDARD_SCRIPT_EVALUATOR = new StandardScriptEvaluator();
+
+    protected Boolean _standardScriptEvaluationIsEnabled = true;
 
     public ScriptRunner() { }
 
+    /**
+     * When enabled, scripts matching a standard template (P2PKH, P2PK, bare multisig, and P2SH-multisig) are validated by the
+     *  StandardScriptEvaluator instead of being interpreted.  Disabling the fast-path is intended for differential testing.
+     */
+    public void setStandardScriptEvaluationIsEnabled(final Boolean standardScriptEvaluationIsEnabled) {
+        _standardScriptEvaluationIsEnabled = standardScriptEvaluationIsEnabled;
+    }
+
     public Boolean runScript(final LockingScript lockingScript, final UnlockingScript unlockingScript, final TransactionContext transactionContext) {
         final MutableTransactionContext mutableContext = new MutableTransactionContext(transactionContext);
 
@@ -39,6 +51,15 @@ public class ScriptRunner {
         if (lockingScript.getByteCount() > MAX_SCRIPT_BYTE_COUNT) { return false; }
         if (unlockingScript.getByteCount() > MAX_SCRIPT_BYTE_COUNT) { return false; }
 
+        // NOTE: ImmutableScripts retain their CompiledScript, so scripts that are evaluated repeatedly are only parsed once.
+        final CompiledScript compiledLockingScript = SCRIPT_INFLATER.compile(lockingScript);
+        final CompiledScript compiledUnlockingScript = SCRIPT_INFLATER.compile(unlockingScript);
+
+        if (_standardScriptEvaluationIsEnabled) {
+            final Boolean standardScriptResult = STANDARD_SCRIPT_EVALUATOR.evaluate(lockingScript, compiledLockingScript, compiledUnlockingScript, mutableContext);
+            if (standardScriptResult != null) { return standardScriptResult; }
+        }
+
         final Stack traditionalStack;
         final Stack payToScriptHashStack;
 
@@ -46,11 +67,11 @@ public class ScriptRunner {
             traditionalStack = new Stack();
             traditionalStack.setMaxItemCount(1000);
             try {
-                final List<Operation> unlockingScriptOperations = unlockingScript.getOperations();
+                final List<Operation> unlockingScriptOperations = compiledUnlockingScript.getOperations();
                 if (unlockingScriptOperations == null) { return false; }
 
                 if (HF20181115.isEnabled(transactionContext.getBlockHeight())) {
-                    final Boolean unlockingScriptContainsNonPushOperations = unlockingScript.containsNonPushOperations();
+                    final Boolean unlockingScriptContainsNonPushOperations = compiledUnlockingScript.containsNonPushOperations();
                     if (unlockingScriptContainsNonPushOperations) { return false; } // Only push operations are allowed in the unlocking script. (BIP 62)
                 }
 
@@ -73,7 +94,7 @@ public class ScriptRunner {
 
                 payToScriptHashStack = new Stack(traditionalStack);
 
-                final List<Operation> lockingScriptOperations = lockingScript.getOperations();
+                final List<Operation> lockingScriptOperations = compiledLockingScript.getOperations();
                 if (lockingScriptOperations == null) { return false; }
 
                 mutableContext.setCurrentScript(lockingScript);
@@ -109,8 +130,7 @@ public class ScriptRunner {
 
             if (BITCOIN_ABC_QUIRK_ENABLED) {
                 // NOTE: Bitcoin ABC's 0.19 behavior does not run P2SH Scripts that match the Segwit format...
-                final ScriptPatternMatcher scriptPatternMatcher = new ScriptPatternMatcher();
-                final Boolean unlockingScriptIsSegregatedWitnessProgram = scriptPatternMatcher.matchesSegregatedWitnessProgram(unlockingScript);
+                final Boolean unlockingScriptIsSegregatedWitnessProgram = compiledUnlockingScript.isSegregatedWitnessProgram();
                 shouldRunPayToScriptHashScript = ( payToScriptHashValidationRulesAreEnabled && scriptIsPayToScriptHash && (! unlockingScriptIsSegregatedWitnessProgram) );
             }
             else {
@@ -118,16 +138,17 @@ public class ScriptRunner {
             }
 
             if (shouldRunPayToScriptHashScript) {
-                final Boolean unlockingScriptContainsNonPushOperations = unlockingScript.containsNonPushOperations();
+                final Boolean unlockingScriptContainsNonPushOperations = compiledUnlockingScript.containsNonPushOperations();
                 if (unlockingScriptContainsNonPushOperations) { return false; }
 
                 try {
                     final Value redeemScriptValue = payToScriptHashStack.pop();
                     if (payToScriptHashStack.didOverflow()) { return false; }
-                    final Script redeemScript = new ImmutableScript(redeemScriptValue);
+                    final ImmutableScript redeemScript = new ImmutableScript(redeemScriptValue);
+                    final CompiledScript compiledRedeemScript = redeemScript.getCompiledScript();
 
                     mutableContext.setCurrentScript(redeemScript);
-                    final List<Operation> redeemScriptOperations = redeemScript.getOperations();
+                    final List<Operation> redeemScriptOperations = compiledRedeemScript.getOperations();
                     if (redeemScriptOperations == null) { return false; }
 
                     for (final Operation operation : redeemScriptOperations) {
@@ -162,8 +183,7 @@ public class ScriptRunner {
             final Stack stack = (shouldRunPayToScriptHashScript ? payToScriptHashStack : traditionalStack);
             if (! stack.isEmpty()) {
                 if (HF20190515.isEnabled(transactionContext.getMedianBlockTime())) {
-                    final ScriptPatternMatcher scriptPatternMatcher = new ScriptPatternMatcher();
-                    final Boolean unlockingScriptIsSegregatedWitnessProgram = scriptPatternMatcher.matchesSegregatedWitnessProgram(unlockingScript);
+                    final Boolean unlockingScriptIsSegregatedWitnessProgram = compiledUnlockingScript.isSegregatedWitnessProgram();
                     if (! (shouldRunPayToScriptHashScript && unlockingScriptIsSegregatedWitnessProgram)) { return false; }
                 }
                 else { return false; }
@@ -0,0 +1,264 @@
+package com.softwareverde.bitcoin.transaction.script.runner;
+
+import com.softwareverde.bitcoin.bip.Bip16;
+import com.softwareverde.bitcoin.bip.HF20181115;
+import com.softwareverde.bitcoin.transaction.script.CompiledScript;
+import com.softwareverde.bitcoin.transaction.script.ImmutableScript;
+import com.softwareverde.bitcoin.transaction.script.locking.LockingScript;
+import com.softwareverde.bitcoin.transaction.script.opcode.CryptographicOperation;
+import com.softwareverde.bitcoin.transaction.script.opcode.Opcode;
+import com.softwareverde.bitcoin.transaction.script.opcode.Operation;
+import com.softwareverde.bitcoin.transaction.script.opcode.PushOperation;
+import com.softwareverde.bitcoin.transaction.script.runner.context.MutableTransactionContext;
+import com.softwareverde.bitcoin.transaction.script.stack.Stack;
+import com.softwareverde.bitcoin.transaction.script.stack.Value;
+import com.softwareverde.bitcoin.util.ByteUtil;
+import com.softwareverde.constable.list.List;
+import com.softwareverde.cryptography.hash.ripemd160.Ripemd160Hash;
+import com.softwareverde.cryptography.util.HashUtil;
+import com.softwareverde.logging.Logger;
+
+/**
+ * StandardScriptEvaluator validates the standard script templates (P2PKH, P2PK, bare multisig, and P2SH-multisig) without
+ *  interpreting each Operation of the LockingScript.  The template's hash comparison is performed directly, and the signature
+ *  check is delegated to the same CryptographicOperation used by the interpreter, so that encoding rules, NULLFAIL, Schnorr
+ *  multisig, and signature-operation counting remain identical to ScriptRunner's interpreted result.
+ *
+ * StandardScriptEvaluator::evaluate returns null if the scripts do not exactly match a supported template, in which case the
+ *  caller must fall back to the interpreter.  Scripts are only matched when their UnlockingScript is push-only and pushes exactly
+ *  the number of values consumed by the template; dirty stacks, disabled opcodes, and segwit-recovery spends always fall back.
+ *  A null result is only ever returned before any signature operation has been executed.
+ */
+public class StandardScriptEvaluator {
+    protected static final int MAX_STACK_ITEM_COUNT = 1000;
+
+    protected static Boolean _isPublicKeyPush(final CompiledScript compiledScript, final int operationIndex) {
+        final byte opcodeByte = compiledScript.getOpcodeByte(operationIndex);
+        return ( (opcodeByte == 0x21) || (opcodeByte == 0x41) ); // Compressed or Decompressed PublicKey...
+    }
+
+    protected static Boolean _isPayToPublicKeyHash(final CompiledScript compiledScript) {
+        if (compiledScript.getOperationCount() != 5) { return false; }
+        if (compiledScript.getByteCount() != 25) { return false; }
+
+        if (! Opcode.COPY_1ST.matchesByte(compiledScript.getOpcodeByte(0))) { return false; }
+        if (! Opcode.SHA_256_THEN_RIPEMD_160.matchesByte(compiledScript.getOpcodeByte(1))) { return false; }
+        if (compiledScript.getOpcodeByte(2) != 0x14) { return false; }
+        if (! Opcode.IS_EQUAL_THEN_VERIFY.matchesByte(compiledScript.getOpcodeByte(3))) { return false; }
+        return Opcode.CHECK_SIGNATURE.matchesByte(compiledScript.getOpcodeByte(4));
+    }
+
+    protected static Boolean _isPayToPublicKey(final CompiledScript compiledScript) {
+        if (compiledScript.getOperationCount() != 2) { return false; }
+
+        if (! _isPublicKeyPush(compiledScript, 0)) { return false; }
+        return Opcode.CHECK_SIGNATURE.matchesByte(compiledScript.getOpcodeByte(1));
+    }
+
+    protected static Boolean _isPayToScriptHash(final CompiledScript compiledScript) {
+        if (compiledScript.getOperationCount() != 3) { return false; }
+        if (compiledScript.getByteCount() != 23) { return false; }
+
+        if (! Opcode.SHA_256_THEN_RIPEMD_160.matchesByte(compiledScript.getOpcodeByte(0))) { return false; }
+        if (compiledScript.getOpcodeByte(1) != 0x14) { return false; }
+        return Opcode.IS_EQUAL.matchesByte(compiledScript.getOpcodeByte(2));
+    }
+
+    /**
+     * Returns the number of signatures required by the multisig script, or null if the script is not a standard multisig script.
+     *  The standard multisig format is: OP_m <PublicKey 1> ... <PublicKey n> OP_n OP_CHECKMULTISIG
+     */
+    protected static Integer _getMultisigRequiredSignatureCount(final CompiledScript compiledScript) {
+        if (! compiledScript.isCompiled()) { return null; }
+
+        final int operationCount = compiledScript.getOperationCount();
+        if (operationCount < 4) { return null; }
+
+        final byte requiredSignatureCountByte = compiledScript.getOpcodeByte(0);
+        final byte publicKeyCountByte = compiledScript.getOpcodeByte(operationCount - 2);
+        if (! Opcode.PUSH_VALUE.matchesByte(requiredSignatureCountByte)) { return null; }
+        if (! Opcode.PUSH_VALUE.matchesByte(publicKeyCountByte)) { return null; }
+        if (! Opcode.CHECK_MULTISIGNATURE.matchesByte(compiledScript.getOpcodeByte(operationCount - 1))) { return null; }
+
+        final int requiredSignatureCount = (ByteUtil.byteToInteger(requiredSignatureCountByte) - 0x50);
+        final int publicKeyCount = (ByteUtil.byteToInteger(publicKeyCountByte) - 0x50);
+        if (publicKeyCount != (operationCount - 3)) { return null; }
+        if (requiredSignatureCount > publicKeyCount) { return null; }
+
+        for (int i = 1; i <= publicKeyCount; ++i) {
+            if (! _isPublicKeyPush(compiledScript, i)) { return null; }
+        }
+
+        return requiredSignatureCount;
+    }
+
+    /**
+     * Applies the push Operations within [beginIndex, endIndex) to the stack, exactly as the interpreter would.
+     *  Returns false if any Operation is not an enabled push Operation, or if the stack overflowed.
+     */
+    protected static Boolean _pushValues(final CompiledScript compiledScript, final int beginIndex, final int endIndex, final Stack stack, final ControlState controlState, final MutableTransactionContext context) throws Operation.ScriptOperationExecutionException {
+        final List<Operation> operations = compiledScript.getOperations();
+        for (int i = beginIndex; i < endIndex; ++i) {
+            final Operation operation = operations.get(i);
+            if (operation.getType() != Operation.Type.OP_PUSH) { return false; }
+            if (operation.failIfPresent()) { return false; }
+
+            final Boolean wasSuccessful = operation.applyTo(stack, controlState, context);
+            if (! wasSuccessful) { return false; }
+        }
+
+        return (! stack.didOverflow());
+    }
+
+    protected static Value _getPushedValue(final CompiledScript compiledScript, final int operationIndex) {
+        final List<Operation> operations = compiledScript.getOperations();
+        final PushOperation pushOperation = (PushOperation) operations.get(operationIndex);
+        return pushOperation.getValue();
+    }
+
+    protected static Boolean _hashMatches(final Value value, final Value expectedHash) {
+        final Ripemd160Hash hash = HashUtil.ripemd160(HashUtil.sha256(value));
+        return ByteUtil.areEqual(hash, expectedHash);
+    }
+
+    /**
+     * Mirrors the interpreter's final stack validation, including the HF20181115 clean-stack rule.
+     */
+    protected static Boolean _validateStack(final Stack stack, final MutableTransactionContext context) {
+        if (stack.didOverflow()) { return false; }
+        if (stack.isEmpty()) { return false; }
+
+        final Value topStackValue = stack.pop();
+        if (! topStackValue.asBoolean()) { return false; }
+
+        if (HF20181115.isEnabled(context.getBlockHeight())) {
+            if (! stack.isEmpty()) { return false; }
+        }
+
+        return true;
+    }
+
+    protected Stack _newStack() {
+        final Stack stack = new Stack();
+        stack.setMaxItemCount(MAX_STACK_ITEM_COUNT);
+        return stack;
+    }
+
+    protected Boolean _evaluatePayToPublicKeyHash(final LockingScript lockingScript, final CompiledScript compiledLockingScript, final CompiledScript compiledUnlockingScript, final MutableTransactionContext context) throws Operation.ScriptOperationExecutionException {
+        if (compiledUnlockingScript.getOperationCount() != 2) { return null; }
+
+        final ControlState controlState = new ControlState();
+        final Stack stack = _newStack();
+        if (! _pushValues(compiledUnlockingScript, 0, 2, stack, controlState, context)) { return null; }
+
+        final Value publicKeyValue = stack.peak();
+        final Value publicKeyHash = _getPushedValue(compiledLockingScript, 2);
+        if (! _hashMatches(publicKeyValue, publicKeyHash)) { return false; }
+
+        context.setCurrentScript(lockingScript);
+        final Boolean wasSuccessful = CryptographicOperation.CHECK_SIGNATURE.applyTo(stack, controlState, context);
+        if (! wasSuccessful) { return false; }
+
+        return _validateStack(stack, context);
+    }
+
+    protected Boolean _evaluatePayToPublicKey(final LockingScript lockingScript, final CompiledScript compiledLockingScript, final CompiledScript compiledUnlockingScript, final MutableTransactionContext context) throws Operation.ScriptOperationExecutionException {
+        if (compiledUnlockingScript.getOperationCount() != 1) { return null; }
+
+        final ControlState controlState = new ControlState();
+        final Stack stack = _newStack();
+        if (! _pushValues(compiledUnlockingScript, 0, 1, stack, controlState, context)) { return null; }
+        if (! _pushValues(compiledLockingScript, 0, 1, stack, controlState, context)) { return null; }
+
+        context.setCurrentScript(lockingScript);
+        final Boolean wasSuccessful = CryptographicOperation.CHECK_SIGNATURE.applyTo(stack, controlState, context);
+        if (! wasSuccessful) { return false; }
+
+        return _validateStack(stack, context);
+    }
+
+    protected Boolean _evaluateMultisig(final CompiledScript compiledScript, final Stack stack, final ControlState controlState, final MutableTransactionContext context) throws Operation.ScriptOperationExecutionException {
+        final int operationCount = compiledScript.getOperationCount();
+        if (! _pushValues(compiledScript, 0, (operationCount - 1), stack, controlState, context)) { return null; }
+
+        final Boolean wasSuccessful = CryptographicOperation.CHECK_MULTISIGNATURE.applyTo(stack, controlState, context);
+        if (! wasSuccessful) { return false; }
+
+        return _validateStack(stack, context);
+    }
+
+    protected Boolean _evaluateBareMultisig(final LockingScript lockingScript, final Integer requiredSignatureCount, final CompiledScript compiledLockingScript, final CompiledScript compiledUnlockingScript, final MutableTransactionContext context) throws Operation.ScriptOperationExecutionException {
+        final int unlockingScriptOperationCount = compiledUnlockingScript.getOperationCount();
+        if (unlockingScriptOperationCount != (requiredSignatureCount + 1)) { return null; } // The signatures, preceded by the checkBits/nullDummy value...
+
+        final ControlState controlState = new ControlState();
+        final Stack stack = _newStack();
+        if (! _pushValues(compiledUnlockingScript, 0, unlockingScriptOperationCount, stack, controlState, context)) { return null; }
+
+        context.setCurrentScript(lockingScript);
+        return _evaluateMultisig(compiledLockingScript, stack, controlState, context);
+    }
+
+    protected Boolean _evaluatePayToScriptHashMultisig(final CompiledScript compiledLockingScript, final CompiledScript compiledUnlockingScript, final MutableTransactionContext context) throws Operation.ScriptOperationExecutionException {
+        if (! Bip16.isEnabled(context.getBlockHeight())) { return null; }
+        if (compiledUnlockingScript.isSegregatedWitnessProgram()) { return null; } // Segwit-recovery spends are subject to the interpreter's exceptions...
+
+        final int unlockingScriptOperationCount = compiledUnlockingScript.getOperationCount();
+        if (unlockingScriptOperationCount < 2) { return null; }
+
+        final ControlState controlState = new ControlState();
+        final Stack stack = _newStack();
+        if (! _pushValues(compiledUnlockingScript, 0, unlockingScriptOperationCount, stack, controlState, context)) { return null; }
+
+        final Value redeemScriptValue = stack.peak();
+        final Value scriptHash = _getPushedValue(compiledLockingScript, 1);
+        if (! _hashMatches(redeemScriptValue, scriptHash)) { return false; }
+
+        final ImmutableScript redeemScript = new ImmutableScript(redeemScriptValue);
+        final CompiledScript compiledRedeemScript = redeemScript.getCompiledScript();
+        final Integer requiredSignatureCount = _getMultisigRequiredSignatureCount(compiledRedeemScript);
+        if (requiredSignatureCount == null) { return null; }
+        if (unlockingScriptOperationCount != (requiredSignatureCount + 2)) { return null; } // The signatures, preceded by the checkBits/nullDummy value, followed by the redeem script...
+
+        stack.pop(); // Remove the redeem script from the stack...
+
+        context.setCurrentScript(redeemScript);
+        return _evaluateMultisig(compiledRedeemScript, stack, controlState, context);
+    }
+
+    public StandardScriptEvaluator() { }
+
+    /**
+     * Returns the result of validating the scripts if they match a standard template, or null if the interpreter must be used instead.
+     *  The caller is responsible for enforcing the script size limits and for ensuring both scripts were successfully compiled.
+     */
+    public Boolean evaluate(final LockingScript lockingScript, final CompiledScript compiledLockingScript, final CompiledScript compiledUnlockingScript, final MutableTransactionContext context) {
+        if ( (! compiledLockingScript.isCompiled()) || (! compiledUnlockingScript.isCompiled()) ) { return null; }
+        if (compiledUnlockingScript.containsNonPushOperations()) { return null; }
+
+        try {
+            if (_isPayToPublicKeyHash(compiledLockingScript)) {
+                return _evaluatePayToPublicKeyHash(lockingScript, compiledLockingScript, compiledUnlockingScript, context);
+            }
+
+            if (_isPayToScriptHash(compiledLockingScript)) {
+                return _evaluatePayToScriptHashMultisig(compiledLockingScript, compiledUnlockingScript, context);
+            }
+
+            if (_isPayToPublicKey(compiledLockingScript)) {
+                return _evaluatePayToPublicKey(lockingScript, compiledLockingScript, compiledUnlockingScript, context);
+            }
+
+            final Integer requiredSignatureCount = _getMultisigRequiredSignatureCount(compiledLockingScript);
+            if (requiredSignatureCount != null) {
+                return _evaluateBareMultisig(lockingScript, requiredSignatureCount, compiledLockingScript, compiledUnlockingScript, context);
+            }
+        }
+        catch (final Exception exception) {
+            Logger.warn(exception);
+            return false;
+        }
+
+        return null;
+    }
+}
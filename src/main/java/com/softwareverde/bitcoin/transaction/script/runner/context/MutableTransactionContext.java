@@ -6,6 +6,7 @@ import com.softwareverde.bitcoin.transaction.Transaction;
 import com.softwareverde.bitcoin.transaction.input.TransactionInput;
 import com.softwareverde.bitcoin.transaction.output.TransactionOutput;
 import com.softwareverde.bitcoin.transaction.script.Script;
+import com.softwareverde.bitcoin.transaction.script.signature.DeferredSchnorrSignatures;
 import com.softwareverde.constable.Const;
 import com.softwareverde.constable.list.List;
 import com.softwareverde.json.Json;
@@ -44,6 +45,7 @@ public class MutableTransactionContext implements TransactionContext, Const {
     protected Integer _currentScriptIndex = 0;
     protected Integer _scriptLastCodeSeparatorIndex = 0;
     protected Integer _signatureOperationCount = 0;
+    protected DeferredSchnorrSignatures _deferredSchnorrSignatures = null;
 
     public MutableTransactionContext() { }
 
@@ -59,6 +61,11 @@ public class MutableTransactionContext implements TransactionContext, Const {
         _currentScript = ConstUtil.asConstOrNull(currentScript);
         _currentScriptIndex = transactionContext.getScriptIndex();
         _scriptLastCodeSeparatorIndex = transactionContext.getScriptLastCodeSeparatorIndex();
+
+        if (transactionContext instanceof MutableTransactionContext) {
+            final MutableTransactionContext mutableTransactionContext = (MutableTransactionContext) transactionContext;
+            _deferredSchnorrSignatures = mutableTransactionContext.getDeferredSchnorrSignatures();
+        }
     }
 
     public void setBlockHeight(final Long blockHeight) {
@@ -106,6 +113,19 @@ public class MutableTransactionContext implements TransactionContext, Const {
         _signatureOperationCount += operationCount;
     }
 
+    /**
+     * When set, Schnorr signatures that are eligible for deferral are not verified during script execution;
+     *  instead they are assumed valid and appended to deferredSchnorrSignatures, which must then be verified by the caller.
+     *  This mode is only intended for full-block validation.
+     */
+    public void setDeferredSchnorrSignatures(final DeferredSchnorrSignatures deferredSchnorrSignatures) {
+        _deferredSchnorrSignatures = deferredSchnorrSignatures;
+    }
+
+    public DeferredSchnorrSignatures getDeferredSchnorrSignatures() {
+        return _deferredSchnorrSignatures;
+    }
+
     @Override
     public Long getBlockHeight() {
         return _blockHeight;
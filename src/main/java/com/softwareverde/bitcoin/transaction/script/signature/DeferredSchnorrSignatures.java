@@ -0,0 +1,81 @@
+package com.softwareverde.bitcoin.transaction.script.signature;
+
+import com.softwareverde.bitcoin.secp256k1.SchnorrBatchVerifier;
+import com.softwareverde.bitcoin.transaction.Transaction;
+import com.softwareverde.constable.bytearray.ByteArray;
+import com.softwareverde.constable.list.List;
+import com.softwareverde.constable.list.immutable.ImmutableListBuilder;
+import com.softwareverde.constable.list.mutable.MutableList;
+import com.softwareverde.cryptography.secp256k1.key.PublicKey;
+import com.softwareverde.cryptography.secp256k1.signature.Signature;
+
+/**
+ * DeferredSchnorrSignatures collects the Schnorr signatures encountered during script execution so they may be batch-verified later.
+ *  While deferred, a Schnorr signature is assumed to be valid by the script; this is only safe when an invalid non-empty signature
+ *  would have immediately failed the script (i.e. NULLFAIL or a *VERIFY opcode), which CryptographicOperation enforces before deferring.
+ *  Each signature is tagged with the Transaction and input index that produced it so the failing input can be reported.
+ *  Instances are not thread-safe; each validation thread should use its own instance.
+ */
+public class DeferredSchnorrSignatures {
+    public static class InvalidSignature {
+        public final Transaction transaction;
+        public final Integer transactionInputIndex;
+
+        public InvalidSignature(final Transaction transaction, final Integer transactionInputIndex) {
+            this.transaction = transaction;
+            this.transactionInputIndex = transactionInputIndex;
+        }
+    }
+
+    protected final SchnorrBatchVerifier _batchVerifier;
+    protected final MutableList<Transaction> _transactions = new MutableList<Transaction>();
+    protected final MutableList<Integer> _transactionInputIndexes = new MutableList<Integer>();
+
+    public DeferredSchnorrSignatures() {
+        _batchVerifier = new SchnorrBatchVerifier();
+    }
+
+    public DeferredSchnorrSignatures(final Integer batchSize) {
+        _batchVerifier = new SchnorrBatchVerifier(batchSize);
+    }
+
+    public void add(final Transaction transaction, final Integer transactionInputIndex, final Signature signature, final PublicKey publicKey, final ByteArray message) {
+        _transactions.add(transaction);
+        _transactionInputIndexes.add(transactionInputIndex);
+        _batchVerifier.add(signature, publicKey, message);
+    }
+
+    public Integer getCount() {
+        return _transactions.getCount();
+    }
+
+    /**
+     * Verifies all deferred signatures and returns the inputs whose signatures were invalid.
+     *  The deferred signatures are cleared once verified.
+     */
+    public List<InvalidSignature> verifySignatures() {
+        final List<Integer> invalidSignatureIndexes = _batchVerifier.getInvalidSignatureIndexes();
+
+        final ImmutableListBuilder<InvalidSignature> invalidSignatures = new ImmutableListBuilder<InvalidSignature>(invalidSignatureIndexes.getCount());
+        for (final Integer index : invalidSignatureIndexes) {
+            final Transaction transaction = _transactions.get(index);
+            final Integer transactionInputIndex = _transactionInputIndexes.get(index);
+            invalidSignatures.add(new InvalidSignature(transaction, transactionInputIndex));
+        }
+
+        _transactions.clear();
+        _transactionInputIndexes.clear();
+        _batchVerifier.clear();
+
+        return invalidSignatures.build();
+    }
+
+    /**
+     * Discards all deferred signatures without verifying them (e.g. when validation is aborted).
+     */
+    public void clear() {
+        _transactions.clear();
+        _transactionInputIndexes.clear();
+        _batchVerifier.clear();
+    }
+}
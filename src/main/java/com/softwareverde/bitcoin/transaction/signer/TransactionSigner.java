@@ -10,9 +10,12 @@ import com.softwareverde.bitcoin.transaction.locktime.LockTime;
 import com.softwareverde.bitcoin.transaction.locktime.SequenceNumber;
 import com.softwareverde.bitcoin.transaction.output.MutableTransactionOutput;
 import com.softwareverde.bitcoin.transaction.output.TransactionOutput;
+import com.softwareverde.bitcoin.transaction.script.CompiledScript;
+import com.softwareverde.bitcoin.transaction.script.ImmutableScript;
 import com.softwareverde.bitcoin.transaction.script.MutableScript;
 import com.softwareverde.bitcoin.transaction.script.Script;
 import com.softwareverde.bitcoin.transaction.script.ScriptBuilder;
+import com.softwareverde.bitcoin.transaction.script.ScriptInflater;
 import com.softwareverde.bitcoin.transaction.script.locking.LockingScript;
 import com.softwareverde.bitcoin.transaction.script.opcode.Opcode;
 import com.softwareverde.bitcoin.transaction.script.signature.ScriptSignature;
@@ -20,6 +23,7 @@ import com.softwareverde.bitcoin.transaction.script.signature.hashtype.HashType;
 import com.softwareverde.bitcoin.transaction.script.signature.hashtype.Mode;
 import com.softwareverde.bitcoin.transaction.script.unlocking.UnlockingScript;
 import com.softwareverde.bitcoin.util.ByteUtil;
+import com.softwareverde.bitcoin.util.bytearray.ByteArrayWriter;
 import com.softwareverde.constable.bytearray.ByteArray;
 import com.softwareverde.constable.list.List;
 import com.softwareverde.cryptography.hash.sha256.Sha256Hash;
@@ -36,6 +40,30 @@ import com.softwareverde.util.bytearray.Endian;
 public class TransactionSigner {
     private static final byte[] INVALID_SIGNATURE_HASH_SINGLE_VALUE = HexUtil.hexStringToByteArray("0100000000000000000000000000000000000000000000000000000000000000");
 
+    protected static final ScriptInflater SCRIPT_INFLATER = new ScriptInflater();
+
+    /**
+     * Returns the serialized subscript beginning at subscriptIndex, optionally excluding any CODE_SEPARATOR operations.
+     *  The subscript is derived from the CompiledScript's byte offsets, avoiding re-serialization of each Operation.
+     *  If the script could not be parsed, the script is re-serialized via MutableScript to retain the original behavior.
+     */
+    protected ByteArray _getSubscriptBytes(final CompiledScript compiledScript, final Integer subscriptIndex, final Boolean removeCodeSeparators) {
+        if (compiledScript.isCompiled() && (subscriptIndex <= compiledScript.getOperationCount())) {
+            return compiledScript.getSubscriptBytes(subscriptIndex, removeCodeSeparators);
+        }
+
+        final MutableScript mutableScript = new MutableScript(compiledScript.getBytes());
+        if (subscriptIndex > 0) {
+            mutableScript.subScript(subscriptIndex);
+        }
+
+        if (removeCodeSeparators) {
+            mutableScript.removeOperations(Opcode.CODE_SEPARATOR);
+        }
+
+        return mutableScript.getBytes();
+    }
+
     protected byte[] _getBytesForSigning(final SignatureContext signatureContext) {
         if (! signatureContext.shouldUseBitcoinCashSigningAlgorithm()) {
             return _getBitcoinCoreBytesForSigning(signatureContext);
@@ -95,15 +123,10 @@ public class TransactionSigner {
                     final LockingScript outputBeingSpentLockingScript = transactionOutputBeingSpent.getLockingScript();
 
                     { // Handle Code-Separators...
-                        final MutableScript mutableScript = new MutableScript(Util.coalesce(currentScript, outputBeingSpentLockingScript));
-
+                        final CompiledScript compiledScript = SCRIPT_INFLATER.compile(Util.coalesce(currentScript, outputBeingSpentLockingScript));
                         final Integer subscriptIndex = signatureContext.getLastCodeSeparatorIndex(inputIndex);
-                        if (subscriptIndex > 0) {
-                            mutableScript.subScript(subscriptIndex);
-                        }
-
-                        mutableScript.removeOperations(Opcode.CODE_SEPARATOR);
-                        unlockingScriptForSigning = mutableScript;
+                        final ByteArray subscriptBytes = _getSubscriptBytes(compiledScript, subscriptIndex, true);
+                        unlockingScriptForSigning = new ImmutableScript(subscriptBytes);
                     }
                 }
                 else {
@@ -160,10 +183,11 @@ public class TransactionSigner {
             mutableTransaction.addTransactionOutput(mutableTransactionOutput);
         }
 
-        final ByteArrayBuilder byteArrayBuilder = transactionDeflater.toByteArrayBuilder(mutableTransaction);
-        byteArrayBuilder.appendBytes(ByteUtil.integerToBytes(ByteUtil.byteToInteger(hashType.toByte())), Endian.LITTLE);
-        final byte[] bytes = byteArrayBuilder.build();
-        return HashUtil.doubleSha256(bytes);
+        final Integer hashTypeByteCount = 4;
+        final ByteArrayWriter byteArrayWriter = new ByteArrayWriter(transactionDeflater.getByteCount(mutableTransaction) + hashTypeByteCount);
+        transactionDeflater.writeBytes(mutableTransaction, byteArrayWriter);
+        byteArrayWriter.writeInteger(ByteUtil.byteToInteger(hashType.toByte()));
+        return HashUtil.doubleSha256(byteArrayWriter.unwrap());
     }
 
     protected byte[] _getBitcoinCashBytesForSigning(final SignatureContext signatureContext) {
@@ -224,23 +248,17 @@ public class TransactionSigner {
             final TransactionOutput transactionOutputBeingSpent = signatureContext.getTransactionOutputBeingSpent(inputIndex);
             final LockingScript outputBeingSpentLockingScript = transactionOutputBeingSpent.getLockingScript();
 
-            final Script scriptForSigning;
+            final ByteArray scriptBytesForSigning;
             { // Handle Code-Separators...
-                final MutableScript mutableScript = new MutableScript(Util.coalesce(currentScript, outputBeingSpentLockingScript));
-
+                final CompiledScript compiledScript = SCRIPT_INFLATER.compile(Util.coalesce(currentScript, outputBeingSpentLockingScript));
                 final Integer subscriptIndex = signatureContext.getLastCodeSeparatorIndex(inputIndex);
-                if (subscriptIndex > 0) {
-                    mutableScript.subScript(subscriptIndex);
-                }
 
                 // NOTE: (Subtly) According to Buip55 CODE_SEPARATOR are not removed in the new BCH serialization format.
-                // mutableScript.removeOperations(Opcode.CODE_SEPARATOR);
-
-                scriptForSigning = mutableScript;
+                scriptBytesForSigning = _getSubscriptBytes(compiledScript, subscriptIndex, false);
             }
 
-            byteArrayBuilder.appendBytes(ByteUtil.variableLengthIntegerToBytes(scriptForSigning.getByteCount()));
-            byteArrayBuilder.appendBytes(scriptForSigning.getBytes());
+            byteArrayBuilder.appendBytes(ByteUtil.variableLengthIntegerToBytes(scriptBytesForSigning.getByteCount()));
+            byteArrayBuilder.appendBytes(scriptBytesForSigning);
         }
 
         { // 6. Serialize the amount of the spent TransactionOutput...
@@ -341,6 +359,13 @@ public class TransactionSigner {
         return mutableTransaction;
     }
 
+    /**
+     * Returns the message (i.e. the signature hash) that is signed for the provided SignatureContext.
+     */
+    public byte[] getBytesForSigning(final SignatureContext signatureContext) {
+        return _getBytesForSigning(signatureContext);
+    }
+
     public boolean isSignatureValid(final SignatureContext signatureContext, final PublicKey publicKey, final ScriptSignature scriptSignature) {
         final byte[] bytesForSigning = _getBytesForSigning(signatureContext);
 
@@ -6,6 +6,7 @@ import com.softwareverde.bitcoin.context.UnspentTransactionOutputContext;
 import com.softwareverde.bitcoin.inflater.TransactionInflaters;
 import com.softwareverde.bitcoin.transaction.Transaction;
 import com.softwareverde.bitcoin.transaction.locktime.SequenceNumber;
+import com.softwareverde.bitcoin.transaction.script.signature.DeferredSchnorrSignatures;
 
 public interface TransactionValidator {
     interface Context extends MedianBlockTimeContext, NetworkTimeContext, UnspentTransactionOutputContext, TransactionInflaters { }
@@ -20,4 +21,11 @@ public interface TransactionValidator {
      *  For acceptance into the mempool, blockHeight should be 1 greater than the current blockchain's head blockHeight.
      */
     TransactionValidationResult validateTransaction(Long blockHeight, Transaction transaction);
+
+    /**
+     * Validates the transaction identically to TransactionValidator::validateTransaction, except that eligible Schnorr signatures are
+     *  assumed valid and appended to deferredSchnorrSignatures.  The transaction is only valid once deferredSchnorrSignatures has been verified.
+     *  This mode is intended for full-block validation, and should not be used for mempool acceptance.
+     */
+    TransactionValidationResult validateTransaction(Long blockHeight, Transaction transaction, DeferredSchnorrSignatures deferredSchnorrSignatures);
 }
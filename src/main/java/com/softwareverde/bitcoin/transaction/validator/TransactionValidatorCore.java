@@ -22,6 +22,7 @@ import com.softwareverde.bitcoin.transaction.script.locking.LockingScript;
 import com.softwareverde.bitcoin.transaction.script.runner.ScriptRunner;
 import com.softwareverde.bitcoin.transaction.script.runner.context.MutableTransactionContext;
 import com.softwareverde.bitcoin.transaction.script.runner.context.TransactionContext;
+import com.softwareverde.bitcoin.transaction.script.signature.DeferredSchnorrSignatures;
 import com.softwareverde.bitcoin.transaction.script.unlocking.UnlockingScript;
 import com.softwareverde.constable.list.List;
 import com.softwareverde.cryptography.hash.sha256.Sha256Hash;
@@ -226,17 +227,7 @@ public class TransactionValidatorCore implements TransactionValidator {
         return ValidationResult.valid();
     }
 
-    public TransactionValidatorCore(final Context context) {
-        this(null, context);
-    }
-
-    public TransactionValidatorCore(final BlockOutputs blockOutputs, final Context context) {
-        _context = context;
-        _blockOutputs = blockOutputs;
-    }
-
-    @Override
-    public TransactionValidationResult validateTransaction(final Long blockHeight, final Transaction transaction) {
+    protected TransactionValidationResult _validateTransaction(final Long blockHeight, final Transaction transaction, final DeferredSchnorrSignatures deferredSchnorrSignatures) {
         final Sha256Hash transactionHash = transaction.getHash();
 
         final ScriptRunner scriptRunner = new ScriptRunner();
@@ -247,6 +238,7 @@ public class TransactionValidatorCore implements TransactionValidator {
         final MutableTransactionContext transactionContext = new MutableTransactionContext();
         transactionContext.setBlockHeight(blockHeight);
         transactionContext.setMedianBlockTime(medianBlockTime);
+        transactionContext.setDeferredSchnorrSignatures(deferredSchnorrSignatures);
 
         transactionContext.setTransaction(transaction);
 
@@ -385,4 +377,23 @@ public class TransactionValidatorCore implements TransactionValidator {
 
         return TransactionValidationResult.valid(signatureOperationCount);
     }
+
+    public TransactionValidatorCore(final Context context) {
+        this(null, context);
+    }
+
+    public TransactionValidatorCore(final BlockOutputs blockOutputs, final Context context) {
+        _context = context;
+        _blockOutputs = blockOutputs;
+    }
+
+    @Override
+    public TransactionValidationResult validateTransaction(final Long blockHeight, final Transaction transaction) {
+        return _validateTransaction(blockHeight, transaction, null);
+    }
+
+    @Override
+    public TransactionValidationResult validateTransaction(final Long blockHeight, final Transaction transaction, final DeferredSchnorrSignatures deferredSchnorrSignatures) {
+        return _validateTransaction(blockHeight, transaction, deferredSchnorrSignatures);
+    }
 }
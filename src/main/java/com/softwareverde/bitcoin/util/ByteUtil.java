@@ -1,6 +1,16 @@
 package com.softwareverde.bitcoin.util;
 
 public class ByteUtil extends com.softwareverde.util.ByteUtil {
+    /**
+     * Returns the number of bytes ByteUtil::variableLengthIntegerToBytes would return for the value, without allocating them.
+     */
+    public static int getVariableLengthIntegerByteCount(final long value) {
+        if (value < 0xFDL) { return 1; }
+        if (value <= 0xFFFFL) { return 3; }
+        if (value <= 0xFFFFFFFFL) { return 5; }
+        return 9;
+    }
+
     public static byte[] variableLengthIntegerToBytes(final long value) {
         final byte[] bytes = ByteUtil.longToBytes(value);
 
@@ -0,0 +1,115 @@
+package com.softwareverde.bitcoin.util.bytearray;
+
+import com.softwareverde.constable.bytearray.ByteArray;
+import com.softwareverde.util.bytearray.Endian;
+
+/**
+ * Writes sequentially into a fixed-size byte array; the counterpart to ByteArrayReader.
+ *  The array is not resized, so its size must be known before writing (e.g. via a Deflater's getByteCount);
+ *  writing beyond its end throws an IndexOutOfBoundsException.
+ */
+public class ByteArrayWriter {
+    protected final byte[] _bytes;
+    protected int _index;
+
+    public ByteArrayWriter(final int byteCount) {
+        _bytes = new byte[byteCount];
+        _index = 0;
+    }
+
+    /**
+     * Writes into the provided array, beginning at startIndex.
+     */
+    public ByteArrayWriter(final byte[] bytes, final int startIndex) {
+        _bytes = bytes;
+        _index = startIndex;
+    }
+
+    public void writeByte(final byte value) {
+        _bytes[_index] = value;
+        _index += 1;
+    }
+
+    public void writeBytes(final byte[] bytes, final Endian endian) {
+        final int byteCount = bytes.length;
+        if (_index + byteCount > _bytes.length) { throw new IndexOutOfBoundsException("Buffer overflow. Index: " + _index + " ByteCount: " + byteCount + " BufferSize: " + _bytes.length); }
+
+        if (endian == Endian.BIG) {
+            System.arraycopy(bytes, 0, _bytes, _index, byteCount);
+        }
+        else {
+            for (int i = 0; i < byteCount; ++i) {
+                _bytes[_index + i] = bytes[(byteCount - i) - 1];
+            }
+        }
+        _index += byteCount;
+    }
+
+    public void writeBytes(final ByteArray byteArray, final Endian endian) {
+        final int byteCount = byteArray.getByteCount();
+        if (_index + byteCount > _bytes.length) { throw new IndexOutOfBoundsException("Buffer overflow. Index: " + _index + " ByteCount: " + byteCount + " BufferSize: " + _bytes.length); }
+
+        for (int i = 0; i < byteCount; ++i) {
+            final int readIndex = ((endian == Endian.BIG) ? i : ((byteCount - i) - 1));
+            _bytes[_index + i] = byteArray.getByte(readIndex);
+        }
+        _index += byteCount;
+    }
+
+    /**
+     * Writes the lower 4 bytes of the value as a little-endian integer.
+     */
+    public void writeInteger(final long value) {
+        for (int i = 0; i < 4; ++i) {
+            _bytes[_index + i] = (byte) (value >>> (i * 8));
+        }
+        _index += 4;
+    }
+
+    /**
+     * Writes the value as an 8-byte little-endian integer.
+     */
+    public void writeLong(final long value) {
+        for (int i = 0; i < 8; ++i) {
+            _bytes[_index + i] = (byte) (value >>> (i * 8));
+        }
+        _index += 8;
+    }
+
+    /**
+     * Writes the value as a variable-length integer, as ByteUtil::variableLengthIntegerToBytes.
+     */
+    public void writeVariableSizedInteger(final long value) {
+        if (value < 0xFDL) {
+            writeByte((byte) value);
+        }
+        else if (value <= 0xFFFFL) {
+            writeByte((byte) 0xFD);
+            writeByte((byte) value);
+            writeByte((byte) (value >>> 8));
+        }
+        else if (value <= 0xFFFFFFFFL) {
+            writeByte((byte) 0xFE);
+            writeInteger(value);
+        }
+        else {
+            writeByte((byte) 0xFF);
+            writeLong(value);
+        }
+    }
+
+    public Integer getPosition() {
+        return _index;
+    }
+
+    public Integer getRemainingByteCount() {
+        return (_bytes.length - _index);
+    }
+
+    /**
+     * Returns the underlying array; the array is not copied.
+     */
+    public byte[] unwrap() {
+        return _bytes;
+    }
+}
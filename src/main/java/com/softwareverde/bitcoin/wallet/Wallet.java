@@ -57,6 +57,7 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.Map;
+import java.util.TreeSet;
 
 public class Wallet {
     protected static final Long BYTES_PER_TRANSACTION_INPUT = 148L; // P2PKH Inputs are either 147-148 bytes for compressed addresses, or 179-180 bytes for uncompressed addresses.
@@ -74,6 +75,47 @@ public class Wallet {
         public final MutableSlpSendScript slpSendScript = new MutableSlpSendScript();
     }
 
+    /**
+     * An unspent TransactionOutput containing SLP tokens, with its SlpTokenId and token amount parsed once when the output is indexed.
+     *  A null TransactionOutputIdentifier sorts before all others, so an instance with only a tokenAmount may be used to search the index.
+     */
+    protected static class SlpTokenOutput {
+        public static final Comparator<SlpTokenOutput> TOKEN_AMOUNT_ASCENDING_COMPARATOR = new Comparator<SlpTokenOutput>() {
+            @Override
+            public int compare(final SlpTokenOutput slpTokenOutput0, final SlpTokenOutput slpTokenOutput1) {
+                final int amountComparison = slpTokenOutput0.tokenAmount.compareTo(slpTokenOutput1.tokenAmount);
+                if (amountComparison != 0) { return amountComparison; }
+
+                if (slpTokenOutput0.transactionOutputIdentifier == null) { return ((slpTokenOutput1.transactionOutputIdentifier == null) ? 0 : -1); }
+                if (slpTokenOutput1.transactionOutputIdentifier == null) { return 1; }
+                return slpTokenOutput0.transactionOutputIdentifier.compareTo(slpTokenOutput1.transactionOutputIdentifier);
+            }
+        };
+
+        public final TransactionOutputIdentifier transactionOutputIdentifier;
+        public final SlpTokenId slpTokenId;
+        public final Long tokenAmount;
+
+        public SlpTokenOutput(final TransactionOutputIdentifier transactionOutputIdentifier, final SlpTokenId slpTokenId, final Long tokenAmount) {
+            this.transactionOutputIdentifier = transactionOutputIdentifier;
+            this.slpTokenId = slpTokenId;
+            this.tokenAmount = tokenAmount;
+        }
+    }
+
+    /**
+     * Orders SpendableTransactionOutputs by amount, using the TransactionOutputIdentifier to order outputs of equal amounts.
+     */
+    protected static final Comparator<SpendableTransactionOutput> UNSPENT_TRANSACTION_OUTPUT_COMPARATOR = new Comparator<SpendableTransactionOutput>() {
+        @Override
+        public int compare(final SpendableTransactionOutput transactionOutput0, final SpendableTransactionOutput transactionOutput1) {
+            final int amountComparison = SpendableTransactionOutput.AMOUNT_ASCENDING_COMPARATOR.compare(transactionOutput0, transactionOutput1);
+            if (amountComparison != 0) { return amountComparison; }
+
+            return transactionOutput0.getIdentifier().compareTo(transactionOutput1.getIdentifier());
+        }
+    };
+
     protected static final Address DUMMY_ADDRESS = (new AddressInflater()).fromBytes(new MutableByteArray(Address.BYTE_COUNT));
 
     protected final HashMap<Address, PublicKey> _publicKeys = new HashMap<Address, PublicKey>();
@@ -87,6 +129,12 @@ public class Wallet {
     protected final HashMap<TransactionOutputIdentifier, Sha256Hash> _spentTransactionOutputs = new HashMap<TransactionOutputIdentifier, Sha256Hash>();
     protected final HashMap<TransactionOutputIdentifier, MutableSpendableTransactionOutput> _transactionOutputs = new HashMap<TransactionOutputIdentifier, MutableSpendableTransactionOutput>();
     protected final Map<TransactionOutputIdentifier, Sha256Hash> _externallySpentTransactionOutputs = new HashMap<>();
+
+    // Indexes of the unspent subset of _transactionOutputs; maintained by _addUnspentTransactionOutput/_removeUnspentTransactionOutput...
+    protected final TreeSet<MutableSpendableTransactionOutput> _unspentTransactionOutputs = new TreeSet<MutableSpendableTransactionOutput>(UNSPENT_TRANSACTION_OUTPUT_COMPARATOR);
+    protected final HashMap<TransactionOutputIdentifier, SlpTokenOutput> _unspentSlpTokenOutputs = new HashMap<TransactionOutputIdentifier, SlpTokenOutput>();
+    protected final HashMap<SlpTokenId, TreeSet<SlpTokenOutput>> _unspentSlpTokenOutputsByTokenId = new HashMap<SlpTokenId, TreeSet<SlpTokenOutput>>();
+    protected Long _unspentBalance = 0L;
     protected BloomFilter _cachedBloomFilter = null;
 
     protected final MedianBlockTime _medianBlockTime;
@@ -117,6 +165,35 @@ public class Wallet {
         return lastAmount;
     }
 
+    /**
+     * Removes and returns the SlpTokenOutput whose tokenAmount is closest to desiredAmount, preferring the larger amount when equidistant.
+     *  Equivalent to Wallet::removeClosestTupleAmount, but logarithmic in the number of available outputs.
+     */
+    protected static SlpTokenOutput removeClosestSlpTokenOutput(final TreeSet<SlpTokenOutput> sortedSlpTokenOutputs, final Long desiredAmount) {
+        final SlpTokenOutput searchKey = new SlpTokenOutput(null, null, desiredAmount);
+        final SlpTokenOutput smallerSlpTokenOutput = sortedSlpTokenOutputs.lower(searchKey);
+        final SlpTokenOutput largerSlpTokenOutput = sortedSlpTokenOutputs.ceiling(searchKey);
+
+        final SlpTokenOutput closestSlpTokenOutput;
+        if (smallerSlpTokenOutput == null) {
+            closestSlpTokenOutput = largerSlpTokenOutput;
+        }
+        else if (largerSlpTokenOutput == null) {
+            closestSlpTokenOutput = smallerSlpTokenOutput;
+        }
+        else {
+            final long smallerDifference = (desiredAmount - smallerSlpTokenOutput.tokenAmount);
+            final long largerDifference = (largerSlpTokenOutput.tokenAmount - desiredAmount);
+            closestSlpTokenOutput = ((smallerDifference < largerDifference) ? smallerSlpTokenOutput : largerSlpTokenOutput);
+        }
+
+        if (closestSlpTokenOutput != null) {
+            sortedSlpTokenOutputs.remove(closestSlpTokenOutput);
+        }
+
+        return closestSlpTokenOutput;
+    }
+
     protected void _debugWalletState() {
         Logger.debug("Wallet Transaction Hashes:");
         for (final Sha256Hash transactionHash : _transactions.keySet()) {
@@ -251,6 +328,67 @@ public class Wallet {
         _publicKeys.put(decompressedAddress, decompressedPublicKey);
     }
 
+    protected void _addUnspentTransactionOutput(final MutableSpendableTransactionOutput spendableTransactionOutput) {
+        if (! _unspentTransactionOutputs.add(spendableTransactionOutput)) { return; }
+
+        final TransactionOutput transactionOutput = spendableTransactionOutput.getTransactionOutput();
+        _unspentBalance += transactionOutput.getAmount();
+
+        final TransactionOutputIdentifier transactionOutputIdentifier = spendableTransactionOutput.getIdentifier();
+        final Integer transactionOutputIndex = transactionOutputIdentifier.getOutputIndex();
+        final Transaction transaction = _transactions.get(transactionOutputIdentifier.getTransactionHash());
+        if ( (transaction == null) || (! Transaction.isSlpTransaction(transaction)) ) { return; }
+        if (! SlpUtil.isSlpTokenOutput(transaction, transactionOutputIndex)) { return; }
+
+        final SlpTokenId slpTokenId = SlpUtil.getTokenId(transaction);
+        if (slpTokenId == null) { return; }
+
+        final Long tokenAmount = SlpUtil.getOutputTokenAmount(transaction, transactionOutputIndex);
+        if (tokenAmount == null) { return; }
+
+        final SlpTokenOutput slpTokenOutput = new SlpTokenOutput(transactionOutputIdentifier, slpTokenId, tokenAmount);
+        _unspentSlpTokenOutputs.put(transactionOutputIdentifier, slpTokenOutput);
+
+        TreeSet<SlpTokenOutput> slpTokenOutputs = _unspentSlpTokenOutputsByTokenId.get(slpTokenId);
+        if (slpTokenOutputs == null) {
+            slpTokenOutputs = new TreeSet<SlpTokenOutput>(SlpTokenOutput.TOKEN_AMOUNT_ASCENDING_COMPARATOR);
+            _unspentSlpTokenOutputsByTokenId.put(slpTokenId, slpTokenOutputs);
+        }
+        slpTokenOutputs.add(slpTokenOutput);
+    }
+
+    protected void _removeUnspentTransactionOutput(final MutableSpendableTransactionOutput spendableTransactionOutput) {
+        if (! _unspentTransactionOutputs.remove(spendableTransactionOutput)) { return; }
+
+        final TransactionOutput transactionOutput = spendableTransactionOutput.getTransactionOutput();
+        _unspentBalance -= transactionOutput.getAmount();
+
+        final SlpTokenOutput slpTokenOutput = _unspentSlpTokenOutputs.remove(spendableTransactionOutput.getIdentifier());
+        if (slpTokenOutput == null) { return; }
+
+        final TreeSet<SlpTokenOutput> slpTokenOutputs = _unspentSlpTokenOutputsByTokenId.get(slpTokenOutput.slpTokenId);
+        slpTokenOutputs.remove(slpTokenOutput);
+        if (slpTokenOutputs.isEmpty()) {
+            _unspentSlpTokenOutputsByTokenId.remove(slpTokenOutput.slpTokenId);
+        }
+    }
+
+    /**
+     * Updates the spent-state of the output, and the unspent output indexes along with it.
+     *  All changes to a tracked output's spent-state must be made via this method.
+     */
+    protected void _setTransactionOutputIsSpent(final MutableSpendableTransactionOutput spendableTransactionOutput, final Boolean isSpent) {
+        if (Util.areEqual(spendableTransactionOutput.isSpent(), isSpent)) { return; }
+
+        spendableTransactionOutput.setIsSpent(isSpent);
+        if (isSpent) {
+            _removeUnspentTransactionOutput(spendableTransactionOutput);
+        }
+        else {
+            _addUnspentTransactionOutput(spendableTransactionOutput);
+        }
+    }
+
     protected Boolean _hasSpentInputs(final Transaction transaction) {
         for (final TransactionInput transactionInput : transaction.getTransactionInputs()) {
             final TransactionOutputIdentifier transactionOutputIdentifier = TransactionOutputIdentifier.fromTransactionInput(transactionInput);
@@ -285,7 +423,7 @@ public class Wallet {
             final MutableSpendableTransactionOutput spendableTransactionOutput = _transactionOutputs.get(transactionOutputIdentifier);
             if (spendableTransactionOutput == null) { continue; }
 
-            spendableTransactionOutput.setIsSpent(true);
+            _setTransactionOutputIsSpent(spendableTransactionOutput, true);
         }
 
         final ScriptPatternMatcher scriptPatternMatcher = new ScriptPatternMatcher();
@@ -306,7 +444,13 @@ public class Wallet {
 
                 final MutableSpendableTransactionOutput spendableTransactionOutput = new MutableSpendableTransactionOutput(address, transactionOutputIdentifier, transactionOutput);
                 spendableTransactionOutput.setIsSpent(isSpent);
-                _transactionOutputs.put(transactionOutputIdentifier, spendableTransactionOutput);
+                final MutableSpendableTransactionOutput replacedTransactionOutput = _transactionOutputs.put(transactionOutputIdentifier, spendableTransactionOutput);
+                if (replacedTransactionOutput != null) {
+                    _removeUnspentTransactionOutput(replacedTransactionOutput);
+                }
+                if (! isSpent) {
+                    _addUnspentTransactionOutput(spendableTransactionOutput);
+                }
             }
         }
 
@@ -330,6 +474,10 @@ public class Wallet {
         _externallySpentTransactionOutputs.clear();
         _spentTransactionOutputs.clear();
         _transactionOutputs.clear();
+        _unspentTransactionOutputs.clear();
+        _unspentSlpTokenOutputs.clear();
+        _unspentSlpTokenOutputsByTokenId.clear();
+        _unspentBalance = 0L;
         _transactions.clear();
         _confirmedTransactions.clear();
 
@@ -437,25 +585,14 @@ public class Wallet {
     }
 
     protected Long _getSlpTokenBalance(final SlpTokenId tokenId, final Boolean shouldIncludeNotYetValidatedTransactions) {
-        long amount = 0L;
-        for (final SpendableTransactionOutput spendableTransactionOutput : _transactionOutputs.values()) {
-            if (! spendableTransactionOutput.isSpent()) {
-                final TransactionOutputIdentifier transactionOutputIdentifier = spendableTransactionOutput.getIdentifier();
-                final Sha256Hash transactionHash = transactionOutputIdentifier.getTransactionHash();
-                final Integer transactionOutputIndex = transactionOutputIdentifier.getOutputIndex();
-
-                if (_isSlpTransactionAndIsValid(transactionHash, shouldIncludeNotYetValidatedTransactions)) {
-                    final Transaction transaction = _transactions.get(transactionHash);
-                    if (transaction == null) { return null; }
-
-                    final boolean outputContainsTokens = SlpUtil.isSlpTokenOutput(transaction, transactionOutputIndex);
-                    if (! outputContainsTokens) { continue; }
-
-                    final SlpTokenId transactionTokenId = SlpUtil.getTokenId(transaction);
-                    if (! Util.areEqual(tokenId, transactionTokenId)) { continue; }
+        final TreeSet<SlpTokenOutput> slpTokenOutputs = _unspentSlpTokenOutputsByTokenId.get(tokenId);
+        if (slpTokenOutputs == null) { return 0L; }
 
-                    amount += SlpUtil.getOutputTokenAmount(transaction, transactionOutputIndex);
-                }
+        long amount = 0L;
+        for (final SlpTokenOutput slpTokenOutput : slpTokenOutputs) {
+            final Sha256Hash transactionHash = slpTokenOutput.transactionOutputIdentifier.getTransactionHash();
+            if (_isSlpTransactionAndIsValid(transactionHash, shouldIncludeNotYetValidatedTransactions)) {
+                amount += slpTokenOutput.tokenAmount;
             }
         }
         return amount;
@@ -484,38 +621,34 @@ public class Wallet {
         long selectedUtxoAmount = 0L;
         final MutableList<SpendableTransactionOutput> transactionOutputsToSpend = new MutableList<SpendableTransactionOutput>();
 
-        final MutableList<SpendableTransactionOutput> unspentTransactionOutputs = new MutableList<SpendableTransactionOutput>(_transactionOutputs.size());
-        for (final SpendableTransactionOutput spendableTransactionOutput : _transactionOutputs.values()) {
-            final TransactionOutputIdentifier transactionOutputIdentifier = spendableTransactionOutput.getIdentifier();
+        // Each TransactionOutput that must be included in this transaction is added to transactionOutputsToSpend,
+        //  its amount added to selectedUtxoAmount, and the total fees required for this transaction increased.
+        //  These Utxos are excluded from the possible unspent outputs below to prevent them from being added twice.
+        final HashSet<TransactionOutputIdentifier> mandatoryTransactionOutputIdentifiers = new HashSet<TransactionOutputIdentifier>();
+        if (mandatoryTransactionOutputsToSpend != null) {
+            for (final TransactionOutputIdentifier transactionOutputIdentifier : mandatoryTransactionOutputsToSpend) {
+                final SpendableTransactionOutput spendableTransactionOutput = _transactionOutputs.get(transactionOutputIdentifier);
+                if (spendableTransactionOutput == null) { continue; }
+                if (! mandatoryTransactionOutputIdentifiers.add(transactionOutputIdentifier)) { continue; }
 
-            // If this TransactionOutput is one that must be included in this transaction,
-            //  then add it to transactionOutputsToSpend, its amount to selectedUtxoAmount,
-            //  increase the total fees required for this transaction, and exclude the Utxo
-            //  from the possible spendableTransactionOutputs to prevent it from being added twice.
-            if ( (mandatoryTransactionOutputsToSpend != null) && (mandatoryTransactionOutputsToSpend.contains(transactionOutputIdentifier)) ) {
                 final Address address = spendableTransactionOutput.getAddress();
 
                 final TransactionOutput transactionOutput = spendableTransactionOutput.getTransactionOutput();
                 selectedUtxoAmount += transactionOutput.getAmount();
                 feesToSpendOutputs.value += (address.isCompressed() ? feeToSpendOneOutput : feeToSpendOneUncompressedOutput);
                 transactionOutputsToSpend.add(spendableTransactionOutput);
-                continue;
-            }
-
-            // Avoid spending tokens as regular BCH...
-            if (_isSlpTokenOutput(transactionOutputIdentifier)) { continue; }
-
-            if (! spendableTransactionOutput.isSpent()) {
-                unspentTransactionOutputs.add(spendableTransactionOutput);
             }
         }
-        unspentTransactionOutputs.sort(SpendableTransactionOutput.AMOUNT_ASCENDING_COMPARATOR);
 
         final long mandatoryOutputsFundingAmount = selectedUtxoAmount;
 
-        for (final SpendableTransactionOutput spendableTransactionOutput : unspentTransactionOutputs) {
+        // The unspent outputs are already sorted by amount, so the walk ends as soon as the transaction is funded...
+        for (final SpendableTransactionOutput spendableTransactionOutput : _unspentTransactionOutputs) {
             if (selectedUtxoAmount >= (minimumUtxoAmount + feesToSpendOutputs.value)) { break; }
 
+            final TransactionOutputIdentifier transactionOutputIdentifier = spendableTransactionOutput.getIdentifier();
+            if (mandatoryTransactionOutputIdentifiers.contains(transactionOutputIdentifier)) { continue; }
+
             final Address address = spendableTransactionOutput.getAddress();
             final Long feeToSpendThisOutput = (address.isCompressed() ? feeToSpendOneOutput : feeToSpendOneUncompressedOutput);
 
@@ -524,14 +657,17 @@ public class Wallet {
 
             if (transactionOutputAmount < feeToSpendThisOutput) { continue; } // Exclude spending dust...
 
+            // Avoid spending tokens as regular BCH...
+            if (_isSlpTokenOutput(transactionOutputIdentifier)) { continue; }
+
             // If the next UnspentTransactionOutput covers the whole transaction cost by itself, then use only that output instead...
             if (transactionOutputAmount >= (minimumUtxoAmount + feeToSpendThisOutput + originalFeesToSpendOutputs)) {
                 // Remove any non-mandatory outputs, then add the output covering the cost...
                 final Iterator<SpendableTransactionOutput> mutableIterator = transactionOutputsToSpend.mutableIterator();
                 while (mutableIterator.hasNext()) {
                     final SpendableTransactionOutput selectedTransactionOutput = mutableIterator.next();
-                    final TransactionOutputIdentifier transactionOutputIdentifier = selectedTransactionOutput.getIdentifier();
-                    if ( (mandatoryTransactionOutputsToSpend == null) || (! mandatoryTransactionOutputsToSpend.contains(transactionOutputIdentifier)) ) {
+                    final TransactionOutputIdentifier selectedTransactionOutputIdentifier = selectedTransactionOutput.getIdentifier();
+                    if (! mandatoryTransactionOutputIdentifiers.contains(selectedTransactionOutputIdentifier)) {
                         mutableIterator.remove();
 
                         // Subtract the fee for spending this output...
@@ -648,57 +784,46 @@ public class Wallet {
         // Add additional inputs to fulfill the requested payment amount(s)...
         long selectedTokenAmount = preselectedTokenAmount;
         if (selectedTokenAmount < requiredTokenAmount) {
-            final MutableList<Tuple<TransactionOutputIdentifier, Long>> availableTokenAmounts = new MutableList<Tuple<TransactionOutputIdentifier, Long>>();
-            for (final TransactionOutputIdentifier transactionOutputIdentifier : _transactionOutputs.keySet()) {
-                final SpendableTransactionOutput spendableTransactionOutput = _transactionOutputs.get(transactionOutputIdentifier);
-                if (spendableTransactionOutput.isSpent()) { continue; }
-
-                if (requiredTransactionOutputIdentifiersToSpend.contains(transactionOutputIdentifier)) { continue; }
+            final HashSet<TransactionOutputIdentifier> requiredTransactionOutputIdentifiers = new HashSet<TransactionOutputIdentifier>();
+            for (final TransactionOutputIdentifier transactionOutputIdentifier : requiredTransactionOutputIdentifiersToSpend) {
+                requiredTransactionOutputIdentifiers.add(transactionOutputIdentifier);
+            }
 
-                if (! _isSlpTokenOutput(transactionOutputIdentifier)) { continue; }
-                final Sha256Hash transactionHash = transactionOutputIdentifier.getTransactionHash();
-                if (! _isSlpTransactionAndIsValid(transactionHash, shouldIncludeNotYetValidatedTransactions)) { continue; }
+            // Only the unspent outputs of this token are considered; they are already sorted by token amount...
+            final TreeSet<SlpTokenOutput> availableSlpTokenOutputs = new TreeSet<SlpTokenOutput>(SlpTokenOutput.TOKEN_AMOUNT_ASCENDING_COMPARATOR);
+            final TreeSet<SlpTokenOutput> unspentSlpTokenOutputs = _unspentSlpTokenOutputsByTokenId.get(slpTokenId);
+            if (unspentSlpTokenOutputs != null) {
+                for (final SlpTokenOutput slpTokenOutput : unspentSlpTokenOutputs) {
+                    if (slpTokenOutput.tokenAmount < 1L) { continue; }
 
-                final SlpTokenId outputTokenId = _getSlpTokenId(transactionOutputIdentifier);
-                if (! Util.areEqual(slpTokenId, outputTokenId)) { continue; }
+                    final TransactionOutputIdentifier transactionOutputIdentifier = slpTokenOutput.transactionOutputIdentifier;
+                    if (requiredTransactionOutputIdentifiers.contains(transactionOutputIdentifier)) { continue; }
 
-                final Long tokenAmount = _getSlpTokenAmount(transactionOutputIdentifier);
-                if (tokenAmount == null) { continue; }
-                if (tokenAmount < 1L) { continue; }
-
-                final Tuple<TransactionOutputIdentifier, Long> tokenAmountTuple = new Tuple<TransactionOutputIdentifier, Long>();
-                tokenAmountTuple.first = transactionOutputIdentifier;
-                tokenAmountTuple.second = tokenAmount;
+                    final Sha256Hash transactionHash = transactionOutputIdentifier.getTransactionHash();
+                    if (! _isSlpTransactionAndIsValid(transactionHash, shouldIncludeNotYetValidatedTransactions)) { continue; }
 
-                availableTokenAmounts.add(tokenAmountTuple);
-            }
-            availableTokenAmounts.sort(new Comparator<Tuple<TransactionOutputIdentifier, Long>>() {
-                @Override
-                public int compare(final Tuple<TransactionOutputIdentifier, Long> tuple0, final Tuple<TransactionOutputIdentifier, Long> tuple1) {
-                    final Long amount0 = tuple0.second;
-                    final Long amount1 = tuple1.second;
-                    return amount0.compareTo(amount1);
+                    availableSlpTokenOutputs.add(slpTokenOutput);
                 }
-            });
+            }
 
             while (selectedTokenAmount < requiredTokenAmount) {
                 final long missingAmount = (requiredTokenAmount - selectedTokenAmount);
-                final Tuple<TransactionOutputIdentifier, Long> closestAmountTuple = Wallet.removeClosestTupleAmount(availableTokenAmounts, missingAmount);
-                if (closestAmountTuple == null) {
+                final SlpTokenOutput closestSlpTokenOutput = Wallet.removeClosestSlpTokenOutput(availableSlpTokenOutputs, missingAmount);
+                if (closestSlpTokenOutput == null) {
                     Logger.info("Insufficient tokens to fulfill payment amount. Required: " + requiredTokenAmount + " Available: " + selectedTokenAmount);
                     return null;
                 }
 
-                if (closestAmountTuple.second >= (requiredTokenAmount - preselectedTokenAmount)) { // If the next output covers the whole transaction, only use itself and the required outputs...
+                if (closestSlpTokenOutput.tokenAmount >= (requiredTokenAmount - preselectedTokenAmount)) { // If the next output covers the whole transaction, only use itself and the required outputs...
                     configuration.transactionOutputIdentifiersToSpend.clear();
                     configuration.transactionOutputIdentifiersToSpend.addAll(requiredTransactionOutputIdentifiersToSpend);
-                    configuration.transactionOutputIdentifiersToSpend.add(closestAmountTuple.first);
-                    selectedTokenAmount = (preselectedTokenAmount + closestAmountTuple.second);
+                    configuration.transactionOutputIdentifiersToSpend.add(closestSlpTokenOutput.transactionOutputIdentifier);
+                    selectedTokenAmount = (preselectedTokenAmount + closestSlpTokenOutput.tokenAmount);
                     break;
                 }
 
-                selectedTokenAmount += closestAmountTuple.second;
-                configuration.transactionOutputIdentifiersToSpend.add(closestAmountTuple.first);
+                selectedTokenAmount += closestSlpTokenOutput.tokenAmount;
+                configuration.transactionOutputIdentifiersToSpend.add(closestSlpTokenOutput.transactionOutputIdentifier);
             }
         }
 
@@ -1026,7 +1151,7 @@ public class Wallet {
     protected void _markTransactionOutputAsSpent(final TransactionOutputIdentifier transactionOutputIdentifier) {
         final MutableSpendableTransactionOutput transactionOutput = _transactionOutputs.get(transactionOutputIdentifier);
         if (transactionOutput != null) {
-            transactionOutput.setIsSpent(true);
+            _setTransactionOutputIsSpent(transactionOutput, true);
         }
 
         final Sha256Hash sentinelHash = Sha256Hash.EMPTY_HASH;
@@ -1198,14 +1323,7 @@ public class Wallet {
     }
 
     public synchronized Long getBalance() {
-        long amount = 0L;
-        for (final SpendableTransactionOutput spendableTransactionOutput : _transactionOutputs.values()) {
-            if (! spendableTransactionOutput.isSpent()) {
-                final TransactionOutput transactionOutput = spendableTransactionOutput.getTransactionOutput();
-                amount += transactionOutput.getAmount();
-            }
-        }
-        return amount;
+        return _unspentBalance;
     }
 
     public synchronized Long getBalance(final PublicKey publicKey) {
@@ -0,0 +1,61 @@
+/*
+ * SipHash was designed by Jean-Philippe Aumasson and Daniel J. Bernstein. ( https://131002.net/siphash/ )
+ * This implementation is derived from the public-domain reference implementation. ( https://github.com/veorq/SipHash )
+ */
+
+package com.softwareverde.siphash;
+
+import com.softwareverde.constable.bytearray.ByteArray;
+
+public class SipHashUtil {
+    private static long _readLong(final ByteArray object, final int index, final int byteCount) {
+        long value = 0L;
+        for (int i = 0; i < byteCount; ++i) {
+            value |= ( (object.getByte(index + i) & 0xFFL) << (8 * i) );
+        }
+        return value;
+    }
+
+    /**
+     * Returns the 64-bit SipHash-2-4 of the object, keyed by the 128-bit key (key0, key1).
+     *  The key words are the little-endian interpretation of the first and second 8 bytes of the key.
+     */
+    public static long sipHash24(final long key0, final long key1, final ByteArray object) {
+        long v0 = (key0 ^ 0x736F6D6570736575L);
+        long v1 = (key1 ^ 0x646F72616E646F6DL);
+        long v2 = (key0 ^ 0x6C7967656E657261L);
+        long v3 = (key1 ^ 0x7465646279746573L);
+
+        final int objectByteCount = object.getByteCount();
+        final int numBlocks = ( (objectByteCount / 8) * 8 );
+
+        for (int i = 0; i <= numBlocks; i += 8) {
+            final long m;
+            if (i < numBlocks) {
+                m = _readLong(object, i, 8);
+            }
+            else { // The final block contains the remaining bytes and the length of the object...
+                m = ( ((objectByteCount & 0xFFL) << 56) | _readLong(object, i, (objectByteCount & 0x07)) );
+            }
+
+            v3 ^= m;
+            for (int round = 0; round < 2; ++round) {
+                v0 += v1; v1 = Long.rotateLeft(v1, 13); v1 ^= v0; v0 = Long.rotateLeft(v0, 32);
+                v2 += v3; v3 = Long.rotateLeft(v3, 16); v3 ^= v2;
+                v0 += v3; v3 = Long.rotateLeft(v3, 21); v3 ^= v0;
+                v2 += v1; v1 = Long.rotateLeft(v1, 17); v1 ^= v2; v2 = Long.rotateLeft(v2, 32);
+            }
+            v0 ^= m;
+        }
+
+        v2 ^= 0xFFL;
+        for (int round = 0; round < 4; ++round) {
+            v0 += v1; v1 = Long.rotateLeft(v1, 13); v1 ^= v0; v0 = Long.rotateLeft(v0, 32);
+            v2 += v3; v3 = Long.rotateLeft(v3, 16); v3 ^= v2;
+            v0 += v3; v3 = Long.rotateLeft(v3, 21); v3 ^= v0;
+            v2 += v1; v1 = Long.rotateLeft(v1, 17); v1 ^= v2; v2 = Long.rotateLeft(v2, 32);
+        }
+
+        return (v0 ^ v1 ^ v2 ^ v3);
+    }
+}
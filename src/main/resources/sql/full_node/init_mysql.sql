@@ -100,6 +100,16 @@ CREATE TABLE committed_unspent_transaction_outputs (
     PRIMARY KEY (transaction_hash, `index`)
 ) ENGINE=InnoDB DEFAULT CHARSET=LATIN1;
 
+CREATE TABLE snapshot_transaction_outputs (
+    transaction_hash BINARY(32) NOT NULL,
+    `index` INT UNSIGNED NOT NULL,
+    block_height INT UNSIGNED NOT NULL,
+    is_coinbase TINYINT(1) UNSIGNED NOT NULL DEFAULT 0,
+    amount BIGINT UNSIGNED NOT NULL,
+    locking_script BLOB NOT NULL,
+    PRIMARY KEY (transaction_hash, `index`)
+) ENGINE=InnoDB DEFAULT CHARSET=LATIN1;
+
 -- Unconfirmed Transaction (Mempool) Tables
 
 CREATE TABLE unconfirmed_transactions (
@@ -221,16 +231,6 @@ CREATE TABLE node_features (
     FOREIGN KEY node_features_fk (node_id) REFERENCES nodes (id)
 ) ENGINE=InnoDB DEFAULT CHARSET=UTF8MB4;
 
-CREATE TABLE node_transactions_inventory (
-    id INT UNSIGNED NOT NULL AUTO_INCREMENT,
-    node_id INT UNSIGNED NOT NULL,
-    hash BINARY(32) NOT NULL,
-    PRIMARY KEY (id),
-    UNIQUE KEY node_transactions_uq (node_id, hash),
-    FOREIGN KEY node_transactions_node_id_fk (node_id) REFERENCES nodes (id),
-    INDEX node_transactions_tx_ix (hash) USING BTREE
-) ENGINE=MyISAM DEFAULT CHARSET=LATIN1;
-
 -- Optional Indexing Tables
 
 CREATE TABLE script_types (
@@ -275,6 +275,18 @@ CREATE TABLE validated_slp_transactions (
     FOREIGN KEY valid_slp_transactions_tx_id_fk (transaction_id) REFERENCES transactions (id) ON DELETE CASCADE
 ) ENGINE=InnoDB DEFAULT CHARSET=LATIN1;
 
+-- Compact Block Filter (BIP-157/158) Tables
+
+CREATE TABLE block_filters (
+    block_id INT UNSIGNED NOT NULL,
+    filter_type TINYINT UNSIGNED NOT NULL,
+    filter_hash BINARY(32) NOT NULL,
+    filter_header BINARY(32) NOT NULL,
+    filter MEDIUMBLOB NOT NULL,
+    PRIMARY KEY (block_id, filter_type),
+    FOREIGN KEY block_filters_block_id_fk (block_id) REFERENCES blocks (id)
+) ENGINE=InnoDB DEFAULT CHARSET=LATIN1;
+
 -- Misc
 
 CREATE TABLE properties (
@@ -283,4 +295,4 @@ CREATE TABLE properties (
     PRIMARY KEY (`key`)
 ) ENGINE=InnoDB DEFAULT CHARSET=UTF8MB4;
 
-INSERT INTO metadata (version, timestamp) VALUES (3, UNIX_TIMESTAMP());
+INSERT INTO metadata (version, timestamp) VALUES (4, UNIX_TIMESTAMP());
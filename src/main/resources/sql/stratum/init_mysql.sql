@@ -24,10 +24,11 @@ CREATE TABLE workers (
 CREATE TABLE worker_shares (
     id INT UNSIGNED NOT NULL AUTO_INCREMENT,
     worker_id INT UNSIGNED NOT NULL,
-    difficulty INT UNSIGNED NOT NULL,
+    difficulty BIGINT UNSIGNED NOT NULL,
+    share_count INT UNSIGNED NOT NULL DEFAULT 1,
     timestamp BIGINT UNSIGNED NOT NULL,
     PRIMARY KEY (id),
     FOREIGN KEY worker_shares_worker_id_fk (worker_id) REFERENCES workers (id) ON DELETE CASCADE
 ) ENGINE=InnoDB DEFAULT CHARSET=UTF8MB4;
 
-INSERT INTO metadata (version, timestamp) VALUES (1, UNIX_TIMESTAMP());
+INSERT INTO metadata (version, timestamp) VALUES (2, UNIX_TIMESTAMP());
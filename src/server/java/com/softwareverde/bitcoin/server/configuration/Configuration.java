@@ -1,6 +1,9 @@
 package com.softwareverde.bitcoin.server.configuration;
 
+import com.softwareverde.bitcoin.server.module.explorer.api.ExplorerCache;
 import com.softwareverde.bitcoin.server.module.node.database.transaction.fullnode.utxo.UnspentTransactionOutputDatabaseManager;
+import com.softwareverde.bitcoin.server.module.node.store.BlockPruner;
+import com.softwareverde.bitcoin.server.module.node.rpc.NodeRpcHandler;
 import com.softwareverde.constable.list.List;
 import com.softwareverde.constable.list.mutable.MutableList;
 import com.softwareverde.json.Json;
@@ -85,6 +88,14 @@ public class Configuration {
         _bitcoinProperties = new BitcoinProperties();
         _bitcoinProperties._bitcoinPort = Util.parseInt(_properties.getProperty("bitcoin.port", BitcoinProperties.PORT.toString()));
         _bitcoinProperties._bitcoinRpcPort = Util.parseInt(_properties.getProperty("bitcoin.rpcPort", BitcoinProperties.RPC_PORT.toString()));
+        _bitcoinProperties._maxQueuedRpcHookEventCount = Util.parseInt(_properties.getProperty("bitcoin.rpcHookQueueSize", NodeRpcHandler.DEFAULT_MAX_QUEUED_HOOK_EVENT_COUNT.toString()));
+
+        {
+            final NodeRpcHandler.SlowHookListenerPolicy slowHookListenerPolicy = NodeRpcHandler.SlowHookListenerPolicy.fromString(_properties.getProperty("bitcoin.rpcSlowHookPolicy", "DISCONNECT"));
+            _bitcoinProperties._slowRpcHookListenerPolicy = ((slowHookListenerPolicy != null) ? slowHookListenerPolicy : NodeRpcHandler.SlowHookListenerPolicy.DISCONNECT);
+        }
+
+        _bitcoinProperties._metricsPort = Util.parseInt(_properties.getProperty("bitcoin.metricsPort", "0"));
 
         { // Parse Seed Nodes...
             final List<SeedNodeProperties> seedNodeProperties = _parseSeedNodeProperties("bitcoin.seedNodes", "[\"btc.softwareverde.com\", \"bitcoinverde.org\"]");
@@ -133,6 +144,7 @@ public class Configuration {
         _bitcoinProperties._trustedBlockHeight = Util.parseLong(_properties.getProperty("bitcoin.trustedBlockHeight", "0"));
         _bitcoinProperties._shouldSkipNetworking = Util.parseBool(_properties.getProperty("bitcoin.skipNetworking", "0"));
         _bitcoinProperties._deletePendingBlocksIsEnabled = Util.parseBool(_properties.getProperty("bitcoin.deletePendingBlocks", "1"));
+        _bitcoinProperties._memoryPoolSnapshotIsEnabled = Util.parseBool(_properties.getProperty("bitcoin.enableMemoryPoolSnapshot", "1"));
         _bitcoinProperties._maxUtxoCacheByteCount = Util.parseLong(_properties.getProperty("bitcoin.maxUtxoCacheByteCount", String.valueOf(UnspentTransactionOutputDatabaseManager.DEFAULT_MAX_UTXO_CACHE_COUNT * UnspentTransactionOutputDatabaseManager.BYTES_PER_UTXO)));
         _bitcoinProperties._utxoCommitFrequency = Util.parseLong(_properties.getProperty("bitcoin.utxoCommitFrequency", "50000"));
         _bitcoinProperties._logDirectory = _properties.getProperty("bitcoin.logDirectory", "logs");
@@ -154,6 +166,17 @@ public class Configuration {
         }
 
         _bitcoinProperties._indexingModeIsEnabled = Util.parseBool(_properties.getProperty("bitcoin.indexBlocks", "1"));
+        _bitcoinProperties._pruningModeIsEnabled = Util.parseBool(_properties.getProperty("bitcoin.enablePruning", "0"));
+        _bitcoinProperties._prunedBlockRetentionCount = Math.max(BlockPruner.MIN_RETAINED_BLOCK_COUNT, Util.parseLong(_properties.getProperty("bitcoin.pruneKeepBlockCount", BlockPruner.DEFAULT_RETAINED_BLOCK_COUNT.toString())));
+        if (_bitcoinProperties._pruningModeIsEnabled && _bitcoinProperties._indexingModeIsEnabled) {
+            Logger.warn("Pruning is not supported while indexing is enabled; pruning has been disabled.");
+            _bitcoinProperties._pruningModeIsEnabled = false;
+        }
+        _bitcoinProperties._blockFilterIndexIsEnabled = Util.parseBool(_properties.getProperty("bitcoin.indexBlockFilters", "0"));
+        if (_bitcoinProperties._blockFilterIndexIsEnabled && _bitcoinProperties._pruningModeIsEnabled) {
+            Logger.warn("Block filter indexing is not supported while pruning is enabled; block filter indexing has been disabled.");
+            _bitcoinProperties._blockFilterIndexIsEnabled = false;
+        }
         _bitcoinProperties._maxMessagesPerSecond = Util.parseInt(_properties.getProperty("bitcoin.maxMessagesPerSecondPerNode", "250"));
         _bitcoinProperties._dataDirectory = _properties.getProperty("bitcoin.dataDirectory", "data");
         _bitcoinProperties._shouldRelayInvalidSlpTransactions = Util.parseBool(_properties.getProperty("bitcoin.relayInvalidSlpTransactions", "1"));
@@ -173,6 +196,8 @@ public class Configuration {
         final String tlsKeyFile = _properties.getProperty("explorer.tlsKeyFile", "");
         final String tlsCertificateFile = _properties.getProperty("explorer.tlsCertificateFile", "");
 
+        final Long cacheByteCount = Util.parseLong(_properties.getProperty("explorer.cacheByteCount", ExplorerCache.DEFAULT_MAX_BYTE_COUNT.toString()));
+
         final ExplorerProperties explorerProperties = new ExplorerProperties();
         explorerProperties._port = port;
         explorerProperties._rootDirectory = rootDirectory;
@@ -187,6 +212,8 @@ public class Configuration {
         explorerProperties._tlsKeyFile = (tlsKeyFile.isEmpty() ? null : tlsKeyFile);
         explorerProperties._tlsCertificateFile = (tlsCertificateFile.isEmpty() ? null : tlsCertificateFile);
 
+        explorerProperties._cacheByteCount = cacheByteCount;
+
         _explorerProperties = explorerProperties;
     }
 
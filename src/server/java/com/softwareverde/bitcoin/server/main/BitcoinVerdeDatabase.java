@@ -5,6 +5,7 @@ import com.softwareverde.bitcoin.server.configuration.DatabaseProperties;
 import com.softwareverde.bitcoin.server.database.Database;
 import com.softwareverde.bitcoin.server.database.DatabaseConnection;
 import com.softwareverde.bitcoin.server.database.DatabaseConnectionFactory;
+import com.softwareverde.bitcoin.server.database.query.Query;
 import com.softwareverde.bitcoin.server.database.wrapper.MysqlDatabaseConnectionFactoryWrapper;
 import com.softwareverde.bitcoin.server.database.wrapper.MysqlDatabaseConnectionWrapper;
 import com.softwareverde.database.DatabaseException;
@@ -24,15 +25,68 @@ public class BitcoinVerdeDatabase implements Database {
     public static class InitFile {
         public final String sqlInitFile;
         public final Integer databaseVersion;
+        public final DatabaseInitializer.DatabaseUpgradeHandler<Connection> databaseUpgradeHandler;
 
-        public InitFile(final String sqlInitFile, final Integer databaseVersion) {
+        public InitFile(final String sqlInitFile, final Integer databaseVersion, final DatabaseInitializer.DatabaseUpgradeHandler<Connection> databaseUpgradeHandler) {
             this.sqlInitFile = sqlInitFile;
             this.databaseVersion = databaseVersion;
+            this.databaseUpgradeHandler = databaseUpgradeHandler;
         }
     }
 
-    public static final InitFile BITCOIN = new InitFile("/sql/full_node/init_mysql.sql", BitcoinConstants.DATABASE_VERSION);
-    public static final InitFile STRATUM = new InitFile("/sql/stratum/init_mysql.sql", BitcoinConstants.DATABASE_VERSION);
+    public static final DatabaseInitializer.DatabaseUpgradeHandler<Connection> DATABASE_UPGRADE_HANDLER = new DatabaseInitializer.DatabaseUpgradeHandler<Connection>() {
+        @Override
+        public Boolean onUpgrade(final com.softwareverde.database.DatabaseConnection<Connection> maintenanceDatabaseConnection, final Integer currentVersion, final Integer requiredVersion) {
+            if (currentVersion < 3) {
+                return false; // Upgrading from Verde v1 (DB v1-v2) is not supported.
+            }
+
+            Integer upgradedVersion = currentVersion;
+
+            try {
+                if ( (upgradedVersion < 4) && (requiredVersion >= 4) ) {
+                    // v4: matches the v4 init_mysql.sql; the UTXO snapshot/pruned-output table and the compact block filter (BIP-157/158) index are added,
+                    //  and node_transactions_inventory is removed (peers' transaction inventories are tracked in memory)...
+                    maintenanceDatabaseConnection.executeDdl("DROP TABLE IF EXISTS node_transactions_inventory");
+                    maintenanceDatabaseConnection.executeDdl("CREATE TABLE IF NOT EXISTS snapshot_transaction_outputs (transaction_hash BINARY(32) NOT NULL, `index` INT UNSIGNED NOT NULL, block_height INT UNSIGNED NOT NULL, is_coinbase TINYINT(1) UNSIGNED NOT NULL DEFAULT 0, amount BIGINT UNSIGNED NOT NULL, locking_script BLOB NOT NULL, PRIMARY KEY (transaction_hash, `index`)) ENGINE=InnoDB DEFAULT CHARSET=LATIN1");
+                    maintenanceDatabaseConnection.executeDdl("CREATE TABLE IF NOT EXISTS block_filters (block_id INT UNSIGNED NOT NULL, filter_type TINYINT UNSIGNED NOT NULL, filter_hash BINARY(32) NOT NULL, filter_header BINARY(32) NOT NULL, filter MEDIUMBLOB NOT NULL, PRIMARY KEY (block_id, filter_type), FOREIGN KEY block_filters_block_id_fk (block_id) REFERENCES blocks (id)) ENGINE=InnoDB DEFAULT CHARSET=LATIN1");
+                    maintenanceDatabaseConnection.executeSql(new Query("INSERT INTO metadata (version, timestamp) VALUES (4, UNIX_TIMESTAMP())"));
+                    upgradedVersion = 4;
+                }
+            }
+            catch (final DatabaseException exception) {
+                Logger.error("Unable to upgrade database from v" + upgradedVersion + ".", exception);
+                return false;
+            }
+
+            return (upgradedVersion >= requiredVersion);
+        }
+    };
+
+    public static final DatabaseInitializer.DatabaseUpgradeHandler<Connection> STRATUM_DATABASE_UPGRADE_HANDLER = new DatabaseInitializer.DatabaseUpgradeHandler<Connection>() {
+        @Override
+        public Boolean onUpgrade(final com.softwareverde.database.DatabaseConnection<Connection> maintenanceDatabaseConnection, final Integer currentVersion, final Integer requiredVersion) {
+            Integer upgradedVersion = currentVersion;
+
+            try {
+                if ( (upgradedVersion < 2) && (requiredVersion >= 2) ) {
+                    // v2: worker_shares stores the aggregated difficulty and share count of each flushed batch...
+                    maintenanceDatabaseConnection.executeDdl("ALTER TABLE worker_shares MODIFY difficulty BIGINT UNSIGNED NOT NULL, ADD COLUMN share_count INT UNSIGNED NOT NULL DEFAULT 1 AFTER difficulty");
+                    maintenanceDatabaseConnection.executeSql(new Query("INSERT INTO metadata (version, timestamp) VALUES (2, UNIX_TIMESTAMP())"));
+                    upgradedVersion = 2;
+                }
+            }
+            catch (final DatabaseException exception) {
+                Logger.error("Unable to upgrade stratum database from v" + upgradedVersion + ".", exception);
+                return false;
+            }
+
+            return (upgradedVersion >= requiredVersion);
+        }
+    };
+
+    public static final InitFile BITCOIN = new InitFile("/sql/full_node/init_mysql.sql", BitcoinConstants.DATABASE_VERSION, BitcoinVerdeDatabase.DATABASE_UPGRADE_HANDLER);
+    public static final InitFile STRATUM = new InitFile("/sql/stratum/init_mysql.sql", BitcoinConstants.STRATUM_DATABASE_VERSION, BitcoinVerdeDatabase.STRATUM_DATABASE_UPGRADE_HANDLER);
 
     public static final Integer MAX_DATABASE_CONNECTION_COUNT = 64; // Increasing too much may cause MySQL to use excessive memory...
 
@@ -49,19 +103,8 @@ public class BitcoinVerdeDatabase implements Database {
         });
     }
 
-    public static final DatabaseInitializer.DatabaseUpgradeHandler<Connection> DATABASE_UPGRADE_HANDLER = new DatabaseInitializer.DatabaseUpgradeHandler<Connection>() {
-        @Override
-        public Boolean onUpgrade(final com.softwareverde.database.DatabaseConnection<Connection> maintenanceDatabaseConnection, final Integer currentVersion, final Integer requiredVersion) {
-            if ( (currentVersion < 3) && (requiredVersion <= 3) ) {
-                return false; // Upgrading from Verde v1 (DB v1-v2) is not supported.
-            }
-
-            return false;
-        }
-    };
-
     public static Database newInstance(final InitFile sqlInitFile, final DatabaseProperties databaseProperties, final BitcoinProperties bitcoinProperties, final Runnable onShutdownCallback) {
-        final DatabaseInitializer<Connection> databaseInitializer = new MysqlDatabaseInitializer(sqlInitFile.sqlInitFile, sqlInitFile.databaseVersion, BitcoinVerdeDatabase.DATABASE_UPGRADE_HANDLER);
+        final DatabaseInitializer<Connection> databaseInitializer = new MysqlDatabaseInitializer(sqlInitFile.sqlInitFile, sqlInitFile.databaseVersion, sqlInitFile.databaseUpgradeHandler);
 
         try {
             if (databaseProperties.useEmbeddedDatabase()) {
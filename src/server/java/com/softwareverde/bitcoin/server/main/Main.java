@@ -11,17 +11,23 @@ import com.softwareverde.bitcoin.server.configuration.WalletProperties;
 import com.softwareverde.bitcoin.server.database.Database;
 import com.softwareverde.bitcoin.server.database.pool.DatabaseConnectionPool;
 import com.softwareverde.bitcoin.server.database.pool.hikari.HikariDatabaseConnectionPool;
+import com.softwareverde.bitcoin.server.metrics.Gauge;
+import com.softwareverde.bitcoin.server.metrics.Metrics;
+import com.softwareverde.bitcoin.server.metrics.PrometheusMetricsServlet;
 import com.softwareverde.bitcoin.server.module.AddressModule;
 import com.softwareverde.bitcoin.server.module.ChainValidationModule;
 import com.softwareverde.bitcoin.server.module.DatabaseModule;
 import com.softwareverde.bitcoin.server.module.MinerModule;
 import com.softwareverde.bitcoin.server.module.SignatureModule;
+import com.softwareverde.bitcoin.server.module.UtxoSnapshotModule;
 import com.softwareverde.bitcoin.server.module.explorer.ExplorerModule;
 import com.softwareverde.bitcoin.server.module.node.NodeModule;
 import com.softwareverde.bitcoin.server.module.proxy.ProxyModule;
 import com.softwareverde.bitcoin.server.module.stratum.StratumModule;
 import com.softwareverde.bitcoin.server.module.wallet.WalletModule;
 import com.softwareverde.bitcoin.util.BitcoinUtil;
+import com.softwareverde.http.server.HttpServer;
+import com.softwareverde.http.server.endpoint.Endpoint;
 import com.softwareverde.logging.LineNumberAnnotatedLog;
 import com.softwareverde.logging.Log;
 import com.softwareverde.logging.LogLevel;
@@ -46,6 +52,45 @@ public class Main {
         return new Configuration(configurationFile);
     }
 
+    /**
+     * Registers the DatabaseConnectionPool's gauges and serves the Metrics in the Prometheus text format at "/metrics".
+     *  Returns null if the metricsPort is not positive (i.e. the endpoint is disabled).
+     */
+    protected static HttpServer _startMetricsServer(final Integer metricsPort, final DatabaseConnectionPool databaseConnectionPool) {
+        if (Util.coalesce(metricsPort, 0) <= 0) { return null; }
+
+        Metrics.REGISTRY.registerGauge("bitcoin_database_connections_in_use", "Number of database connections currently checked out of the pool.", new Gauge.Source() {
+            @Override
+            public Number getValue() {
+                return databaseConnectionPool.getInUseConnectionCount();
+            }
+        });
+        Metrics.REGISTRY.registerGauge("bitcoin_database_connections_idle", "Number of idle database connections within the pool.", new Gauge.Source() {
+            @Override
+            public Number getValue() {
+                return databaseConnectionPool.getAliveConnectionCount();
+            }
+        });
+        Metrics.REGISTRY.registerGauge("bitcoin_database_connections", "Number of database connections within the pool.", new Gauge.Source() {
+            @Override
+            public Number getValue() {
+                return databaseConnectionPool.getCurrentPoolSize();
+            }
+        });
+
+        final HttpServer metricsServer = new HttpServer();
+        metricsServer.setPort(metricsPort);
+
+        final Endpoint endpoint = new Endpoint(new PrometheusMetricsServlet(Metrics.REGISTRY));
+        endpoint.setStrictPathEnabled(true);
+        endpoint.setPath("/metrics");
+        metricsServer.addEndpoint(endpoint);
+
+        metricsServer.start();
+        Logger.info("[Metrics Server Online: " + metricsPort + "]");
+        return metricsServer;
+    }
+
     public static void main(final String[] commandLineArguments) {
         Logger.setLog(LineNumberAnnotatedLog.getInstance());
         Logger.setLogLevel(LogLevel.ON);
@@ -95,7 +140,10 @@ public class Main {
 
         _printError("\tModule: VALIDATE");
         _printError("\tArguments: <Configuration File> [<Starting Block Hash>]");
+        _printError("\tArguments: <Configuration File> PARALLEL");
         _printError("\tDescription: Iterates through the entire block chain and identifies any invalid/corrupted blocks.");
+        _printError("\t\tWhen PARALLEL, blocks are validated concurrently against an in-memory UTXO set rebuilt from the genesis block; progress is checkpointed and resumed automatically.");
+        _printError("\t\tThe entire UTXO set is held in memory when PARALLEL, so the JVM's max heap (-Xmx) must be sized to the UTXO set.");
         _printError("\tArgument Description: <Configuration File>");
         _printError("\t\tThe path and filename of the configuration file for running the node.  Ex: conf/server.conf");
         _printError("\tArgument Description: <Starting Block Hash>");
@@ -104,6 +152,20 @@ public class Main {
         _printError("\t----------------");
         _printError("");
 
+        _printError("\tModule: SNAPSHOT");
+        _printError("\tArguments: <Configuration File> EXPORT <Snapshot File> [<Block Hash>]");
+        _printError("\tArguments: <Configuration File> IMPORT <Snapshot File>");
+        _printError("\tDescription: Exports the node's committed UTXO set to a snapshot file, or bootstraps an empty node from a snapshot file.");
+        _printError("\t\tThe node must be shut down before exporting.  Transactions at or below an imported snapshot's Block are not available.");
+        _printError("\tArgument Description: <Configuration File>");
+        _printError("\t\tThe path and filename of the configuration file for running the node.  Ex: conf/server.conf");
+        _printError("\tArgument Description: <Snapshot File>");
+        _printError("\t\tThe path and filename of the snapshot to be written or read.  Ex: utxo.snapshot");
+        _printError("\tArgument Description: <Block Hash>");
+        _printError("\t\tThe Block the committed UTXO set is expected to be at; the export fails if the UTXO set is at a different Block.");
+        _printError("\t----------------");
+        _printError("");
+
         _printError("\tModule: STRATUM");
         _printError("\tArguments: <Configuration File>");
         _printError("\tDescription: Starts a Stratum server for pooled mining.");
@@ -235,8 +297,14 @@ public class Main {
                 final DatabaseConnectionPool databaseConnectionFactory = new HikariDatabaseConnectionPool(databaseProperties);
                 final Environment environment = new Environment(database, databaseConnectionFactory);
 
+                final HttpServer metricsServer = _startMetricsServer(bitcoinProperties.getMetricsPort(), databaseConnectionFactory);
+
                 nodeModuleContainer.value = new NodeModule(bitcoinProperties, environment);
                 nodeModuleContainer.value.loop();
+
+                if (metricsServer != null) {
+                    metricsServer.stop();
+                }
                 Logger.flush();
             } break;
 
@@ -298,7 +366,43 @@ public class Main {
                 final Environment environment = new Environment(database, databaseConnectionPool);
 
                 final ChainValidationModule chainValidationModule = new ChainValidationModule(bitcoinProperties, environment, startingBlockHash);
-                chainValidationModule.run();
+                if (Util.areEqual("PARALLEL", startingBlockHash.toUpperCase())) {
+                    chainValidationModule.runParallel();
+                }
+                else {
+                    chainValidationModule.run();
+                }
+                Logger.flush();
+            } break;
+
+            case "SNAPSHOT": {
+                if (_arguments.length < 4) {
+                    _printUsage();
+                    BitcoinUtil.exitFailure();
+                    break;
+                }
+
+                final String configurationFilename = _arguments[1];
+                final String action = _arguments[2];
+                final String snapshotFilename = _arguments[3];
+                final String blockHash = (_arguments.length > 4 ? _arguments[4] : "");
+
+                final Configuration configuration = _loadConfigurationFile(configurationFilename);
+                final BitcoinProperties bitcoinProperties = configuration.getBitcoinProperties();
+                final DatabaseProperties databaseProperties = configuration.getBitcoinDatabaseProperties();
+
+                final Database database = BitcoinVerdeDatabase.newInstance(BitcoinVerdeDatabase.BITCOIN, databaseProperties, bitcoinProperties);
+                if (database == null) {
+                    Logger.error("Error initializing database.");
+                    BitcoinUtil.exitFailure();
+                }
+                Logger.info("[Database Online]");
+
+                final DatabaseConnectionPool databaseConnectionPool = new HikariDatabaseConnectionPool(databaseProperties);
+                final Environment environment = new Environment(database, databaseConnectionPool);
+
+                final UtxoSnapshotModule utxoSnapshotModule = new UtxoSnapshotModule(bitcoinProperties, environment);
+                utxoSnapshotModule.run(action, snapshotFilename, blockHash);
                 Logger.flush();
             } break;
 
@@ -0,0 +1,27 @@
+package com.softwareverde.bitcoin.server.metrics;
+
+import com.softwareverde.http.server.servlet.Servlet;
+import com.softwareverde.http.server.servlet.request.Request;
+import com.softwareverde.http.server.servlet.response.Response;
+
+/**
+ * Serves every Metric within the MetricsRegistry in the Prometheus text exposition format (version 0.0.4).
+ */
+public class PrometheusMetricsServlet implements Servlet {
+    public static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    protected final MetricsRegistry _metricsRegistry;
+
+    public PrometheusMetricsServlet(final MetricsRegistry metricsRegistry) {
+        _metricsRegistry = metricsRegistry;
+    }
+
+    @Override
+    public Response onRequest(final Request request) {
+        final Response response = new Response();
+        response.setCode(Response.Codes.OK);
+        response.setHeader("Content-Type", CONTENT_TYPE);
+        response.setContent(_metricsRegistry.toPrometheusText());
+        return response;
+    }
+}
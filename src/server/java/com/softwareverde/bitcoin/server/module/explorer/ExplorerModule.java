@@ -2,6 +2,7 @@ package com.softwareverde.bitcoin.server.module.explorer;
 
 import com.softwareverde.bitcoin.server.configuration.ExplorerProperties;
 import com.softwareverde.bitcoin.server.module.explorer.api.Environment;
+import com.softwareverde.bitcoin.server.module.explorer.api.ExplorerCache;
 import com.softwareverde.bitcoin.server.module.explorer.api.endpoint.AnnouncementsApi;
 import com.softwareverde.bitcoin.server.module.explorer.api.endpoint.BlockchainApi;
 import com.softwareverde.bitcoin.server.module.explorer.api.endpoint.BlocksApi;
@@ -24,6 +25,7 @@ public class ExplorerModule {
     protected final HttpServer _apiServer = new HttpServer();
     protected final ThreadPool _threadPool = new MainThreadPool(512, 1000L);
     protected final ExplorerProperties _explorerProperties;
+    protected final ExplorerCache _explorerCache;
     protected final AnnouncementsApi _announcementsApi;
 
     protected <T extends Servlet> void _assignEndpoint(final String path, final T servlet) {
@@ -48,11 +50,12 @@ public class ExplorerModule {
 
         _apiServer.setPort(_explorerProperties.getPort());
 
-        _announcementsApi = new AnnouncementsApi(_explorerProperties);
+        _explorerCache = new ExplorerCache(_explorerProperties.getCacheByteCount());
+        _announcementsApi = new AnnouncementsApi(_explorerProperties, _explorerCache);
 
         { // Api Endpoints
             final String apiRootPath = "/api";
-            final Environment environment = new Environment(_explorerProperties, _threadPool);
+            final Environment environment = new Environment(_explorerProperties, _explorerCache, _threadPool);
 
             { // Api v1
                 final String v1ApiPrePath = (apiRootPath + "/v1");
@@ -89,6 +92,7 @@ public class ExplorerModule {
 
     public void start() {
         _apiServer.start();
+        _announcementsApi.checkRpcConnection();
     }
 
     public void stop() {
@@ -99,6 +103,9 @@ public class ExplorerModule {
     public void loop() {
         while (! Thread.interrupted()) {
             try { Thread.sleep(10000L); } catch (final Exception exception) { break; }
+
+            // Keep the announcement hook connected even without WebSocket clients so that cached volatile responses are invalidated...
+            _announcementsApi.checkRpcConnection();
         }
     }
 }
\ No newline at end of file
@@ -10,10 +10,12 @@ import java.net.Socket;
 
 public class Environment implements com.softwareverde.http.server.servlet.routed.Environment {
     protected final ExplorerProperties _explorerProperties;
+    protected final ExplorerCache _explorerCache;
     protected final ThreadPool _threadPool;
 
-    public Environment(final ExplorerProperties explorerProperties, final ThreadPool threadPool) {
+    public Environment(final ExplorerProperties explorerProperties, final ExplorerCache explorerCache, final ThreadPool threadPool) {
         _explorerProperties = explorerProperties;
+        _explorerCache = explorerCache;
         _threadPool = threadPool;
     }
 
@@ -21,6 +23,10 @@ public class Environment implements com.softwareverde.http.server.servlet.routed
         return _explorerProperties;
     }
 
+    public ExplorerCache getExplorerCache() {
+        return _explorerCache;
+    }
+
     public ThreadPool getThreadPool() {
         return _threadPool;
     }
@@ -0,0 +1,245 @@
+package com.softwareverde.bitcoin.server.module.explorer.api;
+
+import com.softwareverde.cryptography.hash.sha256.Sha256Hash;
+import com.softwareverde.json.Json;
+import com.softwareverde.util.Util;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * An in-process cache of node RPC responses served by the Explorer API, bounded by (approximate) byte count.
+ *  Immutable entries (e.g. sufficiently-confirmed Blocks and Transactions) are retained until evicted as the least-recently used.
+ *  Volatile entries (e.g. responses relative to the chain tip) are discarded whenever a new Block is announced.
+ *  Entries are stored serialized; every lookup returns a new Json instance so that callers may modify the result.
+ */
+public class ExplorerCache {
+    public static final Long DEFAULT_MAX_BYTE_COUNT = (64L * 1024L * 1024L);
+
+    /**
+     * The number of confirmations a Block must have before its height-indexed data is considered final.
+     */
+    public static final Integer MIN_CONFIRMATION_COUNT = 6;
+
+    protected static class CacheEntry {
+        public final String value;
+        public final Boolean isVolatile;
+        public final Long byteCount;
+
+        public CacheEntry(final String key, final String value, final Boolean isVolatile) {
+            this.value = value;
+            this.isVolatile = isVolatile;
+            this.byteCount = ((key.length() + value.length()) * 2L); // Strings are stored as UTF-16.
+        }
+    }
+
+    protected static Boolean _isNull(final String value) {
+        return ( (value == null) || value.isEmpty() || value.equals("null") );
+    }
+
+    protected final Long _maxByteCount;
+    protected final LinkedHashMap<String, CacheEntry> _entries = new LinkedHashMap<String, CacheEntry>(16, 0.75F, true);
+    protected final HashMap<Sha256Hash, Long> _recentBlockHeights = new HashMap<Sha256Hash, Long>();
+    protected Long _byteCount = 0L;
+    protected Long _headBlockHeight = null;
+    protected Long _generation = 0L;
+
+    protected void _removeEntry(final Iterator<Map.Entry<String, CacheEntry>> iterator, final CacheEntry cacheEntry) {
+        iterator.remove();
+        _byteCount -= cacheEntry.byteCount;
+    }
+
+    protected void _removeVolatileEntries() {
+        _generation += 1L;
+
+        final Iterator<Map.Entry<String, CacheEntry>> iterator = _entries.entrySet().iterator();
+        while (iterator.hasNext()) {
+            final Map.Entry<String, CacheEntry> entry = iterator.next();
+            final CacheEntry cacheEntry = entry.getValue();
+            if (cacheEntry.isVolatile) {
+                _removeEntry(iterator, cacheEntry);
+            }
+        }
+    }
+
+    protected void _put(final String key, final Json json, final Boolean isVolatile) {
+        final CacheEntry cacheEntry = new CacheEntry(key, json.toString(), isVolatile);
+        if (cacheEntry.byteCount > _maxByteCount) { return; }
+
+        final CacheEntry replacedCacheEntry = _entries.put(key, cacheEntry);
+        if (replacedCacheEntry != null) {
+            _byteCount -= replacedCacheEntry.byteCount;
+        }
+        _byteCount += cacheEntry.byteCount;
+
+        final Iterator<Map.Entry<String, CacheEntry>> iterator = _entries.entrySet().iterator();
+        while ( (_byteCount > _maxByteCount) && iterator.hasNext() ) {
+            final Map.Entry<String, CacheEntry> entry = iterator.next();
+            _removeEntry(iterator, entry.getValue());
+        }
+    }
+
+    protected void _addBlockHeader(final Sha256Hash blockHash, final Long blockHeight) {
+        if ( (_headBlockHeight == null) || (blockHeight > _headBlockHeight) ) {
+            _headBlockHeight = blockHeight;
+        }
+
+        _recentBlockHeights.put(blockHash, blockHeight);
+
+        final Iterator<Map.Entry<Sha256Hash, Long>> iterator = _recentBlockHeights.entrySet().iterator();
+        while (iterator.hasNext()) {
+            final Map.Entry<Sha256Hash, Long> entry = iterator.next();
+            final Long recentBlockHeight = entry.getValue();
+            if (_isBlockHeightFinal(recentBlockHeight)) {
+                iterator.remove();
+            }
+        }
+    }
+
+    protected Boolean _isBlockHeightFinal(final Long blockHeight) {
+        if (_headBlockHeight == null) { return false; }
+
+        final long confirmationCount = ((_headBlockHeight - blockHeight) + 1L);
+        return (confirmationCount >= MIN_CONFIRMATION_COUNT);
+    }
+
+    protected Boolean _isBlockFinal(final Sha256Hash blockHash) {
+        if (_headBlockHeight == null) { return false; }
+        return (! _recentBlockHeights.containsKey(blockHash));
+    }
+
+    public ExplorerCache() {
+        this(DEFAULT_MAX_BYTE_COUNT);
+    }
+
+    public ExplorerCache(final Long maxByteCount) {
+        _maxByteCount = maxByteCount;
+    }
+
+    /**
+     * Returns a copy of the cached Json, or null if the key is not cached.
+     */
+    public Json get(final String key) {
+        final String value;
+        synchronized (this) {
+            final CacheEntry cacheEntry = _entries.get(key);
+            if (cacheEntry == null) { return null; }
+            value = cacheEntry.value;
+        }
+
+        return Json.parse(value);
+    }
+
+    /**
+     * Caches the Json until it is evicted by size.
+     *  The Json must represent data that will not change, see: ExplorerCache::isBlockFinal and ExplorerCache::isTransactionFinal.
+     */
+    public synchronized void putImmutable(final String key, final Json json) {
+        _put(key, json, false);
+    }
+
+    /**
+     * Caches the Json until the next Block is announced.
+     *  The generation must be the value of ExplorerCache::getGeneration from before the Json was requested from the node;
+     *  if volatile entries have since been invalidated then the Json may already be stale and is not cached.
+     */
+    public synchronized void putVolatile(final String key, final Json json, final Long generation) {
+        if (_headBlockHeight == null) { return; } // Without the announcement hook, volatile entries would never be invalidated.
+        if (! Util.areEqual(_generation, generation)) { return; }
+
+        _put(key, json, true);
+    }
+
+    public synchronized Long getGeneration() {
+        return _generation;
+    }
+
+    /**
+     * Returns true if the Block at the provided height on the main chain has enough confirmations to be considered final.
+     */
+    public synchronized Boolean isBlockHeightFinal(final Long blockHeight) {
+        if (blockHeight == null) { return false; }
+        return _isBlockHeightFinal(blockHeight);
+    }
+
+    /**
+     * Returns true if the Block has not been announced within the last MIN_CONFIRMATION_COUNT blocks.
+     *  A Block's contents never change, but the metadata of its Transactions may change while the Block is near the tip.
+     */
+    public synchronized Boolean isBlockFinal(final Sha256Hash blockHash) {
+        return _isBlockFinal(blockHash);
+    }
+
+    /**
+     * Returns true if the (non-raw) Transaction Json will not change: the Transaction must be mined, its Blocks must be final,
+     *  and, if the Transaction is an SLP Transaction, its SLP validity must already be determined.
+     */
+    public synchronized Boolean isTransactionFinal(final Json transactionJson) {
+        final Json blockHashesJson = transactionJson.get("blocks");
+        final int blockCount = blockHashesJson.length();
+        if (blockCount == 0) { return false; }
+
+        for (int i = 0; i < blockCount; ++i) {
+            final Sha256Hash blockHash = Sha256Hash.fromHexString(blockHashesJson.getString(i));
+            if (blockHash == null) { return false; }
+            if (! _isBlockFinal(blockHash)) { return false; }
+        }
+
+        final Json slpJson = transactionJson.get("slp");
+        if (slpJson.hasKey("isValid")) {
+            final String isValid = slpJson.getString("isValid");
+            if (_isNull(isValid)) { return false; }
+        }
+
+        return true;
+    }
+
+    /**
+     * Records the announced BlockHeader and discards all volatile entries.
+     */
+    public synchronized void onNewBlockHeader(final Sha256Hash blockHash, final Long blockHeight) {
+        if ( (blockHash != null) && (blockHeight != null) ) {
+            _addBlockHeader(blockHash, blockHeight);
+        }
+
+        _removeVolatileEntries();
+    }
+
+    /**
+     * Seeds the recent Blocks from the BlockHeaders Json (as returned by NodeJsonRpcConnection::getBlockHeaders).
+     *  Until the recent Blocks are known, no Block or Transaction is considered final.
+     */
+    public synchronized void setRecentBlockHeaders(final Json blockHeadersJson) {
+        final int blockHeaderCount = blockHeadersJson.length();
+        for (int i = 0; i < blockHeaderCount; ++i) {
+            final Json blockHeaderJson = blockHeadersJson.get(i);
+            final Sha256Hash blockHash = Sha256Hash.fromHexString(blockHeaderJson.getString("hash"));
+            final Long blockHeight = blockHeaderJson.getLong("height");
+            if (blockHash == null) { continue; }
+
+            _addBlockHeader(blockHash, blockHeight);
+        }
+
+        _removeVolatileEntries();
+    }
+
+    /**
+     * Discards all volatile entries and forgets the recent Blocks.
+     *  Invoked when the announcement hook is lost, since Blocks may have been missed.
+     */
+    public synchronized void reset() {
+        _removeVolatileEntries();
+        _recentBlockHeights.clear();
+        _headBlockHeight = null;
+    }
+
+    public synchronized Long getByteCount() {
+        return _byteCount;
+    }
+
+    public synchronized Integer getEntryCount() {
+        return _entries.size();
+    }
+}
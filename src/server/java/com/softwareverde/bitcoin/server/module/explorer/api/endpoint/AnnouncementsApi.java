@@ -1,8 +1,10 @@
 package com.softwareverde.bitcoin.server.module.explorer.api.endpoint;
 
 import com.softwareverde.bitcoin.server.configuration.ExplorerProperties;
+import com.softwareverde.bitcoin.server.module.explorer.api.ExplorerCache;
 import com.softwareverde.bitcoin.server.module.node.rpc.NodeJsonRpcConnection;
 import com.softwareverde.concurrent.pool.MainThreadPool;
+import com.softwareverde.cryptography.hash.sha256.Sha256Hash;
 import com.softwareverde.http.server.servlet.WebSocketServlet;
 import com.softwareverde.http.server.servlet.request.WebSocketRequest;
 import com.softwareverde.http.server.servlet.response.WebSocketResponse;
@@ -34,6 +36,7 @@ public class AnnouncementsApi implements WebSocketServlet {
     protected static final AtomicLong _nextSocketId = new AtomicLong(1L);
 
     protected final ExplorerProperties _explorerProperties;
+    protected final ExplorerCache _explorerCache;
     protected final Object _socketConnectionMutex = new Object();
     protected Boolean _isShuttingDown = false;
     protected JsonSocket _socketConnection = null; // TODO: Maintain reference to NodeJsonRpcConnection instead.
@@ -81,6 +84,9 @@ public class AnnouncementsApi implements WebSocketServlet {
 
                 if (jsonSocket != null) {
                     jsonSocket.close();
+
+                    // Announcements may have been missed while disconnected...
+                    _explorerCache.reset();
                 }
             }
 
@@ -95,6 +101,7 @@ public class AnnouncementsApi implements WebSocketServlet {
                 final Boolean wasSuccessful = nodeJsonRpcConnection.upgradeToAnnouncementHook(_announcementHookCallback);
                 if (wasSuccessful) {
                     _socketConnection = nodeJsonRpcConnection.getJsonSocket();
+                    _loadRecentBlockHeaders();
                 }
             }
             catch (final Exception exception) {
@@ -103,8 +110,31 @@ public class AnnouncementsApi implements WebSocketServlet {
         }
     }
 
-    public AnnouncementsApi(final ExplorerProperties explorerProperties) {
+    /**
+     * Seeds the ExplorerCache with the most recent BlockHeaders.
+     *  Must be invoked after the announcement hook is installed so that no Block can be missed between the two.
+     */
+    protected void _loadRecentBlockHeaders() {
+        final String bitcoinRpcUrl = _explorerProperties.getBitcoinRpcUrl();
+        final Integer bitcoinRpcPort = _explorerProperties.getBitcoinRpcPort();
+
+        try (final NodeJsonRpcConnection nodeJsonRpcConnection = new NodeJsonRpcConnection(bitcoinRpcUrl, bitcoinRpcPort, _threadPool)) {
+            final Json rpcResponseJson = nodeJsonRpcConnection.getBlockHeaders(ExplorerCache.MIN_CONFIRMATION_COUNT, false);
+            if ( (rpcResponseJson == null) || (! rpcResponseJson.getBoolean("wasSuccess")) ) {
+                Logger.debug("Unable to load recent BlockHeaders.");
+                return;
+            }
+
+            _explorerCache.setRecentBlockHeaders(rpcResponseJson.get("blockHeaders"));
+        }
+        catch (final Exception exception) {
+            Logger.warn(exception);
+        }
+    }
+
+    public AnnouncementsApi(final ExplorerProperties explorerProperties, final ExplorerCache explorerCache) {
         _explorerProperties = explorerProperties;
+        _explorerCache = explorerCache;
     }
 
     protected final MainThreadPool _threadPool = new MainThreadPool(256, 1000L);
@@ -139,6 +169,12 @@ public class AnnouncementsApi implements WebSocketServlet {
     }
 
     protected void _onNewBlock(final Json blockJson) {
+        { // Invalidate cached responses that depend upon the chain tip...
+            final Sha256Hash blockHash = Sha256Hash.fromHexString(blockJson.getString("hash"));
+            final Long blockHeight = (blockJson.hasKey("height") ? blockJson.getLong("height") : null);
+            _explorerCache.onNewBlockHeader(blockHash, blockHeight);
+        }
+
         try {
             QUEUE_WRITE_LOCK.lock();
 
@@ -230,6 +266,13 @@ public class AnnouncementsApi implements WebSocketServlet {
         }
     }
 
+    /**
+     * Ensures the announcement hook to the node is connected, reconnecting if necessary.
+     */
+    public void checkRpcConnection() {
+        _checkRpcConnection();
+    }
+
     public void shutdown() {
         _isShuttingDown = true;
 
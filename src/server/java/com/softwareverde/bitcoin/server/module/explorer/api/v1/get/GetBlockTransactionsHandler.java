@@ -1,6 +1,7 @@
 package com.softwareverde.bitcoin.server.module.explorer.api.v1.get;
 
 import com.softwareverde.bitcoin.server.module.explorer.api.Environment;
+import com.softwareverde.bitcoin.server.module.explorer.api.ExplorerCache;
 import com.softwareverde.bitcoin.server.module.explorer.api.endpoint.BlocksApi;
 import com.softwareverde.bitcoin.server.module.node.rpc.NodeJsonRpcConnection;
 import com.softwareverde.cryptography.hash.sha256.Sha256Hash;
@@ -51,6 +52,18 @@ public class GetBlockTransactionsHandler implements RequestHandler<Environment>
             return new JsonResponse(Response.Codes.BAD_REQUEST, result);
         }
 
+        final ExplorerCache explorerCache = environment.getExplorerCache();
+        final String cacheKey = ("block-transactions:" + blockHash + ":" + pageSize + ":" + pageNumber);
+        { // Serve the transactions of final Blocks without a node round-trip...
+            final Json cachedTransactionsJson = explorerCache.get(cacheKey);
+            if (cachedTransactionsJson != null) {
+                final BlocksApi.BlockTransactionsResult blockTransactionsResult = new BlocksApi.BlockTransactionsResult();
+                blockTransactionsResult.setWasSuccess(true);
+                blockTransactionsResult.setTransactions(cachedTransactionsJson);
+                return new JsonResponse(Response.Codes.OK, blockTransactionsResult);
+            }
+        }
+
         final Json rpcResponseJson;
         try (final NodeJsonRpcConnection nodeJsonRpcConnection = environment.getNodeJsonRpcConnection()) {
             if (nodeJsonRpcConnection == null) {
@@ -72,6 +85,10 @@ public class GetBlockTransactionsHandler implements RequestHandler<Environment>
         }
 
         final Json transactionsJson = rpcResponseJson.get("transactions");
+        if ( (transactionsJson.length() > 0) && explorerCache.isBlockFinal(blockHash) ) {
+            explorerCache.putImmutable(cacheKey, transactionsJson);
+        }
+
         final BlocksApi.BlockTransactionsResult blockTransactionsResult = new BlocksApi.BlockTransactionsResult();
         blockTransactionsResult.setWasSuccess(true);
         blockTransactionsResult.setTransactions(transactionsJson);
@@ -2,6 +2,7 @@ package com.softwareverde.bitcoin.server.module.explorer.api.v1.get;
 
 import com.softwareverde.bitcoin.server.module.api.ApiResult;
 import com.softwareverde.bitcoin.server.module.explorer.api.Environment;
+import com.softwareverde.bitcoin.server.module.explorer.api.ExplorerCache;
 import com.softwareverde.bitcoin.server.module.explorer.api.endpoint.BlocksApi;
 import com.softwareverde.bitcoin.server.module.node.rpc.NodeJsonRpcConnection;
 import com.softwareverde.http.querystring.GetParameters;
@@ -27,6 +28,22 @@ public class ListBlockHeadersHandler implements RequestHandler<Environment> {
         final GetParameters getParameters = request.getGetParameters();
         final PostParameters postParameters = request.getPostParameters();
 
+        final Long blockHeight = (getParameters.containsKey("blockHeight") ? Util.parseLong(getParameters.get("blockHeight"), null) : null);
+        final Integer maxBlockCount = (getParameters.containsKey("maxBlockCount") ? Util.parseInt(getParameters.get("maxBlockCount"), null) : null);
+
+        final ExplorerCache explorerCache = environment.getExplorerCache();
+        final String cacheKey = ("block-headers:" + blockHeight + ":" + maxBlockCount);
+        { // The most recent BlockHeaders are requested by every page load, and are cached until the next Block...
+            final Json cachedBlockHeadersJson = explorerCache.get(cacheKey);
+            if (cachedBlockHeadersJson != null) {
+                final BlocksApi.RecentBlocksResult recentBlocksResult = new BlocksApi.RecentBlocksResult();
+                recentBlocksResult.setWasSuccess(true);
+                recentBlocksResult.setBlockHeadersJson(cachedBlockHeadersJson);
+                return new JsonResponse(Response.Codes.OK, recentBlocksResult);
+            }
+        }
+
+        final Long cacheGeneration = explorerCache.getGeneration();
         try (final NodeJsonRpcConnection nodeJsonRpcConnection = environment.getNodeJsonRpcConnection()) {
             if (nodeJsonRpcConnection == null) {
                 final BlocksApi.RecentBlocksResult result = new BlocksApi.RecentBlocksResult();
@@ -37,9 +54,6 @@ public class ListBlockHeadersHandler implements RequestHandler<Environment> {
 
             final Json blockHeadersJson;
             {
-                final Long blockHeight = (getParameters.containsKey("blockHeight") ? Util.parseLong(getParameters.get("blockHeight"), null) : null);
-                final Integer maxBlockCount = (getParameters.containsKey("maxBlockCount") ? Util.parseInt(getParameters.get("maxBlockCount"), null) : null);
-
                 final Json rpcResponseJson = nodeJsonRpcConnection.getBlockHeaders(blockHeight, maxBlockCount, false);
                 if (rpcResponseJson == null) {
                     return new JsonResponse(Response.Codes.SERVER_ERROR, new ApiResult(false, "Request timed out."));
@@ -53,6 +67,14 @@ public class ListBlockHeadersHandler implements RequestHandler<Environment> {
                 blockHeadersJson = rpcResponseJson.get("blockHeaders");
             }
 
+            // BlockHeaders are listed in descending order, so the range is final once its first BlockHeader is final...
+            if (explorerCache.isBlockHeightFinal(blockHeight)) {
+                explorerCache.putImmutable(cacheKey, blockHeadersJson);
+            }
+            else {
+                explorerCache.putVolatile(cacheKey, blockHeadersJson, cacheGeneration);
+            }
+
             final BlocksApi.RecentBlocksResult recentBlocksResult = new BlocksApi.RecentBlocksResult();
             recentBlocksResult.setWasSuccess(true);
             recentBlocksResult.setBlockHeadersJson(blockHeadersJson);
@@ -4,6 +4,7 @@ import com.softwareverde.bitcoin.address.Address;
 import com.softwareverde.bitcoin.address.AddressInflater;
 import com.softwareverde.bitcoin.server.module.api.ApiResult;
 import com.softwareverde.bitcoin.server.module.explorer.api.Environment;
+import com.softwareverde.bitcoin.server.module.explorer.api.ExplorerCache;
 import com.softwareverde.bitcoin.server.module.explorer.api.endpoint.SearchApi;
 import com.softwareverde.bitcoin.server.module.node.rpc.NodeJsonRpcConnection;
 import com.softwareverde.cryptography.hash.sha256.Sha256Hash;
@@ -39,6 +40,19 @@ public class SearchHandler implements RequestHandler<Environment> {
 
         final Boolean rawFormat = (getParameters.containsKey("rawFormat") ? Util.parseBool(getParameters.get("rawFormat")) : null);
 
+        final ExplorerCache explorerCache = environment.getExplorerCache();
+        final String cacheKey = ("search:" + (Util.coalesce(rawFormat) ? "raw:" : "") + queryParam.toLowerCase());
+        { // Serve previously-found immutable objects without a node round-trip...
+            final Json cachedResultJson = explorerCache.get(cacheKey);
+            if (cachedResultJson != null) {
+                final SearchApi.SearchResult searchResult = new SearchApi.SearchResult();
+                searchResult.setWasSuccess(true);
+                searchResult.setObjectType(SearchApi.SearchResult.ObjectType.valueOf(cachedResultJson.getString("objectType")));
+                searchResult.setObject(cachedResultJson.get("object"));
+                return new JsonResponse(Response.Codes.OK, searchResult);
+            }
+        }
+
         try (final NodeJsonRpcConnection nodeJsonRpcConnection = environment.getNodeJsonRpcConnection()) {
             if (nodeJsonRpcConnection == null) {
                 final SearchApi.SearchResult result = new SearchApi.SearchResult();
@@ -49,6 +63,7 @@ public class SearchHandler implements RequestHandler<Environment> {
 
             SearchApi.SearchResult.ObjectType objectType = null;
             Jsonable object = null;
+            Boolean isCacheable = false;
             {
                 final int hashCharacterLength = 64;
 
@@ -133,11 +148,20 @@ public class SearchHandler implements RequestHandler<Environment> {
                     }
 
                     if (queryBlockResponseJson.getBoolean("wasSuccess")) {
+                        final Boolean isBlockFinal;
+                        if (queryParam.length() == hashCharacterLength) {
+                            isBlockFinal = explorerCache.isBlockFinal(Sha256Hash.fromHexString(queryParam));
+                        }
+                        else {
+                            isBlockFinal = explorerCache.isBlockHeightFinal(Util.parseLong(queryParam));
+                        }
+
                         if (Util.coalesce(rawFormat)) {
                             final String blockHex = queryBlockResponseJson.getString("block");
 
                             object = SearchApi.makeRawObjectJson(blockHex);
                             objectType = SearchApi.SearchResult.ObjectType.BLOCK;
+                            isCacheable = isBlockFinal;
                         }
                         else {
                             final Json blockJson = queryBlockResponseJson.get("block");
@@ -145,6 +169,7 @@ public class SearchHandler implements RequestHandler<Environment> {
 
                             object = blockJson;
                             objectType = (isFullBlock ? SearchApi.SearchResult.ObjectType.BLOCK : SearchApi.SearchResult.ObjectType.BLOCK_HEADER);
+                            isCacheable = (isFullBlock && isBlockFinal); // A BlockHeader becomes a full Block once it has been downloaded.
                         }
                     }
                 }
@@ -163,18 +188,27 @@ public class SearchHandler implements RequestHandler<Environment> {
 
                             object = SearchApi.makeRawObjectJson(transactionHex);
                             objectType = SearchApi.SearchResult.ObjectType.TRANSACTION;
+                            isCacheable = true; // The raw Transaction is committed to by its hash.
                         }
                         else {
                             final Json transactionJson = queryTransactionResponseJson.get("transaction");
 
                             object = transactionJson;
                             objectType = SearchApi.SearchResult.ObjectType.TRANSACTION;
+                            isCacheable = explorerCache.isTransactionFinal(transactionJson);
                         }
                     }
                 }
             }
             final Boolean wasSuccess = (objectType != null);
 
+            if (wasSuccess && isCacheable) {
+                final Json cachedResultJson = new Json(false);
+                cachedResultJson.put("objectType", objectType);
+                cachedResultJson.put("object", object);
+                explorerCache.putImmutable(cacheKey, cachedResultJson);
+            }
+
             final SearchApi.SearchResult searchResult = new SearchApi.SearchResult();
             searchResult.setWasSuccess(wasSuccess);
             searchResult.setObjectType(objectType);
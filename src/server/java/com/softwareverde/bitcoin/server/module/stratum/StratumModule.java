@@ -1,11 +1,9 @@
 package com.softwareverde.bitcoin.server.module.stratum;
 
 import com.softwareverde.bitcoin.block.Block;
-import com.softwareverde.bitcoin.miner.pool.WorkerId;
 import com.softwareverde.bitcoin.server.Environment;
 import com.softwareverde.bitcoin.server.configuration.StratumProperties;
 import com.softwareverde.bitcoin.server.database.Database;
-import com.softwareverde.bitcoin.server.database.DatabaseConnection;
 import com.softwareverde.bitcoin.server.database.DatabaseConnectionFactory;
 import com.softwareverde.bitcoin.server.module.stratum.api.endpoint.StratumDataHandler;
 import com.softwareverde.bitcoin.server.module.stratum.api.endpoint.account.AuthenticateApi;
@@ -20,15 +18,12 @@ import com.softwareverde.bitcoin.server.module.stratum.api.endpoint.account.work
 import com.softwareverde.bitcoin.server.module.stratum.api.endpoint.pool.PoolHashRateApi;
 import com.softwareverde.bitcoin.server.module.stratum.api.endpoint.pool.PoolPrototypeBlockApi;
 import com.softwareverde.bitcoin.server.module.stratum.api.endpoint.pool.PoolWorkerApi;
-import com.softwareverde.bitcoin.server.module.stratum.database.AccountDatabaseManager;
 import com.softwareverde.bitcoin.server.module.stratum.rpc.StratumRpcServer;
 import com.softwareverde.concurrent.pool.MainThreadPool;
-import com.softwareverde.database.DatabaseException;
 import com.softwareverde.http.server.HttpServer;
 import com.softwareverde.http.server.endpoint.Endpoint;
 import com.softwareverde.http.server.servlet.DirectoryServlet;
 import com.softwareverde.http.server.servlet.Servlet;
-import com.softwareverde.logging.Logger;
 import com.softwareverde.util.type.time.SystemTime;
 
 import java.io.File;
@@ -40,6 +35,7 @@ public class StratumModule {
     protected final StratumProperties _stratumProperties;
     protected final StratumServer _stratumServer;
     protected final StratumRpcServer _stratumRpcServer;
+    protected final WorkerShareQueue _workerShareQueue;
     protected final HttpServer _apiServer = new HttpServer();
 
     protected final MainThreadPool _stratumThreadPool = new MainThreadPool(256, 60000L);
@@ -60,24 +56,13 @@ public class StratumModule {
         final Database database = _environment.getDatabase();
         final DatabaseConnectionFactory databaseConnectionFactory = database.newConnectionFactory();
 
+        _workerShareQueue = new WorkerShareQueue(databaseConnectionFactory);
+
         _stratumServer = new StratumServer(_stratumProperties, _stratumThreadPool);
         _stratumServer.setWorkerShareCallback(new StratumServer.WorkerShareCallback() {
             @Override
             public void onNewWorkerShare(final String workerUsername, final Integer shareDifficulty) {
-                try (final DatabaseConnection databaseConnection = databaseConnectionFactory.newConnection()) {
-                    final AccountDatabaseManager accountDatabaseManager = new AccountDatabaseManager(databaseConnection);
-                    final WorkerId workerId = accountDatabaseManager.getWorkerId(workerUsername);
-                    if (workerId == null) {
-                        Logger.debug("Unknown worker: " + workerUsername);
-                    }
-                    else {
-                        accountDatabaseManager.addWorkerShare(workerId, shareDifficulty);
-                        Logger.debug("Added worker share: " + workerUsername + " " + shareDifficulty);
-                    }
-                }
-                catch (final DatabaseException databaseException) {
-                    Logger.warn("Unable to add worker share: " + workerUsername + " " + shareDifficulty, databaseException);
-                }
+                _workerShareQueue.addWorkerShare(workerUsername, shareDifficulty);
             }
         });
 
@@ -106,14 +91,13 @@ public class StratumModule {
             @Override
             public Long getHashesPerSecond() {
                 final Long hashesPerSecondMultiplier = (1L << 32);
-                final Integer shareDifficulty = _stratumServer.getShareDifficulty();
                 final Long startTimeInSeconds = _stratumServer.getCurrentBlockStartTimeInSeconds();
-                final Long shareCount = _stratumServer.getShareCount();
+                final Long shareDifficultySum = _stratumServer.getShareDifficultySum();
 
                 final Long now = _systemTime.getCurrentTimeInSeconds();
                 final Long duration = (now - startTimeInSeconds);
 
-                return (long) (shareDifficulty * hashesPerSecondMultiplier * (shareCount / duration.doubleValue()));
+                return (long) (hashesPerSecondMultiplier * (shareDifficultySum / duration.doubleValue()));
             }
         };
 
@@ -148,6 +132,7 @@ public class StratumModule {
     }
 
     public void loop() {
+        _workerShareQueue.start();
         _stratumRpcServer.start();
         _stratumServer.start();
         _apiServer.start();
@@ -159,5 +144,6 @@ public class StratumModule {
         _apiServer.stop();
         _stratumServer.stop();
         _stratumRpcServer.stop();
+        _workerShareQueue.stop();
     }
 }
\ No newline at end of file
@@ -0,0 +1,176 @@
+package com.softwareverde.bitcoin.server.module.stratum;
+
+import com.softwareverde.bitcoin.miner.pool.WorkerId;
+import com.softwareverde.bitcoin.server.database.DatabaseConnection;
+import com.softwareverde.bitcoin.server.database.DatabaseConnectionFactory;
+import com.softwareverde.bitcoin.server.module.stratum.database.AccountDatabaseManager;
+import com.softwareverde.bitcoin.server.module.stratum.database.WorkerShareTotal;
+import com.softwareverde.constable.list.List;
+import com.softwareverde.constable.list.mutable.MutableList;
+import com.softwareverde.database.DatabaseException;
+import com.softwareverde.logging.Logger;
+import com.softwareverde.util.timer.MilliTimer;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Aggregates accepted worker shares in memory and periodically stores each worker's totals as a single batched insert.
+ *  Shares are stored at least once every FLUSH_INTERVAL_MS, so at most that interval of shares is lost if the process terminates unexpectedly.
+ *  If the database is unavailable, the totals are retained (still aggregated per worker) and stored on the next flush.
+ */
+public class WorkerShareQueue {
+    public static final Long FLUSH_INTERVAL_MS = 5000L;
+    protected static final Integer MAX_QUEUED_SHARE_COUNT = 4096; // The queue is flushed early once this many shares are pending...
+
+    protected static class PendingShares {
+        public long difficultySum = 0L;
+        public int shareCount = 0;
+    }
+
+    protected final DatabaseConnectionFactory _databaseConnectionFactory;
+    protected final ConcurrentHashMap<String, WorkerId> _workerIds = new ConcurrentHashMap<String, WorkerId>();
+    protected final Object _mutex = new Object();
+    protected HashMap<String, PendingShares> _pendingShares = new HashMap<String, PendingShares>();
+    protected int _pendingShareCount = 0;
+
+    protected final Thread _thread;
+
+    protected void _requeueShares(final Map<String, PendingShares> pendingShares) {
+        synchronized (_mutex) {
+            for (final Map.Entry<String, PendingShares> entry : pendingShares.entrySet()) {
+                final String workerUsername = entry.getKey();
+                final PendingShares workerPendingShares = entry.getValue();
+
+                PendingShares queuedShares = _pendingShares.get(workerUsername);
+                if (queuedShares == null) {
+                    queuedShares = new PendingShares();
+                    _pendingShares.put(workerUsername, queuedShares);
+                }
+
+                queuedShares.difficultySum += workerPendingShares.difficultySum;
+                queuedShares.shareCount += workerPendingShares.shareCount;
+                _pendingShareCount += workerPendingShares.shareCount;
+            }
+        }
+    }
+
+    protected WorkerId _getWorkerId(final AccountDatabaseManager accountDatabaseManager, final String workerUsername) throws DatabaseException {
+        final WorkerId cachedWorkerId = _workerIds.get(workerUsername);
+        if (cachedWorkerId != null) { return cachedWorkerId; }
+
+        final WorkerId workerId = accountDatabaseManager.getWorkerId(workerUsername);
+        if (workerId == null) { return null; }
+
+        _workerIds.put(workerUsername, workerId);
+        return workerId;
+    }
+
+    protected void _storeWorkerShares(final AccountDatabaseManager accountDatabaseManager, final List<WorkerShareTotal> workerShareTotals) throws DatabaseException {
+        accountDatabaseManager.addWorkerShares(workerShareTotals);
+    }
+
+    protected void _flush() {
+        final HashMap<String, PendingShares> pendingShares;
+        synchronized (_mutex) {
+            if (_pendingShares.isEmpty()) { return; }
+
+            pendingShares = _pendingShares;
+            _pendingShares = new HashMap<String, PendingShares>();
+            _pendingShareCount = 0;
+        }
+
+        final MilliTimer flushTimer = new MilliTimer();
+        flushTimer.start();
+
+        try (final DatabaseConnection databaseConnection = _databaseConnectionFactory.newConnection()) {
+            final AccountDatabaseManager accountDatabaseManager = new AccountDatabaseManager(databaseConnection);
+
+            final MutableList<WorkerShareTotal> workerShareTotals = new MutableList<WorkerShareTotal>(pendingShares.size());
+            for (final Map.Entry<String, PendingShares> entry : pendingShares.entrySet()) {
+                final String workerUsername = entry.getKey();
+                final PendingShares workerPendingShares = entry.getValue();
+
+                final WorkerId workerId = _getWorkerId(accountDatabaseManager, workerUsername);
+                if (workerId == null) {
+                    Logger.debug("Unknown worker: " + workerUsername);
+                    continue;
+                }
+
+                workerShareTotals.add(new WorkerShareTotal(workerId, workerPendingShares.difficultySum, workerPendingShares.shareCount));
+            }
+
+            _storeWorkerShares(accountDatabaseManager, workerShareTotals);
+
+            flushTimer.stop();
+            Logger.debug("Stored shares for " + workerShareTotals.getCount() + " workers in " + flushTimer.getMillisecondsElapsed() + "ms.");
+        }
+        catch (final DatabaseException exception) {
+            Logger.warn("Unable to store worker shares.", exception);
+
+            // A cached worker may have been deleted; the ids are resolved again on the next flush...
+            _workerIds.clear();
+            _requeueShares(pendingShares);
+        }
+    }
+
+    public WorkerShareQueue(final DatabaseConnectionFactory databaseConnectionFactory) {
+        _databaseConnectionFactory = databaseConnectionFactory;
+
+        _thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                while (! Thread.interrupted()) {
+                    try {
+                        synchronized (_mutex) {
+                            if (_pendingShareCount < MAX_QUEUED_SHARE_COUNT) {
+                                _mutex.wait(FLUSH_INTERVAL_MS);
+                            }
+                        }
+                    }
+                    catch (final InterruptedException exception) { break; }
+
+                    _flush();
+                }
+            }
+        });
+        _thread.setName("Worker Share Queue");
+    }
+
+    /**
+     * Queues the share to be stored on the next flush.
+     *  This method does not access the database and is safe to call from the stratum socket's thread.
+     */
+    public void addWorkerShare(final String workerUsername, final Integer shareDifficulty) {
+        synchronized (_mutex) {
+            PendingShares pendingShares = _pendingShares.get(workerUsername);
+            if (pendingShares == null) {
+                pendingShares = new PendingShares();
+                _pendingShares.put(workerUsername, pendingShares);
+            }
+
+            pendingShares.difficultySum += shareDifficulty;
+            pendingShares.shareCount += 1;
+            _pendingShareCount += 1;
+
+            if (_pendingShareCount >= MAX_QUEUED_SHARE_COUNT) {
+                _mutex.notifyAll();
+            }
+        }
+    }
+
+    public void start() {
+        _thread.start();
+    }
+
+    /**
+     * Stops the background writer and stores any remaining queued shares.
+     */
+    public void stop() {
+        _thread.interrupt();
+        try { _thread.join(15000L); } catch (final Exception exception) { }
+
+        _flush();
+    }
+}
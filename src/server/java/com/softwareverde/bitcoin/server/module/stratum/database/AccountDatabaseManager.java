@@ -5,6 +5,7 @@ import com.softwareverde.bitcoin.address.AddressInflater;
 import com.softwareverde.bitcoin.miner.pool.AccountId;
 import com.softwareverde.bitcoin.miner.pool.WorkerId;
 import com.softwareverde.bitcoin.server.database.DatabaseConnection;
+import com.softwareverde.bitcoin.server.database.query.BatchedInsertQuery;
 import com.softwareverde.bitcoin.server.database.query.Query;
 import com.softwareverde.constable.bytearray.ByteArray;
 import com.softwareverde.constable.list.List;
@@ -232,9 +233,29 @@ public class AccountDatabaseManager {
         );
     }
 
+    /**
+     * Stores the aggregated shares of each worker as a single row per worker.
+     */
+    public void addWorkerShares(final List<WorkerShareTotal> workerShareTotals) throws DatabaseException {
+        if (workerShareTotals.isEmpty()) { return; }
+
+        final SystemTime systemTime = new SystemTime();
+        final Long timestamp = systemTime.getCurrentTimeInSeconds();
+
+        final BatchedInsertQuery batchedInsertQuery = new BatchedInsertQuery("INSERT INTO worker_shares (worker_id, difficulty, share_count, timestamp) VALUES (?, ?, ?, ?)");
+        for (final WorkerShareTotal workerShareTotal : workerShareTotals) {
+            batchedInsertQuery.setParameter(workerShareTotal.getWorkerId());
+            batchedInsertQuery.setParameter(workerShareTotal.getDifficultySum());
+            batchedInsertQuery.setParameter(workerShareTotal.getShareCount());
+            batchedInsertQuery.setParameter(timestamp);
+        }
+
+        _databaseConnection.executeSql(batchedInsertQuery);
+    }
+
     public Long getWorkerSharesCount(final WorkerId workerId) throws DatabaseException {
         final java.util.List<Row> rows = _databaseConnection.query(
-            new Query("SELECT COUNT(*) AS shares_count FROM worker_shares WHERE worker_id = ?")
+            new Query("SELECT COALESCE(SUM(share_count), 0) AS shares_count FROM worker_shares WHERE worker_id = ?")
                 .setParameter(workerId)
         );
         if (rows.isEmpty()) { return 0L; }
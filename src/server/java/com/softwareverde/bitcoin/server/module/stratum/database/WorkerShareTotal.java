@@ -0,0 +1,27 @@
+package com.softwareverde.bitcoin.server.module.stratum.database;
+
+import com.softwareverde.bitcoin.miner.pool.WorkerId;
+
+public class WorkerShareTotal {
+    protected final WorkerId _workerId;
+    protected final Long _difficultySum;
+    protected final Integer _shareCount;
+
+    public WorkerShareTotal(final WorkerId workerId, final Long difficultySum, final Integer shareCount) {
+        _workerId = workerId;
+        _difficultySum = difficultySum;
+        _shareCount = shareCount;
+    }
+
+    public WorkerId getWorkerId() {
+        return _workerId;
+    }
+
+    public Long getDifficultySum() {
+        return _difficultySum;
+    }
+
+    public Integer getShareCount() {
+        return _shareCount;
+    }
+}
@@ -25,6 +25,23 @@ public class BlockDeflaterTests {
         TestUtil.assertEqual(expectedBytes, blockBytes.getBytes());
     }
 
+    @Test
+    public void should_deflate_inflated_block_with_multi_byte_transaction_count() {
+        // Setup
+        final BlockInflater blockInflater = new BlockInflater();
+        final BlockDeflater blockDeflater = new BlockDeflater();
+
+        final byte[] expectedBytes = HexUtil.hexStringToByteArray(IoUtil.getResource("/blocks/00000000000000000051CFB8C9B8191EC4EF14F8F44F3E2290D67A8A0A29DD05"));
+        final Block block = blockInflater.fromBytes(expectedBytes);
+
+        // Action
+        final ByteArray blockBytes = blockDeflater.toBytes(block);
+
+        // Assert
+        Assert.assertTrue(block.getTransactions().getCount() >= 0xFD);
+        TestUtil.assertEqual(expectedBytes, blockBytes.getBytes());
+    }
+
     @Test
     public void should_calculate_correct_byte_count_for_block() {
         // Setup
@@ -0,0 +1,81 @@
+package com.softwareverde.bitcoin.block.filter;
+
+import com.softwareverde.bitcoin.block.Block;
+import com.softwareverde.bitcoin.block.BlockInflater;
+import com.softwareverde.bitcoin.transaction.script.locking.LockingScript;
+import com.softwareverde.constable.bytearray.ByteArray;
+import com.softwareverde.constable.bytearray.MutableByteArray;
+import com.softwareverde.constable.list.mutable.MutableList;
+import com.softwareverde.cryptography.hash.sha256.Sha256Hash;
+import com.softwareverde.siphash.SipHashUtil;
+import com.softwareverde.util.HexUtil;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+
+public class BlockFilterTests {
+    // The TestNet genesis Block (BIP-158 test vector #0).
+    protected static final String TESTNET_GENESIS_BLOCK = "0100000000000000000000000000000000000000000000000000000000000000000000003BA3EDFD7A7B12B27AC72C3E67768F617FC81BC3888A51323A9FB8AA4B1E5E4ADAE5494DFFFF001D1AA4AE180101000000010000000000000000000000000000000000000000000000000000000000000000FFFFFFFF4D04FFFF001D0104455468652054696D65732030332F4A616E2F32303039204368616E63656C6C6F72206F6E206272696E6B206F66207365636F6E64206261696C6F757420666F722062616E6B73FFFFFFFF0100F2052A01000000434104678AFDB0FE5548271967F1A67130B7105CD6A828E03909A67962E0EA1F61DEB649F6BC3F4CEF38C4F35504E51EC112DE5C384DF7BA0B8D578A4C702B6BF11D5FAC00000000";
+
+    @Test
+    public void should_calculate_sip_hash_reference_vectors() {
+        // Setup
+        final long key0 = 0x0706050403020100L; // Key: 000102030405060708090A0B0C0D0E0F
+        final long key1 = 0x0F0E0D0C0B0A0908L;
+
+        // Action
+        final long emptyHash = SipHashUtil.sipHash24(key0, key1, new MutableByteArray(0));
+        final long singleByteHash = SipHashUtil.sipHash24(key0, key1, ByteArray.fromHexString("00"));
+
+        // Assert
+        Assert.assertEquals(0x726FDB47DD0E0E31L, emptyHash);
+        Assert.assertEquals(0x74F839C593DC67FDL, singleByteHash);
+    }
+
+    @Test
+    public void should_build_basic_filter_for_testnet_genesis_block() {
+        // Setup
+        final BlockInflater blockInflater = new BlockInflater();
+        final Block block = blockInflater.fromBytes(HexUtil.hexStringToByteArray(TESTNET_GENESIS_BLOCK));
+        Assert.assertEquals(Sha256Hash.fromHexString("000000000933EA01AD0EE984209779BAAEC3CED90FA3F408719526F8D77F4943"), block.getHash());
+
+        final BlockFilterBuilder blockFilterBuilder = new BlockFilterBuilder();
+
+        // Action
+        final BlockFilter blockFilter = blockFilterBuilder.buildBasicBlockFilter(block, new MutableList<LockingScript>(0));
+        final Sha256Hash filterHeader = BlockFilter.calculateFilterHeader(blockFilter.getHash(), BlockFilter.GENESIS_PREVIOUS_FILTER_HEADER);
+
+        // Assert
+        Assert.assertEquals(ByteArray.fromHexString("019DFCA8"), blockFilter.getBytes());
+        Assert.assertEquals(Sha256Hash.fromHexString("21584579B7EB08997773E5AEFF3A7F932700042D0ED2A6129012B7D7AE81B750"), filterHeader);
+    }
+
+    @Test
+    public void golomb_coded_set_should_match_its_items() {
+        // Setup
+        final ByteArray key = ByteArray.fromHexString("000102030405060708090A0B0C0D0E0F");
+        final BlockFilterType blockFilterType = BlockFilterType.BASIC;
+
+        final ArrayList<ByteArray> items = new ArrayList<ByteArray>();
+        for (int i = 0; i < 64; ++i) {
+            items.add(MutableByteArray.wrap(new byte[] { (byte) i, (byte) (i * 7), (byte) 0xAB }));
+        }
+
+        final ArrayList<ByteArray> missingItems = new ArrayList<ByteArray>();
+        missingItems.add(ByteArray.fromHexString("DEADBEEF"));
+        missingItems.add(ByteArray.fromHexString("CAFEBABE"));
+
+        // Action
+        final GolombCodedSet golombCodedSet = GolombCodedSet.build(key, items, blockFilterType.p, blockFilterType.m);
+        final GolombCodedSet inflatedGolombCodedSet = GolombCodedSet.fromBytes(key, golombCodedSet.getBytes(), blockFilterType.p, blockFilterType.m);
+
+        // Assert
+        Assert.assertNotNull(inflatedGolombCodedSet);
+        Assert.assertEquals(Long.valueOf(items.size()), inflatedGolombCodedSet.getItemCount());
+        for (final ByteArray item : items) {
+            Assert.assertTrue(inflatedGolombCodedSet.matches(item));
+        }
+        Assert.assertFalse(inflatedGolombCodedSet.matchesAny(missingItems));
+    }
+}
@@ -0,0 +1,101 @@
+package com.softwareverde.bitcoin.bloomfilter;
+
+import com.softwareverde.bitcoin.address.AddressInflater;
+import com.softwareverde.bitcoin.block.Block;
+import com.softwareverde.bitcoin.block.BlockInflater;
+import com.softwareverde.bitcoin.block.merkleroot.PartialMerkleTree;
+import com.softwareverde.bitcoin.test.UnitTest;
+import com.softwareverde.bitcoin.transaction.Transaction;
+import com.softwareverde.bitcoin.transaction.TransactionBloomFilterMatcher;
+import com.softwareverde.bitcoin.transaction.input.TransactionInput;
+import com.softwareverde.bitcoin.transaction.output.identifier.TransactionOutputIdentifier;
+import com.softwareverde.bloomfilter.MutableBloomFilter;
+import com.softwareverde.constable.list.List;
+import com.softwareverde.util.HexUtil;
+import com.softwareverde.util.IoUtil;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.BitSet;
+
+public class BlockBloomFilterElementsTests extends UnitTest {
+    protected static Block loadBlock() {
+        final BlockInflater blockInflater = new BlockInflater();
+        final String blockData = IoUtil.getResource("/blocks/0000000000000000012F011B29194439757A67186A54C2614978F0D6192570F2");
+        return blockInflater.fromBytes(HexUtil.hexStringToByteArray(blockData));
+    }
+
+    protected static MutableBloomFilter createBloomFilter(final Block block, final int... transactionIndexes) {
+        final MutableBloomFilter bloomFilter = MutableBloomFilter.newInstance(128L, 0.01D, 0L);
+        final List<Transaction> transactions = block.getTransactions();
+        for (final int transactionIndex : transactionIndexes) {
+            final Transaction transaction = transactions.get(transactionIndex);
+            for (final TransactionInput transactionInput : transaction.getTransactionInputs()) {
+                final TransactionOutputIdentifier transactionOutputIdentifier = TransactionOutputIdentifier.fromTransactionInput(transactionInput);
+                bloomFilter.addItem(transactionOutputIdentifier.toBytes());
+            }
+        }
+        return bloomFilter;
+    }
+
+    @Override @Before
+    public void before() throws Exception {
+        super.before();
+    }
+
+    @Override @After
+    public void after() throws Exception {
+        super.after();
+    }
+
+    @Test
+    public void should_match_the_same_transactions_as_the_transaction_bloom_filter_matcher() {
+        // Setup
+        final AddressInflater addressInflater = new AddressInflater();
+        final Block block = BlockBloomFilterElementsTests.loadBlock();
+        final MutableBloomFilter bloomFilter = BlockBloomFilterElementsTests.createBloomFilter(block, 3, 4);
+        final TransactionBloomFilterMatcher transactionBloomFilterMatcher = new TransactionBloomFilterMatcher(bloomFilter, addressInflater);
+
+        final BlockBloomFilterElements blockBloomFilterElements = BlockBloomFilterElements.fromBlock(block, addressInflater);
+
+        // Action
+        final BitSet matchedTransactionIndexes = blockBloomFilterElements.getMatchedTransactionIndexes(bloomFilter, UpdateBloomFilterMode.READ_ONLY);
+
+        // Assert
+        Assert.assertTrue(matchedTransactionIndexes.get(3));
+        Assert.assertTrue(matchedTransactionIndexes.get(4));
+
+        final List<Transaction> transactions = block.getTransactions();
+        for (int i = 0; i < transactions.getCount(); ++i) {
+            final Transaction transaction = transactions.get(i);
+            Assert.assertEquals(transactionBloomFilterMatcher.shouldInclude(transaction), matchedTransactionIndexes.get(i));
+        }
+    }
+
+    @Test
+    public void should_build_the_same_partial_merkle_tree_and_reuse_it_for_identical_matches() {
+        // Setup
+        final AddressInflater addressInflater = new AddressInflater();
+        final Block block = BlockBloomFilterElementsTests.loadBlock();
+        final MutableBloomFilter bloomFilter = BlockBloomFilterElementsTests.createBloomFilter(block, 3, 4);
+        final MutableBloomFilter otherBloomFilter = BlockBloomFilterElementsTests.createBloomFilter(block, 3, 4);
+
+        final PartialMerkleTree expectedPartialMerkleTree = block.getPartialMerkleTree(bloomFilter);
+        final BlockBloomFilterElements blockBloomFilterElements = BlockBloomFilterElements.fromBlock(block, addressInflater);
+
+        // Action
+        final PartialMerkleTree partialMerkleTree = blockBloomFilterElements.getPartialMerkleTree(blockBloomFilterElements.getMatchedTransactionIndexes(bloomFilter, UpdateBloomFilterMode.READ_ONLY));
+        final PartialMerkleTree otherPartialMerkleTree = blockBloomFilterElements.getPartialMerkleTree(blockBloomFilterElements.getMatchedTransactionIndexes(otherBloomFilter, UpdateBloomFilterMode.READ_ONLY));
+
+        // Assert
+        Assert.assertEquals(expectedPartialMerkleTree.getFlags(), partialMerkleTree.getFlags());
+        Assert.assertEquals(expectedPartialMerkleTree.getHashes().getCount(), partialMerkleTree.getHashes().getCount());
+        for (int i = 0; i < partialMerkleTree.getHashes().getCount(); ++i) {
+            Assert.assertEquals(expectedPartialMerkleTree.getHashes().get(i), partialMerkleTree.getHashes().get(i));
+        }
+        Assert.assertEquals(block.getMerkleRoot(), partialMerkleTree.getMerkleRoot());
+        Assert.assertSame(partialMerkleTree, otherPartialMerkleTree);
+    }
+}
@@ -0,0 +1,111 @@
+package com.softwareverde.bitcoin.context.core;
+
+import com.softwareverde.bitcoin.block.header.BlockHeader;
+import com.softwareverde.bitcoin.block.header.MutableBlockHeader;
+import com.softwareverde.bitcoin.block.header.difficulty.Difficulty;
+import com.softwareverde.bitcoin.block.header.difficulty.work.BlockWork;
+import com.softwareverde.bitcoin.block.header.difficulty.work.ChainWork;
+import com.softwareverde.bitcoin.block.header.difficulty.work.MutableChainWork;
+import com.softwareverde.bitcoin.chain.time.MedianBlockTime;
+import com.softwareverde.bitcoin.test.UnitTest;
+import com.softwareverde.cryptography.hash.sha256.Sha256Hash;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class BlockHeaderWindowTests extends UnitTest {
+    protected static BlockHeader createBlockHeader(final Sha256Hash previousBlockHash, final Long timestamp) {
+        final MutableBlockHeader blockHeader = new MutableBlockHeader();
+        blockHeader.setVersion(BlockHeader.VERSION);
+        blockHeader.setPreviousBlockHash(previousBlockHash);
+        blockHeader.setTimestamp(timestamp);
+        blockHeader.setDifficulty(Difficulty.BASE_DIFFICULTY);
+        blockHeader.setNonce(0L);
+        return blockHeader;
+    }
+
+    @Override @Before
+    public void before() throws Exception {
+        super.before();
+    }
+
+    @Override @After
+    public void after() throws Exception {
+        super.after();
+    }
+
+    @Test
+    public void should_derive_median_block_time_and_chain_work_as_block_headers_are_added() {
+        // Setup
+        final BlockHeaderWindow blockHeaderWindow = new BlockHeaderWindow();
+        final BlockWork blockWork = Difficulty.BASE_DIFFICULTY.calculateWork();
+
+        final BlockHeader genesisBlockHeader = BlockHeaderWindowTests.createBlockHeader(Sha256Hash.EMPTY_HASH, 1000L);
+        blockHeaderWindow.setHead(Sha256Hash.EMPTY_HASH, -1L);
+        blockHeaderWindow.addBlockHeader(genesisBlockHeader, 0L);
+        blockHeaderWindow.cacheChainWork(0L, ChainWork.add(new MutableChainWork(), blockWork));
+
+        // Action
+        Sha256Hash previousBlockHash = genesisBlockHeader.getHash();
+        for (long blockHeight = 1L; blockHeight <= 20L; ++blockHeight) {
+            final BlockHeader blockHeader = BlockHeaderWindowTests.createBlockHeader(previousBlockHash, (1000L + (blockHeight * 600L)));
+            blockHeaderWindow.addBlockHeader(blockHeader, blockHeight);
+            previousBlockHash = blockHeader.getHash();
+        }
+
+        // Assert
+        final MedianBlockTime medianBlockTime = blockHeaderWindow.getMedianBlockTime(20L);
+        Assert.assertEquals(Long.valueOf(1000L + (15L * 600L)), medianBlockTime.getCurrentTimeInSeconds());
+
+        MutableChainWork expectedChainWork = new MutableChainWork();
+        for (int i = 0; i <= 20; ++i) {
+            expectedChainWork = ChainWork.add(expectedChainWork, blockWork);
+        }
+        Assert.assertEquals(expectedChainWork, blockHeaderWindow.getChainWork(20L));
+    }
+
+    @Test
+    public void should_truncate_window_when_aligned_to_a_block_within_the_window() {
+        // Setup
+        final BlockHeaderWindow blockHeaderWindow = new BlockHeaderWindow();
+        blockHeaderWindow.setHead(Sha256Hash.EMPTY_HASH, -1L);
+
+        final BlockHeader[] blockHeaders = new BlockHeader[5];
+        Sha256Hash previousBlockHash = Sha256Hash.EMPTY_HASH;
+        for (int i = 0; i < blockHeaders.length; ++i) {
+            blockHeaders[i] = BlockHeaderWindowTests.createBlockHeader(previousBlockHash, (1000L + i));
+            blockHeaderWindow.addBlockHeader(blockHeaders[i], (long) i);
+            previousBlockHash = blockHeaders[i].getHash();
+        }
+
+        // Action
+        final Boolean wasRetained = blockHeaderWindow.setHead(blockHeaders[2].getHash(), 2L);
+
+        // Assert
+        Assert.assertTrue(wasRetained);
+        Assert.assertEquals(blockHeaders[2].getHash(), blockHeaderWindow.getBlockHeader(2L).getHash());
+        Assert.assertNull(blockHeaderWindow.getBlockHeader(3L));
+        Assert.assertNull(blockHeaderWindow.getBlockHeader(4L));
+    }
+
+    @Test
+    public void should_clear_window_when_aligned_to_an_unknown_block() {
+        // Setup
+        final BlockHeaderWindow blockHeaderWindow = new BlockHeaderWindow();
+        blockHeaderWindow.setHead(Sha256Hash.EMPTY_HASH, -1L);
+
+        final BlockHeader blockHeader = BlockHeaderWindowTests.createBlockHeader(Sha256Hash.EMPTY_HASH, 1000L);
+        blockHeaderWindow.addBlockHeader(blockHeader, 0L);
+
+        final BlockHeader forkedBlockHeader = BlockHeaderWindowTests.createBlockHeader(Sha256Hash.EMPTY_HASH, 2000L);
+
+        // Action
+        final Boolean wasRetained = blockHeaderWindow.setHead(forkedBlockHeader.getHash(), 0L);
+
+        // Assert
+        Assert.assertFalse(wasRetained);
+        Assert.assertNull(blockHeaderWindow.getBlockHeader(0L));
+        Assert.assertNull(blockHeaderWindow.getMedianBlockTime(0L));
+    }
+}
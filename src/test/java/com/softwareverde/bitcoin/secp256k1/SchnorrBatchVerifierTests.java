@@ -0,0 +1,196 @@
+package com.softwareverde.bitcoin.secp256k1;
+
+import com.softwareverde.bitcoin.test.UnitTest;
+import com.softwareverde.bitcoin.test.util.SignatureTestUtil;
+import com.softwareverde.bitcoin.transaction.Transaction;
+import com.softwareverde.bitcoin.transaction.TransactionInflater;
+import com.softwareverde.bitcoin.transaction.input.TransactionInput;
+import com.softwareverde.bitcoin.transaction.output.TransactionOutput;
+import com.softwareverde.bitcoin.transaction.output.TransactionOutputInflater;
+import com.softwareverde.bitcoin.transaction.script.locking.ImmutableLockingScript;
+import com.softwareverde.bitcoin.transaction.script.locking.LockingScript;
+import com.softwareverde.bitcoin.transaction.script.runner.ScriptRunner;
+import com.softwareverde.bitcoin.transaction.script.runner.context.MutableTransactionContext;
+import com.softwareverde.bitcoin.transaction.script.signature.DeferredSchnorrSignatures;
+import com.softwareverde.bitcoin.transaction.script.unlocking.ImmutableUnlockingScript;
+import com.softwareverde.bitcoin.transaction.script.unlocking.UnlockingScript;
+import com.softwareverde.constable.bytearray.ByteArray;
+import com.softwareverde.constable.list.List;
+import com.softwareverde.cryptography.secp256k1.Schnorr;
+import com.softwareverde.cryptography.secp256k1.key.PublicKey;
+import com.softwareverde.cryptography.secp256k1.signature.Signature;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class SchnorrBatchVerifierTests extends UnitTest {
+    protected static class CapturingDeferredSchnorrSignatures extends DeferredSchnorrSignatures {
+        public Signature signature;
+        public PublicKey publicKey;
+        public ByteArray message;
+
+        @Override
+        public void add(final Transaction transaction, final Integer transactionInputIndex, final Signature signature, final PublicKey publicKey, final ByteArray message) {
+            super.add(transaction, transactionInputIndex, signature, publicKey, message);
+
+            this.signature = signature;
+            this.publicKey = publicKey;
+            this.message = message;
+        }
+    }
+
+    protected static final String TRANSACTION_BYTES = "01000000018ED4963D2710FBAE533097342DE5BEFFA69B4A0F76C8C2FD984F53B9A85F85A8000000006441BD49BBF18F6EFD604AD8EE21A7C361561618E54B0C59B8F1C442FBBB8255CE9FF36160C0551DD6E1CC6A95BE43D628E6A186A7B8C391F32A57CE27E3AF5A3A9D41210214EE3C4F99BDAF019B03A87E655B63DCD2A1664C6387E2AFB9B5275695ACBB25FEFFFFFF0200000000000000002C6A04010101010F6263685F7363686E6F72725F706C7315017F9FA1E2C8E6C6C7E41AD36868D76310CA6ECB04A3910100000000001976A914D59A2521310F0AAB3C40E399A6D7859CAE3408DA88AC17E40800";
+    protected static final String TRANSACTION_OUTPUT_BYTES = "91920100000000001976A914B075848D9130E9948C79B7FF363B5FC7378B755F88AC";
+    protected static final String LOCKING_SCRIPT_BYTES = "76A914B075848D9130E9948C79B7FF363B5FC7378B755F88AC";
+    protected static final String UNLOCKING_SCRIPT_BYTES = "41BD49BBF18F6EFD604AD8EE21A7C361561618E54B0C59B8F1C442FBBB8255CE9FF36160C0551DD6E1CC6A95BE43D628E6A186A7B8C391F32A57CE27E3AF5A3A9D41210214EE3C4F99BDAF019B03A87E655B63DCD2A1664C6387E2AFB9B5275695ACBB25";
+    protected static final Long BLOCK_HEIGHT = 582680L;
+
+    /**
+     * Runs the first input of 0C054B865E4CB44746E46BBEF579BF5AD00577F84ED9DAF0733A0E1523006D32, one of the first Schnorr signatures after the 20190515 HF.
+     *  If invalidSignatureByteIndex is not null, the byte at that index within the signature's S-value is altered.
+     */
+    protected static Boolean runScripts(final Integer invalidSignatureByteIndex, final DeferredSchnorrSignatures deferredSchnorrSignatures) {
+        final TransactionInflater transactionInflater = new TransactionInflater();
+        final Transaction transaction = transactionInflater.fromBytes(ByteArray.fromHexString(TRANSACTION_BYTES));
+        final TransactionInput transactionInput = transaction.getTransactionInputs().get(0);
+
+        final TransactionOutputInflater transactionOutputInflater = new TransactionOutputInflater();
+        final TransactionOutput transactionOutput = transactionOutputInflater.fromBytes(0, ByteArray.fromHexString(TRANSACTION_OUTPUT_BYTES).getBytes());
+
+        final MutableTransactionContext transactionContext = new MutableTransactionContext();
+        transactionContext.setBlockHeight(BLOCK_HEIGHT);
+        transactionContext.setTransaction(transaction);
+        transactionContext.setTransactionInput(transactionInput);
+        transactionContext.setTransactionOutputBeingSpent(transactionOutput);
+        transactionContext.setTransactionInputIndex(0);
+        transactionContext.setDeferredSchnorrSignatures(deferredSchnorrSignatures);
+
+        final String unlockingScriptBytes;
+        if (invalidSignatureByteIndex == null) {
+            unlockingScriptBytes = UNLOCKING_SCRIPT_BYTES;
+        }
+        else {
+            final int characterIndex = ((1 + 32 + invalidSignatureByteIndex) * 2); // Skip the push opcode and the signature's R-value...
+            final char replacementCharacter = (UNLOCKING_SCRIPT_BYTES.charAt(characterIndex) == '0' ? '1' : '0');
+            unlockingScriptBytes = (UNLOCKING_SCRIPT_BYTES.substring(0, characterIndex) + replacementCharacter + UNLOCKING_SCRIPT_BYTES.substring(characterIndex + 1));
+        }
+
+        final LockingScript lockingScript = new ImmutableLockingScript(ByteArray.fromHexString(LOCKING_SCRIPT_BYTES));
+        final UnlockingScript unlockingScript = new ImmutableUnlockingScript(ByteArray.fromHexString(unlockingScriptBytes));
+
+        final ScriptRunner scriptRunner = new ScriptRunner();
+        return scriptRunner.runScript(lockingScript, unlockingScript, transactionContext);
+    }
+
+    @Test
+    public void should_defer_and_verify_historic_schnorr_signature() {
+        // Setup
+        final DeferredSchnorrSignatures deferredSchnorrSignatures = new DeferredSchnorrSignatures();
+
+        // Action
+        final Boolean inputIsUnlocked = SchnorrBatchVerifierTests.runScripts(null, deferredSchnorrSignatures);
+        final Integer deferredSignatureCount = deferredSchnorrSignatures.getCount();
+        final List<DeferredSchnorrSignatures.InvalidSignature> invalidSignatures = deferredSchnorrSignatures.verifySignatures();
+
+        // Assert
+        Assert.assertTrue(inputIsUnlocked);
+        Assert.assertEquals(Integer.valueOf(1), deferredSignatureCount);
+        Assert.assertTrue(invalidSignatures.isEmpty());
+        Assert.assertEquals(Integer.valueOf(0), deferredSchnorrSignatures.getCount());
+    }
+
+    @Test
+    public void should_identify_invalid_deferred_schnorr_signature() {
+        // Setup
+        final DeferredSchnorrSignatures deferredSchnorrSignatures = new DeferredSchnorrSignatures();
+
+        // Action
+        final Boolean inputIsUnlockedWithoutDeferral = SchnorrBatchVerifierTests.runScripts(16, null);
+        final Boolean inputIsUnlockedWithDeferral = SchnorrBatchVerifierTests.runScripts(16, deferredSchnorrSignatures);
+        final List<DeferredSchnorrSignatures.InvalidSignature> invalidSignatures = deferredSchnorrSignatures.verifySignatures();
+
+        // Assert
+        Assert.assertFalse(inputIsUnlockedWithoutDeferral);
+        Assert.assertTrue(inputIsUnlockedWithDeferral); // The signature is assumed valid until the batch is verified...
+        Assert.assertEquals(1, invalidSignatures.getCount());
+        Assert.assertEquals(Integer.valueOf(0), invalidSignatures.get(0).transactionInputIndex);
+    }
+
+    @Test
+    public void should_verify_historic_block_ecdsa_signatures() {
+        // Setup
+        final List<SignatureTestUtil.SignedMessage> historicSignatures = SignatureTestUtil.loadHistoricBlockSignatures();
+
+        // Action
+        int validSignatureCount = 0;
+        for (final SignatureTestUtil.SignedMessage signedMessage : historicSignatures) {
+            final Boolean signatureIsValid = Secp256k1.verifySignature(signedMessage.signature, signedMessage.publicKey, signedMessage.message);
+            if (signatureIsValid) {
+                validSignatureCount += 1;
+            }
+        }
+
+        // Assert
+        Assert.assertEquals(628, historicSignatures.getCount());
+        Assert.assertEquals(historicSignatures.getCount(), validSignatureCount);
+    }
+
+    @Test
+    public void should_find_invalid_signature_within_batch() {
+        // Setup
+        final List<SignatureTestUtil.SignedMessage> signedMessages = SignatureTestUtil.createSchnorrSignatures(SignatureTestUtil.loadHistoricBlockSignatures());
+
+        final int invalidSignatureIndex = 37;
+        final SchnorrBatchVerifier schnorrBatchVerifier = new SchnorrBatchVerifier();
+        for (int i = 0; i < 100; ++i) {
+            final SignatureTestUtil.SignedMessage signedMessage = signedMessages.get(i);
+            if (i == invalidSignatureIndex) { // Pair the message with its neighbor's (otherwise valid) signature...
+                final SignatureTestUtil.SignedMessage otherSignedMessage = signedMessages.get(i + 1);
+                schnorrBatchVerifier.add(otherSignedMessage.signature, signedMessage.publicKey, signedMessage.message);
+            }
+            else {
+                schnorrBatchVerifier.add(signedMessage.signature, signedMessage.publicKey, signedMessage.message);
+            }
+        }
+
+        // Action
+        final Boolean allSignaturesAreValid = schnorrBatchVerifier.verifySignatures();
+        final List<Integer> invalidSignatureIndexes = schnorrBatchVerifier.getInvalidSignatureIndexes();
+
+        // Assert
+        Assert.assertFalse(allSignaturesAreValid);
+        Assert.assertEquals(1, invalidSignatureIndexes.getCount());
+        Assert.assertEquals(Integer.valueOf(invalidSignatureIndex), invalidSignatureIndexes.get(0));
+    }
+
+    @Test
+    public void should_batch_verify_schnorr_signatures_of_historic_block_messages() {
+        // Setup
+        final CapturingDeferredSchnorrSignatures capturedSignature = new CapturingDeferredSchnorrSignatures();
+        SchnorrBatchVerifierTests.runScripts(null, capturedSignature);
+
+        final List<SignatureTestUtil.SignedMessage> signedMessages = SignatureTestUtil.createSchnorrSignatures(SignatureTestUtil.loadHistoricBlockSignatures());
+
+        final SchnorrBatchVerifier schnorrBatchVerifier = new SchnorrBatchVerifier();
+        schnorrBatchVerifier.add(capturedSignature.signature, capturedSignature.publicKey, capturedSignature.message);
+        for (final SignatureTestUtil.SignedMessage signedMessage : signedMessages) {
+            schnorrBatchVerifier.add(signedMessage.signature, signedMessage.publicKey, signedMessage.message);
+        }
+
+        // Action
+        boolean allSignaturesAreValidIndividually = Schnorr.verifySignature(capturedSignature.signature, capturedSignature.publicKey, capturedSignature.message.getBytes());
+        for (final SignatureTestUtil.SignedMessage signedMessage : signedMessages) {
+            final Boolean signatureIsValid = Schnorr.verifySignature(signedMessage.signature, signedMessage.publicKey, signedMessage.message.getBytes());
+            allSignaturesAreValidIndividually = (allSignaturesAreValidIndividually && signatureIsValid);
+        }
+
+        final Boolean singleBatchIsValid = schnorrBatchVerifier._verifyBatch(0, schnorrBatchVerifier.getCount()); // Ensure the batch equation holds without falling back to individual verification...
+        final Boolean allSignaturesAreValid = schnorrBatchVerifier.verifySignatures();
+        final List<Integer> invalidSignatureIndexes = schnorrBatchVerifier.getInvalidSignatureIndexes();
+
+        // Assert
+        Assert.assertTrue(allSignaturesAreValidIndividually);
+        Assert.assertTrue(singleBatchIsValid);
+        Assert.assertTrue(allSignaturesAreValid);
+        Assert.assertTrue(invalidSignatureIndexes.isEmpty());
+    }
+}
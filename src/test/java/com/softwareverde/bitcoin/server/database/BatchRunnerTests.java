@@ -0,0 +1,254 @@
+package com.softwareverde.bitcoin.server.database;
+
+import com.softwareverde.bitcoin.test.UnitTest;
+import com.softwareverde.constable.list.List;
+import com.softwareverde.constable.list.mutable.MutableList;
+import com.softwareverde.database.DatabaseException;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class BatchRunnerTests extends UnitTest {
+    protected static List<Integer> getItems(final int itemCount) {
+        final MutableList<Integer> items = new MutableList<Integer>(itemCount);
+        for (int i = 0; i < itemCount; ++i) {
+            items.add(i);
+        }
+        return items;
+    }
+
+    @Override @Before
+    public void before() throws Exception {
+        super.before();
+    }
+
+    @Override @After
+    public void after() throws Exception {
+        super.after();
+    }
+
+    @Test
+    public void should_run_each_item_once_asynchronously_within_the_concurrency_limit() throws Exception {
+        // Setup
+        final int itemCount = 10000;
+        final int maxConcurrentThreadCount = 2;
+        final List<Integer> items = BatchRunnerTests.getItems(itemCount);
+
+        final ConcurrentHashMap<Integer, Integer> executedItems = new ConcurrentHashMap<Integer, Integer>(itemCount);
+        final AtomicInteger duplicateItemCount = new AtomicInteger(0);
+        final AtomicInteger concurrentBatchCount = new AtomicInteger(0);
+        final AtomicInteger maxConcurrentBatchCount = new AtomicInteger(0);
+
+        final BatchRunner<Integer> batchRunner = new BatchRunner<Integer>(100, true, maxConcurrentThreadCount);
+
+        // Action
+        batchRunner.run(items, new BatchRunner.Batch<Integer>() {
+            @Override
+            public void run(final List<Integer> batchItems) throws Exception {
+                final int batchCount = concurrentBatchCount.incrementAndGet();
+                synchronized (maxConcurrentBatchCount) {
+                    if (batchCount > maxConcurrentBatchCount.get()) {
+                        maxConcurrentBatchCount.set(batchCount);
+                    }
+                }
+
+                for (final Integer item : batchItems) {
+                    final Integer previousItem = executedItems.put(item, item);
+                    if (previousItem != null) {
+                        duplicateItemCount.incrementAndGet();
+                    }
+                }
+                Thread.sleep(1L);
+
+                concurrentBatchCount.decrementAndGet();
+            }
+        });
+
+        // Assert
+        Assert.assertEquals(itemCount, executedItems.size());
+        Assert.assertEquals(0, duplicateItemCount.get());
+        Assert.assertTrue(maxConcurrentBatchCount.get() <= maxConcurrentThreadCount);
+    }
+
+    @Test
+    public void should_stop_running_batches_after_a_batch_fails() throws Exception {
+        // Setup
+        final List<Integer> items = BatchRunnerTests.getItems(10000);
+        final AtomicInteger executedBatchCount = new AtomicInteger(0);
+
+        final BatchRunner<Integer> batchRunner = new BatchRunner<Integer>(10, true, 1);
+
+        // Action
+        DatabaseException runException = null;
+        try {
+            batchRunner.run(items, new BatchRunner.Batch<Integer>() {
+                @Override
+                public void run(final List<Integer> batchItems) throws Exception {
+                    final int batchCount = executedBatchCount.incrementAndGet();
+                    if (batchCount == 3) {
+                        throw new DatabaseException("Batch failure.");
+                    }
+                }
+            });
+        }
+        catch (final DatabaseException exception) {
+            runException = exception;
+        }
+
+        // Assert
+        Assert.assertNotNull(runException);
+        Assert.assertEquals("Batch failure.", runException.getMessage());
+        Assert.assertEquals(3, executedBatchCount.get());
+    }
+
+    @Test
+    public void should_not_run_batches_once_cancelled() throws Exception {
+        // Setup
+        final List<Integer> items = BatchRunnerTests.getItems(100);
+        final AtomicInteger executedBatchCount = new AtomicInteger(0);
+
+        final BatchRunner<Integer> batchRunner = new BatchRunner<Integer>(10, false);
+        batchRunner.cancel();
+
+        // Action
+        DatabaseException runException = null;
+        try {
+            batchRunner.run(items, new BatchRunner.Batch<Integer>() {
+                @Override
+                public void run(final List<Integer> batchItems) throws Exception {
+                    executedBatchCount.incrementAndGet();
+                }
+            });
+        }
+        catch (final DatabaseException exception) {
+            runException = exception;
+        }
+
+        // Assert
+        Assert.assertNotNull(runException);
+        Assert.assertEquals(0, executedBatchCount.get());
+    }
+
+    @Test
+    public void should_run_all_batches_after_a_cancelled_run() throws Exception {
+        // Setup
+        final List<Integer> items = BatchRunnerTests.getItems(100);
+        final AtomicInteger executedBatchCount = new AtomicInteger(0);
+        final BatchRunner.Batch<Integer> batch = new BatchRunner.Batch<Integer>() {
+            @Override
+            public void run(final List<Integer> batchItems) throws Exception {
+                executedBatchCount.incrementAndGet();
+            }
+        };
+
+        final BatchRunner<Integer> batchRunner = new BatchRunner<Integer>(10, true, 1);
+        batchRunner.cancel();
+
+        DatabaseException cancelledRunException = null;
+        try {
+            batchRunner.run(items, batch);
+        }
+        catch (final DatabaseException exception) {
+            cancelledRunException = exception;
+        }
+        Assert.assertNotNull(cancelledRunException);
+
+        // Action
+        batchRunner.run(items, batch);
+
+        // Assert
+        Assert.assertFalse(batchRunner.isCancelled());
+        Assert.assertEquals(10, executedBatchCount.get());
+    }
+
+    @Test
+    public void top_level_batches_should_not_exceed_the_shared_thread_count() throws Exception {
+        // Setup
+        final Integer originalSharedThreadCount = BatchRunner.getSharedThreadCount();
+        BatchRunner.setSharedThreadCount(1);
+
+        final int concurrentBatchCount = 4;
+        final List<Integer> items = BatchRunnerTests.getItems(concurrentBatchCount);
+        final AtomicInteger executingBatchCount = new AtomicInteger(0);
+        final AtomicInteger maxExecutingBatchCount = new AtomicInteger(0);
+
+        final BatchRunner<Integer> batchRunner = new BatchRunner<Integer>(1, true, concurrentBatchCount);
+
+        // Action
+        try {
+            batchRunner.run(items, new BatchRunner.Batch<Integer>() {
+                @Override
+                public void run(final List<Integer> batchItems) throws Exception {
+                    final int executingCount = executingBatchCount.incrementAndGet();
+                    synchronized (maxExecutingBatchCount) {
+                        if (executingCount > maxExecutingBatchCount.get()) {
+                            maxExecutingBatchCount.set(executingCount);
+                        }
+                    }
+                    Thread.sleep(50L);
+                    executingBatchCount.decrementAndGet();
+                }
+            });
+        }
+        finally {
+            BatchRunner.setSharedThreadCount(originalSharedThreadCount);
+        }
+
+        // Assert
+        Assert.assertEquals(1, maxExecutingBatchCount.get());
+    }
+
+    @Test
+    public void nested_batches_should_not_starve_the_shared_executor() throws Exception {
+        // Setup
+        final Integer originalSharedThreadCount = BatchRunner.getSharedThreadCount();
+        BatchRunner.setSharedThreadCount(1);
+
+        final int nestedBatchCount = 2;
+        final List<Integer> items = BatchRunnerTests.getItems(2);
+        final List<Integer> nestedItems = BatchRunnerTests.getItems(nestedBatchCount);
+        final AtomicInteger executedNestedBatchCount = new AtomicInteger(0);
+
+        final BatchRunner<Integer> batchRunner = new BatchRunner<Integer>(1, true, 2);
+        final BatchRunner<Integer> nestedBatchRunner = new BatchRunner<Integer>(1, true, nestedBatchCount);
+
+        // Action
+        // Each nested batch blocks until every batch of its run has started, which is only possible if the pool compensates for
+        //  the blocked threads while the enclosing batch holds the only shared permit...
+        DatabaseException runException = null;
+        try {
+            batchRunner.run(items, new BatchRunner.Batch<Integer>() {
+                @Override
+                public void run(final List<Integer> batchItems) throws Exception {
+                    final CountDownLatch countDownLatch = new CountDownLatch(nestedBatchCount);
+                    nestedBatchRunner.run(nestedItems, new BatchRunner.Batch<Integer>() {
+                        @Override
+                        public void run(final List<Integer> nestedBatchItems) throws Exception {
+                            countDownLatch.countDown();
+                            if (! countDownLatch.await(5L, TimeUnit.SECONDS)) {
+                                throw new DatabaseException("Nested batches were not executed concurrently.");
+                            }
+                            executedNestedBatchCount.incrementAndGet();
+                        }
+                    });
+                }
+            });
+        }
+        catch (final DatabaseException exception) {
+            runException = exception;
+        }
+        finally {
+            BatchRunner.setSharedThreadCount(originalSharedThreadCount);
+        }
+
+        // Assert
+        Assert.assertNull(runException);
+        Assert.assertEquals((items.getCount() * nestedBatchCount), executedNestedBatchCount.get());
+    }
+}
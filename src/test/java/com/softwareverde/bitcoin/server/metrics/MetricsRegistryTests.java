@@ -0,0 +1,96 @@
+package com.softwareverde.bitcoin.server.metrics;
+
+import com.softwareverde.bitcoin.test.UnitTest;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class MetricsRegistryTests extends UnitTest {
+    @Override @Before
+    public void before() throws Exception {
+        super.before();
+    }
+
+    @Override @After
+    public void after() throws Exception {
+        super.after();
+    }
+
+    @Test
+    public void should_export_counters_and_gauges_in_prometheus_text_format() {
+        // Setup
+        final MetricsRegistry metricsRegistry = new MetricsRegistry();
+        final Counter counter = metricsRegistry.newCounter("test_requests_total", "Number of requests.");
+        metricsRegistry.registerGauge("test_peers", "Number of peers.", new Gauge.Source() {
+            @Override
+            public Number getValue() {
+                return 8;
+            }
+        });
+        metricsRegistry.registerGauge("test_unavailable", "A value that is not yet known.", new Gauge.Source() {
+            @Override
+            public Number getValue() {
+                return null;
+            }
+        });
+
+        // Action
+        counter.increment();
+        counter.add(2L);
+        final Counter sameCounter = metricsRegistry.newCounter("test_requests_total", "Number of requests.");
+        sameCounter.increment();
+        final String prometheusText = metricsRegistry.toPrometheusText();
+
+        // Assert
+        Assert.assertSame(counter, sameCounter);
+        Assert.assertEquals(Long.valueOf(4L), counter.get());
+
+        final String expectedText =
+            "# HELP test_peers Number of peers.\n" +
+            "# TYPE test_peers gauge\n" +
+            "test_peers 8\n" +
+            "# HELP test_requests_total Number of requests.\n" +
+            "# TYPE test_requests_total counter\n" +
+            "test_requests_total 4\n" +
+            "# HELP test_unavailable A value that is not yet known.\n" +
+            "# TYPE test_unavailable gauge\n";
+        Assert.assertEquals(expectedText, prometheusText);
+    }
+
+    @Test
+    public void should_export_cumulative_histogram_buckets() {
+        // Setup
+        final MetricsRegistry metricsRegistry = new MetricsRegistry();
+        final Histogram histogram = metricsRegistry.newHistogram("test_duration_seconds", "Duration.", new double[]{ 0.1D, 1D });
+
+        // Action
+        histogram.observe(0.05D);
+        histogram.observe(0.1D); // Upper bounds are inclusive.
+        histogram.observeMilliseconds(500D);
+        histogram.observe(2.5D);
+        final String prometheusText = metricsRegistry.toPrometheusText();
+
+        // Assert
+        final String expectedText =
+            "# HELP test_duration_seconds Duration.\n" +
+            "# TYPE test_duration_seconds histogram\n" +
+            "test_duration_seconds_bucket{le=\"0.1\"} 2\n" +
+            "test_duration_seconds_bucket{le=\"1\"} 3\n" +
+            "test_duration_seconds_bucket{le=\"+Inf\"} 4\n" +
+            "test_duration_seconds_sum 3.15\n" +
+            "test_duration_seconds_count 4\n";
+        Assert.assertEquals(expectedText, prometheusText);
+        Assert.assertEquals(Long.valueOf(4L), histogram.getCount());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void should_not_register_a_metric_name_with_a_different_type() {
+        // Setup
+        final MetricsRegistry metricsRegistry = new MetricsRegistry();
+        metricsRegistry.newCounter("test_metric", "A counter.");
+
+        // Action
+        metricsRegistry.newHistogram("test_metric", "A histogram.", Histogram.DURATION_BUCKETS);
+    }
+}
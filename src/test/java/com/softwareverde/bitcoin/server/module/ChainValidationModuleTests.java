@@ -0,0 +1,193 @@
+package com.softwareverde.bitcoin.server.module;
+
+import com.softwareverde.bitcoin.block.Block;
+import com.softwareverde.bitcoin.block.BlockInflater;
+import com.softwareverde.bitcoin.block.header.BlockHeader;
+import com.softwareverde.bitcoin.block.header.ImmutableBlockHeader;
+import com.softwareverde.bitcoin.chain.segment.BlockchainSegmentId;
+import com.softwareverde.bitcoin.context.core.BlockProcessorContext;
+import com.softwareverde.bitcoin.server.Environment;
+import com.softwareverde.bitcoin.server.configuration.BitcoinProperties;
+import com.softwareverde.bitcoin.server.module.node.BlockProcessor;
+import com.softwareverde.bitcoin.server.module.node.database.block.header.BlockHeaderDatabaseManager;
+import com.softwareverde.bitcoin.server.module.node.database.blockchain.BlockchainDatabaseManager;
+import com.softwareverde.bitcoin.server.module.node.database.fullnode.FullNodeDatabaseManager;
+import com.softwareverde.bitcoin.server.module.node.database.fullnode.FullNodeDatabaseManagerFactory;
+import com.softwareverde.bitcoin.server.module.node.database.transaction.fullnode.utxo.jvm.UtxoKey;
+import com.softwareverde.bitcoin.server.module.node.database.transaction.fullnode.utxo.snapshot.UtxoSnapshotEntry;
+import com.softwareverde.bitcoin.test.BlockData;
+import com.softwareverde.bitcoin.test.IntegrationTest;
+import com.softwareverde.bitcoin.transaction.Transaction;
+import com.softwareverde.bitcoin.transaction.output.identifier.TransactionOutputIdentifier;
+import com.softwareverde.constable.list.mutable.MutableList;
+import com.softwareverde.network.time.MutableNetworkTime;
+import com.softwareverde.util.HexUtil;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.HashMap;
+
+public class ChainValidationModuleTests extends IntegrationTest {
+    protected File _dataDirectory;
+    protected MutableList<Block> _blocks;
+
+    protected ChainValidationModule _createChainValidationModule() {
+        final String dataDirectory = _dataDirectory.getPath();
+        final BitcoinProperties bitcoinProperties = new BitcoinProperties() {{
+            _dataDirectory = dataDirectory;
+            _deletePendingBlocksIsEnabled = false;
+        }};
+        final Environment environment = new Environment(_database, _databaseConnectionFactory);
+
+        return new ChainValidationModule(bitcoinProperties, environment, "") {
+            @Override
+            protected FullNodeDatabaseManagerFactory _newDatabaseManagerFactory() {
+                return _fullNodeDatabaseManagerFactory;
+            }
+        };
+    }
+
+    /**
+     * Returns the UTXO view after applying the Blocks up to (and including) blockHeight; the genesis Block's outputs are not spendable.
+     */
+    protected HashMap<TransactionOutputIdentifier, UtxoSnapshotEntry> _getUnspentTransactionOutputs(final Long blockHeight) {
+        final HashMap<TransactionOutputIdentifier, UtxoSnapshotEntry> unspentTransactionOutputs = new HashMap<TransactionOutputIdentifier, UtxoSnapshotEntry>();
+        for (int i = 1; i <= blockHeight; ++i) {
+            final Transaction coinbaseTransaction = _blocks.get(i).getCoinbaseTransaction();
+            final TransactionOutputIdentifier transactionOutputIdentifier = new TransactionOutputIdentifier(coinbaseTransaction.getHash(), 0);
+            unspentTransactionOutputs.put(transactionOutputIdentifier, new UtxoSnapshotEntry(transactionOutputIdentifier, (long) i, true, coinbaseTransaction.getTransactionOutputs().get(0)));
+        }
+        return unspentTransactionOutputs;
+    }
+
+    protected MutableList<BlockHeader> _getBlockHeaders(final Long blockHeight) {
+        final MutableList<BlockHeader> blockHeaders = new MutableList<BlockHeader>();
+        for (int i = 0; i <= blockHeight; ++i) {
+            blockHeaders.add(new ImmutableBlockHeader(_blocks.get(i)));
+        }
+        return blockHeaders;
+    }
+
+    @Override @Before
+    public void before() throws Exception {
+        super.before();
+
+        _dataDirectory = Files.createTempDirectory("bitcoin-verde-chain-validation").toFile();
+        new File(_dataDirectory, BitcoinProperties.DATA_DIRECTORY_NAME).mkdirs();
+
+        final BlockInflater blockInflater = _masterInflater.getBlockInflater();
+        final BlockProcessorContext blockProcessorContext = new BlockProcessorContext(_masterInflater, _masterInflater, _blockStore, _fullNodeDatabaseManagerFactory, new MutableNetworkTime(), _synchronizationStatus, _transactionValidatorFactory);
+        final BlockProcessor blockProcessor = new BlockProcessor(blockProcessorContext);
+
+        _blocks = new MutableList<Block>();
+        for (final String blockData : new String[]{ BlockData.MainChain.GENESIS_BLOCK, BlockData.MainChain.BLOCK_1, BlockData.MainChain.BLOCK_2 }) {
+            final Block block = blockInflater.fromBytes(HexUtil.hexStringToByteArray(blockData));
+            Assert.assertTrue(blockProcessor.processBlock(block, null).isValid);
+            _blocks.add(block);
+        }
+    }
+
+    @Override @After
+    public void after() throws Exception {
+        UtxoSnapshotModuleTests._deleteDirectory(_dataDirectory);
+        super.after();
+    }
+
+    @Test
+    public void checkpoint_should_be_reloaded_in_utxo_key_order() throws Exception {
+        // Setup
+        final ChainValidationModule chainValidationModule = _createChainValidationModule();
+        final HashMap<TransactionOutputIdentifier, UtxoSnapshotEntry> unspentTransactionOutputs = _getUnspentTransactionOutputs(2L);
+
+        // Action
+        chainValidationModule._writeCheckpoint(unspentTransactionOutputs, _getBlockHeaders(2L));
+
+        final HashMap<TransactionOutputIdentifier, UtxoSnapshotEntry> loadedUnspentTransactionOutputs = new HashMap<TransactionOutputIdentifier, UtxoSnapshotEntry>();
+        final MutableList<BlockHeader> loadedBlockHeaders = new MutableList<BlockHeader>();
+        final Long checkpointBlockHeight;
+        try (final FullNodeDatabaseManager databaseManager = _fullNodeDatabaseManagerFactory.newDatabaseManager()) {
+            final BlockchainDatabaseManager blockchainDatabaseManager = databaseManager.getBlockchainDatabaseManager();
+            final BlockHeaderDatabaseManager blockHeaderDatabaseManager = databaseManager.getBlockHeaderDatabaseManager();
+            final BlockchainSegmentId blockchainSegmentId = blockchainDatabaseManager.getHeadBlockchainSegmentId();
+
+            checkpointBlockHeight = chainValidationModule._loadCheckpoint(loadedUnspentTransactionOutputs, loadedBlockHeaders, blockHeaderDatabaseManager, blockchainSegmentId);
+        }
+
+        // Assert
+        Assert.assertEquals(Long.valueOf(2L), checkpointBlockHeight);
+
+        Assert.assertEquals(3, loadedBlockHeaders.getCount());
+        for (int i = 0; i < loadedBlockHeaders.getCount(); ++i) {
+            Assert.assertEquals(_blocks.get(i).getHash(), loadedBlockHeaders.get(i).getHash());
+        }
+
+        Assert.assertEquals(unspentTransactionOutputs.size(), loadedUnspentTransactionOutputs.size());
+        for (final UtxoSnapshotEntry utxoSnapshotEntry : unspentTransactionOutputs.values()) {
+            final UtxoSnapshotEntry loadedUtxoSnapshotEntry = loadedUnspentTransactionOutputs.get(utxoSnapshotEntry.getTransactionOutputIdentifier());
+            Assert.assertNotNull(loadedUtxoSnapshotEntry);
+            Assert.assertEquals(utxoSnapshotEntry.getBlockHeight(), loadedUtxoSnapshotEntry.getBlockHeight());
+            Assert.assertEquals(utxoSnapshotEntry.isCoinbase(), loadedUtxoSnapshotEntry.isCoinbase());
+            Assert.assertEquals(utxoSnapshotEntry.getTransactionOutput().getAmount(), loadedUtxoSnapshotEntry.getTransactionOutput().getAmount());
+            Assert.assertEquals(utxoSnapshotEntry.getTransactionOutput().getLockingScript(), loadedUtxoSnapshotEntry.getTransactionOutput().getLockingScript());
+        }
+
+        final File checkpointFile = chainValidationModule._getCheckpointFile();
+        UtxoKey previousUtxoKey = null;
+        for (final UtxoSnapshotEntry utxoSnapshotEntry : UtxoSnapshotModuleTests._readEntries(checkpointFile)) {
+            final UtxoKey utxoKey = new UtxoKey(utxoSnapshotEntry.getTransactionOutputIdentifier());
+            if (previousUtxoKey != null) {
+                Assert.assertTrue(UtxoKey.COMPARATOR.compare(previousUtxoKey, utxoKey) < 0);
+            }
+            previousUtxoKey = utxoKey;
+        }
+    }
+
+    @Test
+    public void completed_validation_should_resume_from_and_delete_the_checkpoint() throws Exception {
+        // Setup
+        final ChainValidationModule chainValidationModule = _createChainValidationModule();
+        chainValidationModule._writeCheckpoint(_getUnspentTransactionOutputs(1L), _getBlockHeaders(1L));
+
+        final File checkpointFile = chainValidationModule._getCheckpointFile();
+        Assert.assertTrue(checkpointFile.exists());
+
+        // Action
+        final Boolean isValid = chainValidationModule._validateParallel(_fullNodeDatabaseManagerFactory);
+
+        // Assert
+        Assert.assertTrue(isValid);
+        Assert.assertFalse(checkpointFile.exists());
+        Assert.assertFalse(new File(checkpointFile.getPath() + ".partial").exists());
+    }
+
+    @Test
+    public void checkpoint_not_on_the_head_blockchain_should_be_ignored() throws Exception {
+        // Setup
+        final ChainValidationModule chainValidationModule = _createChainValidationModule();
+        final MutableList<BlockHeader> blockHeaders = _getBlockHeaders(1L);
+        blockHeaders.add(new ImmutableBlockHeader(_blocks.get(1))); // The header at height 2 does not match the head Blockchain's Block02...
+        chainValidationModule._writeCheckpoint(_getUnspentTransactionOutputs(1L), blockHeaders);
+
+        final HashMap<TransactionOutputIdentifier, UtxoSnapshotEntry> loadedUnspentTransactionOutputs = new HashMap<TransactionOutputIdentifier, UtxoSnapshotEntry>();
+        final MutableList<BlockHeader> loadedBlockHeaders = new MutableList<BlockHeader>();
+
+        // Action
+        final Long checkpointBlockHeight;
+        try (final FullNodeDatabaseManager databaseManager = _fullNodeDatabaseManagerFactory.newDatabaseManager()) {
+            final BlockchainDatabaseManager blockchainDatabaseManager = databaseManager.getBlockchainDatabaseManager();
+            final BlockHeaderDatabaseManager blockHeaderDatabaseManager = databaseManager.getBlockHeaderDatabaseManager();
+            final BlockchainSegmentId blockchainSegmentId = blockchainDatabaseManager.getHeadBlockchainSegmentId();
+
+            checkpointBlockHeight = chainValidationModule._loadCheckpoint(loadedUnspentTransactionOutputs, loadedBlockHeaders, blockHeaderDatabaseManager, blockchainSegmentId);
+        }
+
+        // Assert
+        Assert.assertNull(checkpointBlockHeight);
+        Assert.assertTrue(loadedUnspentTransactionOutputs.isEmpty());
+        Assert.assertTrue(loadedBlockHeaders.isEmpty());
+    }
+}
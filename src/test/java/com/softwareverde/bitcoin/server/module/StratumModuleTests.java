@@ -1,6 +1,9 @@
 package com.softwareverde.bitcoin.server.module;
 
 import com.softwareverde.bitcoin.block.Block;
+import com.softwareverde.bitcoin.block.header.BlockHeader;
+import com.softwareverde.bitcoin.block.header.BlockHeaderDeflater;
+import com.softwareverde.bitcoin.block.header.BlockHeaderInflater;
 import com.softwareverde.bitcoin.block.header.MutableBlockHeader;
 import com.softwareverde.bitcoin.block.header.difficulty.Difficulty;
 import com.softwareverde.bitcoin.merkleroot.MerkleRoot;
@@ -8,10 +11,14 @@ import com.softwareverde.bitcoin.server.configuration.Configuration;
 import com.softwareverde.bitcoin.server.main.BitcoinConstants;
 import com.softwareverde.bitcoin.server.module.node.rpc.NodeJsonRpcConnection;
 import com.softwareverde.bitcoin.server.module.stratum.StratumServer;
+import com.softwareverde.bitcoin.server.stratum.difficulty.VariableShareDifficulty;
+import com.softwareverde.bitcoin.server.stratum.message.RequestMessage;
+import com.softwareverde.bitcoin.server.stratum.socket.StratumConnection;
 import com.softwareverde.bitcoin.server.stratum.socket.StratumServerSocket;
 import com.softwareverde.bitcoin.server.stratum.task.ConfigurableStratumMineBlockTaskBuilder;
 import com.softwareverde.bitcoin.server.stratum.task.StratumMineBlockTask;
 import com.softwareverde.bitcoin.server.stratum.task.StratumUtil;
+import com.softwareverde.bitcoin.test.fake.FakeStratumConnection;
 import com.softwareverde.bitcoin.transaction.Transaction;
 import com.softwareverde.bitcoin.transaction.TransactionInflater;
 import com.softwareverde.bitcoin.transaction.script.opcode.Operation;
@@ -29,12 +36,98 @@ import com.softwareverde.json.Json;
 import com.softwareverde.util.HexUtil;
 import com.softwareverde.util.ReflectionUtil;
 import com.softwareverde.util.bytearray.ByteArrayBuilder;
+import org.junit.After;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.io.Closeable;
 import java.io.File;
+import java.net.InetSocketAddress;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
 
 public class StratumModuleTests {
+    protected static final String HEAD_BLOCK_HEADER = "00000020491C708BADFD38F0B38A6EDD6FDD949C9A4D109C037EAB010000000000000000093CC8AEF901A2BF304DC6949439AAC6942F75BE376E14E7C38EEA8F0D2B696360C6555C3C9B051848B94556";
+
+    protected static void queueMiningTaskResponses(final StratumServerPartialMock stratumServer, final String headBlockHeader, final Long headBlockHeight) {
+        stratumServer.queueFakeJsonResponse(Json.parse("{\"blockHeaders\":[\"" + headBlockHeader + "\"],\"errorMessage\":null,\"wasSuccess\":1}"));
+        stratumServer.queueFakeJsonResponse(Json.parse("{\"blockHeight\":" + headBlockHeight + ",\"blockHeaderHeight\":" + headBlockHeight + ",\"errorMessage\":null,\"wasSuccess\":1}"));
+        stratumServer.queueFakeJsonResponse(Json.parse("{\"difficulty\":\"180597F0\",\"errorMessage\":null,\"wasSuccess\":1}"));
+        stratumServer.queueFakeJsonResponse(Json.parse("{\"errorMessage\":null,\"blockReward\":1250000000,\"wasSuccess\":1}"));
+        stratumServer.queueFakeJsonResponse(Json.parse("{\"unconfirmedTransactions\":[],\"errorMessage\":null,\"wasSuccess\":1}"));
+    }
+
+    /**
+     * Returns a task whose shares always hash to shareHash, and are never valid Blocks.
+     */
+    protected static StratumMineBlockTask createFakeMineBlockTask(final Block prototypeBlock, final Sha256Hash shareHash) {
+        final ByteArray id = MutableByteArray.wrap(ByteUtil.integerToBytes(0x7FFFFFFF));
+        return new StratumMineBlockTask(id, prototypeBlock, "", "", "00000000") {
+            @Override
+            public BlockHeader assembleBlockHeader(final String stratumNonce, final String stratumExtraNonce2, final String stratumTimestamp) {
+                return new MutableBlockHeader(prototypeBlock) {
+                    @Override
+                    public Sha256Hash getHash() {
+                        return shareHash;
+                    }
+
+                    @Override
+                    public Boolean isValid() {
+                        return false;
+                    }
+                };
+            }
+        };
+    }
+
+    protected static RequestMessage createSubmitMessage(final Long taskId) {
+        final RequestMessage requestMessage = new RequestMessage(RequestMessage.ClientCommand.SUBMIT.getValue());
+        final Json parametersJson = new Json(true);
+        parametersJson.add("worker0");
+        parametersJson.add(HexUtil.toHexString(ByteUtil.integerToBytes(taskId)));
+        parametersJson.add("00000000");
+        parametersJson.add("00000000");
+        parametersJson.add("00000000");
+        requestMessage.setParameters(parametersJson);
+        return requestMessage;
+    }
+
+    protected ServerSocketChannel _serverSocketChannel;
+    protected SocketChannel _clientSocketChannel;
+    protected SocketChannel _socketChannel;
+
+    protected FakeStratumConnection _createStratumConnection() throws Exception {
+        _serverSocketChannel = ServerSocketChannel.open();
+        _serverSocketChannel.bind(new InetSocketAddress("127.0.0.1", 0));
+        _clientSocketChannel = SocketChannel.open(_serverSocketChannel.getLocalAddress());
+        _socketChannel = _serverSocketChannel.accept();
+        return new FakeStratumConnection(_socketChannel, new MainThreadPool(1, 1L));
+    }
+
+    @After
+    public void after() throws Exception {
+        for (final Closeable closeable : new Closeable[]{ _socketChannel, _clientSocketChannel, _serverSocketChannel }) {
+            if (closeable != null) {
+                closeable.close();
+            }
+        }
+    }
+
+    /**
+     * Returns a BlockHeader mined upon HEAD_BLOCK_HEADER (i.e. the parent of the mock's initial task).
+     */
+    protected static BlockHeader createNextBlockHeader() {
+        final BlockHeaderInflater blockHeaderInflater = new BlockHeaderInflater();
+        final BlockHeader headBlockHeader = blockHeaderInflater.fromBytes(HexUtil.hexStringToByteArray(HEAD_BLOCK_HEADER));
+
+        final MutableBlockHeader blockHeader = new MutableBlockHeader(headBlockHeader);
+        blockHeader.setPreviousBlockHash(headBlockHeader.getHash());
+        blockHeader.setTimestamp(headBlockHeader.getTimestamp() + 600L);
+        return blockHeader;
+    }
+
     @Test
     public void should_mine_valid_prototype_block() {
         // Setup
@@ -129,6 +222,229 @@ public class StratumModuleTests {
         mutableBlockHeader.setVersion(blockVersion);
         Assert.assertEquals(Sha256Hash.fromHexString("00000000001AC3616DB5F502DE9DCB45EC7192A8643525A3EAEC025894E6D85F"), mutableBlockHeader.getHash());
     }
+
+    @Test
+    public void new_block_should_switch_to_an_empty_task_using_the_difficulty_at_the_task_height() {
+        // Setup
+        final StratumServerPartialMock stratumServer = new StratumServerPartialMock();
+        stratumServer.setValidatePrototypeBlockBeforeMining(false);
+        StratumModuleTests.queueMiningTaskResponses(stratumServer, HEAD_BLOCK_HEADER, 568009L);
+        stratumServer.createStratumMineBlockTask();
+        final Long initialTaskId = stratumServer.getCurrentMineBlockTask().getId();
+
+        final BlockHeader blockHeader = StratumModuleTests.createNextBlockHeader();
+        stratumServer.queueFakeJsonResponse(Json.parse("{\"difficulty\":\"180597F1\",\"errorMessage\":null,\"wasSuccess\":1}"));
+        stratumServer.clearSentJsonRequests();
+
+        // Action
+        final Boolean taskWasSet = stratumServer.switchToEmptyMiningTask(blockHeader);
+
+        // Assert
+        Assert.assertTrue(taskWasSet);
+        Assert.assertEquals(Long.valueOf(568011L), stratumServer.getBlockHeight());
+
+        final Block prototypeBlock = stratumServer.getPrototypeBlock();
+        Assert.assertEquals(blockHeader.getHash(), prototypeBlock.getPreviousBlockHash());
+        Assert.assertEquals(1, prototypeBlock.getTransactionCount().intValue());
+        Assert.assertEquals(Difficulty.decode(ByteArray.fromHexString("180597F1")), prototypeBlock.getDifficulty());
+
+        // The difficulty is requested for the new task's height rather than for the node's head BlockHeader...
+        final List<Json> sentJsonRequests = stratumServer.getSentJsonRequests();
+        Assert.assertEquals(1, sentJsonRequests.getCount());
+        final Json difficultyRequestJson = sentJsonRequests.get(0);
+        Assert.assertEquals("DIFFICULTY", difficultyRequestJson.getString("query"));
+        Assert.assertEquals(Long.valueOf(568011L), difficultyRequestJson.get("parameters").getLong("blockHeight"));
+
+        // The previous parent's jobs are abandoned...
+        Assert.assertFalse(stratumServer.hasMineBlockTask(initialTaskId));
+    }
+
+    @Test
+    public void new_block_not_extending_the_current_task_should_not_switch_to_an_empty_task() {
+        // Setup
+        final StratumServerPartialMock stratumServer = new StratumServerPartialMock();
+        stratumServer.setValidatePrototypeBlockBeforeMining(false);
+        StratumModuleTests.queueMiningTaskResponses(stratumServer, HEAD_BLOCK_HEADER, 568009L);
+        stratumServer.createStratumMineBlockTask();
+        final Sha256Hash previousBlockHash = stratumServer.getPrototypeBlock().getPreviousBlockHash();
+
+        final MutableBlockHeader blockHeader = new MutableBlockHeader(StratumModuleTests.createNextBlockHeader());
+        blockHeader.setPreviousBlockHash(Sha256Hash.EMPTY_HASH);
+        stratumServer.clearSentJsonRequests();
+
+        // Action
+        final Boolean taskWasSet = stratumServer.switchToEmptyMiningTask(blockHeader);
+
+        // Assert
+        Assert.assertFalse(taskWasSet);
+        Assert.assertEquals(Long.valueOf(568010L), stratumServer.getBlockHeight());
+        Assert.assertEquals(previousBlockHash, stratumServer.getPrototypeBlock().getPreviousBlockHash());
+        Assert.assertEquals(0, stratumServer.getSentJsonRequests().getCount());
+    }
+
+    @Test
+    public void task_for_a_previous_block_height_should_be_discarded() {
+        // Setup
+        final StratumServerPartialMock stratumServer = new StratumServerPartialMock();
+        stratumServer.setValidatePrototypeBlockBeforeMining(false);
+        StratumModuleTests.queueMiningTaskResponses(stratumServer, HEAD_BLOCK_HEADER, 568009L);
+        stratumServer.createStratumMineBlockTask();
+
+        final BlockHeader blockHeader = StratumModuleTests.createNextBlockHeader();
+        stratumServer.queueFakeJsonResponse(Json.parse("{\"difficulty\":\"180597F0\",\"errorMessage\":null,\"wasSuccess\":1}"));
+        Assert.assertTrue(stratumServer.switchToEmptyMiningTask(blockHeader));
+        final Long emptyTaskId = stratumServer.getCurrentMineBlockTask().getId();
+
+        // A slow rebuild that started before the new block was announced completes with the node's previous head...
+        StratumModuleTests.queueMiningTaskResponses(stratumServer, HEAD_BLOCK_HEADER, 568009L);
+
+        // Action
+        final Boolean taskWasSet = stratumServer.rebuildNewMiningTask();
+
+        // Assert
+        Assert.assertFalse(taskWasSet);
+        Assert.assertEquals(emptyTaskId, stratumServer.getCurrentMineBlockTask().getId());
+        Assert.assertEquals(Long.valueOf(568011L), stratumServer.getBlockHeight());
+        Assert.assertEquals(blockHeader.getHash(), stratumServer.getPrototypeBlock().getPreviousBlockHash());
+    }
+
+    @Test
+    public void full_task_upon_the_same_parent_should_not_clean_the_empty_task_jobs() throws Exception {
+        // Setup
+        final StratumServerPartialMock stratumServer = new StratumServerPartialMock();
+        stratumServer.setValidatePrototypeBlockBeforeMining(false);
+        StratumModuleTests.queueMiningTaskResponses(stratumServer, HEAD_BLOCK_HEADER, 568009L);
+        stratumServer.createStratumMineBlockTask();
+
+        final BlockHeader blockHeader = StratumModuleTests.createNextBlockHeader();
+        final BlockHeaderDeflater blockHeaderDeflater = new BlockHeaderDeflater();
+        final String blockHeaderString = HexUtil.toHexString(blockHeaderDeflater.toBytes(blockHeader).getBytes());
+
+        stratumServer.queueFakeJsonResponse(Json.parse("{\"difficulty\":\"180597F0\",\"errorMessage\":null,\"wasSuccess\":1}")); // The empty task...
+        StratumModuleTests.queueMiningTaskResponses(stratumServer, blockHeaderString, 568010L); // The full task...
+
+        // Action
+        stratumServer.onNewBlockHeader(blockHeader);
+
+        // Assert
+        final Boolean emptyTaskAbandonedOldJobs = stratumServer.pollBroadcastAbandonOldJobs();
+        final Long emptyTaskId = stratumServer.pollBroadcastTaskId();
+        final Boolean fullTaskAbandonedOldJobs = stratumServer.pollBroadcastAbandonOldJobs();
+        final Long fullTaskId = stratumServer.pollBroadcastTaskId();
+
+        Assert.assertTrue(emptyTaskAbandonedOldJobs);
+        Assert.assertFalse(fullTaskAbandonedOldJobs);
+        Assert.assertNotEquals(emptyTaskId, fullTaskId);
+
+        // Shares for the empty task's jobs are still accepted...
+        Assert.assertTrue(stratumServer.hasMineBlockTask(emptyTaskId));
+        Assert.assertTrue(stratumServer.hasMineBlockTask(fullTaskId));
+        Assert.assertEquals(Long.valueOf(568011L), stratumServer.getBlockHeight());
+        Assert.assertEquals(blockHeader.getHash(), stratumServer.getPrototypeBlock().getPreviousBlockHash());
+    }
+
+    @Test
+    public void accepted_share_should_be_credited_at_the_difficulty_its_job_was_sent_with() throws Exception {
+        // Setup
+        final StratumServerPartialMock stratumServer = new StratumServerPartialMock();
+        stratumServer.setValidatePrototypeBlockBeforeMining(false);
+        StratumModuleTests.queueMiningTaskResponses(stratumServer, HEAD_BLOCK_HEADER, 568009L);
+        stratumServer.createStratumMineBlockTask();
+
+        // The share satisfies both the job's difficulty and the connection's (higher) current difficulty...
+        final StratumMineBlockTask mineBlockTask = StratumModuleTests.createFakeMineBlockTask(stratumServer.getPrototypeBlock(), Sha256Hash.fromHexString("0000000000010000000000000000000000000000000000000000000000000000"));
+        stratumServer.addMineBlockTask(mineBlockTask);
+
+        final FakeStratumConnection stratumConnection = _createStratumConnection();
+        final Long nowMs = System.currentTimeMillis();
+        final VariableShareDifficulty variableShareDifficulty = new VariableShareDifficulty(2048, nowMs);
+        variableShareDifficulty.onJobSent(mineBlockTask.getId());
+        for (int i = 1; i <= VariableShareDifficulty.RETARGET_SHARE_COUNT; ++i) {
+            variableShareDifficulty.onShareAccepted(nowMs + (i * 1000L));
+        }
+        Assert.assertEquals(Integer.valueOf(2048 * 4), variableShareDifficulty.getShareDifficulty());
+        stratumServer.setShareDifficulty(stratumConnection, variableShareDifficulty);
+
+        final MutableList<Integer> creditedShareDifficulties = new MutableList<Integer>();
+        stratumServer.setWorkerShareCallback(new StratumServer.WorkerShareCallback() {
+            @Override
+            public void onNewWorkerShare(final String workerUsername, final Integer shareDifficulty) {
+                creditedShareDifficulties.add(shareDifficulty);
+            }
+        });
+
+        // Action
+        stratumServer.handleSubmitMessage(StratumModuleTests.createSubmitMessage(mineBlockTask.getId()), stratumConnection);
+
+        // Assert
+        final List<Json> writtenMessages = stratumConnection.getWrittenMessages();
+        Assert.assertTrue(writtenMessages.get(writtenMessages.getCount() - 1).getBoolean("result"));
+
+        Assert.assertEquals(1, creditedShareDifficulties.getCount());
+        Assert.assertEquals(Integer.valueOf(2048), creditedShareDifficulties.get(0));
+        Assert.assertEquals(Long.valueOf(2048L), stratumServer.getShareDifficultySum());
+        Assert.assertEquals(Long.valueOf(1L), stratumServer.getShareCount());
+    }
+
+    @Test
+    public void share_not_satisfying_its_job_difficulty_should_be_rejected() throws Exception {
+        // Setup
+        final StratumServerPartialMock stratumServer = new StratumServerPartialMock();
+        stratumServer.setValidatePrototypeBlockBeforeMining(false);
+        StratumModuleTests.queueMiningTaskResponses(stratumServer, HEAD_BLOCK_HEADER, 568009L);
+        stratumServer.createStratumMineBlockTask();
+
+        final StratumMineBlockTask mineBlockTask = StratumModuleTests.createFakeMineBlockTask(stratumServer.getPrototypeBlock(), Sha256Hash.fromHexString("0000000000FF0000000000000000000000000000000000000000000000000000"));
+        stratumServer.addMineBlockTask(mineBlockTask);
+
+        final FakeStratumConnection stratumConnection = _createStratumConnection();
+        final VariableShareDifficulty variableShareDifficulty = new VariableShareDifficulty(2048, System.currentTimeMillis());
+        variableShareDifficulty.onJobSent(mineBlockTask.getId());
+        stratumServer.setShareDifficulty(stratumConnection, variableShareDifficulty);
+
+        // Action
+        stratumServer.handleSubmitMessage(StratumModuleTests.createSubmitMessage(mineBlockTask.getId()), stratumConnection);
+
+        // Assert
+        final List<Json> writtenMessages = stratumConnection.getWrittenMessages();
+        Assert.assertFalse(writtenMessages.get(writtenMessages.getCount() - 1).getBoolean("result"));
+        Assert.assertEquals(Long.valueOf(0L), stratumServer.getShareDifficultySum());
+        Assert.assertEquals(Long.valueOf(0L), stratumServer.getShareCount());
+    }
+
+    @Test
+    public void resent_job_should_be_validated_at_the_difficulty_it_was_resent_with() throws Exception {
+        // Setup
+        final StratumServerPartialMock stratumServer = new StratumServerPartialMock();
+        stratumServer.setValidatePrototypeBlockBeforeMining(false);
+        StratumModuleTests.queueMiningTaskResponses(stratumServer, HEAD_BLOCK_HEADER, 568009L);
+        stratumServer.createStratumMineBlockTask();
+        final Long mineBlockTaskId = stratumServer.getCurrentMineBlockTask().getId();
+
+        final FakeStratumConnection stratumConnection = _createStratumConnection();
+        final Long nowMs = System.currentTimeMillis();
+        final VariableShareDifficulty variableShareDifficulty = new VariableShareDifficulty(2048, nowMs);
+        stratumServer.setShareDifficulty(stratumConnection, variableShareDifficulty);
+
+        stratumServer.sendWork(stratumConnection, true);
+        Assert.assertEquals(Integer.valueOf(2048), variableShareDifficulty.getJobShareDifficulty(mineBlockTaskId));
+
+        for (int i = 1; i <= VariableShareDifficulty.RETARGET_SHARE_COUNT; ++i) {
+            variableShareDifficulty.onShareAccepted(nowMs + (i * 1000L));
+        }
+
+        // Action
+        stratumServer.sendWork(stratumConnection, false);
+
+        // Assert
+        Assert.assertEquals(Integer.valueOf(2048 * 4), variableShareDifficulty.getJobShareDifficulty(mineBlockTaskId));
+
+        // The new difficulty is sent before the job is resent...
+        final List<Json> writtenMessages = stratumConnection.getWrittenMessages();
+        final Json setDifficultyMessage = writtenMessages.get(writtenMessages.getCount() - 2);
+        Assert.assertEquals(RequestMessage.ServerCommand.SET_DIFFICULTY.getValue(), setDifficultyMessage.getString("method"));
+        Assert.assertEquals(Integer.valueOf(2048 * 4), setDifficultyMessage.get("params").getInteger(0));
+    }
 }
 
 class FakeStratumServerSocket extends StratumServerSocket {
@@ -158,6 +474,9 @@ class StratumServerPartialMock extends StratumServer {
     }
 
     protected final MutableList<Json> _fakeJsonResponses = new MutableList<Json>();
+    protected final MutableList<Json> _sentJsonRequests = new MutableList<Json>();
+    protected final LinkedBlockingQueue<Boolean> _broadcastAbandonOldJobs = new LinkedBlockingQueue<Boolean>();
+    protected final LinkedBlockingQueue<Long> _broadcastTaskIds = new LinkedBlockingQueue<Long>();
 
     public StratumServerPartialMock() {
         super(configuration.getStratumProperties(), new MainThreadPool(1, 1L));
@@ -171,6 +490,7 @@ class StratumServerPartialMock extends StratumServer {
             @Override
             protected Json _executeJsonRequest(final Json rpcRequestJson) {
                 System.out.println("Stratum Sent: " + rpcRequestJson.toString());
+                _sentJsonRequests.add(rpcRequestJson);
 
                 final Json jsonResponse = _fakeJsonResponses.remove(0);
                 System.out.println("Stratum Received: " + jsonResponse.toString());
@@ -183,8 +503,75 @@ class StratumServerPartialMock extends StratumServer {
         _fakeJsonResponses.add(json);
     }
 
+    @Override
+    protected void _broadcastNewTask(final Boolean abandonOldJobs) {
+        super._broadcastNewTask(abandonOldJobs);
+        _broadcastTaskIds.add(_currentMineBlockTask.getId());
+        _broadcastAbandonOldJobs.add(abandonOldJobs);
+    }
+
     public ConfigurableStratumMineBlockTaskBuilder createStratumMineBlockTask() {
         _rebuildNewMiningTask();
         return _stratumMineBlockTaskBuilder;
     }
+
+    public Boolean rebuildNewMiningTask() {
+        return _rebuildNewMiningTask();
+    }
+
+    public Boolean switchToEmptyMiningTask(final BlockHeader blockHeader) {
+        return _switchToEmptyMiningTask(blockHeader);
+    }
+
+    public void onNewBlockHeader(final BlockHeader blockHeader) {
+        _onNewBlockHeader(blockHeader);
+    }
+
+    public void handleSubmitMessage(final RequestMessage requestMessage, final StratumConnection stratumConnection) {
+        _handleSubmitMessage(requestMessage, stratumConnection);
+    }
+
+    public void sendWork(final StratumConnection stratumConnection, final Boolean abandonOldJobs) {
+        _sendWork(stratumConnection, abandonOldJobs);
+    }
+
+    public void addMineBlockTask(final StratumMineBlockTask mineBlockTask) {
+        _mineBlockTasks.put(mineBlockTask.getId(), mineBlockTask);
+    }
+
+    public void setShareDifficulty(final StratumConnection stratumConnection, final VariableShareDifficulty variableShareDifficulty) {
+        _shareDifficulties.put(stratumConnection, variableShareDifficulty);
+    }
+
+    public StratumMineBlockTask getCurrentMineBlockTask() {
+        return _currentMineBlockTask;
+    }
+
+    public Boolean hasMineBlockTask(final Long mineBlockTaskId) {
+        return _mineBlockTasks.containsKey(mineBlockTaskId);
+    }
+
+    public List<Json> getSentJsonRequests() {
+        return _sentJsonRequests;
+    }
+
+    public void clearSentJsonRequests() {
+        _sentJsonRequests.clear();
+    }
+
+    /**
+     * Returns the abandonOldJobs flag of the next broadcast task, waiting up to 5 seconds for the broadcast to occur.
+     */
+    public Boolean pollBroadcastAbandonOldJobs() throws InterruptedException {
+        final Boolean abandonOldJobs = _broadcastAbandonOldJobs.poll(5L, TimeUnit.SECONDS);
+        if (abandonOldJobs == null) { throw new RuntimeException("Test execution timeout exceeded."); }
+        return abandonOldJobs;
+    }
+
+    /**
+     * Returns the id of the task that was broadcast alongside the flag returned by StratumServerPartialMock::pollBroadcastAbandonOldJobs.
+     */
+    public Long pollBroadcastTaskId() {
+        return _broadcastTaskIds.poll();
+    }
 }
\ No newline at end of file
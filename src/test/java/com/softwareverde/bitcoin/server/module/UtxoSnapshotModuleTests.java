@@ -0,0 +1,280 @@
+package com.softwareverde.bitcoin.server.module;
+
+import com.softwareverde.bitcoin.address.Address;
+import com.softwareverde.bitcoin.address.AddressInflater;
+import com.softwareverde.bitcoin.block.Block;
+import com.softwareverde.bitcoin.block.BlockId;
+import com.softwareverde.bitcoin.block.BlockInflater;
+import com.softwareverde.bitcoin.block.MutableBlock;
+import com.softwareverde.bitcoin.context.core.BlockProcessorContext;
+import com.softwareverde.bitcoin.context.core.BlockchainBuilderContext;
+import com.softwareverde.bitcoin.context.core.PendingBlockLoaderContext;
+import com.softwareverde.bitcoin.inflater.BlockInflaters;
+import com.softwareverde.bitcoin.inflater.TransactionInflaters;
+import com.softwareverde.bitcoin.server.Environment;
+import com.softwareverde.bitcoin.server.configuration.BitcoinProperties;
+import com.softwareverde.bitcoin.server.module.node.BlockProcessor;
+import com.softwareverde.bitcoin.server.module.node.ProcessBlockResult;
+import com.softwareverde.bitcoin.server.module.node.database.block.fullnode.FullNodeBlockDatabaseManager;
+import com.softwareverde.bitcoin.server.module.node.database.block.header.BlockHeaderDatabaseManager;
+import com.softwareverde.bitcoin.server.module.node.database.block.pending.fullnode.FullNodePendingBlockDatabaseManager;
+import com.softwareverde.bitcoin.server.module.node.database.fullnode.FullNodeDatabaseManager;
+import com.softwareverde.bitcoin.server.module.node.database.fullnode.FullNodeDatabaseManagerFactory;
+import com.softwareverde.bitcoin.server.module.node.database.transaction.fullnode.utxo.UnspentTransactionOutputDatabaseManager;
+import com.softwareverde.bitcoin.server.module.node.database.transaction.fullnode.utxo.UtxoSnapshotDatabaseManager;
+import com.softwareverde.bitcoin.server.module.node.database.transaction.fullnode.utxo.snapshot.UtxoSnapshotEntry;
+import com.softwareverde.bitcoin.server.module.node.database.transaction.fullnode.utxo.snapshot.UtxoSnapshotReader;
+import com.softwareverde.bitcoin.server.module.node.sync.BlockchainBuilder;
+import com.softwareverde.bitcoin.server.module.node.sync.BlockchainBuilderTests;
+import com.softwareverde.bitcoin.server.module.node.sync.blockloader.PendingBlockLoader;
+import com.softwareverde.bitcoin.test.BlockData;
+import com.softwareverde.bitcoin.test.IntegrationTest;
+import com.softwareverde.bitcoin.test.util.BlockTestUtil;
+import com.softwareverde.bitcoin.test.util.TransactionTestUtil;
+import com.softwareverde.bitcoin.transaction.MutableTransaction;
+import com.softwareverde.bitcoin.transaction.Transaction;
+import com.softwareverde.bitcoin.transaction.output.TransactionOutput;
+import com.softwareverde.bitcoin.transaction.output.identifier.TransactionOutputIdentifier;
+import com.softwareverde.concurrent.service.SleepyService;
+import com.softwareverde.constable.list.mutable.MutableList;
+import com.softwareverde.cryptography.hash.sha256.Sha256Hash;
+import com.softwareverde.cryptography.secp256k1.key.PrivateKey;
+import com.softwareverde.network.time.MutableNetworkTime;
+import com.softwareverde.util.HexUtil;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.nio.file.Files;
+import java.util.Set;
+
+public class UtxoSnapshotModuleTests extends IntegrationTest {
+    protected File _dataDirectory;
+
+    protected UtxoSnapshotModule _createUtxoSnapshotModule() {
+        final String dataDirectory = _dataDirectory.getPath();
+        final BitcoinProperties bitcoinProperties = new BitcoinProperties() {{
+            _dataDirectory = dataDirectory;
+            _deletePendingBlocksIsEnabled = false;
+        }};
+        final Environment environment = new Environment(_database, _databaseConnectionFactory);
+
+        return new UtxoSnapshotModule(bitcoinProperties, environment) {
+            @Override
+            protected FullNodeDatabaseManagerFactory _newDatabaseManagerFactory() {
+                return _fullNodeDatabaseManagerFactory;
+            }
+        };
+    }
+
+    protected BlockProcessor _createBlockProcessor() {
+        final TransactionInflaters transactionInflaters = _masterInflater;
+        final BlockInflaters blockInflaters = BlockchainBuilderTests.FAKE_BLOCK_INFLATERS;
+        final BlockProcessorContext blockProcessorContext = new BlockProcessorContext(blockInflaters, transactionInflaters, _blockStore, _fullNodeDatabaseManagerFactory, new MutableNetworkTime(), _synchronizationStatus, _transactionValidatorFactory);
+        return new BlockProcessor(blockProcessorContext);
+    }
+
+    /**
+     * Synchronizes MainChain's Genesis -> Block01 -> Block02 and commits the resulting UTXO set.
+     *  Unlike fake Blocks, MainChain's BlockHeaders have valid proof-of-work, so they survive the snapshot import's validation.
+     */
+    protected Block _createBlockchain() throws Exception {
+        final BlockInflater blockInflater = _masterInflater.getBlockInflater();
+        final BlockInflaters blockInflaters = BlockchainBuilderTests.FAKE_BLOCK_INFLATERS;
+        final BlockchainBuilderTests.FakeBitcoinNodeManager bitcoinNodeManager = new BlockchainBuilderTests.FakeBitcoinNodeManager();
+
+        final PendingBlockLoaderContext pendingBlockLoaderContext = new PendingBlockLoaderContext(blockInflaters, _fullNodeDatabaseManagerFactory, _threadPool);
+        final BlockchainBuilderContext blockchainBuilderContext = new BlockchainBuilderContext(blockInflaters, _fullNodeDatabaseManagerFactory, bitcoinNodeManager, _threadPool);
+
+        final BlockProcessor blockProcessor = _createBlockProcessor();
+        final PendingBlockLoader pendingBlockLoader = new PendingBlockLoader(pendingBlockLoaderContext, 1);
+
+        try (final FullNodeDatabaseManager databaseManager = _fullNodeDatabaseManagerFactory.newDatabaseManager()) {
+            final FullNodePendingBlockDatabaseManager pendingBlockDatabaseManager = databaseManager.getPendingBlockDatabaseManager();
+
+            for (final String blockData : new String[]{ BlockData.MainChain.GENESIS_BLOCK, BlockData.MainChain.BLOCK_1, BlockData.MainChain.BLOCK_2 }) {
+                final Block block = blockInflater.fromBytes(HexUtil.hexStringToByteArray(blockData));
+                pendingBlockDatabaseManager.storeBlock(block);
+            }
+        }
+
+        final BlockchainBuilder blockchainBuilder = new BlockchainBuilder(blockchainBuilderContext, blockProcessor, pendingBlockLoader, BlockchainBuilderTests.FAKE_DOWNLOAD_STATUS_MONITOR, BlockchainBuilderTests.FAKE_BLOCK_DOWNLOAD_REQUESTER);
+        final BlockchainBuilder.StatusMonitor statusMonitor = blockchainBuilder.getStatusMonitor();
+        blockchainBuilder.start();
+        final int maxSleepCount = 10;
+        int sleepCount = 0;
+        do {
+            Thread.sleep(250L);
+            sleepCount += 1;
+
+            if (sleepCount >= maxSleepCount) { throw new RuntimeException("Test execution timeout exceeded."); }
+        } while (statusMonitor.getStatus() != SleepyService.Status.SLEEPING);
+        blockchainBuilder.stop();
+
+        try (final FullNodeDatabaseManager databaseManager = _fullNodeDatabaseManagerFactory.newDatabaseManager()) {
+            final UnspentTransactionOutputDatabaseManager unspentTransactionOutputDatabaseManager = databaseManager.getUnspentTransactionOutputDatabaseManager();
+            unspentTransactionOutputDatabaseManager.commitUnspentTransactionOutputs(_fullNodeDatabaseManagerFactory, true);
+        }
+
+        return blockInflater.fromBytes(HexUtil.hexStringToByteArray(BlockData.MainChain.BLOCK_2));
+    }
+
+    protected static MutableList<UtxoSnapshotEntry> _readEntries(final File file) throws Exception {
+        final MutableList<UtxoSnapshotEntry> utxoSnapshotEntries = new MutableList<UtxoSnapshotEntry>();
+        try (final UtxoSnapshotReader utxoSnapshotReader = new UtxoSnapshotReader(new FileInputStream(file))) {
+            while (true) {
+                final UtxoSnapshotEntry utxoSnapshotEntry = utxoSnapshotReader.readEntry();
+                if (utxoSnapshotEntry == null) { break; }
+
+                utxoSnapshotEntries.add(utxoSnapshotEntry);
+            }
+        }
+        return utxoSnapshotEntries;
+    }
+
+    protected static Block _createBlock(final Block previousBlock, final PrivateKey coinbasePrivateKey, final Transaction... transactions) {
+        final MutableBlock mutableBlock = BlockTestUtil.createBlock();
+        mutableBlock.setPreviousBlockHash(previousBlock.getHash());
+        mutableBlock.setTimestamp(previousBlock.getTimestamp() + 600L);
+        mutableBlock.addTransaction(TransactionTestUtil.createCoinbaseTransactionSpendableByPrivateKey(coinbasePrivateKey));
+        for (final Transaction transaction : transactions) {
+            mutableBlock.addTransaction(transaction);
+        }
+        return mutableBlock;
+    }
+
+    protected static Transaction _createSignedTransaction(final Transaction transactionToSpend, final Long amount, final PrivateKey privateKey) {
+        final AddressInflater addressInflater = new AddressInflater();
+        final Address address = addressInflater.fromPrivateKey(privateKey, true);
+
+        final MutableTransaction mutableTransaction = TransactionTestUtil.createTransaction();
+        mutableTransaction.addTransactionInput(TransactionTestUtil.createTransactionInput(new TransactionOutputIdentifier(transactionToSpend.getHash(), 0)));
+        mutableTransaction.addTransactionOutput(TransactionTestUtil.createTransactionOutput(amount, address));
+
+        return TransactionTestUtil.signTransaction(TransactionTestUtil.createTransactionOutputRepository(transactionToSpend), mutableTransaction, privateKey);
+    }
+
+    protected static void _deleteDirectory(final File directory) {
+        final File[] files = directory.listFiles();
+        if (files != null) {
+            for (final File file : files) {
+                if (file.isDirectory()) {
+                    _deleteDirectory(file);
+                }
+                else {
+                    file.delete();
+                }
+            }
+        }
+        directory.delete();
+    }
+
+    @Override @Before
+    public void before() throws Exception {
+        super.before();
+        _dataDirectory = Files.createTempDirectory("bitcoin-verde-utxo-snapshot").toFile();
+    }
+
+    @Override @After
+    public void after() throws Exception {
+        _deleteDirectory(_dataDirectory);
+        super.after();
+    }
+
+    @Test
+    public void should_export_and_import_snapshot_into_empty_node_and_connect_the_next_block() throws Exception {
+        // Setup
+        final Block block02 = _createBlockchain();
+        final File snapshotFile = new File(_dataDirectory, "utxo.snapshot");
+
+        final Boolean wasExported = _createUtxoSnapshotModule().exportSnapshot(snapshotFile.getPath(), block02.getHash().toString());
+        Assert.assertTrue(wasExported);
+        Assert.assertFalse(new File(snapshotFile.getPath() + ".partial").exists());
+
+        try (final UtxoSnapshotReader utxoSnapshotReader = new UtxoSnapshotReader(new FileInputStream(snapshotFile))) {
+            Assert.assertEquals(block02.getHash(), utxoSnapshotReader.getBlockHash());
+            Assert.assertEquals(Long.valueOf(2L), utxoSnapshotReader.getBlockHeight());
+        }
+
+        final MutableList<UtxoSnapshotEntry> exportedEntries = UtxoSnapshotModuleTests._readEntries(snapshotFile);
+        Assert.assertEquals(2, exportedEntries.getCount()); // Block01's and Block02's coinbase outputs; the genesis output is unspendable.
+
+        // Simulate a new node with an empty database...
+        super.before();
+
+        // Action
+        final Boolean wasImported = _createUtxoSnapshotModule().importSnapshot(snapshotFile.getPath());
+
+        // Assert
+        Assert.assertTrue(wasImported);
+
+        try (final FullNodeDatabaseManager databaseManager = _fullNodeDatabaseManagerFactory.newDatabaseManager()) {
+            final BlockHeaderDatabaseManager blockHeaderDatabaseManager = databaseManager.getBlockHeaderDatabaseManager();
+            final FullNodeBlockDatabaseManager blockDatabaseManager = databaseManager.getBlockDatabaseManager();
+            final UnspentTransactionOutputDatabaseManager unspentTransactionOutputDatabaseManager = databaseManager.getUnspentTransactionOutputDatabaseManager();
+            final UtxoSnapshotDatabaseManager utxoSnapshotDatabaseManager = databaseManager.getUtxoSnapshotDatabaseManager();
+
+            Assert.assertTrue(utxoSnapshotDatabaseManager.hasSnapshot());
+            Assert.assertEquals(Long.valueOf(2L), utxoSnapshotDatabaseManager.getSnapshotBlockHeight());
+            Assert.assertEquals(Long.valueOf(2L), unspentTransactionOutputDatabaseManager.getCommittedUnspentTransactionOutputBlockHeight());
+
+            final BlockId headBlockId = blockDatabaseManager.getHeadBlockId();
+            Assert.assertEquals(block02.getHash(), blockHeaderDatabaseManager.getBlockHash(headBlockId));
+            Assert.assertEquals(Long.valueOf(2L), blockHeaderDatabaseManager.getBlockHeight(headBlockId));
+
+            final MutableList<Sha256Hash> transactionHashes = new MutableList<Sha256Hash>(exportedEntries.getCount());
+            for (final UtxoSnapshotEntry utxoSnapshotEntry : exportedEntries) {
+                transactionHashes.add(utxoSnapshotEntry.getTransactionOutputIdentifier().getTransactionHash());
+            }
+            final Set<TransactionOutputIdentifier> committedTransactionOutputIdentifiers = utxoSnapshotDatabaseManager.getCommittedUnspentTransactionOutputIdentifiers(transactionHashes);
+            Assert.assertEquals(exportedEntries.getCount(), committedTransactionOutputIdentifiers.size());
+
+            for (final UtxoSnapshotEntry utxoSnapshotEntry : exportedEntries) {
+                final TransactionOutputIdentifier transactionOutputIdentifier = utxoSnapshotEntry.getTransactionOutputIdentifier();
+                Assert.assertTrue(committedTransactionOutputIdentifiers.contains(transactionOutputIdentifier));
+
+                final TransactionOutput expectedTransactionOutput = utxoSnapshotEntry.getTransactionOutput();
+                final TransactionOutput transactionOutput = utxoSnapshotDatabaseManager.getTransactionOutput(transactionOutputIdentifier);
+                Assert.assertNotNull(transactionOutput);
+                Assert.assertEquals(expectedTransactionOutput.getAmount(), transactionOutput.getAmount());
+                Assert.assertEquals(expectedTransactionOutput.getLockingScript(), transactionOutput.getLockingScript());
+                Assert.assertEquals(utxoSnapshotEntry.getBlockHeight(), utxoSnapshotDatabaseManager.getTransactionBlockHeight(transactionOutputIdentifier.getTransactionHash()));
+                Assert.assertTrue(utxoSnapshotDatabaseManager.isCoinbaseTransaction(transactionOutputIdentifier.getTransactionHash()));
+            }
+        }
+
+        // The node continues synchronizing from the snapshot's Block, including Blocks that spend outputs created after the snapshot...
+        final PrivateKey privateKey = PrivateKey.createNewKey();
+        final BlockProcessor blockProcessor = _createBlockProcessor();
+
+        final Block block03 = UtxoSnapshotModuleTests._createBlock(block02, privateKey);
+        final ProcessBlockResult block03Result = blockProcessor.processBlock(block03, null);
+        Assert.assertTrue(block03Result.isValid);
+        Assert.assertEquals(Long.valueOf(3L), block03Result.blockHeight);
+
+        final Transaction transaction = UtxoSnapshotModuleTests._createSignedTransaction(block03.getCoinbaseTransaction(), (49L * Transaction.SATOSHIS_PER_BITCOIN), privateKey);
+        final Block block04 = UtxoSnapshotModuleTests._createBlock(block03, PrivateKey.createNewKey(), transaction);
+        final ProcessBlockResult block04Result = blockProcessor.processBlock(block04, null);
+        Assert.assertTrue(block04Result.isValid);
+        Assert.assertEquals(Long.valueOf(4L), block04Result.blockHeight);
+
+        try (final FullNodeDatabaseManager databaseManager = _fullNodeDatabaseManagerFactory.newDatabaseManager()) {
+            final BlockHeaderDatabaseManager blockHeaderDatabaseManager = databaseManager.getBlockHeaderDatabaseManager();
+            final FullNodeBlockDatabaseManager blockDatabaseManager = databaseManager.getBlockDatabaseManager();
+            final UnspentTransactionOutputDatabaseManager unspentTransactionOutputDatabaseManager = databaseManager.getUnspentTransactionOutputDatabaseManager();
+
+            final BlockId headBlockId = blockDatabaseManager.getHeadBlockId();
+            Assert.assertEquals(block04.getHash(), blockHeaderDatabaseManager.getBlockHash(headBlockId));
+
+            // The snapshot's UTXOs remain spendable after the chain is extended...
+            for (final UtxoSnapshotEntry utxoSnapshotEntry : exportedEntries) {
+                final TransactionOutput transactionOutput = unspentTransactionOutputDatabaseManager.getUnspentTransactionOutput(utxoSnapshotEntry.getTransactionOutputIdentifier());
+                Assert.assertNotNull(transactionOutput);
+                Assert.assertEquals(utxoSnapshotEntry.getTransactionOutput().getAmount(), transactionOutput.getAmount());
+            }
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.softwareverde.bitcoin.server.module.explorer.api;
+
+import com.softwareverde.bitcoin.test.UnitTest;
+import com.softwareverde.cryptography.hash.sha256.Sha256Hash;
+import com.softwareverde.json.Json;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ExplorerCacheTests extends UnitTest {
+    protected static Sha256Hash createBlockHash(final Long blockHeight) {
+        return Sha256Hash.fromHexString(String.format("%064X", blockHeight));
+    }
+
+    protected static Json createTransactionJson(final Sha256Hash blockHash) {
+        final Json blockHashesJson = new Json(true);
+        blockHashesJson.add(blockHash);
+
+        final Json transactionJson = new Json(false);
+        transactionJson.put("hash", Sha256Hash.EMPTY_HASH);
+        transactionJson.put("blocks", blockHashesJson);
+        return transactionJson;
+    }
+
+    protected static void announceBlocks(final ExplorerCache explorerCache, final Long firstBlockHeight, final Long lastBlockHeight) {
+        for (long blockHeight = firstBlockHeight; blockHeight <= lastBlockHeight; ++blockHeight) {
+            explorerCache.onNewBlockHeader(ExplorerCacheTests.createBlockHash(blockHeight), blockHeight);
+        }
+    }
+
+    @Override @Before
+    public void before() throws Exception {
+        super.before();
+    }
+
+    @Override @After
+    public void after() throws Exception {
+        super.after();
+    }
+
+    @Test
+    public void should_only_consider_sufficiently_confirmed_blocks_final() {
+        // Setup
+        final ExplorerCache explorerCache = new ExplorerCache();
+        final Sha256Hash blockHash = ExplorerCacheTests.createBlockHash(100L);
+        final Json transactionJson = ExplorerCacheTests.createTransactionJson(blockHash);
+
+        // Action
+        final Boolean blockWasFinalBeforeHeadWasKnown = explorerCache.isBlockHeightFinal(100L);
+        ExplorerCacheTests.announceBlocks(explorerCache, 100L, 104L);
+        final Boolean blockWasFinalWithFiveConfirmations = explorerCache.isBlockFinal(blockHash);
+        final Boolean transactionWasFinalWithFiveConfirmations = explorerCache.isTransactionFinal(transactionJson);
+        ExplorerCacheTests.announceBlocks(explorerCache, 105L, 105L);
+
+        // Assert
+        Assert.assertFalse(blockWasFinalBeforeHeadWasKnown);
+        Assert.assertFalse(blockWasFinalWithFiveConfirmations);
+        Assert.assertFalse(transactionWasFinalWithFiveConfirmations);
+
+        Assert.assertTrue(explorerCache.isBlockHeightFinal(100L));
+        Assert.assertFalse(explorerCache.isBlockHeightFinal(101L));
+        Assert.assertTrue(explorerCache.isBlockFinal(blockHash));
+        Assert.assertTrue(explorerCache.isTransactionFinal(transactionJson));
+    }
+
+    @Test
+    public void should_discard_volatile_entries_when_a_block_is_announced() {
+        // Setup
+        final ExplorerCache explorerCache = new ExplorerCache();
+        ExplorerCacheTests.announceBlocks(explorerCache, 1L, 10L);
+
+        final Json json = new Json(false);
+        json.put("value", 1);
+
+        final Long staleGeneration = explorerCache.getGeneration();
+        ExplorerCacheTests.announceBlocks(explorerCache, 11L, 11L);
+
+        explorerCache.putImmutable("immutable", json);
+        explorerCache.putVolatile("volatile", json, explorerCache.getGeneration());
+        explorerCache.putVolatile("stale", json, staleGeneration);
+
+        // Action
+        final Json volatileJsonBeforeNewBlock = explorerCache.get("volatile");
+        ExplorerCacheTests.announceBlocks(explorerCache, 12L, 12L);
+
+        // Assert
+        Assert.assertNotNull(volatileJsonBeforeNewBlock);
+        Assert.assertEquals(Integer.valueOf(1), volatileJsonBeforeNewBlock.getInteger("value"));
+
+        Assert.assertNull(explorerCache.get("volatile"));
+        Assert.assertNull(explorerCache.get("stale"));
+        Assert.assertNotNull(explorerCache.get("immutable"));
+        Assert.assertEquals(Integer.valueOf(1), explorerCache.getEntryCount());
+    }
+
+    @Test
+    public void should_evict_least_recently_used_entries_once_full() {
+        // Setup
+        final Json json = new Json(false);
+        json.put("value", "0000000000000000000000000000000000000000000000000000000000000000");
+        final Long entryByteCount = (("key0".length() + json.toString().length()) * 2L);
+
+        final ExplorerCache explorerCache = new ExplorerCache(entryByteCount * 3L);
+        explorerCache.putImmutable("key0", json);
+        explorerCache.putImmutable("key1", json);
+        explorerCache.putImmutable("key2", json);
+        explorerCache.get("key0"); // Touch the oldest entry so that it is retained.
+
+        // Action
+        explorerCache.putImmutable("key3", json);
+
+        // Assert
+        Assert.assertNotNull(explorerCache.get("key0"));
+        Assert.assertNull(explorerCache.get("key1"));
+        Assert.assertNotNull(explorerCache.get("key2"));
+        Assert.assertNotNull(explorerCache.get("key3"));
+        Assert.assertEquals(Long.valueOf(entryByteCount * 3L), explorerCache.getByteCount());
+    }
+}
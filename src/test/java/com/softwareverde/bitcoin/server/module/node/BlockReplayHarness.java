@@ -0,0 +1,267 @@
+package com.softwareverde.bitcoin.server.module.node;
+
+import com.softwareverde.bitcoin.block.Block;
+import com.softwareverde.bitcoin.block.BlockInflater;
+import com.softwareverde.bitcoin.block.validator.BlockValidator;
+import com.softwareverde.bitcoin.context.core.BlockProcessorContext;
+import com.softwareverde.bitcoin.server.module.node.database.fullnode.FullNodeDatabaseManagerFactory;
+import com.softwareverde.bitcoin.server.module.node.database.transaction.fullnode.utxo.UnspentTransactionOutputDatabaseManager;
+import com.softwareverde.bitcoin.server.module.node.database.transaction.fullnode.utxo.UnspentTransactionOutputJvmManager;
+import com.softwareverde.bitcoin.server.module.node.store.PendingBlockStoreCore;
+import com.softwareverde.bitcoin.test.BlockData;
+import com.softwareverde.bitcoin.test.IntegrationTest;
+import com.softwareverde.bitcoin.transaction.validator.TransactionValidator;
+import com.softwareverde.constable.bytearray.ByteArray;
+import com.softwareverde.constable.list.List;
+import com.softwareverde.constable.list.mutable.MutableList;
+import com.softwareverde.json.Json;
+import com.softwareverde.network.time.MutableNetworkTime;
+import com.softwareverde.util.Util;
+import com.softwareverde.util.timer.NanoTimer;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Properties;
+
+/**
+ * Replays a fixed, contiguous sequence of Blocks (beginning with the genesis Block) through BlockProcessor::processBlock,
+ *  against the embedded test database and a temporary BlockStore, and reports the sync throughput.
+ *  Since the sequence and the starting state are identical between runs, the reports of runs with different tuning settings
+ *  (i.e. maxUtxoCacheByteCount, maxThreadCount, and utxoCommitFrequency) may be compared directly.
+ *
+ *  Usage: ./gradlew ibdReplay -PreplayArgs="blocks=/path/to/blocks maxThreadCount=4 report=build/reports/replay.json"
+ *  Each file within the blocks directory contains a single (hex or binary) serialized Block; files are replayed in name order.
+ *  If no directory is provided, the first mainnet Blocks bundled with the tests are replayed.
+ */
+public class BlockReplayHarness extends IntegrationTest {
+    public static class Report {
+        public final Integer blockCount;
+        public final Long transactionCount;
+        public final Double duration;
+        public final Double inflateDuration;
+        public final Double processBlockHeaderDuration;
+        public final Double loadUnspentTransactionOutputsDuration;
+        public final Double validationDuration;
+        public final Double storeDuration;
+        public final Double commitDuration;
+        public final Long cacheHitCount;
+        public final Long cacheMissCount;
+
+        protected Report(final Integer blockCount, final Double duration, final Double inflateDuration, final BlockProcessorTimings timings, final Long cacheHitCount, final Long cacheMissCount) {
+            this.blockCount = blockCount;
+            this.transactionCount = timings.getTransactionCount();
+            this.duration = duration;
+            this.inflateDuration = inflateDuration;
+            this.processBlockHeaderDuration = timings.getProcessBlockHeaderDuration();
+            this.loadUnspentTransactionOutputsDuration = timings.getLoadUnspentTransactionOutputsDuration();
+            this.validationDuration = timings.getValidationDuration();
+            this.storeDuration = timings.getStoreDuration();
+            this.commitDuration = timings.getCommitDuration();
+            this.cacheHitCount = cacheHitCount;
+            this.cacheMissCount = cacheMissCount;
+        }
+
+        public Double getBlocksPerSecond() {
+            if (this.duration <= 0D) { return 0D; }
+            return ((this.blockCount * 1000D) / this.duration);
+        }
+
+        public Double getTransactionsPerSecond() {
+            if (this.duration <= 0D) { return 0D; }
+            return ((this.transactionCount * 1000D) / this.duration);
+        }
+
+        /**
+         * Returns the ratio of UTXO lookups that were served from memory, or null if no lookups were performed.
+         */
+        public Double getCacheHitRate() {
+            final long lookupCount = (this.cacheHitCount + this.cacheMissCount);
+            if (lookupCount == 0L) { return null; }
+            return (this.cacheHitCount / ((double) lookupCount));
+        }
+
+        public Json toJson() {
+            final Json phasesJson = new Json(false);
+            phasesJson.put("inflate", this.inflateDuration);
+            phasesJson.put("processBlockHeader", this.processBlockHeaderDuration);
+            phasesJson.put("loadUtxos", this.loadUnspentTransactionOutputsDuration);
+            phasesJson.put("validation", this.validationDuration);
+            phasesJson.put("store", this.storeDuration);
+            phasesJson.put("commit", this.commitDuration);
+
+            final Json json = new Json(false);
+            json.put("blockCount", this.blockCount);
+            json.put("transactionCount", this.transactionCount);
+            json.put("durationMs", this.duration);
+            json.put("blocksPerSecond", this.getBlocksPerSecond());
+            json.put("transactionsPerSecond", this.getTransactionsPerSecond());
+            json.put("utxoCacheHitCount", this.cacheHitCount);
+            json.put("utxoCacheMissCount", this.cacheMissCount);
+            json.put("utxoCacheHitRate", this.getCacheHitRate());
+            json.put("phaseDurationsMs", phasesJson);
+            return json;
+        }
+    }
+
+    /**
+     * Returns the contiguous prefix of the mainnet chain bundled with the tests.
+     */
+    public static List<ByteArray> getDefaultBlocks() {
+        final MutableList<ByteArray> blocksBytes = new MutableList<ByteArray>();
+        blocksBytes.add(ByteArray.fromHexString(BlockData.MainChain.GENESIS_BLOCK));
+        blocksBytes.add(ByteArray.fromHexString(BlockData.MainChain.BLOCK_1));
+        blocksBytes.add(ByteArray.fromHexString(BlockData.MainChain.BLOCK_2));
+        blocksBytes.add(ByteArray.fromHexString(BlockData.MainChain.BLOCK_3));
+        blocksBytes.add(ByteArray.fromHexString(BlockData.MainChain.BLOCK_4));
+        blocksBytes.add(ByteArray.fromHexString(BlockData.MainChain.BLOCK_5));
+        return blocksBytes;
+    }
+
+    /**
+     * Loads every Block within the directory, in file-name order.
+     *  Files may contain either the hex-encoded Block (as returned by the node's RPC) or its raw bytes.
+     */
+    public static List<ByteArray> loadBlocks(final File blocksDirectory) throws Exception {
+        final File[] blockFiles = blocksDirectory.listFiles();
+        if (blockFiles == null) { throw new Exception("Unable to list blocks directory: " + blocksDirectory); }
+
+        Arrays.sort(blockFiles);
+
+        final MutableList<ByteArray> blocksBytes = new MutableList<ByteArray>(blockFiles.length);
+        for (final File blockFile : blockFiles) {
+            if (! blockFile.isFile()) { continue; }
+
+            final byte[] fileContents = Files.readAllBytes(blockFile.toPath());
+            final ByteArray hexDecodedBytes = ByteArray.fromHexString(new String(fileContents, StandardCharsets.US_ASCII).trim());
+            blocksBytes.add((hexDecodedBytes != null) ? hexDecodedBytes : ByteArray.wrap(fileContents));
+        }
+        return blocksBytes;
+    }
+
+    protected static void _deleteDirectory(final File directory) {
+        final File[] files = directory.listFiles();
+        if (files != null) {
+            for (final File file : files) {
+                if (file.isDirectory()) {
+                    _deleteDirectory(file);
+                }
+                else {
+                    file.delete();
+                }
+            }
+        }
+        directory.delete();
+    }
+
+    protected Long _maxUtxoCacheByteCount = (UnspentTransactionOutputDatabaseManager.DEFAULT_MAX_UTXO_CACHE_COUNT * UnspentTransactionOutputDatabaseManager.BYTES_PER_UTXO);
+    protected Integer _maxThreadCount = 4;
+    protected Long _utxoCommitFrequency = 2016L;
+
+    public void setMaxUtxoCacheByteCount(final Long maxUtxoCacheByteCount) {
+        _maxUtxoCacheByteCount = maxUtxoCacheByteCount;
+    }
+
+    public void setMaxThreadCount(final Integer maxThreadCount) {
+        _maxThreadCount = maxThreadCount;
+    }
+
+    public void setUtxoCommitFrequency(final Long utxoCommitFrequency) {
+        _utxoCommitFrequency = utxoCommitFrequency;
+    }
+
+    /**
+     * Resets the database and the UTXO set, and then processes each Block in order.
+     *  An Exception is thrown if any Block fails to process, since the results of a partial replay are not comparable.
+     */
+    public Report replay(final List<ByteArray> blocksBytes) throws Exception {
+        this.before();
+        _requiredCoinbaseMaturity = TransactionValidator.COINBASE_MATURITY;
+
+        final File blockDataDirectory = Files.createTempDirectory("bitcoin-verde-replay").toFile();
+        try {
+            final PendingBlockStoreCore blockStore = new PendingBlockStoreCore(new File(blockDataDirectory, "blocks").getPath(), new File(blockDataDirectory, "pending-blocks").getPath(), _masterInflater, _masterInflater);
+
+            final Long maxUtxoCount = (_maxUtxoCacheByteCount / UnspentTransactionOutputDatabaseManager.BYTES_PER_UTXO);
+            final FullNodeDatabaseManagerFactory databaseManagerFactory = new FullNodeDatabaseManagerFactory(_databaseConnectionFactory, _database.getMaxQueryBatchSize(), blockStore, _masterInflater, _checkpointConfiguration, maxUtxoCount, UnspentTransactionOutputDatabaseManager.DEFAULT_PURGE_PERCENT);
+
+            final BlockProcessorContext blockProcessorContext = new BlockProcessorContext(_masterInflater, _masterInflater, blockStore, databaseManagerFactory, new MutableNetworkTime(), _synchronizationStatus, _transactionValidatorFactory);
+            final BlockProcessor blockProcessor = new BlockProcessor(blockProcessorContext);
+            blockProcessor.setMaxThreadCount(_maxThreadCount);
+            blockProcessor.setUtxoCommitFrequency(_utxoCommitFrequency);
+            blockProcessor.setTrustedBlockHeight(BlockValidator.DO_NOT_TRUST_BLOCKS);
+
+            final BlockInflater blockInflater = _masterInflater.getBlockInflater();
+            final Long initialCacheHitCount = UnspentTransactionOutputJvmManager.getCacheHitCount(); // The cache statistics are cumulative for the process.
+            final Long initialCacheMissCount = UnspentTransactionOutputJvmManager.getCacheMissCount();
+
+            final NanoTimer replayTimer = new NanoTimer();
+            final NanoTimer inflateTimer = new NanoTimer();
+            double inflateDuration = 0D;
+
+            replayTimer.start();
+            int blockIndex = 0;
+            for (final ByteArray blockBytes : blocksBytes) {
+                inflateTimer.start();
+                final Block block = blockInflater.fromBytes(blockBytes);
+                inflateTimer.stop();
+                inflateDuration += inflateTimer.getMillisecondsElapsed();
+
+                if (block == null) { throw new Exception("Unable to inflate Block #" + blockIndex + "."); }
+
+                final ProcessBlockResult processBlockResult = blockProcessor.processBlock(block, null);
+                if (! processBlockResult.isValid) { throw new Exception("Unable to process Block #" + blockIndex + ": " + block.getHash()); }
+
+                blockIndex += 1;
+            }
+            replayTimer.stop();
+
+            return new Report(blockIndex, replayTimer.getMillisecondsElapsed(), inflateDuration, blockProcessor.getTimings(), (UnspentTransactionOutputJvmManager.getCacheHitCount() - initialCacheHitCount), (UnspentTransactionOutputJvmManager.getCacheMissCount() - initialCacheMissCount));
+        }
+        finally {
+            _deleteDirectory(blockDataDirectory);
+        }
+    }
+
+    /**
+     * Arguments are provided as key=value pairs: blocks, report, maxUtxoCacheByteCount, maxThreadCount, and utxoCommitFrequency.
+     */
+    public static void main(final String[] commandLineArguments) throws Exception {
+        final Properties arguments = new Properties();
+        for (final String commandLineArgument : commandLineArguments) {
+            final int separatorIndex = commandLineArgument.indexOf('=');
+            if (separatorIndex < 0) { throw new IllegalArgumentException("Invalid argument: " + commandLineArgument); }
+
+            arguments.setProperty(commandLineArgument.substring(0, separatorIndex).trim(), commandLineArgument.substring(separatorIndex + 1).trim());
+        }
+
+        final BlockReplayHarness blockReplayHarness = new BlockReplayHarness();
+        blockReplayHarness.setMaxUtxoCacheByteCount(Util.parseLong(arguments.getProperty("maxUtxoCacheByteCount", String.valueOf(blockReplayHarness._maxUtxoCacheByteCount))));
+        blockReplayHarness.setMaxThreadCount(Util.parseInt(arguments.getProperty("maxThreadCount", String.valueOf(blockReplayHarness._maxThreadCount))));
+        blockReplayHarness.setUtxoCommitFrequency(Util.parseLong(arguments.getProperty("utxoCommitFrequency", String.valueOf(blockReplayHarness._utxoCommitFrequency))));
+
+        final String blocksDirectory = arguments.getProperty("blocks");
+        final List<ByteArray> blocksBytes = ((blocksDirectory != null) ? BlockReplayHarness.loadBlocks(new File(blocksDirectory)) : BlockReplayHarness.getDefaultBlocks());
+
+        final Report report = blockReplayHarness.replay(blocksBytes);
+        final Json reportJson = report.toJson();
+        reportJson.put("maxUtxoCacheByteCount", blockReplayHarness._maxUtxoCacheByteCount);
+        reportJson.put("maxThreadCount", blockReplayHarness._maxThreadCount);
+        reportJson.put("utxoCommitFrequency", blockReplayHarness._utxoCommitFrequency);
+
+        System.out.println(reportJson.toFormattedString(2));
+
+        final String reportFileName = arguments.getProperty("report");
+        if (reportFileName != null) {
+            final File reportFile = new File(reportFileName);
+            final File reportDirectory = reportFile.getAbsoluteFile().getParentFile();
+            if (reportDirectory != null) {
+                reportDirectory.mkdirs();
+            }
+            Files.write(reportFile.toPath(), reportJson.toString().getBytes(StandardCharsets.UTF_8));
+        }
+
+        System.exit(0); // The embedded database and thread pools would otherwise keep the JVM alive.
+    }
+}
@@ -0,0 +1,41 @@
+package com.softwareverde.bitcoin.server.module.node;
+
+import com.softwareverde.bitcoin.test.IntegrationTest;
+import com.softwareverde.json.Json;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class BlockReplayHarnessTests extends IntegrationTest {
+    @Override @Before
+    public void before() throws Exception {
+        super.before();
+    }
+
+    @Override @After
+    public void after() throws Exception {
+        super.after();
+    }
+
+    @Test
+    public void should_replay_bundled_blocks_and_report_phase_timings() throws Exception {
+        // Setup
+        final BlockReplayHarness blockReplayHarness = new BlockReplayHarness();
+        blockReplayHarness.setMaxThreadCount(1);
+
+        // Action
+        final BlockReplayHarness.Report report = blockReplayHarness.replay(BlockReplayHarness.getDefaultBlocks());
+
+        // Assert
+        Assert.assertEquals(Integer.valueOf(6), report.blockCount);
+        Assert.assertEquals(Long.valueOf(6L), report.transactionCount);
+        Assert.assertTrue(report.duration > 0D);
+        Assert.assertTrue(report.getBlocksPerSecond() > 0D);
+
+        final Json reportJson = report.toJson();
+        Assert.assertEquals(Integer.valueOf(6), reportJson.getInteger("blockCount"));
+        Assert.assertTrue(reportJson.hasKey("phaseDurationsMs"));
+        Assert.assertTrue(reportJson.get("phaseDurationsMs").hasKey("validation"));
+    }
+}
@@ -1,7 +1,10 @@
 package com.softwareverde.bitcoin.server.module.node.database.transaction.fullnode.utxo;
 
 import com.softwareverde.bitcoin.server.database.DatabaseConnection;
+import com.softwareverde.bitcoin.server.database.DatabaseConnectionFactory;
 import com.softwareverde.bitcoin.server.database.query.Query;
+import com.softwareverde.bitcoin.server.module.node.database.DatabaseManager;
+import com.softwareverde.bitcoin.server.module.node.database.DatabaseManagerFactory;
 import com.softwareverde.bitcoin.server.module.node.database.fullnode.FullNodeDatabaseManager;
 import com.softwareverde.bitcoin.test.IntegrationTest;
 import com.softwareverde.bitcoin.transaction.output.identifier.TransactionOutputIdentifier;
@@ -17,6 +20,7 @@ import org.junit.Before;
 import org.junit.Test;
 
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class UnspentTransactionOutputDatabaseManagerTests extends IntegrationTest {
     @Override @Before
@@ -86,4 +90,167 @@ public class UnspentTransactionOutputDatabaseManagerTests extends IntegrationTes
             Assert.assertEquals(MAX_UTXO_COUNT, _getUtxoCountOnDisk(databaseConnection));
         }
     }
+
+    @Test
+    public void should_commit_spent_and_unspent_utxos_across_all_partitions() throws Exception {
+        // Setup
+        final FullNodeDatabaseManager fullNodeDatabaseManager = _fullNodeDatabaseManagerFactory.newDatabaseManager();
+        final int utxoCount = 1024;
+
+        final UnspentTransactionOutputDatabaseManager unspentTransactionOutputDatabaseManager = new UnspentTransactionOutputJvmManager((long) (utxoCount * 4), 0.50F, fullNodeDatabaseManager, _blockStore, _masterInflater);
+
+        final MutableList<TransactionOutputIdentifier> transactionOutputIdentifiers = new MutableList<TransactionOutputIdentifier>(utxoCount);
+        for (int i = 0; i < utxoCount; ++i) {
+            final Sha256Hash transactionHash = Sha256Hash.wrap(HashUtil.sha256(ByteUtil.integerToBytes(i)));
+            transactionOutputIdentifiers.add(new TransactionOutputIdentifier(transactionHash, 0));
+        }
+
+        unspentTransactionOutputDatabaseManager.insertUnspentTransactionOutputs(transactionOutputIdentifiers, 1L);
+        unspentTransactionOutputDatabaseManager.setUncommittedUnspentTransactionOutputBlockHeight(1L);
+        unspentTransactionOutputDatabaseManager.commitUnspentTransactionOutputs(_fullNodeDatabaseManagerFactory, true);
+
+        final MutableList<TransactionOutputIdentifier> spentTransactionOutputIdentifiers = new MutableList<TransactionOutputIdentifier>(utxoCount / 2);
+        for (int i = 0; i < utxoCount; i += 2) {
+            spentTransactionOutputIdentifiers.add(transactionOutputIdentifiers.get(i));
+        }
+
+        unspentTransactionOutputDatabaseManager.markTransactionOutputsAsSpent(spentTransactionOutputIdentifiers);
+        unspentTransactionOutputDatabaseManager.setUncommittedUnspentTransactionOutputBlockHeight(2L);
+
+        // Action
+        unspentTransactionOutputDatabaseManager.commitUnspentTransactionOutputs(_fullNodeDatabaseManagerFactory, true);
+
+        // Assert
+        try (final DatabaseConnection databaseConnection = _databaseConnectionFactory.newConnection()) {
+            Assert.assertEquals(Long.valueOf(utxoCount), _getUtxoCountOnDisk(databaseConnection));
+
+            final List<Row> spentRows = databaseConnection.query(new Query("SELECT COUNT(*) AS count FROM committed_unspent_transaction_outputs WHERE is_spent = 1"));
+            Assert.assertEquals(Long.valueOf(spentTransactionOutputIdentifiers.getCount()), spentRows.get(0).getLong("count"));
+
+            final List<Row> recoveryRows = databaseConnection.query(
+                new Query("SELECT value FROM properties WHERE `key` = ?")
+                    .setParameter(UnspentTransactionOutputJvmManager.COMMIT_RECOVERY_BLOCK_HEIGHT_KEY)
+            );
+            Assert.assertTrue(recoveryRows.isEmpty());
+        }
+
+        Assert.assertEquals(Long.valueOf(2L), unspentTransactionOutputDatabaseManager.getCommittedUnspentTransactionOutputBlockHeight());
+    }
+
+    @Test
+    public void should_not_mark_utxos_as_spent_when_commit_is_interrupted_and_should_recover_by_replaying() throws Exception {
+        // Setup
+        final int utxoCount = 1024;
+        final int newUtxoCount = 256;
+
+        final MutableList<TransactionOutputIdentifier> transactionOutputIdentifiers = new MutableList<TransactionOutputIdentifier>(utxoCount);
+        for (int i = 0; i < utxoCount; ++i) {
+            final Sha256Hash transactionHash = Sha256Hash.wrap(HashUtil.sha256(ByteUtil.integerToBytes(i)));
+            transactionOutputIdentifiers.add(new TransactionOutputIdentifier(transactionHash, 0));
+        }
+
+        final MutableList<TransactionOutputIdentifier> newTransactionOutputIdentifiers = new MutableList<TransactionOutputIdentifier>(newUtxoCount);
+        for (int i = 0; i < newUtxoCount; ++i) {
+            final Sha256Hash transactionHash = Sha256Hash.wrap(HashUtil.sha256(ByteUtil.integerToBytes(utxoCount + i)));
+            newTransactionOutputIdentifiers.add(new TransactionOutputIdentifier(transactionHash, 0));
+        }
+
+        final MutableList<TransactionOutputIdentifier> spentTransactionOutputIdentifiers = new MutableList<TransactionOutputIdentifier>(utxoCount / 2);
+        for (int i = 0; i < utxoCount; i += 2) {
+            spentTransactionOutputIdentifiers.add(transactionOutputIdentifiers.get(i));
+        }
+
+        { // Commit the initial UTXO set at block height 1...
+            final FullNodeDatabaseManager fullNodeDatabaseManager = _fullNodeDatabaseManagerFactory.newDatabaseManager();
+            final UnspentTransactionOutputDatabaseManager unspentTransactionOutputDatabaseManager = new UnspentTransactionOutputJvmManager((long) (utxoCount * 4), 0.50F, fullNodeDatabaseManager, _blockStore, _masterInflater);
+            unspentTransactionOutputDatabaseManager.insertUnspentTransactionOutputs(transactionOutputIdentifiers, 1L);
+            unspentTransactionOutputDatabaseManager.setUncommittedUnspentTransactionOutputBlockHeight(1L);
+            unspentTransactionOutputDatabaseManager.commitUnspentTransactionOutputs(_fullNodeDatabaseManagerFactory, true);
+        }
+
+        // The factory fails every request after the recovery height and the partitions' connections have been acquired,
+        //  which interrupts the commit between the partitioned inserts and the final (spent UTXOs and committed height) sql-transaction.
+        final AtomicInteger databaseManagerCount = new AtomicInteger(0);
+        final int maxDatabaseManagerCount = (1 + UnspentTransactionOutputJvmManager.COMMIT_PARTITION_COUNT);
+        final DatabaseManagerFactory interruptingDatabaseManagerFactory = new DatabaseManagerFactory() {
+            @Override
+            public DatabaseManager newDatabaseManager() throws DatabaseException {
+                if (databaseManagerCount.incrementAndGet() > maxDatabaseManagerCount) {
+                    throw new DatabaseException("Simulated termination.");
+                }
+                return _fullNodeDatabaseManagerFactory.newDatabaseManager();
+            }
+
+            @Override
+            public DatabaseConnectionFactory getDatabaseConnectionFactory() {
+                return _fullNodeDatabaseManagerFactory.getDatabaseConnectionFactory();
+            }
+
+            @Override
+            public DatabaseManagerFactory newDatabaseManagerFactory(final DatabaseConnectionFactory databaseConnectionFactory) {
+                return _fullNodeDatabaseManagerFactory.newDatabaseManagerFactory(databaseConnectionFactory);
+            }
+
+            @Override
+            public Integer getMaxQueryBatchSize() {
+                return _fullNodeDatabaseManagerFactory.getMaxQueryBatchSize();
+            }
+        };
+
+        { // Apply block 2 and attempt to commit it...
+            final FullNodeDatabaseManager fullNodeDatabaseManager = _fullNodeDatabaseManagerFactory.newDatabaseManager();
+            final UnspentTransactionOutputDatabaseManager unspentTransactionOutputDatabaseManager = new UnspentTransactionOutputJvmManager((long) (utxoCount * 4), 0.50F, fullNodeDatabaseManager, _blockStore, _masterInflater);
+            unspentTransactionOutputDatabaseManager.insertUnspentTransactionOutputs(newTransactionOutputIdentifiers, 2L);
+            unspentTransactionOutputDatabaseManager.markTransactionOutputsAsSpent(spentTransactionOutputIdentifiers);
+            unspentTransactionOutputDatabaseManager.setUncommittedUnspentTransactionOutputBlockHeight(2L);
+            unspentTransactionOutputDatabaseManager.commitUnspentTransactionOutputs(interruptingDatabaseManagerFactory, true);
+        }
+
+        try (final DatabaseConnection databaseConnection = _databaseConnectionFactory.newConnection()) {
+            // The partitioned inserts may be written, but no UTXO may be marked as spent beyond the committed height, otherwise replaying block 2 would fail...
+            final List<Row> spentRows = databaseConnection.query(new Query("SELECT COUNT(*) AS count FROM committed_unspent_transaction_outputs WHERE is_spent = 1"));
+            Assert.assertEquals(Long.valueOf(0L), spentRows.get(0).getLong("count"));
+
+            Assert.assertEquals(Long.valueOf(1L), UnspentTransactionOutputJvmManager._getCommittedUnspentTransactionOutputBlockHeight(databaseConnection));
+
+            final List<Row> recoveryRows = databaseConnection.query(
+                new Query("SELECT value FROM properties WHERE `key` = ?")
+                    .setParameter(UnspentTransactionOutputJvmManager.COMMIT_RECOVERY_BLOCK_HEIGHT_KEY)
+            );
+            Assert.assertEquals(Long.valueOf(2L), recoveryRows.get(0).getLong("value"));
+        }
+
+        // Simulate a restart; the in-memory UTXO set is reloaded at the committed height...
+        UnspentTransactionOutputJvmManager.UTXO_SET.clear();
+        UnspentTransactionOutputJvmManager.DOUBLE_BUFFER.clear();
+        UnspentTransactionOutputJvmManager.COMMIT_RECOVERY_BLOCK_HEIGHT.value = null;
+        UnspentTransactionOutputJvmManager.UNCOMMITTED_UTXO_BLOCK_HEIGHT.value = 1L;
+
+        // Action
+        { // Replay block 2...
+            final FullNodeDatabaseManager fullNodeDatabaseManager = _fullNodeDatabaseManagerFactory.newDatabaseManager();
+            final UnspentTransactionOutputDatabaseManager unspentTransactionOutputDatabaseManager = new UnspentTransactionOutputJvmManager((long) (utxoCount * 4), 0.50F, fullNodeDatabaseManager, _blockStore, _masterInflater);
+
+            unspentTransactionOutputDatabaseManager.insertUnspentTransactionOutputs(newTransactionOutputIdentifiers, 2L);
+            unspentTransactionOutputDatabaseManager.markTransactionOutputsAsSpent(spentTransactionOutputIdentifiers);
+            unspentTransactionOutputDatabaseManager.setUncommittedUnspentTransactionOutputBlockHeight(2L);
+            unspentTransactionOutputDatabaseManager.commitUnspentTransactionOutputs(_fullNodeDatabaseManagerFactory, true);
+        }
+
+        // Assert
+        try (final DatabaseConnection databaseConnection = _databaseConnectionFactory.newConnection()) {
+            Assert.assertEquals(Long.valueOf(utxoCount + newUtxoCount), _getUtxoCountOnDisk(databaseConnection));
+
+            final List<Row> spentRows = databaseConnection.query(new Query("SELECT COUNT(*) AS count FROM committed_unspent_transaction_outputs WHERE is_spent = 1"));
+            Assert.assertEquals(Long.valueOf(spentTransactionOutputIdentifiers.getCount()), spentRows.get(0).getLong("count"));
+
+            Assert.assertEquals(Long.valueOf(2L), UnspentTransactionOutputJvmManager._getCommittedUnspentTransactionOutputBlockHeight(databaseConnection));
+
+            final List<Row> recoveryRows = databaseConnection.query(
+                new Query("SELECT value FROM properties WHERE `key` = ?")
+                    .setParameter(UnspentTransactionOutputJvmManager.COMMIT_RECOVERY_BLOCK_HEIGHT_KEY)
+            );
+            Assert.assertTrue(recoveryRows.isEmpty());
+        }
+    }
 }
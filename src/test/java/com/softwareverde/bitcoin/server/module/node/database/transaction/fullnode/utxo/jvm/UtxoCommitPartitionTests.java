@@ -0,0 +1,117 @@
+package com.softwareverde.bitcoin.server.module.node.database.transaction.fullnode.utxo.jvm;
+
+import com.softwareverde.bitcoin.test.UnitTest;
+import com.softwareverde.bitcoin.util.ByteUtil;
+import com.softwareverde.cryptography.util.HashUtil;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+public class UtxoCommitPartitionTests extends UnitTest {
+    protected static TreeMap<UtxoKey, UtxoValue> createUtxos(final Integer utxoCount) {
+        final JvmSpentState spentState = new JvmSpentState();
+        spentState.setIsSpent(false);
+        spentState.setIsFlushedToDisk(false);
+        spentState.setIsFlushMandatory(false);
+        final UtxoValue utxoValue = new UtxoValue(spentState, 1L);
+
+        final TreeMap<UtxoKey, UtxoValue> utxos = new TreeMap<UtxoKey, UtxoValue>(UtxoKey.COMPARATOR);
+        for (int i = 0; i < utxoCount; ++i) {
+            final byte[] transactionHash = HashUtil.sha256(ByteUtil.integerToBytes(i));
+            utxos.put(new UtxoKey(transactionHash, (i % 3)), utxoValue);
+        }
+        return utxos;
+    }
+
+    @Override @Before
+    public void before() throws Exception {
+        super.before();
+    }
+
+    @Override @After
+    public void after() throws Exception {
+        super.after();
+    }
+
+    @Test
+    public void should_order_utxo_keys_by_unsigned_bytes() {
+        // Setup
+        final byte[] lowTransactionHash = new byte[32];
+        lowTransactionHash[0] = (byte) 0x7F;
+
+        final byte[] highTransactionHash = new byte[32];
+        highTransactionHash[0] = (byte) 0x80;
+
+        // Action
+        final int compare = UtxoKey.COMPARATOR.compare(new UtxoKey(lowTransactionHash, 0), new UtxoKey(highTransactionHash, 0));
+
+        // Assert
+        Assert.assertTrue(compare < 0);
+    }
+
+    @Test
+    public void should_split_utxos_into_disjoint_contiguous_partitions() {
+        // Setup
+        final TreeMap<UtxoKey, UtxoValue> utxos = UtxoCommitPartitionTests.createUtxos(4096);
+
+        // Action
+        final UtxoCommitPartition[] partitions = UtxoCommitPartition.createPartitions(utxos, 4);
+
+        // Assert
+        Assert.assertEquals(4, partitions.length);
+
+        int totalUtxoCount = 0;
+        UtxoKey previousUtxoKey = null;
+        for (int i = 0; i < partitions.length; ++i) {
+            final NavigableMap<UtxoKey, UtxoValue> partitionUtxos = partitions[i].getUncommittedUtxos();
+            Assert.assertFalse(partitionUtxos.isEmpty()); // With uniformly distributed hashes, every partition should receive UTXOs.
+
+            for (final UtxoKey utxoKey : partitionUtxos.keySet()) {
+                final int firstByte = (utxoKey.transactionHash[0] & 0xFF);
+                Assert.assertTrue(firstByte >= ((i * 256) / partitions.length));
+                Assert.assertTrue(firstByte < (((i + 1) * 256) / partitions.length));
+
+                if (previousUtxoKey != null) {
+                    Assert.assertTrue(UtxoKey.COMPARATOR.compare(previousUtxoKey, utxoKey) < 0);
+                }
+                previousUtxoKey = utxoKey;
+            }
+
+            totalUtxoCount += partitionUtxos.size();
+        }
+
+        Assert.assertEquals(utxos.size(), totalUtxoCount);
+    }
+
+    @Test
+    public void should_resume_partition_after_checkpoint() {
+        // Setup
+        final TreeMap<UtxoKey, UtxoValue> utxos = UtxoCommitPartitionTests.createUtxos(256);
+        final UtxoCommitPartition partition = UtxoCommitPartition.createPartitions(utxos, 1)[0];
+
+        UtxoKey checkpoint = null;
+        int i = 0;
+        for (final Map.Entry<UtxoKey, UtxoValue> entry : utxos.entrySet()) {
+            i += 1;
+            if (i == 100) {
+                checkpoint = entry.getKey();
+                break;
+            }
+        }
+
+        // Action
+        partition.setCheckpoint(checkpoint, 100);
+
+        // Assert
+        final NavigableMap<UtxoKey, UtxoValue> uncommittedUtxos = partition.getUncommittedUtxos();
+        Assert.assertEquals(156, uncommittedUtxos.size());
+        Assert.assertTrue(UtxoKey.COMPARATOR.compare(checkpoint, uncommittedUtxos.firstKey()) < 0);
+        Assert.assertEquals(Integer.valueOf(100), partition.getCommittedItemCount());
+        Assert.assertFalse(partition.isComplete());
+    }
+}
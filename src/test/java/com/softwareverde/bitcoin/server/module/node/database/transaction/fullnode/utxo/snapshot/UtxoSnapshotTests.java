@@ -0,0 +1,180 @@
+package com.softwareverde.bitcoin.server.module.node.database.transaction.fullnode.utxo.snapshot;
+
+import com.softwareverde.bitcoin.block.Block;
+import com.softwareverde.bitcoin.block.BlockInflater;
+import com.softwareverde.bitcoin.block.header.BlockHeader;
+import com.softwareverde.bitcoin.server.module.node.database.transaction.fullnode.utxo.jvm.UtxoKey;
+import com.softwareverde.bitcoin.test.UnitTest;
+import com.softwareverde.bitcoin.transaction.Transaction;
+import com.softwareverde.bitcoin.transaction.output.TransactionOutput;
+import com.softwareverde.bitcoin.transaction.output.identifier.TransactionOutputIdentifier;
+import com.softwareverde.bitcoin.util.IoUtil;
+import com.softwareverde.constable.bytearray.ByteArray;
+import com.softwareverde.constable.list.List;
+import com.softwareverde.constable.list.mutable.MutableList;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+
+public class UtxoSnapshotTests extends UnitTest {
+    protected static Block getBlock() {
+        final BlockInflater blockInflater = new BlockInflater();
+        return blockInflater.fromBytes(ByteArray.fromHexString(IoUtil.getResource("/blocks/00000000000000000051CFB8C9B8191EC4EF14F8F44F3E2290D67A8A0A29DD05")));
+    }
+
+    /**
+     * Returns an entry for every output of the Block, sorted in snapshot order.
+     */
+    protected static List<UtxoSnapshotEntry> getSortedEntries(final Block block) {
+        final ArrayList<UtxoSnapshotEntry> utxoSnapshotEntries = new ArrayList<UtxoSnapshotEntry>();
+
+        boolean isCoinbase = true;
+        for (final Transaction transaction : block.getTransactions()) {
+            final List<TransactionOutput> transactionOutputs = transaction.getTransactionOutputs();
+            for (int outputIndex = 0; outputIndex < transactionOutputs.getCount(); ++outputIndex) {
+                final TransactionOutputIdentifier transactionOutputIdentifier = new TransactionOutputIdentifier(transaction.getHash(), outputIndex);
+                utxoSnapshotEntries.add(new UtxoSnapshotEntry(transactionOutputIdentifier, 0L, isCoinbase, transactionOutputs.get(outputIndex)));
+            }
+            isCoinbase = false;
+        }
+
+        utxoSnapshotEntries.sort(new Comparator<UtxoSnapshotEntry>() {
+            @Override
+            public int compare(final UtxoSnapshotEntry utxoSnapshotEntry0, final UtxoSnapshotEntry utxoSnapshotEntry1) {
+                final UtxoKey utxoKey0 = new UtxoKey(utxoSnapshotEntry0.getTransactionOutputIdentifier());
+                final UtxoKey utxoKey1 = new UtxoKey(utxoSnapshotEntry1.getTransactionOutputIdentifier());
+                return UtxoKey.COMPARATOR.compare(utxoKey0, utxoKey1);
+            }
+        });
+
+        return new MutableList<UtxoSnapshotEntry>(utxoSnapshotEntries);
+    }
+
+    protected static byte[] writeSnapshot(final BlockHeader blockHeader, final List<UtxoSnapshotEntry> utxoSnapshotEntries) throws IOException {
+        final ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+        try (final UtxoSnapshotWriter utxoSnapshotWriter = new UtxoSnapshotWriter(byteArrayOutputStream, blockHeader.getHash(), 0L)) {
+            utxoSnapshotWriter.writeBlockHeader(blockHeader);
+            for (final UtxoSnapshotEntry utxoSnapshotEntry : utxoSnapshotEntries) {
+                utxoSnapshotWriter.write(utxoSnapshotEntry);
+            }
+        }
+        return byteArrayOutputStream.toByteArray();
+    }
+
+    protected static Long readAllEntries(final byte[] snapshotBytes) throws IOException {
+        try (final UtxoSnapshotReader utxoSnapshotReader = new UtxoSnapshotReader(new ByteArrayInputStream(snapshotBytes))) {
+            while (utxoSnapshotReader.readEntry() != null) { }
+            return utxoSnapshotReader.getEntryCount();
+        }
+    }
+
+    @Override @Before
+    public void before() throws Exception {
+        super.before();
+    }
+
+    @Override @After
+    public void after() throws Exception {
+        super.after();
+    }
+
+    @Test
+    public void should_read_written_snapshot() throws Exception {
+        // Setup
+        final Block block = UtxoSnapshotTests.getBlock();
+        final List<UtxoSnapshotEntry> utxoSnapshotEntries = UtxoSnapshotTests.getSortedEntries(block);
+        final byte[] snapshotBytes = UtxoSnapshotTests.writeSnapshot(block, utxoSnapshotEntries);
+
+        final MutableList<UtxoSnapshotEntry> readUtxoSnapshotEntries = new MutableList<UtxoSnapshotEntry>();
+        final BlockHeader readBlockHeader;
+        final BlockHeader extraBlockHeader;
+        final Boolean isComplete;
+
+        // Action
+        try (final UtxoSnapshotReader utxoSnapshotReader = new UtxoSnapshotReader(new ByteArrayInputStream(snapshotBytes))) {
+            Assert.assertEquals(block.getHash(), utxoSnapshotReader.getBlockHash());
+            Assert.assertEquals(Long.valueOf(0L), utxoSnapshotReader.getBlockHeight());
+
+            readBlockHeader = utxoSnapshotReader.readBlockHeader();
+            extraBlockHeader = utxoSnapshotReader.readBlockHeader();
+
+            while (true) {
+                final UtxoSnapshotEntry utxoSnapshotEntry = utxoSnapshotReader.readEntry();
+                if (utxoSnapshotEntry == null) { break; }
+
+                readUtxoSnapshotEntries.add(utxoSnapshotEntry);
+            }
+            isComplete = utxoSnapshotReader.isComplete();
+        }
+
+        // Assert
+        Assert.assertTrue(isComplete);
+        Assert.assertEquals(block.getHash(), readBlockHeader.getHash());
+        Assert.assertNull(extraBlockHeader);
+        Assert.assertEquals(utxoSnapshotEntries.getCount(), readUtxoSnapshotEntries.getCount());
+
+        for (int i = 0; i < utxoSnapshotEntries.getCount(); ++i) {
+            final UtxoSnapshotEntry expectedUtxoSnapshotEntry = utxoSnapshotEntries.get(i);
+            final UtxoSnapshotEntry utxoSnapshotEntry = readUtxoSnapshotEntries.get(i);
+
+            Assert.assertEquals(expectedUtxoSnapshotEntry.getTransactionOutputIdentifier(), utxoSnapshotEntry.getTransactionOutputIdentifier());
+            Assert.assertEquals(expectedUtxoSnapshotEntry.getBlockHeight(), utxoSnapshotEntry.getBlockHeight());
+            Assert.assertEquals(expectedUtxoSnapshotEntry.isCoinbase(), utxoSnapshotEntry.isCoinbase());
+            Assert.assertEquals(expectedUtxoSnapshotEntry.getTransactionOutput().getAmount(), utxoSnapshotEntry.getTransactionOutput().getAmount());
+            Assert.assertEquals(expectedUtxoSnapshotEntry.getTransactionOutput().getLockingScript(), utxoSnapshotEntry.getTransactionOutput().getLockingScript());
+        }
+    }
+
+    @Test
+    public void should_fail_to_read_corrupted_snapshot() throws Exception {
+        // Setup
+        final Block block = UtxoSnapshotTests.getBlock();
+        final List<UtxoSnapshotEntry> utxoSnapshotEntries = UtxoSnapshotTests.getSortedEntries(block);
+        final byte[] snapshotBytes = UtxoSnapshotTests.writeSnapshot(block, utxoSnapshotEntries);
+
+        final int trailerByteCount = (1 + 8 + 32);
+        final int lastEntryByteIndex = (snapshotBytes.length - trailerByteCount - 1);
+        snapshotBytes[lastEntryByteIndex] ^= 0x01; // Modify the last byte of the last entry's LockingScript...
+
+        // Action
+        IOException readException = null;
+        try {
+            UtxoSnapshotTests.readAllEntries(snapshotBytes);
+        }
+        catch (final IOException exception) {
+            readException = exception;
+        }
+
+        // Assert
+        Assert.assertNotNull(readException);
+    }
+
+    @Test
+    public void should_not_write_unsorted_entries() throws Exception {
+        // Setup
+        final Block block = UtxoSnapshotTests.getBlock();
+        final List<UtxoSnapshotEntry> utxoSnapshotEntries = UtxoSnapshotTests.getSortedEntries(block);
+
+        final MutableList<UtxoSnapshotEntry> unsortedUtxoSnapshotEntries = new MutableList<UtxoSnapshotEntry>(utxoSnapshotEntries);
+        unsortedUtxoSnapshotEntries.add(utxoSnapshotEntries.get(0));
+
+        // Action
+        IOException writeException = null;
+        try {
+            UtxoSnapshotTests.writeSnapshot(block, unsortedUtxoSnapshotEntries);
+        }
+        catch (final IOException exception) {
+            writeException = exception;
+        }
+
+        // Assert
+        Assert.assertNotNull(writeException);
+    }
+}
@@ -0,0 +1,56 @@
+package com.softwareverde.bitcoin.server.module.node.database.transaction.pending;
+
+import com.softwareverde.bitcoin.server.module.node.database.fullnode.FullNodeDatabaseManager;
+import com.softwareverde.bitcoin.server.module.node.sync.transaction.pending.PendingTransactionId;
+import com.softwareverde.bitcoin.test.IntegrationTest;
+import com.softwareverde.constable.list.mutable.MutableList;
+import com.softwareverde.cryptography.hash.sha256.Sha256Hash;
+import com.softwareverde.cryptography.util.HashUtil;
+import com.softwareverde.util.ByteUtil;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Map;
+
+public class PendingTransactionDatabaseManagerTests extends IntegrationTest {
+    @Override @Before
+    public void before() throws Exception {
+        super.before();
+    }
+
+    @Override @After
+    public void after() throws Exception {
+        super.after();
+    }
+
+    @Test
+    public void skipped_pending_transactions_should_not_starve_subsequent_pending_transactions() throws Exception {
+        try (final FullNodeDatabaseManager databaseManager = _fullNodeDatabaseManagerFactory.newDatabaseManager()) {
+            final PendingTransactionDatabaseManager pendingTransactionDatabaseManager = databaseManager.getPendingTransactionDatabaseManager();
+
+            // Setup
+            final int pendingTransactionCount = 1100;
+            final MutableList<Sha256Hash> transactionHashes = new MutableList<Sha256Hash>(pendingTransactionCount);
+            for (int i = 0; i < pendingTransactionCount; ++i) {
+                transactionHashes.add(Sha256Hash.wrap(HashUtil.sha256(ByteUtil.integerToBytes(i))));
+            }
+            pendingTransactionDatabaseManager.storeTransactionHashes(transactionHashes);
+
+            final Map<Sha256Hash, PendingTransactionId> firstSelection = pendingTransactionDatabaseManager.selectIncompletePendingTransactions();
+            Assert.assertEquals(1024, firstSelection.size());
+
+            // Action
+            // None of the selected Transactions were announced by a connected node, so the downloader skips all of them...
+            pendingTransactionDatabaseManager.updateLastDownloadAttemptTimes(new MutableList<PendingTransactionId>(firstSelection.values()));
+            final Map<Sha256Hash, PendingTransactionId> secondSelection = pendingTransactionDatabaseManager.selectIncompletePendingTransactions();
+
+            // Assert
+            Assert.assertEquals((pendingTransactionCount - 1024), secondSelection.size());
+            for (final Sha256Hash transactionHash : secondSelection.keySet()) {
+                Assert.assertFalse(firstSelection.containsKey(transactionHash));
+            }
+        }
+    }
+}
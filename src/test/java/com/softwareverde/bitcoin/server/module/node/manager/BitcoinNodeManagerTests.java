@@ -63,7 +63,7 @@ public class BitcoinNodeManagerTests extends IntegrationTest {
 
         final long banDurationInSeconds = 3L;
 
-        final BanFilterCore banFilter = new BanFilterCore(_fullNodeDatabaseManagerFactory);
+        final BanFilterCore banFilter = new BanFilterCore(_fullNodeDatabaseManagerFactory, _threadPool);
         banFilter.setBanDuration(banDurationInSeconds);
 
         final BitcoinNodeManager.Context bitcoinNodeContext = new BitcoinNodeManager.Context();
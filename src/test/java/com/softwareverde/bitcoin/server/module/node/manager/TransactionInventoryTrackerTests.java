@@ -0,0 +1,98 @@
+package com.softwareverde.bitcoin.server.module.node.manager;
+
+import com.softwareverde.bitcoin.test.UnitTest;
+import com.softwareverde.constable.list.List;
+import com.softwareverde.constable.list.mutable.MutableList;
+import com.softwareverde.cryptography.hash.sha256.Sha256Hash;
+import com.softwareverde.network.p2p.node.NodeId;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TransactionInventoryTrackerTests extends UnitTest {
+    protected static Sha256Hash createHash(final Integer value) {
+        return Sha256Hash.fromHexString(String.format("%064X", value));
+    }
+
+    protected static List<Sha256Hash> createHashes(final Integer startValue, final Integer count) {
+        final MutableList<Sha256Hash> transactionHashes = new MutableList<Sha256Hash>(count);
+        for (int i = 0; i < count; ++i) {
+            transactionHashes.add(TransactionInventoryTrackerTests.createHash(startValue + i));
+        }
+        return transactionHashes;
+    }
+
+    @Override @Before
+    public void before() throws Exception {
+        super.before();
+    }
+
+    @Override @After
+    public void after() throws Exception {
+        super.after();
+    }
+
+    @Test
+    public void should_filter_nodes_by_known_inventory() {
+        // Setup
+        final TransactionInventoryTracker transactionInventoryTracker = new TransactionInventoryTracker();
+        final NodeId nodeIdA = NodeId.wrap(1L);
+        final NodeId nodeIdB = NodeId.wrap(2L);
+        final NodeId nodeIdC = NodeId.wrap(3L);
+        final Sha256Hash transactionHash = TransactionInventoryTrackerTests.createHash(1);
+
+        final MutableList<NodeId> nodeIds = new MutableList<NodeId>();
+        nodeIds.add(nodeIdA);
+        nodeIds.add(nodeIdB);
+        nodeIds.add(nodeIdC);
+
+        transactionInventoryTracker.markTransactionsKnown(nodeIdB, TransactionInventoryTrackerTests.createHashes(1, 1));
+
+        // Action
+        final List<NodeId> nodesWithInventory = transactionInventoryTracker.filterNodes(nodeIds, transactionHash, FilterType.KEEP_NODES_WITH_INVENTORY);
+        final List<NodeId> nodesWithoutInventory = transactionInventoryTracker.filterNodes(nodeIds, transactionHash, FilterType.KEEP_NODES_WITHOUT_INVENTORY);
+
+        // Assert
+        Assert.assertEquals(1, nodesWithInventory.getCount());
+        Assert.assertEquals(nodeIdB, nodesWithInventory.get(0));
+
+        Assert.assertEquals(2, nodesWithoutInventory.getCount());
+        Assert.assertEquals(nodeIdA, nodesWithoutInventory.get(0));
+        Assert.assertEquals(nodeIdC, nodesWithoutInventory.get(1));
+    }
+
+    @Test
+    public void should_evict_least_recently_used_hashes_once_full() {
+        // Setup
+        final TransactionInventoryTracker transactionInventoryTracker = new TransactionInventoryTracker(4);
+        final NodeId nodeId = NodeId.wrap(1L);
+
+        transactionInventoryTracker.markTransactionsKnown(nodeId, TransactionInventoryTrackerTests.createHashes(0, 4));
+        transactionInventoryTracker.hasTransaction(nodeId, TransactionInventoryTrackerTests.createHash(0)); // Touch the oldest hash so that it is retained.
+
+        // Action
+        transactionInventoryTracker.markTransactionsKnown(nodeId, TransactionInventoryTrackerTests.createHashes(4, 1));
+
+        // Assert
+        Assert.assertTrue(transactionInventoryTracker.hasTransaction(nodeId, TransactionInventoryTrackerTests.createHash(0)));
+        Assert.assertFalse(transactionInventoryTracker.hasTransaction(nodeId, TransactionInventoryTrackerTests.createHash(1)));
+        Assert.assertTrue(transactionInventoryTracker.hasTransaction(nodeId, TransactionInventoryTrackerTests.createHash(2)));
+        Assert.assertTrue(transactionInventoryTracker.hasTransaction(nodeId, TransactionInventoryTrackerTests.createHash(4)));
+    }
+
+    @Test
+    public void should_discard_inventory_of_removed_node() {
+        // Setup
+        final TransactionInventoryTracker transactionInventoryTracker = new TransactionInventoryTracker();
+        final NodeId nodeId = NodeId.wrap(1L);
+        transactionInventoryTracker.markTransactionsKnown(nodeId, TransactionInventoryTrackerTests.createHashes(0, 8));
+
+        // Action
+        transactionInventoryTracker.removeNode(nodeId);
+
+        // Assert
+        Assert.assertFalse(transactionInventoryTracker.hasTransaction(nodeId, TransactionInventoryTrackerTests.createHash(0)));
+        Assert.assertEquals(Integer.valueOf(0), transactionInventoryTracker.getNodeCount());
+    }
+}
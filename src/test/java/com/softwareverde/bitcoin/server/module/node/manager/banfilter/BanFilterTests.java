@@ -2,22 +2,51 @@ package com.softwareverde.bitcoin.server.module.node.manager.banfilter;
 
 import com.softwareverde.bitcoin.server.module.node.database.DatabaseManager;
 import com.softwareverde.bitcoin.server.module.node.database.node.BitcoinNodeDatabaseManager;
+import com.softwareverde.bitcoin.server.node.BitcoinNode;
 import com.softwareverde.bitcoin.test.UnitTest;
 import com.softwareverde.bitcoin.test.fake.FakeBitcoinNode;
 import com.softwareverde.bitcoin.test.fake.database.FakeBitcoinNodeDatabaseManager;
 import com.softwareverde.bitcoin.test.fake.database.FakeDatabaseManager;
 import com.softwareverde.bitcoin.test.fake.database.FakeDatabaseManagerFactory;
+import com.softwareverde.concurrent.pool.ThreadPool;
+import com.softwareverde.database.DatabaseException;
 import com.softwareverde.network.ip.Ip;
+import com.softwareverde.network.p2p.node.manager.FakeThreadPool;
 import com.softwareverde.util.Container;
 import com.softwareverde.util.Tuple;
+import com.softwareverde.util.type.time.SystemTime;
 import org.junit.After;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.Map;
 import java.util.regex.Pattern;
 
 public class BanFilterTests extends UnitTest {
+    /**
+     * A ThreadPool that queues its Runnables until they are explicitly run.
+     */
+    protected static class QueuedThreadPool extends FakeThreadPool {
+        protected final LinkedList<Runnable> _runnables = new LinkedList<Runnable>();
+
+        @Override
+        public void execute(final Runnable runnable) {
+            _runnables.add(runnable);
+        }
+
+        public void runNext() {
+            final Runnable runnable = _runnables.removeFirst();
+            runnable.run();
+        }
+
+        public Integer getQueuedCount() {
+            return _runnables.size();
+        }
+    }
+
     @Override @Before
     public void before() throws Exception {
         super.before();
@@ -54,7 +83,7 @@ public class BanFilterTests extends UnitTest {
                     }
                 };
             }
-        });
+        }, new FakeThreadPool());
 
         banFilter.addToUserAgentBlacklist(pattern);
 
@@ -73,9 +102,201 @@ public class BanFilterTests extends UnitTest {
         // Action
         banFilter.onNodeConnected(fakeBitcoinNode.getIp());
         banFilter.onNodeHandshakeComplete(fakeBitcoinNode);
+        banFilter.persistBanStates();
 
         // Assert
         Assert.assertTrue(wasBanned.second);
         Assert.assertTrue(wasDisconnected.value);
     }
+
+    @Test
+    public void should_ban_ip_after_repeated_failed_connections_without_querying_the_database() throws Exception {
+        // Setup
+        final Ip ip = Ip.fromString("1.2.3.4");
+        final BitcoinNode bitcoinNode = new FakeBitcoinNode("1.2.3.4", 8333, null, null);
+        final Container<Integer> failedConnectionQueryCount = new Container<>(0);
+
+        final BanFilterCore banFilter = new BanFilterCore(new FakeDatabaseManagerFactory() {
+            @Override
+            public DatabaseManager newDatabaseManager() {
+                return new FakeDatabaseManager() {
+                    @Override
+                    public BitcoinNodeDatabaseManager getNodeDatabaseManager() {
+                        return new FakeBitcoinNodeDatabaseManager() {
+                            @Override
+                            public Integer getFailedConnectionCountForIp(final Ip ip, final Long sinceTimestamp) {
+                                failedConnectionQueryCount.value += 1;
+                                return 0;
+                            }
+
+                            @Override
+                            public Map<Ip, Long> getBannedIps(final Long sinceTimestamp) {
+                                return new HashMap<Ip, Long>(0);
+                            }
+
+                            @Override
+                            public void setIsBanned(final Ip ip, final Boolean isBanned) { }
+                        };
+                    }
+                };
+            }
+        }, new FakeThreadPool());
+
+        final int failedConnectionCount = BanFilterCore.BanCriteria.FAILED_CONNECTION_ATTEMPT_COUNT;
+
+        // Action
+        for (int i = 0; i < (failedConnectionCount - 1); ++i) {
+            banFilter.onNodeConnected(ip);
+            banFilter.onNodeDisconnected(bitcoinNode);
+        }
+        final Boolean wasBannedBeforeFinalFailure = banFilter.isIpBanned(ip);
+
+        banFilter.onNodeConnected(ip);
+        banFilter.onNodeDisconnected(bitcoinNode);
+
+        // Assert
+        Assert.assertFalse(wasBannedBeforeFinalFailure);
+        Assert.assertTrue(banFilter.isIpBanned(ip));
+        Assert.assertEquals(Integer.valueOf(0), failedConnectionQueryCount.value);
+    }
+
+    protected static BanFilterCore _createBanFilter(final Map<Ip, Long> bannedIps, final Map<Ip, Boolean> storedBanStates, final Container<Integer> failedWriteCount) {
+        return BanFilterTests._createBanFilter(bannedIps, storedBanStates, failedWriteCount, new FakeThreadPool());
+    }
+
+    protected static BanFilterCore _createBanFilter(final Map<Ip, Long> bannedIps, final Map<Ip, Boolean> storedBanStates, final Container<Integer> failedWriteCount, final ThreadPool threadPool) {
+        return new BanFilterCore(new FakeDatabaseManagerFactory() {
+            @Override
+            public DatabaseManager newDatabaseManager() {
+                return new FakeDatabaseManager() {
+                    @Override
+                    public BitcoinNodeDatabaseManager getNodeDatabaseManager() {
+                        return new FakeBitcoinNodeDatabaseManager() {
+                            @Override
+                            public Map<Ip, Long> getBannedIps(final Long sinceTimestamp) {
+                                return bannedIps;
+                            }
+
+                            @Override
+                            public void setIsBanned(final Ip ip, final Boolean isBanned) throws DatabaseException {
+                                if (failedWriteCount.value > 0) {
+                                    failedWriteCount.value -= 1;
+                                    throw new DatabaseException("Database unavailable.");
+                                }
+
+                                storedBanStates.put(ip, isBanned);
+                            }
+                        };
+                    }
+                };
+            }
+        }, threadPool);
+    }
+
+    @Test
+    public void loaded_ban_should_expire_relative_to_its_stored_banned_timestamp() throws Exception {
+        // Setup
+        final Long now = new SystemTime().getCurrentTimeInSeconds();
+        final Ip recentlyBannedIp = Ip.fromString("1.2.3.4");
+        final Ip expiredBannedIp = Ip.fromString("5.6.7.8");
+
+        final HashMap<Ip, Long> bannedIps = new HashMap<Ip, Long>();
+        bannedIps.put(recentlyBannedIp, (now - 10L));
+        bannedIps.put(expiredBannedIp, (now - 120L)); // Banned before the ban duration; the fake database does not filter by timestamp...
+
+        final BanFilterCore banFilter = BanFilterTests._createBanFilter(bannedIps, new HashMap<Ip, Boolean>(), new Container<Integer>(0));
+        banFilter.setBanDuration(60L);
+
+        // Action
+        final Boolean recentlyBannedIpIsBanned = banFilter.isIpBanned(recentlyBannedIp);
+        final Boolean expiredBannedIpIsBanned = banFilter.isIpBanned(expiredBannedIp);
+
+        // Assert
+        Assert.assertTrue(recentlyBannedIpIsBanned);
+        Assert.assertFalse(expiredBannedIpIsBanned);
+    }
+
+    @Test
+    public void failed_connections_should_be_counted_across_nodes_that_have_not_completed_a_handshake() throws Exception {
+        // Setup
+        final Ip ip = Ip.fromString("1.2.3.4");
+        final BanFilterCore banFilter = BanFilterTests._createBanFilter(new HashMap<Ip, Long>(), new HashMap<Ip, Boolean>(), new Container<Integer>(0));
+
+        final BitcoinNode handshakedBitcoinNode = new FakeBitcoinNode("1.2.3.4", 8333, null, null);
+        banFilter.onNodeConnected(ip);
+        banFilter.onNodeHandshakeComplete(handshakedBitcoinNode);
+
+        final int failedConnectionCount = BanFilterCore.BanCriteria.FAILED_CONNECTION_ATTEMPT_COUNT;
+
+        // Action
+        // Disconnects from a node that has completed its handshake are not failed connections...
+        for (int i = 0; i < (failedConnectionCount * 2); ++i) {
+            banFilter.onNodeDisconnected(handshakedBitcoinNode);
+        }
+        final Boolean wasBannedByHandshakedNode = banFilter.isIpBanned(ip);
+
+        // ...but the handshake does not excuse the other nodes (ports) at the same ip.
+        for (int i = 0; i < failedConnectionCount; ++i) {
+            final BitcoinNode bitcoinNode = new FakeBitcoinNode("1.2.3.4", (50000 + i), null, null);
+            banFilter.onNodeConnected(ip);
+            banFilter.onNodeDisconnected(bitcoinNode);
+        }
+
+        // Assert
+        Assert.assertFalse(wasBannedByHandshakedNode);
+        Assert.assertTrue(banFilter.isIpBanned(ip));
+    }
+
+    @Test
+    public void ban_state_should_remain_pending_until_it_is_written() throws Exception {
+        // Setup
+        final Ip ip = Ip.fromString("1.2.3.4");
+        final HashMap<Ip, Boolean> storedBanStates = new HashMap<Ip, Boolean>();
+        final Container<Integer> failedWriteCount = new Container<Integer>(1);
+        final QueuedThreadPool threadPool = new QueuedThreadPool();
+        final BanFilterCore banFilter = BanFilterTests._createBanFilter(new HashMap<Ip, Long>(), storedBanStates, failedWriteCount, threadPool);
+
+        // Action
+        banFilter.banIp(ip);
+        threadPool.runNext(); // The scheduled write fails...
+        final Boolean wasStoredAfterFailedWrite = storedBanStates.containsKey(ip);
+
+        banFilter.persistBanStates();
+
+        // Assert
+        Assert.assertFalse(wasStoredAfterFailedWrite);
+        Assert.assertTrue(banFilter.isIpBanned(ip));
+        Assert.assertEquals(Boolean.TRUE, storedBanStates.get(ip));
+        Assert.assertTrue(banFilter._pendingBanStates.isEmpty());
+    }
+
+    @Test
+    public void failed_write_should_be_retried_with_an_increasing_delay() throws Exception {
+        // Setup
+        final Ip ip = Ip.fromString("1.2.3.4");
+        final HashMap<Ip, Boolean> storedBanStates = new HashMap<Ip, Boolean>();
+        final Container<Integer> failedWriteCount = new Container<Integer>(2);
+        final QueuedThreadPool threadPool = new QueuedThreadPool();
+        final BanFilterCore banFilter = BanFilterTests._createBanFilter(new HashMap<Ip, Long>(), storedBanStates, failedWriteCount, threadPool);
+        banFilter._initialWriteRetryDelayMs = 1L;
+
+        // Action
+        banFilter.banIp(ip);
+        threadPool.runNext(); // The first write fails...
+        final Integer queuedCountAfterFirstFailure = threadPool.getQueuedCount();
+
+        threadPool.runNext(); // The first retry fails...
+        final Integer queuedCountAfterSecondFailure = threadPool.getQueuedCount();
+        final Boolean wasStoredBeforeSuccessfulWrite = storedBanStates.containsKey(ip);
+
+        threadPool.runNext(); // The second retry succeeds...
+
+        // Assert
+        Assert.assertEquals(Integer.valueOf(1), queuedCountAfterFirstFailure);
+        Assert.assertEquals(Integer.valueOf(1), queuedCountAfterSecondFailure);
+        Assert.assertFalse(wasStoredBeforeSuccessfulWrite);
+        Assert.assertEquals(Boolean.TRUE, storedBanStates.get(ip));
+        Assert.assertTrue(banFilter._pendingBanStates.isEmpty());
+        Assert.assertEquals(Integer.valueOf(0), threadPool.getQueuedCount());
+    }
 }
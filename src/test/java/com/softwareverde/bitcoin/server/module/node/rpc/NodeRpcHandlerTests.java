@@ -0,0 +1,130 @@
+package com.softwareverde.bitcoin.server.module.node.rpc;
+
+import com.softwareverde.bitcoin.test.UnitTest;
+import com.softwareverde.concurrent.pool.MainThreadPool;
+import com.softwareverde.json.Json;
+import com.softwareverde.network.socket.JsonProtocolMessage;
+import com.softwareverde.network.socket.JsonSocket;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+public class NodeRpcHandlerTests extends UnitTest {
+    protected static JsonProtocolMessage createEvent(final Integer byteCount) {
+        final StringBuilder stringBuilder = new StringBuilder(byteCount);
+        for (int i = 0; i < byteCount; ++i) {
+            stringBuilder.append('0');
+        }
+
+        final Json json = new Json();
+        json.put("objectType", "TRANSACTION");
+        json.put("object", stringBuilder.toString());
+        return new JsonProtocolMessage(json);
+    }
+
+    protected MainThreadPool _rpcThreadPool;
+    protected MainThreadPool _hookThreadPool;
+    protected ServerSocket _serverSocket;
+    protected Socket _subscriberSocket;
+    protected JsonSocket _hookSocket;
+
+    @Override @Before
+    public void before() throws Exception {
+        super.before();
+
+        _rpcThreadPool = new MainThreadPool(1, 1000L);
+        _hookThreadPool = new MainThreadPool(4, 1000L);
+
+        _serverSocket = new ServerSocket(0);
+        _subscriberSocket = new Socket("127.0.0.1", _serverSocket.getLocalPort());
+        _hookSocket = new JsonSocket(_serverSocket.accept(), _rpcThreadPool);
+    }
+
+    @Override @After
+    public void after() throws Exception {
+        _hookSocket.close();
+        _subscriberSocket.close();
+        _serverSocket.close();
+
+        _hookThreadPool.stop();
+        _rpcThreadPool.stop();
+
+        super.after();
+    }
+
+    @Test
+    public void slow_hook_listener_should_drop_events_without_blocking_rpc_thread_pool() throws Exception {
+        // Setup
+        final Integer maxQueuedEventCount = 4;
+        final NodeRpcHandler.HookListener hookListener = new NodeRpcHandler.HookListener(_hookSocket, false, false, null, maxQueuedEventCount, NodeRpcHandler.SlowHookListenerPolicy.DROP_EVENTS);
+        final JsonProtocolMessage event = NodeRpcHandlerTests.createEvent(256 * 1024);
+
+        // Action
+        // The subscriber never reads, so the writer blocks once the socket's buffers are full...
+        for (int i = 0; i < 128; ++i) {
+            final Boolean isConnected = hookListener.queueEvent(event, _hookThreadPool);
+            Assert.assertTrue(isConnected);
+        }
+
+        final CountDownLatch rpcTaskLatch = new CountDownLatch(1);
+        _rpcThreadPool.execute(new Runnable() {
+            @Override
+            public void run() {
+                rpcTaskLatch.countDown();
+            }
+        });
+
+        // Assert
+        Assert.assertTrue(rpcTaskLatch.await(5L, TimeUnit.SECONDS));
+        Assert.assertTrue(hookListener.getDroppedEventCount() > 0L);
+        Assert.assertTrue(_hookSocket.isConnected());
+    }
+
+    @Test
+    public void slow_hook_listener_should_be_disconnected_once_its_queue_is_full() throws Exception {
+        // Setup
+        final Integer maxQueuedEventCount = 4;
+        final NodeRpcHandler.HookListener hookListener = new NodeRpcHandler.HookListener(_hookSocket, false, false, null, maxQueuedEventCount, NodeRpcHandler.SlowHookListenerPolicy.DISCONNECT);
+        final JsonProtocolMessage event = NodeRpcHandlerTests.createEvent(256 * 1024);
+
+        // Action
+        Boolean isConnected = true;
+        int queuedEventCount = 0;
+        while (isConnected && (queuedEventCount < 128)) {
+            isConnected = hookListener.queueEvent(event, _hookThreadPool);
+            queuedEventCount += 1;
+        }
+
+        // Assert
+        Assert.assertFalse(isConnected);
+        Assert.assertFalse(_hookSocket.isConnected());
+        Assert.assertEquals(Long.valueOf(0L), hookListener.getDroppedEventCount());
+    }
+
+    @Test
+    public void disconnected_hook_listener_should_report_disconnect() throws Exception {
+        // Setup
+        final NodeRpcHandler.HookListener hookListener = new NodeRpcHandler.HookListener(_hookSocket, false, false, null, 4096, NodeRpcHandler.SlowHookListenerPolicy.DISCONNECT);
+        final JsonProtocolMessage event = NodeRpcHandlerTests.createEvent(1024);
+
+        _subscriberSocket.close();
+
+        // Action
+        // Writes to a closed peer fail once the connection is reset, which closes the HookListener's socket...
+        Boolean isConnected = true;
+        for (int i = 0; (isConnected && (i < 100)); ++i) {
+            isConnected = hookListener.queueEvent(event, _hookThreadPool);
+            Thread.sleep(50L);
+        }
+
+        // Assert
+        Assert.assertFalse(isConnected);
+        Assert.assertFalse(_hookSocket.isConnected());
+    }
+}
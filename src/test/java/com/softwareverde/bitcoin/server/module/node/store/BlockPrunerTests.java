@@ -0,0 +1,168 @@
+package com.softwareverde.bitcoin.server.module.node.store;
+
+import com.softwareverde.bitcoin.address.Address;
+import com.softwareverde.bitcoin.address.AddressInflater;
+import com.softwareverde.bitcoin.block.Block;
+import com.softwareverde.bitcoin.block.BlockInflater;
+import com.softwareverde.bitcoin.block.MutableBlock;
+import com.softwareverde.bitcoin.chain.segment.BlockchainSegmentId;
+import com.softwareverde.bitcoin.context.core.BlockProcessorContext;
+import com.softwareverde.bitcoin.server.module.node.BlockProcessor;
+import com.softwareverde.bitcoin.server.module.node.ProcessBlockResult;
+import com.softwareverde.bitcoin.server.module.node.database.blockchain.BlockchainDatabaseManager;
+import com.softwareverde.bitcoin.server.module.node.database.fullnode.FullNodeDatabaseManager;
+import com.softwareverde.bitcoin.server.module.node.database.transaction.fullnode.utxo.UnspentTransactionOutputDatabaseManager;
+import com.softwareverde.bitcoin.server.module.node.database.transaction.fullnode.utxo.UtxoSnapshotDatabaseManager;
+import com.softwareverde.bitcoin.test.BlockData;
+import com.softwareverde.bitcoin.test.IntegrationTest;
+import com.softwareverde.bitcoin.test.util.BlockTestUtil;
+import com.softwareverde.bitcoin.test.util.TransactionTestUtil;
+import com.softwareverde.bitcoin.transaction.MutableTransaction;
+import com.softwareverde.bitcoin.transaction.Transaction;
+import com.softwareverde.bitcoin.transaction.output.TransactionOutput;
+import com.softwareverde.bitcoin.transaction.output.identifier.TransactionOutputIdentifier;
+import com.softwareverde.bitcoin.transaction.validator.UtxoUndoLog;
+import com.softwareverde.cryptography.secp256k1.key.PrivateKey;
+import com.softwareverde.network.time.MutableNetworkTime;
+import com.softwareverde.util.HexUtil;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class BlockPrunerTests extends IntegrationTest {
+    protected Block _block03;
+    protected Block _block04;
+    protected Transaction _spendingTransaction;
+
+    protected static Block _createBlock(final Block previousBlock, final PrivateKey coinbasePrivateKey, final Transaction... transactions) {
+        final MutableBlock mutableBlock = BlockTestUtil.createBlock();
+        mutableBlock.setPreviousBlockHash(previousBlock.getHash());
+        mutableBlock.setTimestamp(previousBlock.getTimestamp() + 600L);
+        mutableBlock.addTransaction(TransactionTestUtil.createCoinbaseTransactionSpendableByPrivateKey(coinbasePrivateKey));
+        for (final Transaction transaction : transactions) {
+            mutableBlock.addTransaction(transaction);
+        }
+        return mutableBlock;
+    }
+
+    protected static Transaction _createSignedTransaction(final Transaction transactionToSpend, final Long amount, final PrivateKey privateKey) {
+        final AddressInflater addressInflater = new AddressInflater();
+        final Address address = addressInflater.fromPrivateKey(privateKey, true);
+
+        final MutableTransaction mutableTransaction = TransactionTestUtil.createTransaction();
+        mutableTransaction.addTransactionInput(TransactionTestUtil.createTransactionInput(new TransactionOutputIdentifier(transactionToSpend.getHash(), 0)));
+        mutableTransaction.addTransactionOutput(TransactionTestUtil.createTransactionOutput(amount, address));
+
+        return TransactionTestUtil.signTransaction(TransactionTestUtil.createTransactionOutputRepository(transactionToSpend), mutableTransaction, privateKey);
+    }
+
+    protected void _pruneBlocks(final Long lastBlockHeight) throws Exception {
+        final BlockPruner blockPruner = new BlockPruner(_fullNodeDatabaseManagerFactory, _blockStore, BlockPruner.MIN_RETAINED_BLOCK_COUNT);
+        try (final FullNodeDatabaseManager databaseManager = _fullNodeDatabaseManagerFactory.newDatabaseManager()) {
+            final BlockchainDatabaseManager blockchainDatabaseManager = databaseManager.getBlockchainDatabaseManager();
+            final BlockchainSegmentId blockchainSegmentId = blockchainDatabaseManager.getHeadBlockchainSegmentId();
+            for (long blockHeight = 1L; blockHeight <= lastBlockHeight; ++blockHeight) {
+                blockPruner._pruneBlock(databaseManager, blockchainSegmentId, blockHeight);
+            }
+        }
+    }
+
+    @Override @Before
+    public void before() throws Exception {
+        super.before();
+
+        // Genesis -> Block01 -> Block02 -> Block03 -> Block04 -> Block05, where Block04 spends Block03's coinbase...
+        final BlockInflater blockInflater = _masterInflater.getBlockInflater();
+        final BlockProcessorContext blockProcessorContext = new BlockProcessorContext(_masterInflater, _masterInflater, _blockStore, _fullNodeDatabaseManagerFactory, new MutableNetworkTime(), _synchronizationStatus, _transactionValidatorFactory);
+        final BlockProcessor blockProcessor = new BlockProcessor(blockProcessorContext);
+
+        Block previousBlock = null;
+        for (final String blockData : new String[]{ BlockData.MainChain.GENESIS_BLOCK, BlockData.MainChain.BLOCK_1, BlockData.MainChain.BLOCK_2 }) {
+            previousBlock = blockInflater.fromBytes(HexUtil.hexStringToByteArray(blockData));
+            Assert.assertTrue(blockProcessor.processBlock(previousBlock, null).isValid);
+        }
+
+        final PrivateKey privateKey = PrivateKey.createNewKey();
+        _block03 = BlockPrunerTests._createBlock(previousBlock, privateKey);
+        _spendingTransaction = BlockPrunerTests._createSignedTransaction(_block03.getCoinbaseTransaction(), (49L * Transaction.SATOSHIS_PER_BITCOIN), privateKey);
+        _block04 = BlockPrunerTests._createBlock(_block03, PrivateKey.createNewKey(), _spendingTransaction);
+        final Block block05 = BlockPrunerTests._createBlock(_block04, PrivateKey.createNewKey());
+
+        for (final Block block : new Block[]{ _block03, _block04, block05 }) {
+            final ProcessBlockResult processBlockResult = blockProcessor.processBlock(block, null);
+            Assert.assertTrue(processBlockResult.isValid);
+        }
+
+        try (final FullNodeDatabaseManager databaseManager = _fullNodeDatabaseManagerFactory.newDatabaseManager()) {
+            final UnspentTransactionOutputDatabaseManager unspentTransactionOutputDatabaseManager = databaseManager.getUnspentTransactionOutputDatabaseManager();
+            unspentTransactionOutputDatabaseManager.commitUnspentTransactionOutputs(_fullNodeDatabaseManagerFactory, true);
+        }
+    }
+
+    @Override @After
+    public void after() throws Exception {
+        super.after();
+    }
+
+    @Test
+    public void should_retain_outputs_spent_by_unpruned_blocks() throws Exception {
+        // Setup
+        final TransactionOutputIdentifier spentTransactionOutputIdentifier = new TransactionOutputIdentifier(_block03.getCoinbaseTransaction().getHash(), 0);
+
+        // Action
+        _pruneBlocks(3L);
+
+        // Assert
+        try (final FullNodeDatabaseManager databaseManager = _fullNodeDatabaseManagerFactory.newDatabaseManager()) {
+            final UtxoSnapshotDatabaseManager utxoSnapshotDatabaseManager = databaseManager.getUtxoSnapshotDatabaseManager();
+
+            final TransactionOutput retainedTransactionOutput = utxoSnapshotDatabaseManager.getTransactionOutput(spentTransactionOutputIdentifier);
+            Assert.assertNotNull(retainedTransactionOutput);
+            Assert.assertEquals(Long.valueOf(50L * Transaction.SATOSHIS_PER_BITCOIN), retainedTransactionOutput.getAmount());
+        }
+    }
+
+    @Test
+    public void reorg_should_restore_outputs_of_a_pruned_block_spent_by_an_undone_block() throws Exception {
+        // Setup
+        final TransactionOutputIdentifier spentTransactionOutputIdentifier = new TransactionOutputIdentifier(_block03.getCoinbaseTransaction().getHash(), 0);
+        _pruneBlocks(3L);
+
+        try (final FullNodeDatabaseManager databaseManager = _fullNodeDatabaseManagerFactory.newDatabaseManager()) {
+            final UtxoUndoLog utxoUndoLog = new UtxoUndoLog(databaseManager);
+
+            // Action
+            // Validating a fork of Block03 undoes Block04, which re-adds the (pruned) Block03's coinbase output...
+            utxoUndoLog.undoBlock(_block04);
+
+            // Assert
+            final TransactionOutput transactionOutput = utxoUndoLog.getUnspentTransactionOutput(spentTransactionOutputIdentifier);
+            Assert.assertNotNull(transactionOutput);
+            Assert.assertEquals(_block03.getCoinbaseTransaction().getTransactionOutputs().get(0).getLockingScript(), transactionOutput.getLockingScript());
+        }
+    }
+
+    @Test
+    public void should_remove_retained_outputs_once_the_spending_block_is_pruned() throws Exception {
+        // Setup
+        final TransactionOutputIdentifier spentTransactionOutputIdentifier = new TransactionOutputIdentifier(_block03.getCoinbaseTransaction().getHash(), 0);
+        final TransactionOutputIdentifier unspentTransactionOutputIdentifier = new TransactionOutputIdentifier(_spendingTransaction.getHash(), 0);
+
+        // Action
+        _pruneBlocks(4L);
+
+        // Assert
+        try (final FullNodeDatabaseManager databaseManager = _fullNodeDatabaseManagerFactory.newDatabaseManager()) {
+            final UtxoSnapshotDatabaseManager utxoSnapshotDatabaseManager = databaseManager.getUtxoSnapshotDatabaseManager();
+            final UnspentTransactionOutputDatabaseManager unspentTransactionOutputDatabaseManager = databaseManager.getUnspentTransactionOutputDatabaseManager();
+
+            Assert.assertNull(utxoSnapshotDatabaseManager.getTransactionOutput(spentTransactionOutputIdentifier));
+
+            Assert.assertNotNull(utxoSnapshotDatabaseManager.getTransactionOutput(unspentTransactionOutputIdentifier));
+            final TransactionOutput unspentTransactionOutput = unspentTransactionOutputDatabaseManager.getUnspentTransactionOutput(unspentTransactionOutputIdentifier);
+            Assert.assertNotNull(unspentTransactionOutput);
+            Assert.assertEquals(Long.valueOf(49L * Transaction.SATOSHIS_PER_BITCOIN), unspentTransactionOutput.getAmount());
+        }
+    }
+}
@@ -0,0 +1,247 @@
+package com.softwareverde.bitcoin.server.module.node.sync.transaction.snapshot;
+
+import com.softwareverde.bitcoin.address.Address;
+import com.softwareverde.bitcoin.address.AddressInflater;
+import com.softwareverde.bitcoin.block.Block;
+import com.softwareverde.bitcoin.block.BlockInflater;
+import com.softwareverde.bitcoin.block.MutableBlock;
+import com.softwareverde.bitcoin.context.core.BlockProcessorContext;
+import com.softwareverde.bitcoin.context.core.BlockchainBuilderContext;
+import com.softwareverde.bitcoin.context.core.PendingBlockLoaderContext;
+import com.softwareverde.bitcoin.context.core.TransactionProcessorContext;
+import com.softwareverde.bitcoin.inflater.BlockInflaters;
+import com.softwareverde.bitcoin.inflater.TransactionInflaters;
+import com.softwareverde.bitcoin.server.module.node.BlockProcessor;
+import com.softwareverde.bitcoin.server.module.node.database.block.pending.fullnode.FullNodePendingBlockDatabaseManager;
+import com.softwareverde.bitcoin.server.module.node.database.fullnode.FullNodeDatabaseManager;
+import com.softwareverde.bitcoin.server.module.node.database.transaction.fullnode.FullNodeTransactionDatabaseManager;
+import com.softwareverde.bitcoin.server.module.node.manager.TransactionWhitelist;
+import com.softwareverde.bitcoin.server.module.node.sync.BlockchainBuilder;
+import com.softwareverde.bitcoin.server.module.node.sync.BlockchainBuilderTests;
+import com.softwareverde.bitcoin.server.module.node.sync.blockloader.PendingBlockLoader;
+import com.softwareverde.bitcoin.test.BlockData;
+import com.softwareverde.bitcoin.test.FakeBlockStore;
+import com.softwareverde.bitcoin.test.IntegrationTest;
+import com.softwareverde.bitcoin.test.util.BlockTestUtil;
+import com.softwareverde.bitcoin.test.util.TransactionTestUtil;
+import com.softwareverde.bitcoin.transaction.MutableTransaction;
+import com.softwareverde.bitcoin.transaction.Transaction;
+import com.softwareverde.bitcoin.transaction.TransactionId;
+import com.softwareverde.bitcoin.transaction.output.identifier.TransactionOutputIdentifier;
+import com.softwareverde.concurrent.service.SleepyService;
+import com.softwareverde.constable.list.mutable.MutableList;
+import com.softwareverde.cryptography.hash.sha256.Sha256Hash;
+import com.softwareverde.cryptography.secp256k1.key.PrivateKey;
+import com.softwareverde.network.time.MutableNetworkTime;
+import com.softwareverde.util.HexUtil;
+import com.softwareverde.util.type.time.SystemTime;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.HashSet;
+import java.util.Map;
+
+public class MemoryPoolSnapshotManagerTests extends IntegrationTest {
+    protected static class FakeTransactionWhitelist implements TransactionWhitelist {
+        protected final HashSet<Sha256Hash> _transactionHashes = new HashSet<Sha256Hash>();
+
+        @Override
+        public synchronized void addTransactionHash(final Sha256Hash transactionHash) {
+            _transactionHashes.add(transactionHash);
+        }
+
+        public synchronized Boolean containsTransactionHash(final Sha256Hash transactionHash) {
+            return _transactionHashes.contains(transactionHash);
+        }
+    }
+
+    protected File _dataDirectory;
+
+    /**
+     * Stores MainChain's Genesis -> Block01 -> Block02 and a fake Block03 whose coinbase is spendable by the privateKey.
+     *  Returns Block03's coinbase Transaction.
+     */
+    protected Transaction _createBlockchain(final PrivateKey privateKey) throws Exception {
+        final BlockInflater blockInflater = _masterInflater.getBlockInflater();
+        final TransactionInflaters transactionInflaters = _masterInflater;
+        final FakeBlockStore blockStore = new FakeBlockStore();
+        final BlockchainBuilderTests.FakeBitcoinNodeManager bitcoinNodeManager = new BlockchainBuilderTests.FakeBitcoinNodeManager();
+        final BlockInflaters blockInflaters = BlockchainBuilderTests.FAKE_BLOCK_INFLATERS;
+
+        final BlockProcessorContext blockProcessorContext = new BlockProcessorContext(blockInflaters, transactionInflaters, blockStore, _fullNodeDatabaseManagerFactory, new MutableNetworkTime(), _synchronizationStatus, _transactionValidatorFactory);
+        final PendingBlockLoaderContext pendingBlockLoaderContext = new PendingBlockLoaderContext(blockInflaters, _fullNodeDatabaseManagerFactory, _threadPool);
+        final BlockchainBuilderContext blockchainBuilderContext = new BlockchainBuilderContext(blockInflaters, _fullNodeDatabaseManagerFactory, bitcoinNodeManager, _threadPool);
+
+        final BlockProcessor blockProcessor = new BlockProcessor(blockProcessorContext);
+        final PendingBlockLoader pendingBlockLoader = new PendingBlockLoader(pendingBlockLoaderContext, 1);
+
+        final Block block02 = blockInflater.fromBytes(HexUtil.hexStringToByteArray(BlockData.MainChain.BLOCK_2));
+
+        final Block fakeBlock03;
+        {
+            final MutableBlock mutableBlock = BlockTestUtil.createBlock();
+            mutableBlock.setPreviousBlockHash(block02.getHash());
+            mutableBlock.addTransaction(TransactionTestUtil.createCoinbaseTransactionSpendableByPrivateKey(privateKey));
+            fakeBlock03 = mutableBlock;
+        }
+
+        try (final FullNodeDatabaseManager databaseManager = _fullNodeDatabaseManagerFactory.newDatabaseManager()) {
+            final FullNodePendingBlockDatabaseManager pendingBlockDatabaseManager = databaseManager.getPendingBlockDatabaseManager();
+
+            for (final String blockData : new String[]{ BlockData.MainChain.GENESIS_BLOCK, BlockData.MainChain.BLOCK_1, BlockData.MainChain.BLOCK_2 }) {
+                final Block block = blockInflater.fromBytes(HexUtil.hexStringToByteArray(blockData));
+                pendingBlockDatabaseManager.storeBlock(block);
+            }
+            pendingBlockDatabaseManager.storeBlock(fakeBlock03);
+        }
+
+        final BlockchainBuilder blockchainBuilder = new BlockchainBuilder(blockchainBuilderContext, blockProcessor, pendingBlockLoader, BlockchainBuilderTests.FAKE_DOWNLOAD_STATUS_MONITOR, BlockchainBuilderTests.FAKE_BLOCK_DOWNLOAD_REQUESTER);
+        final BlockchainBuilder.StatusMonitor statusMonitor = blockchainBuilder.getStatusMonitor();
+        blockchainBuilder.start();
+        final int maxSleepCount = 10;
+        int sleepCount = 0;
+        do {
+            Thread.sleep(250L);
+            sleepCount += 1;
+
+            if (sleepCount >= maxSleepCount) { throw new RuntimeException("Test execution timeout exceeded."); }
+        } while (statusMonitor.getStatus() != SleepyService.Status.SLEEPING);
+        blockchainBuilder.stop();
+
+        return fakeBlock03.getCoinbaseTransaction();
+    }
+
+    protected static Transaction _createSignedTransaction(final Transaction transactionToSpend, final Long amount, final PrivateKey privateKey) {
+        final AddressInflater addressInflater = new AddressInflater();
+        final Address address = addressInflater.fromPrivateKey(privateKey, true);
+
+        final MutableTransaction mutableTransaction = TransactionTestUtil.createTransaction();
+        mutableTransaction.addTransactionInput(TransactionTestUtil.createTransactionInput(new TransactionOutputIdentifier(transactionToSpend.getHash(), 0)));
+        mutableTransaction.addTransactionOutput(TransactionTestUtil.createTransactionOutput(amount, address));
+
+        return TransactionTestUtil.signTransaction(TransactionTestUtil.createTransactionOutputRepository(transactionToSpend), mutableTransaction, privateKey);
+    }
+
+    protected static void _deleteDirectory(final File directory) {
+        final File[] files = directory.listFiles();
+        if (files != null) {
+            for (final File file : files) {
+                file.delete();
+            }
+        }
+        directory.delete();
+    }
+
+    @Override @Before
+    public void before() throws Exception {
+        super.before();
+        _dataDirectory = Files.createTempDirectory("bitcoin-verde-mempool").toFile();
+    }
+
+    @Override @After
+    public void after() throws Exception {
+        _deleteDirectory(_dataDirectory);
+        super.after();
+    }
+
+    @Test
+    public void should_restore_transactions_missing_from_the_memory_pool() throws Exception {
+        // Setup
+        final PrivateKey privateKey = PrivateKey.createNewKey();
+        final Transaction coinbaseTransaction = _createBlockchain(privateKey);
+
+        final Transaction parentTransaction = MemoryPoolSnapshotManagerTests._createSignedTransaction(coinbaseTransaction, (49L * Transaction.SATOSHIS_PER_BITCOIN), privateKey);
+        final Transaction childTransaction = MemoryPoolSnapshotManagerTests._createSignedTransaction(parentTransaction, (48L * Transaction.SATOSHIS_PER_BITCOIN), privateKey);
+
+        final Long parentTimestamp = 1577836800L;
+        final Long childTimestamp = 1577836801L;
+
+        final TransactionProcessorContext transactionProcessorContext = new TransactionProcessorContext(_masterInflater, _fullNodeDatabaseManagerFactory, new MutableNetworkTime(), new SystemTime(), _transactionValidatorFactory);
+        final FakeTransactionWhitelist transactionWhitelist = new FakeTransactionWhitelist();
+        final MemoryPoolSnapshotManager memoryPoolSnapshotManager = new MemoryPoolSnapshotManager(_dataDirectory.getPath(), transactionProcessorContext, transactionWhitelist);
+
+        try (final FullNodeDatabaseManager databaseManager = _fullNodeDatabaseManagerFactory.newDatabaseManager()) {
+            final FullNodeTransactionDatabaseManager transactionDatabaseManager = databaseManager.getTransactionDatabaseManager();
+            final TransactionId parentTransactionId = transactionDatabaseManager.storeUnconfirmedTransaction(parentTransaction, parentTimestamp);
+            final TransactionId childTransactionId = transactionDatabaseManager.storeUnconfirmedTransaction(childTransaction, childTimestamp);
+
+            final Integer writtenTransactionCount = memoryPoolSnapshotManager.writeSnapshot();
+            Assert.assertEquals(Integer.valueOf(2), writtenTransactionCount);
+
+            // Simulate a database whose MemoryPool was lost while the node was offline...
+            final MutableList<TransactionId> transactionIds = new MutableList<TransactionId>();
+            transactionIds.add(parentTransactionId);
+            transactionIds.add(childTransactionId);
+            transactionDatabaseManager.removeFromUnconfirmedTransactions(transactionIds);
+            Assert.assertTrue(transactionDatabaseManager.getUnconfirmedTransactionIds().isEmpty());
+        }
+
+        // Action
+        final Integer restoredTransactionCount = memoryPoolSnapshotManager.loadSnapshot(_threadPool, 1);
+
+        // Assert
+        Assert.assertEquals(Integer.valueOf(2), restoredTransactionCount);
+        Assert.assertTrue(transactionWhitelist.containsTransactionHash(parentTransaction.getHash()));
+        Assert.assertTrue(transactionWhitelist.containsTransactionHash(childTransaction.getHash()));
+
+        try (final FullNodeDatabaseManager databaseManager = _fullNodeDatabaseManagerFactory.newDatabaseManager()) {
+            final FullNodeTransactionDatabaseManager transactionDatabaseManager = databaseManager.getTransactionDatabaseManager();
+
+            final MutableList<Sha256Hash> transactionHashes = new MutableList<Sha256Hash>();
+            transactionHashes.add(parentTransaction.getHash());
+            transactionHashes.add(childTransaction.getHash());
+            final Map<Sha256Hash, TransactionId> transactionIds = transactionDatabaseManager.getTransactionIds(transactionHashes);
+
+            final TransactionId parentTransactionId = transactionIds.get(parentTransaction.getHash());
+            final TransactionId childTransactionId = transactionIds.get(childTransaction.getHash());
+            Assert.assertTrue(transactionDatabaseManager.isUnconfirmedTransaction(parentTransactionId));
+            Assert.assertTrue(transactionDatabaseManager.isUnconfirmedTransaction(childTransactionId));
+
+            final Map<TransactionId, Long> timestamps = transactionDatabaseManager.getUnconfirmedTransactionTimestamps(transactionDatabaseManager.getUnconfirmedTransactionIds());
+            Assert.assertEquals(parentTimestamp, timestamps.get(parentTransactionId));
+            Assert.assertEquals(childTimestamp, timestamps.get(childTransactionId));
+        }
+    }
+
+    @Test
+    public void should_not_restore_but_should_whitelist_transactions_already_within_the_memory_pool() throws Exception {
+        // Setup
+        final PrivateKey privateKey = PrivateKey.createNewKey();
+        final Transaction coinbaseTransaction = _createBlockchain(privateKey);
+        final Transaction transaction = MemoryPoolSnapshotManagerTests._createSignedTransaction(coinbaseTransaction, (49L * Transaction.SATOSHIS_PER_BITCOIN), privateKey);
+        final Transaction childTransaction = MemoryPoolSnapshotManagerTests._createSignedTransaction(transaction, (48L * Transaction.SATOSHIS_PER_BITCOIN), privateKey);
+
+        final TransactionProcessorContext transactionProcessorContext = new TransactionProcessorContext(_masterInflater, _fullNodeDatabaseManagerFactory, new MutableNetworkTime(), new SystemTime(), _transactionValidatorFactory);
+        final FakeTransactionWhitelist transactionWhitelist = new FakeTransactionWhitelist();
+        final MemoryPoolSnapshotManager memoryPoolSnapshotManager = new MemoryPoolSnapshotManager(_dataDirectory.getPath(), transactionProcessorContext, transactionWhitelist);
+
+        try (final FullNodeDatabaseManager databaseManager = _fullNodeDatabaseManagerFactory.newDatabaseManager()) {
+            final FullNodeTransactionDatabaseManager transactionDatabaseManager = databaseManager.getTransactionDatabaseManager();
+            transactionDatabaseManager.storeUnconfirmedTransaction(transaction, 1577836800L);
+        }
+        memoryPoolSnapshotManager.writeSnapshot();
+
+        try (final FullNodeDatabaseManager databaseManager = _fullNodeDatabaseManagerFactory.newDatabaseManager()) {
+            // Simulate a Transaction accepted after the snapshot was written...
+            final FullNodeTransactionDatabaseManager transactionDatabaseManager = databaseManager.getTransactionDatabaseManager();
+            transactionDatabaseManager.storeUnconfirmedTransaction(childTransaction, 1577836801L);
+        }
+
+        // Action
+        final Integer restoredTransactionCount = memoryPoolSnapshotManager.loadSnapshot(_threadPool, 1);
+
+        // Assert
+        Assert.assertEquals(Integer.valueOf(0), restoredTransactionCount);
+        Assert.assertTrue(transactionWhitelist.containsTransactionHash(transaction.getHash()));
+        Assert.assertTrue(transactionWhitelist.containsTransactionHash(childTransaction.getHash()));
+
+        try (final FullNodeDatabaseManager databaseManager = _fullNodeDatabaseManagerFactory.newDatabaseManager()) {
+            final FullNodeTransactionDatabaseManager transactionDatabaseManager = databaseManager.getTransactionDatabaseManager();
+            Assert.assertEquals(2, transactionDatabaseManager.getUnconfirmedTransactionIds().getCount());
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.softwareverde.bitcoin.server.module.node.sync.transaction.snapshot;
+
+import com.softwareverde.bitcoin.block.Block;
+import com.softwareverde.bitcoin.block.BlockInflater;
+import com.softwareverde.bitcoin.test.UnitTest;
+import com.softwareverde.bitcoin.transaction.Transaction;
+import com.softwareverde.bitcoin.util.IoUtil;
+import com.softwareverde.constable.bytearray.ByteArray;
+import com.softwareverde.constable.list.List;
+import com.softwareverde.constable.list.mutable.MutableList;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+public class MemoryPoolSnapshotTests extends UnitTest {
+    protected static List<Transaction> getTransactions() {
+        final BlockInflater blockInflater = new BlockInflater();
+        final Block block = blockInflater.fromBytes(ByteArray.fromHexString(IoUtil.getResource("/blocks/00000000000000000051CFB8C9B8191EC4EF14F8F44F3E2290D67A8A0A29DD05")));
+        return block.getTransactions();
+    }
+
+    protected static byte[] writeSnapshot(final List<Transaction> transactions) throws IOException {
+        final ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+        try (final MemoryPoolSnapshotWriter memoryPoolSnapshotWriter = new MemoryPoolSnapshotWriter(byteArrayOutputStream)) {
+            long timestamp = 1577836800L;
+            for (final Transaction transaction : transactions) {
+                memoryPoolSnapshotWriter.write(new MemoryPoolSnapshotEntry(transaction, timestamp, (timestamp % 1000L)));
+                timestamp += 1L;
+            }
+        }
+        return byteArrayOutputStream.toByteArray();
+    }
+
+    @Test
+    public void should_read_written_snapshot() throws Exception {
+        // Setup
+        final List<Transaction> transactions = MemoryPoolSnapshotTests.getTransactions();
+        final byte[] snapshotBytes = MemoryPoolSnapshotTests.writeSnapshot(transactions);
+
+        final MutableList<MemoryPoolSnapshotEntry> memoryPoolSnapshotEntries = new MutableList<MemoryPoolSnapshotEntry>();
+        final Boolean isComplete;
+
+        // Action
+        try (final MemoryPoolSnapshotReader memoryPoolSnapshotReader = new MemoryPoolSnapshotReader(new ByteArrayInputStream(snapshotBytes))) {
+            while (true) {
+                final MemoryPoolSnapshotEntry memoryPoolSnapshotEntry = memoryPoolSnapshotReader.readEntry();
+                if (memoryPoolSnapshotEntry == null) { break; }
+
+                memoryPoolSnapshotEntries.add(memoryPoolSnapshotEntry);
+            }
+            isComplete = memoryPoolSnapshotReader.isComplete();
+        }
+
+        // Assert
+        Assert.assertTrue(isComplete);
+        Assert.assertEquals(transactions.getCount(), memoryPoolSnapshotEntries.getCount());
+
+        long expectedTimestamp = 1577836800L;
+        for (int i = 0; i < transactions.getCount(); ++i) {
+            final Transaction expectedTransaction = transactions.get(i);
+            final MemoryPoolSnapshotEntry memoryPoolSnapshotEntry = memoryPoolSnapshotEntries.get(i);
+
+            Assert.assertEquals(expectedTransaction.getHash(), memoryPoolSnapshotEntry.getTransaction().getHash());
+            Assert.assertEquals(Long.valueOf(expectedTimestamp), memoryPoolSnapshotEntry.getTimestamp());
+            Assert.assertEquals(Long.valueOf(expectedTimestamp % 1000L), memoryPoolSnapshotEntry.getFee());
+            expectedTimestamp += 1L;
+        }
+    }
+
+    @Test
+    public void should_fail_to_read_truncated_snapshot() throws Exception {
+        // Setup
+        final List<Transaction> transactions = MemoryPoolSnapshotTests.getTransactions();
+        final byte[] snapshotBytes = MemoryPoolSnapshotTests.writeSnapshot(transactions);
+
+        final byte[] truncatedSnapshotBytes = new byte[snapshotBytes.length / 2];
+        System.arraycopy(snapshotBytes, 0, truncatedSnapshotBytes, 0, truncatedSnapshotBytes.length);
+
+        int readEntryCount = 0;
+        boolean didFail = false;
+
+        // Action
+        try (final MemoryPoolSnapshotReader memoryPoolSnapshotReader = new MemoryPoolSnapshotReader(new ByteArrayInputStream(truncatedSnapshotBytes))) {
+            while (memoryPoolSnapshotReader.readEntry() != null) {
+                readEntryCount += 1;
+            }
+        }
+        catch (final IOException exception) {
+            didFail = true;
+        }
+
+        // Assert
+        Assert.assertTrue(didFail);
+        Assert.assertTrue(readEntryCount > 0);
+        Assert.assertTrue(readEntryCount < transactions.getCount());
+    }
+
+    @Test(expected = IOException.class)
+    public void should_reject_unknown_snapshot_format() throws Exception {
+        // Setup
+        final byte[] snapshotBytes = ByteArray.fromHexString("00000000000000010000000000000000").getBytes();
+
+        // Action
+        new MemoryPoolSnapshotReader(new ByteArrayInputStream(snapshotBytes));
+    }
+}
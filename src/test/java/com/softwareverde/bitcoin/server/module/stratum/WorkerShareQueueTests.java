@@ -0,0 +1,218 @@
+package com.softwareverde.bitcoin.server.module.stratum;
+
+import com.softwareverde.bitcoin.miner.pool.WorkerId;
+import com.softwareverde.bitcoin.server.database.DatabaseConnection;
+import com.softwareverde.bitcoin.server.module.stratum.database.AccountDatabaseManager;
+import com.softwareverde.bitcoin.server.module.stratum.database.WorkerShareTotal;
+import com.softwareverde.bitcoin.test.UnitTest;
+import com.softwareverde.bitcoin.test.fake.database.FakeDatabaseConnection;
+import com.softwareverde.bitcoin.test.fake.database.FakeDatabaseConnectionFactory;
+import com.softwareverde.constable.list.List;
+import com.softwareverde.constable.list.mutable.MutableList;
+import com.softwareverde.database.DatabaseException;
+import com.softwareverde.util.Util;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.HashMap;
+
+public class WorkerShareQueueTests extends UnitTest {
+    protected static final HashMap<String, WorkerId> WORKER_IDS = new HashMap<String, WorkerId>() {{
+        put("worker0", WorkerId.wrap(1L));
+        put("worker1", WorkerId.wrap(2L));
+    }};
+
+    /**
+     * A WorkerShareQueue that resolves workers from WORKER_IDS and records its stored totals instead of writing them to the database.
+     */
+    protected static class FakeWorkerShareQueue extends WorkerShareQueue {
+        protected final MutableList<List<WorkerShareTotal>> _storedWorkerShareTotals = new MutableList<List<WorkerShareTotal>>();
+        protected Boolean _shouldFailStore = false;
+        protected Integer _workerIdLookupCount = 0;
+
+        public FakeWorkerShareQueue() {
+            super(new FakeDatabaseConnectionFactory() {
+                @Override
+                public DatabaseConnection newConnection() {
+                    return new FakeDatabaseConnection() { };
+                }
+            });
+        }
+
+        @Override
+        protected WorkerId _getWorkerId(final AccountDatabaseManager accountDatabaseManager, final String workerUsername) {
+            final WorkerId cachedWorkerId = _workerIds.get(workerUsername);
+            if (cachedWorkerId != null) { return cachedWorkerId; }
+
+            _workerIdLookupCount += 1;
+            final WorkerId workerId = WORKER_IDS.get(workerUsername);
+            if (workerId == null) { return null; }
+
+            _workerIds.put(workerUsername, workerId);
+            return workerId;
+        }
+
+        @Override
+        protected void _storeWorkerShares(final AccountDatabaseManager accountDatabaseManager, final List<WorkerShareTotal> workerShareTotals) throws DatabaseException {
+            if (_shouldFailStore) {
+                throw new DatabaseException("Database unavailable.");
+            }
+
+            _storedWorkerShareTotals.add(workerShareTotals);
+        }
+
+        public void flush() {
+            _flush();
+        }
+
+        public void setShouldFailStore(final Boolean shouldFailStore) {
+            _shouldFailStore = shouldFailStore;
+        }
+
+        public Integer getPendingShareCount() {
+            synchronized (_mutex) {
+                return _pendingShareCount;
+            }
+        }
+
+        public Integer getCachedWorkerIdCount() {
+            return _workerIds.size();
+        }
+
+        public Integer getWorkerIdLookupCount() {
+            return _workerIdLookupCount;
+        }
+
+        public List<List<WorkerShareTotal>> getStoredWorkerShareTotals() {
+            return _storedWorkerShareTotals;
+        }
+    }
+
+    protected static WorkerShareTotal _getWorkerShareTotal(final List<WorkerShareTotal> workerShareTotals, final WorkerId workerId) {
+        for (final WorkerShareTotal workerShareTotal : workerShareTotals) {
+            if (Util.areEqual(workerId, workerShareTotal.getWorkerId())) {
+                return workerShareTotal;
+            }
+        }
+        return null;
+    }
+
+    @Override @Before
+    public void before() throws Exception {
+        super.before();
+    }
+
+    @Override @After
+    public void after() throws Exception {
+        super.after();
+    }
+
+    @Test
+    public void should_aggregate_shares_per_worker() throws Exception {
+        // Setup
+        final FakeWorkerShareQueue workerShareQueue = new FakeWorkerShareQueue();
+        workerShareQueue.addWorkerShare("worker0", 256);
+        workerShareQueue.addWorkerShare("worker1", 1024);
+        workerShareQueue.addWorkerShare("worker0", 512);
+        workerShareQueue.addWorkerShare("worker0", Integer.MAX_VALUE);
+
+        // Action
+        workerShareQueue.flush();
+
+        // Assert
+        final List<List<WorkerShareTotal>> storedWorkerShareTotals = workerShareQueue.getStoredWorkerShareTotals();
+        Assert.assertEquals(1, storedWorkerShareTotals.getCount());
+
+        final List<WorkerShareTotal> workerShareTotals = storedWorkerShareTotals.get(0);
+        Assert.assertEquals(2, workerShareTotals.getCount());
+
+        final WorkerShareTotal worker0ShareTotal = _getWorkerShareTotal(workerShareTotals, WORKER_IDS.get("worker0"));
+        Assert.assertNotNull(worker0ShareTotal);
+        Assert.assertEquals(Long.valueOf(256L + 512L + Integer.MAX_VALUE), worker0ShareTotal.getDifficultySum()); // The sum exceeds an Integer...
+        Assert.assertEquals(Integer.valueOf(3), worker0ShareTotal.getShareCount());
+
+        final WorkerShareTotal worker1ShareTotal = _getWorkerShareTotal(workerShareTotals, WORKER_IDS.get("worker1"));
+        Assert.assertNotNull(worker1ShareTotal);
+        Assert.assertEquals(Long.valueOf(1024L), worker1ShareTotal.getDifficultySum());
+        Assert.assertEquals(Integer.valueOf(1), worker1ShareTotal.getShareCount());
+    }
+
+    @Test
+    public void flush_should_clear_the_pending_shares() throws Exception {
+        // Setup
+        final FakeWorkerShareQueue workerShareQueue = new FakeWorkerShareQueue();
+        workerShareQueue.addWorkerShare("worker0", 256);
+        workerShareQueue.addWorkerShare("worker1", 256);
+        Assert.assertEquals(Integer.valueOf(2), workerShareQueue.getPendingShareCount());
+
+        // Action
+        workerShareQueue.flush();
+        workerShareQueue.flush();
+
+        // Assert
+        Assert.assertEquals(Integer.valueOf(0), workerShareQueue.getPendingShareCount());
+        Assert.assertEquals(1, workerShareQueue.getStoredWorkerShareTotals().getCount()); // The second flush has nothing to store...
+        Assert.assertEquals(Integer.valueOf(2), workerShareQueue.getWorkerIdLookupCount());
+    }
+
+    @Test
+    public void unknown_workers_should_not_be_stored() throws Exception {
+        // Setup
+        final FakeWorkerShareQueue workerShareQueue = new FakeWorkerShareQueue();
+        workerShareQueue.addWorkerShare("worker0", 256);
+        workerShareQueue.addWorkerShare("unknownWorker", 256);
+
+        // Action
+        workerShareQueue.flush();
+
+        // Assert
+        final List<WorkerShareTotal> workerShareTotals = workerShareQueue.getStoredWorkerShareTotals().get(0);
+        Assert.assertEquals(1, workerShareTotals.getCount());
+        Assert.assertEquals(WORKER_IDS.get("worker0"), workerShareTotals.get(0).getWorkerId());
+    }
+
+    @Test
+    public void failed_flush_should_requeue_the_shares_and_clear_the_worker_id_cache() throws Exception {
+        // Setup
+        final FakeWorkerShareQueue workerShareQueue = new FakeWorkerShareQueue();
+        workerShareQueue.addWorkerShare("worker0", 256);
+        workerShareQueue.addWorkerShare("worker0", 512);
+        workerShareQueue.addWorkerShare("worker1", 1024);
+
+        // Action
+        workerShareQueue.setShouldFailStore(true);
+        workerShareQueue.flush();
+
+        // Assert
+        Assert.assertEquals(0, workerShareQueue.getStoredWorkerShareTotals().getCount());
+        Assert.assertEquals(Integer.valueOf(3), workerShareQueue.getPendingShareCount());
+        Assert.assertEquals(Integer.valueOf(0), workerShareQueue.getCachedWorkerIdCount());
+
+        // Action
+        workerShareQueue.addWorkerShare("worker0", 2048);
+        workerShareQueue.setShouldFailStore(false);
+        workerShareQueue.flush();
+
+        // Assert
+        Assert.assertEquals(Integer.valueOf(0), workerShareQueue.getPendingShareCount());
+        Assert.assertEquals(Integer.valueOf(4), workerShareQueue.getWorkerIdLookupCount()); // Each worker is resolved again after the failure...
+
+        final List<List<WorkerShareTotal>> storedWorkerShareTotals = workerShareQueue.getStoredWorkerShareTotals();
+        Assert.assertEquals(1, storedWorkerShareTotals.getCount());
+
+        final List<WorkerShareTotal> workerShareTotals = storedWorkerShareTotals.get(0);
+        Assert.assertEquals(2, workerShareTotals.getCount());
+
+        final WorkerShareTotal worker0ShareTotal = _getWorkerShareTotal(workerShareTotals, WORKER_IDS.get("worker0"));
+        Assert.assertNotNull(worker0ShareTotal);
+        Assert.assertEquals(Long.valueOf(256L + 512L + 2048L), worker0ShareTotal.getDifficultySum());
+        Assert.assertEquals(Integer.valueOf(3), worker0ShareTotal.getShareCount());
+
+        final WorkerShareTotal worker1ShareTotal = _getWorkerShareTotal(workerShareTotals, WORKER_IDS.get("worker1"));
+        Assert.assertNotNull(worker1ShareTotal);
+        Assert.assertEquals(Long.valueOf(1024L), worker1ShareTotal.getDifficultySum());
+        Assert.assertEquals(Integer.valueOf(1), worker1ShareTotal.getShareCount());
+    }
+}
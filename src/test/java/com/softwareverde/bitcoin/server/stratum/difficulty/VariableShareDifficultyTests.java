@@ -0,0 +1,88 @@
+package com.softwareverde.bitcoin.server.stratum.difficulty;
+
+import com.softwareverde.bitcoin.test.UnitTest;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class VariableShareDifficultyTests extends UnitTest {
+    @Override @Before
+    public void before() throws Exception {
+        super.before();
+    }
+
+    @Override @After
+    public void after() throws Exception {
+        super.after();
+    }
+
+    @Test
+    public void should_increase_difficulty_when_shares_are_submitted_too_frequently() {
+        // Setup
+        final VariableShareDifficulty variableShareDifficulty = new VariableShareDifficulty(2048, 0L);
+
+        Integer newShareDifficulty = null;
+
+        // Action
+        for (int i = 1; i <= VariableShareDifficulty.RETARGET_SHARE_COUNT; ++i) {
+            newShareDifficulty = variableShareDifficulty.onShareAccepted(i * 1000L); // One share per second...
+        }
+
+        // Assert
+        Assert.assertEquals(Integer.valueOf(2048 * 4), newShareDifficulty); // The adjustment is clamped to 4x...
+        Assert.assertEquals(Integer.valueOf(2048 * 4), variableShareDifficulty.getShareDifficulty());
+    }
+
+    @Test
+    public void should_decrease_difficulty_when_no_shares_are_submitted() {
+        // Setup
+        final VariableShareDifficulty variableShareDifficulty = new VariableShareDifficulty(2048, 0L);
+
+        // Action
+        final Integer earlyShareDifficulty = variableShareDifficulty.checkRetarget(VariableShareDifficulty.RETARGET_INTERVAL_MS - 1L);
+        final Integer newShareDifficulty = variableShareDifficulty.checkRetarget(VariableShareDifficulty.RETARGET_INTERVAL_MS);
+
+        // Assert
+        Assert.assertNull(earlyShareDifficulty);
+        Assert.assertEquals(Integer.valueOf(2048 / 4), newShareDifficulty);
+    }
+
+    @Test
+    public void should_not_retarget_when_share_interval_is_near_target() {
+        // Setup
+        final VariableShareDifficulty variableShareDifficulty = new VariableShareDifficulty(2048, 0L);
+
+        Integer newShareDifficulty = null;
+
+        // Action
+        for (int i = 1; i <= VariableShareDifficulty.RETARGET_SHARE_COUNT; ++i) {
+            newShareDifficulty = variableShareDifficulty.onShareAccepted(i * 12000L);
+        }
+
+        // Assert
+        Assert.assertNull(newShareDifficulty);
+        Assert.assertEquals(Integer.valueOf(2048), variableShareDifficulty.getShareDifficulty());
+    }
+
+    @Test
+    public void should_record_the_latest_difficulty_sent_for_a_job() {
+        // Setup
+        final VariableShareDifficulty variableShareDifficulty = new VariableShareDifficulty(2048, 0L);
+        variableShareDifficulty.onJobSent(1L);
+
+        for (int i = 1; i <= VariableShareDifficulty.RETARGET_SHARE_COUNT; ++i) {
+            variableShareDifficulty.onShareAccepted(i * 1000L);
+        }
+
+        // Action
+        variableShareDifficulty.onJobSent(1L);
+        variableShareDifficulty.onJobSent(2L);
+
+        // Assert
+        // The resent job is validated at the new difficulty...
+        Assert.assertEquals(Integer.valueOf(2048 * 4), variableShareDifficulty.getJobShareDifficulty(1L));
+        Assert.assertEquals(Integer.valueOf(2048 * 4), variableShareDifficulty.getJobShareDifficulty(2L));
+        Assert.assertEquals(Integer.valueOf(2048 * 4), variableShareDifficulty.getJobShareDifficulty(3L));
+    }
+}
@@ -0,0 +1,228 @@
+package com.softwareverde.bitcoin.server.stratum.socket;
+
+import com.softwareverde.bitcoin.test.UnitTest;
+import com.softwareverde.concurrent.pool.MainThreadPool;
+import com.softwareverde.network.socket.JsonProtocolMessage;
+import com.softwareverde.util.StringUtil;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.Closeable;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class StratumConnectionTests extends UnitTest {
+    protected static class CallbackCounter implements StratumConnection.Callback {
+        public final AtomicInteger listenCount = new AtomicInteger(0);
+        public final AtomicInteger writePendingCount = new AtomicInteger(0);
+        public final AtomicInteger closeCount = new AtomicInteger(0);
+
+        @Override
+        public void onListen(final StratumConnection stratumConnection) {
+            this.listenCount.incrementAndGet();
+        }
+
+        @Override
+        public void onWritePending(final StratumConnection stratumConnection) {
+            this.writePendingCount.incrementAndGet();
+        }
+
+        @Override
+        public void onClose(final StratumConnection stratumConnection) {
+            this.closeCount.incrementAndGet();
+        }
+    }
+
+    protected ServerSocketChannel _serverSocketChannel;
+    protected SocketChannel _clientSocketChannel;
+    protected SocketChannel _socketChannel;
+    protected CallbackCounter _callbackCounter;
+
+    /**
+     * Returns a StratumConnection for the accepted end of a loopback connection; the other end is _clientSocketChannel.
+     *  The accepted SocketChannel is left in blocking mode so that StratumConnection::onReadable waits for the client's data.
+     */
+    protected StratumConnection _createStratumConnection() throws Exception {
+        _serverSocketChannel = ServerSocketChannel.open();
+        _serverSocketChannel.bind(new InetSocketAddress("127.0.0.1", 0));
+        _clientSocketChannel = SocketChannel.open(_serverSocketChannel.getLocalAddress());
+        _socketChannel = _serverSocketChannel.accept();
+        _callbackCounter = new CallbackCounter();
+        return new StratumConnection(_socketChannel, new MainThreadPool(1, 1L), _callbackCounter);
+    }
+
+    protected void _writeToClientSocket(final String string) throws Exception {
+        final ByteBuffer byteBuffer = ByteBuffer.wrap(StringUtil.stringToBytes(string));
+        while (byteBuffer.hasRemaining()) {
+            _clientSocketChannel.write(byteBuffer);
+        }
+    }
+
+    protected static ByteBuffer _createMessage(final Integer byteCount, final Byte value) {
+        final byte[] bytes = new byte[byteCount];
+        for (int i = 0; i < byteCount; ++i) {
+            bytes[i] = value;
+        }
+        return ByteBuffer.wrap(bytes).asReadOnlyBuffer();
+    }
+
+    @Override @Before
+    public void before() throws Exception {
+        super.before();
+    }
+
+    @Override @After
+    public void after() throws Exception {
+        for (final Closeable closeable : new Closeable[]{ _socketChannel, _clientSocketChannel, _serverSocketChannel }) {
+            if (closeable != null) {
+                closeable.close();
+            }
+        }
+
+        super.after();
+    }
+
+    @Test
+    public void should_frame_newline_delimited_messages_across_reads() throws Exception {
+        // Setup
+        final StratumConnection stratumConnection = _createStratumConnection();
+        final ByteBuffer readBuffer = ByteBuffer.allocate(StratumServerSocket.READ_BUFFER_BYTE_COUNT);
+
+        // Action
+        _writeToClientSocket("{\"id\":1}\n{\"id\":2}\n{\"id\":");
+        while ( (stratumConnection._messages.size() < 2) || (stratumConnection._partialMessage.size() == 0) ) { // A single read may not receive all of the data...
+            stratumConnection.onReadable(readBuffer);
+        }
+
+        final JsonProtocolMessage message0 = stratumConnection.popMessage();
+        final JsonProtocolMessage message1 = stratumConnection.popMessage();
+        final JsonProtocolMessage incompleteMessage = stratumConnection.popMessage();
+
+        _writeToClientSocket("3}\n");
+        JsonProtocolMessage message2 = null;
+        while (message2 == null) {
+            stratumConnection.onReadable(readBuffer);
+            message2 = stratumConnection.popMessage();
+        }
+
+        // Assert
+        Assert.assertEquals(Integer.valueOf(1), message0.getMessage().getInteger("id"));
+        Assert.assertEquals(Integer.valueOf(2), message1.getMessage().getInteger("id"));
+        Assert.assertNull(incompleteMessage);
+        Assert.assertEquals(Integer.valueOf(3), message2.getMessage().getInteger("id"));
+        Assert.assertNull(stratumConnection.popMessage());
+        Assert.assertTrue(stratumConnection.isConnected());
+    }
+
+    @Test
+    public void should_ignore_lines_that_are_not_json() throws Exception {
+        // Setup
+        final StratumConnection stratumConnection = _createStratumConnection();
+        final ByteBuffer readBuffer = ByteBuffer.allocate(StratumServerSocket.READ_BUFFER_BYTE_COUNT);
+
+        // Action
+        _writeToClientSocket("not json\n\n{\"id\":1}\n");
+        JsonProtocolMessage message = null;
+        while (message == null) {
+            stratumConnection.onReadable(readBuffer);
+            message = stratumConnection.popMessage();
+        }
+
+        // Assert
+        Assert.assertEquals(Integer.valueOf(1), message.getMessage().getInteger("id"));
+        Assert.assertNull(stratumConnection.popMessage());
+        Assert.assertTrue(stratumConnection.isConnected());
+    }
+
+    @Test
+    public void should_disconnect_when_a_message_exceeds_the_max_byte_count() throws Exception {
+        // Setup
+        final StratumConnection stratumConnection = _createStratumConnection();
+        final ByteBuffer readBuffer = ByteBuffer.allocate(StratumServerSocket.READ_BUFFER_BYTE_COUNT);
+
+        final ByteBuffer oversizedMessage = _createMessage(StratumConnection.MAX_MESSAGE_BYTE_COUNT + 1, (byte) 'A');
+        while (oversizedMessage.hasRemaining()) {
+            _clientSocketChannel.write(oversizedMessage);
+        }
+
+        // Action
+        int readCount = 0;
+        while (stratumConnection.isConnected()) {
+            stratumConnection.onReadable(readBuffer);
+            readCount += 1;
+        }
+
+        // Assert
+        Assert.assertTrue(readCount >= ((StratumConnection.MAX_MESSAGE_BYTE_COUNT + 1) / StratumServerSocket.READ_BUFFER_BYTE_COUNT));
+        Assert.assertNull(stratumConnection.popMessage());
+        Assert.assertEquals(1, _callbackCounter.closeCount.get());
+    }
+
+    @Test
+    public void should_write_queued_messages_in_order_once_the_socket_is_writable() throws Exception {
+        // Setup
+        final StratumConnection stratumConnection = _createStratumConnection();
+        _socketChannel.configureBlocking(false);
+
+        final int messageByteCount = (64 * 1024);
+        final int messageCount = 16;
+
+        // Action
+        for (int i = 0; i < messageCount; ++i) {
+            final Boolean wasQueued = stratumConnection.write(_createMessage(messageByteCount, (byte) i));
+            Assert.assertTrue(wasQueued);
+        }
+
+        final ByteBuffer receivedBytes = ByteBuffer.allocate(messageByteCount * messageCount);
+        while (receivedBytes.hasRemaining()) {
+            if (stratumConnection.hasQueuedWrites()) {
+                stratumConnection.onWritable();
+            }
+            _clientSocketChannel.read(receivedBytes);
+        }
+
+        // Assert
+        Assert.assertFalse(stratumConnection.hasQueuedWrites());
+        Assert.assertTrue(stratumConnection.isConnected());
+
+        final byte[] bytes = receivedBytes.array();
+        for (int i = 0; i < bytes.length; ++i) {
+            Assert.assertEquals((byte) (i / messageByteCount), bytes[i]);
+        }
+    }
+
+    @Test
+    public void should_disconnect_when_the_write_queue_exceeds_the_max_byte_count() throws Exception {
+        // Setup
+        final StratumConnection stratumConnection = _createStratumConnection();
+        _socketChannel.configureBlocking(false);
+
+        final ByteBuffer message = _createMessage(64 * 1024, (byte) 'A'); // The same buffer is shared across every write...
+
+        // Action
+        long writtenByteCount = 0L;
+        Boolean wasQueued = true;
+        while (wasQueued) { // The client never reads, so the kernel's buffers fill and the remainder is queued...
+            wasQueued = stratumConnection.write(message);
+            if (wasQueued) {
+                writtenByteCount += message.remaining();
+            }
+
+            Assert.assertTrue(writtenByteCount < (16L * StratumConnection.MAX_QUEUED_BYTE_COUNT));
+        }
+
+        // Assert
+        Assert.assertTrue(writtenByteCount >= StratumConnection.MAX_QUEUED_BYTE_COUNT);
+        Assert.assertEquals(64 * 1024, message.remaining()); // The shared buffer is not consumed by the writes...
+        Assert.assertTrue(_callbackCounter.writePendingCount.get() > 0);
+        Assert.assertEquals(1, _callbackCounter.closeCount.get());
+        Assert.assertFalse(stratumConnection.isConnected());
+        Assert.assertFalse(stratumConnection.hasQueuedWrites());
+        Assert.assertFalse(stratumConnection.write(message));
+    }
+}
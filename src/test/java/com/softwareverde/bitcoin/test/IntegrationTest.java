@@ -18,9 +18,11 @@ import com.softwareverde.bitcoin.server.database.ReadUncommittedDatabaseConnecti
 import com.softwareverde.bitcoin.server.database.pool.DatabaseConnectionPool;
 import com.softwareverde.bitcoin.server.database.query.Query;
 import com.softwareverde.bitcoin.server.main.BitcoinVerdeDatabase;
+import com.softwareverde.bitcoin.server.module.node.database.block.fullnode.FullNodeBlockDatabaseManager;
 import com.softwareverde.bitcoin.server.module.node.database.fullnode.FullNodeDatabaseManagerFactory;
 import com.softwareverde.bitcoin.server.module.node.database.spv.SpvDatabaseManagerFactory;
 import com.softwareverde.bitcoin.server.module.node.database.transaction.fullnode.utxo.UnspentTransactionOutputJvmManager;
+import com.softwareverde.bitcoin.server.module.node.database.transaction.fullnode.utxo.UtxoSnapshotDatabaseManager;
 import com.softwareverde.bitcoin.test.fake.FakeSynchronizationStatus;
 import com.softwareverde.bitcoin.transaction.validator.BlockOutputs;
 import com.softwareverde.bitcoin.transaction.validator.TransactionValidator;
@@ -146,6 +148,12 @@ public class IntegrationTest extends UnitTest {
         final Container<Long> uncommittedUtxoBlockHeight = ReflectionUtil.getStaticValue(UnspentTransactionOutputJvmManager.class, "UNCOMMITTED_UTXO_BLOCK_HEIGHT");
         uncommittedUtxoBlockHeight.value = 0L;
 
+        final Container<Long> utxoSnapshotBlockHeight = ReflectionUtil.getStaticValue(UtxoSnapshotDatabaseManager.class, "SNAPSHOT_BLOCK_HEIGHT");
+        utxoSnapshotBlockHeight.value = null;
+
+        final Container<Long> prunedBlockHeight = ReflectionUtil.getStaticValue(FullNodeBlockDatabaseManager.class, "PRUNED_BLOCK_HEIGHT");
+        prunedBlockHeight.value = null;
+
         // Clear the static UTXO cache and the double buffer.
         new UnspentTransactionOutputJvmManager(null, 0.5F, null, null, null) {
             {
@@ -156,6 +164,7 @@ public class IntegrationTest extends UnitTest {
 
                 UnspentTransactionOutputJvmManager.UTXO_SET.clear();
                 UnspentTransactionOutputJvmManager.DOUBLE_BUFFER.clear();
+                UnspentTransactionOutputJvmManager.COMMIT_RECOVERY_BLOCK_HEIGHT.value = null;
             }
         };
     }
@@ -13,6 +13,7 @@ import com.softwareverde.bitcoin.server.main.BitcoinConstants;
 import com.softwareverde.bitcoin.server.stratum.message.RequestMessage;
 import com.softwareverde.bitcoin.server.stratum.message.ResponseMessage;
 import com.softwareverde.bitcoin.server.stratum.message.server.MinerSubmitBlockResult;
+import com.softwareverde.bitcoin.server.stratum.socket.StratumConnection;
 import com.softwareverde.bitcoin.server.stratum.socket.StratumServerSocket;
 import com.softwareverde.bitcoin.server.stratum.task.StratumMineBlockTask;
 import com.softwareverde.bitcoin.server.stratum.task.StratumMineBlockTaskBuilderCore;
@@ -31,7 +32,6 @@ import com.softwareverde.cryptography.secp256k1.key.PrivateKey;
 import com.softwareverde.json.Json;
 import com.softwareverde.logging.Logger;
 import com.softwareverde.network.socket.JsonProtocolMessage;
-import com.softwareverde.network.socket.JsonSocket;
 import com.softwareverde.util.ByteUtil;
 import com.softwareverde.util.HexUtil;
 
@@ -187,7 +187,7 @@ class StratumMiner {
         _currentMineBlockTask = stratumMineBlockTaskBuilder.buildMineBlockTask();
     }
 
-    protected void _sendWork(final JsonSocket socketConnection, final Boolean abandonOldJobs) {
+    protected void _sendWork(final StratumConnection socketConnection, final Boolean abandonOldJobs) {
         _setDifficulty(socketConnection);
 
         final RequestMessage mineBlockRequest = _currentMineBlockTask.createRequest(abandonOldJobs);
@@ -196,7 +196,7 @@ class StratumMiner {
         socketConnection.write(new JsonProtocolMessage(mineBlockRequest));
     }
 
-    protected void _setDifficulty(final JsonSocket socketConnection) {
+    protected void _setDifficulty(final StratumConnection socketConnection) {
         final RequestMessage mineBlockMessage = new RequestMessage(RequestMessage.ServerCommand.SET_DIFFICULTY.getValue());
 
         final Json parametersJson = new Json(true);
@@ -207,7 +207,7 @@ class StratumMiner {
         socketConnection.write(new JsonProtocolMessage(mineBlockMessage));
     }
 
-    protected void _handleSubscribeMessage(final RequestMessage requestMessage, final JsonSocket socketConnection) {
+    protected void _handleSubscribeMessage(final RequestMessage requestMessage, final StratumConnection socketConnection) {
         final String subscriptionId = HexUtil.toHexString(_createRandomBytes(8).getBytes());
 
         final Json resultJson = new Json(true); {
@@ -238,7 +238,7 @@ class StratumMiner {
         socketConnection.write(new JsonProtocolMessage(responseMessage));
     }
 
-    protected void _handleAuthorizeMessage(final RequestMessage requestMessage, final JsonSocket socketConnection) {
+    protected void _handleAuthorizeMessage(final RequestMessage requestMessage, final StratumConnection socketConnection) {
         { // Respond with successful authorization...
             final ResponseMessage responseMessage = new ResponseMessage(requestMessage.getId());
             responseMessage.setResult(ResponseMessage.RESULT_TRUE);
@@ -250,7 +250,7 @@ class StratumMiner {
         _sendWork(socketConnection, true);
     }
 
-    protected void _handleSubmitMessage(final RequestMessage requestMessage, final JsonSocket socketConnection) {
+    protected void _handleSubmitMessage(final RequestMessage requestMessage, final StratumConnection socketConnection) {
         // mining.submit("username", "job id", "ExtraNonce2", "nTime", "nOnce")
 
         final Json messageParameters = requestMessage.getParameters();
@@ -331,7 +331,7 @@ class StratumMiner {
 
         _stratumServerSocket.setSocketEventCallback(new StratumServerSocket.SocketEventCallback() {
             @Override
-            public void onConnect(final JsonSocket socketConnection) {
+            public void onConnect(final StratumConnection socketConnection) {
                 Logger.info("Node connected: " + socketConnection.getIp() + ":" + socketConnection.getPort());
 
                 socketConnection.setMessageReceivedCallback(new Runnable() {
@@ -371,7 +371,7 @@ class StratumMiner {
             }
 
             @Override
-            public void onDisconnect(final JsonSocket disconnectedSocket) {
+            public void onDisconnect(final StratumConnection disconnectedSocket) {
                 Logger.info("Node disconnected: " + disconnectedSocket.getIp() + ":" + disconnectedSocket.getPort());
             }
         });
@@ -0,0 +1,47 @@
+package com.softwareverde.bitcoin.test.fake;
+
+import com.softwareverde.bitcoin.server.stratum.socket.StratumConnection;
+import com.softwareverde.concurrent.pool.ThreadPool;
+import com.softwareverde.constable.list.List;
+import com.softwareverde.constable.list.mutable.MutableList;
+import com.softwareverde.json.Json;
+import com.softwareverde.util.StringUtil;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+
+/**
+ * A StratumConnection that records its written messages instead of writing them to the SocketChannel.
+ */
+public class FakeStratumConnection extends StratumConnection {
+    protected static final Callback IGNORE_CALLBACK = new Callback() {
+        @Override
+        public void onListen(final StratumConnection stratumConnection) { }
+
+        @Override
+        public void onWritePending(final StratumConnection stratumConnection) { }
+
+        @Override
+        public void onClose(final StratumConnection stratumConnection) { }
+    };
+
+    protected final MutableList<Json> _writtenMessages = new MutableList<Json>();
+
+    public FakeStratumConnection(final SocketChannel socketChannel, final ThreadPool threadPool) {
+        super(socketChannel, threadPool, IGNORE_CALLBACK);
+    }
+
+    @Override
+    public synchronized Boolean write(final ByteBuffer serializedMessage) {
+        final ByteBuffer byteBuffer = serializedMessage.duplicate();
+        final byte[] bytes = new byte[byteBuffer.remaining()];
+        byteBuffer.get(bytes);
+
+        _writtenMessages.add(Json.parse(StringUtil.bytesToString(bytes).trim()));
+        return true;
+    }
+
+    public List<Json> getWrittenMessages() {
+        return _writtenMessages;
+    }
+}
@@ -10,6 +10,8 @@ import com.softwareverde.network.ip.Ip;
 import com.softwareverde.network.p2p.node.NodeId;
 import com.softwareverde.network.p2p.node.address.NodeIpAddress;
 
+import java.util.Map;
+
 public interface FakeBitcoinNodeDatabaseManager extends BitcoinNodeDatabaseManager {
     @Override
     default NodeId getNodeId(BitcoinNode node) throws DatabaseException { throw new UnsupportedOperationException(); }
@@ -49,4 +51,7 @@ public interface FakeBitcoinNodeDatabaseManager extends BitcoinNodeDatabaseManag
 
     @Override
     default Boolean isBanned(Ip ip, final Long sinceTimestamp) throws DatabaseException { throw new UnsupportedOperationException(); }
+
+    @Override
+    default Map<Ip, Long> getBannedIps(Long sinceTimestamp) throws DatabaseException { throw new UnsupportedOperationException(); }
 }
@@ -0,0 +1,150 @@
+package com.softwareverde.bitcoin.test.util;
+
+import com.softwareverde.bitcoin.address.AddressInflater;
+import com.softwareverde.bitcoin.block.Block;
+import com.softwareverde.bitcoin.block.BlockInflater;
+import com.softwareverde.bitcoin.transaction.Transaction;
+import com.softwareverde.bitcoin.transaction.input.TransactionInput;
+import com.softwareverde.bitcoin.transaction.output.MutableTransactionOutput;
+import com.softwareverde.bitcoin.transaction.script.ScriptBuilder;
+import com.softwareverde.bitcoin.transaction.script.opcode.Operation;
+import com.softwareverde.bitcoin.transaction.script.opcode.PushOperation;
+import com.softwareverde.bitcoin.transaction.script.signature.ScriptSignature;
+import com.softwareverde.bitcoin.transaction.script.signature.ScriptSignatureContext;
+import com.softwareverde.bitcoin.transaction.signer.SignatureContext;
+import com.softwareverde.bitcoin.transaction.signer.TransactionSigner;
+import com.softwareverde.bitcoin.util.IoUtil;
+import com.softwareverde.constable.bytearray.ByteArray;
+import com.softwareverde.constable.bytearray.MutableByteArray;
+import com.softwareverde.constable.list.List;
+import com.softwareverde.constable.list.mutable.MutableList;
+import com.softwareverde.cryptography.secp256k1.key.PublicKey;
+import com.softwareverde.cryptography.secp256k1.signature.SchnorrSignature;
+import com.softwareverde.cryptography.secp256k1.signature.Signature;
+import com.softwareverde.cryptography.util.HashUtil;
+import com.softwareverde.util.bytearray.ByteArrayBuilder;
+import org.bouncycastle.asn1.x9.X9ECParameters;
+import org.bouncycastle.crypto.ec.CustomNamedCurves;
+import org.bouncycastle.math.ec.ECPoint;
+import org.bouncycastle.util.BigIntegers;
+
+import java.math.BigInteger;
+
+/**
+ * Signature fixtures derived from a stored historical Block; shared by the unit tests and the JMH benchmarks.
+ */
+public class SignatureTestUtil {
+    public static class SignedMessage {
+        public final Signature signature;
+        public final PublicKey publicKey;
+        public final ByteArray message;
+
+        public SignedMessage(final Signature signature, final PublicKey publicKey, final ByteArray message) {
+            this.signature = signature;
+            this.publicKey = publicKey;
+            this.message = message;
+        }
+    }
+
+    public static final String HISTORIC_BLOCK_HASH = "000000000000000082CCF8F1557C5D40B21EDABB18D2D691CFBF87118BAC7254";
+    public static final Long HISTORIC_BLOCK_HEIGHT = 300000L;
+
+    protected static final X9ECParameters CURVE_PARAMETERS = CustomNamedCurves.getByName("secp256k1");
+
+    /**
+     * Returns the ECDSA signature, PublicKey, and signed message (the signature hash) of every pay-to-public-key-hash input within Block 300000.
+     *  The Block predates BUIP55, so the signature hashes do not commit to the amount of the outputs being spent; since those outputs are not
+     *  stored, each output being spent is reconstructed from the input's PublicKey.
+     */
+    public static List<SignedMessage> loadHistoricBlockSignatures() {
+        final BlockInflater blockInflater = new BlockInflater();
+        final Block block = blockInflater.fromBytes(ByteArray.fromHexString(IoUtil.getResource("/blocks/" + HISTORIC_BLOCK_HASH)));
+
+        final AddressInflater addressInflater = new AddressInflater();
+        final TransactionSigner transactionSigner = new TransactionSigner();
+
+        final MutableList<SignedMessage> signedMessages = new MutableList<SignedMessage>();
+        boolean isCoinbase = true;
+        for (final Transaction transaction : block.getTransactions()) {
+            if (isCoinbase) {
+                isCoinbase = false;
+                continue;
+            }
+
+            final List<TransactionInput> transactionInputs = transaction.getTransactionInputs();
+            for (int inputIndex = 0; inputIndex < transactionInputs.getCount(); ++inputIndex) {
+                final TransactionInput transactionInput = transactionInputs.get(inputIndex);
+                final List<Operation> operations = transactionInput.getUnlockingScript().getOperations();
+                if ( (operations == null) || (operations.getCount() != 2) ) { continue; }
+                if ( (operations.get(0).getType() != Operation.Type.OP_PUSH) || (operations.get(1).getType() != Operation.Type.OP_PUSH) ) { continue; }
+
+                final ScriptSignature scriptSignature = ((PushOperation) operations.get(0)).getValue().asScriptSignature(ScriptSignatureContext.CHECK_SIGNATURE);
+                final PublicKey publicKey = ((PushOperation) operations.get(1)).getValue().asPublicKey();
+                if ( (scriptSignature == null) || (scriptSignature.getHashType() == null) || (! publicKey.isValid()) ) { continue; }
+                if (scriptSignature.getSignatureType() != Signature.Type.ECDSA) { continue; }
+
+                final MutableTransactionOutput transactionOutputBeingSpent = new MutableTransactionOutput();
+                transactionOutputBeingSpent.setAmount(0L);
+                transactionOutputBeingSpent.setLockingScript(ScriptBuilder.payToAddress(addressInflater.fromPublicKey(publicKey)));
+
+                final SignatureContext signatureContext = new SignatureContext(transaction, scriptSignature.getHashType(), HISTORIC_BLOCK_HEIGHT);
+                signatureContext.setInputIndexBeingSigned(inputIndex);
+                signatureContext.setShouldSignInputScript(inputIndex, true, transactionOutputBeingSpent);
+
+                final byte[] message = transactionSigner.getBytesForSigning(signatureContext);
+                signedMessages.add(new SignedMessage(scriptSignature.getSignature(), publicKey, MutableByteArray.wrap(message)));
+            }
+        }
+
+        return signedMessages;
+    }
+
+    /**
+     * Creates a BCH Schnorr signature of each historic message, each with a distinct key derived from the message.
+     *  No stored Block contains a Schnorr signature whose output being spent is also stored (and the post-BUIP55 signature hash commits to its amount),
+     *  so the historic messages are re-signed in order to batch distinct signatures, public keys, and messages.
+     *  https://github.com/bitcoincashorg/bitcoincash.org/blob/master/spec/2019-05-15-schnorr.md
+     */
+    public static List<SignedMessage> createSchnorrSignatures(final List<SignedMessage> historicSignedMessages) {
+        final BigInteger curveOrder = CURVE_PARAMETERS.getN();
+        final BigInteger fieldSize = CURVE_PARAMETERS.getCurve().getField().getCharacteristic();
+        final BigInteger legendreExponent = fieldSize.subtract(BigInteger.ONE).shiftRight(1); // (p - 1) / 2
+
+        final MutableList<SignedMessage> signedMessages = new MutableList<SignedMessage>(historicSignedMessages.getCount());
+        for (final SignedMessage historicSignedMessage : historicSignedMessages) {
+            final ByteArray message = historicSignedMessage.message;
+
+            final BigInteger privateKey = new BigInteger(1, HashUtil.doubleSha256(message.getBytes())).mod(curveOrder);
+            final ECPoint publicKeyPoint = CURVE_PARAMETERS.getG().multiply(privateKey).normalize();
+            final byte[] compressedPublicKeyBytes = publicKeyPoint.getEncoded(true);
+
+            final ByteArrayBuilder noncePreImage = new ByteArrayBuilder();
+            noncePreImage.appendBytes(BigIntegers.asUnsignedByteArray(32, privateKey));
+            noncePreImage.appendBytes(message.getBytes());
+            BigInteger k = new BigInteger(1, HashUtil.sha256(noncePreImage.build())).mod(curveOrder);
+            final ECPoint R = CURVE_PARAMETERS.getG().multiply(k).normalize();
+            if (! R.getAffineYCoord().toBigInteger().modPow(legendreExponent, fieldSize).equals(BigInteger.ONE)) {
+                k = curveOrder.subtract(k); // R's y-coordinate must be a quadratic residue...
+            }
+
+            final byte[] rBytes = R.getAffineXCoord().getEncoded();
+            final ByteArrayBuilder challengePreImage = new ByteArrayBuilder();
+            challengePreImage.appendBytes(rBytes);
+            challengePreImage.appendBytes(compressedPublicKeyBytes);
+            challengePreImage.appendBytes(message.getBytes());
+            final BigInteger e = new BigInteger(1, HashUtil.sha256(challengePreImage.build())).mod(curveOrder);
+            final BigInteger s = k.add(e.multiply(privateKey)).mod(curveOrder);
+
+            final ByteArrayBuilder signatureBytes = new ByteArrayBuilder();
+            signatureBytes.appendBytes(rBytes);
+            signatureBytes.appendBytes(BigIntegers.asUnsignedByteArray(32, s));
+            final Signature signature = SchnorrSignature.fromBytes(MutableByteArray.wrap(signatureBytes.build()));
+            final PublicKey publicKey = PublicKey.fromBytes(MutableByteArray.wrap(compressedPublicKeyBytes));
+            signedMessages.add(new SignedMessage(signature, publicKey, message));
+        }
+
+        return signedMessages;
+    }
+
+    protected SignatureTestUtil() { }
+}
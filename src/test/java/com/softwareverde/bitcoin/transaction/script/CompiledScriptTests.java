@@ -0,0 +1,204 @@
+package com.softwareverde.bitcoin.transaction.script;
+
+import com.softwareverde.bitcoin.block.Block;
+import com.softwareverde.bitcoin.block.BlockInflater;
+import com.softwareverde.bitcoin.test.UnitTest;
+import com.softwareverde.bitcoin.transaction.Transaction;
+import com.softwareverde.bitcoin.transaction.input.TransactionInput;
+import com.softwareverde.bitcoin.transaction.output.TransactionOutput;
+import com.softwareverde.bitcoin.transaction.script.locking.ImmutableLockingScript;
+import com.softwareverde.bitcoin.transaction.script.locking.LockingScript;
+import com.softwareverde.bitcoin.transaction.script.locking.MutableLockingScript;
+import com.softwareverde.bitcoin.transaction.script.opcode.Opcode;
+import com.softwareverde.bitcoin.transaction.script.opcode.Operation;
+import com.softwareverde.bitcoin.transaction.script.unlocking.ImmutableUnlockingScript;
+import com.softwareverde.bitcoin.transaction.script.unlocking.MutableUnlockingScript;
+import com.softwareverde.bitcoin.transaction.script.unlocking.UnlockingScript;
+import com.softwareverde.bitcoin.util.IoUtil;
+import com.softwareverde.constable.bytearray.ByteArray;
+import com.softwareverde.constable.list.List;
+import com.softwareverde.constable.list.mutable.MutableList;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class CompiledScriptTests extends UnitTest {
+    @Test
+    public void should_compile_pay_to_public_key_hash_script() {
+        // Setup
+        final String publicKeyHashString = "7E2277B34EE9E690F696DE9286D2CD5CD84D0FF7";
+        final ByteArray publicKeyHash = ByteArray.fromHexString(publicKeyHashString);
+        final ByteArray scriptBytes = ByteArray.fromHexString("76A914" + publicKeyHashString + "88AC");
+        final ScriptInflater scriptInflater = new ScriptInflater();
+
+        // Action
+        final CompiledScript compiledScript = scriptInflater.compile(scriptBytes);
+
+        // Assert
+        Assert.assertTrue(compiledScript.isCompiled());
+        Assert.assertTrue(compiledScript.isValid());
+        Assert.assertTrue(compiledScript.containsNonPushOperations());
+        Assert.assertFalse(compiledScript.containsCodeSeparators());
+        Assert.assertFalse(compiledScript.isSegregatedWitnessProgram());
+
+        Assert.assertEquals(5, compiledScript.getOperationCount());
+        Assert.assertTrue(Opcode.COPY_1ST.matchesByte(compiledScript.getOpcodeByte(0)));
+        Assert.assertTrue(Opcode.SHA_256_THEN_RIPEMD_160.matchesByte(compiledScript.getOpcodeByte(1)));
+        Assert.assertTrue(Opcode.PUSH_DATA.matchesByte(compiledScript.getOpcodeByte(2)));
+        Assert.assertTrue(Opcode.IS_EQUAL_THEN_VERIFY.matchesByte(compiledScript.getOpcodeByte(3)));
+        Assert.assertTrue(Opcode.CHECK_SIGNATURE.matchesByte(compiledScript.getOpcodeByte(4)));
+
+        Assert.assertEquals(0, compiledScript.getOperationByteOffset(0));
+        Assert.assertEquals(2, compiledScript.getOperationByteOffset(2));
+        Assert.assertEquals(23, compiledScript.getOperationByteOffset(3));
+        Assert.assertEquals(25, compiledScript.getOperationByteOffset(5));
+
+        Assert.assertFalse(compiledScript.hasPushData(0));
+        Assert.assertTrue(compiledScript.hasPushData(2));
+        Assert.assertEquals(3, compiledScript.getPushDataByteOffset(2));
+        Assert.assertEquals(20, compiledScript.getPushDataByteCount(2));
+        Assert.assertEquals(publicKeyHash, compiledScript.getPushData(2));
+    }
+
+    @Test
+    public void should_not_compile_unparsable_script() {
+        // Setup
+        final ScriptInflater scriptInflater = new ScriptInflater();
+        final ImmutableScript script = new ImmutableScript(ByteArray.fromHexString("4D"));
+
+        // Action
+        final CompiledScript compiledScript = scriptInflater.compile(script);
+
+        // Assert
+        Assert.assertEquals(script.getOperations() == null, (! compiledScript.isCompiled()));
+    }
+
+    @Test
+    public void subscript_bytes_should_match_reserialized_subscript() {
+        // Setup
+        final ScriptInflater scriptInflater = new ScriptInflater();
+        final ByteArray scriptBytes = ByteArray.fromHexString("61AB4C0201AB51AB76A9147E2277B34EE9E690F696DE9286D2CD5CD84D0FF788AC");
+        final CompiledScript compiledScript = scriptInflater.compile(scriptBytes);
+
+        for (int subscriptIndex = 0; subscriptIndex <= compiledScript.getOperationCount(); ++subscriptIndex) {
+            final MutableScript expectedScript = new MutableScript(scriptBytes);
+            expectedScript.subScript(subscriptIndex);
+            final ByteArray expectedBytes = expectedScript.getBytes();
+
+            expectedScript.removeOperations(Opcode.CODE_SEPARATOR);
+            final ByteArray expectedBytesWithoutCodeSeparators = expectedScript.getBytes();
+
+            // Action
+            final ByteArray subscriptBytes = compiledScript.getSubscriptBytes(subscriptIndex, false);
+            final ByteArray subscriptBytesWithoutCodeSeparators = compiledScript.getSubscriptBytes(subscriptIndex, true);
+
+            // Assert
+            Assert.assertEquals(expectedBytes, subscriptBytes);
+            Assert.assertEquals(expectedBytesWithoutCodeSeparators, subscriptBytesWithoutCodeSeparators);
+        }
+    }
+
+    @Test
+    public void should_match_script_pattern_matcher_for_segregated_witness_programs() {
+        // Setup
+        final ScriptPatternMatcher scriptPatternMatcher = new ScriptPatternMatcher();
+        final ScriptInflater scriptInflater = new ScriptInflater();
+        final String[] unlockingScripts = new String[] {
+            "16001491B24BF9F5288532960AC687ABB035127B1D28A5",
+            "220020FF25429251B5A84F452230A3C75FD886B7FC5A7865CE4A7BB7A9D7C5BE6DA3DB",
+            "0400010203",
+            "165114FF25429251B5A84F452230A3C75FD886B7FC5A",
+            "03000100",
+            "51",
+            "00"
+        };
+
+        for (final String unlockingScriptString : unlockingScripts) {
+            final UnlockingScript unlockingScript = new ImmutableUnlockingScript(ByteArray.fromHexString(unlockingScriptString));
+
+            // Action
+            final CompiledScript compiledScript = scriptInflater.compile(unlockingScript);
+
+            // Assert
+            Assert.assertEquals(scriptPatternMatcher.matchesSegregatedWitnessProgram(unlockingScript), compiledScript.isSegregatedWitnessProgram());
+        }
+    }
+
+    @Test
+    public void compiled_scripts_should_match_interpreted_scripts_for_pay_to_public_key_hash_heavy_block() {
+        // Setup
+        final BlockInflater blockInflater = new BlockInflater();
+        final Block block = blockInflater.fromBytes(ByteArray.fromHexString(IoUtil.getResource("/blocks/00000000000000000051CFB8C9B8191EC4EF14F8F44F3E2290D67A8A0A29DD05")));
+
+        final ScriptInflater scriptInflater = new ScriptInflater();
+        final ScriptPatternMatcher scriptPatternMatcher = new ScriptPatternMatcher();
+
+        final MutableList<ByteArray> scriptBytesList = new MutableList<ByteArray>();
+        final MutableList<ByteArray> lockingScriptBytes = new MutableList<ByteArray>();
+        final MutableList<ByteArray> unlockingScriptBytes = new MutableList<ByteArray>();
+        for (final Transaction transaction : block.getTransactions()) {
+            for (final TransactionOutput transactionOutput : transaction.getTransactionOutputs()) {
+                final ByteArray bytes = transactionOutput.getLockingScript().getBytes();
+                lockingScriptBytes.add(bytes);
+                scriptBytesList.add(bytes);
+            }
+            for (final TransactionInput transactionInput : transaction.getTransactionInputs()) {
+                final ByteArray bytes = transactionInput.getUnlockingScript().getBytes();
+                unlockingScriptBytes.add(bytes);
+                scriptBytesList.add(bytes);
+            }
+        }
+
+        int payToPublicKeyHashCount = 0;
+
+        // Action / Assert
+        for (final ByteArray bytes : lockingScriptBytes) {
+            final LockingScript compiledLockingScript = new ImmutableLockingScript(bytes);
+            final LockingScript interpretedLockingScript = new MutableLockingScript(bytes);
+            if (interpretedLockingScript.getOperations() == null) { continue; }
+
+            final ScriptType scriptType = compiledLockingScript.getScriptType();
+            Assert.assertEquals(bytes.toString(), scriptPatternMatcher.getScriptType(interpretedLockingScript), scriptType);
+            Assert.assertEquals(bytes.toString(), interpretedLockingScript.containsNonPushOperations(), compiledLockingScript.containsNonPushOperations());
+
+            if (scriptType == ScriptType.PAY_TO_PUBLIC_KEY_HASH) {
+                payToPublicKeyHashCount += 1;
+            }
+        }
+
+        for (final ByteArray bytes : unlockingScriptBytes) {
+            final UnlockingScript compiledUnlockingScript = new ImmutableUnlockingScript(bytes);
+            final UnlockingScript interpretedUnlockingScript = new MutableUnlockingScript(bytes);
+            if (interpretedUnlockingScript.getOperations() == null) { continue; } // Coinbase scripts are not required to be parsable...
+
+            Assert.assertEquals(bytes.toString(), interpretedUnlockingScript.containsNonPushOperations(), compiledUnlockingScript.containsNonPushOperations());
+            Assert.assertEquals(bytes.toString(), scriptPatternMatcher.matchesSegregatedWitnessProgram(interpretedUnlockingScript), scriptInflater.compile(compiledUnlockingScript).isSegregatedWitnessProgram());
+        }
+
+        for (final ByteArray bytes : scriptBytesList) {
+            final CompiledScript compiledScript = scriptInflater.compile(bytes);
+            final MutableScript interpretedScript = new MutableScript(bytes);
+            final List<Operation> interpretedOperations = interpretedScript.getOperations();
+            if (interpretedOperations == null) {
+                Assert.assertFalse(bytes.toString(), compiledScript.isCompiled());
+                continue;
+            }
+
+            Assert.assertTrue(bytes.toString(), compiledScript.isCompiled());
+            Assert.assertEquals(bytes.toString(), interpretedOperations.getCount(), compiledScript.getOperationCount());
+
+            for (int i = 0; i < interpretedOperations.getCount(); ++i) {
+                final Operation interpretedOperation = interpretedOperations.get(i);
+                final int operationByteCount = (compiledScript.getOperationByteOffset(i + 1) - compiledScript.getOperationByteOffset(i));
+
+                Assert.assertEquals(bytes.toString(), interpretedOperation, compiledScript.getOperations().get(i));
+                Assert.assertEquals(bytes.toString(), interpretedOperation.getOpcodeByte(), compiledScript.getOpcodeByte(i));
+                Assert.assertEquals(bytes.toString(), interpretedOperation.getBytes().length, operationByteCount);
+            }
+
+            Assert.assertEquals(bytes.toString(), interpretedScript.containsNonPushOperations(), compiledScript.containsNonPushOperations());
+            Assert.assertEquals(bytes.toString(), interpretedScript.getBytes(), compiledScript.getBytes());
+        }
+
+        Assert.assertTrue(payToPublicKeyHashCount > 0);
+    }
+}
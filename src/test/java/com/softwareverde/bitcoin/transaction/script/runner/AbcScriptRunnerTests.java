@@ -600,6 +600,13 @@ public class AbcScriptRunnerTests extends UnitTest {
 
             final boolean wasValid = scriptRunner.runScript(lockingScript, unlockingScript, context);
 
+            { // Ensure the standard-script fast-path is identical to the interpreter...
+                final ScriptRunner interpretingScriptRunner = new ScriptRunner();
+                interpretingScriptRunner.setStandardScriptEvaluationIsEnabled(false);
+                final boolean wasValidWhenInterpreted = interpretingScriptRunner.runScript(lockingScript, unlockingScript, context);
+                Assert.assertEquals("Fast-path mismatch for test vector " + i + " (" + testVector.getHash() + ").", wasValidWhenInterpreted, wasValid);
+            }
+
             executedCount += 1;
 
             final boolean expectedResult = Util.areEqual("OK", testVector.expectedResultString);
@@ -139,11 +139,16 @@ public class HistoricTransactionsTests extends UnitTest {
 
         final ScriptRunner scriptRunner = new ScriptRunner();
 
+        final ScriptRunner interpretingScriptRunner = new ScriptRunner();
+        interpretingScriptRunner.setStandardScriptEvaluationIsEnabled(false);
+
         // Action
         final Boolean inputIsUnlocked = scriptRunner.runScript(lockingScript, unlockingScript, transactionContext);
+        final Boolean inputIsUnlockedByInterpreter = interpretingScriptRunner.runScript(lockingScript, unlockingScript, transactionContext);
 
         // Assert
         Assert.assertEquals(inputIsUnlocked, expectedResult);
+        Assert.assertEquals(inputIsUnlockedByInterpreter, inputIsUnlocked); // The standard-script fast-path must be identical to the interpreter...
     }
 
     @After
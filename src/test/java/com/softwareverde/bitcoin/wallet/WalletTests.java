@@ -3,8 +3,10 @@ package com.softwareverde.bitcoin.wallet;
 import com.softwareverde.bitcoin.address.Address;
 import com.softwareverde.bitcoin.address.AddressInflater;
 import com.softwareverde.bitcoin.slp.SlpTokenId;
+import com.softwareverde.bitcoin.slp.SlpUtil;
 import com.softwareverde.bitcoin.test.UnitTest;
 import com.softwareverde.bitcoin.transaction.MutableTransaction;
+import com.softwareverde.bitcoin.transaction.Transaction;
 import com.softwareverde.bitcoin.transaction.input.MutableTransactionInput;
 import com.softwareverde.bitcoin.transaction.output.MutableTransactionOutput;
 import com.softwareverde.bitcoin.transaction.output.identifier.TransactionOutputIdentifier;
@@ -12,17 +14,102 @@ import com.softwareverde.bitcoin.transaction.script.ScriptBuilder;
 import com.softwareverde.bitcoin.transaction.script.locking.LockingScript;
 import com.softwareverde.bitcoin.transaction.script.slp.SlpScriptBuilder;
 import com.softwareverde.bitcoin.transaction.script.slp.send.MutableSlpSendScript;
+import com.softwareverde.bitcoin.wallet.utxo.MutableSpendableTransactionOutput;
 import com.softwareverde.constable.bytearray.MutableByteArray;
 import com.softwareverde.constable.list.List;
 import com.softwareverde.constable.list.mutable.MutableList;
+import com.softwareverde.cryptography.hash.sha256.Sha256Hash;
 import com.softwareverde.cryptography.secp256k1.key.PrivateKey;
 import com.softwareverde.cryptography.util.HashUtil;
 import com.softwareverde.util.Tuple;
+import com.softwareverde.util.Util;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeSet;
+
 public class WalletTests extends UnitTest {
 
+    /**
+     * Creates a Transaction spending the previousTransactionOutputIdentifiers, with an SLP send output (index 0) followed by one output per amount paid to the address.
+     *  The first tokenAmounts.length outputs paid to the address hold the tokenAmounts of slpTokenId.
+     */
+    protected static Transaction _createTransaction(final List<TransactionOutputIdentifier> previousTransactionOutputIdentifiers, final Address address, final SlpTokenId slpTokenId, final Long[] tokenAmounts, final Long... amounts) {
+        final MutableTransaction transaction = new MutableTransaction();
+        for (final TransactionOutputIdentifier previousTransactionOutputIdentifier : previousTransactionOutputIdentifiers) {
+            final MutableTransactionInput transactionInput = new MutableTransactionInput();
+            transactionInput.setPreviousOutputTransactionHash(previousTransactionOutputIdentifier.getTransactionHash());
+            transactionInput.setPreviousOutputIndex(previousTransactionOutputIdentifier.getOutputIndex());
+            transaction.addTransactionInput(transactionInput);
+        }
+
+        final SlpScriptBuilder slpScriptBuilder = new SlpScriptBuilder();
+        final MutableSlpSendScript slpSendScript = new MutableSlpSendScript();
+        slpSendScript.setTokenId(slpTokenId);
+        for (int i = 0; i < tokenAmounts.length; ++i) {
+            slpSendScript.setAmount((i + 1), tokenAmounts[i]);
+        }
+
+        final MutableTransactionOutput slpTransactionOutput = new MutableTransactionOutput();
+        slpTransactionOutput.setIndex(0);
+        slpTransactionOutput.setAmount(0L);
+        slpTransactionOutput.setLockingScript(slpScriptBuilder.createSendScript(slpSendScript));
+        transaction.addTransactionOutput(slpTransactionOutput);
+
+        for (int i = 0; i < amounts.length; ++i) {
+            final MutableTransactionOutput transactionOutput = new MutableTransactionOutput();
+            transactionOutput.setIndex(i + 1);
+            transactionOutput.setAmount(amounts[i]);
+            transactionOutput.setLockingScript(ScriptBuilder.payToAddress(address));
+            transaction.addTransactionOutput(transactionOutput);
+        }
+
+        return transaction;
+    }
+
+    /**
+     * Asserts that the Wallet's cached balance and unspent output indexes equal a full recount of its unspent outputs.
+     */
+    protected static void _assertCachedBalancesMatchRecount(final Wallet wallet) {
+        long unspentBalance = 0L;
+        int unspentTransactionOutputCount = 0;
+        final HashMap<SlpTokenId, Long> slpTokenBalances = new HashMap<SlpTokenId, Long>();
+        for (final MutableSpendableTransactionOutput spendableTransactionOutput : wallet._transactionOutputs.values()) {
+            if (spendableTransactionOutput.isSpent()) { continue; }
+
+            unspentTransactionOutputCount += 1;
+            unspentBalance += spendableTransactionOutput.getTransactionOutput().getAmount();
+
+            final TransactionOutputIdentifier transactionOutputIdentifier = spendableTransactionOutput.getIdentifier();
+            final Integer transactionOutputIndex = transactionOutputIdentifier.getOutputIndex();
+            final Transaction transaction = wallet._transactions.get(transactionOutputIdentifier.getTransactionHash());
+            if (! Transaction.isSlpTransaction(transaction)) { continue; }
+            if (! SlpUtil.isSlpTokenOutput(transaction, transactionOutputIndex)) { continue; }
+
+            final SlpTokenId slpTokenId = SlpUtil.getTokenId(transaction);
+            final Long tokenAmount = SlpUtil.getOutputTokenAmount(transaction, transactionOutputIndex);
+            slpTokenBalances.put(slpTokenId, (Util.coalesce(slpTokenBalances.get(slpTokenId), 0L) + tokenAmount));
+        }
+
+        Assert.assertEquals(Long.valueOf(unspentBalance), wallet._unspentBalance);
+        Assert.assertEquals(Long.valueOf(unspentBalance), wallet.getBalance());
+        Assert.assertEquals(unspentTransactionOutputCount, wallet._unspentTransactionOutputs.size());
+
+        Assert.assertEquals(slpTokenBalances.size(), wallet._unspentSlpTokenOutputsByTokenId.size());
+        for (final Map.Entry<SlpTokenId, Long> entry : slpTokenBalances.entrySet()) {
+            final TreeSet<Wallet.SlpTokenOutput> slpTokenOutputs = wallet._unspentSlpTokenOutputsByTokenId.get(entry.getKey());
+            Assert.assertNotNull(slpTokenOutputs);
+
+            long cachedTokenBalance = 0L;
+            for (final Wallet.SlpTokenOutput slpTokenOutput : slpTokenOutputs) {
+                cachedTokenBalance += slpTokenOutput.tokenAmount;
+            }
+            Assert.assertEquals(entry.getValue(), Long.valueOf(cachedTokenBalance));
+        }
+    }
+
     protected MutableList<Tuple<String, Long>> _setupTuples() {
         final MutableList<Tuple<String, Long>> sortedTuples = new MutableList<Tuple<String, Long>>();
         sortedTuples.add(new Tuple<String, Long>("One", 1L));
@@ -123,6 +210,27 @@ public class WalletTests extends UnitTest {
         Assert.assertEquals(8, sortedTuples.getCount());
     }
 
+    @Test
+    public void should_select_two_closest_slp_token_outputs_from_set() {
+        // Setup
+        final SlpTokenId slpTokenId = SlpTokenId.wrap(Sha256Hash.EMPTY_HASH);
+        final TreeSet<Wallet.SlpTokenOutput> sortedSlpTokenOutputs = new TreeSet<Wallet.SlpTokenOutput>(Wallet.SlpTokenOutput.TOKEN_AMOUNT_ASCENDING_COMPARATOR);
+        for (int i = 1; i <= 10; ++i) {
+            sortedSlpTokenOutputs.add(new Wallet.SlpTokenOutput(new TransactionOutputIdentifier(Sha256Hash.EMPTY_HASH, i), slpTokenId, (long) i));
+        }
+
+        // Action
+        final Wallet.SlpTokenOutput selectedSlpTokenOutput0 = Wallet.removeClosestSlpTokenOutput(sortedSlpTokenOutputs, 5L);
+        final Wallet.SlpTokenOutput selectedSlpTokenOutput1 = Wallet.removeClosestSlpTokenOutput(sortedSlpTokenOutputs, 5L);
+        final Wallet.SlpTokenOutput selectedSlpTokenOutput2 = Wallet.removeClosestSlpTokenOutput(sortedSlpTokenOutputs, 20L);
+
+        // Assert
+        Assert.assertEquals(Long.valueOf(5L), selectedSlpTokenOutput0.tokenAmount);
+        Assert.assertEquals(Long.valueOf(6L), selectedSlpTokenOutput1.tokenAmount);
+        Assert.assertEquals(Long.valueOf(10L), selectedSlpTokenOutput2.tokenAmount);
+        Assert.assertEquals(7, sortedSlpTokenOutputs.size());
+    }
+
     /**
      * This test handles an edge-case in which the the code used to override fee payment with a single sufficiently
      * large output does so with the knowledge of the value that is being provided by the mandatory inputs but then
@@ -177,4 +285,89 @@ public class WalletTests extends UnitTest {
         Assert.assertNotNull(transactionOutputList);
         Assert.assertEquals(2, transactionOutputList.getCount());
     }
+
+    @Test
+    public void cached_balances_should_match_a_recount_after_each_wallet_change() {
+        // Setup
+        final PrivateKey privateKey = PrivateKey.createNewKey();
+        final AddressInflater addressInflater = new AddressInflater();
+        final Address address = addressInflater.fromPrivateKey(privateKey, true);
+
+        final SlpTokenId slpTokenId0 = SlpTokenId.wrap(HashUtil.sha256(new MutableByteArray(4)));
+        final SlpTokenId slpTokenId1 = SlpTokenId.wrap(HashUtil.sha256(new MutableByteArray(8)));
+        final MutableList<TransactionOutputIdentifier> externalOutputs = new MutableList<TransactionOutputIdentifier>();
+        externalOutputs.add(new TransactionOutputIdentifier(Sha256Hash.EMPTY_HASH, 0));
+
+        final Transaction transaction0 = WalletTests._createTransaction(externalOutputs, address, slpTokenId0, new Long[]{ 50L, 25L }, 546L, 546L, 1000L);
+        final Transaction transaction1 = WalletTests._createTransaction(externalOutputs, address, slpTokenId1, new Long[]{ 10L }, 546L, 2000L);
+
+        final Wallet wallet = new Wallet();
+        wallet.addTransaction(transaction0); // Added before the PrivateKey, so its outputs are indexed by the reload...
+        wallet.addPrivateKey(privateKey);
+
+        // Action
+        wallet.addTransaction(transaction1);
+
+        // Assert
+        WalletTests._assertCachedBalancesMatchRecount(wallet);
+        Assert.assertEquals(Long.valueOf(546L + 546L + 1000L + 546L + 2000L), wallet.getBalance());
+        Assert.assertEquals(Long.valueOf(75L), wallet.getSlpTokenBalance(slpTokenId0));
+        Assert.assertEquals(Long.valueOf(10L), wallet.getSlpTokenBalance(slpTokenId1));
+
+        // Action
+        // Spend a token output and the plain output of transaction0, returning the remaining tokens as change...
+        final MutableList<TransactionOutputIdentifier> spentOutputs = new MutableList<TransactionOutputIdentifier>();
+        spentOutputs.add(new TransactionOutputIdentifier(transaction0.getHash(), 1));
+        spentOutputs.add(new TransactionOutputIdentifier(transaction0.getHash(), 3));
+        final Transaction transaction2 = WalletTests._createTransaction(spentOutputs, address, slpTokenId0, new Long[]{ 20L }, 546L);
+        wallet.addTransaction(transaction2);
+
+        // Assert
+        WalletTests._assertCachedBalancesMatchRecount(wallet);
+        Assert.assertEquals(Long.valueOf(546L + 546L + 546L + 2000L), wallet.getBalance());
+        Assert.assertEquals(Long.valueOf(25L + 20L), wallet.getSlpTokenBalance(slpTokenId0));
+
+        // Action
+        wallet.markTransactionOutputAsSpent(transaction1.getHash(), 1);
+
+        // Assert
+        WalletTests._assertCachedBalancesMatchRecount(wallet);
+        Assert.assertEquals(Long.valueOf(546L + 546L + 2000L), wallet.getBalance());
+        Assert.assertEquals(Long.valueOf(0L), wallet.getSlpTokenBalance(slpTokenId1));
+        Assert.assertFalse(wallet._unspentSlpTokenOutputsByTokenId.containsKey(slpTokenId1));
+
+        // Action
+        wallet.addPrivateKey(PrivateKey.createNewKey()); // Reloads the Wallet's transactions...
+
+        // Assert
+        WalletTests._assertCachedBalancesMatchRecount(wallet);
+        Assert.assertEquals(Long.valueOf(546L + 546L + 2000L), wallet.getBalance()); // The externally spent output remains spent...
+        Assert.assertEquals(Long.valueOf(25L + 20L), wallet.getSlpTokenBalance(slpTokenId0));
+        Assert.assertEquals(Long.valueOf(0L), wallet.getSlpTokenBalance(slpTokenId1));
+    }
+
+    @Test
+    public void readding_a_transaction_should_not_double_count_its_outputs() {
+        // Setup
+        final PrivateKey privateKey = PrivateKey.createNewKey();
+        final AddressInflater addressInflater = new AddressInflater();
+        final Address address = addressInflater.fromPrivateKey(privateKey, true);
+
+        final SlpTokenId slpTokenId = SlpTokenId.wrap(HashUtil.sha256(new MutableByteArray(4)));
+        final MutableList<TransactionOutputIdentifier> externalOutputs = new MutableList<TransactionOutputIdentifier>();
+        externalOutputs.add(new TransactionOutputIdentifier(Sha256Hash.EMPTY_HASH, 0));
+        final Transaction transaction = WalletTests._createTransaction(externalOutputs, address, slpTokenId, new Long[]{ 50L }, 546L, 1000L);
+
+        final Wallet wallet = new Wallet();
+        wallet.addPrivateKey(privateKey);
+
+        // Action
+        wallet.addUnconfirmedTransaction(transaction);
+        wallet.addTransaction(transaction);
+
+        // Assert
+        WalletTests._assertCachedBalancesMatchRecount(wallet);
+        Assert.assertEquals(Long.valueOf(546L + 1000L), wallet.getBalance());
+        Assert.assertEquals(Long.valueOf(50L), wallet.getSlpTokenBalance(slpTokenId));
+    }
 }